@@ -0,0 +1,666 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.async.processingframework.impl;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.JmxReporter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.SlidingTimeWindowReservoir;
+import com.codahale.metrics.Timer;
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.operation.impl.ResourceRequestById;
+import ddf.catalog.resource.Resource;
+import ddf.catalog.resource.ResourceNotFoundException;
+import ddf.catalog.resource.ResourceNotSupportedException;
+import ddf.security.SecurityConstants;
+import ddf.security.Subject;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.codice.ddf.catalog.async.data.api.internal.ProcessCreateItem;
+import org.codice.ddf.catalog.async.data.api.internal.ProcessDeleteItem;
+import org.codice.ddf.catalog.async.data.api.internal.ProcessItem;
+import org.codice.ddf.catalog.async.data.api.internal.ProcessRequest;
+import org.codice.ddf.catalog.async.data.api.internal.ProcessResource;
+import org.codice.ddf.catalog.async.data.api.internal.ProcessResourceItem;
+import org.codice.ddf.catalog.async.data.api.internal.ProcessUpdateItem;
+import org.codice.ddf.catalog.async.data.impl.LazyProcessResourceImpl;
+import org.codice.ddf.catalog.async.data.impl.ProcessCreateItemImpl;
+import org.codice.ddf.catalog.async.data.impl.ProcessDeleteItemImpl;
+import org.codice.ddf.catalog.async.data.impl.ProcessRequestImpl;
+import org.codice.ddf.catalog.async.data.impl.ProcessUpdateItemImpl;
+import org.codice.ddf.security.common.Security;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The {@code DurableProcessingFramework} queues the submitted work per metacard and processes it
+ * with a fixed number of workers, like the {@link InMemoryProcessingFramework} but with the
+ * following differences:
+ *
+ * <ul>
+ *   <li>Pending work is written to a {@link ProcessingJournal} and is picked up again after a
+ *       restart. The subject of the original request can't be persisted, so recovered work is
+ *       processed and stored as the system subject.
+ *   <li>Work submitted for a metacard that is still waiting to be processed is coalesced with the
+ *       pending work, so that each metacard is only processed once for its latest state. A create
+ *       followed by updates stays a create, and a delete replaces any pending create or update.
+ *   <li>Creates are processed before updates, and updates before deletes. Work of the same kind is
+ *       processed in the order it was first submitted.
+ *   <li>Pending items of the same kind and subject are processed together in batches of up to
+ *       {@code batchSize} items, so that their changes are stored with a single update request.
+ * </ul>
+ *
+ * <p>The number of pending items, the number of coalesced submissions and the latency from
+ * submission to the end of processing are published through JMX in the {@code
+ * ddf.metrics.catalog.async} domain.
+ */
+public class DurableProcessingFramework extends InMemoryProcessingFramework {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DurableProcessingFramework.class);
+
+  private static final String METRICS_SCOPE = "Processing";
+
+  private static final long PLUGIN_WAIT_MILLIS = 1000;
+
+  /** The kinds of work in the order of their priority. */
+  enum Operation {
+    CREATE,
+    UPDATE,
+    DELETE
+  }
+
+  private final CatalogFramework catalogFramework;
+
+  private final ExecutorService threadPool;
+
+  private final String journalDirectory;
+
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private final Condition workAvailable = lock.newCondition();
+
+  private final Map<Operation, LinkedHashMap<String, PendingItem>> pendingItems =
+      new EnumMap<>(Operation.class);
+
+  private final Set<String> inFlight = new HashSet<>();
+
+  private final MetricRegistry metrics = new MetricRegistry();
+
+  private final JmxReporter reporter =
+      JmxReporter.forRegistry(metrics).inDomain("ddf.metrics.catalog.async").build();
+
+  private final Timer latency;
+
+  private final Meter coalesced;
+
+  private int batchSize = 100;
+
+  private int workerCount = 1;
+
+  private boolean running;
+
+  private volatile ProcessingJournal journal;
+
+  public DurableProcessingFramework(
+      CatalogFramework catalogFramework, ExecutorService threadPool, String journalDirectory) {
+    super(catalogFramework, threadPool);
+    this.catalogFramework = catalogFramework;
+    this.threadPool = threadPool;
+    this.journalDirectory = journalDirectory;
+
+    for (Operation operation : Operation.values()) {
+      pendingItems.put(operation, new LinkedHashMap<>());
+    }
+
+    metrics.register(
+        MetricRegistry.name(METRICS_SCOPE, "Pending"), (Gauge<Integer>) this::getPendingCount);
+    latency =
+        metrics.register(
+            MetricRegistry.name(METRICS_SCOPE, "Latency"),
+            new Timer(new SlidingTimeWindowReservoir(1, TimeUnit.MINUTES)));
+    coalesced = metrics.meter(MetricRegistry.name(METRICS_SCOPE, "Coalesced"));
+  }
+
+  /** Recovers the work pending in the journal and starts the workers. */
+  public void init() {
+    try {
+      journal = new ProcessingJournal(Paths.get(journalDirectory));
+      recover(journal.replay());
+    } catch (IOException | RuntimeException e) {
+      LOGGER.warn(
+          "Unable to open the processing journal in {}. Pending post processing will not survive a restart.",
+          journalDirectory,
+          e);
+      journal = null;
+    }
+
+    lock.lock();
+    try {
+      running = true;
+    } finally {
+      lock.unlock();
+    }
+
+    for (int i = 0; i < workerCount; i++) {
+      threadPool.submit(this::work);
+    }
+    reporter.start();
+  }
+
+  @Override
+  public void cleanUp() {
+    lock.lock();
+    try {
+      running = false;
+      workAvailable.signalAll();
+    } finally {
+      lock.unlock();
+    }
+
+    super.cleanUp();
+    reporter.stop();
+
+    if (journal != null) {
+      try {
+        journal.close();
+      } catch (IOException e) {
+        LOGGER.debug("Unable to close the processing journal in {}", journalDirectory, e);
+      }
+    }
+  }
+
+  @Override
+  public void submitCreate(ProcessRequest<ProcessCreateItem> input) {
+    submit(Operation.CREATE, input);
+  }
+
+  @Override
+  public void submitUpdate(ProcessRequest<ProcessUpdateItem> input) {
+    submit(Operation.UPDATE, input);
+  }
+
+  @Override
+  public void submitDelete(ProcessRequest<ProcessDeleteItem> input) {
+    submit(Operation.DELETE, input);
+  }
+
+  /** @param batchSize maximum number of items processed and stored together */
+  public void setBatchSize(int batchSize) {
+    this.batchSize = Math.max(1, batchSize);
+  }
+
+  /** @param workerCount number of batches processed concurrently, at most the thread pool size */
+  public void setWorkerCount(int workerCount) {
+    this.workerCount = Math.max(1, workerCount);
+  }
+
+  /** @return the number of items waiting to be processed */
+  public int getPendingCount() {
+    lock.lock();
+    try {
+      return pendingItems.values().stream().mapToInt(Map::size).sum();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  Timer getLatency() {
+    return latency;
+  }
+
+  Meter getCoalesced() {
+    return coalesced;
+  }
+
+  /** @return the subject used to process and store work recovered from the journal */
+  Subject getSystemSubject() {
+    return Security.getInstance().getSystemSubject();
+  }
+
+  private void submit(Operation operation, ProcessRequest<? extends ProcessItem> input) {
+    if (!hasPostProcessPlugins()) {
+      LOGGER.debug("postProcessPlugins is empty. Not queuing the process request");
+      return;
+    }
+
+    Map<String, Serializable> properties = input.getProperties();
+    Subject subject = (Subject) properties.get(SecurityConstants.SECURITY_SUBJECT);
+    Map<String, byte[]> persistableProperties =
+        journal != null ? getPersistableProperties(properties) : null;
+
+    for (ProcessItem item : input.getProcessItems()) {
+      PendingItem pendingItem = new PendingItem(operation, item.getMetacard(), properties, subject);
+      if (item instanceof ProcessUpdateItem) {
+        pendingItem.oldMetacard = ((ProcessUpdateItem) item).getOldMetacard();
+      }
+      if (item instanceof ProcessResourceItem) {
+        pendingItem.processResource = ((ProcessResourceItem) item).getProcessResource();
+      }
+      if (persistableProperties != null) {
+        long sequence = append(pendingItem, persistableProperties);
+        if (sequence >= 0) {
+          pendingItem.sequences.add(sequence);
+        }
+      }
+      enqueue(pendingItem);
+    }
+  }
+
+  /**
+   * Adds the item to the pending work, coalescing it with the work already pending for the same
+   * metacard. An update of a metacard with a pending create or update keeps the kind and position
+   * of the pending work, so that frequently updated metacards don't starve, and otherwise the
+   * latest submission replaces the pending work. The journal entries of the work an update is
+   * coalesced with are kept until the update is processed, so that replaying them coalesces them
+   * the same way.
+   */
+  private void enqueue(PendingItem item) {
+    PendingItem replaced = null;
+
+    lock.lock();
+    try {
+      String id = item.metacard.getId();
+      LinkedHashMap<String, PendingItem> items = pendingItems.get(item.operation);
+
+      for (LinkedHashMap<String, PendingItem> candidates : pendingItems.values()) {
+        replaced = candidates.get(id);
+        if (replaced != null) {
+          coalesced.mark();
+          if (item.operation == Operation.UPDATE && replaced.operation != Operation.DELETE) {
+            item.operation = replaced.operation;
+            item.oldMetacard = replaced.oldMetacard;
+            item.submitted = replaced.submitted;
+            item.sequences.addAll(0, replaced.sequences);
+            replaced.sequences.clear();
+            items = candidates;
+          } else {
+            candidates.remove(id);
+          }
+          break;
+        }
+      }
+
+      items.put(id, item);
+      workAvailable.signal();
+    } finally {
+      lock.unlock();
+    }
+
+    if (replaced != null) {
+      discard(replaced);
+    }
+  }
+
+  private void work() {
+    try {
+      List<PendingItem> batch;
+      while ((batch = takeBatch()) != null) {
+        process(batch);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      LOGGER.debug("Interrupted while waiting for post processing work.");
+    }
+  }
+
+  /**
+   * Waits for the highest priority work that isn't already being processed.
+   *
+   * @return items of the same kind, subject and request properties, or {@code null} if the
+   *     framework is stopping
+   */
+  private List<PendingItem> takeBatch() throws InterruptedException {
+    lock.lock();
+    try {
+      while (running) {
+        if (hasPostProcessPlugins()) {
+          List<PendingItem> batch = nextBatch();
+          if (!batch.isEmpty()) {
+            return batch;
+          }
+          workAvailable.await();
+        } else {
+          // recovered work waits for the plugins to be bound
+          workAvailable.await(PLUGIN_WAIT_MILLIS, TimeUnit.MILLISECONDS);
+        }
+      }
+      return null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private List<PendingItem> nextBatch() {
+    List<PendingItem> batch = new ArrayList<>();
+
+    for (LinkedHashMap<String, PendingItem> items : pendingItems.values()) {
+      Iterator<PendingItem> iterator = items.values().iterator();
+      while (iterator.hasNext() && batch.size() < batchSize) {
+        PendingItem item = iterator.next();
+        String id = item.metacard.getId();
+        if (!inFlight.contains(id) && (batch.isEmpty() || isSameRequest(batch.get(0), item))) {
+          iterator.remove();
+          inFlight.add(id);
+          batch.add(item);
+        }
+      }
+
+      if (!batch.isEmpty()) {
+        return batch;
+      }
+    }
+    return batch;
+  }
+
+  /**
+   * Items are only processed together when they can share the request properties, since the post
+   * process plugins get a single request for the whole batch.
+   */
+  private static boolean isSameRequest(PendingItem first, PendingItem item) {
+    return first.subject == item.subject && first.properties.equals(item.properties);
+  }
+
+  private void process(List<PendingItem> batch) {
+    PendingItem first = batch.get(0);
+    Map<String, Serializable> properties = new HashMap<>(first.properties);
+    Subject subject = first.subject != null ? first.subject : getSystemSubject();
+    properties.put(SecurityConstants.SECURITY_SUBJECT, subject);
+
+    LOGGER.debug("Processing {} {} item(s)", batch.size(), first.operation);
+    try {
+      switch (first.operation) {
+        case CREATE:
+          processCreate(
+              new ProcessRequestImpl<>(
+                  toItems(
+                      batch,
+                      item ->
+                          new ProcessCreateItemImpl(
+                              getProcessResource(item, subject), item.metacard, false)),
+                  properties));
+          break;
+        case UPDATE:
+          processUpdate(
+              new ProcessRequestImpl<>(
+                  toItems(
+                      batch,
+                      item ->
+                          new ProcessUpdateItemImpl(
+                              getProcessResource(item, subject),
+                              item.metacard,
+                              item.oldMetacard,
+                              false)),
+                  properties));
+          break;
+        default:
+          processDelete(
+              new ProcessRequestImpl<>(
+                  toItems(batch, item -> new ProcessDeleteItemImpl(item.metacard)), properties));
+      }
+    } catch (RuntimeException e) {
+      LOGGER.info("Unable to post process {} metacard(s)", batch.size(), e);
+    } finally {
+      complete(batch);
+    }
+  }
+
+  private static <T extends ProcessItem> List<T> toItems(
+      List<PendingItem> batch, Function<PendingItem, T> mapper) {
+    return batch.stream().map(mapper).collect(Collectors.toList());
+  }
+
+  private void complete(List<PendingItem> batch) {
+    long now = System.nanoTime();
+
+    lock.lock();
+    try {
+      for (PendingItem item : batch) {
+        inFlight.remove(item.metacard.getId());
+        latency.update(now - item.submitted, TimeUnit.NANOSECONDS);
+      }
+      workAvailable.signalAll();
+    } finally {
+      lock.unlock();
+    }
+
+    for (PendingItem item : batch) {
+      completeJournalEntries(item);
+    }
+  }
+
+  private void discard(PendingItem item) {
+    if (item.processResource != null) {
+      item.processResource.close();
+    }
+    completeJournalEntries(item);
+  }
+
+  private ProcessResource getProcessResource(PendingItem item, Subject subject) {
+    if (item.processResource != null || !item.recovered) {
+      return item.processResource;
+    }
+
+    Metacard metacard = item.metacard;
+    LazyProcessResourceImpl processResource =
+        new LazyProcessResourceImpl(
+            metacard.getId(), () -> subject.execute(() -> getResource(metacard)));
+    if (metacard.getResourceURI() != null) {
+      processResource.setUri(metacard.getResourceURI());
+    }
+    return processResource;
+  }
+
+  private Resource getResource(Metacard metacard) {
+    try {
+      return catalogFramework
+          .getResource(new ResourceRequestById(metacard.getId()), metacard.getSourceId())
+          .getResource();
+    } catch (IOException
+        | ResourceNotFoundException
+        | ResourceNotSupportedException
+        | RuntimeException e) {
+      LOGGER.debug("Unable to get resource id:{}. Returning null", metacard.getId(), e);
+      return null;
+    }
+  }
+
+  private void recover(Map<Long, byte[]> entries) {
+    int recovered = 0;
+    for (Map.Entry<Long, byte[]> entry : entries.entrySet()) {
+      PendingItem item = deserialize(entry.getValue());
+      if (item == null) {
+        completeJournalEntry(entry.getKey());
+      } else {
+        item.sequences.add(entry.getKey());
+        enqueue(item);
+        recovered++;
+      }
+    }
+
+    if (recovered > 0) {
+      LOGGER.info(
+          "Recovered {} pending post processing item(s) from {}", recovered, journalDirectory);
+    }
+  }
+
+  /**
+   * Serializes the item and appends it to the journal. Only the append itself is synchronized, on
+   * the journal.
+   *
+   * @param persistableProperties the serialized request properties
+   * @return the sequence number of the journal entry, or -1 if the item is only kept in memory
+   */
+  private long append(PendingItem item, Map<String, byte[]> persistableProperties) {
+    ProcessingJournal currentJournal = journal;
+    if (currentJournal == null) {
+      return -1;
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+      output.writeUTF(item.operation.name());
+      output.writeObject(item.metacard);
+      output.writeObject(item.oldMetacard);
+      output.writeInt(persistableProperties.size());
+      for (Map.Entry<String, byte[]> entry : persistableProperties.entrySet()) {
+        output.writeUTF(entry.getKey());
+        output.writeInt(entry.getValue().length);
+        output.write(entry.getValue());
+      }
+    } catch (IOException e) {
+      LOGGER.debug(
+          "Unable to serialize metacard {}. It will not be recovered after a restart.",
+          item.metacard.getId(),
+          e);
+      return -1;
+    }
+
+    try {
+      return currentJournal.append(bytes.toByteArray());
+    } catch (IOException | RuntimeException e) {
+      LOGGER.info("Unable to write to the processing journal in {}", journalDirectory, e);
+      return -1;
+    }
+  }
+
+  private PendingItem deserialize(byte[] entry) {
+    try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(entry))) {
+      Operation operation = Operation.valueOf(input.readUTF());
+      Metacard metacard = (Metacard) input.readObject();
+      Metacard oldMetacard = (Metacard) input.readObject();
+      Map<String, Serializable> properties = new HashMap<>();
+      int size = input.readInt();
+      for (int i = 0; i < size; i++) {
+        String key = input.readUTF();
+        byte[] value = new byte[input.readInt()];
+        input.readFully(value);
+        properties.put(key, deserializeProperty(value));
+      }
+
+      PendingItem item = new PendingItem(operation, metacard, properties, null);
+      item.oldMetacard = oldMetacard;
+      item.recovered = true;
+      return item;
+    } catch (IOException | ClassNotFoundException | RuntimeException e) {
+      LOGGER.debug("Unable to read a pending item from the processing journal", e);
+      return null;
+    }
+  }
+
+  private static Serializable deserializeProperty(byte[] value)
+      throws IOException, ClassNotFoundException {
+    try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(value))) {
+      return (Serializable) input.readObject();
+    }
+  }
+
+  /**
+   * @return the serialized request properties, leaving out the subject and any property that can't
+   *     be serialized
+   */
+  private static Map<String, byte[]> getPersistableProperties(
+      Map<String, Serializable> properties) {
+    Map<String, byte[]> persistable = new HashMap<>();
+    properties.forEach(
+        (key, value) -> {
+          if (SecurityConstants.SECURITY_SUBJECT.equals(key)) {
+            return;
+          }
+
+          ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+          try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(value);
+          } catch (IOException e) {
+            LOGGER.debug("Request property {} can't be written to the processing journal", key, e);
+            return;
+          }
+          persistable.put(key, bytes.toByteArray());
+        });
+    return persistable;
+  }
+
+  private void completeJournalEntries(PendingItem item) {
+    for (long sequence : item.sequences) {
+      completeJournalEntry(sequence);
+    }
+  }
+
+  private void completeJournalEntry(long sequence) {
+    ProcessingJournal currentJournal = journal;
+    if (currentJournal == null || sequence < 0) {
+      return;
+    }
+
+    try {
+      currentJournal.complete(sequence);
+    } catch (IOException | RuntimeException e) {
+      LOGGER.info("Unable to write to the processing journal in {}", journalDirectory, e);
+    }
+  }
+
+  private static class PendingItem {
+
+    private final Metacard metacard;
+
+    private final Map<String, Serializable> properties;
+
+    private final Subject subject;
+
+    private Operation operation;
+
+    private Metacard oldMetacard;
+
+    private long submitted = System.nanoTime();
+
+    private ProcessResource processResource;
+
+    /** Sequence numbers of the journal entries of the item and the work it was coalesced with. */
+    private final List<Long> sequences = new ArrayList<>();
+
+    private boolean recovered;
+
+    PendingItem(
+        Operation operation,
+        Metacard metacard,
+        Map<String, Serializable> properties,
+        Subject subject) {
+      this.operation = operation;
+      this.metacard = metacard;
+      this.properties = properties;
+      this.subject = subject;
+    }
+  }
+}
@@ -109,88 +109,104 @@ public void cleanUp() {
 
   @Override
   public void submitCreate(ProcessRequest<ProcessCreateItem> input) {
-    if (postProcessPlugins == null || postProcessPlugins.isEmpty()) {
+    if (!hasPostProcessPlugins()) {
       LOGGER.debug("postProcessPlugins is empty. Not starting post process thread");
     } else {
-      threadPool.submit(
-          () -> {
-            ProcessRequest<ProcessCreateItem> request = input;
-
-            for (PostProcessPlugin plugin : postProcessPlugins) {
-              try {
-                request = plugin.processCreate(request);
-              } catch (PluginExecutionException e) {
-                LOGGER.debug(
-                    "Unable to process create request through plugin: {}",
-                    plugin.getClass().getCanonicalName(),
-                    e);
-              } catch (InaccessibleResourceException e) {
-                LOGGER.debug(
-                    "Unable to process create request. The resource is not available. Failing the entire process request.",
-                    e);
-              }
-            }
-
-            storeProcessRequest(request);
-            closeInputStream(request);
-          });
+      threadPool.submit(() -> processCreate(input));
     }
   }
 
   @Override
   public void submitUpdate(ProcessRequest<ProcessUpdateItem> input) {
-    if (postProcessPlugins == null || postProcessPlugins.isEmpty()) {
+    if (!hasPostProcessPlugins()) {
       LOGGER.debug("postProcessPlugins is empty. Not starting post process thread");
     } else {
-      threadPool.submit(
-          () -> {
-            ProcessRequest<ProcessUpdateItem> request = input;
-
-            for (PostProcessPlugin plugin : postProcessPlugins) {
-              try {
-                request = plugin.processUpdate(request);
-              } catch (PluginExecutionException e) {
-                LOGGER.debug(
-                    "Unable to process update request through plugin: {}",
-                    plugin.getClass().getCanonicalName(),
-                    e);
-              } catch (InaccessibleResourceException e) {
-                LOGGER.debug(
-                    "Unable to process update request. The resource is not available. Failing the entire process request.",
-                    e);
-              }
-            }
-
-            storeProcessRequest(request);
-            closeInputStream(request);
-          });
+      threadPool.submit(() -> processUpdate(input));
     }
   }
 
   @Override
   public void submitDelete(ProcessRequest<ProcessDeleteItem> input) {
-    if (postProcessPlugins == null || postProcessPlugins.isEmpty()) {
+    if (!hasPostProcessPlugins()) {
       LOGGER.debug("postProcessPlugins is empty. Not starting post process thread");
     } else {
-      threadPool.submit(
-          () -> {
-            ProcessRequest<ProcessDeleteItem> request = input;
+      threadPool.submit(() -> processDelete(input));
+    }
+  }
 
-            for (PostProcessPlugin plugin : postProcessPlugins) {
-              try {
-                request = plugin.processDelete(request);
-              } catch (PluginExecutionException e) {
-                LOGGER.debug(
-                    "Unable to process request through plugin: {}",
-                    plugin.getClass().getCanonicalName(),
-                    e);
-              } catch (InaccessibleResourceException e) {
-                LOGGER.debug(
-                    "Unable to process delete request. The resource is not available. Failing the entire process request.",
-                    e);
-              }
-            }
-          });
+  boolean hasPostProcessPlugins() {
+    return postProcessPlugins != null && !postProcessPlugins.isEmpty();
+  }
+
+  /**
+   * Runs the create request through the {@link PostProcessPlugin}s on the calling thread and stores
+   * the changes in the {@link CatalogFramework}.
+   */
+  void processCreate(ProcessRequest<ProcessCreateItem> input) {
+    ProcessRequest<ProcessCreateItem> request = input;
+
+    for (PostProcessPlugin plugin : postProcessPlugins) {
+      try {
+        request = plugin.processCreate(request);
+      } catch (PluginExecutionException e) {
+        LOGGER.debug(
+            "Unable to process create request through plugin: {}",
+            plugin.getClass().getCanonicalName(),
+            e);
+      } catch (InaccessibleResourceException e) {
+        LOGGER.debug(
+            "Unable to process create request. The resource is not available. Failing the entire process request.",
+            e);
+      }
+    }
+
+    storeProcessRequest(request);
+    closeInputStream(request);
+  }
+
+  /**
+   * Runs the update request through the {@link PostProcessPlugin}s on the calling thread and stores
+   * the changes in the {@link CatalogFramework}.
+   */
+  void processUpdate(ProcessRequest<ProcessUpdateItem> input) {
+    ProcessRequest<ProcessUpdateItem> request = input;
+
+    for (PostProcessPlugin plugin : postProcessPlugins) {
+      try {
+        request = plugin.processUpdate(request);
+      } catch (PluginExecutionException e) {
+        LOGGER.debug(
+            "Unable to process update request through plugin: {}",
+            plugin.getClass().getCanonicalName(),
+            e);
+      } catch (InaccessibleResourceException e) {
+        LOGGER.debug(
+            "Unable to process update request. The resource is not available. Failing the entire process request.",
+            e);
+      }
+    }
+
+    storeProcessRequest(request);
+    closeInputStream(request);
+  }
+
+  /** Runs the delete request through the {@link PostProcessPlugin}s on the calling thread. */
+  void processDelete(ProcessRequest<ProcessDeleteItem> input) {
+    ProcessRequest<ProcessDeleteItem> request = input;
+
+    for (PostProcessPlugin plugin : postProcessPlugins) {
+      try {
+        request = plugin.processDelete(request);
+      } catch (PluginExecutionException e) {
+        LOGGER.debug(
+            "Unable to process request through plugin: {}",
+            plugin.getClass().getCanonicalName(),
+            e);
+      } catch (InaccessibleResourceException e) {
+        LOGGER.debug(
+            "Unable to process delete request. The resource is not available. Failing the entire process request.",
+            e);
+      }
     }
   }
 
@@ -0,0 +1,295 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.async.processingframework.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only journal of the work pending in the {@link DurableProcessingFramework}. Every entry is
+ * written with a sequence number when it is enqueued, and a completion record is written once it
+ * has been processed, so that the entries without a completion record can be replayed after a
+ * restart. The journal is rewritten with only the pending entries once enough completed entries
+ * have accumulated.
+ *
+ * <p>Each record is flushed to the operating system as it is written, which survives a crash of the
+ * process but not of the host.
+ */
+class ProcessingJournal implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ProcessingJournal.class);
+
+  static final String JOURNAL_FILE = "processing.journal";
+
+  private static final byte ENQUEUE = 1;
+
+  private static final byte COMPLETE = 2;
+
+  private static final int MIN_COMPACTION_GARBAGE = 10000;
+
+  private final Path journalPath;
+
+  private final Set<Long> pendingSequences = new HashSet<>();
+
+  private DataOutputStream output;
+
+  private long nextSequence = 1;
+
+  private int completedCount;
+
+  /** @param directory directory of the journal, created if it does not exist */
+  ProcessingJournal(Path directory) throws IOException {
+    Files.createDirectories(directory);
+    this.journalPath = directory.resolve(JOURNAL_FILE);
+  }
+
+  /**
+   * Reads the entries that were not completed back from the journal and opens it for writing. A
+   * record left incomplete by a crash is truncated.
+   *
+   * @return the pending entries by sequence number, in the order they were enqueued
+   */
+  synchronized Map<Long, byte[]> replay() throws IOException {
+    Map<Long, byte[]> entries = new LinkedHashMap<>();
+    long validLength = 0;
+
+    if (Files.exists(journalPath)) {
+      try (DataInputStream input =
+          new DataInputStream(new BufferedInputStream(Files.newInputStream(journalPath)))) {
+        while (true) {
+          byte type = input.readByte();
+          long sequence = input.readLong();
+          nextSequence = Math.max(nextSequence, sequence + 1);
+
+          if (type == ENQUEUE) {
+            byte[] entry = readEntry(input);
+            if (entry == null) {
+              break;
+            }
+            entries.put(sequence, entry);
+            validLength += Byte.BYTES + Long.BYTES + 2 * Integer.BYTES + entry.length;
+          } else if (type == COMPLETE) {
+            if (entries.remove(sequence) != null) {
+              completedCount++;
+            }
+            validLength += Byte.BYTES + Long.BYTES;
+          } else {
+            LOGGER.debug("Invalid record type {} in processing journal {}", type, journalPath);
+            break;
+          }
+        }
+      } catch (EOFException e) {
+        LOGGER.trace("Reached the end of processing journal {}", journalPath);
+      }
+
+      truncate(validLength);
+    }
+
+    pendingSequences.addAll(entries.keySet());
+    openOutput();
+    return entries;
+  }
+
+  /**
+   * @param entry serialized entry
+   * @return the sequence number of the entry, used to {@link #complete(long)} it
+   */
+  synchronized long append(byte[] entry) throws IOException {
+    ensureOpen();
+
+    long sequence = nextSequence++;
+    CRC32 crc = new CRC32();
+    crc.update(entry);
+
+    output.writeByte(ENQUEUE);
+    output.writeLong(sequence);
+    output.writeInt(entry.length);
+    output.writeInt((int) crc.getValue());
+    output.write(entry);
+    output.flush();
+
+    pendingSequences.add(sequence);
+    return sequence;
+  }
+
+  /** Marks the entry as processed, so that it is no longer replayed. */
+  synchronized void complete(long sequence) throws IOException {
+    ensureOpen();
+
+    if (!pendingSequences.remove(sequence)) {
+      return;
+    }
+
+    output.writeByte(COMPLETE);
+    output.writeLong(sequence);
+    output.flush();
+
+    completedCount++;
+    if (completedCount >= MIN_COMPACTION_GARBAGE && completedCount > pendingSequences.size()) {
+      compact();
+    }
+  }
+
+  /** @return the number of entries that have not been completed */
+  synchronized int size() {
+    return pendingSequences.size();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (output != null) {
+      output.close();
+      output = null;
+    }
+  }
+
+  /** Rewrites the journal with only the pending entries, replacing it atomically. */
+  private void compact() throws IOException {
+    output.close();
+    output = null;
+
+    Path tempPath = journalPath.resolveSibling(JOURNAL_FILE + ".tmp");
+    try {
+      try (DataInputStream input =
+              new DataInputStream(new BufferedInputStream(Files.newInputStream(journalPath)));
+          DataOutputStream tempOutput =
+              new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempPath)))) {
+        copyPendingEntries(input, tempOutput);
+      }
+
+      try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+        channel.force(true);
+      }
+      Files.move(
+          tempPath,
+          journalPath,
+          StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+
+      LOGGER.debug(
+          "Compacted processing journal {}, dropped {} completed entries",
+          journalPath,
+          completedCount);
+    } finally {
+      completedCount = 0;
+      Files.deleteIfExists(tempPath);
+      openOutput();
+    }
+  }
+
+  private void copyPendingEntries(DataInputStream input, DataOutputStream tempOutput)
+      throws IOException {
+    try {
+      while (true) {
+        byte type = input.readByte();
+        long sequence = input.readLong();
+
+        if (type == ENQUEUE) {
+          int length = input.readInt();
+          int crc = input.readInt();
+          if (pendingSequences.contains(sequence)) {
+            tempOutput.writeByte(ENQUEUE);
+            tempOutput.writeLong(sequence);
+            tempOutput.writeInt(length);
+            tempOutput.writeInt(crc);
+            copy(input, tempOutput, length);
+          } else {
+            IOUtils.skipFully(input, length);
+          }
+        }
+      }
+    } catch (EOFException e) {
+      LOGGER.trace("Copied the pending entries of processing journal {}", journalPath);
+    }
+  }
+
+  private static void copy(InputStream input, DataOutputStream output, int length)
+      throws IOException {
+    byte[] buffer = new byte[Math.min(length, 8192)];
+    int remaining = length;
+    while (remaining > 0) {
+      int read = input.read(buffer, 0, Math.min(buffer.length, remaining));
+      if (read < 0) {
+        throw new EOFException();
+      }
+      output.write(buffer, 0, read);
+      remaining -= read;
+    }
+  }
+
+  private byte[] readEntry(DataInputStream input) throws IOException {
+    int length = input.readInt();
+    int crc = input.readInt();
+    if (length < 0) {
+      LOGGER.debug("Invalid entry length {} in processing journal {}", length, journalPath);
+      return null;
+    }
+
+    byte[] entry = new byte[length];
+    input.readFully(entry);
+
+    CRC32 actualCrc = new CRC32();
+    actualCrc.update(entry);
+    if ((int) actualCrc.getValue() != crc) {
+      LOGGER.debug("Invalid entry checksum in processing journal {}", journalPath);
+      return null;
+    }
+    return entry;
+  }
+
+  private void truncate(long validLength) throws IOException {
+    try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.WRITE)) {
+      if (channel.size() > validLength) {
+        LOGGER.info(
+            "Truncating {} bytes of incomplete records from processing journal {}",
+            channel.size() - validLength,
+            journalPath);
+        channel.truncate(validLength);
+      }
+    }
+  }
+
+  private void openOutput() throws IOException {
+    output =
+        new DataOutputStream(
+            new BufferedOutputStream(
+                Files.newOutputStream(
+                    journalPath, StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+  }
+
+  private void ensureOpen() {
+    if (output == null) {
+      throw new IllegalStateException("Processing journal " + journalPath + " is not open");
+    }
+  }
+}
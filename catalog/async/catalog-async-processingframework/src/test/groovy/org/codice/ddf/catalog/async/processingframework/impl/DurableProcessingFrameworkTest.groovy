@@ -0,0 +1,262 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.async.processingframework.impl
+
+import ddf.catalog.CatalogFramework
+import ddf.catalog.data.impl.MetacardImpl
+import ddf.catalog.operation.UpdateRequest
+import ddf.security.Subject
+import org.codice.ddf.catalog.async.data.api.internal.ProcessCreateItem
+import org.codice.ddf.catalog.async.data.api.internal.ProcessDeleteItem
+import org.codice.ddf.catalog.async.data.api.internal.ProcessRequest
+import org.codice.ddf.catalog.async.data.api.internal.ProcessUpdateItem
+import org.codice.ddf.catalog.async.data.impl.ProcessCreateItemImpl
+import org.codice.ddf.catalog.async.data.impl.ProcessDeleteItemImpl
+import org.codice.ddf.catalog.async.data.impl.ProcessRequestImpl
+import org.codice.ddf.catalog.async.data.impl.ProcessUpdateItemImpl
+import org.codice.ddf.catalog.async.plugin.api.internal.PostProcessPlugin
+import org.junit.Rule
+import org.junit.rules.TemporaryFolder
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+
+class DurableProcessingFrameworkTest extends Specification {
+
+    @Rule
+    TemporaryFolder temporaryFolder = new TemporaryFolder()
+
+    CatalogFramework catalogFramework = Mock(CatalogFramework)
+
+    PostProcessPlugin postProcessPlugin = Mock(PostProcessPlugin)
+
+    Subject subject = Mock(Subject) {
+        execute(_ as Callable) >> { Callable callable -> callable.call() }
+    }
+
+    ExecutorService threadPool = Executors.newSingleThreadExecutor()
+
+    String journalDirectory
+
+    DurableProcessingFramework processingFramework
+
+    def setup() {
+        journalDirectory = temporaryFolder.newFolder().absolutePath
+        processingFramework = createProcessingFramework()
+    }
+
+    def cleanup() {
+        processingFramework.cleanUp()
+    }
+
+    def 'test submit with no postProcessPlugins'() {
+        given:
+        processingFramework.setPostProcessPlugins([])
+
+        when:
+        processingFramework.submitCreate(createRequest('id1'))
+
+        then:
+        processingFramework.getPendingCount() == 0
+    }
+
+    def 'test updates are coalesced with pending work'() {
+        when:
+        processingFramework.submitCreate(createRequest('id1'))
+        processingFramework.submitUpdate(updateRequest('id1', 'updated'))
+        processingFramework.submitUpdate(updateRequest('id1', 'updated again'))
+        processingFramework.submitUpdate(updateRequest('id2', 'updated'))
+
+        then:
+        processingFramework.getPendingCount() == 2
+        processingFramework.getCoalesced().getCount() == 2
+    }
+
+    def 'test creates are processed as one batch with the latest metacard'() {
+        given:
+        def conditions = new PollingConditions(timeout: 5)
+        List<ProcessRequest<ProcessCreateItem>> processed = []
+
+        processingFramework.submitCreate(createRequest('id1'))
+        processingFramework.submitCreate(createRequest('id2'))
+        processingFramework.submitUpdate(updateRequest('id1', 'updated'))
+
+        when:
+        processingFramework.init()
+        conditions.eventually {
+            assert processingFramework.getLatency().getCount() == 2
+        }
+
+        then:
+        1 * postProcessPlugin.processCreate(_ as ProcessRequest) >> { ProcessRequest request ->
+            processed << request
+            request.processItems.each { it.markMetacardAsModified() }
+            request
+        }
+        1 * catalogFramework.update(_ as UpdateRequest)
+        0 * postProcessPlugin.processUpdate(_)
+        processed[0].processItems*.metacard*.title == ['updated', null]
+        processingFramework.getPendingCount() == 0
+    }
+
+    def 'test creates with different request properties are processed separately'() {
+        given:
+        def conditions = new PollingConditions(timeout: 5)
+        List<ProcessRequest<ProcessCreateItem>> processed = []
+
+        def otherCreate = createRequest('id2')
+        otherCreate.properties['test'] = 'other value'
+        processingFramework.submitCreate(createRequest('id1'))
+        processingFramework.submitCreate(otherCreate)
+        processingFramework.submitCreate(createRequest('id3'))
+
+        when:
+        processingFramework.init()
+        conditions.eventually {
+            assert processingFramework.getLatency().getCount() == 3
+        }
+
+        then:
+        2 * postProcessPlugin.processCreate(_ as ProcessRequest) >> { ProcessRequest request ->
+            processed << request
+            request
+        }
+        processed.collectEntries {
+            [(it.properties['test']): it.processItems*.metacard*.id]
+        } == ['value': ['id1', 'id3'], 'other value': ['id2']]
+    }
+
+    def 'test a delete replaces pending work'() {
+        given:
+        def conditions = new PollingConditions(timeout: 5)
+
+        processingFramework.submitCreate(createRequest('id1'))
+        processingFramework.submitDelete(deleteRequest('id1'))
+
+        when:
+        processingFramework.init()
+        conditions.eventually {
+            assert processingFramework.getLatency().getCount() == 1
+        }
+
+        then:
+        0 * postProcessPlugin.processCreate(_)
+        1 * postProcessPlugin.processDelete(_ as ProcessRequest) >> { ProcessRequest request ->
+            request
+        }
+        0 * catalogFramework._
+    }
+
+    def 'test pending work is recovered after a restart'() {
+        given:
+        def conditions = new PollingConditions(timeout: 5)
+
+        def stoppedFramework = new DurableProcessingFramework(
+                catalogFramework, Mock(ExecutorService), journalDirectory)
+        stoppedFramework.setPostProcessPlugins([postProcessPlugin])
+        stoppedFramework.init()
+        stoppedFramework.submitCreate(createRequest('id1'))
+        stoppedFramework.submitUpdate(updateRequest('id2', 'updated'))
+        stoppedFramework.cleanUp()
+
+        when:
+        processingFramework.init()
+        conditions.eventually {
+            assert processingFramework.getLatency().getCount() == 2
+        }
+
+        then:
+        1 * postProcessPlugin.processCreate(_ as ProcessRequest) >> { ProcessRequest request ->
+            assert request.properties['ddf.security.subject'] == subject
+            assert request.properties['test'] == 'value'
+            request
+        }
+        1 * postProcessPlugin.processUpdate(_ as ProcessRequest) >> { ProcessRequest request ->
+            assert request.processItems[0].metacard.title == 'updated'
+            request
+        }
+    }
+
+    def 'test coalesced work is recovered the same way after a restart'() {
+        given:
+        def conditions = new PollingConditions(timeout: 5)
+
+        def stoppedFramework = new DurableProcessingFramework(
+                catalogFramework, Mock(ExecutorService), journalDirectory)
+        stoppedFramework.setPostProcessPlugins([postProcessPlugin])
+        stoppedFramework.init()
+        def update = updateRequest('id1', 'updated')
+        update.properties['unserializable'] = [new Object()] as ArrayList
+        stoppedFramework.submitCreate(createRequest('id1'))
+        stoppedFramework.submitUpdate(update)
+        stoppedFramework.cleanUp()
+
+        when:
+        processingFramework.init()
+        conditions.eventually {
+            assert processingFramework.getLatency().getCount() == 1
+        }
+
+        then:
+        1 * postProcessPlugin.processCreate(_ as ProcessRequest) >> { ProcessRequest request ->
+            assert request.processItems*.metacard*.title == ['updated']
+            assert request.properties['test'] == 'value'
+            assert !request.properties.containsKey('unserializable')
+            request
+        }
+        0 * postProcessPlugin.processUpdate(_)
+    }
+
+    private DurableProcessingFramework createProcessingFramework() {
+        def framework = new DurableProcessingFramework(
+                catalogFramework, threadPool, journalDirectory) {
+            @Override
+            Subject getSystemSubject() {
+                return subject
+            }
+        }
+        framework.setPostProcessPlugins([postProcessPlugin])
+        return framework
+    }
+
+    private ProcessRequest<ProcessCreateItem> createRequest(String id) {
+        return new ProcessRequestImpl<ProcessCreateItem>(
+                [new ProcessCreateItemImpl(null, metacard(id, null), false)], properties())
+    }
+
+    private ProcessRequest<ProcessUpdateItem> updateRequest(String id, String title) {
+        return new ProcessRequestImpl<ProcessUpdateItem>(
+                [new ProcessUpdateItemImpl(null, metacard(id, title), metacard(id, null), false)],
+                properties())
+    }
+
+    private ProcessRequest<ProcessDeleteItem> deleteRequest(String id) {
+        return new ProcessRequestImpl<ProcessDeleteItem>(
+                [new ProcessDeleteItemImpl(metacard(id, null))], properties())
+    }
+
+    private Map<String, Serializable> properties() {
+        return ['ddf.security.subject': subject, test: 'value'] as HashMap<String, Serializable>
+    }
+
+    private static MetacardImpl metacard(String id, String title) {
+        def metacard = new MetacardImpl()
+        metacard.setId(id)
+        metacard.setTitle(title)
+        return metacard
+    }
+}
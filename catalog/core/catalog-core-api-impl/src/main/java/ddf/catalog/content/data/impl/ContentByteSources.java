@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.content.data.impl;
+
+import com.google.common.io.ByteSource;
+import ddf.catalog.content.data.ContentItem;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The {@link ByteSource} objects the framework created for the content items of a storage request,
+ * by content item ID and qualifier. It is the value of the {@link
+ * ddf.catalog.Constants#CONTENT_BYTE_SOURCES} request property.
+ *
+ * <p>Byte sources are not serializable and are only meaningful within the request that created
+ * them, so they are not serialized. A deserialized copy records no byte sources.
+ */
+public class ContentByteSources implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private transient Map<String, Map<String, ByteSource>> byteSources = new HashMap<>();
+
+  public void put(String id, String qualifier, ByteSource byteSource) {
+    byteSources.computeIfAbsent(id, key -> new HashMap<>()).put(qualifier, byteSource);
+  }
+
+  /** @return the byte source recorded for the content item ID and qualifier, or {@code null} */
+  public ByteSource get(String id, String qualifier) {
+    Map<String, ByteSource> qualifiedByteSources = byteSources.get(id);
+    return qualifiedByteSources == null ? null : qualifiedByteSources.get(qualifier);
+  }
+
+  /**
+   * @return {@code true} if the item still reads the byte source recorded for it, and not content
+   *     another plugin replaced
+   */
+  public boolean isRecorded(ContentItem item) {
+    ByteSource byteSource = get(item.getId(), item.getQualifier());
+    return byteSource != null
+        && item instanceof ContentItemImpl
+        && ((ContentItemImpl) item).getByteSource() == byteSource;
+  }
+
+  public void clear() {
+    byteSources.clear();
+  }
+
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    byteSources = new HashMap<>();
+  }
+}
@@ -186,6 +186,11 @@ public InputStream getInputStream() throws IOException {
     return byteSource.openStream();
   }
 
+  /** @return the {@link ByteSource} this content item reads its data from */
+  public ByteSource getByteSource() {
+    return byteSource;
+  }
+
   @Override
   public long getSize() throws IOException {
     return size;
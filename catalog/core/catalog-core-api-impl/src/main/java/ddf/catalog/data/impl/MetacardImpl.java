@@ -29,6 +29,7 @@
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -688,6 +689,32 @@ public Attribute getAttribute(String name) {
     return (wrappedMetacard != null) ? wrappedMetacard.getAttribute(name) : map.get(name);
   }
 
+  /**
+   * Returns the names of the attributes set on this metacard. Unlike the attribute descriptors of
+   * the {@link MetacardType}, they include the attributes the type doesn't describe. A wrapped
+   * metacard that isn't a {@link MetacardImpl} only provides the attributes its type describes.
+   *
+   * @return the names of the attributes that have a value
+   */
+  public Set<String> getAttributeNames() {
+    if (wrappedMetacard instanceof MetacardImpl) {
+      return ((MetacardImpl) wrappedMetacard).getAttributeNames();
+    }
+
+    if (wrappedMetacard != null) {
+      Set<String> names = new LinkedHashSet<>();
+      for (AttributeDescriptor descriptor :
+          wrappedMetacard.getMetacardType().getAttributeDescriptors()) {
+        if (descriptor != null && wrappedMetacard.getAttribute(descriptor.getName()) != null) {
+          names.add(descriptor.getName());
+        }
+      }
+      return names;
+    }
+
+    return new LinkedHashSet<>(map.keySet());
+  }
+
   /**
    * Set an attribute via a name/value pair.
    *
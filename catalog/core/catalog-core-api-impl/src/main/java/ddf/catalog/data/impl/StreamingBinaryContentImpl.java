@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import ddf.catalog.data.BinaryContent;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import javax.activation.MimeType;
+import org.apache.commons.lang.builder.ToStringBuilder;
+
+/**
+ * {@link BinaryContent} whose content is produced by a {@link ContentWriter} while it is written to
+ * an output stream, so it is never held in memory as a whole. The content can be written more than
+ * once.
+ *
+ * <p>{@link #getInputStream()} and {@link #getByteArray()} are supported for callers that need the
+ * content as a whole, but they buffer the entire content in memory.
+ */
+public class StreamingBinaryContentImpl implements BinaryContent {
+
+  private final ContentWriter contentWriter;
+
+  private final MimeType mimeType;
+
+  private byte[] byteArray;
+
+  /**
+   * @param contentWriter writes the content to the output streams
+   * @param mimeType the mime type of the content
+   */
+  public StreamingBinaryContentImpl(ContentWriter contentWriter, MimeType mimeType) {
+    this.contentWriter = contentWriter;
+    this.mimeType = mimeType;
+  }
+
+  @Override
+  public void writeTo(OutputStream outputStream) throws IOException {
+    if (byteArray != null) {
+      outputStream.write(byteArray);
+    } else {
+      contentWriter.write(outputStream);
+    }
+  }
+
+  @Override
+  public InputStream getInputStream() {
+    try {
+      return new ByteArrayInputStream(getByteArray());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to write the content", e);
+    }
+  }
+
+  @Override
+  public MimeType getMimeType() {
+    return mimeType;
+  }
+
+  @Override
+  public String getMimeTypeValue() {
+    return mimeType != null ? mimeType.getBaseType() : null;
+  }
+
+  /** @return the size of the content once it has been buffered, -1 otherwise */
+  @Override
+  public long getSize() {
+    return byteArray != null ? byteArray.length : BinaryContentImpl.UNKNOWN_SIZE;
+  }
+
+  @Override
+  public byte[] getByteArray() throws IOException {
+    if (byteArray == null) {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      contentWriter.write(outputStream);
+      byteArray = outputStream.toByteArray();
+    }
+    return byteArray;
+  }
+
+  @Override
+  public String toString() {
+    return ToStringBuilder.reflectionToString(this);
+  }
+
+  /** Writes the content of a {@link StreamingBinaryContentImpl}. */
+  @FunctionalInterface
+  public interface ContentWriter {
+
+    /**
+     * @param outputStream the stream to write the content to, which must be left open
+     * @throws IOException if the content can't be produced or written
+     */
+    void write(OutputStream outputStream) throws IOException;
+  }
+}
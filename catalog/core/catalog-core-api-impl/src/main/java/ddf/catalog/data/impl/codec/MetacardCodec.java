@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl.codec;
+
+import ddf.catalog.data.AttributeType;
+import ddf.catalog.data.AttributeType.AttributeFormat;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.BasicTypes;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Compact binary encoding of {@link Metacard}s and {@link MetacardType}s, used in place of Java
+ * serialization.
+ *
+ * <p>A stream starts with a magic number and a format version, followed by records. Each {@link
+ * MetacardType} is written once per stream as a type record, and the metacard records that follow
+ * refer to the type and to its attributes by varint-encoded indexes instead of by name. Attribute
+ * values are written in a native encoding for their {@link AttributeFormat}: varints for integral
+ * numbers, epoch milliseconds for dates, IEEE 754 bits for floating point numbers and UTF-8 for
+ * strings, XML and WKT geometries. {@link AttributeFormat#OBJECT} values, and values that don't
+ * match the format of their attribute, are written with Java serialization.
+ *
+ * <p>Attributes of a {@link ddf.catalog.data.impl.MetacardImpl} that its metacard type doesn't
+ * describe are written after the described attributes, each with its name and the format of its
+ * values. Other {@link Metacard} implementations only provide the attributes their type describes.
+ * Attribute types are read back as the {@link BasicTypes} of their format.
+ *
+ * @see MetacardEncoder
+ * @see MetacardDecoder
+ */
+public final class MetacardCodec {
+
+  /** The format version written by this codec. */
+  public static final int VERSION = 2;
+
+  /** The first format version with the attributes the metacard type doesn't describe. */
+  static final int EXTRA_ATTRIBUTES_VERSION = 2;
+
+  static final int MAGIC = 0x44444D43;
+
+  static final int TYPE_RECORD = 1;
+
+  static final int METACARD_RECORD = 2;
+
+  static final int HEADER_LENGTH = 5;
+
+  private static final Map<AttributeFormat, AttributeType<?>> BASIC_TYPES =
+      new EnumMap<>(AttributeFormat.class);
+
+  static {
+    BASIC_TYPES.put(AttributeFormat.STRING, BasicTypes.STRING_TYPE);
+    BASIC_TYPES.put(AttributeFormat.BOOLEAN, BasicTypes.BOOLEAN_TYPE);
+    BASIC_TYPES.put(AttributeFormat.DATE, BasicTypes.DATE_TYPE);
+    BASIC_TYPES.put(AttributeFormat.SHORT, BasicTypes.SHORT_TYPE);
+    BASIC_TYPES.put(AttributeFormat.INTEGER, BasicTypes.INTEGER_TYPE);
+    BASIC_TYPES.put(AttributeFormat.LONG, BasicTypes.LONG_TYPE);
+    BASIC_TYPES.put(AttributeFormat.FLOAT, BasicTypes.FLOAT_TYPE);
+    BASIC_TYPES.put(AttributeFormat.DOUBLE, BasicTypes.DOUBLE_TYPE);
+    BASIC_TYPES.put(AttributeFormat.GEOMETRY, BasicTypes.GEO_TYPE);
+    BASIC_TYPES.put(AttributeFormat.BINARY, BasicTypes.BINARY_TYPE);
+    BASIC_TYPES.put(AttributeFormat.XML, BasicTypes.XML_TYPE);
+    BASIC_TYPES.put(AttributeFormat.OBJECT, BasicTypes.OBJECT_TYPE);
+  }
+
+  private MetacardCodec() {}
+
+  /**
+   * @param metacard metacard to encode
+   * @return a single metacard stream
+   */
+  public static byte[] encode(Metacard metacard) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (MetacardEncoder encoder = new MetacardEncoder(bytes)) {
+      encoder.write(metacard);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * @param bytes a stream written by {@link #encode(Metacard)}
+   * @return the first metacard of the stream
+   * @throws IOException if the bytes are not a metacard stream
+   */
+  public static Metacard decode(byte[] bytes) throws IOException {
+    try (MetacardDecoder decoder = new MetacardDecoder(new ByteArrayInputStream(bytes))) {
+      Metacard metacard = decoder.read();
+      if (metacard == null) {
+        throw new IOException("The stream does not contain a metacard");
+      }
+      return metacard;
+    }
+  }
+
+  /**
+   * @param metacardType metacard type to encode
+   * @return a stream with the single type record
+   */
+  public static byte[] encodeType(MetacardType metacardType) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (MetacardEncoder encoder = new MetacardEncoder(bytes)) {
+      encoder.writeType(metacardType);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * @param bytes a stream written by {@link #encodeType(MetacardType)}
+   * @return the first metacard type of the stream
+   * @throws IOException if the bytes are not a metacard stream
+   */
+  public static MetacardType decodeType(byte[] bytes) throws IOException {
+    try (MetacardDecoder decoder = new MetacardDecoder(new ByteArrayInputStream(bytes))) {
+      MetacardType metacardType = decoder.readType();
+      if (metacardType == null) {
+        throw new IOException("The stream does not contain a metacard type");
+      }
+      return metacardType;
+    }
+  }
+
+  /**
+   * @param bytes content to check, may be null
+   * @return {@code true} if the content starts like a stream written by this codec
+   */
+  public static boolean isEncoded(byte[] bytes) {
+    return bytes != null && bytes.length >= HEADER_LENGTH && readMagic(bytes) == MAGIC;
+  }
+
+  /**
+   * Checks the start of the stream without consuming it.
+   *
+   * @param inputStream stream to check, has to {@link InputStream#markSupported() support marks}
+   * @return {@code true} if the stream starts like a stream written by this codec
+   */
+  public static boolean isEncoded(InputStream inputStream) throws IOException {
+    if (!inputStream.markSupported()) {
+      throw new IllegalArgumentException("The input stream must support mark and reset");
+    }
+
+    byte[] header = new byte[HEADER_LENGTH];
+    inputStream.mark(HEADER_LENGTH);
+    try {
+      int length = 0;
+      int read;
+      while (length < HEADER_LENGTH
+          && (read = inputStream.read(header, length, HEADER_LENGTH - length)) >= 0) {
+        length += read;
+      }
+      return length == HEADER_LENGTH && readMagic(header) == MAGIC;
+    } finally {
+      inputStream.reset();
+    }
+  }
+
+  static AttributeType<?> getBasicType(AttributeFormat format) {
+    return BASIC_TYPES.get(format);
+  }
+
+  private static int readMagic(byte[] bytes) {
+    return ((bytes[0] & 0xFF) << 24)
+        | ((bytes[1] & 0xFF) << 16)
+        | ((bytes[2] & 0xFF) << 8)
+        | (bytes[3] & 0xFF);
+  }
+}
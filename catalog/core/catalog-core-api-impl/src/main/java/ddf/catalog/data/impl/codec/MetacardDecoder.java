@@ -0,0 +1,314 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl.codec;
+
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.AttributeType;
+import ddf.catalog.data.AttributeType.AttributeFormat;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.AttributeDescriptorImpl;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.MetacardTypeImpl;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Reads {@link Metacard}s from a stream written by a {@link MetacardEncoder}.
+ *
+ * <p>This class is not thread-safe.
+ */
+public class MetacardDecoder implements Closeable {
+
+  private final DataInputStream input;
+
+  private final List<TypeEntry> types = new ArrayList<>();
+
+  private final int version;
+
+  /**
+   * Creates a decoder and reads the stream header.
+   *
+   * @param inputStream stream to read from, closed with this decoder
+   * @throws StreamCorruptedException if the stream was not written by a {@link MetacardEncoder} or
+   *     uses an unsupported format version
+   */
+  public MetacardDecoder(InputStream inputStream) throws IOException {
+    this.input = new DataInputStream(new BufferedInputStream(inputStream));
+
+    if (input.readInt() != MetacardCodec.MAGIC) {
+      throw new StreamCorruptedException("Not a metacard stream");
+    }
+    version = input.readUnsignedByte();
+    if (version < 1 || version > MetacardCodec.VERSION) {
+      throw new StreamCorruptedException("Unsupported metacard stream version " + version);
+    }
+  }
+
+  /** @return the next metacard of the stream, or {@code null} at the end of the stream */
+  public Metacard read() throws IOException {
+    int recordType;
+    while ((recordType = readRecordType()) == MetacardCodec.TYPE_RECORD) {
+      readTypeRecord();
+    }
+
+    if (recordType < 0) {
+      return null;
+    }
+    if (recordType != MetacardCodec.METACARD_RECORD) {
+      throw new StreamCorruptedException("Invalid record type " + recordType);
+    }
+    return readMetacardRecord();
+  }
+
+  /** @return the next metacard type defined in the stream, or {@code null} if there is none */
+  public MetacardType readType() throws IOException {
+    int recordType;
+    while ((recordType = readRecordType()) == MetacardCodec.METACARD_RECORD) {
+      readMetacardRecord();
+    }
+
+    if (recordType < 0) {
+      return null;
+    }
+    if (recordType != MetacardCodec.TYPE_RECORD) {
+      throw new StreamCorruptedException("Invalid record type " + recordType);
+    }
+    return readTypeRecord().metacardType;
+  }
+
+  @Override
+  public void close() throws IOException {
+    input.close();
+  }
+
+  private int readRecordType() throws IOException {
+    int first = input.read();
+    if (first < 0) {
+      return -1;
+    }
+    return readVarInt(first);
+  }
+
+  private TypeEntry readTypeRecord() throws IOException {
+    int index = readVarInt();
+    if (index != types.size()) {
+      throw new StreamCorruptedException("Unexpected metacard type index " + index);
+    }
+
+    String name = readString();
+    int count = readVarInt();
+    List<AttributeDescriptor> descriptors = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      String attributeName = readString();
+      AttributeType<?> attributeType = MetacardCodec.getBasicType(readFormat());
+      int flags = input.readUnsignedByte();
+      descriptors.add(
+          new AttributeDescriptorImpl(
+              attributeName,
+              (flags & 1) != 0,
+              (flags & 2) != 0,
+              (flags & 4) != 0,
+              (flags & 8) != 0,
+              attributeType));
+    }
+
+    TypeEntry type =
+        new TypeEntry(new MetacardTypeImpl(name, new LinkedHashSet<>(descriptors)), descriptors);
+    types.add(type);
+    return type;
+  }
+
+  private Metacard readMetacardRecord() throws IOException {
+    int typeIndex = readVarInt();
+    if (typeIndex >= types.size()) {
+      throw new StreamCorruptedException("Undefined metacard type index " + typeIndex);
+    }
+    TypeEntry type = types.get(typeIndex);
+
+    MetacardImpl metacard = new MetacardImpl(type.metacardType);
+    metacard.setSourceId(readNullableString());
+
+    int count = readVarInt();
+    for (int i = 0; i < count; i++) {
+      int descriptorIndex = readVarInt();
+      if (descriptorIndex >= type.descriptors.size()) {
+        throw new StreamCorruptedException("Undefined attribute index " + descriptorIndex);
+      }
+      AttributeDescriptor descriptor = type.descriptors.get(descriptorIndex);
+      metacard.setAttribute(
+          new AttributeImpl(
+              descriptor.getName(), readValues(descriptor.getType().getAttributeFormat())));
+    }
+
+    if (version >= MetacardCodec.EXTRA_ATTRIBUTES_VERSION) {
+      int extraCount = readVarInt();
+      for (int i = 0; i < extraCount; i++) {
+        String name = readString();
+        metacard.setAttribute(new AttributeImpl(name, readValues(readFormat())));
+      }
+    }
+    return metacard;
+  }
+
+  private List<Serializable> readValues(AttributeFormat format) throws IOException {
+    int header = readVarInt();
+    int count = header >>> 1;
+    if ((header & 1) != 0) {
+      return readSerialized(count);
+    }
+
+    List<Serializable> values = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      values.add(readNative(format));
+    }
+    return values;
+  }
+
+  private Serializable readNative(AttributeFormat format) throws IOException {
+    switch (format) {
+      case BOOLEAN:
+        return input.readBoolean();
+      case DATE:
+        return new Date(unZigZag(readVarLong()));
+      case SHORT:
+        return (short) unZigZag(readVarInt());
+      case INTEGER:
+        return unZigZag(readVarInt());
+      case LONG:
+        return unZigZag(readVarLong());
+      case FLOAT:
+        return input.readFloat();
+      case DOUBLE:
+        return input.readDouble();
+      case BINARY:
+        return readBytes();
+      case STRING:
+      case XML:
+      case GEOMETRY:
+        return readString();
+      default:
+        throw new StreamCorruptedException("No native encoding for " + format);
+    }
+  }
+
+  private List<Serializable> readSerialized(int count) throws IOException {
+    List<Serializable> values = new ArrayList<>(count);
+    try (ObjectInputStream objectInput =
+        new ObjectInputStream(new ByteArrayInputStream(readBytes()))) {
+      for (int i = 0; i < count; i++) {
+        values.add((Serializable) objectInput.readObject());
+      }
+    } catch (ClassNotFoundException | ClassCastException e) {
+      throw new IOException("Unable to read attribute value", e);
+    }
+    return values;
+  }
+
+  private AttributeFormat readFormat() throws IOException {
+    String format = readString();
+    try {
+      return AttributeFormat.valueOf(format);
+    } catch (IllegalArgumentException e) {
+      throw new StreamCorruptedException("Unknown attribute format " + format);
+    }
+  }
+
+  private String readNullableString() throws IOException {
+    int length = readVarInt();
+    if (length == 0) {
+      return null;
+    }
+    return new String(readFully(length - 1), StandardCharsets.UTF_8);
+  }
+
+  private String readString() throws IOException {
+    return new String(readBytes(), StandardCharsets.UTF_8);
+  }
+
+  private byte[] readBytes() throws IOException {
+    return readFully(readVarInt());
+  }
+
+  private byte[] readFully(int length) throws IOException {
+    if (length < 0) {
+      throw new StreamCorruptedException("Invalid length " + length);
+    }
+    byte[] bytes = new byte[length];
+    input.readFully(bytes);
+    return bytes;
+  }
+
+  private int readVarInt() throws IOException {
+    return readVarInt(input.readUnsignedByte());
+  }
+
+  private int readVarInt(int first) throws IOException {
+    int value = first & 0x7F;
+    int current = first;
+    for (int shift = 7; (current & 0x80) != 0; shift += 7) {
+      if (shift > 28) {
+        throw new StreamCorruptedException("Invalid varint");
+      }
+      current = input.readUnsignedByte();
+      value |= (current & 0x7F) << shift;
+    }
+    return value;
+  }
+
+  private long readVarLong() throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int current = input.readUnsignedByte();
+      value |= (long) (current & 0x7F) << shift;
+      if ((current & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new StreamCorruptedException("Invalid varlong");
+  }
+
+  private static int unZigZag(int value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static class TypeEntry {
+
+    private final MetacardType metacardType;
+
+    private final List<AttributeDescriptor> descriptors;
+
+    TypeEntry(MetacardType metacardType, List<AttributeDescriptor> descriptors) {
+      this.metacardType = metacardType;
+      this.descriptors = descriptors;
+    }
+  }
+}
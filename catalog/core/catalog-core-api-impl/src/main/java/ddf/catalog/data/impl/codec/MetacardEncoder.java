@@ -0,0 +1,340 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl.codec;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.AttributeType.AttributeFormat;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.MetacardImpl;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Writes {@link Metacard}s to a stream in the {@link MetacardCodec} format. Each metacard type is
+ * written the first time a metacard of that type is written to the stream.
+ *
+ * <p>This class is not thread-safe.
+ */
+public class MetacardEncoder implements Closeable, Flushable {
+
+  private final DataOutputStream output;
+
+  private final Map<MetacardType, TypeEntry> types = new IdentityHashMap<>();
+
+  /**
+   * Creates an encoder and writes the stream header.
+   *
+   * @param outputStream stream to write to, closed with this encoder
+   */
+  public MetacardEncoder(OutputStream outputStream) throws IOException {
+    this.output = new DataOutputStream(new BufferedOutputStream(outputStream));
+    output.writeInt(MetacardCodec.MAGIC);
+    output.writeByte(MetacardCodec.VERSION);
+  }
+
+  /** Writes the metacard, preceded by its metacard type if it hasn't been written yet. */
+  public void write(Metacard metacard) throws IOException {
+    TypeEntry type = getTypeEntry(metacard.getMetacardType());
+
+    List<Integer> indexes = new ArrayList<>();
+    List<Attribute> attributes = new ArrayList<>();
+    for (int i = 0; i < type.descriptors.size(); i++) {
+      Attribute attribute = metacard.getAttribute(type.descriptors.get(i).getName());
+      if (attribute != null && attribute.getValues() != null) {
+        indexes.add(i);
+        attributes.add(attribute);
+      }
+    }
+
+    writeVarInt(MetacardCodec.METACARD_RECORD);
+    writeVarInt(type.index);
+    writeNullableString(metacard.getSourceId());
+    writeVarInt(attributes.size());
+    for (int i = 0; i < attributes.size(); i++) {
+      AttributeDescriptor descriptor = type.descriptors.get(indexes.get(i));
+      writeVarInt(indexes.get(i));
+      writeValues(descriptor.getType().getAttributeFormat(), attributes.get(i).getValues());
+    }
+
+    List<Attribute> extraAttributes = getExtraAttributes(metacard, type);
+    writeVarInt(extraAttributes.size());
+    for (Attribute attribute : extraAttributes) {
+      AttributeFormat format = getFormat(attribute.getValues());
+      writeString(attribute.getName());
+      writeString(format.name());
+      writeValues(format, attribute.getValues());
+    }
+  }
+
+  /** Writes the metacard type, if it hasn't been written to the stream yet. */
+  public void writeType(MetacardType metacardType) throws IOException {
+    getTypeEntry(metacardType);
+  }
+
+  @Override
+  public void flush() throws IOException {
+    output.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    output.close();
+  }
+
+  private TypeEntry getTypeEntry(MetacardType metacardType) throws IOException {
+    TypeEntry type = types.get(metacardType);
+    if (type != null) {
+      return type;
+    }
+
+    List<AttributeDescriptor> descriptors =
+        metacardType
+            .getAttributeDescriptors()
+            .stream()
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    type = new TypeEntry(types.size(), descriptors);
+
+    writeVarInt(MetacardCodec.TYPE_RECORD);
+    writeVarInt(type.index);
+    writeString(metacardType.getName());
+    writeVarInt(descriptors.size());
+    for (AttributeDescriptor descriptor : descriptors) {
+      writeString(descriptor.getName());
+      writeString(descriptor.getType().getAttributeFormat().name());
+      output.writeByte(
+          (descriptor.isIndexed() ? 1 : 0)
+              | (descriptor.isStored() ? 2 : 0)
+              | (descriptor.isTokenized() ? 4 : 0)
+              | (descriptor.isMultiValued() ? 8 : 0));
+    }
+
+    types.put(metacardType, type);
+    return type;
+  }
+
+  /** @return the attributes of the metacard that its metacard type doesn't describe */
+  private static List<Attribute> getExtraAttributes(Metacard metacard, TypeEntry type) {
+    if (!(metacard instanceof MetacardImpl)) {
+      return Collections.emptyList();
+    }
+
+    List<Attribute> attributes = new ArrayList<>();
+    for (String name : ((MetacardImpl) metacard).getAttributeNames()) {
+      if (!type.names.contains(name)) {
+        Attribute attribute = metacard.getAttribute(name);
+        if (attribute != null && attribute.getValues() != null) {
+          attributes.add(attribute);
+        }
+      }
+    }
+    return attributes;
+  }
+
+  /**
+   * @return the format with a native encoding for the first value, or {@link
+   *     AttributeFormat#OBJECT} if there is none
+   */
+  private static AttributeFormat getFormat(List<Serializable> values) {
+    Serializable value = values.stream().filter(Objects::nonNull).findFirst().orElse(null);
+    if (value instanceof String) {
+      return AttributeFormat.STRING;
+    } else if (value instanceof Boolean) {
+      return AttributeFormat.BOOLEAN;
+    } else if (value != null && value.getClass() == Date.class) {
+      return AttributeFormat.DATE;
+    } else if (value instanceof Short) {
+      return AttributeFormat.SHORT;
+    } else if (value instanceof Integer) {
+      return AttributeFormat.INTEGER;
+    } else if (value instanceof Long) {
+      return AttributeFormat.LONG;
+    } else if (value instanceof Float) {
+      return AttributeFormat.FLOAT;
+    } else if (value instanceof Double) {
+      return AttributeFormat.DOUBLE;
+    } else if (value instanceof byte[]) {
+      return AttributeFormat.BINARY;
+    }
+    return AttributeFormat.OBJECT;
+  }
+
+  /**
+   * Writes the number of values, shifted left by one bit with the lowest bit set if the values are
+   * Java serialized, followed by the values.
+   */
+  private void writeValues(AttributeFormat format, List<Serializable> values) throws IOException {
+    List<Serializable> nonNullValues =
+        values.stream().filter(Objects::nonNull).collect(Collectors.toList());
+    boolean isNative = nonNullValues.stream().allMatch(value -> isNative(format, value));
+
+    writeVarInt(nonNullValues.size() << 1 | (isNative ? 0 : 1));
+    if (!isNative) {
+      writeSerialized(nonNullValues);
+      return;
+    }
+
+    for (Serializable value : nonNullValues) {
+      writeNative(format, value);
+    }
+  }
+
+  private void writeNative(AttributeFormat format, Serializable value) throws IOException {
+    switch (format) {
+      case BOOLEAN:
+        output.writeBoolean((Boolean) value);
+        break;
+      case DATE:
+        writeVarLong(zigZag(((Date) value).getTime()));
+        break;
+      case SHORT:
+        writeVarInt(zigZag((Short) value));
+        break;
+      case INTEGER:
+        writeVarInt(zigZag((Integer) value));
+        break;
+      case LONG:
+        writeVarLong(zigZag((Long) value));
+        break;
+      case FLOAT:
+        output.writeFloat((Float) value);
+        break;
+      case DOUBLE:
+        output.writeDouble((Double) value);
+        break;
+      case BINARY:
+        writeBytes((byte[]) value);
+        break;
+      default:
+        writeString((String) value);
+    }
+  }
+
+  private static boolean isNative(AttributeFormat format, Serializable value) {
+    switch (format) {
+      case STRING:
+      case XML:
+      case GEOMETRY:
+        return value instanceof String;
+      case BOOLEAN:
+        return value instanceof Boolean;
+      case DATE:
+        return value.getClass() == Date.class;
+      case SHORT:
+        return value instanceof Short;
+      case INTEGER:
+        return value instanceof Integer;
+      case LONG:
+        return value instanceof Long;
+      case FLOAT:
+        return value instanceof Float;
+      case DOUBLE:
+        return value instanceof Double;
+      case BINARY:
+        return value instanceof byte[];
+      default:
+        return false;
+    }
+  }
+
+  private void writeSerialized(List<Serializable> values) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream objectOutput = new ObjectOutputStream(bytes)) {
+      for (Serializable value : values) {
+        objectOutput.writeObject(value);
+      }
+    }
+    writeBytes(bytes.toByteArray());
+  }
+
+  private void writeNullableString(String value) throws IOException {
+    if (value == null) {
+      writeVarInt(0);
+    } else {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(bytes.length + 1);
+      output.write(bytes);
+    }
+  }
+
+  private void writeString(String value) throws IOException {
+    writeBytes(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private void writeBytes(byte[] bytes) throws IOException {
+    writeVarInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private void writeVarInt(int value) throws IOException {
+    int remaining = value;
+    while ((remaining & ~0x7F) != 0) {
+      output.writeByte((remaining & 0x7F) | 0x80);
+      remaining >>>= 7;
+    }
+    output.writeByte(remaining);
+  }
+
+  private void writeVarLong(long value) throws IOException {
+    long remaining = value;
+    while ((remaining & ~0x7FL) != 0) {
+      output.writeByte((int) (remaining & 0x7F) | 0x80);
+      remaining >>>= 7;
+    }
+    output.writeByte((int) remaining);
+  }
+
+  private static int zigZag(int value) {
+    return (value << 1) ^ (value >> 31);
+  }
+
+  private static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static class TypeEntry {
+
+    private final int index;
+
+    private final List<AttributeDescriptor> descriptors;
+
+    private final Set<String> names;
+
+    TypeEntry(int index, List<AttributeDescriptor> descriptors) {
+      this.index = index;
+      this.descriptors = descriptors;
+      this.names =
+          descriptors.stream().map(AttributeDescriptor::getName).collect(Collectors.toSet());
+    }
+  }
+}
@@ -14,6 +14,10 @@
 package ddf.catalog.util.impl;
 
 import static com.google.common.collect.Iterators.limit;
+import static ddf.catalog.Constants.CURSOR_MARK_KEY;
+import static ddf.catalog.Constants.HITS_PER_SOURCE_KEY;
+import static ddf.catalog.Constants.INITIAL_CURSOR_MARK;
+import static ddf.catalog.Constants.NEXT_CURSOR_MARK_KEY;
 import static org.apache.commons.lang.Validate.isTrue;
 import static org.apache.commons.lang.Validate.notNull;
 
@@ -28,11 +32,14 @@
 import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
@@ -50,6 +57,12 @@
  *
  * <p>Since the class may use the page size provided in the {@link Query} to fetch the results, its
  * value should be carefully set to avoid any memory or performance issues.
+ *
+ * <p>When the request targets a single source and starts at the first result, the class will ask
+ * for cursor-based paging (see {@link ddf.catalog.Constants#CURSOR_MARK_KEY}) so that deep pages
+ * don't get more expensive as the iteration progresses. The cursor is only followed while a single
+ * source answers the query; sources that don't support cursors, and queries that are also answered
+ * by other sources, such as connected sources, are paged using the start index.
  */
 public class ResultIterable implements Iterable<Result> {
   public static final int DEFAULT_PAGE_SIZE = 64;
@@ -161,6 +174,7 @@ private static class ResultIterator implements Iterator<Result> {
     private QueryRequestImpl queryRequestCopy;
     private Iterator<Result> results = Collections.emptyIterator();
     private boolean finished = false;
+    private String cursorMark;
 
     ResultIterator(QueryFunction queryFunction, QueryRequest queryRequest) {
       this.queryFunction = queryFunction;
@@ -168,6 +182,14 @@ private static class ResultIterator implements Iterator<Result> {
       copyQueryRequestAndQuery(queryRequest);
 
       this.currentIndex = queryCopy.getStartIndex();
+
+      if (canUseCursor(queryRequest)) {
+        Serializable requestedCursorMark = queryRequest.getPropertyValue(CURSOR_MARK_KEY);
+        this.cursorMark =
+            requestedCursorMark instanceof String
+                ? (String) requestedCursorMark
+                : INITIAL_CURSOR_MARK;
+      }
     }
 
     @Override
@@ -207,7 +229,12 @@ public Result next() {
 
     @SuppressWarnings("squid:CommentedOutCodeLine")
     private void fetchNextResults() {
-      queryCopy.setStartIndex(currentIndex);
+      if (cursorMark != null) {
+        queryRequestCopy.getProperties().put(CURSOR_MARK_KEY, cursorMark);
+      } else {
+        queryRequestCopy.getProperties().remove(CURSOR_MARK_KEY);
+        queryCopy.setStartIndex(currentIndex);
+      }
 
       try {
         SourceResponse response = queryFunction.query(queryRequestCopy);
@@ -238,6 +265,10 @@ private void fetchNextResults() {
         }
         currentIndex += actualResultSize;
 
+        if (cursorMark != null) {
+          updateCursorMark(response);
+        }
+
         List<Result> dedupedResults = new ArrayList<>(resultList.size());
         for (Result result : resultList) {
           if (isDistinctResult(result)) {
@@ -259,6 +290,42 @@ private void fetchNextResults() {
       }
     }
 
+    /**
+     * Moves the cursor forward. If the source didn't return a cursor mark, it doesn't support
+     * cursors, and if more than one source answered, the merged page doesn't line up with the
+     * cursor of any of them. In both cases the iteration falls back to start index paging from
+     * where it is now.
+     */
+    private void updateCursorMark(SourceResponse response) {
+      Map<String, Serializable> properties = response.getProperties();
+      if (properties == null || !isSingleSourceResponse(properties)) {
+        cursorMark = null;
+        return;
+      }
+
+      Serializable nextCursorMark = properties.get(NEXT_CURSOR_MARK_KEY);
+      if (!(nextCursorMark instanceof String)) {
+        cursorMark = null;
+        return;
+      }
+
+      if (nextCursorMark.equals(cursorMark)) {
+        finished = true;
+      }
+      cursorMark = (String) nextCursorMark;
+    }
+
+    private boolean isSingleSourceResponse(Map<String, Serializable> properties) {
+      Serializable hitsPerSource = properties.get(HITS_PER_SOURCE_KEY);
+      return hitsPerSource instanceof Map && ((Map<?, ?>) hitsPerSource).size() == 1;
+    }
+
+    private boolean canUseCursor(QueryRequest queryRequest) {
+      return !queryRequest.isEnterprise()
+          && (queryRequest.getSourceIds() == null || queryRequest.getSourceIds().size() <= 1)
+          && queryRequest.getQuery().getStartIndex() == 1;
+    }
+
     private boolean isDistinctResult(@Nullable Result result) {
       return result != null
           && (result.getMetacard() == null
@@ -281,12 +348,15 @@ private void copyQueryRequestAndQuery(QueryRequest queryRequest) {
               // always get the hit count
               query.getTimeoutMillis());
 
+      // Copy the properties since the cursor mark is updated on every page
+      Map<String, Serializable> properties = new HashMap<>();
+      if (queryRequest.getProperties() != null) {
+        properties.putAll(queryRequest.getProperties());
+      }
+
       this.queryRequestCopy =
           new QueryRequestImpl(
-              queryCopy,
-              queryRequest.isEnterprise(),
-              queryRequest.getSourceIds(),
-              queryRequest.getProperties());
+              queryCopy, queryRequest.isEnterprise(), queryRequest.getSourceIds(), properties);
     }
   }
 }
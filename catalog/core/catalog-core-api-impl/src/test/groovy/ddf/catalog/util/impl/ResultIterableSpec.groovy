@@ -14,6 +14,7 @@
 package ddf.catalog.util.impl
 
 import ddf.catalog.CatalogFramework
+import ddf.catalog.Constants
 import ddf.catalog.data.Metacard
 import ddf.catalog.data.Result
 import ddf.catalog.data.impl.ResultImpl
@@ -400,6 +401,100 @@ class ResultIterableSpec extends Specification {
         queryResults.size() == dedupedCount
     }
 
+    def "Pages with cursor marks when the source returns them"() {
+        setup:
+        def actualResults = (1..5).collect { new ResultImpl() }
+        def requestedCursorMarks = []
+
+        3 * catalogFramework.query(_ as QueryRequest) >>
+                { QueryRequest queryRequest ->
+                    requestedCursorMarks << queryRequest.getPropertyValue(Constants.CURSOR_MARK_KEY)
+                    buildCursorQueryResponse(actualResults, 0..2, "a")
+                } >>
+                { QueryRequest queryRequest ->
+                    requestedCursorMarks << queryRequest.getPropertyValue(Constants.CURSOR_MARK_KEY)
+                    buildCursorQueryResponse(actualResults, 3..4, "b")
+                } >>
+                { QueryRequest queryRequest ->
+                    requestedCursorMarks << queryRequest.getPropertyValue(Constants.CURSOR_MARK_KEY)
+                    new QueryResponseImpl(queryRequest, [], true, 10L,
+                            ["actualResultSize": 0, (Constants.NEXT_CURSOR_MARK_KEY): "b"])
+                }
+
+        // Report more hits than results so paging is driven by the cursor marks only
+        Query queryMock = createQueryMock(1, 3)
+        QueryRequest queryRequestMock = createQueryRequestMock(queryMock)
+
+        when:
+        def results = resultIterable(catalogFramework, queryRequestMock).stream()
+                .collect(toList())
+
+        then:
+        results == actualResults
+        requestedCursorMarks == [Constants.INITIAL_CURSOR_MARK, "a", "b"]
+    }
+
+    def "Falls back to start index paging when a connected source also answers"() {
+        setup:
+        def actualResults = (1..5).collect { new ResultImpl() }
+        def requestedCursorMarks = []
+        def requestedStartIndexes = []
+
+        2 * catalogFramework.query(_ as QueryRequest) >>
+                { QueryRequest queryRequest ->
+                    requestedCursorMarks << queryRequest.getPropertyValue(Constants.CURSOR_MARK_KEY)
+                    requestedStartIndexes << queryRequest.getQuery().getStartIndex()
+                    new QueryResponseImpl(queryRequest, actualResults[0..2], true, 5L,
+                            ["actualResultSize"              : 3,
+                             (Constants.NEXT_CURSOR_MARK_KEY): "a",
+                             (Constants.HITS_PER_SOURCE_KEY) : ["local": 3L, "connected": 2L]])
+                } >>
+                { QueryRequest queryRequest ->
+                    requestedCursorMarks << queryRequest.getPropertyValue(Constants.CURSOR_MARK_KEY)
+                    requestedStartIndexes << queryRequest.getQuery().getStartIndex()
+                    new QueryResponseImpl(queryRequest, actualResults[3..4], true, 5L,
+                            ["actualResultSize"              : 2,
+                             (Constants.NEXT_CURSOR_MARK_KEY): "a",
+                             (Constants.HITS_PER_SOURCE_KEY) : ["local": 3L, "connected": 2L]])
+                }
+
+        Query queryMock = createQueryMock(1, 3)
+        QueryRequest queryRequestMock = createQueryRequestMock(queryMock)
+
+        when:
+        def results = resultIterable(catalogFramework, queryRequestMock).stream()
+                .collect(toList())
+
+        then:
+        results == actualResults
+        requestedCursorMarks == [Constants.INITIAL_CURSOR_MARK, null]
+        requestedStartIndexes == [1, 4]
+    }
+
+    def "Does not use cursor marks for enterprise queries"() {
+        setup:
+        def actualResults = (1..3).collect { new ResultImpl() }
+        def requestedCursorMarks = []
+
+        1 * catalogFramework.query(_ as QueryRequest) >>
+                { QueryRequest queryRequest ->
+                    requestedCursorMarks << queryRequest.getPropertyValue(Constants.CURSOR_MARK_KEY)
+                    buildQueryResponse(actualResults, 0..2)
+                }
+
+        Query queryMock = createQueryMock(1, 3)
+        QueryRequest queryRequestMock = createQueryRequestMock(queryMock)
+        queryRequestMock.isEnterprise() >> true
+
+        when:
+        def results = resultIterable(catalogFramework, queryRequestMock).stream()
+                .collect(toList())
+
+        then:
+        results == actualResults
+        requestedCursorMarks == [null]
+    }
+
     def "next() when number of results from catalog varies"() {
         setup:
         def actualResults = (1..6).collect { new ResultImpl() }
@@ -618,6 +713,18 @@ class ResultIterableSpec extends Specification {
         return response
     }
 
+    private QueryResponse buildCursorQueryResponse(List<Result> resultList,
+                                                   Range resultRange,
+                                                   String nextCursorMark) {
+        return new QueryResponseImpl(new QueryRequestImpl(null),
+                resultList[resultRange],
+                true,
+                10L,
+                ["actualResultSize"              : resultRange.size(),
+                 (Constants.NEXT_CURSOR_MARK_KEY): nextCursorMark,
+                 (Constants.HITS_PER_SOURCE_KEY) : ["local": 10L]])
+    }
+
     private buildQueryResponse(QueryRequest queryRequest, int resultListsSize, int totalResults) {
         int startIndex = queryRequest.getQuery()
                 .getStartIndex()
@@ -0,0 +1,69 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.content.data.impl;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import com.google.common.io.ByteSource;
+import ddf.catalog.content.data.ContentItem;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.lang.SerializationUtils;
+import org.junit.Test;
+
+public class ContentByteSourcesTest {
+
+  private static final String ID = "de7a758eed7645c0af82aa731950693d";
+
+  private static final String QUALIFIER = "qualifier";
+
+  private final ByteSource byteSource = ByteSource.wrap("content".getBytes(StandardCharsets.UTF_8));
+
+  @Test
+  public void testRecordedItem() {
+    ContentByteSources byteSources = new ContentByteSources();
+    byteSources.put(ID, QUALIFIER, byteSource);
+
+    assertThat(byteSources.get(ID, QUALIFIER), sameInstance(byteSource));
+    assertThat(byteSources.isRecorded(item(byteSource)), is(true));
+  }
+
+  @Test
+  public void testReplacedContent() {
+    ContentByteSources byteSources = new ContentByteSources();
+    byteSources.put(ID, QUALIFIER, byteSource);
+
+    ByteSource replaced = ByteSource.wrap("content".getBytes(StandardCharsets.UTF_8));
+    assertThat(byteSources.isRecorded(item(replaced)), is(false));
+  }
+
+  @Test
+  public void testSerializedCopyRecordsNoByteSources() {
+    ContentByteSources byteSources = new ContentByteSources();
+    byteSources.put(ID, QUALIFIER, byteSource);
+
+    ContentByteSources copy = (ContentByteSources) SerializationUtils.clone(byteSources);
+
+    assertThat(copy.get(ID, QUALIFIER), is(nullValue()));
+    assertThat(copy.isRecorded(item(byteSource)), is(false));
+    copy.put(ID, QUALIFIER, byteSource);
+    assertThat(copy.isRecorded(item(byteSource)), is(true));
+  }
+
+  private ContentItem item(ByteSource content) {
+    return new ContentItemImpl(ID, QUALIFIER, content, "text/plain", null);
+  }
+}
@@ -221,6 +221,18 @@ public void testUpdatingWrappedMetacardFields() {
     assertEquals(testType, mi.getMetacardType());
   }
 
+  @Test
+  public void testAttributeNames() {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setTitle("title");
+    metacard.setAttribute("not-in-type", "value");
+    metacard.setAttribute("null-value", null);
+
+    assertEquals(
+        new HashSet<>(Arrays.asList(Metacard.TITLE, "not-in-type")), metacard.getAttributeNames());
+    assertEquals(metacard.getAttributeNames(), new MetacardImpl(metacard).getAttributeNames());
+  }
+
   @Test
   public void testSetNullFields() {
     mc.setContentTypeName(null);
@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.activation.MimeType;
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StreamingBinaryContentImplTest {
+
+  private static final String CONTENT = "streamed content";
+
+  private final AtomicInteger writes = new AtomicInteger();
+
+  private StreamingBinaryContentImpl binaryContent;
+
+  @Before
+  public void setUp() throws Exception {
+    binaryContent =
+        new StreamingBinaryContentImpl(
+            outputStream -> {
+              writes.incrementAndGet();
+              outputStream.write(CONTENT.getBytes(StandardCharsets.UTF_8));
+            },
+            new MimeType("text/plain"));
+  }
+
+  @Test
+  public void testWriteToProducesContentEveryTime() throws Exception {
+    ByteArrayOutputStream first = new ByteArrayOutputStream();
+    ByteArrayOutputStream second = new ByteArrayOutputStream();
+
+    binaryContent.writeTo(first);
+    binaryContent.writeTo(second);
+
+    assertThat(first.toString(StandardCharsets.UTF_8.name()), is(CONTENT));
+    assertThat(second.toString(StandardCharsets.UTF_8.name()), is(CONTENT));
+    assertThat(writes.get(), is(2));
+    assertThat(binaryContent.getSize(), is(-1L));
+  }
+
+  @Test
+  public void testGetInputStreamBuffersContentOnce() throws Exception {
+    assertThat(
+        IOUtils.toString(binaryContent.getInputStream(), StandardCharsets.UTF_8), is(CONTENT));
+    assertThat(new String(binaryContent.getByteArray(), StandardCharsets.UTF_8), is(CONTENT));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    binaryContent.writeTo(outputStream);
+
+    assertThat(outputStream.toString(StandardCharsets.UTF_8.name()), is(CONTENT));
+    assertThat(writes.get(), is(1));
+    assertThat(binaryContent.getSize(), is((long) CONTENT.length()));
+    assertThat(binaryContent.getMimeTypeValue(), is("text/plain"));
+  }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl.codec;
+
+import ddf.catalog.data.Metacard;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares how many metacards per second the {@link MetacardCodec} and Java serialization encode
+ * and decode, with each metacard in its own stream the way dumps and zip entries store them. Not
+ * run as part of the build.
+ *
+ * <p>Usage: {@code MetacardCodecBenchmark [metacards] [iterations]}
+ */
+public class MetacardCodecBenchmark {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MetacardCodecBenchmark.class);
+
+  public static void main(String[] args) throws Exception {
+    int metacardCount = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+    List<Metacard> metacards = new ArrayList<>(metacardCount);
+    for (int i = 0; i < metacardCount; i++) {
+      metacards.add(MetacardCodecTest.createMetacard("id" + i));
+    }
+
+    List<byte[]> encoded = new ArrayList<>(metacardCount);
+    List<byte[]> serialized = new ArrayList<>(metacardCount);
+    for (Metacard metacard : metacards) {
+      encoded.add(MetacardCodec.encode(metacard));
+      serialized.add(serialize(metacard));
+    }
+    LOGGER.info(
+        "Average size: codec {} bytes, Java serialization {} bytes",
+        averageLength(encoded),
+        averageLength(serialized));
+
+    for (int round = 0; round < 2; round++) {
+      // the first round warms up the JIT
+      long bytes = 0;
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        for (Metacard metacard : metacards) {
+          bytes += serialize(metacard).length;
+        }
+      }
+      report("ObjectOutputStream", metacardCount * iterations, start, bytes);
+
+      bytes = 0;
+      start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        for (Metacard metacard : metacards) {
+          bytes += MetacardCodec.encode(metacard).length;
+        }
+      }
+      report("MetacardCodec.encode", metacardCount * iterations, start, bytes);
+
+      long idLengths = 0;
+      start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        for (byte[] metacardBytes : serialized) {
+          idLengths += deserialize(metacardBytes).getId().length();
+        }
+      }
+      report("ObjectInputStream", metacardCount * iterations, start, idLengths);
+
+      idLengths = 0;
+      start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        for (byte[] metacardBytes : encoded) {
+          idLengths += MetacardCodec.decode(metacardBytes).getId().length();
+        }
+      }
+      report("MetacardCodec.decode", metacardCount * iterations, start, idLengths);
+    }
+  }
+
+  private static byte[] serialize(Metacard metacard) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+      output.writeObject(metacard);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static Metacard deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+    try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return (Metacard) input.readObject();
+    }
+  }
+
+  private static long averageLength(List<byte[]> values) {
+    return values.stream().mapToLong(value -> value.length).sum() / Math.max(values.size(), 1);
+  }
+
+  /** @param checksum result of the timed work, logged so it can't be optimized away */
+  private static void report(String name, long metacards, long start, long checksum) {
+    long nanos = Math.max(System.nanoTime() - start, 1);
+    LOGGER.info(
+        "{}: {} metacards/s (checksum {})",
+        name,
+        metacards * TimeUnit.SECONDS.toNanos(1) / nanos,
+        checksum);
+  }
+}
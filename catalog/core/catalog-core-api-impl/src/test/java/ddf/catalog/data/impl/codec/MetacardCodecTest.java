@@ -0,0 +1,279 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.data.impl.codec;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.AttributeType;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.AttributeDescriptorImpl;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.MetacardTypeImpl;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Test;
+
+public class MetacardCodecTest {
+
+  private static final String TYPE_NAME = "codecType";
+
+  private static final MetacardType METACARD_TYPE = createMetacardType();
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    Metacard metacard = createMetacard("id1");
+
+    Metacard decoded = MetacardCodec.decode(MetacardCodec.encode(metacard));
+
+    assertMetacard(decoded, metacard);
+  }
+
+  @Test
+  public void testAttributesNotInTheType() throws Exception {
+    MetacardImpl metacard = createMetacard("id1");
+    metacard.setAttribute(
+        new AttributeImpl("extra-strings", Arrays.<Serializable>asList("value 1", "value 2")));
+    metacard.setAttribute(new AttributeImpl("extra-long", 1L << 40));
+    metacard.setAttribute(new AttributeImpl("extra-object", URI.create("http://example.com")));
+
+    Metacard decoded = MetacardCodec.decode(MetacardCodec.encode(metacard));
+
+    assertMetacard(decoded, metacard);
+    assertThat(decoded.getMetacardType().getAttributeDescriptor("extra-long"), nullValue());
+    assertThat(
+        decoded.getAttribute("extra-strings").getValues(),
+        is(Arrays.<Serializable>asList("value 1", "value 2")));
+    assertThat(decoded.getAttribute("extra-long").getValue(), is(1L << 40));
+    assertThat(
+        decoded.getAttribute("extra-object").getValue(), is(URI.create("http://example.com")));
+  }
+
+  @Test
+  public void testVersionWithoutAttributesNotInTheType() throws Exception {
+    byte[] encoded = MetacardCodec.encode(createMetacard("id1"));
+    // a version 1 record ends without the count of the attributes the type doesn't describe
+    byte[] versionOne = Arrays.copyOf(encoded, encoded.length - 1);
+    versionOne[4] = 1;
+
+    assertMetacard(MetacardCodec.decode(versionOne), createMetacard("id1"));
+  }
+
+  @Test
+  public void testNegativeAndLargeNumbers() throws Exception {
+    MetacardImpl metacard = new MetacardImpl(METACARD_TYPE);
+    metacard.setAttribute(new AttributeImpl("short", Short.MIN_VALUE));
+    metacard.setAttribute(new AttributeImpl("integer", Integer.MIN_VALUE));
+    metacard.setAttribute(new AttributeImpl("long", Long.MAX_VALUE));
+    metacard.setAttribute(new AttributeImpl(Metacard.CREATED, new Date(-1000L)));
+
+    Metacard decoded = MetacardCodec.decode(MetacardCodec.encode(metacard));
+
+    assertThat(decoded.getAttribute("short").getValue(), is(Short.MIN_VALUE));
+    assertThat(decoded.getAttribute("integer").getValue(), is(Integer.MIN_VALUE));
+    assertThat(decoded.getAttribute("long").getValue(), is(Long.MAX_VALUE));
+    assertThat(decoded.getAttribute(Metacard.CREATED).getValue(), is(new Date(-1000L)));
+  }
+
+  @Test
+  public void testValuesNotMatchingTheFormatAreSerialized() throws Exception {
+    MetacardImpl metacard = new MetacardImpl(METACARD_TYPE);
+    metacard.setAttribute(new AttributeImpl("integer", "not an integer"));
+    metacard.setAttribute(new AttributeImpl("object", URI.create("http://example.com")));
+
+    Metacard decoded = MetacardCodec.decode(MetacardCodec.encode(metacard));
+
+    assertThat(decoded.getAttribute("integer").getValue(), is("not an integer"));
+    assertThat(decoded.getAttribute("object").getValue(), is(URI.create("http://example.com")));
+  }
+
+  @Test
+  public void testStreamOfMetacards() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (MetacardEncoder encoder = new MetacardEncoder(bytes)) {
+      encoder.write(createMetacard("id1"));
+      encoder.write(new MetacardImpl());
+      encoder.write(createMetacard("id2"));
+    }
+
+    try (MetacardDecoder decoder =
+        new MetacardDecoder(new ByteArrayInputStream(bytes.toByteArray()))) {
+      assertMetacard(decoder.read(), createMetacard("id1"));
+      assertThat(
+          decoder.read().getMetacardType().getName(), is(BasicTypes.BASIC_METACARD.getName()));
+      assertMetacard(decoder.read(), createMetacard("id2"));
+      assertThat(decoder.read(), nullValue());
+    }
+  }
+
+  @Test
+  public void testTypeIsWrittenOncePerStream() throws Exception {
+    byte[] one = MetacardCodec.encode(createMetacard("id1"));
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (MetacardEncoder encoder = new MetacardEncoder(bytes)) {
+      encoder.write(createMetacard("id1"));
+      encoder.write(createMetacard("id1"));
+    }
+    int typeLength = MetacardCodec.encodeType(METACARD_TYPE).length - MetacardCodec.HEADER_LENGTH;
+
+    assertThat(bytes.size(), is(2 * one.length - MetacardCodec.HEADER_LENGTH - typeLength));
+  }
+
+  @Test
+  public void testMetacardType() throws Exception {
+    MetacardType decoded = MetacardCodec.decodeType(MetacardCodec.encodeType(METACARD_TYPE));
+
+    assertThat(decoded, is(METACARD_TYPE));
+  }
+
+  @Test
+  public void testSmallerThanJavaSerialization() throws Exception {
+    Metacard metacard = createMetacard("id1");
+
+    ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+    try (ObjectOutputStream output = new ObjectOutputStream(serialized)) {
+      output.writeObject(metacard);
+    }
+
+    assertThat(MetacardCodec.encode(metacard).length, lessThan(serialized.size()));
+  }
+
+  @Test
+  public void testIsEncoded() throws Exception {
+    byte[] encoded = MetacardCodec.encode(createMetacard("id1"));
+
+    ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+    try (ObjectOutputStream output = new ObjectOutputStream(serialized)) {
+      output.writeObject(createMetacard("id1"));
+    }
+
+    assertThat(MetacardCodec.isEncoded(encoded), is(true));
+    assertThat(MetacardCodec.isEncoded(serialized.toByteArray()), is(false));
+    assertThat(MetacardCodec.isEncoded((byte[]) null), is(false));
+
+    BufferedInputStream input = new BufferedInputStream(new ByteArrayInputStream(encoded));
+    assertThat(MetacardCodec.isEncoded(input), is(true));
+    assertMetacard(new MetacardDecoder(input).read(), createMetacard("id1"));
+  }
+
+  @Test
+  public void testEmptyStream() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    new MetacardEncoder(bytes).close();
+
+    try (MetacardDecoder decoder =
+        new MetacardDecoder(new ByteArrayInputStream(bytes.toByteArray()))) {
+      assertThat(decoder.read(), nullValue());
+    }
+  }
+
+  @Test(expected = StreamCorruptedException.class)
+  public void testNotAMetacardStream() throws Exception {
+    MetacardCodec.decode(new byte[] {1, 2, 3, 4, 5, 6});
+  }
+
+  @Test(expected = StreamCorruptedException.class)
+  public void testUnsupportedVersion() throws Exception {
+    byte[] encoded = MetacardCodec.encode(createMetacard("id1"));
+    encoded[4] = (byte) (MetacardCodec.VERSION + 1);
+
+    MetacardCodec.decode(encoded);
+  }
+
+  @Test(expected = IOException.class)
+  public void testTruncatedStream() throws Exception {
+    byte[] encoded = MetacardCodec.encode(createMetacard("id1"));
+
+    MetacardCodec.decode(Arrays.copyOf(encoded, encoded.length - 3));
+  }
+
+  private static void assertMetacard(Metacard actual, Metacard expected) {
+    assertThat(actual.getMetacardType(), is(expected.getMetacardType()));
+    assertThat(actual.getSourceId(), is(expected.getSourceId()));
+    for (AttributeDescriptor descriptor : expected.getMetacardType().getAttributeDescriptors()) {
+      String name = descriptor.getName();
+      if (expected.getAttribute(name) == null) {
+        assertThat(actual.getAttribute(name), nullValue());
+      } else if ("binary".equals(name)) {
+        assertThat(
+            Arrays.equals(
+                (byte[]) actual.getAttribute(name).getValue(),
+                (byte[]) expected.getAttribute(name).getValue()),
+            is(true));
+      } else {
+        assertThat(
+            actual.getAttribute(name).getValues(), is(expected.getAttribute(name).getValues()));
+      }
+    }
+  }
+
+  static MetacardImpl createMetacard(String id) {
+    MetacardImpl metacard = new MetacardImpl(METACARD_TYPE);
+    metacard.setId(id);
+    metacard.setSourceId("source");
+    metacard.setTitle("Title \u00e9\u4e2d");
+    metacard.setMetadata("<metadata>" + id + "</metadata>");
+    metacard.setLocation("POLYGON ((1 1, 2 2, 3 1, 1 1))");
+    metacard.setCreatedDate(new Date(1500000000000L));
+    metacard.setAttribute(
+        new AttributeImpl(
+            "keywords", Arrays.<Serializable>asList("keyword 1", "keyword 2", "keyword 3")));
+    metacard.setAttribute(new AttributeImpl("boolean", true));
+    metacard.setAttribute(new AttributeImpl("short", (short) 12));
+    metacard.setAttribute(new AttributeImpl("integer", 300));
+    metacard.setAttribute(new AttributeImpl("long", 1L << 40));
+    metacard.setAttribute(new AttributeImpl("float", 1.5f));
+    metacard.setAttribute(new AttributeImpl("double", -2.25));
+    metacard.setAttribute(new AttributeImpl("binary", new byte[] {1, 2, 3}));
+    metacard.setAttribute(new AttributeImpl("object", new HashSet<>(Arrays.asList("a", "b"))));
+    return metacard;
+  }
+
+  private static MetacardType createMetacardType() {
+    Set<AttributeDescriptor> descriptors =
+        new HashSet<>(BasicTypes.BASIC_METACARD.getAttributeDescriptors());
+    descriptors.add(
+        new AttributeDescriptorImpl("keywords", true, true, true, true, BasicTypes.STRING_TYPE));
+    descriptors.add(descriptor("boolean", BasicTypes.BOOLEAN_TYPE));
+    descriptors.add(descriptor("short", BasicTypes.SHORT_TYPE));
+    descriptors.add(descriptor("integer", BasicTypes.INTEGER_TYPE));
+    descriptors.add(descriptor("long", BasicTypes.LONG_TYPE));
+    descriptors.add(descriptor("float", BasicTypes.FLOAT_TYPE));
+    descriptors.add(descriptor("double", BasicTypes.DOUBLE_TYPE));
+    descriptors.add(descriptor("binary", BasicTypes.BINARY_TYPE));
+    descriptors.add(descriptor("object", BasicTypes.OBJECT_TYPE));
+    return new MetacardTypeImpl(TYPE_NAME, descriptors);
+  }
+
+  private static AttributeDescriptor descriptor(String name, AttributeType<?> type) {
+    return new AttributeDescriptorImpl(name, true, true, false, false, type);
+  }
+}
@@ -133,6 +133,38 @@ public final class Constants {
 
   public static final String CONTENT_PATHS = "content-paths";
 
+  /**
+   * Property key of the checksums computed by the framework while copying the content of a storage
+   * request, as a {@code Map<String, Map<String, String>>} from content item ID to qualifier to
+   * checksum. The checksums use the {@link #CONTENT_CHECKSUM_ALGORITHM} algorithm.
+   */
+  public static final String CONTENT_CHECKSUMS = "content-checksums";
+
+  /** Property key of the algorithm of the {@link #CONTENT_CHECKSUMS}, such as Adler32. */
+  public static final String CONTENT_CHECKSUM_ALGORITHM = "content-checksum-algorithm";
+
+  /**
+   * Property key of the SHA-256 digests computed by the framework while copying the content of a
+   * storage request, as a {@code Map<String, Map<String, String>>} from content item ID to
+   * qualifier to lowercase hex digest.
+   */
+  public static final String CONTENT_DIGESTS = "content-digests";
+
+  /**
+   * Property key of the {@code ByteSource} objects the framework created for the content of a
+   * storage request, as a {@code ddf.catalog.content.data.impl.ContentByteSources}. The {@link
+   * #CONTENT_PATHS} and {@link #CONTENT_CHECKSUMS} only describe a content item whose byte source
+   * is still the same object.
+   */
+  public static final String CONTENT_BYTE_SOURCES = "content-byte-sources";
+
+  /**
+   * Property key of a {@code Map<String, String>} from the URI of a content item in a storage
+   * request to the URI of already stored content with the same bytes. Storage providers can
+   * reference the stored content instead of copying the item.
+   */
+  public static final String CONTENT_SOURCE_URIS = "content-source-uris";
+
   public static final String ATTRIBUTE_OVERRIDES_KEY = "attributeOverrides";
 
   public static final String ATTRIBUTE_UPDATE_MAP_KEY = "attributeUpdateMap";
@@ -142,4 +174,33 @@ public final class Constants {
   public static final String EXPERIMENTAL_FACET_PROPERTIES_KEY = "facet-properties";
 
   public static final String EXPERIMENTAL_FACET_RESULTS_KEY = "facet-results";
+
+  /**
+   * Query request property used to ask a source for cursor-based paging instead of start index
+   * based paging. The value of the first request should be {@link #INITIAL_CURSOR_MARK}; the value
+   * of subsequent requests should be the {@link #NEXT_CURSOR_MARK_KEY} property returned by the
+   * previous response. Sources that do not support cursors ignore this property.
+   *
+   * <p>When the framework merges the results of more than one source, as reported by the {@link
+   * #HITS_PER_SOURCE_KEY} property of the response, the next cursor mark of one of the sources does
+   * not describe the merged page. {@link ddf.catalog.util.impl.ResultIterable} then continues with
+   * start index paging.
+   */
+  public static final String CURSOR_MARK_KEY = "cursor-mark";
+
+  /** The cursor mark value used to request the first page of a cursor-based query. */
+  public static final String INITIAL_CURSOR_MARK = "*";
+
+  /**
+   * Query response property containing the cursor mark to use to retrieve the next page of a
+   * cursor-based query. A value equal to the cursor mark of the request indicates that all the
+   * results have been returned.
+   */
+  public static final String NEXT_CURSOR_MARK_KEY = "next-cursor-mark";
+
+  /**
+   * Query response property containing the number of hits of each source that answered a federated
+   * query, as a {@link java.util.Map} of source id to hit count.
+   */
+  public static final String HITS_PER_SOURCE_KEY = "hitsPerSource";
 }
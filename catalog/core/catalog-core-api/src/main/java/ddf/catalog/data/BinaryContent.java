@@ -15,6 +15,7 @@
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import javax.activation.MimeType;
 
 /**
@@ -65,4 +66,28 @@ public interface BinaryContent {
    * @throws IOException if the stream can not be read into the array
    */
   public byte[] getByteArray() throws IOException;
+
+  /**
+   * Writes the content to an output stream. Implementations that produce the content while it is
+   * written, such as the streaming {@link ddf.catalog.transform.QueryResponseTransformer}s,
+   * override this method so the content is never held in memory as a whole. Callers that only need
+   * to copy the content somewhere should prefer this method over {@link #getInputStream()}.
+   *
+   * <p>Like the <code>InputStream</code>, the content can only be written once unless the
+   * implementation states otherwise.
+   *
+   * @param outputStream the stream to write to, which is left open
+   * @throws IOException if the content can't be produced or written
+   */
+  default void writeTo(OutputStream outputStream) throws IOException {
+    try (InputStream inputStream = getInputStream()) {
+      if (inputStream != null) {
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = inputStream.read(buffer)) != -1) {
+          outputStream.write(buffer, 0, read);
+        }
+      }
+    }
+  }
 }
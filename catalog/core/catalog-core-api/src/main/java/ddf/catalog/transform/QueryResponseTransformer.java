@@ -30,6 +30,9 @@ public interface QueryResponseTransformer {
   /**
    * Transforms the list of results into the {@link BinaryContent}.
    *
+   * <p>Responses can be large, so implementations should produce the content as it is written by
+   * {@link BinaryContent#writeTo(java.io.OutputStream)} rather than building it in memory.
+   *
    * @param arguments the arguments that may be used to execute the transform
    * @return the transformed content
    * @throws CatalogTransformerException if the response cannot be transformed
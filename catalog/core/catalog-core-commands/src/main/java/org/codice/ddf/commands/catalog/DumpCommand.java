@@ -18,6 +18,7 @@
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.codec.MetacardEncoder;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.operation.impl.QueryImpl;
 import ddf.catalog.operation.impl.QueryRequestImpl;
@@ -124,7 +125,9 @@ public class DumpCommand extends CqlCommands {
     multiValued = false,
     description =
         "The metacard transformer ID to use to transform metacards into data files. "
-            + "The default metacard transformer is the XML transformer."
+            + "The default metacard transformer is the XML transformer. Use \"binary\" to "
+            + "write metacards in the compact binary metacard format, or \"ser\" to write "
+            + "them as serialized Java objects."
   )
   String transformerId = DEFAULT_TRANSFORMER_ID;
 
@@ -190,7 +193,8 @@ protected Object executeWithSubject() throws Exception {
       return null;
     }
 
-    if (!SERIALIZED_OBJECT_ID.matches(transformerId)) {
+    if (!SERIALIZED_OBJECT_ID.matches(transformerId)
+        && !BINARY_METACARD_ID.matches(transformerId)) {
       transformers = getTransformers();
       if (transformers == null) {
         console.println(transformerId + " is an invalid metacard transformer.");
@@ -322,6 +326,11 @@ private void exportMetacard(File dumpLocation, Metacard metacard)
         oos.writeObject(new MetacardImpl(metacard));
         oos.flush();
       }
+    } else if (BINARY_METACARD_ID.matches(transformerId)) {
+      try (MetacardEncoder encoder =
+          new MetacardEncoder(new FileOutputStream(getOutputFile(dumpLocation, metacard)))) {
+        encoder.write(metacard);
+      }
     } else {
       BinaryContent binaryContent;
       if (metacard != null) {
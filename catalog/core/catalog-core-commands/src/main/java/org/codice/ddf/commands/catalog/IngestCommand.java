@@ -22,6 +22,8 @@
 import ddf.catalog.content.operation.impl.CreateStorageRequestImpl;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.codec.MetacardCodec;
+import ddf.catalog.data.impl.codec.MetacardDecoder;
 import ddf.catalog.operation.CreateRequest;
 import ddf.catalog.operation.CreateResponse;
 import ddf.catalog.operation.impl.CreateRequestImpl;
@@ -31,6 +33,7 @@
 import ddf.catalog.transform.InputCollectionTransformer;
 import ddf.catalog.transform.InputTransformer;
 import ddf.security.common.audit.SecurityLogger;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -175,7 +178,8 @@ public class IngestCommand extends CatalogCommands {
     multiValued = false,
     description =
         "The metacard transformer ID to use to transform data files into metacards. "
-            + "The default metacard transformer is the XML transformer."
+            + "The default metacard transformer is the XML transformer. Use \"binary\" or "
+            + "\"ser\" to ingest files written by the dump command with the same option."
   )
   String transformerId = DEFAULT_TRANSFORMER_ID;
 
@@ -395,7 +399,8 @@ private File getInputFile() {
       batchSize = 1;
     }
 
-    if (!SERIALIZED_OBJECT_ID.matches(transformerId)) {
+    if (!SERIALIZED_OBJECT_ID.matches(transformerId)
+        && !BINARY_METACARD_ID.matches(transformerId)) {
       transformer = getTransformer();
       if (!transformer.isPresent()) {
         console.println(transformerId + " is an invalid input transformer.");
@@ -463,13 +468,17 @@ private Metacard readMetacard(File file) throws IngestException {
     Metacard result = null;
 
     FileInputStream fis = null;
-    ObjectInputStream ois = null;
 
     try {
-      if (SERIALIZED_OBJECT_ID.matches(transformerId)) {
-        ois = new ObjectInputStream(new FileInputStream(file));
-        result = (Metacard) ois.readObject();
-        ois.close();
+      if (SERIALIZED_OBJECT_ID.matches(transformerId)
+          || BINARY_METACARD_ID.matches(transformerId)) {
+        try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+          if (MetacardCodec.isEncoded(input)) {
+            result = new MetacardDecoder(input).read();
+          } else {
+            result = (Metacard) new ObjectInputStream(input).readObject();
+          }
+        }
       } else {
         fis = new FileInputStream(file);
         result = generateMetacard(fis);
@@ -489,14 +498,6 @@ private Metacard readMetacard(File file) throws IngestException {
           console.println(e1);
         }
       }
-
-      if (ois != null) {
-        try {
-          ois.close();
-        } catch (IOException e2) {
-          console.println(e2);
-        }
-      }
     }
     return result;
   }
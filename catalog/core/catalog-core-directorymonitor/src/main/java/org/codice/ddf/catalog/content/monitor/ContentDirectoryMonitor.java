@@ -89,6 +89,8 @@ public class ContentDirectoryMonitor implements DirectoryMonitor {
 
   private Integer readLockIntervalMilliseconds;
 
+  private boolean useWatchService = false;
+
   Processor systemSubjectBinder = new SystemSubjectBinder();
 
   /**
@@ -245,6 +247,7 @@ public void updateCallback(Map<String, Object> properties) {
       setProcessingMechanism((String) properties.get("processingMechanism"));
       setNumThreads((Integer) properties.get("numThreads"));
       setReadLockIntervalMilliseconds((Integer) properties.get("readLockIntervalMilliseconds"));
+      setUseWatchService(Boolean.TRUE.equals(properties.get("useWatchService")));
 
       String[] parameterArray = (String[]) properties.get(Constants.ATTRIBUTE_OVERRIDES_KEY);
       if (parameterArray != null) {
@@ -260,6 +263,14 @@ public void setMonitoredDirectoryPath(String monitoredDirectoryPath) {
     this.monitoredDirectory = monitoredDirectoryPath;
   }
 
+  /**
+   * @param useWatchService - whether a directory monitored in place is watched through file system
+   *     events instead of being rescanned on every poll
+   */
+  public void setUseWatchService(boolean useWatchService) {
+    this.useWatchService = useWatchService;
+  }
+
   /** @param processingMechanism - what to do with the files after ingest */
   public void setProcessingMechanism(String processingMechanism) {
     this.processingMechanism = processingMechanism;
@@ -405,6 +416,8 @@ public void configure() throws Exception {
             stringBuilder = new StringBuilder("durable:" + monitoredDirectory);
             if (isDav) {
               stringBuilder.append("?isDav=true");
+            } else if (useWatchService) {
+              stringBuilder.append("?watchService=true");
             }
             break;
         }
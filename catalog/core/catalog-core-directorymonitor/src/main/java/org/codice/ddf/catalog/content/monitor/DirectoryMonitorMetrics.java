@@ -0,0 +1,149 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.monitor;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class DirectoryMonitorMetrics implements DirectoryMonitorMetricsMBean {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DirectoryMonitorMetrics.class);
+
+  private static final long RATE_WINDOW_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+  private final String monitoredDirectory;
+
+  private final AtomicLong eventCount = new AtomicLong();
+
+  private final AtomicLong reconciliationCount = new AtomicLong();
+
+  private final AtomicLong rescansAvoided = new AtomicLong();
+
+  private volatile long journalEntryCount;
+
+  private volatile double eventsPerSecond;
+
+  private long windowStart = System.nanoTime();
+
+  private long windowEvents;
+
+  private ObjectName objectName;
+
+  private MBeanServer mBeanServer;
+
+  DirectoryMonitorMetrics(String monitoredDirectory) {
+    this.monitoredDirectory = monitoredDirectory;
+  }
+
+  synchronized void eventsReceived(int events) {
+    eventCount.addAndGet(events);
+    windowEvents += events;
+
+    long elapsed = System.nanoTime() - windowStart;
+    if (elapsed >= RATE_WINDOW_NANOS) {
+      eventsPerSecond = windowEvents / (elapsed / (double) TimeUnit.SECONDS.toNanos(1));
+      windowStart += elapsed;
+      windowEvents = 0;
+    }
+  }
+
+  void reconciled() {
+    reconciliationCount.incrementAndGet();
+  }
+
+  void rescanAvoided() {
+    rescansAvoided.incrementAndGet();
+  }
+
+  void setJournalEntryCount(long journalEntryCount) {
+    this.journalEntryCount = journalEntryCount;
+  }
+
+  @Override
+  public String getMonitoredDirectory() {
+    return monitoredDirectory;
+  }
+
+  @Override
+  public long getEventCount() {
+    return eventCount.get();
+  }
+
+  @Override
+  public double getEventsPerSecond() {
+    return eventsPerSecond;
+  }
+
+  @Override
+  public long getReconciliationCount() {
+    return reconciliationCount.get();
+  }
+
+  @Override
+  public long getRescansAvoided() {
+    return rescansAvoided.get();
+  }
+
+  @Override
+  public long getJournalEntryCount() {
+    return journalEntryCount;
+  }
+
+  void registerMbean(String id) {
+    try {
+      objectName =
+          new ObjectName(
+              DirectoryMonitorMetrics.class.getName() + ":service=directoryMonitor,id=" + id);
+      mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    } catch (MalformedObjectNameException e) {
+      LOGGER.info("Unable to create directory monitor metrics MBean.", e);
+      return;
+    }
+
+    try {
+      try {
+        mBeanServer.registerMBean(this, objectName);
+      } catch (InstanceAlreadyExistsException e) {
+        mBeanServer.unregisterMBean(objectName);
+        mBeanServer.registerMBean(this, objectName);
+      }
+    } catch (MBeanRegistrationException
+        | InstanceNotFoundException
+        | InstanceAlreadyExistsException
+        | NotCompliantMBeanException e) {
+      LOGGER.info("Unable to register directory monitor metrics MBean.", e);
+    }
+  }
+
+  void unregisterMbean() {
+    try {
+      if (objectName != null && mBeanServer != null) {
+        mBeanServer.unregisterMBean(objectName);
+        objectName = null;
+      }
+    } catch (MBeanRegistrationException | InstanceNotFoundException e) {
+      LOGGER.info("Unable to unregister directory monitor metrics MBean.", e);
+    }
+  }
+}
@@ -0,0 +1,35 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.monitor;
+
+/** Metrics of a directory monitored through file system events. */
+public interface DirectoryMonitorMetricsMBean {
+
+  String getMonitoredDirectory();
+
+  /** @return number of file system events received since the monitor started */
+  long getEventCount();
+
+  /** @return rate of file system events over the last minute */
+  double getEventsPerSecond();
+
+  /** @return number of full scans of the directory, including the scan at startup */
+  long getReconciliationCount();
+
+  /** @return number of polls answered from file system events instead of a full scan */
+  long getRescansAvoided();
+
+  /** @return number of files in the journal of the monitor */
+  long getJournalEntryCount();
+}
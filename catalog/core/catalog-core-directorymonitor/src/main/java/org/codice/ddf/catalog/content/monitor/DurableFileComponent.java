@@ -42,13 +42,16 @@ protected GenericFileEndpoint<EventfulFileWrapper> buildFileEndpoint(
     boolean isDav = Boolean.parseBoolean(davParam);
     parameters.remove("isDav");
 
+    boolean watchService = Boolean.parseBoolean(String.valueOf(parameters.get("watchService")));
+    parameters.remove("watchService");
+
     GenericFileConfiguration config = new GenericFileConfiguration();
     File file = new File(remaining);
     if (isDav) {
       file = new File("");
     }
     config.setDirectory(file.getCanonicalPath());
-    DurableFileEndpoint result = new DurableFileEndpoint(uri, remaining, isDav, this);
+    DurableFileEndpoint result = new DurableFileEndpoint(uri, remaining, isDav, watchService, this);
     result.setFile(file);
     result.setConfiguration(config);
 
@@ -46,6 +46,8 @@ public class DurableFileEndpoint extends GenericFileEndpoint<EventfulFileWrapper
 
   private final Boolean isDav;
 
+  private final boolean watchService;
+
   private String remaining;
 
   @UriPath(name = "directoryName")
@@ -53,10 +55,15 @@ public class DurableFileEndpoint extends GenericFileEndpoint<EventfulFileWrapper
   private File file;
 
   DurableFileEndpoint(
-      String uri, String remaining, boolean isDav, DurableFileComponent durableFileComponent) {
+      String uri,
+      String remaining,
+      boolean isDav,
+      boolean watchService,
+      DurableFileComponent durableFileComponent) {
     super(uri, durableFileComponent);
     this.remaining = remaining;
     this.isDav = isDav;
+    this.watchService = watchService;
   }
 
   @Override
@@ -67,6 +74,9 @@ public GenericFileConsumer<EventfulFileWrapper> createConsumer(Processor process
     if (isDav) {
       return new DurableWebDavFileConsumer(
           this, remaining, processor, new EventfulFileWrapperGenericFileOperations());
+    } else if (watchService) {
+      return new DurableWatchServiceFileConsumer(
+          this, remaining, processor, new EventfulFileWrapperGenericFileOperations());
     } else {
       return new DurableFileSystemFileConsumer(
           this, remaining, processor, new EventfulFileWrapperGenericFileOperations());
@@ -0,0 +1,348 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.monitor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.camel.Processor;
+import org.apache.camel.component.file.GenericFileEndpoint;
+import org.apache.camel.component.file.GenericFileOperations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Monitors a directory in place through file system events instead of rescanning it on every poll.
+ * The files seen so far are kept in a {@link FileJournal}, so only the changes are persisted.
+ *
+ * <p>The directory is still fully scanned to reconcile the journal with its content: at startup, to
+ * catch up with the changes made while the system was down, when events were lost, and every hour
+ * or the number of minutes set by the {@value #RECONCILIATION_PERIOD_PROPERTY} system property.
+ */
+public class DurableWatchServiceFileConsumer extends AbstractDurableFileConsumer {
+
+  public static final long DEFAULT_RECONCILIATION_PERIOD = 60;
+
+  public static final String RECONCILIATION_PERIOD_PROPERTY =
+      "org.codice.ddf.cdm.reconciliationPeriod";
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(DurableWatchServiceFileConsumer.class);
+
+  private static final String JOURNAL_SUFFIX = ".journal";
+
+  private final DurableFileAlterationListener listener;
+
+  private final Map<WatchKey, Path> watchedDirectories = new HashMap<>();
+
+  private final long reconciliationPeriod;
+
+  private Path root;
+
+  private WatchService watchService;
+
+  private FileJournal journal;
+
+  private DirectoryMonitorMetrics metrics;
+
+  private long nextReconciliation;
+
+  DurableWatchServiceFileConsumer(
+      GenericFileEndpoint<EventfulFileWrapper> endpoint,
+      String remaining,
+      Processor processor,
+      GenericFileOperations<EventfulFileWrapper> operations) {
+    this(
+        endpoint,
+        remaining,
+        processor,
+        operations,
+        getReconciliationPeriod(),
+        DurableFileAlterationListener::new);
+  }
+
+  DurableWatchServiceFileConsumer(
+      GenericFileEndpoint<EventfulFileWrapper> endpoint,
+      String remaining,
+      Processor processor,
+      GenericFileOperations<EventfulFileWrapper> operations,
+      long reconciliationPeriodMinutes,
+      ListenerFactory listenerFactory) {
+    super(endpoint, remaining, processor, operations);
+    this.reconciliationPeriod = TimeUnit.MINUTES.toNanos(reconciliationPeriodMinutes);
+    listener = listenerFactory.create(this);
+  }
+
+  private static long getReconciliationPeriod() {
+    long period = DEFAULT_RECONCILIATION_PERIOD;
+    try {
+      period =
+          Long.parseLong(
+              System.getProperty(
+                  RECONCILIATION_PERIOD_PROPERTY, Long.toString(DEFAULT_RECONCILIATION_PERIOD)));
+      if (period < 1) {
+        period = DEFAULT_RECONCILIATION_PERIOD;
+      }
+    } catch (NumberFormatException e) {
+      LOGGER.debug(
+          "Invalid value for system property {}. Expected an integer but was {}. Defaulting to {}",
+          RECONCILIATION_PERIOD_PROPERTY,
+          System.getProperty(RECONCILIATION_PERIOD_PROPERTY),
+          period);
+    }
+    return period;
+  }
+
+  @Override
+  protected void initialize(String fileName, String sha1) {
+    if (journal != null || fileName == null) {
+      return;
+    }
+
+    if (fileSystemPersistenceProvider == null) {
+      fileSystemPersistenceProvider = new FileSystemPersistenceProvider(getClass().getSimpleName());
+    }
+
+    try {
+      Path journalDirectory = Paths.get(fileSystemPersistenceProvider.getMapStorePath());
+      Files.createDirectories(journalDirectory);
+      journal = new FileJournal(journalDirectory.resolve(sha1 + JOURNAL_SUFFIX));
+      root = Paths.get(fileName).toAbsolutePath();
+      watchService = root.getFileSystem().newWatchService();
+    } catch (IOException e) {
+      LOGGER.info("Unable to monitor {} through file system events", fileName, e);
+      closeQuietly();
+      return;
+    }
+
+    metrics = new DirectoryMonitorMetrics(root.toString());
+    metrics.registerMbean(sha1);
+    // catch up with the changes made while the directory wasn't monitored
+    nextReconciliation = System.nanoTime();
+  }
+
+  @Override
+  protected boolean doPoll(String sha1) {
+    if (journal == null) {
+      return isMatched(null, null, null);
+    }
+
+    try {
+      boolean overflow = processEvents();
+      if (overflow || System.nanoTime() - nextReconciliation >= 0) {
+        reconcile();
+      } else {
+        metrics.rescanAvoided();
+      }
+      journal.flush();
+    } catch (IOException e) {
+      LOGGER.info("Unable to process the changes in {}", root, e);
+    }
+
+    metrics.setJournalEntryCount(journal.size());
+    return true;
+  }
+
+  /** @return {@code true} if events were lost */
+  private boolean processEvents() throws IOException {
+    boolean overflow = false;
+    int events = 0;
+
+    WatchKey key;
+    while ((key = watchService.poll()) != null) {
+      Path directory = watchedDirectories.get(key);
+
+      for (WatchEvent<?> event : key.pollEvents()) {
+        events++;
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+          overflow = true;
+        } else if (directory != null) {
+          processEvent(directory.resolve((Path) event.context()), event.kind());
+        }
+      }
+
+      if (!key.reset()) {
+        watchedDirectories.remove(key);
+      }
+    }
+
+    metrics.eventsReceived(events);
+    if (overflow) {
+      LOGGER.debug("File system events were lost for {}. Rescanning it.", root);
+    }
+    return overflow;
+  }
+
+  private void processEvent(Path path, WatchEvent.Kind<?> kind) throws IOException {
+    if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+      deleted(path);
+      return;
+    }
+
+    BasicFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+    } catch (NoSuchFileException e) {
+      // deleted since, the delete event follows
+      return;
+    }
+
+    if (attributes.isDirectory()) {
+      if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+        // files may have been added before the directory was watched
+        scan(path);
+      }
+    } else if (attributes.isRegularFile()) {
+      update(path, attributes);
+    }
+  }
+
+  private void update(Path path, BasicFileAttributes attributes) throws IOException {
+    FileJournal.Change change =
+        journal.update(
+            path.toString(), attributes.size(), attributes.lastModifiedTime().toMillis());
+
+    if (change == FileJournal.Change.CREATED) {
+      listener.onFileCreate(path.toFile());
+    } else if (change == FileJournal.Change.MODIFIED) {
+      listener.onFileChange(path.toFile());
+    }
+  }
+
+  private void deleted(Path path) throws IOException {
+    if (journal.remove(path.toString())) {
+      listener.onFileDelete(path.toFile());
+    } else {
+      // a deleted directory
+      for (String file : journal.removeUnder(path.toString())) {
+        listener.onFileDelete(new File(file));
+      }
+    }
+  }
+
+  /** Scans the whole directory and notifies the changes the events didn't report. */
+  private void reconcile() throws IOException {
+    LOGGER.debug("Reconciling the journal of {} with its content", root);
+    try {
+      journal.mark();
+      if (Files.isDirectory(root)) {
+        scan(root);
+      }
+      for (String file : journal.sweep()) {
+        listener.onFileDelete(new File(file));
+      }
+
+      metrics.reconciled();
+    } finally {
+      // a failed scan is retried after the next period, not on every poll
+      nextReconciliation = System.nanoTime() + reconciliationPeriod;
+    }
+  }
+
+  /** Watches the directories under {@code start} and updates the files under it. */
+  private void scan(Path start) throws IOException {
+    Files.walkFileTree(
+        start,
+        new SimpleFileVisitor<Path>() {
+          @Override
+          public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attributes) {
+            try {
+              watch(dir);
+            } catch (IOException e) {
+              // its files are still scanned, and the next reconciliation picks up its changes
+              LOGGER.debug("Unable to watch {}", dir, e);
+            }
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFile(Path file, BasicFileAttributes attributes)
+              throws IOException {
+            if (attributes.isRegularFile()) {
+              update(file, attributes);
+            }
+            return FileVisitResult.CONTINUE;
+          }
+
+          @Override
+          public FileVisitResult visitFileFailed(Path file, IOException e) {
+            LOGGER.debug("Unable to read {}", file, e);
+            return FileVisitResult.CONTINUE;
+          }
+        });
+  }
+
+  private void watch(Path directory) throws IOException {
+    WatchKey key =
+        directory.register(
+            watchService,
+            StandardWatchEventKinds.ENTRY_CREATE,
+            StandardWatchEventKinds.ENTRY_MODIFY,
+            StandardWatchEventKinds.ENTRY_DELETE);
+    watchedDirectories.put(key, directory);
+  }
+
+  @Override
+  public void shutdown() throws Exception {
+    super.shutdown();
+    close();
+  }
+
+  DirectoryMonitorMetrics getMetrics() {
+    return metrics;
+  }
+
+  void close() {
+    closeQuietly();
+    if (metrics != null) {
+      metrics.unregisterMbean();
+    }
+    listener.destroy();
+  }
+
+  private void closeQuietly() {
+    try {
+      if (watchService != null) {
+        watchService.close();
+      }
+      if (journal != null) {
+        journal.close();
+      }
+    } catch (IOException e) {
+      LOGGER.debug("Unable to close the monitor of {}", root, e);
+    } finally {
+      watchService = null;
+      journal = null;
+    }
+  }
+
+  @FunctionalInterface
+  interface ListenerFactory {
+    DurableFileAlterationListener create(AbstractDurableFileConsumer consumer);
+  }
+}
@@ -0,0 +1,300 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.monitor;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only journal of the files seen in a monitored directory, with their size and last modified
+ * time. Each change appends a small record instead of rewriting a snapshot of the whole tree, and
+ * the journal is replayed on startup. A record that was only partially written when the system went
+ * down is dropped. When most records are obsolete, the journal is compacted to the current entries.
+ *
+ * <p>Not thread-safe, the journal is only used from the polling thread of its consumer.
+ */
+final class FileJournal implements Closeable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(FileJournal.class);
+
+  private static final byte PUT = 1;
+
+  private static final byte REMOVE = 2;
+
+  private static final int MIN_COMPACTION_RECORDS = 10_000;
+
+  private static final int MAX_PATH_LENGTH = 64 * 1024;
+
+  private static final char SEPARATOR = File.separatorChar;
+
+  private final Path journalFile;
+
+  private final NavigableMap<String, Entry> entries = new TreeMap<>();
+
+  private DataOutputStream output;
+
+  private long records;
+
+  private int generation;
+
+  enum Change {
+    CREATED,
+    MODIFIED,
+    UNCHANGED
+  }
+
+  /**
+   * Opens a journal, replaying its records.
+   *
+   * @param journalFile the journal file, created if it doesn't exist
+   * @throws IOException if the journal can't be read or opened for writing
+   */
+  FileJournal(Path journalFile) throws IOException {
+    this.journalFile = journalFile;
+    long length = replay();
+    try (FileChannel channel =
+        FileChannel.open(journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+      if (channel.size() > length) {
+        LOGGER.debug("Dropping the incomplete last record of {}", journalFile);
+        channel.truncate(length);
+      }
+    }
+    openOutput();
+  }
+
+  /**
+   * Records the current size and last modified time of a file, and marks it as seen by the current
+   * {@link #sweep()}.
+   *
+   * @return how the file changed since it was last recorded
+   */
+  Change update(String path, long size, long modified) throws IOException {
+    Entry entry = entries.get(path);
+    Change change;
+    if (entry == null) {
+      entry = new Entry(size, modified);
+      entries.put(path, entry);
+      change = Change.CREATED;
+    } else if (entry.size != size || entry.modified != modified) {
+      entry.size = size;
+      entry.modified = modified;
+      change = Change.MODIFIED;
+    } else {
+      change = Change.UNCHANGED;
+    }
+
+    entry.generation = generation;
+    if (change != Change.UNCHANGED) {
+      writePut(output, path, entry);
+      records++;
+    }
+    return change;
+  }
+
+  /** @return {@code true} if the file was in the journal */
+  boolean remove(String path) throws IOException {
+    if (entries.remove(path) == null) {
+      return false;
+    }
+
+    writeRemove(path);
+    return true;
+  }
+
+  /**
+   * Removes the files under a directory, for instance because the directory was deleted.
+   *
+   * @return the removed files
+   */
+  List<String> removeUnder(String directory) throws IOException {
+    String prefix =
+        directory.charAt(directory.length() - 1) == SEPARATOR ? directory : directory + SEPARATOR;
+    return removeAll(
+        entries.subMap(prefix, true, prefix + Character.MAX_VALUE, false).keySet().iterator());
+  }
+
+  /** Starts marking the files that are seen, see {@link #sweep()}. */
+  void mark() {
+    generation++;
+  }
+
+  /**
+   * Removes the files that weren't updated since the last {@link #mark()}.
+   *
+   * @return the removed files
+   */
+  List<String> sweep() throws IOException {
+    Iterator<String> unseen =
+        entries
+            .entrySet()
+            .stream()
+            .filter(entry -> entry.getValue().generation != generation)
+            .map(Map.Entry::getKey)
+            .iterator();
+    return removeAll(unseen);
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  /** Writes the buffered records to the journal file, compacting it when it grew too large. */
+  void flush() throws IOException {
+    if (records > Math.max(MIN_COMPACTION_RECORDS, 2L * entries.size())) {
+      compact();
+    } else {
+      output.flush();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    output.close();
+  }
+
+  private List<String> removeAll(Iterator<String> paths) throws IOException {
+    List<String> removed = new ArrayList<>();
+    while (paths.hasNext()) {
+      removed.add(paths.next());
+    }
+
+    for (String path : removed) {
+      entries.remove(path);
+      writeRemove(path);
+    }
+    return removed;
+  }
+
+  private void compact() throws IOException {
+    output.close();
+
+    Path compacted = journalFile.resolveSibling(journalFile.getFileName() + ".compact");
+    try (DataOutputStream compactedOutput =
+        new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(compacted)))) {
+      for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+        writePut(compactedOutput, entry.getKey(), entry.getValue());
+      }
+    }
+    Files.move(
+        compacted,
+        journalFile,
+        StandardCopyOption.REPLACE_EXISTING,
+        StandardCopyOption.ATOMIC_MOVE);
+
+    LOGGER.debug("Compacted {} from {} to {} records", journalFile, records, entries.size());
+    records = entries.size();
+    openOutput();
+  }
+
+  private void openOutput() throws IOException {
+    output =
+        new DataOutputStream(
+            new BufferedOutputStream(
+                Files.newOutputStream(
+                    journalFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND)));
+  }
+
+  /** @return the length of the complete records */
+  private long replay() throws IOException {
+    long length = 0;
+    try (InputStream inputStream = Files.newInputStream(journalFile);
+        DataInputStream input = new DataInputStream(new BufferedInputStream(inputStream))) {
+      while (true) {
+        byte type = input.readByte();
+        int pathLength = input.readInt();
+        if ((type != PUT && type != REMOVE) || pathLength < 0 || pathLength > MAX_PATH_LENGTH) {
+          LOGGER.info("Invalid record in {}. Ignoring the rest of the journal.", journalFile);
+          break;
+        }
+
+        byte[] path = new byte[pathLength];
+        input.readFully(path);
+        String key = new String(path, StandardCharsets.UTF_8);
+
+        if (type == PUT) {
+          entries.put(key, new Entry(input.readLong(), input.readLong()));
+          length += Long.BYTES * 2;
+        } else {
+          entries.remove(key);
+        }
+
+        length += 1 + Integer.BYTES + path.length;
+        records++;
+      }
+    } catch (NoSuchFileException e) {
+      LOGGER.debug("Creating journal {}", journalFile);
+    } catch (EOFException e) {
+      LOGGER.trace("Reached the end of {}", journalFile, e);
+    }
+
+    LOGGER.debug("Replayed {} records of {} to {} files", records, journalFile, entries.size());
+    return length;
+  }
+
+  private void writeRemove(String path) throws IOException {
+    output.writeByte(REMOVE);
+    writePath(output, path);
+    records++;
+  }
+
+  private static void writePut(DataOutputStream output, String path, Entry entry)
+      throws IOException {
+    output.writeByte(PUT);
+    writePath(output, path);
+    output.writeLong(entry.size);
+    output.writeLong(entry.modified);
+  }
+
+  private static void writePath(DataOutputStream output, String path) throws IOException {
+    byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private static final class Entry {
+
+    private long size;
+
+    private long modified;
+
+    private int generation;
+
+    private Entry(long size, long modified) {
+      this.size = size;
+      this.modified = modified;
+    }
+  }
+}
@@ -138,6 +138,23 @@ public void testRouteCreationWithKeepIngestedFiles() throws Exception {
     testRouteCreationWithGivenCopyStatus(ContentDirectoryMonitor.IN_PLACE);
   }
 
+  @Test
+  public void testRouteCreationWithWatchService() throws Exception {
+    Map<String, Object> properties = new HashMap<>();
+    properties.put("monitoredDirectoryPath", monitoredDirectoryPath);
+    properties.put("processingMechanism", ContentDirectoryMonitor.IN_PLACE);
+    properties.put("numThreads", 1);
+    properties.put("readLockIntervalMilliseconds", 1000);
+    properties.put("useWatchService", true);
+    monitor.updateCallback(properties);
+
+    assertThat(monitor.getRouteDefinitions(), hasSize(1));
+    List<FromDefinition> fromDefinitions = monitor.getRouteDefinitions().get(0).getInputs();
+    assertThat(
+        fromDefinitions.get(0).getUri(),
+        equalTo("durable:" + monitoredDirectoryPath + "?watchService=true"));
+  }
+
   private void testRouteCreationWithGivenCopyStatus(String processingMechanism) throws Exception {
     submitConfigOptions(monitor, monitoredDirectoryPath, processingMechanism);
     assertThat(
@@ -0,0 +1,179 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.monitor;
+
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.apache.camel.Processor;
+import org.apache.camel.component.file.GenericFileEndpoint;
+import org.apache.camel.component.file.GenericFileOperations;
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DurableWatchServiceFileConsumerTest {
+
+  private static final long TIMEOUT_IN_SECONDS = 30;
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private File monitoredDirectory;
+
+  private File storeDirectory;
+
+  private DurableFileAlterationListener listener;
+
+  private DurableWatchServiceFileConsumer consumer;
+
+  @Before
+  public void setup() throws Exception {
+    monitoredDirectory = folder.newFolder("monitored");
+    storeDirectory = folder.newFolder("store");
+    listener = mock(DurableFileAlterationListener.class);
+    consumer = createConsumer();
+  }
+
+  @After
+  public void teardown() {
+    consumer.close();
+  }
+
+  @Test
+  public void testStartupScanNotifiesExistingFiles() throws Exception {
+    File file = createFile(monitoredDirectory, "existing.txt");
+
+    poll();
+
+    verify(listener).onFileCreate(file);
+  }
+
+  @Test
+  public void testCreatedFile() throws Exception {
+    poll();
+
+    File file = createFile(monitoredDirectory, "created.txt");
+
+    awaitNotification(() -> verify(listener).onFileCreate(file));
+  }
+
+  @Test
+  public void testFileInCreatedDirectory() throws Exception {
+    poll();
+
+    File directory = new File(monitoredDirectory, "created");
+    File file = createFile(directory, "nested.txt");
+
+    awaitNotification(() -> verify(listener).onFileCreate(file));
+  }
+
+  @Test
+  public void testDeletedDirectory() throws Exception {
+    File directory = new File(monitoredDirectory, "deleted");
+    File file = createFile(directory, "nested.txt");
+    poll();
+
+    FileUtils.deleteDirectory(directory);
+
+    awaitNotification(() -> verify(listener).onFileDelete(file));
+  }
+
+  @Test
+  public void testChangesWhileStoppedAreNotifiedOnRestart() throws Exception {
+    File deleted = createFile(monitoredDirectory, "deleted.txt");
+    File unchanged = createFile(monitoredDirectory, "unchanged.txt");
+    poll();
+    consumer.close();
+
+    Files.delete(deleted.toPath());
+    File created = createFile(monitoredDirectory, "created.txt");
+
+    listener = mock(DurableFileAlterationListener.class);
+    consumer = createConsumer();
+    poll();
+
+    verify(listener).onFileDelete(deleted);
+    verify(listener).onFileCreate(created);
+    verify(listener, never()).onFileCreate(unchanged);
+    verify(listener, never()).onFileChange(any());
+  }
+
+  @Test
+  public void testFailedReconciliationWaitsForTheNextPeriod() throws Exception {
+    File file = createFile(monitoredDirectory, "existing.txt");
+    doThrow(new IllegalStateException()).when(listener).onFileCreate(file);
+
+    try {
+      poll();
+      fail("The listener failure should have been thrown");
+    } catch (IllegalStateException e) {
+      // the startup scan failed
+    }
+    poll();
+
+    assertThat(consumer.getMetrics().getReconciliationCount(), is(0L));
+    assertThat(consumer.getMetrics().getRescansAvoided(), is(1L));
+  }
+
+  private DurableWatchServiceFileConsumer createConsumer() {
+    DurableWatchServiceFileConsumer watchServiceConsumer =
+        new DurableWatchServiceFileConsumer(
+            mock(GenericFileEndpoint.class),
+            monitoredDirectory.getPath(),
+            mock(Processor.class),
+            mock(GenericFileOperations.class),
+            DurableWatchServiceFileConsumer.DEFAULT_RECONCILIATION_PERIOD,
+            durableFileConsumer -> listener);
+
+    FileSystemPersistenceProvider persistenceProvider = mock(FileSystemPersistenceProvider.class);
+    when(persistenceProvider.getMapStorePath())
+        .thenReturn(storeDirectory.getPath() + File.separator);
+    watchServiceConsumer.fileSystemPersistenceProvider = persistenceProvider;
+    return watchServiceConsumer;
+  }
+
+  private void poll() {
+    consumer.pollDirectory(null, null, 0);
+  }
+
+  private void awaitNotification(Runnable verification) {
+    await()
+        .atMost(TIMEOUT_IN_SECONDS, TimeUnit.SECONDS)
+        .untilAsserted(
+            () -> {
+              poll();
+              verification.run();
+            });
+  }
+
+  private File createFile(File directory, String name) throws Exception {
+    File file = new File(directory, name);
+    FileUtils.writeStringToFile(file, name);
+    return file;
+  }
+}
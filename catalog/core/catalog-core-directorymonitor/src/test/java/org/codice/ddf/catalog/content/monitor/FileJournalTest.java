@@ -0,0 +1,155 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.monitor;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.io.File;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.codice.ddf.catalog.content.monitor.FileJournal.Change;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileJournalTest {
+
+  private static final String DIRECTORY = File.separator + "monitored";
+
+  private static final String FILE = DIRECTORY + File.separator + "file.txt";
+
+  private static final String OTHER_FILE = DIRECTORY + File.separator + "other.txt";
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private Path journalFile;
+
+  @Before
+  public void setup() {
+    journalFile = folder.getRoot().toPath().resolve("test.journal");
+  }
+
+  @Test
+  public void testUpdate() throws Exception {
+    try (FileJournal journal = new FileJournal(journalFile)) {
+      assertThat(journal.update(FILE, 10, 100), is(Change.CREATED));
+      assertThat(journal.update(FILE, 10, 100), is(Change.UNCHANGED));
+      assertThat(journal.update(FILE, 20, 100), is(Change.MODIFIED));
+      assertThat(journal.update(FILE, 20, 200), is(Change.MODIFIED));
+      assertThat(journal.size(), is(1));
+    }
+  }
+
+  @Test
+  public void testReplay() throws Exception {
+    try (FileJournal journal = new FileJournal(journalFile)) {
+      journal.update(FILE, 10, 100);
+      journal.update(OTHER_FILE, 10, 100);
+      journal.update(FILE, 20, 200);
+      journal.remove(OTHER_FILE);
+      journal.flush();
+    }
+
+    try (FileJournal journal = new FileJournal(journalFile)) {
+      assertThat(journal.size(), is(1));
+      assertThat(journal.update(FILE, 20, 200), is(Change.UNCHANGED));
+      assertThat(journal.update(OTHER_FILE, 10, 100), is(Change.CREATED));
+    }
+  }
+
+  @Test
+  public void testReplayDropsIncompleteRecord() throws Exception {
+    try (FileJournal journal = new FileJournal(journalFile)) {
+      journal.update(FILE, 10, 100);
+      journal.update(OTHER_FILE, 10, 100);
+    }
+
+    try (FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - 3);
+    }
+
+    try (FileJournal journal = new FileJournal(journalFile)) {
+      assertThat(journal.size(), is(1));
+      assertThat(journal.update(FILE, 10, 100), is(Change.UNCHANGED));
+      journal.update(OTHER_FILE, 30, 300);
+    }
+
+    try (FileJournal journal = new FileJournal(journalFile)) {
+      assertThat(journal.size(), is(2));
+      assertThat(journal.update(OTHER_FILE, 30, 300), is(Change.UNCHANGED));
+    }
+  }
+
+  @Test
+  public void testRemoveUnder() throws Exception {
+    String nested = DIRECTORY + File.separator + "nested" + File.separator + "file.txt";
+    String sibling = DIRECTORY + "-sibling" + File.separator + "file.txt";
+
+    try (FileJournal journal = new FileJournal(journalFile)) {
+      journal.update(FILE, 10, 100);
+      journal.update(nested, 10, 100);
+      journal.update(sibling, 10, 100);
+
+      assertThat(journal.removeUnder(DIRECTORY), containsInAnyOrder(FILE, nested));
+      assertThat(journal.size(), is(1));
+    }
+  }
+
+  @Test
+  public void testSweep() throws Exception {
+    try (FileJournal journal = new FileJournal(journalFile)) {
+      journal.update(FILE, 10, 100);
+      journal.update(OTHER_FILE, 10, 100);
+
+      journal.mark();
+      journal.update(FILE, 10, 100);
+
+      assertThat(journal.sweep(), contains(OTHER_FILE));
+
+      journal.mark();
+      journal.update(FILE, 10, 100);
+
+      assertThat(journal.sweep(), is(empty()));
+    }
+  }
+
+  @Test
+  public void testCompaction() throws Exception {
+    try (FileJournal journal = new FileJournal(journalFile)) {
+      journal.update(FILE, 10, 100);
+      journal.flush();
+      long initialSize = Files.size(journalFile);
+
+      for (int i = 0; i < 20_000; i++) {
+        journal.update(OTHER_FILE, i, 100);
+      }
+      journal.flush();
+
+      assertThat(Files.size(journalFile), lessThan(initialSize * 3));
+    }
+
+    try (FileJournal journal = new FileJournal(journalFile)) {
+      assertThat(journal.size(), is(2));
+      assertThat(journal.update(OTHER_FILE, 19_999, 100), is(Change.UNCHANGED));
+    }
+  }
+}
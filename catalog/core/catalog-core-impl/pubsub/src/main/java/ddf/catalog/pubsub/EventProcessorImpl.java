@@ -33,6 +33,7 @@
 import ddf.catalog.pubsub.internal.PubSubConstants;
 import ddf.catalog.pubsub.internal.PubSubThread;
 import ddf.catalog.pubsub.internal.SubscriptionFilterVisitor;
+import ddf.catalog.pubsub.internal.index.SubscriptionIndex;
 import ddf.catalog.pubsub.predicate.Predicate;
 import ddf.catalog.util.impl.Requests;
 import java.net.URI;
@@ -72,6 +73,8 @@ public class EventProcessorImpl implements EventProcessor, EventHandler, PostIng
 
   private Map<String, ServiceRegistration> existingSubscriptions;
 
+  private final SubscriptionIndex subscriptionIndex = new SubscriptionIndex();
+
   private final ExecutorService threadPool =
       Executors.newCachedThreadPool(
           StandardThreadFactoryBuilder.newThreadFactory("eventProcessorThread"));
@@ -119,6 +122,24 @@ public EventProcessorImpl(
    * @param eventAdmin - OSGi EventAdmin service used post events
    */
   public static void processEntry(Metacard metacard, String operation, EventAdmin eventAdmin) {
+    processEntry(metacard, operation, eventAdmin, null);
+  }
+
+  /**
+   * Processes an entry by adding properties from the metacard to the event. Then the eventAdmin is
+   * used to post the metacard properties as a single event.
+   *
+   * @param metacard - the metacard to process
+   * @param operation - The type of event {@link ddf.catalog.pubsub.internal.PubSubConstants}
+   * @param eventAdmin - OSGi EventAdmin service used post events
+   * @param subscriptionIndex - index used to limit the subscriptions evaluating the event, or null
+   *     to have every subscription evaluate it
+   */
+  public static void processEntry(
+      Metacard metacard,
+      String operation,
+      EventAdmin eventAdmin,
+      SubscriptionIndex subscriptionIndex) {
     String methodName = "processEntry";
     LOGGER.debug("ENTERING: " + methodName);
 
@@ -127,7 +148,7 @@ public static void processEntry(Metacard metacard, String operation, EventAdmin
       LOGGER.debug("catalog ID = {}", metacard.getId());
       LOGGER.debug("operation = {}", operation);
 
-      HashMap<String, Object> properties = new HashMap<>(3, 1);
+      HashMap<String, Object> properties = new HashMap<>();
 
       // Common headers
       properties.put(PubSubConstants.HEADER_OPERATION_KEY, operation);
@@ -168,6 +189,17 @@ public static void processEntry(Metacard metacard, String operation, EventAdmin
 
       properties.put(PubSubConstants.HEADER_CONTENT_TYPE_KEY, contentType);
 
+      // CANDIDATE SUBSCRIPTIONS
+      if (subscriptionIndex != null) {
+        try {
+          properties.put(
+              PubSubConstants.HEADER_CANDIDATES_KEY,
+              subscriptionIndex.getCandidates(metacard, operation));
+        } catch (RuntimeException e) {
+          LOGGER.info("Unable to find candidate subscriptions, evaluating all of them", e);
+        }
+      }
+
       // CONTEXTUAL INFORMATION
       if (metacard.getMetadata() != null) {
         try {
@@ -238,7 +270,7 @@ public void handleEvent(Event event) {
       Metacard entry = (Metacard) event.getProperty(EventProcessor.EVENT_METACARD);
       LOGGER.debug("metacard ID = {}", entry.getId());
 
-      new PubSubThread(entry, topic, eventAdmin).start();
+      new PubSubThread(entry, topic, eventAdmin, subscriptionIndex).start();
     } else {
       LOGGER.debug(
           "No existing subscriptions, so no need to handle event since there is no one listening ...");
@@ -280,6 +312,8 @@ public void createSubscription(Subscription subscription, String subscriptionId)
       Predicate finalPredicate = (Predicate) subscription.accept(visitor, null);
       LOGGER.debug("predicate from filter visitor: {}", finalPredicate);
 
+      subscriptionIndex.add(subscriptionId, finalPredicate);
+
       String[] topics = new String[] {PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME};
 
       Dictionary<String, String[]> props = new Hashtable<>(1, 1);
@@ -288,7 +322,7 @@ public void createSubscription(Subscription subscription, String subscriptionId)
           bundleContext.registerService(
               EventHandler.class.getName(),
               new PublishedEventHandler(
-                  finalPredicate, subscription, preDelivery, catalog, threadPool),
+                  subscriptionId, finalPredicate, subscription, preDelivery, catalog, threadPool),
               props);
 
       existingSubscriptions.put(subscriptionId, serviceRegistration);
@@ -334,6 +368,7 @@ public void deleteSubscription(String subscriptionId) throws SubscriptionNotFoun
         sr.unregister();
         LOGGER.debug("Removal complete");
         existingSubscriptions.remove(subscriptionId);
+        subscriptionIndex.remove(subscriptionId);
       } else {
         LOGGER.debug(
             "Unable to find existing subscription: {}.  May already be deleted.", subscriptionId);
@@ -20,6 +20,7 @@
 import ddf.catalog.plugin.PreDeliveryPlugin;
 import ddf.catalog.pubsub.internal.DeliveryProcessor;
 import ddf.catalog.pubsub.internal.PubSubConstants;
+import ddf.catalog.pubsub.internal.index.SubscriptionCandidates;
 import ddf.catalog.pubsub.predicate.Predicate;
 import java.util.List;
 import java.util.Set;
@@ -35,6 +36,8 @@ public class PublishedEventHandler implements EventHandler {
 
   private final ExecutorService threadPool;
 
+  private final String subscriptionId;
+
   private Predicate predicate;
 
   private Subscription subscription;
@@ -49,6 +52,17 @@ public PublishedEventHandler(
       List<PreDeliveryPlugin> preDelivery,
       CatalogFramework catalog,
       ExecutorService threadPool) {
+    this(null, finalPredicate, subscription, preDelivery, catalog, threadPool);
+  }
+
+  public PublishedEventHandler(
+      String subscriptionId,
+      Predicate finalPredicate,
+      Subscription subscription,
+      List<PreDeliveryPlugin> preDelivery,
+      CatalogFramework catalog,
+      ExecutorService threadPool) {
+    this.subscriptionId = subscriptionId;
     this.predicate = finalPredicate;
     this.subscription = subscription;
     this.preDelivery = preDelivery;
@@ -57,6 +71,14 @@ public PublishedEventHandler(
   }
 
   public void handleEvent(Event event) {
+    SubscriptionCandidates candidates =
+        (SubscriptionCandidates) event.getProperty(PubSubConstants.HEADER_CANDIDATES_KEY);
+
+    if (subscriptionId != null && candidates != null && !candidates.isCandidate(subscriptionId)) {
+      LOGGER.trace("Subscription {} can't match the event, skipping evaluation", subscriptionId);
+      return;
+    }
+
     threadPool.submit(new EventProcessor(event));
   }
 
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal.index;
+
+import com.vividsolutions.jts.geom.Envelope;
+import ddf.catalog.pubsub.EventProcessorImpl.DateType;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * A cheap condition that a metacard must satisfy for a subscription predicate to possibly match it.
+ * Guards are always looser than the predicate they were derived from: a metacard that fails every
+ * guard of a subscription can't match that subscription, but a metacard that passes a guard still
+ * has to be evaluated against the full predicate.
+ */
+abstract class IndexGuard {
+
+  /** Lower numbers are expected to filter out more metacards. */
+  abstract int getSelectivityRank();
+
+  /** The metacard location must fall within the envelope. */
+  static final class SpatialGuard extends IndexGuard {
+
+    private final Envelope envelope;
+
+    SpatialGuard(Envelope envelope) {
+      this.envelope = envelope;
+    }
+
+    Envelope getEnvelope() {
+      return envelope;
+    }
+
+    @Override
+    int getSelectivityRank() {
+      return 0;
+    }
+  }
+
+  /** The metacard date of the given type must fall within the inclusive time window. */
+  static final class TemporalGuard extends IndexGuard {
+
+    private final DateType dateType;
+
+    private final long start;
+
+    private final long end;
+
+    TemporalGuard(DateType dateType, long start, long end) {
+      this.dateType = dateType;
+      this.start = start;
+      this.end = end;
+    }
+
+    DateType getDateType() {
+      return dateType;
+    }
+
+    long getStart() {
+      return start;
+    }
+
+    long getEnd() {
+      return end;
+    }
+
+    @Override
+    int getSelectivityRank() {
+      return 1;
+    }
+  }
+
+  /** The metacard metadata must contain at least one of the terms. */
+  static final class TermGuard extends IndexGuard {
+
+    private final Set<String> terms;
+
+    TermGuard(Set<String> terms) {
+      this.terms = Collections.unmodifiableSet(terms);
+    }
+
+    Set<String> getTerms() {
+      return terms;
+    }
+
+    @Override
+    int getSelectivityRank() {
+      return 2;
+    }
+  }
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Immutable interval tree answering which inclusive {@code [start, end]} intervals contain a point.
+ *
+ * <p>The intervals are sorted by start and laid out as an implicit balanced binary search tree,
+ * where the node of a range is its middle element. Each node also records the largest end of its
+ * subtree, so subtrees that end before the point are skipped. A stabbing query costs {@code O(log n
+ * + k)} for {@code k} matching intervals.
+ */
+final class IntervalTree<T> {
+
+  private final long[] starts;
+
+  private final long[] ends;
+
+  private final long[] maxEnds;
+
+  private final List<T> values;
+
+  private IntervalTree(List<Interval<T>> intervals) {
+    int size = intervals.size();
+    starts = new long[size];
+    ends = new long[size];
+    maxEnds = new long[size];
+    values = new ArrayList<>(size);
+
+    for (int i = 0; i < size; i++) {
+      Interval<T> interval = intervals.get(i);
+      starts[i] = interval.start;
+      ends[i] = interval.end;
+      values.add(interval.value);
+    }
+
+    computeMaxEnds(0, size - 1);
+  }
+
+  int size() {
+    return values.size();
+  }
+
+  /** Passes every value whose interval contains {@code point} to the consumer. */
+  void stab(long point, Consumer<T> consumer) {
+    stab(0, values.size() - 1, point, consumer);
+  }
+
+  private void stab(int low, int high, long point, Consumer<T> consumer) {
+    if (low > high) {
+      return;
+    }
+
+    int middle = (low + high) >>> 1;
+    if (maxEnds[middle] < point) {
+      return;
+    }
+
+    stab(low, middle - 1, point, consumer);
+
+    if (starts[middle] <= point) {
+      if (point <= ends[middle]) {
+        consumer.accept(values.get(middle));
+      }
+      stab(middle + 1, high, point, consumer);
+    }
+  }
+
+  private long computeMaxEnds(int low, int high) {
+    if (low > high) {
+      return Long.MIN_VALUE;
+    }
+
+    int middle = (low + high) >>> 1;
+    long maxEnd =
+        Math.max(
+            ends[middle],
+            Math.max(computeMaxEnds(low, middle - 1), computeMaxEnds(middle + 1, high)));
+    maxEnds[middle] = maxEnd;
+    return maxEnd;
+  }
+
+  static final class Builder<T> {
+
+    private final List<Interval<T>> intervals = new ArrayList<>();
+
+    Builder<T> add(long start, long end, T value) {
+      intervals.add(new Interval<>(start, end, value));
+      return this;
+    }
+
+    IntervalTree<T> build() {
+      intervals.sort(Comparator.comparingLong(interval -> interval.start));
+      return new IntervalTree<>(intervals);
+    }
+  }
+
+  private static final class Interval<T> {
+
+    private final long start;
+
+    private final long end;
+
+    private final T value;
+
+    private Interval(long start, long end, T value) {
+      this.start = start;
+      this.end = end;
+      this.value = value;
+    }
+  }
+}
@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal.index;
+
+import com.vividsolutions.jts.geom.Envelope;
+import ddf.catalog.pubsub.internal.index.IndexGuard.SpatialGuard;
+import ddf.catalog.pubsub.internal.index.IndexGuard.TemporalGuard;
+import ddf.catalog.pubsub.internal.index.IndexGuard.TermGuard;
+import ddf.catalog.pubsub.predicate.AndPredicate;
+import ddf.catalog.pubsub.predicate.ContextualPredicate;
+import ddf.catalog.pubsub.predicate.GeospatialPredicate;
+import ddf.catalog.pubsub.predicate.OrPredicate;
+import ddf.catalog.pubsub.predicate.Predicate;
+import ddf.catalog.pubsub.predicate.TemporalPredicate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.commons.lang.StringUtils;
+
+/**
+ * Derives the {@link IndexGuard}s of a subscription {@link Predicate}. The predicate can only match
+ * a metacard that satisfies at least one of the guards returned.
+ *
+ * <ul>
+ *   <li>Geospatial predicates are guarded by the envelope of their geometry, expanded by their
+ *       distance.
+ *   <li>Absolute temporal predicates are guarded by their time window. Relative windows move with
+ *       the clock and are not indexed.
+ *   <li>Non-fuzzy contextual predicates without wildcards or negations are guarded by the terms of
+ *       their search phrase.
+ *   <li>An AND is guarded by the guards of its most selective indexable side.
+ *   <li>An OR is guarded by the guards of both of its sides, and is only indexable if both are.
+ *   <li>Everything else, including NOT, can't be indexed.
+ * </ul>
+ */
+final class PredicateAnalyzer {
+
+  private static final Comparator<List<IndexGuard>> SELECTIVITY =
+      Comparator.<List<IndexGuard>>comparingInt(
+              guards -> guards.stream().mapToInt(IndexGuard::getSelectivityRank).max().orElse(0))
+          .thenComparingInt(List::size);
+
+  /** Wildcard, fuzzy, range and negation operators of the Lucene query syntax. */
+  private static final String UNINDEXED_PHRASE_CHARACTERS = "*?~[]{}!";
+
+  private PredicateAnalyzer() {}
+
+  /**
+   * @param predicate subscription predicate, {@code null} for subscriptions without a filter
+   * @return guards of the predicate, or {@code null} if the predicate can't be indexed and must be
+   *     evaluated for every metacard
+   */
+  static List<IndexGuard> getGuards(Predicate predicate) {
+    if (predicate instanceof AndPredicate) {
+      AndPredicate and = (AndPredicate) predicate;
+      List<IndexGuard> left = getGuards(and.getLeft());
+      List<IndexGuard> right = getGuards(and.getRight());
+
+      if (left == null) {
+        return right;
+      } else if (right == null) {
+        return left;
+      }
+      return SELECTIVITY.compare(left, right) <= 0 ? left : right;
+    } else if (predicate instanceof OrPredicate) {
+      OrPredicate or = (OrPredicate) predicate;
+      List<IndexGuard> left = getGuards(or.getLeft());
+      List<IndexGuard> right = getGuards(or.getRight());
+
+      if (left == null || right == null) {
+        return null;
+      }
+      List<IndexGuard> guards = new ArrayList<>(left);
+      guards.addAll(right);
+      return guards;
+    } else if (predicate instanceof GeospatialPredicate) {
+      return getSpatialGuard((GeospatialPredicate) predicate);
+    } else if (predicate instanceof TemporalPredicate) {
+      return getTemporalGuard((TemporalPredicate) predicate);
+    } else if (predicate instanceof ContextualPredicate) {
+      return getTermGuard((ContextualPredicate) predicate);
+    }
+
+    return null;
+  }
+
+  private static List<IndexGuard> getSpatialGuard(GeospatialPredicate predicate) {
+    if (predicate.getGeoCriteria() == null) {
+      return null;
+    }
+
+    Envelope envelope = new Envelope(predicate.getGeoCriteria().getEnvelopeInternal());
+    if (predicate.getDistance() > 0) {
+      envelope.expandBy(predicate.getDistance());
+    }
+
+    return Collections.singletonList(new SpatialGuard(envelope));
+  }
+
+  private static List<IndexGuard> getTemporalGuard(TemporalPredicate predicate) {
+    if (predicate.getOffset() > 0
+        || predicate.getType() == null
+        || (predicate.getStart() == null && predicate.getEnd() == null)) {
+      return null;
+    }
+
+    long start = predicate.getStart() == null ? Long.MIN_VALUE : predicate.getStart().getTime();
+    long end = predicate.getEnd() == null ? Long.MAX_VALUE : predicate.getEnd().getTime();
+
+    return Collections.singletonList(new TemporalGuard(predicate.getType(), start, end));
+  }
+
+  private static List<IndexGuard> getTermGuard(ContextualPredicate predicate) {
+    String phrase = predicate.getSearchPhrase();
+
+    if (predicate.isFuzzy()
+        || phrase == null
+        || StringUtils.containsAny(phrase, UNINDEXED_PHRASE_CHARACTERS)
+        || containsNegation(phrase)) {
+      return null;
+    }
+
+    Set<String> terms = Terms.tokenizeSearchPhrase(phrase, predicate.isCaseSensitive());
+    if (terms == null || terms.isEmpty()) {
+      return null;
+    }
+
+    return Collections.singletonList(new TermGuard(new LinkedHashSet<>(terms)));
+  }
+
+  private static boolean containsNegation(String phrase) {
+    for (String word : phrase.split("[\\s()\"]+")) {
+      if ("NOT".equals(word) || word.startsWith("-")) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
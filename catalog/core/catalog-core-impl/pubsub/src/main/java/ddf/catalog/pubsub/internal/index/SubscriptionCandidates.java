@@ -0,0 +1,47 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal.index;
+
+import java.util.Set;
+
+/**
+ * The subscriptions that may match a metacard, as computed by a {@link SubscriptionIndex}.
+ * Subscriptions that weren't in the index when the candidates were computed, such as subscriptions
+ * created while the event was being published, are always candidates.
+ */
+public final class SubscriptionCandidates {
+
+  private final Set<String> indexed;
+
+  private final Set<String> candidates;
+
+  SubscriptionCandidates(Set<String> indexed, Set<String> candidates) {
+    this.indexed = indexed;
+    this.candidates = candidates;
+  }
+
+  /**
+   * @param subscriptionId ID of the subscription
+   * @return {@code false} if the subscription can't match the metacard, {@code true} if it has to
+   *     be evaluated
+   */
+  public boolean isCandidate(String subscriptionId) {
+    return !indexed.contains(subscriptionId) || candidates.contains(subscriptionId);
+  }
+
+  /** @return number of indexed subscriptions that have to be evaluated */
+  public int size() {
+    return candidates.size();
+  }
+}
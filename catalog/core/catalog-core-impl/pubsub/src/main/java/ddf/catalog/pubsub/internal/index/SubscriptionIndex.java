@@ -0,0 +1,288 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal.index;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.index.strtree.STRtree;
+import com.vividsolutions.jts.io.ParseException;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.types.Core;
+import ddf.catalog.pubsub.EventProcessorImpl.DateType;
+import ddf.catalog.pubsub.internal.PubSubConstants;
+import ddf.catalog.pubsub.internal.index.IndexGuard.SpatialGuard;
+import ddf.catalog.pubsub.internal.index.IndexGuard.TemporalGuard;
+import ddf.catalog.pubsub.internal.index.IndexGuard.TermGuard;
+import ddf.catalog.pubsub.predicate.Predicate;
+import java.util.Collections;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.geotools.geometry.jts.WKTReader2;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reverse query index over the predicates of the standing subscriptions. Instead of evaluating
+ * every subscription predicate against each published metacard, the index returns the subscriptions
+ * that may match it:
+ *
+ * <ul>
+ *   <li>geospatial criteria are kept in an STR-tree of their envelopes and looked up with the
+ *       envelope of the metacard location,
+ *   <li>absolute temporal windows are kept in an interval tree per date type and looked up with the
+ *       matching metacard date,
+ *   <li>contextual search phrases are kept in an inverted index of their terms and looked up with
+ *       the terms of the metacard metadata.
+ * </ul>
+ *
+ * <p>Subscriptions whose predicates can't be indexed (see {@link PredicateAnalyzer}) are always
+ * candidates. The candidates are a superset of the matching subscriptions, so their predicates
+ * still have to be evaluated.
+ *
+ * <p>Adding and removing subscriptions is rare compared to publishing metacards, so the lookup
+ * structures are immutable and rebuilt on the first lookup after a change.
+ */
+public class SubscriptionIndex {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SubscriptionIndex.class);
+
+  /** Guards of each subscription, {@code null} for subscriptions that can't be indexed. */
+  private final Map<String, List<IndexGuard>> subscriptionGuards = new HashMap<>();
+
+  private volatile Snapshot snapshot;
+
+  /**
+   * Adds or replaces a subscription.
+   *
+   * @param subscriptionId ID of the subscription
+   * @param predicate subscription predicate, {@code null} for subscriptions without a filter
+   */
+  public synchronized void add(String subscriptionId, Predicate predicate) {
+    List<IndexGuard> guards = PredicateAnalyzer.getGuards(predicate);
+    if (guards == null) {
+      LOGGER.debug(
+          "Subscription {} can't be indexed and will be evaluated for every metacard",
+          subscriptionId);
+    }
+
+    subscriptionGuards.put(subscriptionId, guards);
+    snapshot = null;
+  }
+
+  public synchronized void remove(String subscriptionId) {
+    if (subscriptionGuards.containsKey(subscriptionId)) {
+      subscriptionGuards.remove(subscriptionId);
+      snapshot = null;
+    }
+  }
+
+  /** @return number of subscriptions in the index */
+  public synchronized int size() {
+    return subscriptionGuards.size();
+  }
+
+  /** @return number of subscriptions whose predicates can't be indexed */
+  public int getUnindexedCount() {
+    return getSnapshot().unindexed.size();
+  }
+
+  /**
+   * Looks up the subscriptions that may match a metacard.
+   *
+   * @param metacard the published metacard
+   * @param operation the catalog operation {@link PubSubConstants#CREATE}, {@link
+   *     PubSubConstants#UPDATE} or {@link PubSubConstants#DELETE}
+   * @return the candidate subscriptions
+   */
+  public SubscriptionCandidates getCandidates(Metacard metacard, String operation) {
+    Snapshot current = getSnapshot();
+    String metadata = metacard.getMetadata();
+
+    // every predicate lets deletes without metadata through
+    if (PubSubConstants.DELETE.equals(operation)
+        && PubSubConstants.METADATA_DELETED.equals(metadata)) {
+      return new SubscriptionCandidates(current.all, current.all);
+    }
+
+    Set<String> candidates = new HashSet<>(current.unindexed);
+
+    addSpatialCandidates(current, metacard, candidates);
+    addTemporalCandidates(current, metacard, candidates);
+    addTermCandidates(current, metadata, candidates);
+
+    LOGGER.debug(
+        "Found {} candidate subscriptions out of {} for metacard {}",
+        candidates.size(),
+        current.all.size(),
+        metacard.getId());
+
+    return new SubscriptionCandidates(current.all, candidates);
+  }
+
+  private void addSpatialCandidates(Snapshot current, Metacard metacard, Set<String> candidates) {
+    if (current.spatialIds.isEmpty()) {
+      return;
+    }
+
+    Geometry location = readLocation(metacard);
+    if (location == null) {
+      // let the predicates decide what to do with a missing or invalid location
+      candidates.addAll(current.spatialIds);
+      return;
+    }
+
+    current.spatial.query(location.getEnvelopeInternal(), item -> candidates.add((String) item));
+  }
+
+  private void addTemporalCandidates(Snapshot current, Metacard metacard, Set<String> candidates) {
+    for (Map.Entry<DateType, IntervalTree<String>> entry : current.temporal.entrySet()) {
+      Date date = getDate(metacard, entry.getKey());
+
+      if (date == null) {
+        candidates.addAll(current.temporalIds.get(entry.getKey()));
+      } else {
+        entry.getValue().stab(date.getTime(), candidates::add);
+      }
+    }
+  }
+
+  private void addTermCandidates(Snapshot current, String metadata, Set<String> candidates) {
+    if (current.terms.isEmpty() || metadata == null) {
+      // contextual predicates never match metacards without metadata
+      return;
+    }
+
+    for (String term : Terms.tokenizeMetadata(metadata)) {
+      Set<String> ids = current.terms.get(term);
+      if (ids != null) {
+        candidates.addAll(ids);
+      }
+    }
+  }
+
+  private Geometry readLocation(Metacard metacard) {
+    String wkt = metacard.getLocation();
+    if (wkt == null) {
+      return null;
+    }
+
+    try {
+      return new WKTReader2().read(wkt);
+    } catch (ParseException e) {
+      LOGGER.debug("Unable to parse location of metacard {}", metacard.getId(), e);
+      return null;
+    }
+  }
+
+  /** Mirrors the dates compared by {@link ddf.catalog.pubsub.predicate.TemporalPredicate}. */
+  private Date getDate(Metacard metacard, DateType dateType) {
+    switch (dateType) {
+      case MODIFIED:
+        return metacard.getModifiedDate();
+      case METACARD_MODIFIED:
+        return getDateAttribute(metacard, Core.METACARD_MODIFIED);
+      case EFFECTIVE:
+        return metacard.getEffectiveDate();
+      case CREATED:
+        return metacard.getCreatedDate();
+      case METACARD_CREATED:
+        return getDateAttribute(metacard, Core.METACARD_CREATED);
+      case EXPIRATION:
+        return metacard.getExpirationDate();
+      default:
+        return null;
+    }
+  }
+
+  private Date getDateAttribute(Metacard metacard, String name) {
+    Attribute attribute = metacard.getAttribute(name);
+    if (attribute != null && attribute.getValue() instanceof Date) {
+      return (Date) attribute.getValue();
+    }
+    return null;
+  }
+
+  private Snapshot getSnapshot() {
+    Snapshot current = snapshot;
+    if (current == null) {
+      synchronized (this) {
+        current = snapshot;
+        if (current == null) {
+          current = new Snapshot(subscriptionGuards);
+          snapshot = current;
+        }
+      }
+    }
+    return current;
+  }
+
+  private static class Snapshot {
+
+    private final Set<String> all;
+
+    private final Set<String> unindexed = new HashSet<>();
+
+    private final STRtree spatial = new STRtree();
+
+    private final Set<String> spatialIds = new HashSet<>();
+
+    private final Map<DateType, IntervalTree<String>> temporal = new EnumMap<>(DateType.class);
+
+    private final Map<DateType, Set<String>> temporalIds = new EnumMap<>(DateType.class);
+
+    private final Map<String, Set<String>> terms = new HashMap<>();
+
+    Snapshot(Map<String, List<IndexGuard>> subscriptionGuards) {
+      all = Collections.unmodifiableSet(new HashSet<>(subscriptionGuards.keySet()));
+
+      Map<DateType, IntervalTree.Builder<String>> temporalBuilders = new EnumMap<>(DateType.class);
+
+      for (Map.Entry<String, List<IndexGuard>> entry : subscriptionGuards.entrySet()) {
+        String id = entry.getKey();
+
+        if (entry.getValue() == null) {
+          unindexed.add(id);
+          continue;
+        }
+
+        for (IndexGuard guard : entry.getValue()) {
+          if (guard instanceof SpatialGuard) {
+            spatial.insert(((SpatialGuard) guard).getEnvelope(), id);
+            spatialIds.add(id);
+          } else if (guard instanceof TemporalGuard) {
+            TemporalGuard temporalGuard = (TemporalGuard) guard;
+            temporalBuilders
+                .computeIfAbsent(temporalGuard.getDateType(), type -> new IntervalTree.Builder<>())
+                .add(temporalGuard.getStart(), temporalGuard.getEnd(), id);
+            temporalIds
+                .computeIfAbsent(temporalGuard.getDateType(), type -> new HashSet<>())
+                .add(id);
+          } else if (guard instanceof TermGuard) {
+            for (String term : ((TermGuard) guard).getTerms()) {
+              terms.computeIfAbsent(term, key -> new HashSet<>()).add(id);
+            }
+          }
+        }
+      }
+
+      spatial.build();
+      temporalBuilders.forEach((type, builder) -> temporal.put(type, builder.build()));
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal.index;
+
+import ddf.catalog.pubsub.criteria.contextual.CaseSensitiveContextualAnalyzer;
+import ddf.catalog.pubsub.criteria.contextual.ContextualAnalyzer;
+import ddf.catalog.pubsub.criteria.contextual.ContextualTokenizer;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.apache.commons.lang.StringEscapeUtils;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.TermAttribute;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryParser.ParseException;
+import org.apache.lucene.queryParser.QueryParser;
+import org.apache.lucene.util.Version;
+
+/**
+ * Extracts the terms compared by the contextual predicates. Search phrases are parsed with the same
+ * query parser and analyzers as the {@link
+ * ddf.catalog.pubsub.criteria.contextual.ContextualEvaluator}, and metadata is split with the same
+ * {@link ContextualTokenizer}. Every term is lower cased and stop words are kept, so the terms of a
+ * metacard include every term, in lower case, that either the case-sensitive or the
+ * case-insensitive analyzer would index for it.
+ */
+final class Terms {
+
+  private static final String FIELD_NAME = "Resource";
+
+  private static final Pattern CDATA_DELIMITERS = Pattern.compile("<!\\[CDATA\\[|\\]\\]>");
+
+  private static final Analyzer ANALYZER = new ContextualAnalyzer(Version.LUCENE_30);
+
+  private static final Analyzer CASE_SENSITIVE_ANALYZER =
+      new CaseSensitiveContextualAnalyzer(Version.LUCENE_30);
+
+  private Terms() {}
+
+  /** @return the lower cased terms of the text content and attribute values of the metadata */
+  static Set<String> tokenizeMetadata(String metadata) {
+    return tokenize(
+        StringEscapeUtils.unescapeXml(CDATA_DELIMITERS.matcher(metadata).replaceAll(" ")));
+  }
+
+  /**
+   * @return the lower cased terms of the search phrase, or {@code null} if the query parser can't
+   *     parse it or it has terms, such as wildcards, that can't be extracted
+   */
+  static Set<String> tokenizeSearchPhrase(String phrase, boolean caseSensitive) {
+    QueryParser queryParser =
+        new QueryParser(
+            Version.LUCENE_30, FIELD_NAME, caseSensitive ? CASE_SENSITIVE_ANALYZER : ANALYZER);
+
+    Set<Term> queryTerms = new HashSet<>();
+    try {
+      queryParser.parse(phrase).extractTerms(queryTerms);
+    } catch (ParseException | UnsupportedOperationException e) {
+      return null;
+    }
+
+    Set<String> terms = new HashSet<>();
+    for (Term term : queryTerms) {
+      terms.addAll(tokenize(term.text()));
+    }
+    return terms;
+  }
+
+  private static Set<String> tokenize(String text) {
+    Set<String> terms = new HashSet<>();
+
+    try (TokenStream tokenStream =
+        new LowerCaseFilter(new ContextualTokenizer(new StringReader(text)))) {
+      TermAttribute termAttribute = tokenStream.getAttribute(TermAttribute.class);
+      while (tokenStream.incrementToken()) {
+        terms.add(termAttribute.term());
+      }
+      tokenStream.end();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    return terms;
+  }
+}
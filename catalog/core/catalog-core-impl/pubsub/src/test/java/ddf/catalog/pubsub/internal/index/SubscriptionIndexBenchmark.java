@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal.index;
+
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.pubsub.internal.PubSubConstants;
+import ddf.catalog.pubsub.predicate.Predicate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.osgi.service.event.Event;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares evaluating every subscription predicate against each published metacard to only
+ * evaluating the candidates returned by the {@link SubscriptionIndex}, for 100, 1000 and 10000
+ * random subscriptions. Not run as part of the build.
+ *
+ * <p>Usage: {@code SubscriptionIndexBenchmark [metacards]}
+ */
+public class SubscriptionIndexBenchmark {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SubscriptionIndexBenchmark.class);
+
+  private static final int[] SUBSCRIPTION_COUNTS = {100, 1000, 10000};
+
+  public static void main(String[] args) throws Exception {
+    int metacards = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    Random random = new Random(0);
+
+    Map<MetacardImpl, Event> events = new LinkedHashMap<>();
+    for (int i = 0; i < metacards; i++) {
+      MetacardImpl metacard = SubscriptionIndexTest.randomMetacard(random);
+      events.put(metacard, SubscriptionIndexTest.event(metacard));
+    }
+
+    for (int subscriptionCount : SUBSCRIPTION_COUNTS) {
+      SubscriptionIndex index = new SubscriptionIndex();
+      Map<String, Predicate> predicates = new LinkedHashMap<>();
+      for (int i = 0; i < subscriptionCount; i++) {
+        Predicate predicate = SubscriptionIndexTest.randomPredicate(random);
+        predicates.put(String.valueOf(i), predicate);
+        index.add(String.valueOf(i), predicate);
+      }
+
+      // warm up both paths so neither pays for class loading and JIT compilation
+      run(events, predicates, null);
+      run(events, predicates, index);
+
+      long start = System.nanoTime();
+      long bruteForceMatches = run(events, predicates, null);
+      long bruteForceNanos = System.nanoTime() - start;
+
+      start = System.nanoTime();
+      long indexedMatches = run(events, predicates, index);
+      long indexedNanos = System.nanoTime() - start;
+
+      if (indexedMatches != bruteForceMatches) {
+        throw new IllegalStateException(
+            String.format(
+                "The index found %d matches, evaluating every subscription found %d",
+                indexedMatches, bruteForceMatches));
+      }
+
+      LOGGER.info(
+          "{} subscriptions, {} matches: brute force {} matches/s ({} metacards/s),"
+              + " indexed {} matches/s ({} metacards/s)",
+          subscriptionCount,
+          indexedMatches,
+          perSecond(bruteForceMatches, bruteForceNanos),
+          perSecond(events.size(), bruteForceNanos),
+          perSecond(indexedMatches, indexedNanos),
+          perSecond(events.size(), indexedNanos));
+    }
+  }
+
+  /** @param index index to get the candidates from, or {@code null} to evaluate every predicate */
+  private static long run(
+      Map<MetacardImpl, Event> events, Map<String, Predicate> predicates, SubscriptionIndex index) {
+    long matches = 0;
+
+    for (Map.Entry<MetacardImpl, Event> event : events.entrySet()) {
+      SubscriptionCandidates candidates =
+          index == null ? null : index.getCandidates(event.getKey(), PubSubConstants.CREATE);
+
+      for (Map.Entry<String, Predicate> predicate : predicates.entrySet()) {
+        if ((candidates == null || candidates.isCandidate(predicate.getKey()))
+            && predicate.getValue().matches(event.getValue())) {
+          matches++;
+        }
+      }
+    }
+
+    return matches;
+  }
+
+  private static long perSecond(long count, long nanos) {
+    return count * TimeUnit.SECONDS.toNanos(1) / Math.max(nanos, 1);
+  }
+}
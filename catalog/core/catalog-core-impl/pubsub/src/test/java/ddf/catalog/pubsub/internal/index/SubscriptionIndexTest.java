@@ -0,0 +1,294 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.pubsub.internal.index;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.pubsub.EventProcessorImpl.DateType;
+import ddf.catalog.pubsub.criteria.contextual.ContextualEvaluator;
+import ddf.catalog.pubsub.internal.PubSubConstants;
+import ddf.catalog.pubsub.predicate.AndPredicate;
+import ddf.catalog.pubsub.predicate.ContextualPredicate;
+import ddf.catalog.pubsub.predicate.GeospatialPredicate;
+import ddf.catalog.pubsub.predicate.NotPredicate;
+import ddf.catalog.pubsub.predicate.OrPredicate;
+import ddf.catalog.pubsub.predicate.Predicate;
+import ddf.catalog.pubsub.predicate.TemporalPredicate;
+import java.io.IOException;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.osgi.service.event.Event;
+
+public class SubscriptionIndexTest {
+
+  private static final String METADATA_FORMAT =
+      "<?xml version=\"1.0\" encoding=\"UTF-8\"?><Resource><title>%s</title></Resource>";
+
+  private static final String CONTAINS = "CONTAINS";
+
+  private static final String OVERLAPS = "OVERLAPS";
+
+  private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+  private static final long EPOCH = 1500000000000L;
+
+  private static final String[] WORDS = new String[200];
+
+  static {
+    for (int i = 0; i < WORDS.length; i++) {
+      WORDS[i] = "word" + i;
+    }
+  }
+
+  private SubscriptionIndex index;
+
+  @Before
+  public void setUp() {
+    index = new SubscriptionIndex();
+  }
+
+  @Test
+  public void spatialCandidates() {
+    index.add("box", new GeospatialPredicate(box(10, 10, 20, 20), CONTAINS, 0.0));
+    index.add("radius", new GeospatialPredicate("POINT (50 50)", null, 1.0));
+
+    assertThat(candidates(metacard("POINT (15 15)", null, null), "box"), is(true));
+    assertThat(candidates(metacard("POINT (15 15)", null, null), "radius"), is(false));
+    assertThat(candidates(metacard("POINT (50.5 50.5)", null, null), "radius"), is(true));
+    assertThat(candidates(metacard("POINT (52 50)", null, null), "radius"), is(false));
+    assertThat(candidates(metacard(null, null, null), "box"), is(true));
+    assertThat(candidates(metacard("NOT WKT", null, null), "box"), is(true));
+  }
+
+  @Test
+  public void temporalCandidates() {
+    index.add(
+        "window", new TemporalPredicate(new Date(EPOCH), new Date(EPOCH + DAY), DateType.MODIFIED));
+    index.add("open", new TemporalPredicate(null, new Date(EPOCH), DateType.MODIFIED));
+    index.add("relative", new TemporalPredicate(DAY, DateType.MODIFIED));
+
+    assertThat(candidates(metacard(null, new Date(EPOCH + DAY), null), "window"), is(true));
+    assertThat(candidates(metacard(null, new Date(EPOCH + DAY + 1), null), "window"), is(false));
+    assertThat(candidates(metacard(null, new Date(EPOCH - DAY), null), "open"), is(true));
+    assertThat(candidates(metacard(null, new Date(EPOCH + 1), null), "open"), is(false));
+    assertThat(candidates(metacard(null, new Date(0), null), "relative"), is(true));
+    assertThat(candidates(metacard(null, null, null), "window"), is(true));
+    assertThat(index.getUnindexedCount(), is(1));
+  }
+
+  @Test
+  public void termCandidates() {
+    index.add("term", contextual("Balloon OR kite"));
+    index.add("wildcard", contextual("ball*"));
+    index.add("negation", contextual("balloon NOT kite"));
+    index.add("fuzzy", new ContextualPredicate("balloon", true, false, null));
+
+    assertThat(candidates(metacard(null, null, "red balloons"), "term"), is(false));
+    assertThat(candidates(metacard(null, null, "red balloon"), "term"), is(true));
+    assertThat(candidates(metacard(null, null, "a KITE"), "term"), is(true));
+    assertThat(candidates(metacard(null, null, null), "term"), is(false));
+    assertThat(candidates(metacard(null, null, "red"), "wildcard"), is(true));
+    assertThat(candidates(metacard(null, null, "red"), "negation"), is(true));
+    assertThat(candidates(metacard(null, null, "red"), "fuzzy"), is(true));
+  }
+
+  @Test
+  public void termsAreAnalyzedLikeTheContextualPredicates() throws IOException {
+    Map<String, Predicate> predicates = new LinkedHashMap<>();
+    predicates.put("acronym", contextual("U.S.A."));
+    predicates.put("company", contextual("AT&T"));
+    predicates.put("grouped", contextual("(kite OR balloon)"));
+    predicates.put("stopWord", new ContextualPredicate("The OR glider", false, true, null));
+    predicates.forEach(index::add);
+
+    MetacardImpl metacard = metacard(null, null, "The AT&amp;T balloon over the U.S.A.");
+    Event event = event(metacard);
+    SubscriptionCandidates candidates = index.getCandidates(metacard, PubSubConstants.CREATE);
+
+    predicates.forEach(
+        (id, predicate) -> {
+          assertThat(id, predicate.matches(event), is(true));
+          assertThat(id, candidates.isCandidate(id), is(true));
+        });
+    assertThat(candidates(metacard(null, null, "AT and T"), "company"), is(false));
+  }
+
+  @Test
+  public void compositeCandidates() {
+    Predicate spatial = new GeospatialPredicate(box(10, 10, 20, 20), OVERLAPS, 0.0);
+    Predicate term = contextual("balloon");
+
+    index.add("and", new AndPredicate(term, spatial));
+    index.add("andNot", new AndPredicate(new NotPredicate(term), spatial));
+    index.add("or", new OrPredicate(term, spatial));
+    index.add("orNot", new OrPredicate(new NotPredicate(term), spatial));
+    index.add("not", new NotPredicate(spatial));
+    index.add("all", null);
+
+    MetacardImpl outside = metacard("POINT (0 0)", null, "balloon");
+    assertThat(candidates(outside, "and"), is(false));
+    assertThat(candidates(outside, "andNot"), is(false));
+    assertThat(candidates(outside, "or"), is(true));
+    assertThat(candidates(outside, "orNot"), is(true));
+    assertThat(candidates(outside, "not"), is(true));
+    assertThat(candidates(outside, "all"), is(true));
+
+    MetacardImpl unrelated = metacard("POINT (0 0)", null, "kite");
+    assertThat(candidates(unrelated, "or"), is(false));
+  }
+
+  @Test
+  public void deletesWithoutMetadataAreAlwaysCandidates() {
+    index.add("term", contextual("balloon"));
+
+    MetacardImpl deleted = metacard(null, null, null);
+    deleted.setMetadata(PubSubConstants.METADATA_DELETED);
+
+    assertThat(index.getCandidates(deleted, PubSubConstants.DELETE).isCandidate("term"), is(true));
+    assertThat(index.getCandidates(deleted, PubSubConstants.UPDATE).isCandidate("term"), is(false));
+  }
+
+  @Test
+  public void unknownSubscriptionsAreAlwaysCandidates() {
+    index.add("term", contextual("balloon"));
+
+    assertThat(candidates(metacard(null, null, "kite"), "unknown"), is(true));
+  }
+
+  @Test
+  public void removeSubscription() {
+    index.add("term", contextual("balloon"));
+    index.add("spatial", new GeospatialPredicate(box(10, 10, 20, 20), CONTAINS, 0.0));
+    assertThat(index.size(), is(2));
+    assertThat(candidates(metacard(null, null, "kite"), "term"), is(false));
+
+    index.remove("term");
+
+    assertThat(index.size(), is(1));
+    assertThat(
+        index.getCandidates(metacard(null, null, "kite"), PubSubConstants.CREATE).size(), is(1));
+  }
+
+  @Test
+  public void candidatesIncludeAllMatches() throws IOException {
+    Random random = new Random(1);
+
+    Map<String, Predicate> predicates = new LinkedHashMap<>();
+    for (int i = 0; i < 50; i++) {
+      Predicate predicate = randomPredicate(random);
+      predicates.put(String.valueOf(i), predicate);
+      index.add(String.valueOf(i), predicate);
+    }
+
+    for (int i = 0; i < 10; i++) {
+      MetacardImpl metacard = randomMetacard(random);
+      Event event = event(metacard);
+      SubscriptionCandidates candidates = index.getCandidates(metacard, PubSubConstants.CREATE);
+
+      predicates.forEach(
+          (id, predicate) -> {
+            if (predicate.matches(event)) {
+              assertThat(id, candidates.isCandidate(id), is(true));
+            }
+          });
+    }
+  }
+
+  private boolean candidates(MetacardImpl metacard, String subscriptionId) {
+    return index.getCandidates(metacard, PubSubConstants.CREATE).isCandidate(subscriptionId);
+  }
+
+  private static ContextualPredicate contextual(String phrase) {
+    return new ContextualPredicate(phrase, false, false, null);
+  }
+
+  private static String box(double minX, double minY, double maxX, double maxY) {
+    return String.format(
+        "POLYGON ((%1$s %2$s, %3$s %2$s, %3$s %4$s, %1$s %4$s, %1$s %2$s))",
+        minX, minY, maxX, maxY);
+  }
+
+  private static MetacardImpl metacard(String location, Date modified, String title) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(String.valueOf(location) + modified + title);
+    metacard.setLocation(location);
+    metacard.setModifiedDate(modified);
+    if (title != null) {
+      metacard.setMetadata(String.format(METADATA_FORMAT, title));
+    }
+    return metacard;
+  }
+
+  static MetacardImpl randomMetacard(Random random) {
+    return metacard(
+        String.format("POINT (%s %s)", random.nextInt(360) - 180, random.nextInt(180) - 90),
+        new Date(EPOCH + random.nextInt(365) * DAY),
+        word(random) + " " + word(random) + " " + word(random));
+  }
+
+  static Predicate randomPredicate(Random random) {
+    int type = random.nextInt(10);
+    if (type < 3) {
+      return randomSpatial(random);
+    } else if (type < 6) {
+      return randomTemporal(random);
+    } else if (type < 8) {
+      return contextual(word(random) + (random.nextBoolean() ? " OR " : " AND ") + word(random));
+    } else if (type < 9) {
+      return new AndPredicate(randomSpatial(random), contextual(word(random)));
+    } else if (random.nextBoolean()) {
+      return new OrPredicate(randomTemporal(random), contextual(word(random)));
+    }
+    return new NotPredicate(contextual(word(random)));
+  }
+
+  private static Predicate randomSpatial(Random random) {
+    double x = random.nextInt(340) - 170;
+    double y = random.nextInt(160) - 80;
+    if (random.nextBoolean()) {
+      return new GeospatialPredicate(String.format("POINT (%s %s)", x, y), null, 10.0);
+    }
+    return new GeospatialPredicate(
+        box(x, y, x + 20, y + 20), random.nextBoolean() ? CONTAINS : OVERLAPS, 0.0);
+  }
+
+  private static Predicate randomTemporal(Random random) {
+    long start = EPOCH + random.nextInt(365) * DAY;
+    return new TemporalPredicate(new Date(start), new Date(start + 30 * DAY), DateType.MODIFIED);
+  }
+
+  private static String word(Random random) {
+    return WORDS[random.nextInt(WORDS.length)];
+  }
+
+  static Event event(MetacardImpl metacard) throws IOException {
+    Map<String, Object> contextualMap = new HashMap<>();
+    contextualMap.put("DEFAULT_INDEX", ContextualEvaluator.buildIndex(metacard.getMetadata()));
+    contextualMap.put("METADATA", metacard.getMetadata());
+
+    Map<String, Object> properties = new HashMap<>();
+    properties.put(PubSubConstants.HEADER_OPERATION_KEY, PubSubConstants.CREATE);
+    properties.put(PubSubConstants.HEADER_ENTRY_KEY, metacard);
+    properties.put(PubSubConstants.HEADER_CONTEXTUAL_KEY, contextualMap);
+    return new Event(PubSubConstants.PUBLISHED_EVENT_TOPIC_NAME, properties);
+  }
+}
@@ -0,0 +1,263 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.impl;
+
+import com.google.common.io.BaseEncoding;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Content-addressed store for the files of the {@link FileSystemStorageProvider}. Each distinct
+ * content is kept once, as a blob named by its SHA-256 digest, and stored content files are hard
+ * links to their blob. Storing the same bytes again, for instance for a new version of a metacard,
+ * only adds a link.
+ *
+ * <p>The link count of a blob is its reference count. Deleting or replacing a content file drops it
+ * by one, and blobs that are only linked from the blob directory are removed by {@link
+ * #collectGarbage()}, which also runs in the background. On file systems without hard links the
+ * content files stay plain copies and nothing is collected.
+ */
+class ContentBlobStore implements ContentBlobStoreMBean {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ContentBlobStore.class);
+
+  private static final String DIGEST_ALGORITHM = "SHA-256";
+
+  private static final String LINK_COUNT_ATTRIBUTE = "unix:nlink";
+
+  private static final String LINK_EXTENSION = ".blob";
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private volatile Path blobDirectory;
+
+  private ScheduledExecutorService collectionExecutor;
+
+  private ObjectName objectName;
+
+  private MBeanServer mBeanServer;
+
+  ContentBlobStore(Path blobDirectory) {
+    this.blobDirectory = blobDirectory;
+  }
+
+  void setBlobDirectory(Path blobDirectory) {
+    this.blobDirectory = blobDirectory;
+  }
+
+  /** @return a digest to compute the name of a blob while its content is copied */
+  static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance(DIGEST_ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(DIGEST_ALGORITHM + " is not supported", e);
+    }
+  }
+
+  /**
+   * Replaces a content file with a link to the blob holding the same content, or makes the file the
+   * blob if there is none yet.
+   *
+   * @param file the content file
+   * @param digest the {@link #newDigest()} digest of the file, or {@code null} to read the file
+   * @throws IOException if the file can't be linked, in which case it is left as is
+   */
+  void add(Path file, byte[] digest) throws IOException {
+    String name = BaseEncoding.base16().lowerCase().encode(digest != null ? digest : digest(file));
+    Path blob = getBlobPath(name);
+
+    Files.createDirectories(blob.getParent());
+    try {
+      Files.createLink(blob, file);
+      LOGGER.trace("Added blob {} for {}", name, file);
+    } catch (FileAlreadyExistsException e) {
+      if (!Files.isSameFile(blob, file)) {
+        Path link = file.resolveSibling(file.getFileName() + LINK_EXTENSION);
+        Files.deleteIfExists(link);
+        Files.createLink(link, blob);
+        Files.move(link, file, StandardCopyOption.REPLACE_EXISTING);
+        LOGGER.trace("Linked {} to existing blob {}", file, name);
+      }
+    }
+  }
+
+  @Override
+  public synchronized int collectGarbage() {
+    int removed = 0;
+    try {
+      for (Path blob : listBlobs()) {
+        if (getLinkCount(blob) == 1) {
+          Files.deleteIfExists(blob);
+          removed++;
+        }
+      }
+    } catch (IOException e) {
+      LOGGER.info("Unable to collect unreferenced content blobs in {}", blobDirectory, e);
+    } catch (UnsupportedOperationException | IllegalArgumentException e) {
+      LOGGER.debug("Link counts aren't supported. Not collecting content blobs.", e);
+    }
+
+    if (removed > 0) {
+      LOGGER.debug("Removed {} unreferenced content blobs", removed);
+    }
+    return removed;
+  }
+
+  @Override
+  public List<String> verify() {
+    List<String> corrupted = new ArrayList<>();
+    try {
+      for (Path blob : listBlobs()) {
+        String name = blob.getFileName().toString();
+        if (!name.equals(BaseEncoding.base16().lowerCase().encode(digest(blob)))) {
+          LOGGER.warn("Content blob {} doesn't match its digest", blob);
+          corrupted.add(name);
+        }
+      }
+    } catch (IOException e) {
+      LOGGER.info("Unable to verify content blobs in {}", blobDirectory, e);
+    }
+    return corrupted;
+  }
+
+  @Override
+  public long getBlobCount() {
+    try {
+      return listBlobs().size();
+    } catch (IOException e) {
+      LOGGER.debug("Unable to count content blobs in {}", blobDirectory, e);
+      return 0;
+    }
+  }
+
+  /**
+   * Registers the MBean and starts collecting unreferenced blobs in the background.
+   *
+   * @param collectionInterval minutes between collections, no background collection if not positive
+   */
+  synchronized void init(long collectionInterval) {
+    registerMbean();
+    if (collectionInterval <= 0) {
+      return;
+    }
+
+    collectionExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            StandardThreadFactoryBuilder.newThreadFactory("contentBlobStoreThread"));
+    collectionExecutor.scheduleWithFixedDelay(
+        this::collectGarbage, collectionInterval, collectionInterval, TimeUnit.MINUTES);
+  }
+
+  synchronized void destroy() {
+    if (collectionExecutor != null) {
+      collectionExecutor.shutdownNow();
+      collectionExecutor = null;
+    }
+    unregisterMbean();
+  }
+
+  private Path getBlobPath(String name) {
+    return blobDirectory.resolve(name.substring(0, 2)).resolve(name.substring(2, 4)).resolve(name);
+  }
+
+  private List<Path> listBlobs() throws IOException {
+    List<Path> blobs = new ArrayList<>();
+    if (!Files.isDirectory(blobDirectory)) {
+      return blobs;
+    }
+
+    try (Stream<Path> paths = Files.walk(blobDirectory)) {
+      Iterator<Path> iterator = paths.filter(Files::isRegularFile).iterator();
+      while (iterator.hasNext()) {
+        blobs.add(iterator.next());
+      }
+    }
+    return blobs;
+  }
+
+  private int getLinkCount(Path blob) throws IOException {
+    return (Integer) Files.getAttribute(blob, LINK_COUNT_ATTRIBUTE);
+  }
+
+  private byte[] digest(Path file) throws IOException {
+    MessageDigest digest = newDigest();
+    byte[] buffer = new byte[BUFFER_SIZE];
+    try (InputStream inputStream = new DigestInputStream(Files.newInputStream(file), digest)) {
+      while (inputStream.read(buffer) != -1) {
+        // the digest is updated while reading
+      }
+    }
+    return digest.digest();
+  }
+
+  private void registerMbean() {
+    try {
+      objectName = new ObjectName(ContentBlobStore.class.getName() + ":service=contentBlobStore");
+      mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    } catch (MalformedObjectNameException e) {
+      LOGGER.info("Unable to create content blob store MBean.", e);
+      return;
+    }
+
+    try {
+      try {
+        mBeanServer.registerMBean(this, objectName);
+      } catch (InstanceAlreadyExistsException e) {
+        mBeanServer.unregisterMBean(objectName);
+        mBeanServer.registerMBean(this, objectName);
+      }
+    } catch (MBeanRegistrationException
+        | InstanceNotFoundException
+        | InstanceAlreadyExistsException
+        | NotCompliantMBeanException e) {
+      LOGGER.info("Unable to register content blob store MBean.", e);
+    }
+  }
+
+  private void unregisterMbean() {
+    try {
+      if (objectName != null && mBeanServer != null) {
+        mBeanServer.unregisterMBean(objectName);
+        objectName = null;
+      }
+    } catch (MBeanRegistrationException | InstanceNotFoundException e) {
+      LOGGER.info("Unable to unregister content blob store MBean.", e);
+    }
+  }
+}
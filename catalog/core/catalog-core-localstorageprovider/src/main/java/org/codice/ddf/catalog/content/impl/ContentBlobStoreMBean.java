@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.impl;
+
+import java.util.List;
+
+public interface ContentBlobStoreMBean {
+
+  /**
+   * Removes the blobs that no stored content links to anymore.
+   *
+   * @return number of blobs removed
+   */
+  int collectGarbage();
+
+  /**
+   * Recomputes the digest of every blob.
+   *
+   * @return names of the blobs whose content doesn't match their digest
+   */
+  List<String> verify();
+
+  /** @return number of blobs in the store */
+  long getBlobCount();
+}
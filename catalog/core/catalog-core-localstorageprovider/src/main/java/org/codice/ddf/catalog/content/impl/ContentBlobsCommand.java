@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.impl;
+
+import ddf.catalog.content.StorageProvider;
+import java.io.PrintStream;
+import java.util.List;
+import org.apache.karaf.shell.api.action.Action;
+import org.apache.karaf.shell.api.action.Command;
+import org.apache.karaf.shell.api.action.Option;
+import org.apache.karaf.shell.api.action.lifecycle.Reference;
+import org.apache.karaf.shell.api.action.lifecycle.Service;
+
+/**
+ * Custom Karaf command for maintaining the {@link ContentBlobStore} of the {@link
+ * FileSystemStorageProvider} in content-addressed mode. Removes the blobs no stored content links
+ * to anymore, and optionally verifies the digest of every blob.
+ */
+@Service
+@Command(
+  scope = "catalog",
+  name = "content-blobs",
+  description = "Collects unreferenced content-addressed storage blobs and verifies the others."
+)
+public class ContentBlobsCommand implements Action {
+
+  static final String NOT_CONTENT_ADDRESSED_MSG =
+      "The file system storage provider isn't running in content-addressed mode.";
+
+  @Option(
+    name = "--verify",
+    aliases = {"-v"},
+    required = false,
+    multiValued = false,
+    description = "Also recomputes the digest of every blob and lists the blobs that don't match."
+  )
+  boolean verify = false;
+
+  @Reference StorageProvider storageProvider;
+
+  PrintStream console = System.out;
+
+  @Override
+  public Object execute() {
+    ContentBlobStore blobStore =
+        storageProvider instanceof FileSystemStorageProvider
+            ? ((FileSystemStorageProvider) storageProvider).getBlobStore()
+            : null;
+    if (blobStore == null) {
+      console.println(NOT_CONTENT_ADDRESSED_MSG);
+      return null;
+    }
+
+    console.printf("Removed %d unreferenced content blobs.%n", blobStore.collectGarbage());
+
+    if (verify) {
+      List<String> corrupted = blobStore.verify();
+      for (String name : corrupted) {
+        console.println("Corrupted content blob: " + name);
+      }
+      console.printf(
+          "Verified %d content blobs, %d corrupted.%n", blobStore.getBlobCount(), corrupted.size());
+    }
+    return null;
+  }
+}
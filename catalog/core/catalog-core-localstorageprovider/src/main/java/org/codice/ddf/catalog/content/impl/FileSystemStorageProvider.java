@@ -13,11 +13,13 @@
  */
 package org.codice.ddf.catalog.content.impl;
 
+import com.google.common.io.BaseEncoding;
 import com.google.common.io.ByteSource;
 import ddf.catalog.Constants;
 import ddf.catalog.content.StorageException;
 import ddf.catalog.content.StorageProvider;
 import ddf.catalog.content.data.ContentItem;
+import ddf.catalog.content.data.impl.ContentByteSources;
 import ddf.catalog.content.data.impl.ContentItemImpl;
 import ddf.catalog.content.data.impl.ContentItemValidator;
 import ddf.catalog.content.operation.CreateStorageRequest;
@@ -50,6 +52,8 @@
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -72,6 +76,8 @@ public class FileSystemStorageProvider implements StorageProvider {
 
   public static final String DEFAULT_TMP = "tmp";
 
+  public static final String DEFAULT_BLOBS = "blobs";
+
   public static final String KARAF_HOME = "karaf.home";
 
   private static final String DEFAULT_MIME_TYPE = "application/octet-stream";
@@ -92,11 +98,51 @@ public class FileSystemStorageProvider implements StorageProvider {
 
   private Map<String, Set<String>> updateMap = new ConcurrentHashMap<>();
 
+  /** Only exists while the provider is started in content-addressed mode. */
+  private volatile ContentBlobStore blobStore;
+
+  private boolean contentAddressed = false;
+
+  private long blobCollectionInterval = 60;
+
+  private boolean started = false;
+
   /** Default constructor, invoked by blueprint. */
   public FileSystemStorageProvider() {
     LOGGER.debug("File System Provider initializing...");
   }
 
+  public synchronized void init() {
+    started = true;
+    updateBlobStore();
+  }
+
+  public synchronized void destroy() {
+    started = false;
+    updateBlobStore();
+  }
+
+  /**
+   * @return the blob store of the content, or {@code null} when the provider isn't started in
+   *     content-addressed mode
+   */
+  ContentBlobStore getBlobStore() {
+    return blobStore;
+  }
+
+  /** Starts the blob store when content-addressed mode is enabled and stops it otherwise. */
+  private void updateBlobStore() {
+    if (started && contentAddressed && blobStore == null && baseContentDirectory != null) {
+      ContentBlobStore store =
+          new ContentBlobStore(baseContentDirectory.resolveSibling(DEFAULT_BLOBS));
+      store.init(blobCollectionInterval);
+      blobStore = store;
+    } else if (!(started && contentAddressed) && blobStore != null) {
+      blobStore.destroy();
+      blobStore = null;
+    }
+  }
+
   @Override
   public CreateStorageResponse create(CreateStorageRequest createRequest) throws StorageException {
     LOGGER.trace("ENTERING: create");
@@ -120,7 +166,10 @@ public CreateStorageResponse create(CreateStorageRequest createRequest) throws S
             generateContentFile(
                 contentItem,
                 contentDirectory,
-                (String) createRequest.getPropertyValue(Constants.STORE_REFERENCE_KEY)));
+                (String) createRequest.getPropertyValue(Constants.STORE_REFERENCE_KEY),
+                getTmpContentPath(createRequest, contentItem),
+                getTmpContentDigest(createRequest, contentItem),
+                getSourceContentPath(createRequest, contentItem)));
       } catch (IOException | URISyntaxException | IllegalArgumentException e) {
         throw new StorageException(e);
       }
@@ -179,7 +228,10 @@ public UpdateStorageResponse update(UpdateStorageRequest updateRequest) throws S
             generateContentFile(
                 updateItem,
                 contentIdDir,
-                (String) updateRequest.getPropertyValue(Constants.STORE_REFERENCE_KEY)));
+                (String) updateRequest.getPropertyValue(Constants.STORE_REFERENCE_KEY),
+                getTmpContentPath(updateRequest, contentItem),
+                getTmpContentDigest(updateRequest, contentItem),
+                getSourceContentPath(updateRequest, contentItem)));
       } catch (IOException | URISyntaxException | IllegalArgumentException e) {
         throw new StorageException(e);
       }
@@ -548,7 +600,13 @@ private Path getContentFilePath(URI uri) throws StorageException {
   }
 
   private ContentItem generateContentFile(
-      ContentItem item, Path contentDirectory, String storeReference) throws IOException {
+      ContentItem item,
+      Path contentDirectory,
+      String storeReference,
+      Path tmpContentPath,
+      byte[] tmpContentDigest,
+      Path sourceContentPath)
+      throws IOException {
     LOGGER.trace("ENTERING: generateContentFile");
 
     if (!contentDirectory.toFile().exists()) {
@@ -574,9 +632,8 @@ public InputStream openStream() throws IOException {
             }
           };
     } else {
-      try (InputStream inputStream = item.getInputStream()) {
-        copy = Files.copy(inputStream, contentItemPath);
-      }
+      copy =
+          storeContent(item, tmpContentPath, tmpContentDigest, sourceContentPath, contentItemPath);
       byteSource = com.google.common.io.Files.asByteSource(contentItemPath.toFile());
 
       if (copy != item.getSize() && LOGGER.isWarnEnabled()) {
@@ -605,6 +662,173 @@ public InputStream openStream() throws IOException {
     return contentItem;
   }
 
+  /**
+   * Stores the content of an item without copying it when possible:
+   *
+   * <ul>
+   *   <li>content that is already stored, such as the content of a new version of a metacard, is
+   *       linked to the stored file,
+   *   <li>content the framework already copied to a temporary file is linked to that file.
+   * </ul>
+   *
+   * Otherwise the content is copied. In content-addressed mode, content that wasn't already stored
+   * is then added to the {@link ContentBlobStore}, so identical content is only kept once.
+   */
+  private long storeContent(
+      ContentItem item,
+      Path tmpContentPath,
+      byte[] tmpContentDigest,
+      Path sourceContentPath,
+      Path contentItemPath)
+      throws IOException {
+    if (link(item, sourceContentPath, contentItemPath)) {
+      return Files.size(contentItemPath);
+    }
+
+    ContentBlobStore store = blobStore;
+    if (link(item, tmpContentPath, contentItemPath)) {
+      addToBlobStore(store, contentItemPath, tmpContentDigest);
+      return Files.size(contentItemPath);
+    }
+
+    long copy;
+    if (store != null) {
+      MessageDigest digest = ContentBlobStore.newDigest();
+      try (InputStream inputStream = new DigestInputStream(item.getInputStream(), digest)) {
+        copy = Files.copy(inputStream, contentItemPath);
+      }
+      addToBlobStore(store, contentItemPath, digest.digest());
+    } else {
+      try (InputStream inputStream = item.getInputStream()) {
+        copy = Files.copy(inputStream, contentItemPath);
+      }
+    }
+    return copy;
+  }
+
+  private boolean link(ContentItem item, Path existing, Path contentItemPath) throws IOException {
+    if (existing == null
+        || !Files.isRegularFile(existing)
+        || Files.size(existing) != item.getSize()) {
+      return false;
+    }
+
+    try {
+      Files.createLink(contentItemPath, existing);
+      return true;
+    } catch (IOException | UnsupportedOperationException | SecurityException e) {
+      LOGGER.debug(
+          "Unable to link {} to {}. Copying the content instead.", existing, contentItemPath, e);
+      return false;
+    }
+  }
+
+  private void addToBlobStore(ContentBlobStore store, Path contentItemPath, byte[] digest) {
+    if (store == null) {
+      return;
+    }
+
+    try {
+      store.add(contentItemPath, digest);
+    } catch (IOException | UnsupportedOperationException | SecurityException e) {
+      LOGGER.debug("Unable to add {} to the content blob store", contentItemPath, e);
+    }
+  }
+
+  /**
+   * @return the temporary file holding the content of the item, as recorded by the framework in the
+   *     {@link Constants#CONTENT_PATHS} property, or {@code null} when the item no longer reads the
+   *     content the framework copied to that file
+   */
+  private Path getTmpContentPath(StorageRequest request, ContentItem item) {
+    if (!isFrameworkContent(request, item)) {
+      return null;
+    }
+
+    Object path = getQualifiedProperty(request, Constants.CONTENT_PATHS, item);
+    return path instanceof Path ? (Path) path : null;
+  }
+
+  /**
+   * @return the {@link ContentBlobStore#newDigest()} digest of the temporary file of the item, as
+   *     computed by the framework while copying the content, or {@code null}
+   */
+  private byte[] getTmpContentDigest(StorageRequest request, ContentItem item) {
+    if (!isFrameworkContent(request, item)) {
+      return null;
+    }
+
+    Object digest = getQualifiedProperty(request, Constants.CONTENT_DIGESTS, item);
+    if (!(digest instanceof String)) {
+      return null;
+    }
+
+    try {
+      return BaseEncoding.base16().lowerCase().decode((String) digest);
+    } catch (IllegalArgumentException e) {
+      LOGGER.debug("Ignoring invalid content digest {}", digest, e);
+      return null;
+    }
+  }
+
+  /**
+   * A {@link ddf.catalog.content.plugin.PreCreateStoragePlugin} may replace the content of an item,
+   * possibly with content of the same size. The framework's temporary file, digest and source
+   * content only describe an item whose byte source is still the one the framework recorded in the
+   * {@link Constants#CONTENT_BYTE_SOURCES} property.
+   */
+  private boolean isFrameworkContent(StorageRequest request, ContentItem item) {
+    Object byteSources = request.getPropertyValue(Constants.CONTENT_BYTE_SOURCES);
+    return byteSources instanceof ContentByteSources
+        && ((ContentByteSources) byteSources).isRecorded(item);
+  }
+
+  private Object getQualifiedProperty(StorageRequest request, String key, ContentItem item) {
+    Object property = request.getPropertyValue(key);
+    if (!(property instanceof Map)) {
+      return null;
+    }
+
+    Object qualifiedValues = ((Map<?, ?>) property).get(item.getId());
+    if (!(qualifiedValues instanceof Map)) {
+      return null;
+    }
+
+    return ((Map<?, ?>) qualifiedValues).get(item.getQualifier());
+  }
+
+  /**
+   * @return the stored file holding the same content as the item, as given by the {@link
+   *     Constants#CONTENT_SOURCE_URIS} property, or {@code null} when the item no longer reads the
+   *     content the framework recorded for it
+   */
+  private Path getSourceContentPath(StorageRequest request, ContentItem item) {
+    if (!isFrameworkContent(request, item)) {
+      return null;
+    }
+
+    Object sourceUris = request.getPropertyValue(Constants.CONTENT_SOURCE_URIS);
+    if (!(sourceUris instanceof Map)) {
+      return null;
+    }
+
+    Object sourceUri = ((Map<?, ?>) sourceUris).get(item.getUri());
+    if (!(sourceUri instanceof String)) {
+      return null;
+    }
+
+    try {
+      Path path = getContentFilePath(new URI((String) sourceUri));
+      if (path == null || REF_EXT.equals(FilenameUtils.getExtension(path.toString()))) {
+        return null;
+      }
+      return path;
+    } catch (StorageException | URISyntaxException e) {
+      LOGGER.debug("Unable to find the stored content {}", sourceUri, e);
+      return null;
+    }
+  }
+
   public MimeTypeMapper getMimeTypeMapper() {
     return mimeTypeMapper;
   }
@@ -654,6 +878,28 @@ public void setBaseContentDirectory(final String baseDirectory) throws IOExcepti
 
     this.baseContentDirectory = directories;
     this.baseContentTmpDirectory = tmpDirectories;
+    ContentBlobStore store = blobStore;
+    if (store != null) {
+      store.setBlobDirectory(directories.resolveSibling(DEFAULT_BLOBS));
+    }
+  }
+
+  /**
+   * Sets whether stored content is deduplicated through the {@link ContentBlobStore}. Content
+   * stored before enabling it isn't deduplicated. The blob store and its background collection only
+   * run while this is enabled.
+   */
+  public synchronized void setContentAddressed(boolean contentAddressed) {
+    this.contentAddressed = contentAddressed;
+    updateBlobStore();
+  }
+
+  /**
+   * Sets the minutes between collections of unreferenced content blobs. Takes effect the next time
+   * the blob store starts.
+   */
+  public void setBlobCollectionInterval(long blobCollectionInterval) {
+    this.blobCollectionInterval = blobCollectionInterval;
   }
 
   private String tryCanonicalizeDirectory(String directory) {
@@ -0,0 +1,107 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+import com.google.common.io.BaseEncoding;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ContentBlobStoreTest {
+
+  private static final byte[] CONTENT = "content".getBytes(StandardCharsets.UTF_8);
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Path blobDirectory;
+
+  private ContentBlobStore blobStore;
+
+  @Before
+  public void setUp() throws Exception {
+    blobDirectory = tempFolder.newFolder("blobs").toPath();
+    blobStore = new ContentBlobStore(blobDirectory);
+    blobStore.init(0);
+  }
+
+  @After
+  public void tearDown() {
+    blobStore.destroy();
+  }
+
+  @Test
+  public void testAddDeduplicatesContent() throws Exception {
+    Path first = write("first", CONTENT);
+    Path second = write("second", CONTENT);
+
+    blobStore.add(first, null);
+    blobStore.add(second, null);
+
+    assertThat(blobStore.getBlobCount(), is(1L));
+    assertThat(Files.isSameFile(first, second), is(true));
+    assertThat(Files.readAllBytes(second), is(CONTENT));
+  }
+
+  @Test
+  public void testAddWithDigest() throws Exception {
+    Path file = write("file", CONTENT);
+
+    blobStore.add(file, ContentBlobStore.newDigest().digest(CONTENT));
+    blobStore.add(file, null);
+
+    assertThat(blobStore.getBlobCount(), is(1L));
+    assertThat(blobStore.verify(), is(empty()));
+  }
+
+  @Test
+  public void testCollectGarbage() throws Exception {
+    Path first = write("first", CONTENT);
+    Path second = write("second", "other".getBytes(StandardCharsets.UTF_8));
+    blobStore.add(first, null);
+    blobStore.add(second, null);
+
+    assertThat(blobStore.collectGarbage(), is(0));
+
+    Files.delete(first);
+
+    assertThat(blobStore.collectGarbage(), is(1));
+    assertThat(blobStore.getBlobCount(), is(1L));
+    assertThat(Files.readAllBytes(second), is("other".getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void testVerifyDetectsCorruptedBlob() throws Exception {
+    Path file = write("file", CONTENT);
+    blobStore.add(file, null);
+
+    Files.write(file, "corrupted".getBytes(StandardCharsets.UTF_8));
+
+    byte[] digest = ContentBlobStore.newDigest().digest(CONTENT);
+    assertThat(blobStore.verify(), contains(BaseEncoding.base16().lowerCase().encode(digest)));
+  }
+
+  private Path write(String name, byte[] content) throws Exception {
+    return Files.write(tempFolder.getRoot().toPath().resolve(name), content);
+  }
+}
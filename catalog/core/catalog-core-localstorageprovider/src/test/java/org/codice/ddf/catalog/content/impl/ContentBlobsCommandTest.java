@@ -0,0 +1,85 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.content.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ContentBlobsCommandTest {
+
+  @Rule public TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private FileSystemStorageProvider provider;
+
+  private ContentBlobsCommand command;
+
+  private ByteArrayOutputStream output;
+
+  @Before
+  public void setUp() throws Exception {
+    provider = new FileSystemStorageProvider();
+    provider.setBaseContentDirectory(tempFolder.getRoot().getAbsolutePath());
+    provider.setBlobCollectionInterval(0);
+    provider.init();
+
+    output = new ByteArrayOutputStream();
+    command = new ContentBlobsCommand();
+    command.storageProvider = provider;
+    command.console = new PrintStream(output, true, StandardCharsets.UTF_8.name());
+  }
+
+  @After
+  public void tearDown() {
+    provider.destroy();
+  }
+
+  @Test
+  public void testNotContentAddressed() throws Exception {
+    command.execute();
+
+    assertThat(getOutput(), containsString(ContentBlobsCommand.NOT_CONTENT_ADDRESSED_MSG));
+  }
+
+  @Test
+  public void testCollectAndVerify() throws Exception {
+    provider.setContentAddressed(true);
+    Path file = tempFolder.newFile().toPath();
+    Files.write(file, "content".getBytes(StandardCharsets.UTF_8));
+    provider.getBlobStore().add(file, null);
+    Files.delete(file);
+    command.verify = true;
+
+    command.execute();
+
+    assertThat(provider.getBlobStore().getBlobCount(), is(0L));
+    assertThat(getOutput(), containsString("Removed 1 unreferenced content blobs."));
+    assertThat(getOutput(), containsString("Verified 0 content blobs, 0 corrupted."));
+  }
+
+  private String getOutput() throws Exception {
+    return output.toString(StandardCharsets.UTF_8.name());
+  }
+}
@@ -19,6 +19,7 @@
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.isEmptyString;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
@@ -31,10 +32,12 @@
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.Lists;
+import com.google.common.io.BaseEncoding;
 import com.google.common.io.ByteSource;
 import ddf.catalog.Constants;
 import ddf.catalog.content.StorageException;
 import ddf.catalog.content.data.ContentItem;
+import ddf.catalog.content.data.impl.ContentByteSources;
 import ddf.catalog.content.data.impl.ContentItemImpl;
 import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.content.operation.CreateStorageResponse;
@@ -70,6 +73,7 @@
 import java.util.Map;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
@@ -118,10 +122,12 @@ public void setUp() throws IOException {
       fail(e.getMessage());
     }
     provider.setMimeTypeMapper(mapper);
+    provider.init();
   }
 
   @After
   public void clean() {
+    provider.destroy();
     tempFolder.delete();
   }
 
@@ -622,6 +628,231 @@ public void testCreateAndReadReference() throws Exception {
     assertReadRequest(uriString, NITF_MIME_TYPE);
   }
 
+  @Test
+  public void testCreateLinksContentPath() throws Exception {
+    Path tmpContentPath = tempFolder.newFile().toPath();
+    Files.write(tmpContentPath, TEST_INPUT_CONTENTS.getBytes());
+
+    ByteSource byteSource =
+        new ByteSource() {
+          @Override
+          public InputStream openStream() throws IOException {
+            throw new IOException("The content should have been linked");
+          }
+        };
+    String id = UUID.randomUUID().toString().replaceAll("-", "");
+    ContentItem contentItem =
+        new ContentItemImpl(
+            id,
+            byteSource,
+            NITF_MIME_TYPE,
+            TEST_INPUT_FILENAME,
+            TEST_INPUT_CONTENTS.length(),
+            mock(Metacard.class));
+
+    CreateStorageRequest createRequest =
+        new CreateStorageRequestImpl(
+            Collections.singletonList(contentItem),
+            getContentPathProperties(id, tmpContentPath, byteSource));
+    CreateStorageResponse createResponse = provider.create(createRequest);
+    provider.commit(createRequest);
+    Files.delete(tmpContentPath);
+
+    ContentItem item =
+        provider
+            .read(
+                new ReadStorageRequestImpl(
+                    new URI(createResponse.getCreatedContentItems().get(0).getUri()),
+                    Collections.emptyMap()))
+            .getContentItem();
+    assertThat(IOUtils.toString(item.getInputStream()), is(TEST_INPUT_CONTENTS));
+  }
+
+  @Test
+  public void testCreateCopiesReplacedContent() throws Exception {
+    Path tmpContentPath = tempFolder.newFile().toPath();
+    Files.write(tmpContentPath, TEST_INPUT_CONTENTS.getBytes());
+
+    String replacedContents = new StringBuilder(TEST_INPUT_CONTENTS).reverse().toString();
+    String id = UUID.randomUUID().toString().replaceAll("-", "");
+    ContentItem contentItem =
+        new ContentItemImpl(
+            id,
+            ByteSource.wrap(replacedContents.getBytes()),
+            NITF_MIME_TYPE,
+            TEST_INPUT_FILENAME,
+            replacedContents.length(),
+            mock(Metacard.class));
+
+    CreateStorageRequest createRequest =
+        new CreateStorageRequestImpl(
+            Collections.singletonList(contentItem),
+            getContentPathProperties(
+                id, tmpContentPath, ByteSource.wrap(TEST_INPUT_CONTENTS.getBytes())));
+    CreateStorageResponse createResponse = provider.create(createRequest);
+    provider.commit(createRequest);
+
+    String uri = createResponse.getCreatedContentItems().get(0).getUri();
+    assertThat(Files.isSameFile(getStoredPath(uri), tmpContentPath), is(false));
+    assertThat(IOUtils.toString(readContent(uri)), is(replacedContents));
+  }
+
+  @Test
+  public void testCreateLinksSourceContent() throws Exception {
+    CreateStorageResponse sourceResponse =
+        assertContentItem(TEST_INPUT_CONTENTS, NITF_MIME_TYPE, TEST_INPUT_FILENAME);
+    String sourceUri = sourceResponse.getCreatedContentItems().get(0).getUri();
+
+    ContentItem contentItem = createUnreadableContentItem();
+    Map<String, Serializable> properties = getByteSourceProperties(contentItem);
+    properties.put(
+        Constants.CONTENT_SOURCE_URIS,
+        new HashMap<>(Collections.singletonMap(contentItem.getUri(), sourceUri)));
+
+    CreateStorageRequest createRequest =
+        new CreateStorageRequestImpl(Collections.singletonList(contentItem), properties);
+    CreateStorageResponse createResponse = provider.create(createRequest);
+    provider.commit(createRequest);
+
+    String uri = createResponse.getCreatedContentItems().get(0).getUri();
+    assertThat(Files.isSameFile(getStoredPath(uri), getStoredPath(sourceUri)), is(true));
+    assertThat(IOUtils.toString(readContent(uri)), is(TEST_INPUT_CONTENTS));
+  }
+
+  @Test
+  public void testBlobStoreOnlyStartsWhenContentAddressed() throws Exception {
+    assertThat(provider.getBlobStore(), nullValue());
+
+    provider.setContentAddressed(true);
+    assertThat(provider.getBlobStore(), notNullValue());
+
+    provider.setContentAddressed(false);
+    assertThat(provider.getBlobStore(), nullValue());
+  }
+
+  @Test
+  public void testContentAddressedCreateUsesContentDigest() throws Exception {
+    provider.setContentAddressed(true);
+    Path tmpContentPath = tempFolder.newFile().toPath();
+    Files.write(tmpContentPath, TEST_INPUT_CONTENTS.getBytes());
+    ContentItem contentItem = createUnreadableContentItem();
+
+    Map<String, Serializable> properties =
+        getContentPathProperties(
+            contentItem.getId(), tmpContentPath, ((ContentItemImpl) contentItem).getByteSource());
+    // a digest that doesn't match the content shows which digest named the blob
+    String digest =
+        BaseEncoding.base16()
+            .lowerCase()
+            .encode(ContentBlobStore.newDigest().digest("other".getBytes()));
+    HashMap<String, Map<String, String>> contentDigests = new HashMap<>();
+    contentDigests.put(contentItem.getId(), Collections.singletonMap(null, digest));
+    properties.put(Constants.CONTENT_DIGESTS, contentDigests);
+
+    CreateStorageRequest createRequest =
+        new CreateStorageRequestImpl(Collections.singletonList(contentItem), properties);
+    provider.create(createRequest);
+    provider.commit(createRequest);
+
+    Path blob =
+        Paths.get(
+            baseDir,
+            FileSystemStorageProvider.DEFAULT_CONTENT_REPOSITORY,
+            FileSystemStorageProvider.DEFAULT_BLOBS,
+            digest.substring(0, 2),
+            digest.substring(2, 4),
+            digest);
+    assertThat(Files.isSameFile(blob, tmpContentPath), is(true));
+  }
+
+  @Test
+  public void testContentAddressedCreateStoresContentOnce() throws Exception {
+    provider.setContentAddressed(true);
+
+    String firstUri =
+        assertContentItem(TEST_INPUT_CONTENTS, NITF_MIME_TYPE, TEST_INPUT_FILENAME)
+            .getCreatedContentItems()
+            .get(0)
+            .getUri();
+    String secondUri =
+        assertContentItem(TEST_INPUT_CONTENTS, NITF_MIME_TYPE, TEST_INPUT_FILENAME)
+            .getCreatedContentItems()
+            .get(0)
+            .getUri();
+
+    assertThat(Files.isSameFile(getStoredPath(firstUri), getStoredPath(secondUri)), is(true));
+    try (Stream<Path> blobs =
+        Files.walk(
+            Paths.get(
+                baseDir,
+                FileSystemStorageProvider.DEFAULT_CONTENT_REPOSITORY,
+                FileSystemStorageProvider.DEFAULT_BLOBS))) {
+      assertThat(blobs.filter(Files::isRegularFile).count(), is(1L));
+    }
+  }
+
+  private ContentItem createUnreadableContentItem() {
+    ByteSource byteSource =
+        new ByteSource() {
+          @Override
+          public InputStream openStream() throws IOException {
+            throw new IOException("The content should have been linked");
+          }
+        };
+    return new ContentItemImpl(
+        UUID.randomUUID().toString().replaceAll("-", ""),
+        byteSource,
+        NITF_MIME_TYPE,
+        TEST_INPUT_FILENAME,
+        TEST_INPUT_CONTENTS.length(),
+        mock(Metacard.class));
+  }
+
+  private Map<String, Serializable> getByteSourceProperties(ContentItem contentItem) {
+    ContentByteSources contentByteSources = new ContentByteSources();
+    contentByteSources.put(
+        contentItem.getId(),
+        contentItem.getQualifier(),
+        ((ContentItemImpl) contentItem).getByteSource());
+
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(Constants.CONTENT_BYTE_SOURCES, contentByteSources);
+    return properties;
+  }
+
+  private Map<String, Serializable> getContentPathProperties(
+      String id, Path tmpContentPath, ByteSource byteSource) {
+    HashMap<String, Map<String, Path>> contentPaths = new HashMap<>();
+    contentPaths.put(id, Collections.singletonMap(null, tmpContentPath));
+    ContentByteSources contentByteSources = new ContentByteSources();
+    contentByteSources.put(id, null, byteSource);
+
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(Constants.CONTENT_PATHS, contentPaths);
+    properties.put(Constants.CONTENT_BYTE_SOURCES, contentByteSources);
+    return properties;
+  }
+
+  private InputStream readContent(String uri) throws Exception {
+    return provider
+        .read(new ReadStorageRequestImpl(new URI(uri), Collections.emptyMap()))
+        .getContentItem()
+        .getInputStream();
+  }
+
+  private Path getStoredPath(String uri) throws Exception {
+    URI contentUri = new URI(uri);
+    try (Stream<Path> files =
+        Files.list(
+            Paths.get(
+                baseDir,
+                FileSystemStorageProvider.DEFAULT_CONTENT_REPOSITORY,
+                FileSystemStorageProvider.DEFAULT_CONTENT_STORE,
+                contentUri.getSchemeSpecificPart()))) {
+      return files.findFirst().orElseThrow(IllegalStateException::new);
+    }
+  }
+
   /** ******************************************************************************* */
   private CreateStorageResponse assertContentItem(
       String data, String mimeTypeRawData, String filename, Map<String, Serializable> properties)
@@ -21,6 +21,7 @@
 import com.vividsolutions.jts.geom.Point;
 import com.vividsolutions.jts.io.ParseException;
 import com.vividsolutions.jts.io.WKTReader;
+import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.AttributeType;
 import ddf.catalog.data.AttributeType.AttributeFormat;
@@ -31,6 +32,7 @@
 import ddf.catalog.data.impl.AttributeDescriptorImpl;
 import ddf.catalog.data.impl.BasicTypes;
 import ddf.catalog.data.impl.MetacardTypeImpl;
+import ddf.catalog.data.impl.codec.MetacardCodec;
 import ddf.catalog.data.types.Validation;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -44,11 +46,14 @@
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.xml.stream.XMLInputFactory;
@@ -76,6 +81,7 @@
 import org.apache.solr.common.util.SimpleOrderedMap;
 import org.codehaus.stax2.XMLInputFactory2;
 import org.codice.solr.factory.impl.ConfigurationStore;
+import org.codice.solr.xpath.XpathPathIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -107,12 +113,19 @@ public class DynamicSchemaResolver {
 
   private static final String SOLR_CLOUD_VERSION_FIELD = "_version_";
 
+  /**
+   * System property that enables writing metacard types with the {@link MetacardCodec}. Types are
+   * Java serialized by default, so that nodes that can't read the codec yet can share the core.
+   */
+  static final String METACARD_TYPE_CODEC_PROPERTY = "solr.metacardType.codec.enable";
+
   private static final List<String> PRIVATE_SOLR_FIELDS =
       Arrays.asList(
           SOLR_CLOUD_VERSION_FIELD,
           SchemaFields.METACARD_TYPE_FIELD_NAME,
           SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME,
           LUX_XML_FIELD_NAME,
+          XpathPathIndex.PATHS_FIELD_NAME,
           SCORE_FIELD_NAME);
 
   private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
@@ -149,6 +162,13 @@ public class DynamicSchemaResolver {
   protected Cache<String, byte[]> metacardTypeNameToSerialCache =
       CacheBuilder.newBuilder().maximumSize(4096).initialCapacity(64).build();
 
+  /** Index plans of the metacard types, which are immutable, so they are cached per instance. */
+  private final Cache<MetacardType, MetacardIndexPlan> indexPlansCache =
+      CacheBuilder.newBuilder().weakKeys().build();
+
+  private final Cache<String, MetacardHydrationPlan> hydrationPlansCache =
+      CacheBuilder.newBuilder().maximumSize(4096).initialCapacity(64).build();
+
   private Processor processor = new Processor(new Config());
 
   public DynamicSchemaResolver(List<String> additionalFields) {
@@ -229,35 +249,27 @@ public void addFieldsFromClient(SolrClient client) {
   public void addFields(Metacard metacard, SolrInputDocument solrInputDocument)
       throws MetacardCreationException {
     MetacardType schema = metacard.getMetacardType();
+    MetacardIndexPlan indexPlan = getIndexPlan(schema);
 
-    // TODO: register these metacard types when a new one is seen
-
-    for (AttributeDescriptor ad : schema.getAttributeDescriptors()) {
-      if (metacard.getAttribute(ad.getName()) != null) {
-        List<Serializable> attributeValues = metacard.getAttribute(ad.getName()).getValues();
+    for (MetacardIndexPlan.Field field : indexPlan.getFields()) {
+      Attribute attribute = metacard.getAttribute(field.getAttributeName());
+      if (attribute != null) {
+        List<Serializable> attributeValues = attribute.getValues();
 
         if (attributeValues != null
             && attributeValues.size() > 0
             && attributeValues.get(0) != null) {
-          AttributeFormat format = ad.getType().getAttributeFormat();
-          String formatIndexName = ad.getName() + getFieldSuffix(format);
+          AttributeFormat format = field.getFormat();
+          String formatIndexName = field.getFormatIndexName();
 
           if (AttributeFormat.XML.equals(format)
-              && solrInputDocument.getFieldValue(
-                      formatIndexName + getSpecialIndexSuffix(AttributeFormat.STRING))
-                  == null) {
+              && solrInputDocument.getFieldValue(field.getTokenizedFormatIndexName()) == null) {
             List<String> parsedTexts = parseTextFrom(attributeValues);
 
             // parsedTexts => *_txt_tokenized
-            String specialStringIndexName =
-                ad.getName()
-                    + getFieldSuffix(AttributeFormat.STRING)
-                    + getSpecialIndexSuffix(AttributeFormat.STRING);
-            solrInputDocument.addField(specialStringIndexName, parsedTexts);
+            solrInputDocument.addField(field.getTokenizedTextIndexName(), parsedTexts);
           } else if (AttributeFormat.STRING.equals(format)
-              && solrInputDocument.getFieldValue(
-                      ad.getName() + getFieldSuffix(AttributeFormat.STRING))
-                  == null) {
+              && solrInputDocument.getFieldValue(field.getTextIndexName()) == null) {
             List<Serializable> truncatedValues =
                 attributeValues
                     .stream()
@@ -268,15 +280,10 @@ public void addFields(Metacard metacard, SolrInputDocument solrInputDocument)
                                 : value)
                     .collect(Collectors.toList());
             // *_txt
-            solrInputDocument.addField(
-                ad.getName() + getFieldSuffix(AttributeFormat.STRING), truncatedValues);
+            solrInputDocument.addField(field.getTextIndexName(), truncatedValues);
 
             // *_txt_tokenized
-            solrInputDocument.addField(
-                ad.getName()
-                    + getFieldSuffix(AttributeFormat.STRING)
-                    + getSpecialIndexSuffix(AttributeFormat.STRING),
-                attributeValues);
+            solrInputDocument.addField(field.getTokenizedTextIndexName(), attributeValues);
           } else if (AttributeFormat.OBJECT.equals(format)) {
             ByteArrayOutputStream byteArrayOS = new ByteArrayOutputStream();
             List<Serializable> byteArrays = new ArrayList<>();
@@ -294,16 +301,13 @@ public void addFields(Metacard metacard, SolrInputDocument solrInputDocument)
             attributeValues = byteArrays;
           }
 
-          if (solrInputDocument.getFieldValue(formatIndexName + SchemaFields.SORT_KEY_SUFFIX)
-              == null) {
+          if (solrInputDocument.getFieldValue(field.getSortKeyName()) == null) {
             if (AttributeFormat.GEOMETRY.equals(format)) {
               solrInputDocument.addField(
-                  formatIndexName + SchemaFields.SORT_KEY_SUFFIX,
-                  createCenterPoint(attributeValues));
+                  field.getSortKeyName(), createCenterPoint(attributeValues));
             } else if (!(AttributeFormat.BINARY.equals(format)
                 || AttributeFormat.OBJECT.equals(format))) {
-              solrInputDocument.addField(
-                  formatIndexName + SchemaFields.SORT_KEY_SUFFIX, attributeValues.get(0));
+              solrInputDocument.addField(field.getSortKeyName(), attributeValues.get(0));
             }
           }
 
@@ -320,8 +324,10 @@ public void addFields(Metacard metacard, SolrInputDocument solrInputDocument)
     if (!ConfigurationStore.getInstance().isDisableTextPath()) {
       if (StringUtils.isNotBlank(metacard.getMetadata())) {
         try {
-          byte[] luxXml = createTinyBinary(metacard.getMetadata());
-          solrInputDocument.addField(LUX_XML_FIELD_NAME, luxXml);
+          XdmNode document = parseMetadata(metacard.getMetadata());
+          solrInputDocument.addField(LUX_XML_FIELD_NAME, createTinyBinary(document));
+          solrInputDocument.addField(
+              XpathPathIndex.PATHS_FIELD_NAME, XpathPathIndex.getPaths(document));
         } catch (XMLStreamException | SaxonApiException e) {
           LOGGER.debug(
               "Unable to parse metadata field.  XPath support unavailable for metacard {}",
@@ -333,7 +339,7 @@ public void addFields(Metacard metacard, SolrInputDocument solrInputDocument)
     /*
      * Lastly the metacardType must be added to the solr document. These are internal fields
      */
-    String schemaName = String.format("%s#%s", schema.getName(), schema.hashCode());
+    String schemaName = indexPlan.getSchemaName();
     solrInputDocument.addField(SchemaFields.METACARD_TYPE_FIELD_NAME, schemaName);
     byte[] metacardTypeBytes = metacardTypeNameToSerialCache.getIfPresent(schemaName);
 
@@ -417,7 +423,7 @@ private String createCenterPoint(List<Serializable> values) {
     return centerPoint.getY() + "," + centerPoint.getX();
   }
 
-  private byte[] createTinyBinary(String xml) throws XMLStreamException, SaxonApiException {
+  private XdmNode parseMetadata(String xml) throws XMLStreamException, SaxonApiException {
     SaxonDocBuilder builder = new SaxonDocBuilder(processor);
 
     XmlReader xmlReader = new XmlReader();
@@ -425,8 +431,10 @@ private byte[] createTinyBinary(String xml) throws XMLStreamException, SaxonApiE
     xmlReader.setStripNamespaces(true);
     xmlReader.read(IOUtils.toInputStream(xml));
 
-    XdmNode node = builder.getDocument();
+    return builder.getDocument();
+  }
 
+  private byte[] createTinyBinary(XdmNode node) {
     TinyTree tinyTree = ((TinyDocumentImpl) node.getUnderlyingNode()).getTree();
     TinyBinary tinyBinary = new TinyBinary(tinyTree, StandardCharsets.UTF_8);
 
@@ -461,38 +469,42 @@ public List<Serializable> getDocValues(String solrFieldName, Collection<Object>
   }
 
   public Serializable getDocValue(String solrFieldName, Object docValue) {
+    return getDocValueConverter(getType(solrFieldName)).apply(docValue);
+  }
 
-    AttributeFormat format = getType(solrFieldName);
-
+  private Function<Object, Serializable> getDocValueConverter(AttributeFormat format) {
     if (AttributeFormat.SHORT.equals(format)) {
       /*
        * We have inside knowledge that user-given short objects are stored as Integers in
        * Solr. You cannot cast an int to a short, so the workaround is to parse it. This
        * should not lead to any loss of information because the value was originally a short.
        */
-      return Short.parseShort(docValue.toString());
+      return docValue -> Short.parseShort(docValue.toString());
     } else if (AttributeFormat.OBJECT.equals(format)) {
-
-      ByteArrayInputStream bais = null;
-      ObjectInputStream in = null;
-      try {
-        bais = new ByteArrayInputStream((byte[]) docValue);
-        in = new ObjectInputStream(bais);
-        return (Serializable) in.readObject();
-      } catch (IOException e) {
-        LOGGER.info("IO exception loading input document", e);
-      } catch (ClassNotFoundException e) {
-        LOGGER.info("Could not create object to return.", e);
-        // TODO which exception to throw?
-      } finally {
-        IOUtils.closeQuietly(bais);
-        IOUtils.closeQuietly(in);
-      }
-
-      return null;
+      return this::readObject;
     } else {
-      return ((Serializable) docValue);
+      return docValue -> (Serializable) docValue;
+    }
+  }
+
+  private Serializable readObject(Object docValue) {
+    ByteArrayInputStream bais = null;
+    ObjectInputStream in = null;
+    try {
+      bais = new ByteArrayInputStream((byte[]) docValue);
+      in = new ObjectInputStream(bais);
+      return (Serializable) in.readObject();
+    } catch (IOException e) {
+      LOGGER.info("IO exception loading input document", e);
+    } catch (ClassNotFoundException e) {
+      LOGGER.info("Could not create object to return.", e);
+      // TODO which exception to throw?
+    } finally {
+      IOUtils.closeQuietly(bais);
+      IOUtils.closeQuietly(in);
     }
+
+    return null;
   }
 
   /**
@@ -604,11 +616,16 @@ public MetacardType getMetacardType(SolrDocument doc) throws MetacardCreationExc
     ObjectInputStream in = null;
     try {
 
-      bais = new ByteArrayInputStream(bytes);
+      if (MetacardCodec.isEncoded(bytes)) {
+        cachedMetacardType = MetacardCodec.decodeType(bytes);
+      } else {
+        // Java serialized metacard types, unless the codec is enabled
+        bais = new ByteArrayInputStream(bytes);
 
-      in = new ObjectInputStream(bais);
+        in = new ObjectInputStream(bais);
 
-      cachedMetacardType = (MetacardType) in.readObject();
+        cachedMetacardType = (MetacardType) in.readObject();
+      }
 
     } catch (IOException e) {
 
@@ -630,6 +647,76 @@ public MetacardType getMetacardType(SolrDocument doc) throws MetacardCreationExc
     return cachedMetacardType;
   }
 
+  /**
+   * Returns the compiled Solr field names of the attributes of a metacard type.
+   *
+   * @param metacardType type of the metacards to index
+   * @return the index plan of the metacard type
+   */
+  MetacardIndexPlan getIndexPlan(MetacardType metacardType) {
+    MetacardIndexPlan indexPlan = indexPlansCache.getIfPresent(metacardType);
+
+    if (indexPlan == null) {
+      List<MetacardIndexPlan.Field> fields = new ArrayList<>();
+
+      for (AttributeDescriptor ad : metacardType.getAttributeDescriptors()) {
+        AttributeFormat format = ad.getType().getAttributeFormat();
+        String formatIndexName = ad.getName() + getFieldSuffix(format);
+        String textIndexName = ad.getName() + getFieldSuffix(AttributeFormat.STRING);
+
+        fields.add(
+            new MetacardIndexPlan.Field(
+                ad.getName(),
+                format,
+                formatIndexName,
+                textIndexName,
+                textIndexName + getSpecialIndexSuffix(AttributeFormat.STRING),
+                formatIndexName + getSpecialIndexSuffix(AttributeFormat.STRING),
+                formatIndexName + SchemaFields.SORT_KEY_SUFFIX));
+      }
+
+      indexPlan =
+          new MetacardIndexPlan(metacardType.getName() + "#" + metacardType.hashCode(), fields);
+      indexPlansCache.put(metacardType, indexPlan);
+    }
+
+    return indexPlan;
+  }
+
+  /**
+   * Returns the compiled attribute names and value converters of the metacard type of a document.
+   *
+   * @param doc document created by {@link #addFields(Metacard, SolrInputDocument)}
+   * @return the hydration plan of the metacard type of the document
+   * @throws MetacardCreationException if the metacard type of the document can't be read
+   */
+  MetacardHydrationPlan getHydrationPlan(SolrDocument doc) throws MetacardCreationException {
+    String mTypeFieldName = doc.getFirstValue(SchemaFields.METACARD_TYPE_FIELD_NAME).toString();
+
+    MetacardHydrationPlan hydrationPlan = hydrationPlansCache.getIfPresent(mTypeFieldName);
+
+    if (hydrationPlan == null) {
+      MetacardType metacardType = getMetacardType(doc);
+      Map<String, MetacardHydrationPlan.Field> fields = new HashMap<>();
+
+      for (AttributeDescriptor ad : metacardType.getAttributeDescriptors()) {
+        AttributeFormat format = ad.getType().getAttributeFormat();
+        String solrFieldName = ad.getName() + getFieldSuffix(format);
+
+        if (!isPrivateField(solrFieldName)) {
+          fields.put(
+              solrFieldName,
+              new MetacardHydrationPlan.Field(ad.getName(), getDocValueConverter(format)));
+        }
+      }
+
+      hydrationPlan = new MetacardHydrationPlan(metacardType, fields);
+      hydrationPlansCache.put(mTypeFieldName, hydrationPlan);
+    }
+
+    return hydrationPlan;
+  }
+
   public String getCaseSensitiveField(String mappedPropertyName) {
     // TODO We can check if this field really does exist
     return mappedPropertyName + SchemaFields.HAS_CASE;
@@ -690,18 +777,16 @@ private void addToFieldsCache(Set<AttributeDescriptor> descriptors) {
   }
 
   private byte[] serialize(MetacardType anywhereMType) throws MetacardCreationException {
-    ByteArrayOutputStream baos = new ByteArrayOutputStream();
-
     try {
-      ObjectOutputStream out = new ObjectOutputStream(baos);
-      out.writeObject(anywhereMType);
-
-      byte[] bytes = baos.toByteArray();
-
-      baos.close();
-      out.close();
+      if ("true".equals(System.getProperty(METACARD_TYPE_CODEC_PROPERTY))) {
+        return MetacardCodec.encodeType(anywhereMType);
+      }
 
-      return bytes;
+      ByteArrayOutputStream baos = new ByteArrayOutputStream();
+      try (ObjectOutputStream out = new ObjectOutputStream(baos)) {
+        out.writeObject(anywhereMType);
+      }
+      return baos.toByteArray();
     } catch (IOException e) {
       throw new MetacardCreationException(COULD_NOT_READ_METACARD_TYPE_MESSAGE, e);
     }
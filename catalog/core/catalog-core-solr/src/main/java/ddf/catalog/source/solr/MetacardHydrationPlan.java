@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import ddf.catalog.data.MetacardType;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Attribute names and value converters of the stored Solr fields of a {@link MetacardType}. The
+ * plan is compiled once per metacard type by {@link DynamicSchemaResolver} so creating a metacard
+ * from a {@link org.apache.solr.common.SolrDocument} doesn't have to resolve every field name
+ * again.
+ */
+final class MetacardHydrationPlan {
+
+  private final MetacardType metacardType;
+
+  private final Map<String, Field> fields;
+
+  MetacardHydrationPlan(MetacardType metacardType, Map<String, Field> fields) {
+    this.metacardType = metacardType;
+    this.fields = Collections.unmodifiableMap(fields);
+  }
+
+  MetacardType getMetacardType() {
+    return metacardType;
+  }
+
+  /**
+   * @param solrFieldName name of a stored Solr field
+   * @return the attribute stored in the field, {@code null} if the field doesn't belong to an
+   *     attribute of the metacard type
+   */
+  Field getField(String solrFieldName) {
+    return fields.get(solrFieldName);
+  }
+
+  static final class Field {
+
+    private final String attributeName;
+
+    private final Function<Object, Serializable> converter;
+
+    Field(String attributeName, Function<Object, Serializable> converter) {
+      this.attributeName = attributeName;
+      this.converter = converter;
+    }
+
+    String getAttributeName() {
+      return attributeName;
+    }
+
+    List<Serializable> getValues(Collection<Object> docValues) {
+      List<Serializable> values = new ArrayList<>(docValues.size());
+      for (Object docValue : docValues) {
+        values.add(converter.apply(docValue));
+      }
+      return values;
+    }
+  }
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import ddf.catalog.data.AttributeType.AttributeFormat;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Solr field names of the attributes of a {@link ddf.catalog.data.MetacardType}. The plan is
+ * compiled once per metacard type by {@link DynamicSchemaResolver} so indexing a metacard doesn't
+ * have to build the field names of every attribute again.
+ */
+final class MetacardIndexPlan {
+
+  private final String schemaName;
+
+  private final List<Field> fields;
+
+  MetacardIndexPlan(String schemaName, List<Field> fields) {
+    this.schemaName = schemaName;
+    this.fields = Collections.unmodifiableList(fields);
+  }
+
+  /** @return value of the {@link SchemaFields#METACARD_TYPE_FIELD_NAME} field */
+  String getSchemaName() {
+    return schemaName;
+  }
+
+  List<Field> getFields() {
+    return fields;
+  }
+
+  static final class Field {
+
+    private final String attributeName;
+
+    private final AttributeFormat format;
+
+    private final String formatIndexName;
+
+    private final String textIndexName;
+
+    private final String tokenizedTextIndexName;
+
+    private final String tokenizedFormatIndexName;
+
+    private final String sortKeyName;
+
+    Field(
+        String attributeName,
+        AttributeFormat format,
+        String formatIndexName,
+        String textIndexName,
+        String tokenizedTextIndexName,
+        String tokenizedFormatIndexName,
+        String sortKeyName) {
+      this.attributeName = attributeName;
+      this.format = format;
+      this.formatIndexName = formatIndexName;
+      this.textIndexName = textIndexName;
+      this.tokenizedTextIndexName = tokenizedTextIndexName;
+      this.tokenizedFormatIndexName = tokenizedFormatIndexName;
+      this.sortKeyName = sortKeyName;
+    }
+
+    String getAttributeName() {
+      return attributeName;
+    }
+
+    AttributeFormat getFormat() {
+      return format;
+    }
+
+    /** @return field of the attribute values, e.g. {@code title_txt} */
+    String getFormatIndexName() {
+      return formatIndexName;
+    }
+
+    /** @return text field of the attribute, e.g. {@code metadata_txt} */
+    String getTextIndexName() {
+      return textIndexName;
+    }
+
+    /** @return tokenized text field of the attribute, e.g. {@code metadata_txt_tokenized} */
+    String getTokenizedTextIndexName() {
+      return tokenizedTextIndexName;
+    }
+
+    /** @return tokenized field of the attribute format, e.g. {@code metadata_xml_tokenized} */
+    String getTokenizedFormatIndexName() {
+      return tokenizedFormatIndexName;
+    }
+
+    /** @return sort key field of the attribute, e.g. {@code title_txt_sk} */
+    String getSortKeyName() {
+      return sortKeyName;
+    }
+  }
+}
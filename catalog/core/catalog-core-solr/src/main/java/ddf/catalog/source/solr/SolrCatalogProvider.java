@@ -54,6 +54,7 @@
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.math.NumberUtils;
@@ -220,6 +221,22 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
     return response;
   }
 
+  /**
+   * Streams the results that match the {@link QueryRequest} to the {@link Consumer} provided
+   * without materializing the full result set. Unlike {@link #query(QueryRequest)}, which returns a
+   * bounded number of results when the page size is unlimited, every matching result is read.
+   *
+   * @param request query request to execute
+   * @param consumer consumer that will receive each {@link Result}, in order
+   * @return total number of hits that match the query
+   * @throws UnsupportedQueryException if the query is not supported
+   * @see SolrMetacardClient#stream(QueryRequest, Consumer)
+   */
+  public long stream(QueryRequest request, Consumer<Result> consumer)
+      throws UnsupportedQueryException {
+    return client.stream(request, consumer);
+  }
+
   private void queryPendingNrtIndex(QueryRequest request, SourceResponse response)
       throws UnsupportedQueryException {
     if (request == null || request.getQuery() == null) {
@@ -586,6 +603,7 @@ public boolean isForcedAutoCommit() {
 
   public void shutdown() {
     LOGGER.debug("Closing down Solr client.");
+    client.shutdown();
     try {
       solr.close();
     } catch (IOException e) {
@@ -0,0 +1,119 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import java.io.ObjectStreamException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import org.apache.solr.common.SolrDocument;
+
+/**
+ * Metacard backed by the field values of the {@link SolrDocument} it was created from. The
+ * attributes of the document are only converted when they are first read, so results whose
+ * attributes are never read, or only partly read, don't pay for creating and converting all of
+ * them. Only the values of the fields in the hydration plan are kept, not the document.
+ *
+ * <p>Attributes that are set replace the document fields. The metacard is serialized as a plain
+ * {@link MetacardImpl}.
+ */
+class SolrDocumentMetacard extends MetacardImpl {
+
+  private static final long serialVersionUID = 1L;
+
+  /** Document fields of the attributes that haven't been converted yet. */
+  private final transient Map<String, DocumentField> documentFields = new HashMap<>();
+
+  private final transient Map<String, Attribute> attributes = new HashMap<>();
+
+  SolrDocumentMetacard(MetacardType metacardType) {
+    super(metacardType);
+  }
+
+  /**
+   * Adds a document field whose values are converted to an attribute when the attribute is read.
+   *
+   * @param field attribute of the field in the hydration plan
+   * @param docValues values of the document field
+   */
+  void addDocumentField(MetacardHydrationPlan.Field field, Collection<Object> docValues) {
+    documentFields.put(field.getAttributeName(), new DocumentField(field, docValues));
+  }
+
+  @Override
+  public synchronized Attribute getAttribute(String name) {
+    DocumentField documentField = documentFields.remove(name);
+
+    if (documentField != null) {
+      Attribute attribute =
+          new AttributeImpl(name, documentField.field.getValues(documentField.docValues));
+      attributes.put(name, attribute);
+      return attribute;
+    }
+
+    return attributes.get(name);
+  }
+
+  @Override
+  public synchronized Set<String> getAttributeNames() {
+    Set<String> names = new HashSet<>(attributes.keySet());
+    names.addAll(documentFields.keySet());
+    return names;
+  }
+
+  @Override
+  public synchronized void setAttribute(Attribute attribute) {
+    if (attribute == null || attribute.getName() == null) {
+      return;
+    }
+
+    documentFields.remove(attribute.getName());
+
+    if (attribute.getValue() != null) {
+      attributes.put(attribute.getName(), attribute);
+    } else {
+      attributes.remove(attribute.getName());
+    }
+  }
+
+  private synchronized Object writeReplace() throws ObjectStreamException {
+    MetacardImpl metacard = new MetacardImpl(getMetacardType());
+    metacard.setSourceId(getSourceId());
+
+    for (String name : documentFields.keySet().toArray(new String[0])) {
+      getAttribute(name);
+    }
+    attributes.values().forEach(metacard::setAttribute);
+
+    return metacard;
+  }
+
+  private static class DocumentField {
+
+    private final MetacardHydrationPlan.Field field;
+
+    private final Collection<Object> docValues;
+
+    DocumentField(MetacardHydrationPlan.Field field, Collection<Object> docValues) {
+      this.field = field;
+      this.docValues = docValues;
+    }
+  }
+}
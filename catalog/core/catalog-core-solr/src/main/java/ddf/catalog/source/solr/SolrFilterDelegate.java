@@ -36,11 +36,14 @@
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.apache.commons.lang.StringUtils;
@@ -121,6 +124,17 @@ public class SolrFilterDelegate extends FilterDelegate<SolrQuery> {
 
   private static final String FILTER_QUERY_PARAM_NAME = "fq";
 
+  private static final String NON_CACHED_FILTER_QUERY_PREFIX = "{!cache=false}";
+
+  private static final String MATCH_ALL_QUERY = "*:*";
+
+  /**
+   * Granularity the bounds of date ranges are widened to, so that similar ranges share a cached
+   * filter query. Configured in seconds, 0 caches the exact ranges.
+   */
+  private static final long DATE_FILTER_GRANULARITY_MILLIS =
+      TimeUnit.SECONDS.toMillis(Long.getLong("solr.client.dateFilterGranularity", 3600L));
+
   private static final String SOLR_WILDCARD_CHAR = "*";
 
   private static final String SOLR_SINGLE_WILDCARD_CHAR = "?";
@@ -149,6 +163,9 @@ public class SolrFilterDelegate extends FilterDelegate<SolrQuery> {
 
   private String sortedDistancePoint;
 
+  /** Clauses of the filter and conjunction queries built by this delegate, used for planning. */
+  private final Map<SolrQuery, Conjunction> conjunctions = new IdentityHashMap<>();
+
   public SolrFilterDelegate(DynamicSchemaResolver resolver) {
     this.resolver = resolver;
     dateFormat.setTimeZone(UTC_TIME_ZONE);
@@ -187,15 +204,29 @@ public SolrQuery propertyIsEqualTo(String functionName, List<Object> arguments,
 
   @Override
   public SolrQuery and(List<SolrQuery> operands) {
+    // The first operand is reused for the result so its clauses have to be read beforehand
+    Conjunction conjunction = new Conjunction();
+    if (operands != null) {
+      operands.stream().filter(Objects::nonNull).forEach(operand -> conjoin(conjunction, operand));
+    }
+
     SolrQuery query = logicalOperator(operands, AND);
     combineXpathFilterQueries(query, operands, AND);
+    conjunctions.put(query, conjunction);
     return query;
   }
 
   @Override
   public SolrQuery or(List<SolrQuery> operands) {
+    boolean isFilter = operands != null && operands.stream().allMatch(this::isFilter);
+
     SolrQuery query = logicalOperator(operands, OR);
     combineXpathFilterQueries(query, operands, OR);
+    if (isFilter) {
+      filterClause(query);
+    } else {
+      conjunctions.remove(query);
+    }
     return query;
   }
 
@@ -211,11 +242,9 @@ private void combineXpathFilterQueries(
       if (params != null) {
         for (String param : params) {
           if (StringUtils.startsWith(param, XPATH_QUERY_PARSER_PREFIX)) {
-            if (StringUtils.contains(param, XPATH_FILTER_QUERY_INDEX)) {
-              xpathIndexes.add(
-                  StringUtils.substringAfter(
-                      StringUtils.substringBeforeLast(param, "\""),
-                      XPATH_FILTER_QUERY_INDEX + ":\""));
+            if (isXpathIndexQuery(param)) {
+              // Keep the whole index query so nested combinations are grouped correctly
+              xpathIndexes.add(StringUtils.removeStart(param, XPATH_QUERY_PARSER_PREFIX));
             } else if (StringUtils.startsWith(
                 param, XPATH_QUERY_PARSER_PREFIX + XPATH_FILTER_QUERY)) {
               xpathFilters.add(
@@ -238,13 +267,17 @@ private void combineXpathFilterQueries(
               + ")\"";
 
       List<String> indexes = new ArrayList<>();
-      for (String xpath : xpathIndexes) {
-        indexes.add("(" + XPATH_FILTER_QUERY_INDEX + ":\"" + xpath + "\")");
+      for (String index : xpathIndexes) {
+        indexes.add("(" + index + ")");
+      }
+
+      if (indexes.size() == xpathFilters.size()) {
+        String index = XPATH_QUERY_PARSER_PREFIX + StringUtils.join(indexes, operator);
+        query.setParam(FILTER_QUERY_PARAM_NAME, filter, index);
+      } else {
+        // Without a pre-filter for every XPath, an OR could drop matching documents
+        query.setParam(FILTER_QUERY_PARAM_NAME, filter);
       }
-      // TODO DDF-1882 add pre-filter xpath index
-      // String index = XPATH_QUERY_PARSER_PREFIX + StringUtils.join(indexes, operator);
-      // query.setParam(FILTER_QUERY_PARAM_NAME, filter, index);
-      query.setParam(FILTER_QUERY_PARAM_NAME, filter);
     } else if (queryParams.size() > 0) {
       // Pass through original filter queries if only a single XPath is present
       query.setParam(FILTER_QUERY_PARAM_NAME, queryParams.toArray(new String[queryParams.size()]));
@@ -253,7 +286,8 @@ private void combineXpathFilterQueries(
 
   @Override
   public SolrQuery not(SolrQuery operand) {
-    return new SolrQuery(" NOT " + operand.getQuery());
+    SolrQuery query = new SolrQuery(" NOT " + operand.getQuery());
+    return isFilter(operand) ? filterClause(query) : query;
   }
 
   @Override
@@ -295,18 +329,20 @@ public SolrQuery propertyIsLike(String propertyName, String pattern, boolean isC
       searchPhrase = QUOTE + searchPhrase + QUOTE;
     }
 
+    SolrQuery query;
     if (searchPhrase.contains(SOLR_WILDCARD_CHAR)
         || searchPhrase.contains(SOLR_SINGLE_WILDCARD_CHAR)
         || Metacard.ANY_TEXT.equals(propertyName)) {
 
-      return new SolrQuery(wildcardSolrQuery(searchPhrase, propertyName, isCaseSensitive));
+      query = new SolrQuery(wildcardSolrQuery(searchPhrase, propertyName, isCaseSensitive));
     } else {
       if (isCaseSensitive) {
         mappedPropertyName = resolver.getCaseSensitiveField(mappedPropertyName);
       }
 
-      return new SolrQuery(mappedPropertyName + ":" + searchPhrase);
+      query = new SolrQuery(mappedPropertyName + ":" + searchPhrase);
     }
+    return tagClause(propertyName, query);
   }
 
   @Override
@@ -326,9 +362,10 @@ public SolrQuery propertyIsEqualTo(String propertyName, String literal, boolean
     if (searchPhrase.contains(SOLR_WILDCARD_CHAR)
         || searchPhrase.contains(SOLR_SINGLE_WILDCARD_CHAR)
         || Metacard.ANY_TEXT.equals(propertyName)) {
-      return new SolrQuery(wildcardSolrQuery(searchPhrase, propertyName, true));
+      return tagClause(
+          propertyName, new SolrQuery(wildcardSolrQuery(searchPhrase, propertyName, true)));
     } else {
-      return new SolrQuery(mappedPropertyName + ":" + searchPhrase);
+      return tagClause(propertyName, new SolrQuery(mappedPropertyName + ":" + searchPhrase));
     }
   }
 
@@ -367,7 +404,7 @@ public SolrQuery propertyIsEqualTo(String propertyName, Date exactDate) {
     String mappedPropertyName = getMappedPropertyName(propertyName, AttributeFormat.DATE, true);
     SolrQuery query = new SolrQuery();
     query.setQuery(" " + mappedPropertyName + ":" + QUOTE + dateFormat.format(exactDate) + QUOTE);
-    return query;
+    return filterClause(query);
   }
 
   @Override
@@ -403,13 +440,7 @@ public SolrQuery propertyIsEqualTo(String propertyName, boolean literal) {
 
   @Override
   public SolrQuery propertyIsGreaterThan(String propertyName, Date startDate) {
-    String formattedStartDate = formatDate(startDate);
-    return buildDateQuery(
-        propertyName,
-        SOLR_EXCLUSIVE_START,
-        formattedStartDate,
-        SOLR_WILDCARD_CHAR,
-        SOLR_INCLUSIVE_END);
+    return buildDateQuery(propertyName, SOLR_EXCLUSIVE_START, startDate, null, SOLR_INCLUSIVE_END);
   }
 
   @Override
@@ -439,13 +470,7 @@ public SolrQuery propertyIsGreaterThan(String propertyName, double literal) {
 
   @Override
   public SolrQuery propertyIsGreaterThanOrEqualTo(String propertyName, Date startDate) {
-    String formattedStartDate = formatDate(startDate);
-    return buildDateQuery(
-        propertyName,
-        SOLR_INCLUSIVE_START,
-        formattedStartDate,
-        SOLR_WILDCARD_CHAR,
-        SOLR_INCLUSIVE_END);
+    return buildDateQuery(propertyName, SOLR_INCLUSIVE_START, startDate, null, SOLR_INCLUSIVE_END);
   }
 
   @Override
@@ -475,48 +500,23 @@ public SolrQuery propertyIsGreaterThanOrEqualTo(String propertyName, double lite
 
   @Override
   public SolrQuery during(String propertyName, Date startDate, Date endDate) {
-    String formattedStartDate = formatDate(startDate);
-    String formattedEndDate = formatDate(endDate);
     return buildDateQuery(
-        propertyName,
-        SOLR_EXCLUSIVE_START,
-        formattedStartDate,
-        formattedEndDate,
-        SOLR_EXCLUSIVE_END);
+        propertyName, SOLR_EXCLUSIVE_START, startDate, endDate, SOLR_EXCLUSIVE_END);
   }
 
   @Override
   public SolrQuery before(String propertyName, Date date) {
-    String formattedEndDate = formatDate(date);
-
-    return buildDateQuery(
-        propertyName,
-        SOLR_INCLUSIVE_START,
-        SOLR_WILDCARD_CHAR,
-        formattedEndDate,
-        SOLR_EXCLUSIVE_END);
+    return buildDateQuery(propertyName, SOLR_INCLUSIVE_START, null, date, SOLR_EXCLUSIVE_END);
   }
 
   @Override
   public SolrQuery after(String propertyName, Date startDate) {
-    String formattedStartDate = formatDate(startDate);
-    return buildDateQuery(
-        propertyName,
-        SOLR_EXCLUSIVE_START,
-        formattedStartDate,
-        SOLR_WILDCARD_CHAR,
-        SOLR_INCLUSIVE_END);
+    return buildDateQuery(propertyName, SOLR_EXCLUSIVE_START, startDate, null, SOLR_INCLUSIVE_END);
   }
 
   @Override
   public SolrQuery propertyIsLessThan(String propertyName, Date endDate) {
-    String formattedEndDate = formatDate(endDate);
-    return buildDateQuery(
-        propertyName,
-        SOLR_INCLUSIVE_START,
-        SOLR_WILDCARD_CHAR,
-        formattedEndDate,
-        SOLR_EXCLUSIVE_END);
+    return buildDateQuery(propertyName, SOLR_INCLUSIVE_START, null, endDate, SOLR_EXCLUSIVE_END);
   }
 
   @Override
@@ -546,13 +546,7 @@ public SolrQuery propertyIsLessThan(String propertyName, double literal) {
 
   @Override
   public SolrQuery propertyIsLessThanOrEqualTo(String propertyName, Date endDate) {
-    String formattedEndDate = formatDate(endDate);
-    return buildDateQuery(
-        propertyName,
-        SOLR_INCLUSIVE_START,
-        SOLR_WILDCARD_CHAR,
-        formattedEndDate,
-        SOLR_INCLUSIVE_END);
+    return buildDateQuery(propertyName, SOLR_INCLUSIVE_START, null, endDate, SOLR_INCLUSIVE_END);
   }
 
   @Override
@@ -603,17 +597,11 @@ public SolrQuery propertyIsDivisibleBy(String propertyName, long divisor) {
 
   @Override
   public SolrQuery propertyIsBetween(String propertyName, Date lowerBoundary, Date upperBoundary) {
-    String formattedStartDate = formatDate(lowerBoundary);
-    String formattedEndDate = formatDate(upperBoundary);
     // From OGC 09-026r1 and ISO 19143:2010(E), Section 7.7.3.7:
     // The PropertyIsBetween element is defined as a compact way of encoding a range check.
     // The lower and upper boundary values are inclusive.
     return buildDateQuery(
-        propertyName,
-        SOLR_INCLUSIVE_START,
-        formattedStartDate,
-        formattedEndDate,
-        SOLR_INCLUSIVE_END);
+        propertyName, SOLR_INCLUSIVE_START, lowerBoundary, upperBoundary, SOLR_INCLUSIVE_END);
   }
 
   @Override
@@ -622,37 +610,58 @@ public SolrQuery relative(String propertyName, long duration) {
     Date start = now.minus(duration).toDate();
     Date end = now.toDate();
 
-    String formattedStartDate = formatDate(start);
-    String formattedEndDate = formatDate(end);
-
-    return buildDateQuery(
-        propertyName,
-        SOLR_INCLUSIVE_START,
-        formattedStartDate,
-        formattedEndDate,
-        SOLR_INCLUSIVE_END);
+    return buildDateQuery(propertyName, SOLR_INCLUSIVE_START, start, end, SOLR_INCLUSIVE_END);
   }
 
+  /** Builds a date range query, {@code null} dates leave the range open. */
   private SolrQuery buildDateQuery(
       String propertyName,
       String startCondition,
-      String startDate,
-      String endDate,
+      Date startDate,
+      Date endDate,
       String endCondition) {
+    String mappedPropertyName = getMappedPropertyName(propertyName, AttributeFormat.DATE, false);
     SolrQuery query = new SolrQuery();
     query.setQuery(
         " "
-            + getMappedPropertyName(propertyName, AttributeFormat.DATE, false)
+            + mappedPropertyName
             + startCondition
-            + startDate
+            + formatDate(startDate)
             + TO
-            + endDate
+            + formatDate(endDate)
             + endCondition);
-    return query;
+
+    if (DATE_FILTER_GRANULARITY_MILLIS <= 0) {
+      return filterClause(query);
+    }
+
+    String window =
+        " "
+            + mappedPropertyName
+            + SOLR_INCLUSIVE_START
+            + formatDate(roundDate(startDate, false))
+            + TO
+            + formatDate(roundDate(endDate, true))
+            + SOLR_INCLUSIVE_END;
+    return filterClause(query, window);
+  }
+
+  private Date roundDate(Date date, boolean up) {
+    if (date == null) {
+      return null;
+    }
+
+    long time = date.getTime();
+    long rounded =
+        Math.floorDiv(time, DATE_FILTER_GRANULARITY_MILLIS) * DATE_FILTER_GRANULARITY_MILLIS;
+    if (up && rounded < time) {
+      rounded += DATE_FILTER_GRANULARITY_MILLIS;
+    }
+    return new Date(rounded);
   }
 
   private String formatDate(Date date) {
-    return dateFormat.format(date);
+    return date == null ? SOLR_WILDCARD_CHAR : dateFormat.format(date);
   }
 
   @Override
@@ -673,7 +682,7 @@ public SolrQuery nearestNeighbor(String propertyName, String wkt) {
             geoPointToCircleQuery(propertyName, NEAREST_NEIGHBOR_DISTANCE_LIMIT, pnt);
 
         updateDistanceSort(propertyName, pnt);
-        query = new SolrQuery(nearestNeighborQuery);
+        query = filterClause(new SolrQuery(nearestNeighborQuery));
       }
       return query;
     } else {
@@ -705,7 +714,7 @@ public SolrQuery dwithin(String propertyName, String wkt, double distance) {
         String pointRadiusQuery = geoPointToCircleQuery(propertyName, distanceInDegrees, pnt);
 
         updateDistanceSort(propertyName, pnt);
-        return new SolrQuery(pointRadiusQuery);
+        return filterClause(new SolrQuery(pointRadiusQuery));
       } else {
         Geometry bufferGeo = geo.buffer(distanceInDegrees, QUADRANT_SEGMENTS);
         String bufferWkt = WKT_WRITER.write(bufferGeo);
@@ -759,7 +768,7 @@ public SolrQuery intersects(String propertyName, String wkt) {
               geoPointToCircleQuery(propertyName, DEFAULT_ERROR_IN_DEGREES, pnt);
 
           updateDistanceSort(propertyName, pnt);
-          return new SolrQuery(pointRadiusQuery);
+          return filterClause(new SolrQuery(pointRadiusQuery));
         }
         if (MultiPoint.class.getSimpleName().equals(geo.getGeometryType())
             && geo.getCoordinates().length == 1) {
@@ -768,7 +777,7 @@ public SolrQuery intersects(String propertyName, String wkt) {
               geoPointToCircleQuery(propertyName, DEFAULT_ERROR_IN_DEGREES, pnt);
 
           updateDistanceSort(propertyName, pnt);
-          return new SolrQuery(pointRadiusQuery);
+          return filterClause(new SolrQuery(pointRadiusQuery));
         }
       }
     }
@@ -847,15 +856,20 @@ private SolrQuery getXPathQuery(
     }
 
     SolrQuery solrQuery = new SolrQuery(query);
-    solrQuery.addFilterQuery(XPATH_QUERY_PARSER_PREFIX + XPATH_FILTER_QUERY + ":\"" + xpath + "\"");
-    // TODO DDF-1882 add pre-filter xpath index
-    //        solrQuery.addFilterQuery(
-    //                XPATH_QUERY_PARSER_PREFIX + XPATH_FILTER_QUERY + ":\"" + xpath + "\"",
-    //                XPATH_QUERY_PARSER_PREFIX + XPATH_FILTER_QUERY_INDEX + ":\"" + xpath + "\"");
+    // The index query cheaply narrows down the documents the XPath post filter evaluates
+    solrQuery.addFilterQuery(
+        XPATH_QUERY_PARSER_PREFIX + XPATH_FILTER_QUERY + ":\"" + xpath + "\"",
+        XPATH_QUERY_PARSER_PREFIX + XPATH_FILTER_QUERY_INDEX + ":\"" + xpath + "\"");
 
     return solrQuery;
   }
 
+  private boolean isXpathIndexQuery(String filterQuery) {
+    String query = StringUtils.removeStart(filterQuery, XPATH_QUERY_PARSER_PREFIX);
+    return StringUtils.startsWith(query, XPATH_FILTER_QUERY_INDEX)
+        || StringUtils.startsWith(query, "(" + XPATH_FILTER_QUERY_INDEX);
+  }
+
   private void updateDistanceSort(String propertyName, Point point) {
     if (sortBys != null && sortBys.length != 0) {
       for (SortBy sortBy : sortBys) {
@@ -970,7 +984,7 @@ public SolrQuery propertyIsNull(String propertyName) {
       solrExpressions.add(" (*:* -" + possibleField + ":[* TO *]) ");
     }
     String fullExpression = StringUtils.join(solrExpressions, " ");
-    return new SolrQuery(fullExpression);
+    return filterClause(new SolrQuery(fullExpression));
   }
 
   private SolrQuery logicalOperator(List<SolrQuery> operands, String operator) {
@@ -1043,7 +1057,65 @@ private SolrQuery operationToQuery(String operation, String propertyName, String
       updateDistanceSort(propertyName, pnt.getCentroid());
     }
 
-    return new SolrQuery(geoQuery);
+    return filterClause(new SolrQuery(geoQuery));
+  }
+
+  /**
+   * Moves the clauses of a query built by this delegate that don't contribute to relevance, such as
+   * tag, date range, spatial and null checks, out of the main query into filter queries. Solr
+   * caches filter queries independently of the main query, so clauses shared by many queries are
+   * only evaluated once. Only the clauses of the top-level conjunction are moved, clauses nested in
+   * an OR or NOT that also scores stay in the main query.
+   *
+   * @param query query built by this delegate
+   */
+  public void planFilterQueries(SolrQuery query) {
+    Conjunction conjunction = conjunctions.get(query);
+    if (conjunction == null || conjunction.filters.isEmpty()) {
+      return;
+    }
+
+    for (FilterClause clause : conjunction.filters) {
+      if (clause.window == null || clause.window.equals(clause.query)) {
+        query.addFilterQuery(clause.query);
+      } else {
+        // The widened window is cached and shared, the exact range only checks its matches
+        query.addFilterQuery(clause.window, NON_CACHED_FILTER_QUERY_PREFIX + clause.query);
+      }
+    }
+
+    query.setQuery(
+        conjunction.scored.isEmpty() ? MATCH_ALL_QUERY : StringUtils.join(conjunction.scored, AND));
+  }
+
+  private SolrQuery tagClause(String propertyName, SolrQuery query) {
+    return Metacard.TAGS.equals(propertyName) ? filterClause(query) : query;
+  }
+
+  private SolrQuery filterClause(SolrQuery query) {
+    return filterClause(query, null);
+  }
+
+  private SolrQuery filterClause(SolrQuery query, String window) {
+    Conjunction conjunction = new Conjunction();
+    conjunction.filters.add(new FilterClause(query.getQuery(), window));
+    conjunctions.put(query, conjunction);
+    return query;
+  }
+
+  private boolean isFilter(SolrQuery query) {
+    Conjunction conjunction = conjunctions.get(query);
+    return conjunction != null && conjunction.scored.isEmpty();
+  }
+
+  private void conjoin(Conjunction conjunction, SolrQuery operand) {
+    Conjunction operandConjunction = conjunctions.get(operand);
+    if (operandConjunction != null) {
+      conjunction.filters.addAll(operandConjunction.filters);
+      conjunction.scored.addAll(operandConjunction.scored);
+    } else {
+      conjunction.scored.add(operand.getQuery());
+    }
   }
 
   private boolean isPoint(Geometry geo) {
@@ -1065,4 +1137,25 @@ public boolean isSortedByDistance() {
   public String getSortedDistancePoint() {
     return sortedDistancePoint;
   }
+
+  /** Clauses of a conjunction, split into those that only filter and those that score. */
+  private static class Conjunction {
+
+    private final List<FilterClause> filters = new ArrayList<>();
+
+    private final List<String> scored = new ArrayList<>();
+  }
+
+  private static class FilterClause {
+
+    private final String query;
+
+    /** Cacheable superset of the query, {@code null} if the query itself is cached. */
+    private final String window;
+
+    private FilterClause(String query, String window) {
+      this.query = query;
+      this.window = window;
+    }
+  }
 }
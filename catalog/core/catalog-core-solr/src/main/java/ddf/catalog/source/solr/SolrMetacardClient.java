@@ -16,6 +16,7 @@
 import ddf.catalog.data.ContentType;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardCreationException;
+import ddf.catalog.data.Result;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.source.UnsupportedQueryException;
@@ -23,6 +24,7 @@
 import java.io.Serializable;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 import javax.annotation.Nullable;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.common.SolrInputDocument;
@@ -31,7 +33,8 @@
 public interface SolrMetacardClient {
   /**
    * Converts a {@link QueryRequest} into a Solr query and returns the result as a {@link
-   * SourceResponse}.
+   * SourceResponse}. A page size less than 1 returns a bounded number of results; use {@link
+   * #stream(QueryRequest, Consumer)} to read every matching result.
    *
    * @param request query request to execute against Solr
    * @return converted Solr response
@@ -48,6 +51,19 @@ public interface SolrMetacardClient {
    */
   List<Metacard> query(String queryString) throws UnsupportedQueryException;
 
+  /**
+   * Converts a {@link QueryRequest} into a Solr query and streams the matching results, one at a
+   * time, to the {@link Consumer} provided. Results are retrieved from Solr in cursor-based pages
+   * and handed to the consumer as they are read from the response, so the complete result set is
+   * never held in memory. A page size less than 1 streams every matching result.
+   *
+   * @param request query request to execute against Solr
+   * @param consumer consumer that will receive each {@link Result}, in order
+   * @return total number of hits that match the query
+   * @throws UnsupportedQueryException if the query is not supported
+   */
+  long stream(QueryRequest request, Consumer<Result> consumer) throws UnsupportedQueryException;
+
   /** @return set of supported content types. */
   Set<ContentType> getContentTypes();
 
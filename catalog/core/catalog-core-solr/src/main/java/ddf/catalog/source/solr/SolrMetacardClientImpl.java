@@ -13,8 +13,11 @@
  */
 package ddf.catalog.source.solr;
 
+import static ddf.catalog.Constants.CURSOR_MARK_KEY;
 import static ddf.catalog.Constants.EXPERIMENTAL_FACET_PROPERTIES_KEY;
 import static ddf.catalog.Constants.EXPERIMENTAL_FACET_RESULTS_KEY;
+import static ddf.catalog.Constants.INITIAL_CURSOR_MARK;
+import static ddf.catalog.Constants.NEXT_CURSOR_MARK_KEY;
 import static ddf.catalog.source.solr.DynamicSchemaResolver.FIRST_CHAR_OF_SUFFIX;
 
 import com.google.common.collect.Sets;
@@ -23,7 +26,6 @@
 import ddf.catalog.data.ContentType;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardCreationException;
-import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.ContentTypeImpl;
@@ -31,10 +33,13 @@
 import ddf.catalog.data.impl.ResultImpl;
 import ddf.catalog.filter.FilterAdapter;
 import ddf.catalog.operation.FacetAttributeResult;
+import ddf.catalog.operation.Query;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.operation.TermFacetProperties;
 import ddf.catalog.operation.impl.FacetAttributeResultImpl;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.operation.impl.QueryResponseImpl;
 import ddf.catalog.operation.impl.SourceResponseImpl;
 import ddf.catalog.source.UnsupportedQueryException;
@@ -50,13 +55,20 @@
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import javax.annotation.Nullable;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.Transformer;
 import org.apache.solr.client.solrj.SolrClient;
 import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.SolrServerException;
+import org.apache.solr.client.solrj.StreamingResponseCallback;
+import org.apache.solr.client.solrj.impl.StreamingBinaryResponseParser;
 import org.apache.solr.client.solrj.request.AbstractUpdateRequest;
 import org.apache.solr.client.solrj.response.FacetField;
 import org.apache.solr.client.solrj.response.PivotField;
@@ -65,6 +77,7 @@
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrException;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.locationtech.spatial4j.distance.DistanceUtils;
 import org.opengis.filter.sort.SortBy;
 import org.opengis.filter.sort.SortOrder;
@@ -94,6 +107,32 @@ public class SolrMetacardClientImpl implements SolrMetacardClient {
 
   public static final String EXCLUDE_ATTRIBUTES = "excludeAttributes";
 
+  /** Field used as the tiebreak sort of cursor-based queries. Must be the Solr unique key. */
+  private static final String UNIQUE_KEY_FIELD = Metacard.ID + SchemaFields.TEXT_SUFFIX;
+
+  private static final int STREAM_PAGE_SIZE =
+      Integer.getInteger("solr.client.streamPageSize", 1000);
+
+  /**
+   * Maximum number of results returned by {@link #query(QueryRequest)} for a query with an
+   * unlimited page size. Callers that need every result use {@link #stream(QueryRequest,
+   * Consumer)}.
+   */
+  private static final int MAX_UNLIMITED_RESULTS =
+      Integer.getInteger("solr.client.maxUnlimitedResults", 10000);
+
+  /** Pages with at least this many documents are converted to results concurrently. */
+  private static final int PARALLEL_CONVERSION_THRESHOLD =
+      Integer.getInteger("solr.client.parallelConversionThreshold", 1000);
+
+  private static final int CONVERSION_BATCH_SIZE = 250;
+
+  private static final int CONVERSION_PARALLELISM =
+      Integer.getInteger(
+          "solr.client.conversionParallelism", Runtime.getRuntime().availableProcessors());
+
+  private final ForkJoinPool conversionPool = new ForkJoinPool(CONVERSION_PARALLELISM);
+
   private final SolrClient client;
 
   private final SolrFilterDelegateFactory filterDelegateFactory;
@@ -117,12 +156,33 @@ public SolrClient getClient() {
     return client;
   }
 
+  /** Stops the threads that convert large pages of results. The Solr client isn't closed. */
+  public void shutdown() {
+    conversionPool.shutdown();
+  }
+
   @Override
   public SourceResponse query(QueryRequest request) throws UnsupportedQueryException {
     if (request == null || request.getQuery() == null) {
       return new QueryResponseImpl(request, new ArrayList<Result>(), true, 0L);
     }
 
+    if (queryingForAllRecords(request)
+        && getCursorMark(request) == null
+        && !(request.getPropertyValue(EXPERIMENTAL_FACET_PROPERTIES_KEY)
+            instanceof TermFacetProperties)) {
+      // Page through the results with a cursor rather than asking Solr for every row at once
+      List<Result> results = new ArrayList<>();
+      long totalHits = stream(request, results::add, MAX_UNLIMITED_RESULTS);
+      if (totalHits - (request.getQuery().getStartIndex() - 1) > results.size()) {
+        LOGGER.warn(
+            "Query with an unlimited page size matched {} results, only returning the first {}.",
+            totalHits,
+            results.size());
+      }
+      return new SourceResponseImpl(request, new HashMap<>(), results, totalHits);
+    }
+
     SolrQuery query = getSolrQuery(request, filterDelegateFactory.newInstance(resolver));
 
     boolean isFacetedQuery = false;
@@ -148,13 +208,17 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
     }
 
     long totalHits;
-    List<Result> results = new ArrayList<>();
+    List<Result> results;
     Map<String, Serializable> responseProps = new HashMap<>();
     try {
       QueryResponse solrResponse = client.query(query, SolrRequest.METHOD.POST);
       totalHits = solrResponse.getResults().getNumFound();
       SolrDocumentList docs = solrResponse.getResults();
 
+      if (solrResponse.getNextCursorMark() != null) {
+        responseProps.put(NEXT_CURSOR_MARK_KEY, solrResponse.getNextCursorMark());
+      }
+
       if (isFacetedQuery) {
         List<FacetField> facetFields = solrResponse.getFacetFields();
         if (CollectionUtils.isNotEmpty(facetFields)) {
@@ -164,18 +228,10 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
         }
       }
 
-      for (SolrDocument doc : docs) {
-        if (LOGGER.isDebugEnabled()) {
-          LOGGER.debug("SOLR DOC: {}", doc.getFieldValue(Metacard.ID + SchemaFields.TEXT_SUFFIX));
-        }
-        ResultImpl tmpResult;
-        try {
-          tmpResult = createResult(doc);
-        } catch (MetacardCreationException e) {
-          throw new UnsupportedQueryException("Could not create metacard(s).", e);
-        }
-
-        results.add(tmpResult);
+      try {
+        results = createResults(docs);
+      } catch (MetacardCreationException e) {
+        throw new UnsupportedQueryException("Could not create metacard(s).", e);
       }
 
     } catch (SolrServerException | IOException | SolrException e) {
@@ -185,6 +241,81 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
     return new SourceResponseImpl(request, responseProps, results, totalHits);
   }
 
+  @Override
+  public long stream(QueryRequest request, Consumer<Result> consumer)
+      throws UnsupportedQueryException {
+    return stream(request, consumer, Long.MAX_VALUE);
+  }
+
+  private long stream(QueryRequest request, Consumer<Result> consumer, long maxResults)
+      throws UnsupportedQueryException {
+    if (request == null || request.getQuery() == null) {
+      return 0;
+    }
+
+    Query originalQuery = request.getQuery();
+    if (originalQuery.getStartIndex() < 1) {
+      throw new UnsupportedQueryException("Start index must be greater than 0");
+    }
+
+    long limit =
+        Math.min(
+            originalQuery.getPageSize() > 0 ? originalQuery.getPageSize() : Long.MAX_VALUE,
+            maxResults);
+
+    Map<String, Serializable> properties = new HashMap<>();
+    if (request.getProperties() != null) {
+      properties.putAll(request.getProperties());
+    }
+    properties.put(CURSOR_MARK_KEY, INITIAL_CURSOR_MARK);
+    QueryRequest cursorRequest =
+        new QueryRequestImpl(
+            new QueryImpl(
+                originalQuery,
+                1,
+                STREAM_PAGE_SIZE,
+                originalQuery.getSortBy(),
+                true,
+                originalQuery.getTimeoutMillis()),
+            request.isEnterprise(),
+            request.getSourceIds(),
+            properties);
+
+    SolrQuery query = getSolrQuery(cursorRequest, filterDelegateFactory.newInstance(resolver));
+
+    // Cursors cannot skip ahead, so results before the start index are read and discarded
+    ResultStreamingCallback callback =
+        new ResultStreamingCallback(consumer, originalQuery.getStartIndex() - 1L, limit);
+    String cursorMark = INITIAL_CURSOR_MARK;
+
+    try {
+      while (!callback.isLimitReached()) {
+        query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+        query.setRows((int) Math.min(STREAM_PAGE_SIZE, callback.getRemaining()));
+
+        org.apache.solr.client.solrj.request.QueryRequest solrRequest =
+            new org.apache.solr.client.solrj.request.QueryRequest(query, SolrRequest.METHOD.POST);
+        solrRequest.setStreamingResponseCallback(callback);
+        solrRequest.setResponseParser(new StreamingBinaryResponseParser(callback));
+
+        String nextCursorMark = solrRequest.process(client).getNextCursorMark();
+        if (callback.getFailure() != null) {
+          throw new UnsupportedQueryException(
+              "Could not create metacard(s).", callback.getFailure());
+        }
+
+        if (nextCursorMark == null || nextCursorMark.equals(cursorMark)) {
+          break;
+        }
+        cursorMark = nextCursorMark;
+      }
+    } catch (SolrServerException | IOException | SolrException e) {
+      throw new UnsupportedQueryException("Could not complete solr query.", e);
+    }
+
+    return callback.getNumFound();
+  }
+
   private String addAttributeTypeSuffix(String attribute) {
     return resolver.getAnonymousField(attribute).stream().findFirst().orElse(attribute);
   }
@@ -337,6 +468,10 @@ protected SolrQuery getSolrQuery(QueryRequest request, SolrFilterDelegate solrFi
 
     SolrQuery query = filterAdapter.adapt(request.getQuery(), solrFilterDelegate);
 
+    if (!"true".equals(System.getProperty("solr.client.filterQueries.disable"))) {
+      solrFilterDelegate.planFilterQueries(query);
+    }
+
     return postAdapt(request, solrFilterDelegate, query);
   }
 
@@ -355,10 +490,20 @@ protected SolrQuery postAdapt(
       throw new UnsupportedQueryException("Start index must be greater than 0");
     }
 
-    // Solr is 0-based
-    query.setStart(request.getQuery().getStartIndex() - 1);
+    String cursorMark = getCursorMark(request);
+
+    if (cursorMark != null) {
+      // Cursors replace the start index and require the start to always be 0
+      query.setStart(0);
+      query.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+    } else {
+      // Solr is 0-based
+      query.setStart(request.getQuery().getStartIndex() - 1);
+    }
 
-    if (queryingForAllRecords(request)) {
+    if (cursorMark != null && queryingForAllRecords(request)) {
+      query.setRows(STREAM_PAGE_SIZE);
+    } else if (queryingForAllRecords(request)) {
       try {
         query.setRows(queryForNumberOfRows(query));
       } catch (SolrServerException | IOException | SolrException | ArithmeticException exception) {
@@ -370,6 +515,10 @@ protected SolrQuery postAdapt(
 
     setSortProperty(request, query, filterDelegate);
 
+    if (cursorMark != null) {
+      addTiebreakSort(query);
+    }
+
     filterAttributes(request, query);
 
     return query;
@@ -432,6 +581,29 @@ private boolean skipFilteredAttributes(QueryRequest request) {
         || "true".equals(System.getProperty("solr.client.filterAttributes.disable"));
   }
 
+  @Nullable
+  private String getCursorMark(QueryRequest request) {
+    Serializable cursorMark = request.getPropertyValue(CURSOR_MARK_KEY);
+    return cursorMark instanceof String ? (String) cursorMark : null;
+  }
+
+  /**
+   * Cursors require the sort to be a total ordering of the documents, so the unique key is added as
+   * the last sort clause when it isn't already part of the sort.
+   */
+  private void addTiebreakSort(SolrQuery query) {
+    boolean sortedOnUniqueKey =
+        query
+            .getSorts()
+            .stream()
+            .map(SolrQuery.SortClause::getItem)
+            .anyMatch(UNIQUE_KEY_FIELD::equals);
+
+    if (!sortedOnUniqueKey) {
+      query.addSort(UNIQUE_KEY_FIELD, SolrQuery.ORDER.asc);
+    }
+  }
+
   private boolean queryingForAllRecords(QueryRequest request) {
     return request.getQuery().getPageSize() < 1;
   }
@@ -516,6 +688,41 @@ protected String setSortProperty(
     return resolver.getSortKey(sortProperty);
   }
 
+  /**
+   * Converts the documents of a page to results in order. Large pages are converted concurrently in
+   * {@link #conversionPool}.
+   */
+  private List<Result> createResults(List<SolrDocument> docs) throws MetacardCreationException {
+    List<Result> results = new ArrayList<>(docs.size());
+
+    if (docs.size() < PARALLEL_CONVERSION_THRESHOLD) {
+      for (SolrDocument doc : docs) {
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug("SOLR DOC: {}", doc.getFieldValue(Metacard.ID + SchemaFields.TEXT_SUFFIX));
+        }
+        results.add(createResult(doc));
+      }
+      return results;
+    }
+
+    // Reading a metacard type that isn't cached yet updates the field caches of the resolver, so
+    // the types are read before the documents are converted concurrently
+    for (SolrDocument doc : docs) {
+      resolver.getHydrationPlan(doc);
+    }
+
+    Result[] converted = new Result[docs.size()];
+    AtomicReference<MetacardCreationException> failure = new AtomicReference<>();
+    conversionPool.invoke(new ResultConversionTask(docs, converted, 0, docs.size(), failure));
+
+    if (failure.get() != null) {
+      throw failure.get();
+    }
+
+    results.addAll(Arrays.asList(converted));
+    return results;
+  }
+
   private ResultImpl createResult(SolrDocument doc) throws MetacardCreationException {
     ResultImpl result = new ResultImpl(createMetacard(doc));
 
@@ -539,6 +746,121 @@ private ResultImpl createResult(SolrDocument doc) throws MetacardCreationExcepti
     return result;
   }
 
+  /**
+   * Converts the documents of a streamed Solr response to {@link Result}s as they are parsed and
+   * hands them to a consumer, skipping the first {@code skip} documents and ignoring any document
+   * past the limit.
+   */
+  private class ResultStreamingCallback extends StreamingResponseCallback {
+
+    private final Consumer<Result> consumer;
+
+    private final long limit;
+
+    private long skip;
+
+    private long streamed = 0;
+
+    private long numFound = 0;
+
+    private MetacardCreationException failure;
+
+    ResultStreamingCallback(Consumer<Result> consumer, long skip, long limit) {
+      this.consumer = consumer;
+      this.skip = skip;
+      this.limit = limit;
+    }
+
+    @Override
+    public void streamSolrDocument(SolrDocument doc) {
+      if (skip > 0) {
+        skip--;
+        return;
+      }
+
+      if (isLimitReached() || failure != null) {
+        return;
+      }
+
+      try {
+        consumer.accept(createResult(doc));
+        streamed++;
+      } catch (MetacardCreationException e) {
+        failure = e;
+      }
+    }
+
+    @Override
+    public void streamDocListInfo(long numFound, long start, Float maxScore) {
+      this.numFound = numFound;
+    }
+
+    boolean isLimitReached() {
+      return streamed >= limit;
+    }
+
+    long getRemaining() {
+      return limit == Long.MAX_VALUE ? Long.MAX_VALUE : skip + limit - streamed;
+    }
+
+    long getNumFound() {
+      return numFound;
+    }
+
+    MetacardCreationException getFailure() {
+      return failure;
+    }
+  }
+
+  /**
+   * Converts a range of documents to results, splitting ranges larger than {@link
+   * #CONVERSION_BATCH_SIZE} in halves. Stops converting once a document fails to convert.
+   */
+  private class ResultConversionTask extends RecursiveAction {
+
+    private final List<SolrDocument> docs;
+
+    private final Result[] results;
+
+    private final int from;
+
+    private final int to;
+
+    private final AtomicReference<MetacardCreationException> failure;
+
+    ResultConversionTask(
+        List<SolrDocument> docs,
+        Result[] results,
+        int from,
+        int to,
+        AtomicReference<MetacardCreationException> failure) {
+      this.docs = docs;
+      this.results = results;
+      this.from = from;
+      this.to = to;
+      this.failure = failure;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > CONVERSION_BATCH_SIZE) {
+        int middle = (from + to) >>> 1;
+        invokeAll(
+            new ResultConversionTask(docs, results, from, middle, failure),
+            new ResultConversionTask(docs, results, middle, to, failure));
+        return;
+      }
+
+      for (int i = from; i < to && failure.get() == null; i++) {
+        try {
+          results[i] = createResult(docs.get(i));
+        } catch (MetacardCreationException e) {
+          failure.compareAndSet(null, e);
+        }
+      }
+    }
+  }
+
   private Double degreesToMeters(double distance) {
     return new Distance(
             DistanceUtils.degrees2Dist(distance, DistanceUtils.EARTH_MEAN_RADIUS_KM),
@@ -547,11 +869,16 @@ private Double degreesToMeters(double distance) {
   }
 
   public MetacardImpl createMetacard(SolrDocument doc) throws MetacardCreationException {
-    MetacardType metacardType = resolver.getMetacardType(doc);
-    MetacardImpl metacard = new MetacardImpl(metacardType);
+    MetacardHydrationPlan hydrationPlan = resolver.getHydrationPlan(doc);
+    SolrDocumentMetacard metacard = new SolrDocumentMetacard(hydrationPlan.getMetacardType());
 
     for (String solrFieldName : doc.getFieldNames()) {
-      if (!resolver.isPrivateField(solrFieldName)) {
+      MetacardHydrationPlan.Field field = hydrationPlan.getField(solrFieldName);
+
+      if (field != null) {
+        metacard.addDocumentField(field, doc.getFieldValues(solrFieldName));
+      } else if (!resolver.isPrivateField(solrFieldName)) {
+        // fields that aren't attributes of the metacard type, e.g. added by a subclass
         Collection<Object> fieldValues = doc.getFieldValues(solrFieldName);
         Attribute attr =
             new AttributeImpl(
@@ -14,9 +14,15 @@
 package ddf.catalog.source.solr;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasItems;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
@@ -29,17 +35,23 @@
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.impl.AttributeDescriptorImpl;
 import ddf.catalog.data.impl.BasicTypes;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.codec.MetacardCodec;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import org.apache.commons.io.IOUtils;
+import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
+import org.codice.solr.factory.impl.ConfigurationStore;
+import org.codice.solr.xpath.XpathPathIndex;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
@@ -117,13 +129,138 @@ public void testAdditionalFieldConstructor() throws Exception {
     assertThat(resolver.fieldsCache, hasItem(anotherExtraField));
   }
 
+  @Test
+  public void testAddFieldsIndexesXpathPaths() throws Exception {
+    ConfigurationStore.getInstance().setDisableTextPath(false);
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId("id");
+    metacard.setMetadata(
+        "<ns:rss xmlns:ns=\"urn:example\"><ns:channel ns:lang=\"en\">"
+            + "<title>Title</title><item><title>Item</title></item></ns:channel></ns:rss>");
+    SolrInputDocument solrInputDocument = new SolrInputDocument();
+
+    new DynamicSchemaResolver().addFields(metacard, solrInputDocument);
+
+    Collection<Object> paths = solrInputDocument.getFieldValues(XpathPathIndex.PATHS_FIELD_NAME);
+    assertThat(
+        paths,
+        containsInAnyOrder(
+            XpathPathIndex.INDEXED_MARKER,
+            "/rss",
+            "/rss/channel",
+            "/rss/channel/@lang",
+            "/rss/channel/title",
+            "/rss/channel/item",
+            "/rss/channel/item/title",
+            "//rss",
+            "//channel",
+            "//@lang",
+            "//title",
+            "//item"));
+    List<String> elementPaths = XpathPathIndex.getRequiredPaths("/rss/channel/ns:item[title]");
+    assertThat(paths, hasItems(elementPaths.toArray()));
+    List<String> attributePaths =
+        XpathPathIndex.getRequiredPaths("//channel/@ns:lang[contains(., 'en')]");
+    assertThat(paths, hasItems(attributePaths.toArray()));
+    assertThat(paths, not(hasItem("/rss/title")));
+  }
+
+  @Test
+  public void testAddFieldsDoesNotIndexXpathPathsWhenTextPathDisabled() throws Exception {
+    ConfigurationStore.getInstance().setDisableTextPath(true);
+    try {
+      MetacardImpl metacard = new MetacardImpl();
+      metacard.setId("id");
+      metacard.setMetadata("<rss><channel/></rss>");
+      SolrInputDocument solrInputDocument = new SolrInputDocument();
+
+      new DynamicSchemaResolver().addFields(metacard, solrInputDocument);
+
+      assertThat(solrInputDocument.containsKey(XpathPathIndex.PATHS_FIELD_NAME), is(false));
+    } finally {
+      ConfigurationStore.getInstance().setDisableTextPath(false);
+    }
+  }
+
+  @Test
+  public void testIndexPlanIsCompiledOncePerMetacardType() throws Exception {
+    DynamicSchemaResolver resolver = new DynamicSchemaResolver();
+    MetacardType metacardType = new MetacardImpl().getMetacardType();
+
+    MetacardIndexPlan indexPlan = resolver.getIndexPlan(metacardType);
+
+    assertThat(resolver.getIndexPlan(metacardType), sameInstance(indexPlan));
+    MetacardIndexPlan.Field title =
+        indexPlan
+            .getFields()
+            .stream()
+            .filter(field -> Metacard.TITLE.equals(field.getAttributeName()))
+            .findFirst()
+            .get();
+    assertThat(title.getFormatIndexName(), is("title_txt"));
+    assertThat(title.getTokenizedTextIndexName(), is("title_txt_tokenized"));
+    assertThat(title.getSortKeyName(), is("title_txt_sk"));
+  }
+
+  @Test
+  public void testHydrationPlanResolvesStoredFields() throws Exception {
+    ConfigurationStore.getInstance().setDisableTextPath(true);
+    try {
+      DynamicSchemaResolver resolver = new DynamicSchemaResolver();
+      MetacardImpl metacard = new MetacardImpl();
+      metacard.setId("id");
+      metacard.setTitle("title");
+      SolrInputDocument solrInputDocument = new SolrInputDocument();
+      resolver.addFields(metacard, solrInputDocument);
+      SolrDocument doc = new SolrDocument();
+      for (SolrInputField field : solrInputDocument) {
+        doc.setField(field.getName(), field.getValue());
+      }
+
+      MetacardHydrationPlan hydrationPlan = resolver.getHydrationPlan(doc);
+
+      assertThat(resolver.getHydrationPlan(doc), sameInstance(hydrationPlan));
+      assertThat(
+          hydrationPlan.getMetacardType().getName(), is(metacard.getMetacardType().getName()));
+      MetacardHydrationPlan.Field title = hydrationPlan.getField("title_txt");
+      assertThat(title.getAttributeName(), is(Metacard.TITLE));
+      assertThat(title.getValues(doc.getFieldValues("title_txt")), contains("title"));
+      assertThat(hydrationPlan.getField("title_txt_tokenized"), nullValue());
+      assertThat(hydrationPlan.getField(SchemaFields.METACARD_TYPE_FIELD_NAME), nullValue());
+    } finally {
+      ConfigurationStore.getInstance().setDisableTextPath(false);
+    }
+  }
+
+  @Test
+  public void testMetacardTypeCodec() throws Exception {
+    System.setProperty(DynamicSchemaResolver.METACARD_TYPE_CODEC_PROPERTY, "true");
+    try {
+      MetacardImpl metacard = new MetacardImpl();
+      metacard.setId("id");
+      SolrInputDocument solrInputDocument = new SolrInputDocument();
+      new DynamicSchemaResolver().addFields(metacard, solrInputDocument);
+      SolrDocument doc = new SolrDocument();
+      for (SolrInputField field : solrInputDocument) {
+        doc.setField(field.getName(), field.getValue());
+      }
+      byte[] metacardTypeBytes =
+          (byte[]) doc.getFirstValue(SchemaFields.METACARD_TYPE_OBJECT_FIELD_NAME);
+
+      assertThat(MetacardCodec.isEncoded(metacardTypeBytes), is(true));
+      assertThat(
+          new DynamicSchemaResolver().getMetacardType(doc).getName(),
+          is(metacard.getMetacardType().getName()));
+    } finally {
+      System.clearProperty(DynamicSchemaResolver.METACARD_TYPE_CODEC_PROPERTY);
+    }
+  }
+
   private MetacardType deserializeMetacardType(byte[] serializedMetacardType)
       throws ClassNotFoundException, IOException {
-    ByteArrayInputStream bais = new ByteArrayInputStream((byte[]) serializedMetacardType);
-    ObjectInputStream in = new ObjectInputStream(bais);
-    MetacardType metacardType = (MetacardType) in.readObject();
-    IOUtils.closeQuietly(bais);
-    IOUtils.closeQuietly(in);
-    return metacardType;
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(serializedMetacardType))) {
+      return (MetacardType) in.readObject();
+    }
   }
 }
@@ -0,0 +1,168 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.filter.FilterAdapter;
+import ddf.catalog.filter.FilterBuilder;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
+import ddf.catalog.operation.impl.CreateRequestImpl;
+import ddf.catalog.operation.impl.QueryImpl;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.codice.solr.factory.impl.ConfigurationFileProxy;
+import org.codice.solr.factory.impl.ConfigurationStore;
+import org.codice.solr.factory.impl.EmbeddedSolrFactory;
+import org.opengis.filter.Filter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares queries sent with every clause in the main query to the same queries with their
+ * non-scoring clauses planned into filter queries by {@link
+ * SolrFilterDelegate#planFilterQueries(SolrQuery)}. The queries mimic the catalog framework, which
+ * adds the same tag constraints to every query. Not run as part of the build.
+ *
+ * <p>Usage: {@code FilterQueryPlanBenchmark [documents] [queries]}
+ */
+public class FilterQueryPlanBenchmark {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(FilterQueryPlanBenchmark.class);
+
+  private static final int BATCH_SIZE = 1000;
+
+  private static final String[] WORDS = {
+    "airport", "harbor", "bridge", "runway", "tower", "river", "station", "depot", "market", "field"
+  };
+
+  private static final FilterBuilder FILTER_BUILDER = new GeotoolsFilterBuilder();
+
+  private static final FilterAdapter FILTER_ADAPTER = new GeotoolsFilterAdapterImpl();
+
+  public static void main(String[] args) throws Exception {
+    int documents = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+    int queries = args.length > 1 ? Integer.parseInt(args[1]) : 500;
+
+    System.setProperty("ddf.home", Paths.get("target/benchmark/solr").toString());
+    ConfigurationStore.getInstance().setInMemory(true);
+    ConfigurationStore.getInstance().setForceAutoCommit(true);
+
+    SolrClient client =
+        EmbeddedSolrFactory.getEmbeddedSolrServer(
+            "catalog",
+            "solrconfig-inmemory.xml",
+            "schema.xml",
+            new ConfigurationFileProxy(ConfigurationStore.getInstance()));
+    SolrCatalogProvider provider =
+        new SolrCatalogProvider(
+            client, new GeotoolsFilterAdapterImpl(), new SolrFilterDelegateFactoryImpl());
+
+    try {
+      ingest(provider, documents);
+
+      DynamicSchemaResolver resolver = new DynamicSchemaResolver();
+      resolver.addFieldsFromClient(client);
+
+      List<Filter> filters = createFilters(queries);
+
+      // warm up both paths so neither pays for loading the index
+      run(client, resolver, filters, false);
+      run(client, resolver, filters, true);
+
+      LOGGER.info(
+          "Single main query: {} ms for {} queries",
+          run(client, resolver, filters, false),
+          queries);
+      LOGGER.info(
+          "Planned filter queries: {} ms for {} queries",
+          run(client, resolver, filters, true),
+          queries);
+    } finally {
+      provider.shutdown();
+    }
+  }
+
+  private static void ingest(SolrCatalogProvider provider, int documents) throws Exception {
+    Random random = new Random(0);
+    long now = System.currentTimeMillis();
+    List<Metacard> batch = new ArrayList<>(BATCH_SIZE);
+
+    for (int i = 0; i < documents; i++) {
+      MetacardImpl metacard = new MetacardImpl();
+      metacard.setTitle(WORDS[random.nextInt(WORDS.length)] + " " + i);
+      metacard.setDescription(
+          WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)]);
+      metacard.setCreatedDate(new Date(now - TimeUnit.DAYS.toMillis(random.nextInt(365))));
+      metacard.setTags(Collections.singleton(i % 10 == 0 ? "revision" : "resource"));
+      batch.add(metacard);
+
+      if (batch.size() == BATCH_SIZE || i == documents - 1) {
+        provider.create(new CreateRequestImpl(batch));
+        batch = new ArrayList<>(BATCH_SIZE);
+      }
+    }
+
+    LOGGER.info("Ingested {} documents", documents);
+  }
+
+  private static List<Filter> createFilters(int queries) {
+    Filter nonVersionTags =
+        FILTER_BUILDER.not(
+            FILTER_BUILDER.anyOf(
+                FILTER_BUILDER.attribute(Metacard.TAGS).is().like().text("revision"),
+                FILTER_BUILDER.attribute(Metacard.TAGS).is().like().text("deleted")));
+    Filter lastMonth =
+        FILTER_BUILDER.attribute(Metacard.CREATED).during().last(TimeUnit.DAYS.toMillis(30));
+
+    List<Filter> filters = new ArrayList<>(queries);
+    for (int i = 0; i < queries; i++) {
+      Filter text =
+          FILTER_BUILDER
+              .attribute(Metacard.ANY_TEXT)
+              .is()
+              .like()
+              .text(WORDS[i % WORDS.length] + " " + (i % 7 == 0 ? "*" : WORDS[i % 3]));
+      filters.add(FILTER_BUILDER.allOf(Arrays.asList(nonVersionTags, lastMonth, text)));
+    }
+    return filters;
+  }
+
+  private static long run(
+      SolrClient client, DynamicSchemaResolver resolver, List<Filter> filters, boolean planned)
+      throws Exception {
+    long start = System.nanoTime();
+
+    for (Filter filter : filters) {
+      SolrFilterDelegate delegate = new SolrFilterDelegate(resolver);
+      SolrQuery query = FILTER_ADAPTER.adapt(new QueryImpl(filter), delegate);
+      if (planned) {
+        delegate.planFilterQueries(query);
+      }
+      query.setRows(10);
+      client.query(query);
+    }
+
+    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+  }
+}
@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.AttributeType.AttributeFormat;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
+import org.codice.solr.factory.impl.ConfigurationStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Measures how many documents per second {@link DynamicSchemaResolver#addFields(Metacard,
+ * SolrInputDocument)} indexes and {@link SolrMetacardClientImpl#createMetacard(SolrDocument)}
+ * hydrates with the compiled metacard type plans. Both are also measured the way they were done
+ * before the plans: indexing building the field names of every attribute of every metacard, and
+ * hydration resolving every field name of every document. Not run as part of the build.
+ *
+ * <p>Usage: {@code MetacardTypePlanBenchmark [documents] [iterations]}
+ */
+public class MetacardTypePlanBenchmark {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MetacardTypePlanBenchmark.class);
+
+  public static void main(String[] args) throws Exception {
+    int documents = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+    int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+
+    ConfigurationStore.getInstance().setDisableTextPath(true);
+
+    DynamicSchemaResolver resolver = new DynamicSchemaResolver();
+    DynamicSchemaResolver uncachedResolver = new UncachedIndexPlanResolver();
+    SolrMetacardClientImpl client =
+        new SolrMetacardClientImpl(
+            null, new GeotoolsFilterAdapterImpl(), new SolrFilterDelegateFactoryImpl(), resolver);
+
+    List<Metacard> metacards = createMetacards(documents);
+    List<SolrDocument> docs = new ArrayList<>(documents);
+    for (Metacard metacard : metacards) {
+      docs.add(toSolrDocument(index(resolver, metacard)));
+    }
+
+    for (int round = 0; round < 2; round++) {
+      // the first round warms up the JIT and the caches
+      long indexed = 0;
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        for (Metacard metacard : metacards) {
+          indexed += index(uncachedResolver, metacard).size();
+        }
+      }
+      report("addFields building every field name", documents * iterations, start, indexed);
+
+      indexed = 0;
+      start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        for (Metacard metacard : metacards) {
+          indexed += index(resolver, metacard).size();
+        }
+      }
+      report("addFields with index plan", documents * iterations, start, indexed);
+
+      long hydrated = 0;
+      start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        for (SolrDocument doc : docs) {
+          hydrated += countAttributes(resolveEveryField(resolver, doc));
+        }
+      }
+      report("createMetacard resolving every field", documents * iterations, start, hydrated);
+
+      hydrated = 0;
+      start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        for (SolrDocument doc : docs) {
+          hydrated += countAttributes(client.createMetacard(doc));
+        }
+      }
+      report("createMetacard with hydration plan", documents * iterations, start, hydrated);
+    }
+  }
+
+  private static List<Metacard> createMetacards(int documents) {
+    List<Metacard> metacards = new ArrayList<>(documents);
+    Date now = new Date();
+
+    for (int i = 0; i < documents; i++) {
+      MetacardImpl metacard = new MetacardImpl();
+      metacard.setId("id" + i);
+      metacard.setTitle("Title " + i);
+      metacard.setDescription("Description of metacard " + i);
+      metacard.setContentTypeName("text/plain");
+      metacard.setContentTypeVersion("1.0");
+      metacard.setCreatedDate(now);
+      metacard.setModifiedDate(now);
+      metacard.setEffectiveDate(now);
+      metacard.setLocation("POINT (" + (i % 180) + " " + (i % 90) + ")");
+      metacard.setResourceSize(Integer.toString(i));
+      metacard.setTags(Collections.singleton("resource"));
+      metacards.add(metacard);
+    }
+
+    return metacards;
+  }
+
+  private static SolrInputDocument index(DynamicSchemaResolver resolver, Metacard metacard)
+      throws Exception {
+    SolrInputDocument doc = new SolrInputDocument();
+    resolver.addFields(metacard, doc);
+    return doc;
+  }
+
+  /** Stores the fields the way the catalog schema does, without the indexed only fields. */
+  private static SolrDocument toSolrDocument(SolrInputDocument inputDoc) {
+    SolrDocument doc = new SolrDocument();
+    for (SolrInputField field : inputDoc) {
+      String name = field.getName();
+      if (!name.endsWith(SchemaFields.TOKENIZED) && !name.endsWith(SchemaFields.SORT_KEY_SUFFIX)) {
+        doc.setField(name, field.getValue());
+      }
+    }
+    return doc;
+  }
+
+  private static Metacard resolveEveryField(DynamicSchemaResolver resolver, SolrDocument doc)
+      throws Exception {
+    MetacardImpl metacard = new MetacardImpl(resolver.getMetacardType(doc));
+
+    for (String solrFieldName : doc.getFieldNames()) {
+      if (!resolver.isPrivateField(solrFieldName)) {
+        metacard.setAttribute(
+            new AttributeImpl(
+                resolver.resolveFieldName(solrFieldName),
+                resolver.getDocValues(solrFieldName, doc.getFieldValues(solrFieldName))));
+      }
+    }
+
+    return metacard;
+  }
+
+  /** Reads every attribute, so lazily hydrated metacards convert all their values. */
+  private static int countAttributes(Metacard metacard) {
+    int count = 0;
+    for (AttributeDescriptor descriptor : metacard.getMetacardType().getAttributeDescriptors()) {
+      if (metacard.getAttribute(descriptor.getName()) != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /** Builds the field names of every attribute for each indexed metacard, like before the plans. */
+  private static class UncachedIndexPlanResolver extends DynamicSchemaResolver {
+
+    @Override
+    MetacardIndexPlan getIndexPlan(MetacardType metacardType) {
+      List<MetacardIndexPlan.Field> fields = new ArrayList<>();
+
+      for (AttributeDescriptor ad : metacardType.getAttributeDescriptors()) {
+        AttributeFormat format = ad.getType().getAttributeFormat();
+        String formatIndexName = ad.getName() + getFieldSuffix(format);
+        String textIndexName = ad.getName() + getFieldSuffix(AttributeFormat.STRING);
+
+        fields.add(
+            new MetacardIndexPlan.Field(
+                ad.getName(),
+                format,
+                formatIndexName,
+                textIndexName,
+                textIndexName + getSpecialIndexSuffix(AttributeFormat.STRING),
+                formatIndexName + getSpecialIndexSuffix(AttributeFormat.STRING),
+                formatIndexName + SchemaFields.SORT_KEY_SUFFIX));
+      }
+
+      return new MetacardIndexPlan(
+          String.format("%s#%s", metacardType.getName(), metacardType.hashCode()), fields);
+    }
+  }
+
+  private static void report(String name, int documents, long start, long checksum) {
+    long millis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    LOGGER.info(
+        "{}: {} docs/sec ({} documents in {} ms, checksum {})",
+        name,
+        documents * 1000L / millis,
+        documents,
+        millis,
+        checksum);
+  }
+}
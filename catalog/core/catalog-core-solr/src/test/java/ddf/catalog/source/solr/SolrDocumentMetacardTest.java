@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import org.apache.solr.common.SolrDocument;
+import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.SolrInputField;
+import org.codice.solr.factory.impl.ConfigurationStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SolrDocumentMetacardTest {
+
+  private SolrDocumentMetacard metacard;
+
+  @Before
+  public void setUp() throws Exception {
+    ConfigurationStore.getInstance().setDisableTextPath(true);
+
+    DynamicSchemaResolver resolver = new DynamicSchemaResolver();
+    MetacardImpl original = new MetacardImpl();
+    original.setId("id");
+    original.setTitle("title");
+    original.setDescription("description");
+    SolrInputDocument solrInputDocument = new SolrInputDocument();
+    resolver.addFields(original, solrInputDocument);
+    SolrDocument doc = new SolrDocument();
+    for (SolrInputField field : solrInputDocument) {
+      doc.setField(field.getName(), field.getValue());
+    }
+
+    MetacardHydrationPlan hydrationPlan = resolver.getHydrationPlan(doc);
+    metacard = new SolrDocumentMetacard(hydrationPlan.getMetacardType());
+    for (String solrFieldName : new String[] {"id_txt", "title_txt", "description_txt"}) {
+      metacard.addDocumentField(
+          hydrationPlan.getField(solrFieldName), doc.getFieldValues(solrFieldName));
+    }
+    // the metacard only keeps the values of its fields
+    doc.clear();
+  }
+
+  @After
+  public void tearDown() {
+    ConfigurationStore.getInstance().setDisableTextPath(false);
+  }
+
+  @Test
+  public void testGetAttributeConvertsDocumentFieldOnce() {
+    assertThat(metacard.getTitle(), is("title"));
+    assertThat(
+        metacard.getAttribute(Metacard.TITLE), sameInstance(metacard.getAttribute(Metacard.TITLE)));
+    assertThat(metacard.getAttribute(Metacard.POINT_OF_CONTACT), nullValue());
+  }
+
+  @Test
+  public void testSetAttributeReplacesDocumentField() {
+    metacard.setTitle("other");
+    metacard.setAttribute(Metacard.DESCRIPTION, null);
+
+    assertThat(metacard.getTitle(), is("other"));
+    assertThat(metacard.getAttribute(Metacard.DESCRIPTION), nullValue());
+    assertThat(metacard.getAttributeNames(), containsInAnyOrder(Metacard.ID, Metacard.TITLE));
+  }
+
+  @Test
+  public void testSerializesAsMetacardImpl() throws Exception {
+    metacard.setSourceId("source");
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+      out.writeObject(metacard);
+    }
+
+    Object copy;
+    try (ObjectInputStream in =
+        new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      copy = in.readObject();
+    }
+
+    assertThat(copy.getClass().getName(), is(MetacardImpl.class.getName()));
+    MetacardImpl copiedMetacard = (MetacardImpl) copy;
+    assertThat(copiedMetacard.getId(), is("id"));
+    assertThat(copiedMetacard.getTitle(), is("title"));
+    assertThat(copiedMetacard.getDescription(), is("description"));
+    assertThat(copiedMetacard.getSourceId(), is("source"));
+  }
+}
@@ -14,6 +14,7 @@
 package ddf.catalog.source.solr;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.CoreMatchers.startsWith;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
@@ -419,12 +420,104 @@ public void testDatePropertyIsBetween() {
     assertThat(temporalQuery.getQuery(), is(expectedQuery));
   }
 
+  @Test
+  public void testPlanFilterQueriesMovesFilterClauses() {
+    stubPlanFields();
+    SolrQuery query =
+        toTest.and(
+            Arrays.asList(
+                toTest.propertyIsLike("title", "foo", false),
+                toTest.propertyIsLike(Metacard.TAGS, "resource", false),
+                toTest.propertyIsBetween(
+                    Metacard.CREATED,
+                    getCannedTime(),
+                    getCannedTime(1995, Calendar.NOVEMBER, 27, 4))));
+
+    toTest.planFilterQueries(query);
+
+    assertThat(query.getQuery(), is("title_txt:\"foo\""));
+    assertThat(
+        query.getFilterQueries(),
+        is(
+            new String[] {
+              "metacard-tags_txt:\"resource\"",
+              " created_date:[ 1995-11-24T23:00:00.000Z TO 1995-11-27T05:00:00.000Z ] ",
+              "{!cache=false} created_date:[ 1995-11-24T23:59:56.765Z TO 1995-11-27T04:59:56.765Z ] "
+            }));
+  }
+
+  @Test
+  public void testPlanFilterQueriesKeepsScoredDisjunctions() {
+    stubPlanFields();
+    SolrQuery nonVersionTags =
+        toTest.not(
+            toTest.or(
+                Arrays.asList(
+                    toTest.propertyIsLike(Metacard.TAGS, "revision", false),
+                    toTest.propertyIsLike(Metacard.TAGS, "deleted", false))));
+    SolrQuery userQuery =
+        toTest.or(
+            Arrays.asList(
+                toTest.propertyIsLike("title", "foo", false),
+                toTest.propertyIsLike(Metacard.TAGS, "resource", false)));
+    SolrQuery query = toTest.and(Arrays.asList(nonVersionTags, userQuery));
+
+    toTest.planFilterQueries(query);
+
+    assertThat(query.getQuery(), is(" ( title_txt:\"foo\" OR metacard-tags_txt:\"resource\" ) "));
+    assertThat(
+        query.getFilterQueries(),
+        is(
+            new String[] {
+              " NOT  ( metacard-tags_txt:\"revision\" OR metacard-tags_txt:\"deleted\" ) "
+            }));
+  }
+
+  @Test
+  public void testPlanFilterQueriesWithOnlyFilterClauses() {
+    stubPlanFields();
+    SolrQuery query =
+        toTest.and(
+            Arrays.asList(
+                toTest.propertyIsLike(Metacard.TAGS, "resource", false),
+                toTest.propertyIsEqualTo(Metacard.CREATED, getCannedTime())));
+
+    toTest.planFilterQueries(query);
+
+    assertThat(query.getQuery(), is("*:*"));
+    assertThat(
+        query.getFilterQueries(),
+        is(
+            new String[] {
+              "metacard-tags_txt:\"resource\"", " created_date:\"1995-11-24T23:59:56.765Z\""
+            }));
+  }
+
+  @Test
+  public void testPlanFilterQueriesWithoutFilterClauses() {
+    stubPlanFields();
+    SolrQuery query =
+        toTest.and(
+            Arrays.asList(
+                toTest.propertyIsLike("title", "foo", false),
+                toTest.propertyIsLike("title", "bar", false)));
+    String expectedQuery = query.getQuery();
+
+    toTest.planFilterQueries(query);
+
+    assertThat(query.getQuery(), is(expectedQuery));
+    assertThat(query.getFilterQueries(), is(nullValue()));
+  }
+
   @Test
   public void testXpathExists() {
     String xpath = "//root/sub/@attribute";
     String expectedQuery = "{!xpath}xpath:\"" + xpath + "\"";
+    String expectedIndex = "{!xpath}xpath_index:\"" + xpath + "\"";
     SolrQuery xpathQuery = toTest.xpathExists(xpath);
+    assertThat(xpathQuery.getFilterQueries().length, is(2));
     assertThat(xpathQuery.getFilterQueries()[0], is(expectedQuery));
+    assertThat(xpathQuery.getFilterQueries()[1], is(expectedIndex));
   }
 
   @Test
@@ -460,10 +553,34 @@ public void testXpathOR() {
             + "(xpath_index:\""
             + xpath
             + "[contains(lower-case(.), 'example2')]\")";
-    // TODO DDF-1882 support xpath pre-filtering
-    //        assertThat(combinedQuery.getFilterQueries().length, is(2));
+    assertThat(combinedQuery.getFilterQueries().length, is(2));
     assertThat(combinedQuery.getFilterQueries()[0], is(combinedExpectedFilter));
-    //        assertThat(combinedQuery.getFilterQueries()[1], is(expectedIndex));
+    assertThat(combinedQuery.getFilterQueries()[1], is(expectedIndex));
+  }
+
+  @Test
+  public void testXpathNestedAndOr() {
+    String xpath1 = "//root/a";
+    String xpath2 = "//root/b";
+    String xpath3 = "//root/c";
+
+    SolrQuery andQuery =
+        toTest.and(Arrays.asList(toTest.xpathExists(xpath1), toTest.xpathExists(xpath2)));
+    SolrQuery combinedQuery = toTest.or(Arrays.asList(andQuery, toTest.xpathExists(xpath3)));
+
+    String combinedExpectedFilter =
+        "{!xpath}xpath:\"((" + xpath1 + " and " + xpath2 + ") or " + xpath3 + ")\"";
+    String expectedIndex =
+        "{!xpath}((xpath_index:\""
+            + xpath1
+            + "\") AND (xpath_index:\""
+            + xpath2
+            + "\")) OR (xpath_index:\""
+            + xpath3
+            + "\")";
+    assertThat(combinedQuery.getFilterQueries().length, is(2));
+    assertThat(combinedQuery.getFilterQueries()[0], is(combinedExpectedFilter));
+    assertThat(combinedQuery.getFilterQueries()[1], is(expectedIndex));
   }
 
   @Test
@@ -477,6 +594,14 @@ public void testPropertyIsInProximityTo() {
     assertThat(solrQuery.getQuery(), is(expectedQuery));
   }
 
+  private void stubPlanFields() {
+    stub(mockResolver.getField("title", AttributeFormat.STRING, false)).toReturn("title_txt");
+    stub(mockResolver.getField(Metacard.TAGS, AttributeFormat.STRING, false))
+        .toReturn("metacard-tags_txt");
+    stub(mockResolver.getField("created", AttributeFormat.DATE, false)).toReturn("created_date");
+    stub(mockResolver.getField("created", AttributeFormat.DATE, true)).toReturn("created_date");
+  }
+
   private Date getCannedTime() {
     return getCannedTime(1995, Calendar.NOVEMBER, 24, 23);
   }
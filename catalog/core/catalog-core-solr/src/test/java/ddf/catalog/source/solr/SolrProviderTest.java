@@ -13,7 +13,10 @@
  */
 package ddf.catalog.source.solr;
 
+import static ddf.catalog.Constants.CURSOR_MARK_KEY;
 import static ddf.catalog.Constants.EXPERIMENTAL_FACET_RESULTS_KEY;
+import static ddf.catalog.Constants.INITIAL_CURSOR_MARK;
+import static ddf.catalog.Constants.NEXT_CURSOR_MARK_KEY;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.closeTo;
@@ -4610,6 +4613,99 @@ public void testStartIndex() throws Exception {
     }
   }
 
+  @Test
+  public void testCursorPaging() throws Exception {
+    deleteAllIn(provider);
+
+    List<Metacard> list = new ArrayList<>();
+    for (int i = 0; i < 7; i++) {
+      list.add(new MockMetacard(Library.getFlagstaffRecord()));
+    }
+
+    create(list);
+
+    QueryImpl query =
+        new CommonQueryBuilder().queryByProperty(Metacard.TITLE, FLAGSTAFF_QUERY_PHRASE);
+    query.setPageSize(3);
+    query.setRequestsTotalResultsCount(true);
+
+    Set<String> foundIds = new HashSet<>();
+    String cursorMark = INITIAL_CURSOR_MARK;
+    int pages = 0;
+
+    while (true) {
+      Map<String, Serializable> properties = new HashMap<>();
+      properties.put(CURSOR_MARK_KEY, cursorMark);
+      SourceResponse sourceResponse = provider.query(new QueryRequestImpl(query, properties));
+
+      assertThat(sourceResponse.getHits(), is(7L));
+      sourceResponse.getResults().forEach(r -> foundIds.add(r.getMetacard().getId()));
+
+      String nextCursorMark = (String) sourceResponse.getProperties().get(NEXT_CURSOR_MARK_KEY);
+      assertThat(nextCursorMark, notNullValue());
+      if (nextCursorMark.equals(cursorMark)) {
+        break;
+      }
+      cursorMark = nextCursorMark;
+      pages++;
+    }
+
+    assertThat(pages, is(3));
+    assertThat(foundIds.size(), is(7));
+  }
+
+  @Test
+  public void testStream() throws Exception {
+    deleteAllIn(provider);
+
+    List<Metacard> list = new ArrayList<>();
+    for (int i = 0; i < 7; i++) {
+      list.add(new MockMetacard(Library.getFlagstaffRecord()));
+    }
+
+    create(list);
+
+    QueryImpl query =
+        new CommonQueryBuilder().queryByProperty(Metacard.TITLE, FLAGSTAFF_QUERY_PHRASE);
+    query.setPageSize(0);
+
+    List<Result> streamed = new ArrayList<>();
+    long hits = provider.stream(new QueryRequestImpl(query), streamed::add);
+
+    assertThat(hits, is(7L));
+    assertThat(streamed.size(), is(7));
+
+    query.setStartIndex(3);
+    query.setPageSize(2);
+    List<Result> page = new ArrayList<>();
+    provider.stream(new QueryRequestImpl(query), page::add);
+
+    assertThat(page.size(), is(2));
+    assertThat(page.get(0).getMetacard().getId(), is(streamed.get(2).getMetacard().getId()));
+    assertThat(page.get(1).getMetacard().getId(), is(streamed.get(3).getMetacard().getId()));
+  }
+
+  @Test
+  public void testQueryForAllRecords() throws Exception {
+    deleteAllIn(provider);
+
+    List<Metacard> list = new ArrayList<>();
+    for (int i = 0; i < 7; i++) {
+      list.add(new MockMetacard(Library.getFlagstaffRecord()));
+    }
+
+    create(list);
+
+    QueryImpl query =
+        new CommonQueryBuilder().queryByProperty(Metacard.TITLE, FLAGSTAFF_QUERY_PHRASE);
+    query.setPageSize(0);
+
+    SourceResponse sourceResponse = provider.query(new QueryRequestImpl(query));
+
+    assertThat(sourceResponse.getHits(), is(7L));
+    assertThat(sourceResponse.getResults().size(), is(7));
+  }
+
   @Test
   public void testSpatialPointRadius() throws Exception {
 
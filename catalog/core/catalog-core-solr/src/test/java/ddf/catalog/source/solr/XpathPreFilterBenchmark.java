@@ -0,0 +1,130 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.source.solr;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.filter.proxy.adapter.GeotoolsFilterAdapterImpl;
+import ddf.catalog.operation.impl.CreateRequestImpl;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
+import org.codice.solr.factory.impl.ConfigurationFileProxy;
+import org.codice.solr.factory.impl.ConfigurationStore;
+import org.codice.solr.factory.impl.EmbeddedSolrFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares XPath queries evaluated by the Saxon post filter alone with the same queries narrowed
+ * down by the XPath path index first. Not run as part of the build.
+ *
+ * <p>Usage: {@code XpathPreFilterBenchmark [documents] [matching documents] [iterations]}
+ */
+public class XpathPreFilterBenchmark {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(XpathPreFilterBenchmark.class);
+
+  private static final int BATCH_SIZE = 1000;
+
+  private static final String[] XPATHS = {
+    "/rss/channel/item/enclosure/@url",
+    "//item/enclosure[contains(lower-case(@type), 'audio')]",
+    "/rss/channel/image/title[contains(lower-case(.), 'flagstaff')]"
+  };
+
+  public static void main(String[] args) throws Exception {
+    int documents = args.length > 0 ? Integer.parseInt(args[0]) : 50000;
+    int matching = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+    int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+    System.setProperty("ddf.home", Paths.get("target/benchmark/solr").toString());
+    ConfigurationStore.getInstance().setInMemory(true);
+    ConfigurationStore.getInstance().setForceAutoCommit(true);
+    ConfigurationStore.getInstance().setDisableTextPath(false);
+
+    SolrClient client =
+        EmbeddedSolrFactory.getEmbeddedSolrServer(
+            "catalog",
+            "solrconfig-inmemory.xml",
+            "schema.xml",
+            new ConfigurationFileProxy(ConfigurationStore.getInstance()));
+    SolrCatalogProvider provider =
+        new SolrCatalogProvider(
+            client, new GeotoolsFilterAdapterImpl(), new SolrFilterDelegateFactoryImpl());
+
+    try {
+      ingest(provider, documents, matching);
+
+      for (String xpath : XPATHS) {
+        SolrQuery postFilterOnly = new SolrQuery("*:*");
+        postFilterOnly.addFilterQuery("{!xpath}xpath:\"" + xpath + "\"");
+
+        SolrQuery preFiltered = postFilterOnly.getCopy();
+        preFiltered.addFilterQuery("{!xpath}xpath_index:\"" + xpath + "\"");
+
+        LOGGER.info("XPath {}", xpath);
+        run("post filter only", client, postFilterOnly, iterations);
+        run("path index pre-filter", client, preFiltered, iterations);
+      }
+    } finally {
+      provider.shutdown();
+    }
+  }
+
+  private static void ingest(SolrCatalogProvider provider, int documents, int matching)
+      throws Exception {
+    int matchingInterval = Math.max(1, documents / Math.max(1, matching));
+    List<Metacard> batch = new ArrayList<>(BATCH_SIZE);
+
+    for (int i = 0; i < documents; i++) {
+      MetacardImpl metacard = new MetacardImpl();
+      metacard.setTitle("Document " + i);
+      metacard.setMetadata(
+          i % matchingInterval == 0 ? Library.getFlagstaffRecord() : getOtherRecord(i));
+      batch.add(metacard);
+
+      if (batch.size() == BATCH_SIZE || i == documents - 1) {
+        provider.create(new CreateRequestImpl(batch));
+        batch = new ArrayList<>(BATCH_SIZE);
+      }
+    }
+
+    LOGGER.info("Ingested {} documents, {} with the queried paths", documents, matching);
+  }
+
+  private static String getOtherRecord(int i) {
+    return "<metadata><identifier>"
+        + i
+        + "</identifier><title>Other record</title><keywords><keyword>audio</keyword>"
+        + "<keyword>flagstaff</keyword></keywords></metadata>";
+  }
+
+  private static void run(String name, SolrClient client, SolrQuery query, int iterations)
+      throws Exception {
+    // warm up, which also caches the pre-filter like repeated queries would
+    client.query(query);
+
+    long hits = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      hits = client.query(query).getResults().getNumFound();
+    }
+    long elapsed = (System.nanoTime() - start) / iterations;
+
+    LOGGER.info("  {}: {} hits, {} ms per query", name, hits, elapsed / 1_000_000);
+  }
+}
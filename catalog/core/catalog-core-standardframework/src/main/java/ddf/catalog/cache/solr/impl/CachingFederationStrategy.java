@@ -249,7 +249,10 @@ private QueryResponse sourceFederate(List<Source> sources, final QueryRequest qu
 
     Map<Future<SourceResponse>, QueryRequest> futures = new HashMap<>();
 
+    Map<Future<SourceResponse>, Source> futureSources = new HashMap<>();
+
     Query modifiedQuery = getModifiedQuery(originalQuery, sources.size(), offset, pageSize);
+    Query sourceQuery = getSourceQuery(modifiedQuery, sources.size(), offset, pageSize);
     QueryRequest modifiedQueryRequest =
         new QueryRequestImpl(
             modifiedQuery,
@@ -267,7 +270,7 @@ private QueryResponse sourceFederate(List<Source> sources, final QueryRequest qu
 
         QueryRequest sourceQueryRequest =
             new QueryRequestImpl(
-                modifiedQuery,
+                sourceQuery,
                 queryRequest.isEnterprise(),
                 Collections.singleton(source.getId()),
                 new HashMap<>(queryRequest.getProperties()));
@@ -290,9 +293,10 @@ private QueryResponse sourceFederate(List<Source> sources, final QueryRequest qu
                   sourceQueryRequest, showErrors, showWarnings);
         }
 
-        futures.put(
-            queryCompletion.submit(new CallableSourceResponse(source, sourceQueryRequest)),
-            sourceQueryRequest);
+        Future<SourceResponse> future =
+            queryCompletion.submit(new CallableSourceResponse(source, sourceQueryRequest));
+        futures.put(future, sourceQueryRequest);
+        futureSources.put(future, source);
       }
     }
 
@@ -309,7 +313,12 @@ private QueryResponse sourceFederate(List<Source> sources, final QueryRequest qu
 
     queryExecutorService.submit(
         sortedQueryMonitorFactory.createMonitor(
-            queryCompletion, futures, queryResponseQueue, modifiedQueryRequest, postQuery));
+            queryCompletion,
+            futures,
+            futureSources,
+            queryResponseQueue,
+            modifiedQueryRequest,
+            postQuery));
 
     QueryResponse queryResponse;
     if (offset > 1 && sources.size() > 1) {
@@ -368,6 +377,41 @@ private int computeModifiedPageSize(int offset, int pageSize) {
     return offset + pageSize - 1;
   }
 
+  /**
+   * When the results of several sources have to be merged before the offset is applied, each source
+   * is only asked for its share of the merged results, but at least one page. The {@link
+   * SortedQueryMonitor} fetches the following results of a source only if the merge needs them.
+   */
+  private Query getSourceQuery(Query modifiedQuery, int numberOfSources, int offset, int pageSize) {
+    if (offset <= 1 || numberOfSources <= 1 || pageSize < 1) {
+      return modifiedQuery;
+    }
+
+    int mergedPageSize = computeModifiedPageSize(offset, pageSize);
+    int sourcePageSize =
+        Math.min(
+            mergedPageSize,
+            Math.max(pageSize, (mergedPageSize + numberOfSources - 1) / numberOfSources));
+
+    LOGGER.debug("source page size: {}", sourcePageSize);
+
+    return new QueryImpl(
+        modifiedQuery,
+        modifiedQuery.getStartIndex(),
+        sourcePageSize,
+        modifiedQuery.getSortBy(),
+        modifiedQuery.requestsTotalResultsCount(),
+        modifiedQuery.getTimeoutMillis());
+  }
+
+  /**
+   * Queries a single source the same way the sources of a federated query are queried, used to
+   * fetch the following pages of a source.
+   */
+  SourceResponse querySource(Source source, QueryRequest sourceQueryRequest) throws Exception {
+    return new CallableSourceResponse(source, sourceQueryRequest).call();
+  }
+
   @Override
   public CreateResponse process(CreateResponse input) throws PluginExecutionException {
     return input;
@@ -16,6 +16,7 @@
 import ddf.catalog.data.ContentType;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardCreationException;
+import ddf.catalog.data.Result;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.operation.impl.SourceResponseImpl;
@@ -26,6 +27,7 @@
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 import org.apache.solr.client.solrj.SolrServerException;
 import org.apache.solr.common.SolrInputDocument;
 import org.slf4j.Logger;
@@ -60,6 +62,13 @@ public List<Metacard> query(String queryString) throws UnsupportedQueryException
     return Collections.emptyList();
   }
 
+  @Override
+  public long stream(QueryRequest request, Consumer<Result> consumer)
+      throws UnsupportedQueryException {
+    LOGGER.debug("Query was not executed. SolrMetacardClient has not been initialized.");
+    return 0;
+  }
+
   @Override
   public Set<ContentType> getContentTypes() {
     LOGGER.debug("No content types were found. SolrMetacardClient has not been initialized.");
@@ -18,6 +18,7 @@
 import ddf.catalog.filter.FilterAdapter;
 import ddf.catalog.source.solr.SolrFilterDelegateFactory;
 import ddf.catalog.source.solr.SolrMetacardClient;
+import ddf.catalog.source.solr.SolrMetacardClientImpl;
 import java.io.IOException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
@@ -133,6 +134,10 @@ void commit() throws SolrServerException, IOException {
    * @see SolrClient#close()
    */
   void close() throws IOException {
+    SolrMetacardClient metacardClient = client;
+    if (metacardClient instanceof SolrMetacardClientImpl) {
+      ((SolrMetacardClientImpl) metacardClient).shutdown();
+    }
     state.close();
   }
 
@@ -13,6 +13,7 @@
  */
 package ddf.catalog.cache.solr.impl;
 
+import ddf.catalog.Constants;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
 import ddf.catalog.federation.Federatable;
@@ -22,11 +23,14 @@
 import ddf.catalog.operation.QueryResponse;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.operation.impl.ProcessingDetailsImpl;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.operation.impl.QueryResponseImpl;
 import ddf.catalog.operation.impl.SourceResponseImpl;
 import ddf.catalog.plugin.PluginExecutionException;
 import ddf.catalog.plugin.PostFederatedQueryPlugin;
 import ddf.catalog.plugin.StopProcessingException;
+import ddf.catalog.source.Source;
 import ddf.catalog.util.impl.CollectionResultComparator;
 import ddf.catalog.util.impl.DistanceResultComparator;
 import ddf.catalog.util.impl.RelevanceResultComparator;
@@ -70,6 +74,8 @@ class SortedQueryMonitor implements Runnable {
 
   private Map<Future<SourceResponse>, QueryRequest> futures;
 
+  private Map<Future<SourceResponse>, Source> sources;
+
   private List<PostFederatedQueryPlugin> postQuery;
 
   private Query query;
@@ -83,12 +89,35 @@ public SortedQueryMonitor(
       QueryResponseImpl returnResults,
       QueryRequest request,
       List<PostFederatedQueryPlugin> postQuery) {
+    this(
+        cachingFederationStrategy,
+        completionService,
+        futures,
+        Collections.emptyMap(),
+        returnResults,
+        request,
+        postQuery);
+  }
+
+  /**
+   * @param sources the source queried by each future, used to fetch more results from the sources
+   *     that returned a full page when the merge needs them
+   */
+  public SortedQueryMonitor(
+      CachingFederationStrategy cachingFederationStrategy,
+      CompletionService<SourceResponse> completionService,
+      Map<Future<SourceResponse>, QueryRequest> futures,
+      Map<Future<SourceResponse>, Source> sources,
+      QueryResponseImpl returnResults,
+      QueryRequest request,
+      List<PostFederatedQueryPlugin> postQuery) {
     this.cachingFederationStrategy = cachingFederationStrategy;
     this.completionService = completionService;
     this.returnResults = returnResults;
     this.request = request;
     this.query = request.getQuery();
     this.futures = futures;
+    this.sources = sources;
     this.postQuery = postQuery;
     deadline = System.currentTimeMillis() + query.getTimeoutMillis();
   }
@@ -138,7 +167,12 @@ public void run() {
       resultComparator.addComparator(coreComparator);
     }
 
-    List<Result> resultList = new ArrayList<>();
+    int maxResults = Integer.MAX_VALUE;
+    if (query.getPageSize() > 0) {
+      maxResults = query.getPageSize();
+    }
+
+    SortedResultMerger mergedResults = new SortedResultMerger(resultComparator, maxResults);
     long totalHits = 0;
     Set<ProcessingDetails> processingDetails = returnResults.getProcessingDetails();
 
@@ -163,6 +197,7 @@ public void run() {
 
         queryRequest = futures.remove(future);
         sourceId = getSourceIdFromRequest(queryRequest);
+        Source source = sources.get(future);
 
         sourceResponse = future.get();
 
@@ -171,9 +206,11 @@ public void run() {
           executePostFederationQueryPluginsWithSourceError(
               queryRequest, sourceId, new NullPointerException(), processingDetails);
         } else {
+          int resultCount = getResultCount(sourceResponse);
           sourceResponse = executePostFederationQueryPlugins(sourceResponse, queryRequest);
-          resultList.addAll(sourceResponse.getResults());
           long hits = sourceResponse.getHits();
+          mergedResults.addSource(
+              sourceResponse.getResults(), getPager(source, queryRequest, resultCount, hits));
           totalHits += hits;
           hitsPerSource.merge(sourceId, hits, (l1, l2) -> l1 + l2);
 
@@ -201,8 +238,8 @@ public void run() {
             queryRequest, sourceId, e, processingDetails);
       }
     }
-    returnProperties.put("hitsPerSource", hitsPerSource);
-    LOGGER.debug("All sources finished returning results: {}", resultList.size());
+    returnProperties.put(Constants.HITS_PER_SOURCE_KEY, hitsPerSource);
+    LOGGER.debug("All sources finished returning results: {}", mergedResults.size());
 
     returnResults.setHits(totalHits);
     if (CachingFederationStrategy.INDEX_QUERY_MODE.equals(
@@ -210,19 +247,46 @@ public void run() {
       QueryResponse result = cachingFederationStrategy.queryCache(request);
       returnResults.addResults(result.getResults(), true);
     } else {
-      returnResults.addResults(sortedResults(resultList, resultComparator), true);
+      addSortedResults(mergedResults);
     }
   }
 
-  List<Result> sortedResults(List<Result> results, Comparator<? super Result> comparator) {
-    Collections.sort(results, comparator);
+  /**
+   * Hands the merged results to the response queue one at a time, so consumers can start reading
+   * the page while the following pages of the sources are still being fetched and merged. The
+   * merger stops as soon as the page is full.
+   */
+  private void addSortedResults(SortedResultMerger mergedResults) {
+    while (mergedResults.hasNext()) {
+      returnResults.addResult(mergedResults.next(), false);
+    }
 
-    int maxResults = Integer.MAX_VALUE;
-    if (query.getPageSize() > 0) {
-      maxResults = query.getPageSize();
+    returnResults.closeResultQueue();
+  }
+
+  private int getResultCount(SourceResponse sourceResponse) {
+    List<Result> results = sourceResponse.getResults();
+    return results == null ? 0 : results.size();
+  }
+
+  /**
+   * @return a pager over the results of the source that follow the ones it returned, or {@code
+   *     null} if it returned all its results
+   */
+  private SortedResultMerger.SourcePager getPager(
+      Source source, QueryRequest queryRequest, int resultCount, long hits) {
+    if (source == null) {
+      return null;
     }
 
-    return results.size() > maxResults ? results.subList(0, maxResults) : results;
+    Query sourceQuery = queryRequest.getQuery();
+    if (sourceQuery.getPageSize() < 1
+        || resultCount < sourceQuery.getPageSize()
+        || (hits >= 0 && hits <= resultCount)) {
+      return null;
+    }
+
+    return new SourceResultPager(source, queryRequest, sourceQuery.getStartIndex() + resultCount);
   }
 
   private void timeoutRemainingSources(Set<ProcessingDetails> processingDetails) {
@@ -256,6 +320,94 @@ private long getTimeRemaining(long deadline) {
     return timeLeft;
   }
 
+  /** Fetches the following pages of a source, on the thread merging the results. */
+  private class SourceResultPager implements SortedResultMerger.SourcePager {
+
+    private final Source source;
+
+    private final QueryRequest queryRequest;
+
+    private final String sourceId;
+
+    private int startIndex;
+
+    private boolean exhausted = false;
+
+    SourceResultPager(Source source, QueryRequest queryRequest, int startIndex) {
+      this.source = source;
+      this.queryRequest = queryRequest;
+      this.sourceId = getSourceIdFromRequest(queryRequest);
+      this.startIndex = startIndex;
+    }
+
+    @Override
+    public List<Result> nextPage(int count) {
+      while (!exhausted) {
+        if (query.getTimeoutMillis() > 0 && getTimeRemaining(deadline) == 0) {
+          LOGGER.debug("Search timed out before more results were fetched from {}", sourceId);
+          returnResults
+              .getProcessingDetails()
+              .add(new ProcessingDetailsImpl(sourceId, new TimeoutException()));
+          exhausted = true;
+          break;
+        }
+
+        QueryRequest pageRequest = getPageRequest(count);
+        try {
+          SourceResponse sourceResponse =
+              cachingFederationStrategy.querySource(source, pageRequest);
+          if (sourceResponse == null) {
+            LOGGER.debug("Source {} returned null response", sourceId);
+            exhausted = true;
+            break;
+          }
+
+          int resultCount = getResultCount(sourceResponse);
+          startIndex += resultCount;
+          exhausted =
+              resultCount < count
+                  || (sourceResponse.getHits() >= 0 && startIndex > sourceResponse.getHits());
+
+          List<Result> results =
+              executePostFederationQueryPlugins(sourceResponse, pageRequest).getResults();
+          if (results != null && !results.isEmpty()) {
+            return results;
+          }
+        } catch (Exception e) {
+          LOGGER.info(
+              "Couldn't get more results from {}, {}", sourceId, Exceptions.getFullMessage(e), e);
+          returnResults.getProcessingDetails().add(new ProcessingDetailsImpl(sourceId, e));
+          exhausted = true;
+        }
+      }
+
+      return Collections.emptyList();
+    }
+
+    private QueryRequest getPageRequest(int count) {
+      Query sourceQuery = queryRequest.getQuery();
+      Query pageQuery =
+          new QueryImpl(
+              sourceQuery,
+              startIndex,
+              count,
+              sourceQuery.getSortBy(),
+              sourceQuery.requestsTotalResultsCount(),
+              sourceQuery.getTimeoutMillis());
+
+      Map<String, Serializable> properties = new HashMap<>();
+      if (queryRequest.getProperties() != null) {
+        properties.putAll(queryRequest.getProperties());
+      }
+      // Pages are fetched by start index, a cursor would return the first page again
+      properties.remove(Constants.CURSOR_MARK_KEY);
+      properties.remove(Constants.NEXT_CURSOR_MARK_KEY);
+
+      return new QueryRequestImpl(
+          pageQuery, queryRequest.isEnterprise(), queryRequest.getSourceIds(), properties);
+    }
+  }
+
   private String getSourceIdFromRequest(QueryRequest queryRequest) {
     String unkSource = "Unknown Source";
     if (queryRequest == null) {
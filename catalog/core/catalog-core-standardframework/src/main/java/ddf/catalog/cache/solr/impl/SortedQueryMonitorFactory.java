@@ -17,6 +17,7 @@
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.operation.impl.QueryResponseImpl;
 import ddf.catalog.plugin.PostFederatedQueryPlugin;
+import ddf.catalog.source.Source;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletionService;
@@ -32,11 +33,18 @@ public SortedQueryMonitorFactory(CachingFederationStrategy cachingFederationStra
   public Runnable createMonitor(
       final CompletionService<SourceResponse> completionService,
       final Map<Future<SourceResponse>, QueryRequest> futures,
+      final Map<Future<SourceResponse>, Source> sources,
       final QueryResponseImpl returnResults,
       final QueryRequest request,
       List<PostFederatedQueryPlugin> postQuery) {
 
     return new SortedQueryMonitor(
-        cachingFederationStrategy, completionService, futures, returnResults, request, postQuery);
+        cachingFederationStrategy,
+        completionService,
+        futures,
+        sources,
+        returnResults,
+        request,
+        postQuery);
   }
 }
@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.solr.impl;
+
+import ddf.catalog.data.Result;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import javax.annotation.Nullable;
+
+/**
+ * Merges the result lists returned by the federated sources into a single sorted sequence of
+ * results.
+ *
+ * <p>Only the current head of each source's list is kept in a heap, so retrieving the first {@code
+ * n} results costs {@code O(n log S)} for {@code S} sources instead of sorting every result
+ * returned. Results that compare as equal are returned in the order their sources were added, which
+ * matches a stable sort of the concatenated lists.
+ *
+ * <p>A source may only return the first page of its results along with a {@link SourcePager}. The
+ * following pages are then fetched while merging, only when every result already fetched from that
+ * source has been merged and the merge still needs more results, each page being twice as large as
+ * the previous one but never larger than the number of results still needed. Once {@code limit}
+ * results have been merged, no more pages are fetched from any source.
+ *
+ * <p>Sources are expected to return their results in the requested sort order; each page is sorted
+ * according to the comparator when it is added, which only costs a single pass over a page that is
+ * already sorted. All the sources must be added before the merged results are iterated over.
+ */
+class SortedResultMerger implements Iterator<Result> {
+
+  /** Fetches the results of a source that follow the ones it already returned. */
+  interface SourcePager {
+
+    /**
+     * @param count maximum number of results to return
+     * @return the next results of the source, or an empty list if the source has no more results or
+     *     they could not be retrieved
+     */
+    List<Result> nextPage(int count);
+  }
+
+  private final Comparator<? super Result> comparator;
+
+  private final PriorityQueue<SourceResults> heads;
+
+  private final int limit;
+
+  private int sourceCount = 0;
+
+  private int resultCount = 0;
+
+  private int mergedCount = 0;
+
+  SortedResultMerger(Comparator<? super Result> comparator) {
+    this(comparator, Integer.MAX_VALUE);
+  }
+
+  /**
+   * @param comparator order of the merged results
+   * @param limit maximum number of results to merge
+   */
+  SortedResultMerger(Comparator<? super Result> comparator, int limit) {
+    this.comparator = comparator;
+    this.limit = limit;
+    this.heads =
+        new PriorityQueue<>(
+            Comparator.comparing(SourceResults::peek, comparator)
+                .thenComparingInt(sourceResults -> sourceResults.sourceIndex));
+  }
+
+  /**
+   * Adds all the results returned by a source.
+   *
+   * @param results results returned by the source, ideally already sorted
+   */
+  void addSource(List<Result> results) {
+    addSource(results, null);
+  }
+
+  /**
+   * Adds the first page of results returned by a source.
+   *
+   * @param results first page of results returned by the source, ideally already sorted
+   * @param pager fetches the following pages of the source, {@code null} if the source returned all
+   *     its results
+   */
+  void addSource(List<Result> results, @Nullable SourcePager pager) {
+    if (results == null || results.isEmpty()) {
+      return;
+    }
+
+    heads.add(new SourceResults(sort(results), sourceCount++, pager));
+    resultCount += results.size();
+  }
+
+  /** @return total number of results fetched from all the sources */
+  int size() {
+    return resultCount;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return mergedCount < limit && !heads.isEmpty();
+  }
+
+  @Override
+  public Result next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException("All the source results have been merged");
+    }
+
+    SourceResults sourceResults = heads.poll();
+    Result result = sourceResults.next();
+    mergedCount++;
+
+    if (sourceResults.hasNext() || (mergedCount < limit && fetchNextPage(sourceResults))) {
+      heads.add(sourceResults);
+    }
+
+    return result;
+  }
+
+  private boolean fetchNextPage(SourceResults sourceResults) {
+    if (sourceResults.pager == null) {
+      return false;
+    }
+
+    int count = Math.min(sourceResults.nextPageSize(), limit - mergedCount);
+    List<Result> page = sourceResults.pager.nextPage(count);
+    if (page == null || page.isEmpty()) {
+      sourceResults.pager = null;
+      return false;
+    }
+
+    sourceResults.setPage(sort(page));
+    resultCount += page.size();
+    return true;
+  }
+
+  private List<Result> sort(List<Result> results) {
+    List<Result> sortedResults = new ArrayList<>(results);
+    sortedResults.sort(comparator);
+    return sortedResults;
+  }
+
+  private static class SourceResults {
+
+    private final int sourceIndex;
+
+    private SourcePager pager;
+
+    private List<Result> results;
+
+    private int pageSize;
+
+    private int position = 0;
+
+    SourceResults(List<Result> results, int sourceIndex, @Nullable SourcePager pager) {
+      this.results = results;
+      this.sourceIndex = sourceIndex;
+      this.pager = pager;
+      this.pageSize = results.size();
+    }
+
+    Result peek() {
+      return results.get(position);
+    }
+
+    Result next() {
+      return results.get(position++);
+    }
+
+    boolean hasNext() {
+      return position < results.size();
+    }
+
+    int nextPageSize() {
+      return pageSize > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : pageSize * 2;
+    }
+
+    void setPage(List<Result> page) {
+      results = page;
+      pageSize = nextPageSize();
+      position = 0;
+    }
+  }
+}
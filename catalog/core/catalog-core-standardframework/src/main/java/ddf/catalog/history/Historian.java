@@ -17,9 +17,11 @@
 
 import com.google.common.collect.Lists;
 import com.google.common.io.ByteSource;
+import ddf.catalog.Constants;
 import ddf.catalog.content.StorageException;
 import ddf.catalog.content.StorageProvider;
 import ddf.catalog.content.data.ContentItem;
+import ddf.catalog.content.data.impl.ContentByteSources;
 import ddf.catalog.content.data.impl.ContentItemImpl;
 import ddf.catalog.content.operation.CreateStorageResponse;
 import ddf.catalog.content.operation.ReadStorageRequest;
@@ -56,6 +58,7 @@
 import ddf.security.common.audit.SecurityLogger;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -535,24 +538,34 @@ private Map<String, List<ContentItem>> getContentItems(DeleteResponse deleteResp
   private CreateStorageResponse versionContentItems(
       Map<String, List<ContentItem>> items, Map<String, Metacard> versionedMetacards)
       throws SourceUnavailableException, IngestException {
-    List<ContentItem> contentItems =
-        items
-            .entrySet()
-            .stream()
-            .map(e -> getVersionedContentItems(e.getValue(), versionedMetacards))
-            .flatMap(Collection::stream)
-            .collect(Collectors.toList());
+    List<ContentItem> contentItems = new ArrayList<>();
+    // lets the storage provider reference the stored content instead of copying it
+    HashMap<String, String> sourceUris = new HashMap<>();
+    ContentByteSources byteSources = new ContentByteSources();
+    for (List<ContentItem> content : items.values()) {
+      for (ContentItem contentItem : content) {
+        ContentItemImpl versionedContentItem = createContentItem(contentItem, versionedMetacards);
+        contentItems.add(versionedContentItem);
+        sourceUris.put(versionedContentItem.getUri(), contentItem.getUri());
+        byteSources.put(
+            versionedContentItem.getId(),
+            versionedContentItem.getQualifier(),
+            versionedContentItem.getByteSource());
+      }
+    }
 
     if (contentItems.isEmpty()) {
       LOGGER.debug("No content items to version");
       return null;
     }
 
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(Constants.CONTENT_SOURCE_URIS, sourceUris);
+    properties.put(Constants.CONTENT_BYTE_SOURCES, byteSources);
+
     CreateStorageResponse createStorageResponse =
         executeAsSystem(
-            () ->
-                storageProvider()
-                    .create(new CreateStorageRequestImpl(contentItems, new HashMap<>())));
+            () -> storageProvider().create(new CreateStorageRequestImpl(contentItems, properties)));
     tryCommitStorage(createStorageResponse);
     if (LOGGER.isTraceEnabled()) {
       LOGGER.trace(
@@ -576,14 +589,6 @@ private void tryCommitStorage(CreateStorageResponse createStorageResponse)
     }
   }
 
-  private List<ContentItemImpl> getVersionedContentItems(
-      List<ContentItem> entry, Map<String, Metacard> versionedMetacards) {
-    return entry
-        .stream()
-        .map(content -> createContentItem(content, versionedMetacards))
-        .collect(Collectors.toList());
-  }
-
   private ContentItemImpl createContentItem(
       ContentItem content, Map<String, Metacard> versionedMetacards) {
     long size = 0;
@@ -0,0 +1,189 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.impl.operations;
+
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.ByteSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.zip.Adler32;
+
+/**
+ * Content of an incoming content item that was copied to a temporary file in a single pass. While
+ * copying, the checksum and digest of the content are computed and its first bytes are kept in
+ * memory, so MIME type detection, checksum plugins and content-addressed storage don't have to read
+ * the file again.
+ *
+ * <p>Streams opened from this {@link ByteSource} serve the first bytes from memory and only open
+ * the file when reading past them.
+ */
+class ContentTap extends ByteSource {
+
+  /** Checksum algorithm of {@link #getChecksum()}, as named by the checksum providers. */
+  static final String CHECKSUM_ALGORITHM = "Adler32";
+
+  /** Digest algorithm of {@link #getDigest()}. */
+  static final String DIGEST_ALGORITHM = "SHA-256";
+
+  static final int HEAD_SIZE = 64 * 1024;
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final Path path;
+
+  private final byte[] head;
+
+  private final long size;
+
+  private final String checksum;
+
+  private final String digest;
+
+  private ContentTap(Path path, byte[] head, long size, String checksum, String digest) {
+    this.path = path;
+    this.head = head;
+    this.size = size;
+    this.checksum = checksum;
+    this.digest = digest;
+  }
+
+  /**
+   * Copies a stream to a file.
+   *
+   * @param inputStream content to copy, not closed by this method
+   * @param path file to write, replaced if it exists
+   * @return the copied content
+   * @throws IOException if the content can't be read or written
+   */
+  static ContentTap copy(InputStream inputStream, Path path) throws IOException {
+    Adler32 adler32 = new Adler32();
+    MessageDigest messageDigest = newDigest();
+    byte[] head = new byte[HEAD_SIZE];
+    int headLength = 0;
+    long size = 0;
+
+    byte[] buffer = new byte[BUFFER_SIZE];
+    try (OutputStream outputStream =
+        Files.newOutputStream(
+            path,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+      int read;
+      while ((read = inputStream.read(buffer)) != -1) {
+        adler32.update(buffer, 0, read);
+        messageDigest.update(buffer, 0, read);
+
+        if (headLength < HEAD_SIZE) {
+          int length = Math.min(read, HEAD_SIZE - headLength);
+          System.arraycopy(buffer, 0, head, headLength, length);
+          headLength += length;
+        }
+
+        outputStream.write(buffer, 0, read);
+        size += read;
+      }
+    }
+
+    return new ContentTap(
+        path,
+        Arrays.copyOf(head, headLength),
+        size,
+        Long.toHexString(adler32.getValue()),
+        BaseEncoding.base16().lowerCase().encode(messageDigest.digest()));
+  }
+
+  private static MessageDigest newDigest() {
+    try {
+      return MessageDigest.getInstance(DIGEST_ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(DIGEST_ALGORITHM + " is not supported", e);
+    }
+  }
+
+  Path getPath() {
+    return path;
+  }
+
+  /** @return the {@link #CHECKSUM_ALGORITHM} checksum of the content as a hex string */
+  String getChecksum() {
+    return checksum;
+  }
+
+  /** @return the {@link #DIGEST_ALGORITHM} digest of the content as a lowercase hex string */
+  String getDigest() {
+    return digest;
+  }
+
+  @Override
+  public InputStream openStream() {
+    if (size <= head.length) {
+      return new ByteArrayInputStream(head);
+    }
+    return new SequenceInputStream(new ByteArrayInputStream(head), new RemainderInputStream());
+  }
+
+  @Override
+  public long size() {
+    return size;
+  }
+
+  @Override
+  public String toString() {
+    return "ContentTap(" + path + ")";
+  }
+
+  /** Reads the content after the head from the file, which is only opened when first read. */
+  private class RemainderInputStream extends InputStream {
+
+    private InputStream delegate;
+
+    private InputStream getDelegate() throws IOException {
+      if (delegate == null) {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        channel.position(head.length);
+        delegate = Channels.newInputStream(channel);
+      }
+      return delegate;
+    }
+
+    @Override
+    public int read() throws IOException {
+      return getDelegate().read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      return getDelegate().read(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (delegate != null) {
+        delegate.close();
+      }
+    }
+  }
+}
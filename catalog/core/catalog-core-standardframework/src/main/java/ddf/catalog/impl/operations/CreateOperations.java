@@ -13,11 +13,16 @@
  */
 package ddf.catalog.impl.operations;
 
+import static ddf.catalog.Constants.CONTENT_BYTE_SOURCES;
+import static ddf.catalog.Constants.CONTENT_CHECKSUMS;
+import static ddf.catalog.Constants.CONTENT_CHECKSUM_ALGORITHM;
+import static ddf.catalog.Constants.CONTENT_DIGESTS;
 import static ddf.catalog.Constants.CONTENT_PATHS;
 
 import ddf.catalog.Constants;
 import ddf.catalog.content.StorageException;
 import ddf.catalog.content.data.ContentItem;
+import ddf.catalog.content.data.impl.ContentByteSources;
 import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.content.operation.CreateStorageResponse;
 import ddf.catalog.content.operation.StorageRequest;
@@ -128,6 +133,9 @@ public CreateResponse create(
     Map<String, Metacard> metacardMap = new HashMap<>();
     List<ContentItem> contentItems = new ArrayList<>(streamCreateRequest.getContentItems().size());
     HashMap<String, Map<String, Path>> tmpContentPaths = new HashMap<>();
+    HashMap<String, Map<String, String>> contentChecksums = new HashMap<>();
+    HashMap<String, Map<String, String>> contentDigests = new HashMap<>();
+    ContentByteSources contentByteSources = new ContentByteSources();
 
     CreateResponse createResponse = null;
     CreateStorageRequest createStorageRequest = null;
@@ -137,9 +145,16 @@ public CreateResponse create(
         opsStorageSupport.prepareStorageRequest(
             streamCreateRequest, streamCreateRequest::getContentItems);
 
-    // Operation populates the metacardMap, contentItems, and tmpContentPaths
+    // Operation populates the metacardMap, contentItems, tmpContentPaths, contentChecksums,
+    // contentDigests and contentByteSources
     opsMetacardSupport.generateMetacardAndContentItems(
-        streamCreateRequest.getContentItems(), metacardMap, contentItems, tmpContentPaths);
+        streamCreateRequest.getContentItems(),
+        metacardMap,
+        contentItems,
+        tmpContentPaths,
+        contentChecksums,
+        contentDigests,
+        contentByteSources);
 
     if (blockCreateMetacards(metacardMap.values(), fanoutTagBlacklist)) {
       String message =
@@ -149,6 +164,12 @@ public CreateResponse create(
     }
 
     streamCreateRequest.getProperties().put(CONTENT_PATHS, tmpContentPaths);
+    streamCreateRequest.getProperties().put(CONTENT_CHECKSUMS, contentChecksums);
+    streamCreateRequest.getProperties().put(CONTENT_DIGESTS, contentDigests);
+    streamCreateRequest.getProperties().put(CONTENT_BYTE_SOURCES, contentByteSources);
+    streamCreateRequest
+        .getProperties()
+        .put(CONTENT_CHECKSUM_ALGORITHM, ContentTap.CHECKSUM_ALGORITHM);
 
     injectAttributes(metacardMap);
     setDefaultValues(metacardMap);
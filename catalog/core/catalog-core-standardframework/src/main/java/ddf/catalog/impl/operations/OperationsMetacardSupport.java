@@ -13,7 +13,9 @@
  */
 package ddf.catalog.impl.operations;
 
+import com.google.common.io.ByteSource;
 import ddf.catalog.content.data.ContentItem;
+import ddf.catalog.content.data.impl.ContentByteSources;
 import ddf.catalog.content.data.impl.ContentItemImpl;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeDescriptor;
@@ -32,7 +34,6 @@
 import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -90,13 +91,16 @@ void generateMetacardAndContentItems(
       List<ContentItem> incomingContentItems,
       Map<String, Metacard> metacardMap,
       List<ContentItem> contentItems,
-      Map<String, Map<String, Path>> tmpContentPaths)
+      Map<String, Map<String, Path>> tmpContentPaths,
+      Map<String, Map<String, String>> contentChecksums,
+      Map<String, Map<String, String>> contentDigests,
+      ContentByteSources contentByteSources)
       throws IngestException {
     for (ContentItem contentItem : incomingContentItems) {
       try {
         Path tmpPath = null;
         String fileName;
-        long size;
+        ContentTap contentTap;
         try (InputStream inputStream = contentItem.getInputStream()) {
           fileName = contentItem.getFilename();
           if (inputStream == null) {
@@ -113,8 +117,7 @@ void generateMetacardAndContentItems(
               Files.createTempFile(
                   FilenameUtils.getBaseName(sanitizedFilename),
                   FilenameUtils.getExtension(sanitizedFilename));
-          Files.copy(inputStream, tmpPath, StandardCopyOption.REPLACE_EXISTING);
-          size = Files.size(tmpPath);
+          contentTap = ContentTap.copy(inputStream, tmpPath);
 
           final String key = contentItem.getId();
           Map<String, Path> pathAndQualifiers = tmpContentPaths.get(key);
@@ -134,7 +137,7 @@ void generateMetacardAndContentItems(
           throw new IngestException("Could not copy bytes of content message.", e);
         }
         String mimeTypeRaw = contentItem.getMimeTypeRawData();
-        mimeTypeRaw = guessMimeType(mimeTypeRaw, fileName, tmpPath);
+        mimeTypeRaw = guessMimeType(mimeTypeRaw, fileName, contentTap);
 
         if (!InputValidation.isMimeTypeClientSideSafe(mimeTypeRaw)) {
           throw new IngestException("Unsupported mime type.");
@@ -157,12 +160,20 @@ void generateMetacardAndContentItems(
                 StringUtils.isNotEmpty(contentItem.getQualifier())
                     ? contentItem.getQualifier()
                     : "",
-                com.google.common.io.Files.asByteSource(tmpPath.toFile()),
+                contentTap,
                 mimeTypeRaw,
                 fileName,
-                size,
+                contentTap.size(),
                 metacard);
         contentItems.add(generatedContentItem);
+        contentChecksums
+            .computeIfAbsent(generatedContentItem.getId(), id -> new HashMap<>())
+            .put(generatedContentItem.getQualifier(), contentTap.getChecksum());
+        contentDigests
+            .computeIfAbsent(generatedContentItem.getId(), id -> new HashMap<>())
+            .put(generatedContentItem.getQualifier(), contentTap.getDigest());
+        contentByteSources.put(
+            generatedContentItem.getId(), generatedContentItem.getQualifier(), contentTap);
       } catch (Exception e) {
         tmpContentPaths
             .values()
@@ -170,6 +181,9 @@ void generateMetacardAndContentItems(
             .flatMap(id -> id.values().stream())
             .forEach(path -> FileUtils.deleteQuietly(path.toFile()));
         tmpContentPaths.clear();
+        contentChecksums.clear();
+        contentDigests.clear();
+        contentByteSources.clear();
         throw new IngestException("Could not create metacard.", e);
       }
     }
@@ -226,9 +240,17 @@ private String updateFileExtension(String mimeTypeRaw, String fileName) {
   // package-private for unit testing
   String guessMimeType(String mimeTypeRaw, String fileName, Path tmpContentPath)
       throws IOException {
+    return guessMimeType(
+        mimeTypeRaw, fileName, com.google.common.io.Files.asByteSource(tmpContentPath.toFile()));
+  }
+
+  /**
+   * Detects the MIME type of content that doesn't have one. The detectors only read the start of
+   * the content, so a {@link ContentTap} answers them without reading its file.
+   */
+  String guessMimeType(String mimeTypeRaw, String fileName, ByteSource content) throws IOException {
     if (ContentItem.DEFAULT_MIME_TYPE.equals(mimeTypeRaw)) {
-      try (InputStream inputStreamMessageCopy =
-          com.google.common.io.Files.asByteSource(tmpContentPath.toFile()).openStream()) {
+      try (InputStream inputStreamMessageCopy = content.openStream()) {
         String mimeTypeGuess =
             frameworkProperties
                 .getMimeTypeMapper()
@@ -241,7 +263,7 @@ String guessMimeType(String mimeTypeRaw, String fileName, Path tmpContentPath)
       }
       if (ContentItem.DEFAULT_MIME_TYPE.equals(mimeTypeRaw)) {
         Detector detector = new DefaultProbDetector();
-        try (InputStream inputStreamMessageCopy = TikaInputStream.get(tmpContentPath)) {
+        try (InputStream inputStreamMessageCopy = TikaInputStream.get(content.openStream())) {
           MediaType mediaType = detector.detect(inputStreamMessageCopy, new Metadata());
           mimeTypeRaw = mediaType.toString();
         } catch (IOException e) {
@@ -249,8 +271,7 @@ String guessMimeType(String mimeTypeRaw, String fileName, Path tmpContentPath)
         }
       }
       if (mimeTypeRaw.equals("text/plain")) {
-        try (InputStream inputStreamMessageCopy =
-                com.google.common.io.Files.asByteSource(tmpContentPath.toFile()).openStream();
+        try (InputStream inputStreamMessageCopy = content.openStream();
             BufferedReader bufferedReader =
                 new BufferedReader(
                     new InputStreamReader(inputStreamMessageCopy, Charset.forName("UTF-8")))) {
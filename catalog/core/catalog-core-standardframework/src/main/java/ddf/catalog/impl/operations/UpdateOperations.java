@@ -13,12 +13,17 @@
  */
 package ddf.catalog.impl.operations;
 
+import static ddf.catalog.Constants.CONTENT_BYTE_SOURCES;
+import static ddf.catalog.Constants.CONTENT_CHECKSUMS;
+import static ddf.catalog.Constants.CONTENT_CHECKSUM_ALGORITHM;
+import static ddf.catalog.Constants.CONTENT_DIGESTS;
 import static ddf.catalog.Constants.CONTENT_PATHS;
 
 import com.google.common.collect.Iterables;
 import ddf.catalog.Constants;
 import ddf.catalog.content.StorageException;
 import ddf.catalog.content.data.ContentItem;
+import ddf.catalog.content.data.impl.ContentByteSources;
 import ddf.catalog.content.operation.UpdateStorageRequest;
 import ddf.catalog.content.operation.UpdateStorageResponse;
 import ddf.catalog.content.operation.impl.UpdateStorageRequestImpl;
@@ -157,6 +162,9 @@ public UpdateResponse update(UpdateStorageRequest streamUpdateRequest)
     Map<String, Metacard> metacardMap = new HashMap<>();
     List<ContentItem> contentItems = new ArrayList<>(streamUpdateRequest.getContentItems().size());
     HashMap<String, Map<String, Path>> tmpContentPaths = new HashMap<>();
+    HashMap<String, Map<String, String>> contentChecksums = new HashMap<>();
+    HashMap<String, Map<String, String>> contentDigests = new HashMap<>();
+    ContentByteSources contentByteSources = new ContentByteSources();
 
     UpdateResponse updateResponse = null;
     UpdateStorageRequest updateStorageRequest = null;
@@ -166,11 +174,24 @@ public UpdateResponse update(UpdateStorageRequest streamUpdateRequest)
         opsStorageSupport.prepareStorageRequest(
             streamUpdateRequest, streamUpdateRequest::getContentItems);
 
-    // Operation populates the metacardMap, contentItems, and tmpContentPaths
+    // Operation populates the metacardMap, contentItems, tmpContentPaths, contentChecksums,
+    // contentDigests and contentByteSources
     opsMetacardSupport.generateMetacardAndContentItems(
-        streamUpdateRequest.getContentItems(), metacardMap, contentItems, tmpContentPaths);
+        streamUpdateRequest.getContentItems(),
+        metacardMap,
+        contentItems,
+        tmpContentPaths,
+        contentChecksums,
+        contentDigests,
+        contentByteSources);
 
     streamUpdateRequest.getProperties().put(CONTENT_PATHS, tmpContentPaths);
+    streamUpdateRequest.getProperties().put(CONTENT_CHECKSUMS, contentChecksums);
+    streamUpdateRequest.getProperties().put(CONTENT_DIGESTS, contentDigests);
+    streamUpdateRequest.getProperties().put(CONTENT_BYTE_SOURCES, contentByteSources);
+    streamUpdateRequest
+        .getProperties()
+        .put(CONTENT_CHECKSUM_ALGORITHM, ContentTap.CHECKSUM_ALGORITHM);
 
     streamUpdateRequest = applyAttributeOverrides(streamUpdateRequest, metacardMap);
 
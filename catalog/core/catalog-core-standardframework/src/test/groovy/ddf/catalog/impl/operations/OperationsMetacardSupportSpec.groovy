@@ -14,6 +14,7 @@
 package ddf.catalog.impl.operations
 
 import ddf.catalog.content.data.ContentItem
+import ddf.catalog.content.data.impl.ContentByteSources
 import ddf.catalog.data.*
 import ddf.catalog.impl.FrameworkProperties
 import ddf.catalog.source.IngestException
@@ -25,6 +26,8 @@ import spock.lang.Specification
 
 import java.nio.file.Files
 import java.nio.file.Path
+import java.security.MessageDigest
+import java.util.zip.Adler32
 
 class OperationsMetacardSupportTest extends Specification {
     private OperationsMetacardSupport opsMetacard
@@ -85,9 +88,12 @@ class OperationsMetacardSupportTest extends Specification {
         def metacardMap = [:]
         def contentItems = []
         def contentPaths = [:]
+        def contentChecksums = [:]
+        def contentDigests = [:]
+        def contentByteSources = new ContentByteSources()
 
         when:
-        opsMetacard.generateMetacardAndContentItems([], metacardMap, contentItems, contentPaths)
+        opsMetacard.generateMetacardAndContentItems([], metacardMap, contentItems, contentPaths, contentChecksums, contentDigests, contentByteSources)
 
         then:
         metacardMap.isEmpty()
@@ -100,12 +106,15 @@ class OperationsMetacardSupportTest extends Specification {
         def metacardMap = [:]
         def contentItems = []
         def contentPaths = [:]
+        def contentChecksums = [:]
+        def contentDigests = [:]
+        def contentByteSources = new ContentByteSources()
         def item = Mock(ContentItem)
         item.getInputStream() >> { null }
         def inputs = [item]
 
         when:
-        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths)
+        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths, contentChecksums, contentDigests, contentByteSources)
 
         then:
         thrown(IngestException)
@@ -116,12 +125,15 @@ class OperationsMetacardSupportTest extends Specification {
         def metacardMap = [:]
         def contentItems = []
         def contentPaths = [:]
+        def contentChecksums = [:]
+        def contentDigests = [:]
+        def contentByteSources = new ContentByteSources()
         def item = Mock(ContentItem)
         item.getInputStream() >> { throw new IOException() }
         def inputs = [item]
 
         when:
-        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths)
+        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths, contentChecksums, contentDigests, contentByteSources)
 
         then:
         thrown(IngestException)
@@ -132,6 +144,9 @@ class OperationsMetacardSupportTest extends Specification {
         def metacardMap = [:]
         def contentItems = []
         def contentPaths = [:]
+        def contentChecksums = [:]
+        def contentDigests = [:]
+        def contentByteSources = new ContentByteSources()
         def item = Mock(ContentItem)
         item.getFilename() >> 'joe.gobbledygook'
         item.getInputStream() >> { new ByteArrayInputStream('hello'.bytes) }
@@ -140,7 +155,7 @@ class OperationsMetacardSupportTest extends Specification {
         def inputs = [item]
 
         when:
-        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths)
+        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths, contentChecksums, contentDigests, contentByteSources)
 
         then:
         thrown(IngestException)
@@ -151,6 +166,9 @@ class OperationsMetacardSupportTest extends Specification {
         def metacardMap = [:]
         List<ContentItem> contentItems = []
         Map<String, Map<String, Path>> contentPaths = [:]
+        Map<String, Map<String, String>> contentChecksums = [:]
+        Map<String, Map<String, String>> contentDigests = [:]
+        def contentByteSources = new ContentByteSources()
         frameworkProperties.mimeTypeMapper.guessMimeType(_, _) >> { 'text/plain' }
         def item = Mock(ContentItem)
         item.getFilename() >> 'joe.txt'
@@ -160,7 +178,7 @@ class OperationsMetacardSupportTest extends Specification {
         def inputs = [item]
 
         when:
-        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths)
+        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths, contentChecksums, contentDigests, contentByteSources)
 
         then:
         metacardMap.size() == 1
@@ -171,6 +189,10 @@ class OperationsMetacardSupportTest extends Specification {
         contentItems.first().filename == item.getFilename()
         contentItems.first().size == 'hello'.size()
         contentPaths.keySet().first() == item.getId()
+        contentChecksums.get('genmeta_id').get(null) == Long.toHexString(adler32('hello'))
+        contentDigests.get('genmeta_id').get(null) == sha256('hello')
+        contentByteSources.get('genmeta_id', null).is(contentItems.first().byteSource)
+        contentItems.first().inputStream.text == 'hello'
     }
 
     def 'test generation of metacard and content supported ioexception from xformer'() {
@@ -178,6 +200,9 @@ class OperationsMetacardSupportTest extends Specification {
         def metacardMap = [:]
         List<ContentItem> contentItems = []
         Map<String, Map<String, Path>> contentPaths = [:]
+        Map<String, Map<String, String>> contentChecksums = [:]
+        Map<String, Map<String, String>> contentDigests = [:]
+        def contentByteSources = new ContentByteSources()
         frameworkProperties.mimeTypeMapper.guessMimeType(_, _) >> { 'text/plain' }
         def item = Mock(ContentItem)
         item.getFilename() >> 'joe.txt'
@@ -187,7 +212,7 @@ class OperationsMetacardSupportTest extends Specification {
         def inputs = [item]
 
         when:
-        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths)
+        opsMetacard.generateMetacardAndContentItems(inputs, metacardMap, contentItems, contentPaths, contentChecksums, contentDigests, contentByteSources)
 
         then:
         1 * transformer.transform(_) >> { throw new IOException() }
@@ -238,6 +263,52 @@ class OperationsMetacardSupportTest extends Specification {
         1 * metacard.setAttribute(_)
     }
 
+    def 'test content tap copies content in a single pass'() {
+        setup:
+        def content = new byte[ContentTap.HEAD_SIZE + 1000]
+        new Random(1).nextBytes(content)
+        def tempFile = Files.createTempFile("test", "bin")
+
+        when:
+        def contentTap = ContentTap.copy(new ByteArrayInputStream(content), tempFile)
+
+        then:
+        contentTap.size() == content.length
+        contentTap.checksum == Long.toHexString(adler32(content))
+        contentTap.digest == sha256(content)
+        contentTap.read() == content
+        Files.readAllBytes(tempFile) == content
+
+        cleanup:
+        Files.deleteIfExists(tempFile)
+    }
+
+    def 'test content tap serves small content from memory'() {
+        setup:
+        def tempFile = Files.createTempFile("test", "txt")
+        def contentTap = ContentTap.copy(new ByteArrayInputStream('hello'.bytes), tempFile)
+        Files.delete(tempFile)
+
+        expect:
+        contentTap.openStream().text == 'hello'
+    }
+
+    def 'test detector reads content tap'() {
+        setup:
+        mimeTypeMapper.guessMimeType(_, _) >> null
+        def tempFile = Files.createTempFile("test", "bin")
+        def contentTap = ContentTap.copy(new ByteArrayInputStream('  {"a": 1}'.bytes), tempFile)
+
+        when:
+        def mimeType = opsMetacard.guessMimeType(ContentItem.DEFAULT_MIME_TYPE, 'test', contentTap)
+
+        then:
+        mimeType == 'application/json'
+
+        cleanup:
+        Files.deleteIfExists(tempFile)
+    }
+
     def 'test multiple detector fall through'() {
         mimeTypeMapper.guessMimeType(_, _) >> null
         def tempFile = Files.createTempFile("test", "bin")
@@ -248,4 +319,17 @@ class OperationsMetacardSupportTest extends Specification {
         !ContentItem.DEFAULT_MIME_TYPE.equals(mimeType)
         "text/plain".equals(mimeType)
     }
+
+    private static long adler32(def content) {
+        def adler32 = new Adler32()
+        adler32.update(content instanceof String ? content.bytes : content)
+        adler32.value
+    }
+
+    private static String sha256(def content) {
+        MessageDigest.getInstance('SHA-256')
+                .digest(content instanceof String ? content.bytes : content)
+                .encodeHex()
+                .toString()
+    }
 }
@@ -160,6 +160,7 @@ public void setup() throws Exception {
     when(mockSortedQueryMonitorFactory.createMonitor(
             any(CompletionService.class),
             any(Map.class),
+            any(Map.class),
             responseArgumentCaptor.capture(),
             requestArgumentCaptor.capture(),
             any(List.class)))
@@ -317,6 +318,32 @@ public void testFederateQueryWithOffsetHandler() throws Exception {
     }
   }
 
+  @Test
+  public void testSourcesAreQueriedForTheirShareOfTheMergedPage() throws Exception {
+    Query mockQ =
+        new QueryImpl(mock(NullFilterImpl.class), 31, 10, mock(SortBy.class), true, LONG_TIMEOUT);
+
+    QueryRequest fedQueryRequest = new QueryRequestImpl(mockQ, properties);
+
+    List<Source> sources = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      Source mockSource = mock(Source.class);
+      when(mockSource.getId()).thenReturn("mock source " + i);
+      sources.add(mockSource);
+    }
+
+    strategy.federate(sources, fedQueryRequest);
+
+    // The monitor merges the first 40 results, each of the 4 sources is first asked for 10
+    assertThat(requestArgumentCaptor.getValue().getQuery().getPageSize(), is(40));
+    for (Source source : sources) {
+      ArgumentCaptor<QueryRequest> sourceRequest = ArgumentCaptor.forClass(QueryRequest.class);
+      verify(source).query(sourceRequest.capture());
+      assertThat(sourceRequest.getValue().getQuery().getStartIndex(), is(1));
+      assertThat(sourceRequest.getValue().getQuery().getPageSize(), is(10));
+    }
+  }
+
   @Test
   public void testConnectedSources() throws Exception {
     Query mockQ =
@@ -20,9 +20,12 @@
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.mock;
 
+import ddf.catalog.data.Result;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceResponse;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import org.junit.Test;
 
 public class NoOpSolrMetacardClientTest {
@@ -49,6 +52,14 @@ public void queryWithString() throws Exception {
     assertThat(noOpSolrMetacardClient.query(""), is(empty()));
   }
 
+  @Test
+  public void stream() throws Exception {
+    List<Result> results = new ArrayList<>();
+
+    assertThat(noOpSolrMetacardClient.stream(mock(QueryRequest.class), results::add), is(0L));
+    assertThat(results, is(empty()));
+  }
+
   @Test
   public void getContentTypes() {
     assertThat(noOpSolrMetacardClient.getContentTypes(), is(empty()));
@@ -159,6 +159,7 @@ public void close() throws Exception {
 
     solrClientAdaptor.close();
 
+    verify(mockCacheSolrMetacardClient).shutdown();
     verify(mockInitializedSolrClientAdaptor).close();
   }
 
@@ -15,6 +15,7 @@
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.extractor.Extractors.byName;
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyLong;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.mock;
@@ -23,11 +24,20 @@
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import ddf.catalog.Constants;
 import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.filter.impl.SortByImpl;
 import ddf.catalog.operation.Query;
 import ddf.catalog.operation.QueryRequest;
 import ddf.catalog.operation.SourceResponse;
+import ddf.catalog.operation.impl.QueryImpl;
+import ddf.catalog.operation.impl.QueryRequestImpl;
 import ddf.catalog.operation.impl.QueryResponseImpl;
+import ddf.catalog.operation.impl.SourceResponseImpl;
+import ddf.catalog.source.Source;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -42,6 +52,9 @@
 import org.assertj.core.util.Lists;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.opengis.filter.Filter;
+import org.opengis.filter.sort.SortOrder;
 
 public class SortedQueryMonitorTest {
 
@@ -215,6 +228,62 @@ public void interruptThirdFuture() throws Exception {
             NullPointerException.class, InterruptedException.class, InterruptedException.class);
   }
 
+  @Test
+  public void cursorRequestIsPagedByStartIndex() throws Exception {
+    List<Result> results = new ArrayList<>();
+    for (int i = 0; i < 4; i++) {
+      MetacardImpl metacard = new MetacardImpl();
+      metacard.setId("id" + i);
+      ResultImpl result = new ResultImpl(metacard);
+      result.setRelevanceScore(4.0 - i);
+      results.add(result);
+    }
+
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(Constants.CURSOR_MARK_KEY, Constants.INITIAL_CURSOR_MARK);
+    SortByImpl sortBy = new SortByImpl(Result.RELEVANCE, SortOrder.DESCENDING);
+    QueryRequest request =
+        new QueryRequestImpl(new QueryImpl(Filter.INCLUDE, 1, 4, sortBy, true, 0L), properties);
+    QueryRequest sourceRequest =
+        new QueryRequestImpl(
+            new QueryImpl(Filter.INCLUDE, 1, 2, sortBy, true, 0L),
+            false,
+            Collections.singleton("Source-0"),
+            properties);
+
+    Future<SourceResponse> future = mock(Future.class);
+    Map<Future<SourceResponse>, QueryRequest> sourceFutures = new HashMap<>();
+    sourceFutures.put(future, sourceRequest);
+    when(future.get()).thenReturn(new SourceResponseImpl(sourceRequest, results.subList(0, 2), 4L));
+    when(completionService.take()).thenReturn(future);
+    Source source = mock(Source.class);
+    ArgumentCaptor<QueryRequest> pageRequest = ArgumentCaptor.forClass(QueryRequest.class);
+    when(cachingFederationStrategy.querySource(eq(source), pageRequest.capture()))
+        .thenAnswer(
+            invocation ->
+                new SourceResponseImpl(
+                    (QueryRequest) invocation.getArguments()[1], results.subList(2, 4), 4L));
+
+    queryResponse = new QueryResponseImpl(request);
+    SortedQueryMonitor queryMonitor =
+        new SortedQueryMonitor(
+            cachingFederationStrategy,
+            completionService,
+            sourceFutures,
+            Collections.singletonMap(future, source),
+            queryResponse,
+            request,
+            new ArrayList<>());
+    queryMonitor.run();
+
+    verify(cachingFederationStrategy, times(1)).querySource(eq(source), any(QueryRequest.class));
+    assertThat(pageRequest.getValue().getQuery().getStartIndex()).isEqualTo(3);
+    assertThat(pageRequest.getValue().getProperties())
+        .doesNotContainKey(Constants.CURSOR_MARK_KEY)
+        .doesNotContainKey(Constants.NEXT_CURSOR_MARK_KEY);
+    assertThat(queryResponse.getResults()).containsExactly(results.toArray(new Result[0]));
+  }
+
   public Iterator<Future<SourceResponse>> getFutureIterator() {
     List<Future<SourceResponse>> futureKeys = new ArrayList<>();
     futureKeys.addAll(futures.keySet());
@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package ddf.catalog.cache.solr.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.util.impl.RelevanceResultComparator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import org.junit.Before;
+import org.junit.Test;
+import org.opengis.filter.sort.SortOrder;
+
+public class SortedResultMergerTest {
+
+  private SortedResultMerger merger;
+
+  @Before
+  public void setUp() {
+    merger = new SortedResultMerger(new RelevanceResultComparator(SortOrder.DESCENDING));
+  }
+
+  @Test
+  public void mergesSortedSources() {
+    merger.addSource(results(9.0, 5.0, 1.0));
+    merger.addSource(results(8.0, 7.0, 2.0));
+    merger.addSource(results(6.0));
+
+    assertThat(scores(merger)).containsExactly(9.0, 8.0, 7.0, 6.0, 5.0, 2.0, 1.0);
+  }
+
+  @Test
+  public void sortsUnsortedSources() {
+    merger.addSource(results(1.0, 9.0, 5.0));
+    merger.addSource(results(8.0, 2.0));
+
+    assertThat(scores(merger)).containsExactly(9.0, 8.0, 5.0, 2.0, 1.0);
+  }
+
+  @Test
+  public void equalResultsKeepSourceOrder() {
+    List<Result> first = results(5.0, 5.0);
+    List<Result> second = results(5.0);
+    merger.addSource(first);
+    merger.addSource(second);
+
+    List<Result> merged = new ArrayList<>();
+    merger.forEachRemaining(merged::add);
+
+    assertThat(merged).containsExactly(first.get(0), first.get(1), second.get(0));
+  }
+
+  @Test
+  public void ignoresEmptySources() {
+    merger.addSource(Collections.emptyList());
+    merger.addSource(null);
+    merger.addSource(results(3.0));
+
+    assertThat(merger.size()).isEqualTo(1);
+    assertThat(scores(merger)).containsExactly(3.0);
+  }
+
+  @Test
+  public void fetchesFollowingPagesOnlyWhileTheMergeNeedsThem() {
+    merger = new SortedResultMerger(new RelevanceResultComparator(SortOrder.DESCENDING), 5);
+    List<Integer> requestedCounts = new ArrayList<>();
+    List<Result> remaining = results(7.0, 6.0, 5.0, 4.0, 3.0, 2.0, 1.0);
+
+    merger.addSource(results(9.0, 8.0), pager(remaining, requestedCounts));
+    merger.addSource(results(7.5));
+
+    assertThat(scores(merger)).containsExactly(9.0, 8.0, 7.5, 7.0, 6.0);
+    // Twice the first page, but only the 3 results still needed for the page
+    assertThat(requestedCounts).containsExactly(3);
+    assertThat(merger.size()).isEqualTo(6);
+  }
+
+  @Test
+  public void doublesThePageSizeOfEachFollowingPage() {
+    List<Integer> requestedCounts = new ArrayList<>();
+    List<Result> remaining = results(7.0, 6.0, 5.0, 4.0, 3.0, 2.0, 1.0);
+
+    merger.addSource(results(9.0), pager(remaining, requestedCounts));
+
+    assertThat(scores(merger)).containsExactly(9.0, 7.0, 6.0, 5.0, 4.0, 3.0, 2.0, 1.0);
+    assertThat(requestedCounts).containsExactly(2, 4, 8, 16);
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void nextWhenEmpty() {
+    merger.next();
+  }
+
+  private List<Result> results(Double... scores) {
+    List<Result> results = new ArrayList<>();
+    Arrays.stream(scores)
+        .forEach(
+            score -> {
+              ResultImpl result = new ResultImpl();
+              result.setRelevanceScore(score);
+              results.add(result);
+            });
+    return results;
+  }
+
+  private SortedResultMerger.SourcePager pager(
+      List<Result> remaining, List<Integer> requestedCounts) {
+    return count -> {
+      requestedCounts.add(count);
+      List<Result> next = remaining.subList(0, Math.min(count, remaining.size()));
+      List<Result> page = new ArrayList<>(next);
+      next.clear();
+      return page;
+    };
+  }
+
+  private List<Double> scores(SortedResultMerger merger) {
+    List<Double> scores = new ArrayList<>();
+    merger.forEachRemaining(result -> scores.add(result.getRelevanceScore()));
+    return scores;
+  }
+}
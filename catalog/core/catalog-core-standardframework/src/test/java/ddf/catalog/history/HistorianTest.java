@@ -18,18 +18,24 @@
 import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyObject;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import ddf.catalog.Constants;
 import ddf.catalog.content.StorageException;
 import ddf.catalog.content.StorageProvider;
 import ddf.catalog.content.data.ContentItem;
+import ddf.catalog.content.data.impl.ContentByteSources;
+import ddf.catalog.content.data.impl.ContentItemImpl;
+import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.content.operation.CreateStorageResponse;
 import ddf.catalog.content.operation.DeleteStorageRequest;
 import ddf.catalog.content.operation.ReadStorageRequest;
@@ -260,6 +266,39 @@ public void testUpdateStorageResponse()
         storageResponse.getUpdatedContentItems().get(0).getUri(), not(equalTo(RESOURCE_URI)));
   }
 
+  @Test
+  public void testUpdateStorageResponseReferencesStoredContent() throws Exception {
+    List<Metacard> metacards = getMetacardUpdatePair();
+    UpdateStorageRequest storageRequest = mock(UpdateStorageRequest.class);
+    UpdateStorageResponse storageResponse = mock(UpdateStorageResponse.class);
+    UpdateResponse updateResponse = mock(UpdateResponse.class);
+
+    storeMetacard(metacards.get(0));
+    updateMetacard(storageRequest, storageResponse, metacards.get(1));
+    storageProvider.update(storageRequest);
+
+    StorageProvider spyStorageProvider = spy(storageProvider);
+    historian.setStorageProviders(Collections.singletonList(spyStorageProvider));
+
+    mockQuery(metacards.get(1));
+    historian.version(storageRequest, storageResponse, updateResponse);
+
+    ArgumentCaptor<CreateStorageRequest> captor =
+        ArgumentCaptor.forClass(CreateStorageRequest.class);
+    verify(spyStorageProvider).create(captor.capture());
+    CreateStorageRequest createRequest = captor.getValue();
+    String versionedUri = createRequest.getContentItems().get(0).getUri();
+
+    assertThat(
+        (Map<String, String>) createRequest.getPropertyValue(Constants.CONTENT_SOURCE_URIS),
+        hasEntry(versionedUri, RESOURCE_URI));
+    ContentItemImpl versionedItem = (ContentItemImpl) createRequest.getContentItems().get(0);
+    assertThat(
+        ((ContentByteSources) createRequest.getPropertyValue(Constants.CONTENT_BYTE_SOURCES))
+            .get(versionedItem.getId(), versionedItem.getQualifier()),
+        sameInstance(versionedItem.getByteSource()));
+  }
+
   @Test
   public void testUpdateStorageResponseWithOnlyQualifiedContentItems()
       throws UnsupportedQueryException, SourceUnavailableException, IngestException,
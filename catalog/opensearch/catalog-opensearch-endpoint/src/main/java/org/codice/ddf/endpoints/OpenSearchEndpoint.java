@@ -41,6 +41,7 @@
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 import javax.ws.rs.core.UriInfo;
 import org.apache.commons.lang.StringUtils;
 import org.codice.ddf.configuration.SystemInfo;
@@ -337,7 +338,7 @@ private Response executeQuery(
 
         // pass in the format for the transform
         BinaryContent content = framework.transform(queryResponse, queryFormat, arguments);
-        response = Response.ok(content.getInputStream(), content.getMimeTypeValue()).build();
+        response = Response.ok(toStreamingOutput(content), content.getMimeTypeValue()).build();
       } else {
         // No query was specified
         QueryRequest queryRequest =
@@ -350,7 +351,7 @@ private Response executeQuery(
         // pass in the format for the transform
         BinaryContent content = framework.transform(queryResponseQueue, queryFormat, arguments);
         if (null != content) {
-          response = Response.ok(content.getInputStream(), content.getMimeTypeValue()).build();
+          response = Response.ok(toStreamingOutput(content), content.getMimeTypeValue()).build();
         }
       }
     } catch (UnsupportedQueryException ce) {
@@ -433,6 +434,11 @@ private OpenSearchQuery createNewQuery(
     return new OpenSearchQuery(startIndex, count, sortField, sortOrder, maxTimeout, filterBuilder);
   }
 
+  /** Writes the transformed response to the client as it is produced instead of buffering it. */
+  private StreamingOutput toStreamingOutput(BinaryContent content) {
+    return content::writeTo;
+  }
+
   private String wrapStringInPreformattedTags(String stringToWrap) {
     return "<pre>" + stringToWrap + "</pre>";
   }
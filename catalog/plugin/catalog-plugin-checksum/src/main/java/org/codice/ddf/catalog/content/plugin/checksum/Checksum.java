@@ -13,7 +13,9 @@
  */
 package org.codice.ddf.catalog.content.plugin.checksum;
 
+import ddf.catalog.Constants;
 import ddf.catalog.content.data.ContentItem;
+import ddf.catalog.content.data.impl.ContentByteSources;
 import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.content.operation.UpdateStorageRequest;
 import ddf.catalog.content.plugin.PreCreateStoragePlugin;
@@ -23,8 +25,11 @@
 import ddf.catalog.plugin.PluginExecutionException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import org.codice.ddf.checksum.ChecksumProvider;
 
 public class Checksum implements PreCreateStoragePlugin, PreUpdateStoragePlugin {
@@ -39,7 +44,7 @@ public CreateStorageRequest process(CreateStorageRequest input) throws PluginExe
     if (input == null) {
       throw new IllegalArgumentException("CreateStorageRequest cannot be null");
     }
-    runChecksum(input.getContentItems());
+    runChecksum(input.getContentItems(), input.getProperties());
 
     return input;
   }
@@ -49,16 +54,30 @@ public UpdateStorageRequest process(UpdateStorageRequest input) throws PluginExe
     if (input == null) {
       throw new IllegalArgumentException("UpdateStorageRequest cannot be null");
     }
-    runChecksum(input.getContentItems());
+    runChecksum(input.getContentItems(), input.getProperties());
 
     return input;
   }
 
-  private void runChecksum(List<ContentItem> contentItems) throws PluginExecutionException {
+  private void runChecksum(List<ContentItem> contentItems, Map<String, Serializable> properties)
+      throws PluginExecutionException {
+    String checksumAlgorithm = checksumProvider.getChecksumAlgorithm();
+    Map<String, Map<String, String>> contentChecksums =
+        getContentChecksums(properties, checksumAlgorithm);
+
     for (ContentItem contentItem : contentItems) {
+      String contentChecksum =
+          contentChecksums
+              .getOrDefault(contentItem.getId(), Collections.emptyMap())
+              .get(contentItem.getQualifier());
+      if (contentChecksum != null && isFrameworkContent(properties, contentItem)) {
+        // the framework already computed it while copying the content
+        addChecksumAttributes(contentItem.getMetacard(), checksumAlgorithm, contentChecksum);
+        continue;
+      }
+
       try (InputStream inputStream = contentItem.getInputStream()) {
         // calculate checksum so that it can be added as an attribute on metacard
-        String checksumAlgorithm = checksumProvider.getChecksumAlgorithm();
         String checksumValue;
 
         try {
@@ -76,6 +95,27 @@ private void runChecksum(List<ContentItem> contentItems) throws PluginExecutionE
     }
   }
 
+  @SuppressWarnings("unchecked")
+  private Map<String, Map<String, String>> getContentChecksums(
+      Map<String, Serializable> properties, String checksumAlgorithm) {
+    if (properties != null
+        && checksumAlgorithm.equals(properties.get(Constants.CONTENT_CHECKSUM_ALGORITHM))
+        && properties.get(Constants.CONTENT_CHECKSUMS) instanceof Map) {
+      return (Map<String, Map<String, String>>) properties.get(Constants.CONTENT_CHECKSUMS);
+    }
+    return Collections.emptyMap();
+  }
+
+  /**
+   * The framework's checksum only describes the content of an item whose byte source is still the
+   * one the framework created for it, and not content another plugin replaced.
+   */
+  private boolean isFrameworkContent(Map<String, Serializable> properties, ContentItem item) {
+    Object byteSources = properties.get(Constants.CONTENT_BYTE_SOURCES);
+    return byteSources instanceof ContentByteSources
+        && ((ContentByteSources) byteSources).isRecorded(item);
+  }
+
   private void addChecksumAttributes(
       Metacard metacard, final String checksumAlgorithm, final String checksumValue) {
     metacard.setAttribute(new AttributeImpl(Metacard.CHECKSUM_ALGORITHM, checksumAlgorithm));
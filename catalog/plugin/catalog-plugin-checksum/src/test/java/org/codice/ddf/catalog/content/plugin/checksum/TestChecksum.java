@@ -20,9 +20,15 @@
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.io.ByteSource;
+import ddf.catalog.Constants;
 import ddf.catalog.content.data.ContentItem;
+import ddf.catalog.content.data.impl.ContentByteSources;
+import ddf.catalog.content.data.impl.ContentItemImpl;
 import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.content.operation.UpdateStorageRequest;
 import ddf.catalog.data.Metacard;
@@ -30,9 +36,14 @@
 import ddf.catalog.plugin.PluginExecutionException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.codice.ddf.checksum.ChecksumProvider;
 import org.junit.Before;
 import org.junit.Test;
@@ -50,6 +61,12 @@ public class TestChecksum {
 
   private static final String SAMPLE_CHECKSUM_VALUE = "324D54D92B2D97471F9F4624596EA9F5";
 
+  private static final String CONTENT_CHECKSUM_VALUE = "0E5F2A8C11D4B8E7A1C3F9B2D6E04A17";
+
+  private static final String CONTENT_ITEM_ID = "contentItemId";
+
+  private static final byte[] CONTENT = "content".getBytes(StandardCharsets.UTF_8);
+
   @Before
   public void initialize() throws IOException, NoSuchAlgorithmException {
     mockChecksumProvider = mock(ChecksumProvider.class);
@@ -64,6 +81,7 @@ public void initialize() throws IOException, NoSuchAlgorithmException {
 
     List<ContentItem> mockContentItems = new ArrayList<>();
     ContentItem mockContentItem = mock(ContentItem.class);
+    when(mockContentItem.getId()).thenReturn(CONTENT_ITEM_ID);
     when(mockContentItem.getInputStream()).thenReturn(inputStream);
     when(mockContentItem.getMetacard()).thenReturn(new MetacardImpl());
     mockContentItems.add(mockContentItem);
@@ -122,6 +140,56 @@ public void testProcessUpdateWithValidInput() throws PluginExecutionException {
     assertThat(checksumAlgorithm, is(SAMPLE_CHECKSUM_ALGORITHM));
   }
 
+  @Test
+  public void testProcessCreateWithContentChecksum() throws Exception {
+    ContentItem contentItem = getContentItem(ByteSource.wrap(CONTENT));
+    when(mockCreateRequest.getContentItems()).thenReturn(Collections.singletonList(contentItem));
+    when(mockCreateRequest.getProperties())
+        .thenReturn(getContentChecksumProperties(SAMPLE_CHECKSUM_ALGORITHM, contentItem));
+
+    CreateStorageRequest request = checksum.process(mockCreateRequest);
+
+    Metacard metacard = request.getContentItems().get(0).getMetacard();
+    assertThat(metacard.getAttribute(Metacard.CHECKSUM).getValue(), is(CONTENT_CHECKSUM_VALUE));
+    assertThat(
+        metacard.getAttribute(Metacard.CHECKSUM_ALGORITHM).getValue(),
+        is(SAMPLE_CHECKSUM_ALGORITHM));
+    verify(mockChecksumProvider, never()).calculateChecksum(any(InputStream.class));
+  }
+
+  @Test
+  public void testProcessCreateWithReplacedContent() throws Exception {
+    ContentItem contentItem = getContentItem(ByteSource.wrap(CONTENT));
+    Map<String, Serializable> properties =
+        getContentChecksumProperties(SAMPLE_CHECKSUM_ALGORITHM, contentItem);
+    ContentItem replacedItem = getContentItem(ByteSource.wrap(CONTENT));
+    when(mockCreateRequest.getContentItems()).thenReturn(Collections.singletonList(replacedItem));
+    when(mockCreateRequest.getProperties()).thenReturn(properties);
+    when(mockChecksumProvider.calculateChecksum(any(InputStream.class)))
+        .thenReturn(SAMPLE_CHECKSUM_VALUE);
+
+    CreateStorageRequest request = checksum.process(mockCreateRequest);
+
+    Metacard metacard = request.getContentItems().get(0).getMetacard();
+    assertThat(metacard.getAttribute(Metacard.CHECKSUM).getValue(), is(SAMPLE_CHECKSUM_VALUE));
+  }
+
+  @Test
+  public void testProcessUpdateWithContentChecksumOfOtherAlgorithm()
+      throws PluginExecutionException {
+    ContentItem contentItem = getContentItem(ByteSource.wrap(CONTENT));
+    when(mockUpdateRequest.getContentItems()).thenReturn(Collections.singletonList(contentItem));
+    when(mockUpdateRequest.getProperties())
+        .thenReturn(getContentChecksumProperties("Adler32", contentItem));
+    when(mockChecksumProvider.calculateChecksum(any(InputStream.class)))
+        .thenReturn(SAMPLE_CHECKSUM_VALUE);
+
+    UpdateStorageRequest request = checksum.process(mockUpdateRequest);
+
+    Metacard metacard = request.getContentItems().get(0).getMetacard();
+    assertThat(metacard.getAttribute(Metacard.CHECKSUM).getValue(), is(SAMPLE_CHECKSUM_VALUE));
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testProcessCreateWithNullInput() throws PluginExecutionException {
     checksum.process((CreateStorageRequest) null);
@@ -155,4 +223,24 @@ public void testProcessUpdateChecksumCalculationIOException() throws Exception {
       assertThat(e.getCause(), instanceOf(IOException.class));
     }
   }
+
+  private ContentItem getContentItem(ByteSource byteSource) {
+    return new ContentItemImpl(CONTENT_ITEM_ID, byteSource, "text/plain", new MetacardImpl());
+  }
+
+  private Map<String, Serializable> getContentChecksumProperties(
+      String algorithm, ContentItem contentItem) {
+    HashMap<String, Map<String, String>> contentChecksums = new HashMap<>();
+    contentChecksums
+        .computeIfAbsent(CONTENT_ITEM_ID, id -> new HashMap<>())
+        .put(null, CONTENT_CHECKSUM_VALUE);
+    ContentByteSources contentByteSources = new ContentByteSources();
+    contentByteSources.put(CONTENT_ITEM_ID, null, ((ContentItemImpl) contentItem).getByteSource());
+
+    Map<String, Serializable> properties = new HashMap<>();
+    properties.put(Constants.CONTENT_CHECKSUMS, contentChecksums);
+    properties.put(Constants.CONTENT_CHECKSUM_ALGORITHM, algorithm);
+    properties.put(Constants.CONTENT_BYTE_SOURCES, contentByteSources);
+    return properties;
+  }
 }
@@ -0,0 +1,814 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.plugin.metacard.backup.storage.filestorage;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import org.apache.commons.io.input.CountingInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only log of backed up metacards. The transformed metacards are appended to rolling segment
+ * files, each record compressed on its own so that it can still be read back from its offset. An
+ * in-memory index maps each metacard ID to the location of its latest record and is rebuilt by
+ * scanning the segments when the log is opened.
+ *
+ * <p>Updates and deletes leave superseded records behind in the older segments. {@link #compact()}
+ * rewrites runs of sealed segments that are mostly garbage without them, each run into a segment no
+ * larger than the maximum segment size. A compacted segment takes the place of the newest segment
+ * it replaces, so replaying the segments in order always yields the latest record of each metacard.
+ * Compaction is suspended while the log is open for reading only, so that a restore sees the
+ * segments it indexed when it opened the log.
+ *
+ * <p>Segment file format:
+ *
+ * <pre>
+ * segment = magic:int firstSegment:long record*
+ * record  = type:byte id:UTF length:int compressedLength:int crc:int compressedContent
+ * </pre>
+ *
+ * <p>{@code firstSegment} is the number of the oldest segment a compacted segment replaces, or the
+ * number of the segment itself.
+ */
+public class MetacardSegmentLog implements Closeable {
+
+  static final String SEGMENT_PREFIX = "segment-";
+
+  static final String SEGMENT_SUFFIX = ".log";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MetacardSegmentLog.class);
+
+  private static final String TEMP_SUFFIX = ".tmp";
+
+  private static final int MAGIC = 0x4D42534C;
+
+  private static final int HEADER_SIZE = Integer.BYTES + Long.BYTES;
+
+  private static final byte PUT = 1;
+
+  private static final byte DELETE = 2;
+
+  /** Share of a segment that has to be garbage before the segment is compacted. */
+  private static final double COMPACTION_THRESHOLD = 0.5;
+
+  /**
+   * Locks of the open log directories. Readers hold a read lock, compaction only runs if it can get
+   * the write lock.
+   */
+  private static final ConcurrentMap<Path, StampedLock> DIRECTORY_LOCKS = new ConcurrentHashMap<>();
+
+  private final Path directory;
+
+  private final long maxSegmentSize;
+
+  private final boolean readOnly;
+
+  private final Map<String, RecordLocation> index = new HashMap<>();
+
+  /** Size and live size of each segment, by segment number. */
+  private final NavigableMap<Long, SegmentStats> segments = new TreeMap<>();
+
+  private final Deflater deflater = new Deflater();
+
+  private final StampedLock directoryLock;
+
+  private long readStamp;
+
+  private long activeSegment;
+
+  private FileOutputStream activeFile;
+
+  private DataOutputStream activeOutput;
+
+  private long activeSize;
+
+  private boolean compacting;
+
+  /**
+   * Opens the log in a directory, creating the directory if needed.
+   *
+   * @param directory directory of the segment files
+   * @param maxSegmentSize size in bytes after which a new segment is started
+   * @param readOnly {@code true} to open the log for reading only, e.g. to restore it while it is
+   *     still being written to
+   * @throws IOException if the segments can't be read
+   */
+  public MetacardSegmentLog(Path directory, long maxSegmentSize, boolean readOnly)
+      throws IOException {
+    this.directory = directory;
+    this.maxSegmentSize = maxSegmentSize;
+    this.readOnly = readOnly;
+    this.directoryLock =
+        DIRECTORY_LOCKS.computeIfAbsent(
+            directory.toAbsolutePath().normalize(), key -> new StampedLock());
+
+    if (readOnly) {
+      readStamp = directoryLock.readLock();
+    } else {
+      Files.createDirectories(directory);
+    }
+
+    try {
+      for (long segment : listSegments()) {
+        loadSegment(segment);
+      }
+
+      if (!readOnly) {
+        openActiveSegment();
+      }
+    } catch (IOException | RuntimeException e) {
+      unlockRead();
+      throw e;
+    }
+
+    LOGGER.debug(
+        "Opened metacard backup log {} with {} segments and {} metacards",
+        directory,
+        segments.size(),
+        size());
+  }
+
+  /**
+   * Appends the latest version of a metacard.
+   *
+   * @param id ID of the metacard
+   * @param content transformed metacard
+   * @throws IOException if the record can't be written
+   */
+  public synchronized void append(String id, byte[] content) throws IOException {
+    checkWritable();
+    deflater.reset();
+    deflater.setInput(content);
+    deflater.finish();
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 2 + 64);
+    byte[] buffer = new byte[8192];
+    while (!deflater.finished()) {
+      compressed.write(buffer, 0, deflater.deflate(buffer));
+    }
+
+    writeRecord(new Record(PUT, id, content.length, compressed.toByteArray()));
+  }
+
+  /**
+   * Records the deletion of a metacard.
+   *
+   * @param id ID of the metacard
+   * @throws IOException if the record can't be written
+   */
+  public synchronized void delete(String id) throws IOException {
+    checkWritable();
+    RecordLocation location = index.get(id);
+    if (location != null && !location.deleted) {
+      writeRecord(new Record(DELETE, id, 0, new byte[0]));
+    }
+  }
+
+  /**
+   * @param id ID of the metacard
+   * @return latest version of the metacard, or {@code null} if it isn't in the log or was deleted
+   * @throws IOException if the record can't be read
+   */
+  public synchronized byte[] read(String id) throws IOException {
+    RecordLocation location = index.get(id);
+    if (location == null || location.deleted) {
+      return null;
+    }
+
+    if (location.segment == activeSegment && activeOutput != null) {
+      activeOutput.flush();
+    }
+
+    try (FileChannel channel = FileChannel.open(getSegmentPath(location.segment))) {
+      channel.position(location.offset);
+      DataInputStream input =
+          new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+      return readRecord(input).getContent();
+    }
+  }
+
+  /**
+   * Reads the latest version of each metacard, in the order the segments were written.
+   *
+   * @param consumer receives the ID and content of each metacard
+   * @throws IOException if the segments can't be read
+   */
+  public void forEach(BiConsumer<String, byte[]> consumer) throws IOException {
+    List<Long> segmentNumbers;
+    synchronized (this) {
+      if (activeOutput != null) {
+        activeOutput.flush();
+      }
+      segmentNumbers = new ArrayList<>(segments.keySet());
+    }
+
+    long stamp = directoryLock.readLock();
+    try {
+      for (long segment : segmentNumbers) {
+        scanSegment(
+            segment,
+            (record, offset) -> {
+              if (record.type == PUT && isLatest(record.id, segment, offset)) {
+                consumer.accept(record.id, record.getContent());
+              }
+            });
+      }
+    } finally {
+      directoryLock.unlockRead(stamp);
+    }
+  }
+
+  /**
+   * Rewrites the runs of sealed segments that are mostly garbage without the superseded versions.
+   * Each run is limited to the segments whose live records fit in a single segment. Appends can
+   * continue while the segments are rewritten. Nothing is compacted while the log is open for
+   * reading only.
+   *
+   * @return {@code true} if segments were compacted, {@code false} if there was nothing to compact
+   * @throws IOException if the segments can't be compacted
+   */
+  public boolean compact() throws IOException {
+    synchronized (this) {
+      if (readOnly || compacting) {
+        return false;
+      }
+      compacting = true;
+    }
+
+    long stamp = directoryLock.tryWriteLock();
+    try {
+      if (stamp == 0) {
+        LOGGER.debug("Not compacting metacard backup {} while it is being restored", directory);
+        return false;
+      }
+
+      boolean compacted = false;
+      for (List<Long> window : getCompactionWindows()) {
+        compactWindow(window);
+        compacted = true;
+      }
+      return compacted;
+    } finally {
+      if (stamp != 0) {
+        directoryLock.unlockWrite(stamp);
+      }
+      synchronized (this) {
+        compacting = false;
+      }
+    }
+  }
+
+  /**
+   * @return runs of consecutive sealed segments that are either empty or mostly garbage, each run
+   *     with live records that fit in a single segment and with at least some garbage
+   */
+  private synchronized List<List<Long>> getCompactionWindows() {
+    List<List<Long>> windows = new ArrayList<>();
+    List<Long> window = new ArrayList<>();
+    long windowSize = HEADER_SIZE;
+    boolean windowHasGarbage = false;
+
+    for (Map.Entry<Long, SegmentStats> entry : segments.headMap(activeSegment, false).entrySet()) {
+      SegmentStats stats = entry.getValue();
+      long recordsSize = stats.size - HEADER_SIZE;
+      long garbageSize = recordsSize - stats.liveSize;
+      boolean eligible = recordsSize == 0 || garbageSize >= recordsSize * COMPACTION_THRESHOLD;
+
+      if (!window.isEmpty() && (!eligible || windowSize + stats.liveSize > maxSegmentSize)) {
+        if (windowHasGarbage) {
+          windows.add(window);
+        }
+        window = new ArrayList<>();
+        windowSize = HEADER_SIZE;
+        windowHasGarbage = false;
+      }
+
+      if (eligible) {
+        window.add(entry.getKey());
+        windowSize += stats.liveSize;
+        windowHasGarbage |= garbageSize > 0;
+      }
+    }
+
+    if (windowHasGarbage) {
+      windows.add(window);
+    }
+    return windows;
+  }
+
+  /**
+   * Rewrites consecutive sealed segments into a single segment that replaces the last of them. The
+   * deletes are only dropped if there is no older segment that could still hold the deleted record.
+   */
+  private void compactWindow(List<Long> window) throws IOException {
+    long firstSegment = window.get(0);
+    long lastSegment = window.get(window.size() - 1);
+    Map<String, RecordLocation> snapshot = new HashMap<>();
+    boolean dropDeletes;
+
+    synchronized (this) {
+      dropDeletes = firstSegment == segments.firstKey();
+      index.forEach(
+          (id, location) -> {
+            if (location.segment >= firstSegment && location.segment <= lastSegment) {
+              snapshot.put(id, location);
+            }
+          });
+    }
+
+    LOGGER.debug(
+        "Compacting metacard backup segments {} to {} of {}", firstSegment, lastSegment, directory);
+
+    Path tempPath = directory.resolve(getSegmentName(lastSegment) + TEMP_SUFFIX);
+    Map<String, RecordLocation> moved = new HashMap<>();
+    long[] size = {HEADER_SIZE};
+
+    try (FileOutputStream file = new FileOutputStream(tempPath.toFile());
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(file))) {
+      output.writeInt(MAGIC);
+      output.writeLong(firstSegment);
+
+      for (long segment : window) {
+        scanSegment(
+            segment,
+            (record, offset) -> {
+              RecordLocation location = snapshot.get(record.id);
+              if ((record.type == PUT || !dropDeletes)
+                  && location != null
+                  && location.segment == segment
+                  && location.offset == offset) {
+                moved.put(
+                    record.id,
+                    new RecordLocation(
+                        lastSegment, size[0], record.getSize(), record.type == DELETE));
+                record.write(output);
+                size[0] += record.getSize();
+              }
+            });
+      }
+
+      output.flush();
+      file.getFD().sync();
+    }
+
+    synchronized (this) {
+      Files.move(
+          tempPath,
+          getSegmentPath(lastSegment),
+          StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+      for (long segment : window) {
+        if (segment != lastSegment) {
+          Files.deleteIfExists(getSegmentPath(segment));
+        }
+      }
+
+      long liveSize = 0;
+      for (Map.Entry<String, RecordLocation> entry : snapshot.entrySet()) {
+        String id = entry.getKey();
+        if (index.get(id) != entry.getValue()) {
+          // superseded while compacting
+          continue;
+        }
+
+        RecordLocation location = moved.get(id);
+        if (location == null) {
+          index.remove(id);
+        } else {
+          index.put(id, location);
+          liveSize += location.size;
+        }
+      }
+
+      segments.subMap(firstSegment, true, lastSegment, true).clear();
+      segments.put(lastSegment, new SegmentStats(size[0], liveSize));
+    }
+
+    LOGGER.debug("Compacted metacard backup segments {} to {}", firstSegment, lastSegment);
+  }
+
+  /** @return number of metacards in the log, excluding the deleted ones */
+  public synchronized int size() {
+    return (int) index.values().stream().filter(location -> !location.deleted).count();
+  }
+
+  /** @return number of segment files */
+  public synchronized int getSegmentCount() {
+    return segments.size();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (activeOutput != null) {
+      activeOutput.flush();
+      activeFile.getFD().sync();
+      activeOutput.close();
+      activeOutput = null;
+      activeFile = null;
+    }
+    deflater.end();
+    unlockRead();
+  }
+
+  private synchronized void unlockRead() {
+    if (readStamp != 0) {
+      directoryLock.unlockRead(readStamp);
+      readStamp = 0;
+    }
+  }
+
+  private void checkWritable() {
+    if (readOnly) {
+      throw new IllegalStateException("Metacard backup log " + directory + " is read only");
+    }
+
+    if (activeOutput == null) {
+      throw new IllegalStateException("Metacard backup log " + directory + " is closed");
+    }
+  }
+
+  private void writeRecord(Record record) throws IOException {
+    if (activeSize >= maxSegmentSize) {
+      rollSegment();
+    }
+
+    RecordLocation location =
+        new RecordLocation(activeSegment, activeSize, record.getSize(), record.type == DELETE);
+    record.write(activeOutput);
+    activeOutput.flush();
+    activeSize += location.size;
+
+    addRecord(record.id, location);
+  }
+
+  private void addRecord(String id, RecordLocation location) {
+    RecordLocation previous = index.put(id, location);
+    if (previous != null) {
+      SegmentStats stats = segments.get(previous.segment);
+      if (stats != null) {
+        stats.liveSize -= previous.size;
+      }
+    }
+
+    SegmentStats stats = segments.computeIfAbsent(location.segment, key -> new SegmentStats());
+    stats.size = location.offset + location.size;
+    stats.liveSize += location.size;
+  }
+
+  private boolean isLatest(String id, long segment, long offset) {
+    synchronized (this) {
+      RecordLocation location = index.get(id);
+      return location != null && location.segment == segment && location.offset == offset;
+    }
+  }
+
+  private void rollSegment() throws IOException {
+    activeOutput.flush();
+    activeFile.getFD().sync();
+    activeOutput.close();
+    activeSegment++;
+    openSegment(activeSegment);
+  }
+
+  private void openActiveSegment() throws IOException {
+    if (segments.isEmpty()) {
+      activeSegment = 1;
+      openSegment(activeSegment);
+      return;
+    }
+
+    activeSegment = segments.lastKey();
+    SegmentStats stats = segments.get(activeSegment);
+    if (stats.size >= maxSegmentSize) {
+      activeSegment++;
+      openSegment(activeSegment);
+      return;
+    }
+
+    activeFile = new FileOutputStream(getSegmentPath(activeSegment).toFile(), true);
+    activeOutput = new DataOutputStream(new BufferedOutputStream(activeFile));
+    activeSize = stats.size;
+  }
+
+  private void openSegment(long segment) throws IOException {
+    activeFile = new FileOutputStream(getSegmentPath(segment).toFile());
+    activeOutput = new DataOutputStream(new BufferedOutputStream(activeFile));
+    activeOutput.writeInt(MAGIC);
+    activeOutput.writeLong(segment);
+    activeOutput.flush();
+    activeSize = HEADER_SIZE;
+    segments.put(segment, new SegmentStats(HEADER_SIZE, 0));
+  }
+
+  private List<Long> listSegments() throws IOException {
+    TreeMap<Long, Long> firstSegments = new TreeMap<>();
+    if (!Files.isDirectory(directory)) {
+      return new ArrayList<>();
+    }
+
+    try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory)) {
+      for (Path path : paths) {
+        String name = path.getFileName().toString();
+        if (name.endsWith(TEMP_SUFFIX)) {
+          // left behind by an interrupted compaction
+          if (!readOnly) {
+            Files.deleteIfExists(path);
+          }
+        } else if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+          long segment = parseSegmentNumber(name);
+          long firstSegment = segment > 0 ? readFirstSegment(path) : -1;
+          if (firstSegment > 0 && firstSegment <= segment) {
+            firstSegments.put(segment, firstSegment);
+          } else {
+            LOGGER.info("Ignoring invalid metacard backup segment {}", path);
+          }
+        }
+      }
+    }
+
+    // drop the segments replaced by a compacted segment if the compaction was interrupted before
+    // they could be deleted
+    List<Long> result = new ArrayList<>();
+    for (Long segment : firstSegments.descendingKeySet()) {
+      Long firstSegment = firstSegments.get(segment);
+      if (firstSegment == null) {
+        continue;
+      }
+
+      result.add(0, segment);
+      for (Long replaced : new ArrayList<>(firstSegments.subMap(firstSegment, segment).keySet())) {
+        firstSegments.put(replaced, null);
+        if (!readOnly) {
+          Files.deleteIfExists(getSegmentPath(replaced));
+        }
+      }
+    }
+
+    return result;
+  }
+
+  private void loadSegment(long segment) throws IOException {
+    segments.put(segment, new SegmentStats(HEADER_SIZE, 0));
+    long validSize =
+        scanSegment(
+            segment,
+            (record, offset) ->
+                addRecord(
+                    record.id,
+                    new RecordLocation(segment, offset, record.getSize(), record.type == DELETE)));
+
+    Path path = getSegmentPath(segment);
+    if (validSize < Files.size(path)) {
+      LOGGER.info(
+          "Metacard backup segment {} ends with an incomplete record at offset {}",
+          path,
+          validSize);
+      if (!readOnly) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+          channel.truncate(validSize);
+        }
+      }
+    }
+  }
+
+  /** @return size of the valid part of the segment */
+  private long scanSegment(long segment, RecordVisitor visitor) throws IOException {
+    try (InputStream file = Files.newInputStream(getSegmentPath(segment));
+        CountingInputStream counter = new CountingInputStream(new BufferedInputStream(file))) {
+      DataInputStream input = new DataInputStream(counter);
+      if (input.readInt() != MAGIC) {
+        throw new IOException(getSegmentPath(segment) + " is not a metacard backup segment");
+      }
+      input.readLong();
+
+      long offset = counter.getByteCount();
+      while (true) {
+        Record record;
+        try {
+          record = readRecord(input);
+        } catch (EOFException e) {
+          return offset;
+        } catch (IOException e) {
+          LOGGER.debug("Invalid record in {} at offset {}", getSegmentPath(segment), offset, e);
+          return offset;
+        }
+
+        if (record == null) {
+          return offset;
+        }
+
+        visitor.visit(record, offset);
+        offset = counter.getByteCount();
+      }
+    }
+  }
+
+  /** @return number of the oldest segment replaced by the segment, or -1 if it isn't valid */
+  private static long readFirstSegment(Path path) throws IOException {
+    try (DataInputStream input = new DataInputStream(Files.newInputStream(path))) {
+      return input.readInt() == MAGIC ? input.readLong() : -1;
+    } catch (EOFException e) {
+      return -1;
+    }
+  }
+
+  /** @return the next record, or {@code null} at the end of the segment */
+  private static Record readRecord(DataInputStream input) throws IOException {
+    int type = input.read();
+    if (type == -1) {
+      return null;
+    }
+
+    if (type != PUT && type != DELETE) {
+      throw new IOException("Invalid record type " + type);
+    }
+
+    String id = input.readUTF();
+    int length = input.readInt();
+    int compressedLength = input.readInt();
+    int crc = input.readInt();
+    if (length < 0 || compressedLength < 0) {
+      throw new IOException("Invalid record length");
+    }
+
+    byte[] compressed = new byte[compressedLength];
+    input.readFully(compressed);
+
+    Record record = new Record((byte) type, id, length, compressed);
+    if (record.getCrc() != crc) {
+      throw new IOException("Invalid checksum for record " + id);
+    }
+    return record;
+  }
+
+  private Path getSegmentPath(long segment) {
+    return directory.resolve(getSegmentName(segment));
+  }
+
+  static String getSegmentName(long segment) {
+    return String.format("%s%010d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX);
+  }
+
+  private static long parseSegmentNumber(String name) {
+    try {
+      return Long.parseLong(
+          name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  @FunctionalInterface
+  private interface RecordVisitor {
+    void visit(Record record, long offset) throws IOException;
+  }
+
+  private static class Record {
+
+    private final byte type;
+
+    private final String id;
+
+    private final int length;
+
+    private final byte[] compressed;
+
+    Record(byte type, String id, int length, byte[] compressed) {
+      this.type = type;
+      this.id = id;
+      this.length = length;
+      this.compressed = compressed;
+    }
+
+    int getCrc() {
+      CRC32 crc = new CRC32();
+      crc.update(type);
+      crc.update(compressed);
+      return (int) crc.getValue();
+    }
+
+    /** @return size of the record in the segment */
+    int getSize() {
+      int idLength = 0;
+      for (int i = 0; i < id.length(); i++) {
+        char c = id.charAt(i);
+        if (c >= 0x0001 && c <= 0x007F) {
+          idLength++;
+        } else if (c > 0x07FF) {
+          idLength += 3;
+        } else {
+          idLength += 2;
+        }
+      }
+      return 1 + Short.BYTES + idLength + 3 * Integer.BYTES + compressed.length;
+    }
+
+    byte[] getContent() throws IOException {
+      Inflater inflater = new Inflater();
+      try {
+        inflater.setInput(compressed);
+        byte[] content = new byte[length];
+        int read = 0;
+        while (read < length && !inflater.finished()) {
+          int count = inflater.inflate(content, read, length - read);
+          if (count == 0 && inflater.needsInput()) {
+            break;
+          }
+          read += count;
+        }
+
+        if (read != length) {
+          throw new IOException("Invalid content for record " + id);
+        }
+        return content;
+      } catch (DataFormatException e) {
+        throw new IOException("Invalid content for record " + id, e);
+      } finally {
+        inflater.end();
+      }
+    }
+
+    void write(DataOutputStream output) throws IOException {
+      output.writeByte(type);
+      output.writeUTF(id);
+      output.writeInt(length);
+      output.writeInt(compressed.length);
+      output.writeInt(getCrc());
+      output.write(compressed);
+    }
+  }
+
+  private static class RecordLocation {
+
+    private final long segment;
+
+    private final long offset;
+
+    private final int size;
+
+    private final boolean deleted;
+
+    RecordLocation(long segment, long offset, int size, boolean deleted) {
+      this.segment = segment;
+      this.offset = offset;
+      this.size = size;
+      this.deleted = deleted;
+    }
+  }
+
+  private static class SegmentStats {
+
+    private long size;
+
+    private long liveSize;
+
+    SegmentStats() {
+      this(HEADER_SIZE, 0);
+    }
+
+    SegmentStats(long size, long liveSize) {
+      this.size = size;
+      this.liveSize = liveSize;
+    }
+  }
+}
@@ -0,0 +1,240 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.plugin.metacard.backup.storage.filestorage;
+
+import static org.apache.camel.builder.PredicateBuilder.not;
+
+import ddf.camel.component.catalog.ingest.PostIngestConsumer;
+import ddf.camel.component.catalog.metacardtransformer.MetacardTransformerProducer;
+import ddf.catalog.data.Metacard;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.commons.lang3.StringUtils;
+import org.codice.ddf.catalog.plugin.metacard.backup.common.MetacardStorageRoute;
+import org.codice.ddf.catalog.plugin.metacard.backup.common.ResponseMetacardActionSplitter;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Creates a camel route for storing metacards from post-ingest in a {@link MetacardSegmentLog} on
+ * the local file system. This route will transform the metacard using the configured metacard
+ * transformer prior to storage, and records deletes so that the deleted metacards are dropped when
+ * the log is compacted.
+ */
+public class MetacardSegmentStorageRoute extends MetacardStorageRoute {
+  public static final String SEGMENT_DIRECTORY = "segmentDirectory";
+
+  public static final String MAX_SEGMENT_SIZE = "maxSegmentSize";
+
+  public static final String COMPACTION_INTERVAL = "compactionInterval";
+
+  private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+
+  protected String segmentDirectory;
+
+  protected int maxSegmentSize = 64;
+
+  protected int compactionInterval = 60;
+
+  private MetacardSegmentLog segmentLog;
+
+  private ScheduledExecutorService compactionExecutor;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MetacardSegmentStorageRoute.class);
+
+  public MetacardSegmentStorageRoute(CamelContext camelContext) {
+    super(camelContext);
+  }
+
+  public String getSegmentDirectory() {
+    return segmentDirectory;
+  }
+
+  public void setSegmentDirectory(String segmentDirectory) {
+    this.segmentDirectory = segmentDirectory;
+  }
+
+  public int getMaxSegmentSize() {
+    return maxSegmentSize;
+  }
+
+  /** @param maxSegmentSize size in megabytes after which a new segment is started */
+  public void setMaxSegmentSize(int maxSegmentSize) {
+    this.maxSegmentSize = maxSegmentSize;
+  }
+
+  public int getCompactionInterval() {
+    return compactionInterval;
+  }
+
+  /** @param compactionInterval minutes between compactions, 0 to disable compaction */
+  public void setCompactionInterval(int compactionInterval) {
+    this.compactionInterval = compactionInterval;
+  }
+
+  @Override
+  public void configure() throws Exception {
+    String metacardRouteId = "metacard-" + UUID.randomUUID().toString();
+    from("catalog:postingest")
+        .split(method(ResponseMetacardActionSplitter.class, "split(${body})"))
+        .to("direct:" + metacardRouteId);
+    from("direct:" + metacardRouteId)
+        .setHeader(METACARD_TRANSFORMER_ID_RTE_PROP, simple(metacardTransformerId, String.class))
+        .setHeader(
+            METACARD_BACKUP_INVALID_RTE_PROP,
+            simple(String.valueOf(backupInvalidMetacards), Boolean.class))
+        .setHeader(
+            METACARD_BACKUP_KEEP_DELETED_RTE_PROP,
+            simple(String.valueOf(keepDeletedMetacards), Boolean.class))
+        .choice()
+        .when(not(getCheckDeletePredicate()))
+        .stop()
+        .otherwise()
+        .choice()
+        .when(not(getShouldBackupPredicate()))
+        .stop()
+        .when(header(PostIngestConsumer.ACTION).isEqualTo(PostIngestConsumer.DELETE))
+        .process(this::deleteMetacard)
+        .otherwise()
+        .to("catalog:metacardtransformer")
+        .process(this::appendMetacard);
+
+    LOGGER.trace("Starting metacard segment storage route: {}", this);
+  }
+
+  @Override
+  public void start() {
+    super.start();
+
+    if (compactionInterval > 0) {
+      compactionExecutor =
+          Executors.newSingleThreadScheduledExecutor(
+              StandardThreadFactoryBuilder.newThreadFactory("metacardBackupCompactionThread"));
+      compactionExecutor.scheduleWithFixedDelay(
+          this::compact, compactionInterval, compactionInterval, TimeUnit.MINUTES);
+    }
+  }
+
+  @Override
+  public void stop(int code) {
+    super.stop(code);
+
+    if (compactionExecutor != null) {
+      compactionExecutor.shutdownNow();
+      compactionExecutor = null;
+    }
+
+    closeSegmentLog();
+  }
+
+  @Override
+  public void refresh(Map<String, Object> properties) throws Exception {
+    Object segmentDirectoryProp = properties.get(SEGMENT_DIRECTORY);
+    if (segmentDirectoryProp instanceof String
+        && StringUtils.isNotBlank((String) segmentDirectoryProp)) {
+      this.segmentDirectory = (String) segmentDirectoryProp;
+    }
+
+    Object maxSegmentSizeProp = properties.get(MAX_SEGMENT_SIZE);
+    if (maxSegmentSizeProp instanceof Integer && (Integer) maxSegmentSizeProp > 0) {
+      this.maxSegmentSize = (Integer) maxSegmentSizeProp;
+    }
+
+    Object compactionIntervalProp = properties.get(COMPACTION_INTERVAL);
+    if (compactionIntervalProp instanceof Integer && (Integer) compactionIntervalProp >= 0) {
+      this.compactionInterval = (Integer) compactionIntervalProp;
+    }
+
+    super.refresh(properties);
+  }
+
+  /** Compacts the backup log, if it is open. */
+  public void compact() {
+    MetacardSegmentLog log;
+    synchronized (this) {
+      log = segmentLog;
+    }
+
+    if (log == null) {
+      return;
+    }
+
+    try {
+      log.compact();
+    } catch (IOException | RuntimeException e) {
+      LOGGER.info("Unable to compact the metacard backup in {}", segmentDirectory, e);
+    }
+  }
+
+  void appendMetacard(Exchange exchange) throws IOException {
+    Metacard metacard =
+        exchange.getIn().getHeader(MetacardTransformerProducer.METACARD_HEADER, Metacard.class);
+    byte[] content = exchange.getIn().getBody(byte[].class);
+    if (metacard == null || content == null) {
+      LOGGER.debug("No transformed metacard to backup");
+      return;
+    }
+
+    getSegmentLog().append(metacard.getId(), content);
+  }
+
+  void deleteMetacard(Exchange exchange) throws IOException {
+    Metacard metacard = exchange.getIn().getBody(Metacard.class);
+    if (metacard != null) {
+      getSegmentLog().delete(metacard.getId());
+    }
+  }
+
+  synchronized MetacardSegmentLog getSegmentLog() throws IOException {
+    if (segmentLog == null) {
+      segmentLog =
+          new MetacardSegmentLog(
+              getSegmentPath(segmentDirectory), maxSegmentSize * BYTES_PER_MEGABYTE, false);
+    }
+    return segmentLog;
+  }
+
+  private synchronized void closeSegmentLog() {
+    if (segmentLog != null) {
+      try {
+        segmentLog.close();
+      } catch (IOException e) {
+        LOGGER.info("Unable to close the metacard backup in {}", segmentDirectory, e);
+      }
+      segmentLog = null;
+    }
+  }
+
+  /**
+   * @param segmentDirectory directory of the backup segments
+   * @return the directory, relative to the DDF home directory if it isn't absolute
+   */
+  static Path getSegmentPath(String segmentDirectory) {
+    Path path = Paths.get(segmentDirectory);
+    String home = System.getProperty("karaf.home");
+    if (path.isAbsolute() || home == null) {
+      return path;
+    }
+    return Paths.get(home).resolve(path);
+  }
+}
@@ -0,0 +1,233 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.plugin.metacard.backup.storage.filestorage;
+
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.operation.CreateResponse;
+import ddf.catalog.operation.impl.CreateRequestImpl;
+import ddf.catalog.source.IngestException;
+import ddf.catalog.source.SourceUnavailableException;
+import ddf.catalog.transform.CatalogTransformerException;
+import ddf.catalog.transform.InputTransformer;
+import ddf.security.service.SecurityServiceException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.karaf.shell.api.action.Action;
+import org.apache.karaf.shell.api.action.Argument;
+import org.apache.karaf.shell.api.action.Command;
+import org.apache.karaf.shell.api.action.Option;
+import org.apache.karaf.shell.api.action.lifecycle.Reference;
+import org.apache.karaf.shell.api.action.lifecycle.Service;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.codice.ddf.security.common.Security;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Custom Karaf command for restoring the metacards of a {@link MetacardSegmentLog} backup into the
+ * Catalog. The latest version of each backed up metacard is read back with an input transformer
+ * matching the metacard transformer used for the backup, and created in batches on several threads.
+ */
+@Service
+@Command(
+  scope = "catalog",
+  name = "restore-backup",
+  description = "Restores the metacards of a segmented metacard backup into the Catalog."
+)
+public class RestoreBackupCommand implements Action {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RestoreBackupCommand.class);
+
+  private static final String THREAD_NAME = "restoreBackupThread";
+
+  @Argument(
+    name = "Backup directory",
+    description =
+        "Directory of the backup segments. Relative paths are resolved against the DDF home "
+            + "directory.",
+    index = 0,
+    multiValued = false,
+    required = false
+  )
+  String segmentDirectory = "data/backup/segments";
+
+  @Option(
+    name = "--transformer",
+    required = false,
+    aliases = {"-t"},
+    multiValued = false,
+    description =
+        "The ID of the input transformer used to read the backed up metacards. It has to match "
+            + "the metacard transformer used for the backup."
+  )
+  String transformerId = "xml";
+
+  @Option(
+    name = "--batchsize",
+    required = false,
+    aliases = {"-b"},
+    multiValued = false,
+    description = "Number of metacards created in each request to the Catalog."
+  )
+  int batchSize = 500;
+
+  @Option(
+    name = "--multithreaded",
+    required = false,
+    aliases = {"-m"},
+    multiValued = false,
+    description = "Number of threads creating metacards in the Catalog."
+  )
+  int multithreaded = 8;
+
+  @Reference CatalogFramework catalogFramework;
+
+  @Reference BundleContext bundleContext;
+
+  private final AtomicInteger restoreCount = new AtomicInteger();
+
+  private final AtomicInteger failureCount = new AtomicInteger();
+
+  @Override
+  public Object execute() throws Exception {
+    try {
+      return Security.getInstance().runWithSubjectOrElevate(this::restore);
+    } catch (SecurityServiceException e) {
+      System.out.println(e.getMessage());
+    } catch (InvocationTargetException e) {
+      System.out.println(e.getCause().getMessage());
+    }
+    return null;
+  }
+
+  Object restore() throws IOException, InterruptedException {
+    Path segmentPath = MetacardSegmentStorageRoute.getSegmentPath(segmentDirectory);
+    if (!Files.isDirectory(segmentPath)) {
+      System.out.printf("Backup directory %s does not exist.%n", segmentPath);
+      return null;
+    }
+
+    InputTransformer transformer = getTransformer();
+    if (transformer == null) {
+      System.out.printf("Input transformer %s is not available.%n", transformerId);
+      return null;
+    }
+
+    long start = System.currentTimeMillis();
+    ExecutorService executorService =
+        new ThreadPoolExecutor(
+            multithreaded,
+            multithreaded,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(multithreaded),
+            StandardThreadFactoryBuilder.newThreadFactory(THREAD_NAME),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+
+    // the backup isn't compacted while it is open for reading
+    try (MetacardSegmentLog log = new MetacardSegmentLog(segmentPath, Long.MAX_VALUE, true)) {
+      Map<String, byte[]> batch = new LinkedHashMap<>();
+      log.forEach(
+          (id, content) -> {
+            batch.put(id, content);
+            if (batch.size() >= batchSize) {
+              Map<String, byte[]> contents = new LinkedHashMap<>(batch);
+              batch.clear();
+              executorService.submit(() -> restoreBatch(transformer, contents));
+            }
+          });
+
+      if (!batch.isEmpty()) {
+        executorService.submit(() -> restoreBatch(transformer, batch));
+      }
+    } finally {
+      executorService.shutdown();
+      executorService.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+    }
+
+    System.out.printf(
+        "%d metacards restored in %d ms, %d metacards could not be restored.%n",
+        restoreCount.get(), System.currentTimeMillis() - start, failureCount.get());
+    return null;
+  }
+
+  private void restoreBatch(InputTransformer transformer, Map<String, byte[]> contents) {
+    List<Metacard> metacards = new ArrayList<>(contents.size());
+    contents.forEach(
+        (id, content) -> {
+          Metacard metacard = transform(transformer, id, content);
+          if (metacard != null) {
+            metacards.add(metacard);
+          }
+        });
+
+    if (!metacards.isEmpty()) {
+      create(metacards);
+    }
+  }
+
+  private Metacard transform(InputTransformer transformer, String id, byte[] content) {
+    try {
+      return transformer.transform(new ByteArrayInputStream(content), id);
+    } catch (IOException | CatalogTransformerException | RuntimeException e) {
+      LOGGER.debug("Unable to transform backed up metacard {}", id, e);
+      failureCount.incrementAndGet();
+      return null;
+    }
+  }
+
+  private void create(List<Metacard> metacards) {
+    try {
+      CreateResponse response = catalogFramework.create(new CreateRequestImpl(metacards));
+      int created = response.getCreatedMetacards().size();
+      restoreCount.addAndGet(created);
+      failureCount.addAndGet(metacards.size() - created);
+    } catch (IngestException | SourceUnavailableException | RuntimeException e) {
+      LOGGER.info("Unable to restore {} backed up metacards", metacards.size(), e);
+      failureCount.addAndGet(metacards.size());
+    }
+  }
+
+  private InputTransformer getTransformer() {
+    try {
+      Collection<ServiceReference<InputTransformer>> references =
+          bundleContext.getServiceReferences(InputTransformer.class, "(id=" + transformerId + ")");
+      return references
+          .stream()
+          .map(bundleContext::getService)
+          .filter(service -> service != null)
+          .findFirst()
+          .orElse(null);
+    } catch (InvalidSyntaxException e) {
+      throw new IllegalArgumentException("Invalid transformer id: " + transformerId, e);
+    }
+  }
+}
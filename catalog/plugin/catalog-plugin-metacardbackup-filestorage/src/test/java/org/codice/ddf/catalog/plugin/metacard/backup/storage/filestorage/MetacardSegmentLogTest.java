@@ -0,0 +1,357 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.plugin.metacard.backup.storage.filestorage;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MetacardSegmentLogTest {
+
+  private static final long MAX_SEGMENT_SIZE = 1024;
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Path directory;
+
+  @Before
+  public void setUp() throws Exception {
+    directory = temporaryFolder.getRoot().toPath().resolve("segments");
+  }
+
+  @Test
+  public void testAppendAndRead() throws Exception {
+    try (MetacardSegmentLog log = openLog()) {
+      log.append("id1", bytes("metacard 1"));
+      log.append("id2", bytes("metacard 2"));
+      log.append("id1", bytes("metacard 1 updated"));
+
+      assertThat(log.size(), is(2));
+      assertThat(string(log.read("id1")), is("metacard 1 updated"));
+      assertThat(string(log.read("id2")), is("metacard 2"));
+      assertThat(log.read("id3"), nullValue());
+    }
+  }
+
+  @Test
+  public void testDelete() throws Exception {
+    try (MetacardSegmentLog log = openLog()) {
+      log.append("id1", bytes("metacard 1"));
+      log.delete("id1");
+      log.delete("unknown");
+
+      assertThat(log.size(), is(0));
+      assertThat(log.read("id1"), nullValue());
+    }
+  }
+
+  @Test
+  public void testSegmentsRoll() throws Exception {
+    try (MetacardSegmentLog log = openLog()) {
+      appendMetacards(log, 100, "");
+
+      assertThat(log.getSegmentCount() > 1, is(true));
+      assertThat(log.size(), is(100));
+      assertThat(string(log.read("id0")), is("metacard 0"));
+      assertThat(string(log.read("id99")), is("metacard 99"));
+    }
+  }
+
+  @Test
+  public void testReopen() throws Exception {
+    try (MetacardSegmentLog log = openLog()) {
+      appendMetacards(log, 100, "");
+      log.append("id5", bytes("metacard 5 updated"));
+      log.delete("id6");
+    }
+
+    try (MetacardSegmentLog log = openLog()) {
+      assertThat(log.size(), is(99));
+      assertThat(string(log.read("id5")), is("metacard 5 updated"));
+      assertThat(log.read("id6"), nullValue());
+
+      log.append("id100", bytes("metacard 100"));
+      assertThat(string(log.read("id100")), is("metacard 100"));
+    }
+  }
+
+  @Test
+  public void testForEach() throws Exception {
+    try (MetacardSegmentLog log = openLog()) {
+      appendMetacards(log, 100, "");
+      appendMetacards(log, 10, " updated");
+      log.delete("id50");
+
+      Map<String, String> metacards = new LinkedHashMap<>();
+      log.forEach((id, content) -> metacards.put(id, string(content)));
+
+      assertThat(metacards.size(), is(99));
+      assertThat(metacards, hasEntry("id5", "metacard 5 updated"));
+      assertThat(metacards, hasEntry("id60", "metacard 60"));
+      assertThat(metacards.containsKey("id50"), is(false));
+    }
+  }
+
+  @Test
+  public void testCompact() throws Exception {
+    try (MetacardSegmentLog log = openLog()) {
+      appendMetacards(log, 100, "");
+      appendMetacards(log, 50, " updated");
+      for (int i = 90; i < 100; i++) {
+        log.delete("id" + i);
+      }
+      int segmentCount = log.getSegmentCount();
+
+      assertThat(log.compact(), is(true));
+
+      assertThat(log.getSegmentCount() < segmentCount, is(true));
+      assertThat(log.size(), is(90));
+      assertThat(string(log.read("id5")), is("metacard 5 updated"));
+      assertThat(string(log.read("id70")), is("metacard 70"));
+      assertThat(log.read("id95"), nullValue());
+      assertThat(log.compact(), is(false));
+    }
+
+    try (MetacardSegmentLog log = openLog()) {
+      assertThat(log.size(), is(90));
+      assertThat(string(log.read("id5")), is("metacard 5 updated"));
+      assertThat(log.read("id95"), nullValue());
+    }
+  }
+
+  @Test
+  public void testCompactWithoutGarbage() throws Exception {
+    try (MetacardSegmentLog log = openLog()) {
+      appendMetacards(log, 100, "");
+
+      assertThat(log.compact(), is(false));
+    }
+  }
+
+  @Test
+  public void testCompactOnlyGarbageSegments() throws Exception {
+    try (MetacardSegmentLog log = openLog()) {
+      appendMetacards(log, 100, "");
+      // mostly garbage in the first and third segment, some garbage in the second segment
+      for (int i = 0; i < 20; i++) {
+        log.append("id" + i, bytes("metacard " + i + " updated"));
+        log.append("id" + (i + 65), bytes("metacard " + (i + 65) + " updated"));
+      }
+      for (int i = 35; i < 45; i++) {
+        log.append("id" + i, bytes("metacard " + i + " updated"));
+      }
+
+      Path secondSegment = directory.resolve(MetacardSegmentLog.getSegmentName(2));
+      byte[] secondSegmentContent = Files.readAllBytes(secondSegment);
+      Path firstSegment = directory.resolve(MetacardSegmentLog.getSegmentName(1));
+      long firstSegmentSize = Files.size(firstSegment);
+
+      assertThat(log.compact(), is(true));
+
+      assertThat(Files.size(firstSegment) < firstSegmentSize, is(true));
+      assertThat(Files.readAllBytes(secondSegment), is(secondSegmentContent));
+      assertThat(string(log.read("id5")), is("metacard 5 updated"));
+      assertThat(string(log.read("id22")), is("metacard 22"));
+      assertThat(string(log.read("id50")), is("metacard 50"));
+    }
+
+    try (MetacardSegmentLog log = openLog()) {
+      assertThat(log.size(), is(100));
+      assertThat(string(log.read("id50")), is("metacard 50"));
+      assertThat(string(log.read("id70")), is("metacard 70 updated"));
+    }
+  }
+
+  @Test
+  public void testCompactedSegmentsAreCapped() throws Exception {
+    try (MetacardSegmentLog log = openLog()) {
+      appendMetacards(log, 200, "");
+      for (int i = 0; i < 200; i++) {
+        if (i % 3 != 0) {
+          log.append("id" + i, bytes("metacard " + i + " updated"));
+        }
+      }
+      int segmentCount = log.getSegmentCount();
+
+      assertThat(log.compact(), is(true));
+
+      assertThat(log.getSegmentCount() < segmentCount, is(true));
+      // a sealed segment may exceed the maximum size by the record that filled it
+      try (DirectoryStream<Path> segments = Files.newDirectoryStream(directory)) {
+        for (Path segment : segments) {
+          assertThat(Files.size(segment) <= MAX_SEGMENT_SIZE + 64, is(true));
+        }
+      }
+      assertThat(log.size(), is(200));
+      assertThat(string(log.read("id3")), is("metacard 3"));
+      assertThat(string(log.read("id4")), is("metacard 4 updated"));
+    }
+  }
+
+  @Test
+  public void testCompactKeepsDeletesOfOlderSegments() throws Exception {
+    try (MetacardSegmentLog log = openLog()) {
+      appendMetacards(log, 100, "");
+      for (int i = 0; i < 90; i++) {
+        if (i == 60) {
+          log.delete("id0");
+        }
+        log.append("id1", bytes("metacard 1 update " + i));
+      }
+
+      assertThat(log.compact(), is(true));
+      assertThat(log.read("id0"), nullValue());
+    }
+
+    try (MetacardSegmentLog log = openLog()) {
+      assertThat(log.read("id0"), nullValue());
+      assertThat(string(log.read("id1")), is("metacard 1 update 89"));
+    }
+  }
+
+  @Test
+  public void testCompactionSuspendedWhileRestoring() throws Exception {
+    try (MetacardSegmentLog log = openLog()) {
+      appendMetacards(log, 100, "");
+      appendMetacards(log, 100, " updated");
+
+      try (MetacardSegmentLog restoreLog =
+          new MetacardSegmentLog(directory, MAX_SEGMENT_SIZE, true)) {
+        assertThat(log.compact(), is(false));
+
+        Map<String, String> metacards = new LinkedHashMap<>();
+        restoreLog.forEach((id, content) -> metacards.put(id, string(content)));
+        assertThat(metacards.size(), is(100));
+      }
+
+      assertThat(log.compact(), is(true));
+    }
+  }
+
+  @Test
+  public void testIncompleteRecord() throws Exception {
+    try (MetacardSegmentLog log = openLog()) {
+      log.append("id1", bytes("metacard 1"));
+    }
+
+    Path segment = directory.resolve(MetacardSegmentLog.getSegmentName(1));
+    long size = Files.size(segment);
+    Files.write(segment, new byte[] {1, 0, 3, 'i'}, StandardOpenOption.APPEND);
+
+    try (MetacardSegmentLog log = new MetacardSegmentLog(directory, MAX_SEGMENT_SIZE, true)) {
+      assertThat(string(log.read("id1")), is("metacard 1"));
+    }
+
+    try (MetacardSegmentLog log = openLog()) {
+      assertThat(Files.size(segment), is(size));
+      log.append("id2", bytes("metacard 2"));
+    }
+
+    try (MetacardSegmentLog log = openLog()) {
+      assertThat(string(log.read("id1")), is("metacard 1"));
+      assertThat(string(log.read("id2")), is("metacard 2"));
+    }
+  }
+
+  @Test
+  public void testInterruptedCompaction() throws Exception {
+    try (MetacardSegmentLog log = openLog()) {
+      appendMetacards(log, 100, "");
+      appendMetacards(log, 100, " updated");
+    }
+
+    Path firstSegment = directory.resolve(MetacardSegmentLog.getSegmentName(1));
+    byte[] firstSegmentContent = Files.readAllBytes(firstSegment);
+
+    try (MetacardSegmentLog log = openLog()) {
+      assertThat(log.compact(), is(true));
+    }
+
+    // simulate a compaction interrupted before the replaced segments were deleted
+    Files.write(firstSegment, firstSegmentContent);
+    Files.write(directory.resolve("segment-0000000002.log.tmp"), bytes("partial"));
+
+    try (MetacardSegmentLog log = openLog()) {
+      assertThat(Files.exists(firstSegment), is(false));
+      assertThat(log.size(), is(100));
+      assertThat(string(log.read("id0")), is("metacard 0 updated"));
+    }
+
+    assertThat(Files.exists(directory.resolve("segment-0000000002.log.tmp")), is(false));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testReadOnly() throws Exception {
+    Files.createDirectories(directory);
+    try (MetacardSegmentLog log = new MetacardSegmentLog(directory, MAX_SEGMENT_SIZE, true)) {
+      assertThat(log.compact(), is(false));
+      log.append("id1", bytes("metacard 1"));
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testClosed() throws Exception {
+    MetacardSegmentLog log = openLog();
+    log.close();
+    log.append("id1", bytes("metacard 1"));
+  }
+
+  @Test
+  public void testInvalidSegmentIgnored() throws Exception {
+    try (MetacardSegmentLog log = openLog()) {
+      log.append("id1", bytes("metacard 1"));
+    }
+
+    Files.write(directory.resolve(MetacardSegmentLog.getSegmentName(5)), bytes("invalid"));
+    Files.write(directory.resolve("segment-invalid.log"), bytes("invalid"));
+
+    try (MetacardSegmentLog log = new MetacardSegmentLog(directory, MAX_SEGMENT_SIZE, true)) {
+      assertThat(log.getSegmentCount(), is(1));
+      assertThat(string(log.read("id1")), is("metacard 1"));
+    }
+  }
+
+  private MetacardSegmentLog openLog() throws IOException {
+    return new MetacardSegmentLog(directory, MAX_SEGMENT_SIZE, false);
+  }
+
+  private static void appendMetacards(MetacardSegmentLog log, int count, String suffix)
+      throws IOException {
+    for (int i = 0; i < count; i++) {
+      log.append("id" + i, bytes("metacard " + i + suffix));
+    }
+  }
+
+  private static byte[] bytes(String content) {
+    return content.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String string(byte[] content) {
+    return new String(content, StandardCharsets.UTF_8);
+  }
+}
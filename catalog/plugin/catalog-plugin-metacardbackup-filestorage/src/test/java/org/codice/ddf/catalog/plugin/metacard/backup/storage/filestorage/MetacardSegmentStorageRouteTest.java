@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.plugin.metacard.backup.storage.filestorage;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import ddf.camel.component.catalog.metacardtransformer.MetacardTransformerProducer;
+import ddf.catalog.data.impl.MetacardImpl;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.camel.CamelContext;
+import org.apache.camel.Exchange;
+import org.apache.camel.impl.DefaultCamelContext;
+import org.apache.camel.impl.DefaultExchange;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class MetacardSegmentStorageRouteTest {
+
+  private static final String METACARD_ID = "metacardId";
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private CamelContext camelContext = new DefaultCamelContext();
+
+  private MetacardSegmentStorageRoute segmentStorageRoute =
+      new MetacardSegmentStorageRoute(camelContext);
+
+  @Before
+  public void setUp() throws Exception {
+    segmentStorageRoute.setSegmentDirectory(temporaryFolder.getRoot().getAbsolutePath());
+  }
+
+  @After
+  public void tearDown() {
+    segmentStorageRoute.stop(0);
+  }
+
+  @Test
+  public void testRefresh() throws Exception {
+    String segmentDirectory = temporaryFolder.newFolder().getAbsolutePath();
+
+    Map<String, Object> properties = new HashMap<>();
+    properties.put("segmentDirectory", segmentDirectory);
+    properties.put("maxSegmentSize", 16);
+    properties.put("compactionInterval", 0);
+    properties.put("keepDeletedMetacards", true);
+    properties.put("metacardTransformerId", "testTransformer");
+
+    segmentStorageRoute.refresh(properties);
+    assertThat(segmentStorageRoute.getSegmentDirectory(), is(segmentDirectory));
+    assertThat(segmentStorageRoute.getMaxSegmentSize(), is(16));
+    assertThat(segmentStorageRoute.getCompactionInterval(), is(0));
+    assertThat(segmentStorageRoute.isKeepDeletedMetacards(), is(true));
+    assertThat(segmentStorageRoute.getMetacardTransformerId(), is("testTransformer"));
+  }
+
+  @Test
+  public void testRefreshBadValues() throws Exception {
+    String segmentDirectory = segmentStorageRoute.getSegmentDirectory();
+
+    Map<String, Object> properties = new HashMap<>();
+    properties.put("segmentDirectory", "");
+    properties.put("maxSegmentSize", -1);
+    properties.put("compactionInterval", "5");
+
+    segmentStorageRoute.refresh(properties);
+    assertThat(segmentStorageRoute.getSegmentDirectory(), is(segmentDirectory));
+    assertThat(segmentStorageRoute.getMaxSegmentSize(), is(64));
+    assertThat(segmentStorageRoute.getCompactionInterval(), is(60));
+  }
+
+  @Test
+  public void testAppendAndDeleteMetacard() throws Exception {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(METACARD_ID);
+
+    Exchange exchange = new DefaultExchange(camelContext);
+    exchange.getIn().setHeader(MetacardTransformerProducer.METACARD_HEADER, metacard);
+    exchange.getIn().setBody("<metacard/>".getBytes(StandardCharsets.UTF_8));
+    segmentStorageRoute.appendMetacard(exchange);
+
+    assertThat(
+        new String(segmentStorageRoute.getSegmentLog().read(METACARD_ID), StandardCharsets.UTF_8),
+        is("<metacard/>"));
+
+    exchange = new DefaultExchange(camelContext);
+    exchange.getIn().setBody(metacard);
+    segmentStorageRoute.deleteMetacard(exchange);
+
+    assertThat(segmentStorageRoute.getSegmentLog().read(METACARD_ID), nullValue());
+  }
+
+  @Test
+  public void testAppendWithoutTransformedMetacard() throws Exception {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(METACARD_ID);
+
+    Exchange exchange = new DefaultExchange(camelContext);
+    exchange.getIn().setHeader(MetacardTransformerProducer.METACARD_HEADER, metacard);
+    segmentStorageRoute.appendMetacard(exchange);
+
+    assertThat(segmentStorageRoute.getSegmentLog().size(), is(0));
+  }
+
+  @Test
+  public void testCompact() throws Exception {
+    segmentStorageRoute.compact();
+
+    segmentStorageRoute.getSegmentLog().append(METACARD_ID, new byte[] {1});
+    segmentStorageRoute.compact();
+    assertThat(segmentStorageRoute.getSegmentLog().size(), is(1));
+  }
+
+  @Test
+  public void testSegmentPath() {
+    String absolutePath = temporaryFolder.getRoot().getAbsolutePath();
+    assertThat(
+        MetacardSegmentStorageRoute.getSegmentPath(absolutePath), is(Paths.get(absolutePath)));
+
+    String relativePath = "data" + File.separator + "backup";
+    System.setProperty("karaf.home", absolutePath);
+    try {
+      assertThat(
+          MetacardSegmentStorageRoute.getSegmentPath(relativePath),
+          is(Paths.get(absolutePath, "data", "backup")));
+    } finally {
+      System.clearProperty("karaf.home");
+    }
+  }
+}
@@ -0,0 +1,317 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.resourcemanagement.usage;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import org.codice.ddf.persistence.PersistenceException;
+import org.codice.ddf.persistence.attributes.AttributesStore;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps track of the data usage of each user in memory so that resource downloads don't read and
+ * write the {@link AttributesStore} every time.
+ *
+ * <p>Downloads add to the pending usage of the user, which is a {@link LongAdder} so concurrent
+ * downloads don't contend with each other. The pending usage is written to the attributes store in
+ * one update per user every flush interval and when the ledger is destroyed. The persisted usage
+ * and the data limit of a user are read from the attributes store the first time they are needed
+ * and again once they are older than the flush interval, which picks up changes made by
+ * administrators.
+ */
+public class DataUsageLedger implements DataUsageLedgerMXBean {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DataUsageLedger.class);
+
+  private static final long DEFAULT_FLUSH_INTERVAL_SECONDS = 30L;
+
+  private final AttributesStore attributesStore;
+
+  private final ConcurrentMap<String, UserUsage> usages = new ConcurrentHashMap<>();
+
+  private final LongAdder flushCount = new LongAdder();
+
+  private final LongAdder failedFlushCount = new LongAdder();
+
+  private volatile long flushIntervalMillis =
+      TimeUnit.SECONDS.toMillis(DEFAULT_FLUSH_INTERVAL_SECONDS);
+
+  private ScheduledExecutorService flushExecutor;
+
+  private ObjectName objectName;
+
+  private MBeanServer mBeanServer;
+
+  public DataUsageLedger(AttributesStore attributesStore) {
+    this.attributesStore = attributesStore;
+  }
+
+  public synchronized void init() {
+    registerMbean();
+    scheduleFlush();
+  }
+
+  public synchronized void destroy() {
+    stopFlush();
+    flush();
+    unregisterMbean();
+  }
+
+  /**
+   * Sets how often pending usage is written to the attributes store, which is also how long usage
+   * and limits read from it are trusted.
+   *
+   * @param flushInterval interval in seconds
+   */
+  public synchronized void setFlushInterval(long flushInterval) {
+    if (flushInterval <= 0) {
+      LOGGER.debug(
+          "Invalid data usage flush interval {}. Using {} seconds.",
+          flushInterval,
+          DEFAULT_FLUSH_INTERVAL_SECONDS);
+      flushInterval = DEFAULT_FLUSH_INTERVAL_SECONDS;
+    }
+
+    flushIntervalMillis = TimeUnit.SECONDS.toMillis(flushInterval);
+
+    if (flushExecutor != null) {
+      stopFlush();
+      scheduleFlush();
+    }
+  }
+
+  /** @return the flush interval in seconds */
+  public long getFlushInterval() {
+    return TimeUnit.MILLISECONDS.toSeconds(flushIntervalMillis);
+  }
+
+  /**
+   * Gets the current data usage of a user, including the usage that hasn't been written to the
+   * attributes store yet.
+   *
+   * @param username name of the user
+   * @return data usage in bytes
+   * @throws PersistenceException if the usage can't be read from the attributes store
+   */
+  public long getDataUsage(String username) throws PersistenceException {
+    return load(username).getUsage();
+  }
+
+  /**
+   * @param username name of the user
+   * @return data limit in bytes, negative if the user doesn't have a limit
+   * @throws PersistenceException if the limit can't be read from the attributes store
+   */
+  public long getDataLimit(String username) throws PersistenceException {
+    return load(username).limit;
+  }
+
+  /**
+   * Adds to the data usage of a user. The usage is written to the attributes store on the next
+   * flush.
+   *
+   * @param username name of the user
+   * @param dataUsage data usage in bytes
+   */
+  public void addDataUsage(String username, long dataUsage) {
+    getUserUsage(username).pending.add(dataUsage);
+  }
+
+  @Override
+  public void flush() {
+    usages.forEach(this::flush);
+  }
+
+  @Override
+  public Map<String, Long> getPendingDataUsage() {
+    Map<String, Long> pendingUsage = new TreeMap<>();
+    usages.forEach((username, usage) -> pendingUsage.put(username, usage.pending.sum()));
+    return pendingUsage;
+  }
+
+  @Override
+  public Map<String, Long> getPersistedDataUsage() {
+    Map<String, Long> persistedUsage = new TreeMap<>();
+    usages.forEach((username, usage) -> persistedUsage.put(username, usage.persisted));
+    return persistedUsage;
+  }
+
+  @Override
+  public long getTotalPendingDataUsage() {
+    return usages.values().stream().mapToLong(usage -> usage.pending.sum()).sum();
+  }
+
+  @Override
+  public long getFlushCount() {
+    return flushCount.sum();
+  }
+
+  @Override
+  public long getFailedFlushCount() {
+    return failedFlushCount.sum();
+  }
+
+  private void flush(String username, UserUsage usage) {
+    synchronized (usage.storeLock) {
+      long delta = usage.pending.sum();
+      if (delta == 0) {
+        return;
+      }
+
+      try {
+        attributesStore.updateUserDataUsage(username, delta);
+      } catch (PersistenceException | RuntimeException e) {
+        // keep the usage pending so the next flush retries it
+        failedFlushCount.increment();
+        LOGGER.debug("Unable to write data usage of user {}", username, e);
+        return;
+      }
+
+      synchronized (usage) {
+        usage.pending.add(-delta);
+        usage.persisted += delta;
+      }
+      flushCount.increment();
+    }
+  }
+
+  private UserUsage load(String username) throws PersistenceException {
+    UserUsage usage = getUserUsage(username);
+
+    if (usage.isStale(flushIntervalMillis)) {
+      // flushes hold the same lock, so the usage read here never overlaps with pending usage
+      synchronized (usage.storeLock) {
+        if (usage.isStale(flushIntervalMillis)) {
+          long persisted = attributesStore.getCurrentDataUsageByUser(username);
+          long limit = attributesStore.getDataLimitByUser(username);
+
+          synchronized (usage) {
+            usage.persisted = persisted;
+            usage.limit = limit;
+            usage.loadedAt = System.currentTimeMillis();
+            usage.loaded = true;
+          }
+        }
+      }
+    }
+
+    return usage;
+  }
+
+  private UserUsage getUserUsage(String username) {
+    return usages.computeIfAbsent(username, key -> new UserUsage());
+  }
+
+  private void scheduleFlush() {
+    flushExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            StandardThreadFactoryBuilder.newThreadFactory("dataUsageLedgerThread"));
+    flushExecutor.scheduleWithFixedDelay(
+        this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+  }
+
+  private void stopFlush() {
+    if (flushExecutor != null) {
+      flushExecutor.shutdown();
+      try {
+        if (!flushExecutor.awaitTermination(flushIntervalMillis, TimeUnit.MILLISECONDS)) {
+          flushExecutor.shutdownNow();
+        }
+      } catch (InterruptedException e) {
+        flushExecutor.shutdownNow();
+        Thread.currentThread().interrupt();
+      }
+      flushExecutor = null;
+    }
+  }
+
+  private void registerMbean() {
+    try {
+      objectName = new ObjectName(DataUsageLedger.class.getName() + ":service=dataUsage");
+      mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    } catch (MalformedObjectNameException e) {
+      LOGGER.info("Unable to create data usage ledger MBean.", e);
+      return;
+    }
+
+    try {
+      try {
+        mBeanServer.registerMBean(this, objectName);
+      } catch (InstanceAlreadyExistsException e) {
+        mBeanServer.unregisterMBean(objectName);
+        mBeanServer.registerMBean(this, objectName);
+      }
+    } catch (MBeanRegistrationException
+        | InstanceNotFoundException
+        | InstanceAlreadyExistsException
+        | NotCompliantMBeanException e) {
+      LOGGER.info("Unable to register data usage ledger MBean.", e);
+    }
+  }
+
+  private void unregisterMbean() {
+    try {
+      if (objectName != null && mBeanServer != null) {
+        mBeanServer.unregisterMBean(objectName);
+        objectName = null;
+      }
+    } catch (MBeanRegistrationException | InstanceNotFoundException e) {
+      LOGGER.info("Unable to unregister data usage ledger MBean.", e);
+    }
+  }
+
+  /**
+   * Usage of a single user. The persisted usage and the pending usage are updated together under
+   * the monitor of this object so that their sum is always the current usage.
+   */
+  private static class UserUsage {
+
+    /** Serializes reads from and writes to the attributes store for this user. */
+    private final Object storeLock = new Object();
+
+    private final LongAdder pending = new LongAdder();
+
+    private volatile long persisted;
+
+    private volatile long limit;
+
+    private volatile long loadedAt;
+
+    private volatile boolean loaded;
+
+    private boolean isStale(long maxAgeMillis) {
+      return !loaded || System.currentTimeMillis() - loadedAt >= maxAgeMillis;
+    }
+
+    private synchronized long getUsage() {
+      return persisted + pending.sum();
+    }
+  }
+}
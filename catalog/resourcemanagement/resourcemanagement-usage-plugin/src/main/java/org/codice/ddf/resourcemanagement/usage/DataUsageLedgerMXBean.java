@@ -0,0 +1,38 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.resourcemanagement.usage;
+
+import java.util.Map;
+
+/** Exposes the data usage held by the {@link DataUsageLedger} through JMX. */
+public interface DataUsageLedgerMXBean {
+
+  /** @return data usage in bytes by user that hasn't been written to the attributes store yet */
+  Map<String, Long> getPendingDataUsage();
+
+  /** @return data usage in bytes by user as last read from or written to the attributes store */
+  Map<String, Long> getPersistedDataUsage();
+
+  /** @return total data usage in bytes that hasn't been written to the attributes store yet */
+  long getTotalPendingDataUsage();
+
+  /** @return number of times pending data usage has been written to the attributes store */
+  long getFlushCount();
+
+  /** @return number of users whose pending data usage couldn't be written */
+  long getFailedFlushCount();
+
+  /** Writes the pending data usage of every user to the attributes store right away. */
+  void flush();
+}
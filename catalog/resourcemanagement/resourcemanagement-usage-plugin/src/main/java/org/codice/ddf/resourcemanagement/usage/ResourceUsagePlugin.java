@@ -29,7 +29,6 @@
 import ddf.security.SubjectUtils;
 import org.apache.commons.lang.StringUtils;
 import org.codice.ddf.persistence.PersistenceException;
-import org.codice.ddf.persistence.attributes.AttributesStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,10 +38,10 @@ public class ResourceUsagePlugin implements PreResourcePlugin, PostResourcePlugi
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ResourceUsagePlugin.class);
 
-  private AttributesStore attributesStore;
+  private DataUsageLedger dataUsageLedger;
 
-  public ResourceUsagePlugin(AttributesStore attributesStore) {
-    this.attributesStore = attributesStore;
+  public ResourceUsagePlugin(DataUsageLedger dataUsageLedger) {
+    this.dataUsageLedger = dataUsageLedger;
   }
 
   @Override
@@ -68,14 +67,14 @@ public ResourceRequest process(ResourceRequest input)
               getUsernameFromSubject(input.getPropertyValue(SecurityConstants.SECURITY_SUBJECT));
           if (StringUtils.isNotEmpty(username)) {
             try {
-              long currentUserDataUsage = attributesStore.getCurrentDataUsageByUser(username);
-              long userDataLimit = attributesStore.getDataLimitByUser(username);
+              long currentUserDataUsage = dataUsageLedger.getDataUsage(username);
+              long userDataLimit = dataUsageLedger.getDataLimit(username);
               if ((userDataLimit >= 0) && ((currentUserDataUsage + resourceSize) > userDataLimit)) {
                 throw new DataUsageLimitExceededException(
                     username + ": data usage limit exceeded. (" + userDataLimit + " bytes)");
               }
             } catch (PersistenceException pex) {
-              LOGGER.debug("Persistence exception updating user {} data usage", username, pex);
+              LOGGER.debug("Persistence exception reading user {} data usage", username, pex);
             }
           }
         }
@@ -103,12 +102,7 @@ public ResourceResponse process(ResourceResponse input)
               getUsernameFromSubject(input.getPropertyValue(SecurityConstants.SECURITY_SUBJECT));
 
           if (StringUtils.isNotEmpty(username)) {
-
-            try {
-              attributesStore.updateUserDataUsage(username, resourceSize);
-            } catch (PersistenceException pex) {
-              LOGGER.debug("Persistence exception updating user {} data usage", username, pex);
-            }
+            dataUsageLedger.addDataUsage(username, resourceSize);
           }
         }
       }
@@ -0,0 +1,147 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.resourcemanagement.usage;
+
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.lang.management.ManagementFactory;
+import javax.management.ObjectName;
+import org.codice.ddf.persistence.PersistenceException;
+import org.codice.ddf.persistence.attributes.AttributesStore;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestDataUsageLedger {
+
+  private static final String USER = "testuser";
+
+  private static final String OTHER_USER = "otheruser";
+
+  private AttributesStore attributesStore;
+
+  private DataUsageLedger ledger;
+
+  @Before
+  public void setUp() throws PersistenceException {
+    attributesStore = mock(AttributesStore.class);
+    doReturn(1000L).when(attributesStore).getCurrentDataUsageByUser(USER);
+    doReturn(5000L).when(attributesStore).getDataLimitByUser(USER);
+    ledger = new DataUsageLedger(attributesStore);
+  }
+
+  @After
+  public void tearDown() {
+    ledger.destroy();
+  }
+
+  @Test
+  public void testUsageIncludesPendingUsage() throws PersistenceException {
+    ledger.addDataUsage(USER, 100L);
+    ledger.addDataUsage(USER, 200L);
+
+    assertThat(ledger.getDataUsage(USER), is(1300L));
+    assertThat(ledger.getDataLimit(USER), is(5000L));
+    verify(attributesStore).getCurrentDataUsageByUser(USER);
+    verify(attributesStore).getDataLimitByUser(USER);
+    verify(attributesStore, never()).updateUserDataUsage(anyString(), anyLong());
+  }
+
+  @Test
+  public void testFlushWritesOneUpdatePerUser() throws PersistenceException {
+    ledger.getDataUsage(USER);
+    ledger.addDataUsage(USER, 100L);
+    ledger.addDataUsage(USER, 200L);
+    ledger.addDataUsage(OTHER_USER, 50L);
+
+    ledger.flush();
+
+    verify(attributesStore).updateUserDataUsage(USER, 300L);
+    verify(attributesStore).updateUserDataUsage(OTHER_USER, 50L);
+    assertThat(ledger.getTotalPendingDataUsage(), is(0L));
+    assertThat(ledger.getPersistedDataUsage(), hasEntry(USER, 1300L));
+    assertThat(ledger.getDataUsage(USER), is(1300L));
+    assertThat(ledger.getFlushCount(), is(2L));
+  }
+
+  @Test
+  public void testFlushWithoutPendingUsage() throws PersistenceException {
+    ledger.getDataUsage(USER);
+
+    ledger.flush();
+
+    verify(attributesStore, never()).updateUserDataUsage(anyString(), anyLong());
+    assertThat(ledger.getFlushCount(), is(0L));
+  }
+
+  @Test
+  public void testFailedFlushKeepsPendingUsage() throws PersistenceException {
+    doThrow(PersistenceException.class)
+        .doNothing()
+        .when(attributesStore)
+        .updateUserDataUsage(anyString(), anyLong());
+    ledger.addDataUsage(USER, 100L);
+
+    ledger.flush();
+
+    assertThat(ledger.getPendingDataUsage(), hasEntry(USER, 100L));
+    assertThat(ledger.getDataUsage(USER), is(1100L));
+    assertThat(ledger.getFailedFlushCount(), is(1L));
+
+    ledger.flush();
+
+    verify(attributesStore, times(2)).updateUserDataUsage(USER, 100L);
+    assertThat(ledger.getTotalPendingDataUsage(), is(0L));
+    assertThat(ledger.getFlushCount(), is(1L));
+  }
+
+  @Test(expected = PersistenceException.class)
+  public void testLoadPersistenceException() throws PersistenceException {
+    doThrow(PersistenceException.class).when(attributesStore).getDataLimitByUser(USER);
+    ledger.getDataLimit(USER);
+  }
+
+  @Test
+  public void testDestroyFlushesPendingUsage() throws Exception {
+    ledger.init();
+    ObjectName objectName = new ObjectName(DataUsageLedger.class.getName() + ":service=dataUsage");
+    assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName), is(true));
+
+    ledger.addDataUsage(USER, 100L);
+    ledger.destroy();
+
+    verify(attributesStore).updateUserDataUsage(USER, 100L);
+    assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName), is(false));
+  }
+
+  @Test
+  public void testFlushInterval() {
+    ledger.init();
+    ledger.setFlushInterval(60L);
+    assertThat(ledger.getFlushInterval(), is(60L));
+
+    ledger.setFlushInterval(0L);
+    assertThat(ledger.getFlushInterval(), is(30L));
+  }
+}
@@ -64,6 +64,8 @@ public class TestResourceUsagePlugin {
 
   private AttributesStore attributeStore;
 
+  private DataUsageLedger dataUsageLedger;
+
   private static final String TEST_USER = "testuser";
 
   private static final String RESOURCE_SIZE = "100";
@@ -78,7 +80,8 @@ public class TestResourceUsagePlugin {
   public void setUp() throws PersistenceException {
     attributeStore = mock(AttributesStore.class);
     doReturn(DATA_LIMIT).when(attributeStore).getDataLimitByUser(anyString());
-    plugin = new ResourceUsagePlugin(attributeStore);
+    dataUsageLedger = new DataUsageLedger(attributeStore);
+    plugin = new ResourceUsagePlugin(dataUsageLedger);
     plugin.setMonitorLocalSources(true);
   }
 
@@ -205,9 +208,27 @@ public void testPostResourcePersistenceException()
         .updateUserDataUsage(anyString(), anyLong());
     ResourceResponse resourceResponse = getMockLocalResourceResponse(RESOURCE_SIZE, TEST_USER);
     ResourceResponse response = plugin.process(resourceResponse);
+    dataUsageLedger.flush();
 
     assertThat(response, notNullValue());
     assertThat(response, is(resourceResponse));
+    assertThat(dataUsageLedger.getTotalPendingDataUsage(), is(Long.valueOf(RESOURCE_SIZE)));
+  }
+
+  @Test(expected = DataUsageLimitExceededException.class)
+  public void testPreResourceIncludesPendingDataUsage()
+      throws StopProcessingException, PluginExecutionException, PersistenceException {
+    plugin.process(getMockLocalResourceResponse(RESOURCE_SIZE, TEST_USER));
+    plugin.process(getMockLocalResourceRequest(RESOURCE_SIZE_LARGE, TEST_USER));
+  }
+
+  @Test
+  public void testPreResourceReadsAttributesStoreOnce()
+      throws StopProcessingException, PluginExecutionException, PersistenceException {
+    plugin.process(getMockLocalResourceRequest(RESOURCE_SIZE, TEST_USER));
+    plugin.process(getMockLocalResourceRequest(RESOURCE_SIZE, TEST_USER));
+    verify(attributeStore).getCurrentDataUsageByUser(TEST_USER);
+    verify(attributeStore).getDataLimitByUser(TEST_USER);
   }
 
   @Test
@@ -240,6 +261,8 @@ public void testPostResourceLocalSourceValidSize()
     ResourceResponse response = plugin.process(originalResponse);
     assertThat(response, notNullValue());
     assertThat(response, is(originalResponse));
+    verify(attributeStore, never()).updateUserDataUsage(anyString(), anyLong());
+    dataUsageLedger.flush();
     verify(attributeStore).updateUserDataUsage(usernameArg.capture(), dataUsage.capture());
     assertThat(usernameArg.getValue(), is(TEST_USER));
     assertThat(dataUsage.getValue(), is(Long.valueOf(RESOURCE_SIZE)));
@@ -286,6 +309,8 @@ public void testPostResourceRemoteSourceValidSize() throws Exception {
     ResourceResponse response = plugin.process(originalResponse);
     assertThat(response, notNullValue());
     assertThat(response, is(originalResponse));
+    verify(attributeStore, never()).updateUserDataUsage(anyString(), anyLong());
+    dataUsageLedger.flush();
     verify(attributeStore).updateUserDataUsage(usernameArg.capture(), dataUsage.capture());
     assertThat(usernameArg.getValue(), is(TEST_USER));
     assertThat(dataUsage.getValue(), is(Long.valueOf(RESOURCE_SIZE)));
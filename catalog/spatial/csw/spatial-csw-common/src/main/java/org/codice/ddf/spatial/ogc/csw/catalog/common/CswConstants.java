@@ -241,6 +241,13 @@ private CswConstants() {}
 
   public static final String OUTPUT_SCHEMA_PARAMETER = "OutputSchema";
 
+  /**
+   * Query parameter of a subscription's ResponseHandler URL with which a subscriber that handles
+   * every record of an event asks for events of up to that many records. Subscribers that don't ask
+   * for it receive one record per event.
+   */
+  public static final String EVENT_BATCH_SIZE_PARAMETER = "eventBatchSize";
+
   public static final String TRANSFORMER_LOOKUP_KEY = "TransformerLookupKey";
 
   public static final String TRANSFORMER_LOOKUP_VALUE = "TransformerLookupValue";
@@ -28,10 +28,14 @@
 import java.util.ArrayList;
 import java.util.Dictionary;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import javax.ws.rs.Consumes;
 import javax.ws.rs.DELETE;
 import javax.ws.rs.GET;
@@ -55,6 +59,7 @@
 import net.opengis.cat.csw.v_2_0_2.ObjectFactory;
 import net.opengis.cat.csw.v_2_0_2.QueryType;
 import org.apache.commons.lang.StringUtils;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.ddf.platform.util.TransformerProperties;
 import org.codice.ddf.platform.util.XMLUtils;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswConstants;
@@ -86,6 +91,9 @@ public class CswSubscriptionEndpoint implements CswSubscribe, Subscriber {
 
   private static final String UUID_URN = "urn:uuid:";
 
+  private static final int DELIVERY_THREADS =
+      Integer.getInteger("csw.subscription.deliveryThreads", 4);
+
   private final TransformerManager schemaTransformerManager;
 
   private final TransformerManager mimeTypeTransformerManager;
@@ -100,6 +108,11 @@ public class CswSubscriptionEndpoint implements CswSubscribe, Subscriber {
 
   private final EventProcessor eventProcessor;
 
+  private final ScheduledExecutorService deliveryScheduler =
+      Executors.newScheduledThreadPool(
+          DELIVERY_THREADS,
+          StandardThreadFactoryBuilder.newThreadFactory("cswSubscriptionDeliveryThread"));
+
   private DatatypeFactory datatypeFactory;
 
   private Map<String, ServiceRegistration<Subscription>> registeredSubscriptions = new HashMap<>();
@@ -125,6 +138,11 @@ public CswSubscriptionEndpoint(
     }
   }
 
+  /** Stops delivering the events of the subscriptions. Called when the endpoint is destroyed. */
+  public void destroy() {
+    deliveryScheduler.shutdownNow();
+  }
+
   /**
    * Deletes an active subscription
    *
@@ -298,8 +316,9 @@ public Response createOrUpdateSubscription(
   @Produces({MediaType.TEXT_XML, MediaType.APPLICATION_XML})
   public Response createEvent(GetRecordsResponseType recordsResponse) throws CswException {
     validateResponseSchema(recordsResponse);
-    List<Metacard> metacards = getMetacards(recordsResponse);
-    eventProcessor.notifyCreated(metacards.get(0));
+    for (Metacard metacard : getMetacards(recordsResponse)) {
+      eventProcessor.notifyCreated(metacard);
+    }
     return Response.ok().build();
   }
 
@@ -310,8 +329,14 @@ public Response createEvent(GetRecordsResponseType recordsResponse) throws CswEx
   @Produces({MediaType.TEXT_XML, MediaType.APPLICATION_XML})
   public Response updateEvent(GetRecordsResponseType recordsResponse) throws CswException {
     validateResponseSchema(recordsResponse);
-    List<Metacard> metacards = getMetacards(recordsResponse);
-    eventProcessor.notifyUpdated(metacards.get(0), null);
+    // a single update event may also carry the previous version of the metacard after the
+    // updated one, so only the first record of each metacard is an update
+    Set<String> updatedIds = new HashSet<>();
+    for (Metacard metacard : getMetacards(recordsResponse)) {
+      if (updatedIds.add(metacard.getId())) {
+        eventProcessor.notifyUpdated(metacard, null);
+      }
+    }
     return Response.ok().build();
   }
 
@@ -322,8 +347,9 @@ public Response updateEvent(GetRecordsResponseType recordsResponse) throws CswEx
   @Produces({MediaType.TEXT_XML, MediaType.APPLICATION_XML})
   public Response deleteEvent(GetRecordsResponseType recordsResponse) throws CswException {
     validateResponseSchema(recordsResponse);
-    List<Metacard> metacards = getMetacards(recordsResponse);
-    eventProcessor.notifyDeleted(metacards.get(0));
+    for (Metacard metacard : getMetacards(recordsResponse)) {
+      eventProcessor.notifyDeleted(metacard);
+    }
     return Response.ok().build();
   }
 
@@ -406,9 +432,10 @@ public CswSubscription createSubscription(GetRecordsType request) throws CswExce
     QueryRequest query = queryFactory.getQuery(request);
     // if it is an empty query we need to create a filterless subscription
     if (((QueryType) request.getAbstractQuery().getValue()).getConstraint() == null) {
-      return CswSubscription.getFilterlessSubscription(mimeTypeTransformerManager, request, query);
+      return CswSubscription.getFilterlessSubscription(
+          mimeTypeTransformerManager, request, query, deliveryScheduler);
     }
-    return new CswSubscription(mimeTypeTransformerManager, request, query);
+    return new CswSubscription(mimeTypeTransformerManager, request, query, deliveryScheduler);
   }
 
   public synchronized String addOrUpdateSubscription(
@@ -459,6 +486,7 @@ public synchronized String addOrUpdateSubscription(
       }
     } else {
       LOGGER.debug("Subscription registration failed");
+      sub.close();
     }
 
     LOGGER.trace("EXITING: {}", methodName);
@@ -494,6 +522,9 @@ private synchronized CswSubscription deleteCswSubscription(String subscriptionId
       } else {
         LOGGER.debug("No ServiceRegistration found for subscription: {}", subscriptionId);
       }
+      if (subscription != null) {
+        subscription.close();
+      }
 
       Configuration subscriptionConfig = getSubscriptionConfiguration(subscriptionId);
       try {
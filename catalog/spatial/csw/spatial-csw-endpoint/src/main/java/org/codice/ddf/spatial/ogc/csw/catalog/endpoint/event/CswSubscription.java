@@ -16,6 +16,7 @@
 import ddf.catalog.event.impl.SubscriptionImpl;
 import ddf.catalog.operation.QueryRequest;
 import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
 import net.opengis.cat.csw.v_2_0_2.GetRecordsType;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswException;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transformer.TransformerManager;
@@ -25,6 +26,8 @@ public class CswSubscription extends SubscriptionImpl {
 
   private GetRecordsType originalRequest;
 
+  private final SendEvent sendEvent;
+
   private CswSubscription(
       GetRecordsType request,
       Filter filter,
@@ -33,26 +36,33 @@ private CswSubscription(
       boolean enterprise) {
     super(filter, sendEvent, sourceIds, enterprise);
     this.originalRequest = request;
+    this.sendEvent = sendEvent;
   }
 
   public CswSubscription(
-      TransformerManager mimeTypeTransformerManager, GetRecordsType request, QueryRequest query)
+      TransformerManager mimeTypeTransformerManager,
+      GetRecordsType request,
+      QueryRequest query,
+      ScheduledExecutorService deliveryScheduler)
       throws CswException {
     this(
         request,
         query.getQuery(),
-        new SendEvent(mimeTypeTransformerManager, request, query),
+        new SendEvent(mimeTypeTransformerManager, request, query, deliveryScheduler),
         query.getSourceIds(),
         query.isEnterprise());
   }
 
   public static CswSubscription getFilterlessSubscription(
-      TransformerManager mimeTypeTransformerManager, GetRecordsType request, QueryRequest query)
+      TransformerManager mimeTypeTransformerManager,
+      GetRecordsType request,
+      QueryRequest query,
+      ScheduledExecutorService deliveryScheduler)
       throws CswException {
     return new CswSubscription(
         request,
         Filter.INCLUDE,
-        new SendEvent(mimeTypeTransformerManager, request, query),
+        new SendEvent(mimeTypeTransformerManager, request, query, deliveryScheduler),
         null,
         false);
   }
@@ -60,4 +70,9 @@ public static CswSubscription getFilterlessSubscription(
   public GetRecordsType getOriginalRequest() {
     return originalRequest;
   }
+
+  /** Stops the delivery of the events of this subscription. */
+  public void close() {
+    sendEvent.close();
+  }
 }
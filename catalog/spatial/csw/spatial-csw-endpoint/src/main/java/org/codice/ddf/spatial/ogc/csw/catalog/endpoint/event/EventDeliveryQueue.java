@@ -0,0 +1,533 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event;
+
+import ddf.catalog.data.Metacard;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.ws.rs.HttpMethod;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded queue of the events waiting to be delivered to a CSW subscriber. Consecutive events of
+ * the same operation are batched so they can be delivered with a single request, and an event for a
+ * metacard that already has a pending event of the same operation replaces that event.
+ *
+ * <p>Batches are delivered on the scheduler of the subscription endpoint, which is shared by all
+ * the subscribers and shut down with the endpoint. They are delivered at the latest one flush
+ * window after their first event or as soon as they are full, so a slow subscriber only delays its
+ * own events. A batch the subscriber fails to accept is retried on the next flush. When the queue
+ * is full, the {@link OverflowPolicy} decides whether the publishing thread waits for room or an
+ * event is dropped.
+ */
+class EventDeliveryQueue implements EventDeliveryQueueMBean {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(EventDeliveryQueue.class);
+
+  /** Batch size of the subscribers that don't ask for one, as older subscribers only read one. */
+  static final int MAX_BATCH_SIZE = Integer.getInteger("csw.subscription.maxBatchSize", 1);
+
+  /** Largest batch size a subscriber can ask for. */
+  static final int BATCH_SIZE_LIMIT = Integer.getInteger("csw.subscription.batchSizeLimit", 100);
+
+  static final long FLUSH_WINDOW_MILLIS = Long.getLong("csw.subscription.flushWindowMillis", 1000L);
+
+  static final int CAPACITY = Integer.getInteger("csw.subscription.queueCapacity", 10000);
+
+  static final OverflowPolicy OVERFLOW_POLICY =
+      OverflowPolicy.fromString(System.getProperty("csw.subscription.overflowPolicy"));
+
+  static final long BLOCK_TIMEOUT_MILLIS =
+      Long.getLong("csw.subscription.blockTimeoutMillis", 5000L);
+
+  enum Operation {
+    CREATE(HttpMethod.POST),
+    UPDATE(HttpMethod.PUT),
+    DELETE(HttpMethod.DELETE);
+
+    private final String httpMethod;
+
+    Operation(String httpMethod) {
+      this.httpMethod = httpMethod;
+    }
+
+    String getHttpMethod() {
+      return httpMethod;
+    }
+  }
+
+  enum OverflowPolicy {
+    /** The publishing thread waits for room in the queue, then drops the new event on timeout. */
+    BLOCK,
+    /** The oldest pending event is dropped to make room for the new one. */
+    DROP_OLDEST,
+    /** The new event is dropped. */
+    DROP_NEWEST;
+
+    static OverflowPolicy fromString(String value) {
+      if (value != null) {
+        try {
+          return valueOf(value.trim().toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException e) {
+          LOGGER.info("Unknown CSW subscription overflow policy {}, using {}", value, DROP_OLDEST);
+        }
+      }
+      return DROP_OLDEST;
+    }
+  }
+
+  @FunctionalInterface
+  interface BatchSender {
+
+    /**
+     * @param operation operation of the events in the batch
+     * @param metacards metacards of the events in the batch
+     * @return {@code true} if the batch doesn't have to be sent again, {@code false} to retry it on
+     *     the next flush
+     */
+    boolean send(Operation operation, List<Metacard> metacards);
+  }
+
+  private final String callbackUrl;
+
+  private final BatchSender sender;
+
+  private final ScheduledExecutorService scheduler;
+
+  private final int maxBatchSize;
+
+  private final long flushWindowMillis;
+
+  private final int capacity;
+
+  private final OverflowPolicy overflowPolicy;
+
+  private final long blockTimeoutMillis;
+
+  private final Deque<Batch> batches = new ArrayDeque<>();
+
+  private int pendingCount;
+
+  private Batch inFlight;
+
+  private ScheduledFuture<?> scheduledFlush;
+
+  private boolean flushing;
+
+  private boolean closed;
+
+  private final LongAdder deliveredCount = new LongAdder();
+
+  private final LongAdder deliveredBatchCount = new LongAdder();
+
+  private final LongAdder coalescedCount = new LongAdder();
+
+  private final LongAdder droppedCount = new LongAdder();
+
+  private final LongAdder failedDeliveryCount = new LongAdder();
+
+  private ObjectName objectName;
+
+  /**
+   * @param callbackUrl URL of the subscriber
+   * @param sender delivers the batches
+   * @param requestedBatchSize batch size the subscriber asked for, or 0 if it didn't
+   * @param scheduler delivers the batches when they are due
+   */
+  EventDeliveryQueue(
+      String callbackUrl,
+      BatchSender sender,
+      int requestedBatchSize,
+      ScheduledExecutorService scheduler) {
+    this(
+        callbackUrl,
+        sender,
+        scheduler,
+        requestedBatchSize > 0 ? Math.min(requestedBatchSize, BATCH_SIZE_LIMIT) : MAX_BATCH_SIZE,
+        FLUSH_WINDOW_MILLIS,
+        CAPACITY,
+        OVERFLOW_POLICY,
+        BLOCK_TIMEOUT_MILLIS);
+  }
+
+  EventDeliveryQueue(
+      String callbackUrl,
+      BatchSender sender,
+      ScheduledExecutorService scheduler,
+      int maxBatchSize,
+      long flushWindowMillis,
+      int capacity,
+      OverflowPolicy overflowPolicy,
+      long blockTimeoutMillis) {
+    this.callbackUrl = callbackUrl;
+    this.sender = sender;
+    this.scheduler = scheduler;
+    this.maxBatchSize = Math.max(1, maxBatchSize);
+    this.flushWindowMillis = Math.max(0, flushWindowMillis);
+    this.capacity = Math.max(1, capacity);
+    this.overflowPolicy = overflowPolicy;
+    this.blockTimeoutMillis = Math.max(0, blockTimeoutMillis);
+  }
+
+  /**
+   * Queues an event for delivery.
+   *
+   * @param operation operation of the event
+   * @param metacard the created, updated or deleted metacard
+   */
+  synchronized void offer(Operation operation, Metacard metacard) {
+    if (closed) {
+      return;
+    }
+
+    // metacards without an ID are never coalesced
+    Object key = metacard.getId() != null ? metacard.getId() : new Object();
+
+    if (coalesce(operation, key, metacard)) {
+      coalescedCount.increment();
+      return;
+    }
+
+    if (!makeRoom()) {
+      droppedCount.increment();
+      LOGGER.debug("Event queue for {} is full, dropping {} event", callbackUrl, operation);
+      return;
+    }
+
+    Batch batch = batches.peekLast();
+    if (batch == null || batch.operation != operation || batch.size() >= maxBatchSize) {
+      batch = new Batch(operation);
+      batches.addLast(batch);
+    }
+
+    batch.metacards.put(key, metacard);
+    pendingCount++;
+
+    scheduleFlush(batch.size() >= maxBatchSize);
+  }
+
+  /**
+   * Delivers the pending events on the calling thread without waiting for the end of their flush
+   * window.
+   */
+  void flush() {
+    synchronized (this) {
+      try {
+        while (flushing) {
+          wait();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+
+      if (scheduledFlush != null) {
+        scheduledFlush.cancel(false);
+        scheduledFlush = null;
+      }
+      flushing = true;
+    }
+
+    deliverBatches(true);
+  }
+
+  /** Discards the pending events and stops the delivery. */
+  void close() {
+    synchronized (this) {
+      closed = true;
+      if (scheduledFlush != null) {
+        scheduledFlush.cancel(false);
+        scheduledFlush = null;
+      }
+      if (pendingCount > 0) {
+        LOGGER.debug("Discarding {} undelivered events for {}", pendingCount, callbackUrl);
+      }
+      batches.clear();
+      pendingCount = 0;
+      notifyAll();
+    }
+
+    unregisterMbean();
+  }
+
+  private boolean coalesce(Operation operation, Object key, Metacard metacard) {
+    // only the trailing batches of the same operation can take the event without reordering it
+    Iterator<Batch> iterator = batches.descendingIterator();
+    while (iterator.hasNext()) {
+      Batch batch = iterator.next();
+      if (batch.operation != operation) {
+        return false;
+      }
+      if (batch.metacards.containsKey(key)) {
+        batch.metacards.put(key, metacard);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean makeRoom() {
+    if (pendingCount < capacity) {
+      return true;
+    }
+
+    switch (overflowPolicy) {
+      case DROP_OLDEST:
+        dropOldest();
+        return true;
+      case BLOCK:
+        return awaitRoom();
+      default:
+        return false;
+    }
+  }
+
+  private void dropOldest() {
+    Batch oldest = batches.peekFirst();
+    Iterator<Metacard> iterator = oldest.metacards.values().iterator();
+    iterator.next();
+    iterator.remove();
+    if (oldest.metacards.isEmpty()) {
+      batches.pollFirst();
+    }
+    pendingCount--;
+    droppedCount.increment();
+    LOGGER.debug("Event queue for {} is full, dropped its oldest event", callbackUrl);
+  }
+
+  private boolean awaitRoom() {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(blockTimeoutMillis);
+    try {
+      while (pendingCount >= capacity && !closed) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0) {
+          return false;
+        }
+        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    return !closed;
+  }
+
+  private void scheduleFlush(boolean immediately) {
+    if (flushing) {
+      // the running flush schedules the next one when it is done
+      return;
+    }
+
+    if (scheduledFlush != null && (!immediately || !scheduledFlush.cancel(false))) {
+      return;
+    }
+
+    scheduledFlush =
+        scheduler.schedule(
+            this::scheduledFlush, immediately ? 0 : flushWindowMillis, TimeUnit.MILLISECONDS);
+  }
+
+  private void scheduledFlush() {
+    synchronized (this) {
+      scheduledFlush = null;
+      if (flushing) {
+        return;
+      }
+      flushing = true;
+    }
+
+    deliverBatches(false);
+  }
+
+  /** Delivers the batches until the queue is empty, a delivery fails or a batch isn't due. */
+  private void deliverBatches(boolean force) {
+    Batch batch;
+    while ((batch = nextBatch(force)) != null) {
+      boolean delivered = deliver(batch);
+
+      synchronized (this) {
+        inFlight = null;
+        if (!delivered) {
+          failedDeliveryCount.increment();
+          if (!closed) {
+            batches.addFirst(batch);
+            pendingCount += batch.size();
+            scheduledFlush =
+                scheduler.schedule(this::scheduledFlush, flushWindowMillis, TimeUnit.MILLISECONDS);
+          }
+          endFlush();
+          return;
+        }
+      }
+    }
+  }
+
+  private synchronized Batch nextBatch(boolean force) {
+    Batch batch = batches.peekFirst();
+    if (closed || batch == null) {
+      endFlush();
+      return null;
+    }
+
+    long delayMillis = batch.getRemainingMillis(flushWindowMillis);
+    if (!force && batch.size() < maxBatchSize && delayMillis > 0) {
+      scheduledFlush = scheduler.schedule(this::scheduledFlush, delayMillis, TimeUnit.MILLISECONDS);
+      endFlush();
+      return null;
+    }
+
+    batches.pollFirst();
+    pendingCount -= batch.size();
+    inFlight = batch;
+    // wakes up the publishers waiting for room
+    notifyAll();
+    return batch;
+  }
+
+  private void endFlush() {
+    flushing = false;
+    notifyAll();
+  }
+
+  private boolean deliver(Batch batch) {
+    try {
+      if (!sender.send(batch.operation, new ArrayList<>(batch.metacards.values()))) {
+        return false;
+      }
+    } catch (RuntimeException e) {
+      LOGGER.debug("Unable to deliver events to {}", callbackUrl, e);
+      return false;
+    }
+
+    deliveredCount.add(batch.size());
+    deliveredBatchCount.increment();
+    return true;
+  }
+
+  @Override
+  public String getCallbackUrl() {
+    return callbackUrl;
+  }
+
+  @Override
+  public synchronized int getPendingCount() {
+    return pendingCount + (inFlight != null ? inFlight.size() : 0);
+  }
+
+  @Override
+  public synchronized long getLagMillis() {
+    Batch oldest = inFlight != null ? inFlight : batches.peekFirst();
+    return oldest != null ? oldest.getAgeMillis() : 0;
+  }
+
+  @Override
+  public long getDeliveredCount() {
+    return deliveredCount.sum();
+  }
+
+  @Override
+  public long getDeliveredBatchCount() {
+    return deliveredBatchCount.sum();
+  }
+
+  @Override
+  public long getCoalescedCount() {
+    return coalescedCount.sum();
+  }
+
+  @Override
+  public long getDroppedCount() {
+    return droppedCount.sum();
+  }
+
+  @Override
+  public long getFailedDeliveryCount() {
+    return failedDeliveryCount.sum();
+  }
+
+  void registerMbean(String subscriptionId) {
+    MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    try {
+      objectName =
+          new ObjectName(
+              EventDeliveryQueue.class.getName()
+                  + ":service=csw-subscription,id="
+                  + ObjectName.quote(subscriptionId));
+      try {
+        mBeanServer.registerMBean(this, objectName);
+      } catch (InstanceAlreadyExistsException e) {
+        mBeanServer.unregisterMBean(objectName);
+        mBeanServer.registerMBean(this, objectName);
+      }
+      LOGGER.debug("Registered CSW subscription delivery MBean under object name: {}", objectName);
+    } catch (MalformedObjectNameException e) {
+      LOGGER.info("Unable to create the CSW subscription delivery MBean.", e);
+    } catch (Exception e) {
+      LOGGER.info("Could not register the CSW subscription delivery MBean [{}].", objectName, e);
+    }
+  }
+
+  private void unregisterMbean() {
+    if (objectName == null) {
+      return;
+    }
+
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    } catch (Exception e) {
+      LOGGER.debug("Could not unregister the CSW subscription delivery MBean [{}].", objectName, e);
+    }
+  }
+
+  private static class Batch {
+
+    private final Operation operation;
+
+    private final long createdNanos = System.nanoTime();
+
+    private final Map<Object, Metacard> metacards = new LinkedHashMap<>();
+
+    Batch(Operation operation) {
+      this.operation = operation;
+    }
+
+    int size() {
+      return metacards.size();
+    }
+
+    long getAgeMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - createdNanos);
+    }
+
+    long getRemainingMillis(long windowMillis) {
+      return windowMillis - getAgeMillis();
+    }
+  }
+}
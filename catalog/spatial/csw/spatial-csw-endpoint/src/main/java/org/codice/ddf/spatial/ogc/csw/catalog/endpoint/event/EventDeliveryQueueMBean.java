@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event;
+
+/** Exposes the delivery lag and statistics of a CSW subscriber through JMX. */
+public interface EventDeliveryQueueMBean {
+
+  /** @return callback URL of the subscriber */
+  String getCallbackUrl();
+
+  /** @return number of metacards waiting to be delivered */
+  int getPendingCount();
+
+  /** @return age of the oldest undelivered event in milliseconds, 0 when nothing is pending */
+  long getLagMillis();
+
+  /** @return number of metacards delivered to the subscriber */
+  long getDeliveredCount();
+
+  /** @return number of requests sent to the subscriber */
+  long getDeliveredBatchCount();
+
+  /** @return number of events merged into a pending event for the same metacard */
+  long getCoalescedCount();
+
+  /** @return number of events dropped because the queue was full */
+  long getDroppedCount();
+
+  /** @return number of requests the subscriber failed to accept */
+  long getFailedDeliveryCount();
+}
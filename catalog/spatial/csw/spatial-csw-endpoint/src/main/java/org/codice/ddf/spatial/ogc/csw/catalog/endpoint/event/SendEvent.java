@@ -30,11 +30,11 @@
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.UnknownHostException;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
@@ -49,6 +49,7 @@
 import org.codice.ddf.cxf.SecureCxfClientFactory;
 import org.codice.ddf.security.common.OutgoingSubjectRetrievalInterceptor;
 import org.codice.ddf.security.common.Security;
+import org.codice.ddf.spatial.ogc.csw.catalog.common.CswConstants;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswException;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswRecordCollection;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswSubscribe;
@@ -63,7 +64,12 @@
 
 /**
  * SendEvent provides a implementation of {@link DeliveryMethod} for sending events to a CSW
- * subscription event endpoint
+ * subscription event endpoint. Events are queued in an {@link EventDeliveryQueue} and sent in
+ * batches, one {@code GetRecordsResponse} per batch. Update events only carry the updated metacard.
+ *
+ * <p>Subscribers only receive batches of more than one record when their ResponseHandler URL asks
+ * for them with the {@link CswConstants#EVENT_BATCH_SIZE_PARAMETER} query parameter, since older
+ * subscribers only read the first record of an event.
  */
 public class SendEvent implements DeliveryMethod, Pingable {
 
@@ -105,8 +111,13 @@ public class SendEvent implements DeliveryMethod, Pingable {
 
   SecureCxfClientFactory<CswSubscribe> cxfClientFactory;
 
+  private final EventDeliveryQueue deliveryQueue;
+
   public SendEvent(
-      TransformerManager transformerManager, GetRecordsType request, QueryRequest query)
+      TransformerManager transformerManager,
+      GetRecordsType request,
+      QueryRequest query,
+      ScheduledExecutorService deliveryScheduler)
       throws CswException {
 
     URL deliveryMethodUrl;
@@ -151,13 +162,15 @@ public SendEvent(
     } catch (UnknownHostException e) {
       LOGGER.debug("Unable to resolve callback address", e);
     }
+    deliveryQueue = createDeliveryQueue(request, deliveryScheduler);
     ping();
   }
 
   public SendEvent(
       GetRecordsType request,
       QueryRequest query,
-      SecureCxfClientFactory<CswSubscribe> cxfClientFactory)
+      SecureCxfClientFactory<CswSubscribe> cxfClientFactory,
+      ScheduledExecutorService deliveryScheduler)
       throws CswException {
 
     URL deliveryMethodUrl;
@@ -197,18 +210,60 @@ public SendEvent(
     } catch (UnknownHostException e) {
       LOGGER.debug("Unable to resolve callback address", e);
     }
+    deliveryQueue = createDeliveryQueue(request, deliveryScheduler);
     ping();
   }
 
-  private void sendEvent(String operation, Metacard... metacards) {
+  private EventDeliveryQueue createDeliveryQueue(
+      GetRecordsType request, ScheduledExecutorService deliveryScheduler) {
+    EventDeliveryQueue queue =
+        new EventDeliveryQueue(
+            callbackUrl.toString(),
+            this::sendBatch,
+            getRequestedBatchSize(callbackUrl),
+            deliveryScheduler);
+    queue.registerMbean(
+        request.getRequestId() != null ? request.getRequestId() : callbackUrl.toString());
+    return queue;
+  }
+
+  /** @return the batch size the subscriber asked for in its callback URL, or 0 */
+  static int getRequestedBatchSize(URL callbackUrl) {
+    if (callbackUrl.getQuery() == null) {
+      return 0;
+    }
+
+    for (String parameter : callbackUrl.getQuery().split("&")) {
+      String[] nameAndValue = parameter.split("=", 2);
+      if (nameAndValue.length == 2
+          && CswConstants.EVENT_BATCH_SIZE_PARAMETER.equals(nameAndValue[0])) {
+        try {
+          return Math.max(0, Integer.parseInt(nameAndValue[1]));
+        } catch (NumberFormatException e) {
+          LOGGER.debug("Ignoring invalid event batch size in {}", callbackUrl, e);
+        }
+      }
+    }
+    return 0;
+  }
+
+  private boolean sendBatch(EventDeliveryQueue.Operation operation, List<Metacard> metacards) {
+    if (retryCount.get() > 0 && !ping()) {
+      // the subscriber is still unavailable, try again on the next flush
+      return false;
+    }
     if (subject == null) {
-      return;
+      LOGGER.debug("Dropping {} events for {} without a subject", metacards.size(), callbackUrl);
+      return true;
     }
+    return sendEvent(operation.getHttpMethod(), metacards);
+  }
+
+  private boolean sendEvent(String operation, List<Metacard> metacards) {
     try {
-      List<Result> results =
-          Arrays.asList(metacards).stream().map(ResultImpl::new).collect(Collectors.toList());
+      List<Result> results = metacards.stream().map(ResultImpl::new).collect(Collectors.toList());
 
-      QueryResponse queryResponse = new QueryResponseImpl(query, results, true, metacards.length);
+      QueryResponse queryResponse = new QueryResponseImpl(query, results, true, metacards.size());
       CswRecordCollection recordCollection = new CswRecordCollection();
 
       recordCollection.setElementName(elementName);
@@ -228,14 +283,15 @@ private void sendEvent(String operation, Metacard... metacards) {
       }
 
       if (queryResponse.getResults().isEmpty()) {
-        return;
+        return true;
       }
       recordCollection.setSourceResponse(queryResponse);
 
-      send(operation, recordCollection);
+      return send(operation, recordCollection);
     } catch (StopProcessingException | InvalidSyntaxException e) {
       LOGGER.debug("Unable to send event error running AccessPlugin processPostQuery. ", e);
     }
+    return true;
   }
 
   private boolean send(String operation, CswRecordCollection recordCollection) {
@@ -265,25 +321,25 @@ private boolean send(String operation, CswRecordCollection recordCollection) {
   public void created(Metacard newMetacard) {
 
     LOGGER.debug("Created {}", newMetacard);
-    sendEvent(HttpMethod.POST, newMetacard);
+    deliveryQueue.offer(EventDeliveryQueue.Operation.CREATE, newMetacard);
   }
 
   @Override
   public void updatedHit(Metacard newMetacard, Metacard oldMetacard) {
     LOGGER.debug("Updated Hit {} {}", newMetacard, oldMetacard);
-    sendEvent(HttpMethod.PUT, newMetacard, oldMetacard);
+    deliveryQueue.offer(EventDeliveryQueue.Operation.UPDATE, newMetacard);
   }
 
   @Override
   public void updatedMiss(Metacard newMetacard, Metacard oldMetacard) {
     LOGGER.debug("Updated Miss {} {}", newMetacard, oldMetacard);
-    sendEvent(HttpMethod.PUT, newMetacard, oldMetacard);
+    deliveryQueue.offer(EventDeliveryQueue.Operation.UPDATE, newMetacard);
   }
 
   @Override
   public void deleted(Metacard oldMetacard) {
     LOGGER.debug("Deleted {}", oldMetacard);
-    sendEvent(HttpMethod.DELETE, oldMetacard);
+    deliveryQueue.offer(EventDeliveryQueue.Operation.DELETE, oldMetacard);
   }
 
   private long introduceJitter(long value, double percent) {
@@ -345,4 +401,14 @@ public long getLastPing() {
   public int getRetryCount() {
     return retryCount.get();
   }
+
+  /** Delivers the pending events right away instead of at the end of their flush window. */
+  void flush() {
+    deliveryQueue.flush();
+  }
+
+  /** Stops the delivery of the events once the subscription has been removed. */
+  public void close() {
+    deliveryQueue.close();
+  }
 }
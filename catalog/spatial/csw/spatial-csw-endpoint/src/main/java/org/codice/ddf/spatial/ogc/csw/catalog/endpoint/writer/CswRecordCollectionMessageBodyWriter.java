@@ -19,7 +19,6 @@
 import ddf.catalog.transform.QueryResponseTransformer;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
 import java.lang.annotation.Annotation;
@@ -142,9 +141,7 @@ public void writeTo(
     }
 
     if (content != null) {
-      try (InputStream inputStream = content.getInputStream()) {
-        IOUtils.copy(inputStream, outStream);
-      }
+      content.writeTo(outStream);
     } else {
       throw new WebApplicationException(
           new CatalogTransformerException("Transformer returned null."));
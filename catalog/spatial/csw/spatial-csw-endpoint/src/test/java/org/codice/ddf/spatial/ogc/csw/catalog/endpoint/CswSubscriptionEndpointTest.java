@@ -41,6 +41,7 @@
 import java.util.ArrayList;
 import java.util.Dictionary;
 import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
 import javax.ws.rs.core.Response;
 import javax.xml.bind.JAXBElement;
 import net.opengis.cat.csw.v_2_0_2.AcknowledgementType;
@@ -173,7 +174,11 @@ public void setUp() throws Exception {
 
     defaultRequest = createDefaultGetRecordsRequest();
     subscription =
-        new CswSubscription(mockMimeTypeManager, defaultRequest.get202RecordsType(), query);
+        new CswSubscription(
+            mockMimeTypeManager,
+            defaultRequest.get202RecordsType(),
+            query,
+            mock(ScheduledExecutorService.class));
 
     when(osgiFilter.toString()).thenReturn(FILTER_STR);
     doReturn(serviceRegistration)
@@ -379,6 +384,12 @@ public void testCreateEvent() throws Exception {
     verify(eventProcessor).notifyCreated(any(Metacard.class));
   }
 
+  @Test
+  public void testCreateEventBatch() throws Exception {
+    cswSubscriptionEndpoint.createEvent(getRecordsResponse(3));
+    verify(eventProcessor, times(3)).notifyCreated(any(Metacard.class));
+  }
+
   @Test
   public void testUpdateEvent() throws Exception {
 
@@ -0,0 +1,260 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.MetacardImpl;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event.EventDeliveryQueue.Operation;
+import org.codice.ddf.spatial.ogc.csw.catalog.endpoint.event.EventDeliveryQueue.OverflowPolicy;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EventDeliveryQueueTest {
+
+  private static final String CALLBACK_URL = "https://localhost:12345/services/csw/subscription";
+
+  private final List<String> deliveries = new ArrayList<>();
+
+  private ScheduledExecutorService scheduler;
+
+  private boolean accept;
+
+  @Before
+  public void setUp() {
+    ScheduledFuture<?> scheduledFlush = mock(ScheduledFuture.class);
+    when(scheduledFlush.cancel(anyBoolean())).thenReturn(true);
+    scheduler = mock(ScheduledExecutorService.class);
+    doReturn(scheduledFlush)
+        .when(scheduler)
+        .schedule(any(Runnable.class), anyLong(), any(TimeUnit.class));
+    accept = true;
+  }
+
+  @Test
+  public void testBatchesConsecutiveEventsOfTheSameOperation() {
+    EventDeliveryQueue queue = createQueue(10, 100, OverflowPolicy.DROP_OLDEST);
+
+    queue.offer(Operation.CREATE, metacard("1", "a"));
+    queue.offer(Operation.CREATE, metacard("2", "a"));
+    queue.offer(Operation.DELETE, metacard("3", "a"));
+    queue.offer(Operation.CREATE, metacard("4", "a"));
+    queue.flush();
+
+    assertThat(deliveries, contains("CREATE [1a, 2a]", "DELETE [3a]", "CREATE [4a]"));
+    assertThat(queue.getDeliveredCount(), is(4L));
+    assertThat(queue.getDeliveredBatchCount(), is(3L));
+    assertThat(queue.getPendingCount(), is(0));
+  }
+
+  @Test
+  public void testCoalescesRepeatedUpdates() {
+    EventDeliveryQueue queue = createQueue(10, 100, OverflowPolicy.DROP_OLDEST);
+
+    queue.offer(Operation.UPDATE, metacard("1", "a"));
+    queue.offer(Operation.UPDATE, metacard("2", "a"));
+    queue.offer(Operation.UPDATE, metacard("1", "b"));
+    assertThat(queue.getPendingCount(), is(2));
+    queue.flush();
+
+    assertThat(deliveries, contains("UPDATE [1b, 2a]"));
+    assertThat(queue.getCoalescedCount(), is(1L));
+  }
+
+  @Test
+  public void testDoesNotCoalesceAcrossOperations() {
+    EventDeliveryQueue queue = createQueue(10, 100, OverflowPolicy.DROP_OLDEST);
+
+    queue.offer(Operation.UPDATE, metacard("1", "a"));
+    queue.offer(Operation.DELETE, metacard("1", "a"));
+    queue.offer(Operation.UPDATE, metacard("1", "b"));
+    queue.flush();
+
+    assertThat(deliveries, contains("UPDATE [1a]", "DELETE [1a]", "UPDATE [1b]"));
+    assertThat(queue.getCoalescedCount(), is(0L));
+  }
+
+  @Test
+  public void testFullBatchIsFlushedRightAway() {
+    EventDeliveryQueue queue = createQueue(2, 100, OverflowPolicy.DROP_OLDEST);
+
+    queue.offer(Operation.CREATE, metacard("1", "a"));
+    verify(scheduler).schedule(any(Runnable.class), eq(1000L), eq(TimeUnit.MILLISECONDS));
+
+    queue.offer(Operation.CREATE, metacard("2", "a"));
+    verify(scheduler).schedule(any(Runnable.class), eq(0L), eq(TimeUnit.MILLISECONDS));
+
+    queue.offer(Operation.CREATE, metacard("3", "a"));
+    queue.flush();
+
+    assertThat(deliveries, contains("CREATE [1a, 2a]", "CREATE [3a]"));
+  }
+
+  @Test
+  public void testDropOldestWhenFull() {
+    EventDeliveryQueue queue = createQueue(10, 2, OverflowPolicy.DROP_OLDEST);
+
+    queue.offer(Operation.CREATE, metacard("1", "a"));
+    queue.offer(Operation.CREATE, metacard("2", "a"));
+    queue.offer(Operation.DELETE, metacard("3", "a"));
+    queue.flush();
+
+    assertThat(deliveries, contains("CREATE [2a]", "DELETE [3a]"));
+    assertThat(queue.getDroppedCount(), is(1L));
+  }
+
+  @Test
+  public void testDropNewestWhenFull() {
+    EventDeliveryQueue queue = createQueue(10, 2, OverflowPolicy.DROP_NEWEST);
+
+    queue.offer(Operation.CREATE, metacard("1", "a"));
+    queue.offer(Operation.CREATE, metacard("2", "a"));
+    queue.offer(Operation.DELETE, metacard("3", "a"));
+    queue.flush();
+
+    assertThat(deliveries, contains("CREATE [1a, 2a]"));
+    assertThat(queue.getDroppedCount(), is(1L));
+  }
+
+  @Test
+  public void testBlockDropsNewestAfterTimeout() {
+    EventDeliveryQueue queue = createQueue(10, 1, OverflowPolicy.BLOCK);
+
+    queue.offer(Operation.CREATE, metacard("1", "a"));
+    queue.offer(Operation.CREATE, metacard("2", "a"));
+    queue.flush();
+
+    assertThat(deliveries, contains("CREATE [1a]"));
+    assertThat(queue.getDroppedCount(), is(1L));
+  }
+
+  @Test
+  public void testFailedBatchIsRetried() {
+    EventDeliveryQueue queue = createQueue(10, 100, OverflowPolicy.DROP_OLDEST);
+
+    queue.offer(Operation.CREATE, metacard("1", "a"));
+    queue.offer(Operation.DELETE, metacard("2", "a"));
+    accept = false;
+    queue.flush();
+
+    assertThat(queue.getFailedDeliveryCount(), is(1L));
+    assertThat(queue.getPendingCount(), is(2));
+    verify(scheduler, times(2)).schedule(any(Runnable.class), eq(1000L), eq(TimeUnit.MILLISECONDS));
+
+    accept = true;
+    queue.flush();
+
+    assertThat(deliveries, contains("CREATE [1a]", "CREATE [1a]", "DELETE [2a]"));
+    assertThat(queue.getDeliveredCount(), is(2L));
+    assertThat(queue.getPendingCount(), is(0));
+  }
+
+  @Test
+  public void testCloseDiscardsPendingEvents() {
+    EventDeliveryQueue queue = createQueue(10, 100, OverflowPolicy.DROP_OLDEST);
+
+    queue.offer(Operation.CREATE, metacard("1", "a"));
+    queue.close();
+    queue.offer(Operation.CREATE, metacard("2", "a"));
+    queue.flush();
+
+    assertThat(deliveries.isEmpty(), is(true));
+    assertThat(queue.getPendingCount(), is(0));
+    assertThat(queue.getLagMillis(), is(0L));
+  }
+
+  @Test
+  public void testEventsAreDeliveredAtTheEndOfTheFlushWindow() throws Exception {
+    ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+    CountDownLatch delivered = new CountDownLatch(1);
+    try {
+      EventDeliveryQueue queue =
+          new EventDeliveryQueue(
+              CALLBACK_URL,
+              (operation, metacards) -> {
+                record(operation, metacards);
+                delivered.countDown();
+                return true;
+              },
+              executor,
+              10,
+              50,
+              100,
+              OverflowPolicy.DROP_OLDEST,
+              0);
+
+      queue.offer(Operation.CREATE, metacard("1", "a"));
+      queue.offer(Operation.CREATE, metacard("2", "a"));
+
+      assertThat(delivered.await(5, TimeUnit.SECONDS), is(true));
+      synchronized (deliveries) {
+        assertThat(deliveries, contains("CREATE [1a, 2a]"));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private EventDeliveryQueue createQueue(
+      int maxBatchSize, int capacity, OverflowPolicy overflowPolicy) {
+    return new EventDeliveryQueue(
+        CALLBACK_URL,
+        (operation, metacards) -> {
+          record(operation, metacards);
+          return accept;
+        },
+        scheduler,
+        maxBatchSize,
+        1000,
+        capacity,
+        overflowPolicy,
+        10);
+  }
+
+  private void record(Operation operation, List<Metacard> metacards) {
+    synchronized (deliveries) {
+      deliveries.add(
+          operation
+              + " "
+              + metacards.stream().map(Metacard::getTitle).collect(Collectors.toList()));
+    }
+  }
+
+  private Metacard metacard(String id, String version) {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setId(id);
+    metacard.setTitle(id + version);
+    return metacard;
+  }
+}
@@ -40,6 +40,8 @@
 import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.core.Response;
@@ -56,6 +58,7 @@
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswException;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.CswSubscribe;
 import org.codice.ddf.spatial.ogc.csw.catalog.common.transformer.TransformerManager;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.Matchers;
@@ -97,6 +100,8 @@ public class SendEventTest {
 
   private Subject subject;
 
+  private ScheduledExecutorService deliveryScheduler;
+
   @Before
   public void setUp() throws Exception {
     System.setProperty("ddf.home", ".");
@@ -124,6 +129,7 @@ public void setUp() throws Exception {
     metacard = mock(Metacard.class);
     webclient = mock(WebClient.class);
     mockCxfClientFactory = mock(SecureCxfClientFactory.class);
+    deliveryScheduler = Executors.newSingleThreadScheduledExecutor();
     response = mock(Response.class);
     subject = mock(Subject.class);
 
@@ -141,7 +147,13 @@ public void setUp() throws Exception {
     sendEvent.setSubject(subject);
   }
 
+  @After
+  public void tearDown() {
+    deliveryScheduler.shutdownNow();
+  }
+
   public void verifyResults() throws Exception {
+    sendEvent.flush();
     verify(webclient, times(2)).invoke(anyString(), anyObject());
   }
 
@@ -151,6 +163,41 @@ public void testCreated() throws Exception {
     verifyResults();
   }
 
+  @Test
+  public void testCreatedBatch() throws Exception {
+    request.getResponseHandler().set(0, callbackURI + "?eventBatchSize=10");
+    sendEvent = new SendEventExtension(request, query, mockCxfClientFactory);
+    sendEvent.setSubject(subject);
+
+    sendEvent.created(metacard);
+    sendEvent.created(mock(Metacard.class));
+    sendEvent.created(mock(Metacard.class));
+    sendEvent.flush();
+
+    // the pings and a single event for all the metacards
+    verify(webclient, times(3)).invoke(anyString(), anyObject());
+  }
+
+  @Test
+  public void testCreatedWithoutBatchSize() throws Exception {
+    sendEvent.created(metacard);
+    sendEvent.created(mock(Metacard.class));
+    sendEvent.created(mock(Metacard.class));
+    sendEvent.flush();
+
+    // the ping and an event for each metacard, since the subscriber didn't ask for batches
+    verify(webclient, times(4)).invoke(anyString(), anyObject());
+  }
+
+  @Test
+  public void testGetRequestedBatchSize() throws Exception {
+    assertThat(SendEvent.getRequestedBatchSize(callbackURI), is(0));
+    assertThat(
+        SendEvent.getRequestedBatchSize(new URL(callbackURI + "?a=b&eventBatchSize=50")), is(50));
+    assertThat(
+        SendEvent.getRequestedBatchSize(new URL(callbackURI + "?eventBatchSize=many")), is(0));
+  }
+
   @Test
   public void testUpdatedHit() throws Exception {
     sendEvent.updatedHit(metacard, metacard);
@@ -218,7 +265,7 @@ public SendEventExtension(
         QueryRequest query,
         SecureCxfClientFactory<CswSubscribe> mockCxfClientFactory)
         throws CswException {
-      super(request, query, mockCxfClientFactory);
+      super(request, query, mockCxfClientFactory, deliveryScheduler);
       super.security = mockSecurity;
     }
 
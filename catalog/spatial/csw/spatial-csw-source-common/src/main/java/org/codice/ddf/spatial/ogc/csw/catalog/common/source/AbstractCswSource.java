@@ -202,6 +202,8 @@ public abstract class AbstractCswSource extends MaskableImpl
 
   private static final int CONTENT_TYPE_SAMPLE_SIZE = 50;
 
+  private static final int EVENT_BATCH_SIZE = 100;
+
   public static final String DISABLE_CN_CHECK_PROPERTY = "disableCnCheck";
 
   private static final JAXBContext JAXB_CONTEXT = initJaxbContext();
@@ -1886,9 +1888,15 @@ private GetRecordsType createSubscriptionGetRecordsRequest() {
     getRecordsType.setMaxRecords(BigInteger.TEN);
     getRecordsType.setOutputFormat(MediaType.APPLICATION_XML);
     getRecordsType.setOutputSchema("urn:catalog:metacard");
+    // the subscription endpoint handles every record of an event
     getRecordsType
         .getResponseHandler()
-        .add(SystemBaseUrl.constructUrl("csw/subscription/event", true));
+        .add(
+            SystemBaseUrl.constructUrl("csw/subscription/event", true)
+                + "?"
+                + CswConstants.EVENT_BATCH_SIZE_PARAMETER
+                + "="
+                + EVENT_BATCH_SIZE);
     QueryType queryType = new QueryType();
     queryType.setElementSetName(createElementSetName(ElementSetType.FULL));
     ObjectFactory objectFactory = new ObjectFactory();
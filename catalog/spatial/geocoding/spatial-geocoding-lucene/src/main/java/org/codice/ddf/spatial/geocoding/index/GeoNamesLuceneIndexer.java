@@ -18,6 +18,7 @@
 
 import java.io.IOException;
 import java.nio.file.Paths;
+import java.util.Collections;
 import java.util.List;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
@@ -50,8 +51,12 @@
 import org.codice.ddf.spatial.geocoding.ProgressCallback;
 import org.locationtech.spatial4j.context.SpatialContext;
 import org.locationtech.spatial4j.shape.Shape;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class GeoNamesLuceneIndexer implements GeoEntryIndexer {
+  private static final Logger LOGGER = LoggerFactory.getLogger(GeoNamesLuceneIndexer.class);
+
   public static final ClassicSimilarity SIMILARITY =
       new ClassicSimilarity() {
         @Override
@@ -82,10 +87,16 @@ public float lengthNorm(final FieldInvertState fieldInvertState) {
 
   private String indexLocation;
 
+  private List<GeoNamesIndexListener> indexListeners = Collections.emptyList();
+
   public void setIndexLocation(final String indexLocation) {
     this.indexLocation = indexLocation;
   }
 
+  public void setIndexListeners(final List<GeoNamesIndexListener> indexListeners) {
+    this.indexListeners = indexListeners == null ? Collections.emptyList() : indexListeners;
+  }
+
   @Override
   public void updateIndex(
       final List<GeoEntry> geoEntryList,
@@ -150,6 +161,8 @@ public void updateProgress(final int progress) {
     } catch (IOException e) {
       throw new GeoEntryIndexingException("Error writing to the index.", e);
     }
+
+    notifyIndexListeners();
   }
 
   IndexWriter createIndexWriter(final boolean create, final Directory directory)
@@ -194,6 +207,18 @@ private void buildIndex(
     } catch (IOException e) {
       throw new GeoEntryIndexingException("Error writing to the index.", e);
     }
+
+    notifyIndexListeners();
+  }
+
+  private void notifyIndexListeners() {
+    for (GeoNamesIndexListener indexListener : indexListeners) {
+      try {
+        indexListener.indexUpdated();
+      } catch (RuntimeException e) {
+        LOGGER.debug("Error notifying {} of the index update", indexListener, e);
+      }
+    }
   }
 
   private void indexGeoEntries(
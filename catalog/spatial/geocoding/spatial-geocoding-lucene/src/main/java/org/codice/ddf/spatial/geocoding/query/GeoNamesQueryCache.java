@@ -0,0 +1,68 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.query;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least recently used cache of gazetteer lookup results.
+ *
+ * <p>Every result cached is only valid for the version of the index it was read from, so {@link
+ * #clear()} must be called whenever the index is reopened. Lookups that were started before the
+ * cache was cleared are not added to it.
+ */
+class GeoNamesQueryCache {
+
+  private final Map<String, Object> entries;
+
+  private final int maxSize;
+
+  private long generation = 0;
+
+  GeoNamesQueryCache(int maxSize) {
+    this.maxSize = maxSize;
+    this.entries =
+        new LinkedHashMap<String, Object>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+            return size() > GeoNamesQueryCache.this.maxSize;
+          }
+        };
+  }
+
+  synchronized Object get(String key) {
+    return entries.get(key);
+  }
+
+  /** @return the generation to pass to {@link #put} for a lookup starting now */
+  synchronized long getGeneration() {
+    return generation;
+  }
+
+  synchronized void put(String key, Object value, long lookupGeneration) {
+    if (maxSize > 0 && lookupGeneration == generation) {
+      entries.put(key, value);
+    }
+  }
+
+  synchronized void clear() {
+    entries.clear();
+    generation++;
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+}
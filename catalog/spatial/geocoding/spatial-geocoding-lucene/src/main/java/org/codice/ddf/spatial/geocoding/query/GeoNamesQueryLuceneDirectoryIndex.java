@@ -16,16 +16,20 @@
 import java.io.IOException;
 import java.nio.file.Paths;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.store.Directory;
-import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.MMapDirectory;
 import org.codice.ddf.spatial.geocoding.GeoEntry;
 import org.codice.ddf.spatial.geocoding.GeoEntryQueryException;
 import org.codice.ddf.spatial.geocoding.context.NearbyLocation;
+import org.codice.ddf.spatial.geocoding.index.GeoNamesIndexListener;
 import org.codice.ddf.spatial.geocoding.index.GeoNamesLuceneIndexer;
 import org.locationtech.spatial4j.context.SpatialContext;
 import org.locationtech.spatial4j.context.jts.JtsSpatialContextFactory;
@@ -33,7 +37,16 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class GeoNamesQueryLuceneDirectoryIndex extends GeoNamesQueryLuceneIndex {
+/**
+ * Queries the GeoNames index stored in a directory on disk.
+ *
+ * <p>The index is memory mapped and opened once. The same {@link IndexSearcher} is shared by all
+ * the lookups until the {@link GeoNamesLuceneIndexer} reports that the index changed, at which
+ * point the searcher is reopened. Lookup results are kept in a least recently used cache that is
+ * cleared whenever the searcher is reopened.
+ */
+public class GeoNamesQueryLuceneDirectoryIndex extends GeoNamesQueryLuceneIndex
+    implements GeoNamesIndexListener {
 
   private static final Logger LOGGER =
       LoggerFactory.getLogger(GeoNamesQueryLuceneDirectoryIndex.class);
@@ -49,38 +62,73 @@ public class GeoNamesQueryLuceneDirectoryIndex extends GeoNamesQueryLuceneIndex
   private static final SpatialContext SPATIAL_CONTEXT =
       JTS_SPATIAL_CONTEXT_FACTORY.newSpatialContext();
 
+  private static final int DEFAULT_CACHE_SIZE = 1000;
+
+  private final GeoNamesQueryMetrics metrics = new GeoNamesQueryMetrics();
+
+  private GeoNamesQueryCache cache = new GeoNamesQueryCache(DEFAULT_CACHE_SIZE);
+
   private String indexLocation;
 
+  private Directory directory;
+
+  private SearcherManager searcherManager;
+
+  private volatile boolean stale = false;
+
   public void setIndexLocation(final String indexLocation) {
+    if (this.indexLocation != null && !this.indexLocation.equals(indexLocation)) {
+      closeSearcherManager();
+    }
     this.indexLocation = indexLocation;
   }
 
+  /** @param cacheSize maximum number of lookup results cached, 0 to disable the cache */
+  public void setCacheSize(final int cacheSize) {
+    this.cache = new GeoNamesQueryCache(Math.max(cacheSize, 0));
+  }
+
+  public void init() {
+    metrics.registerMbean();
+  }
+
+  public void destroy() {
+    metrics.unregisterMbean();
+    closeSearcherManager();
+  }
+
+  @Override
+  public void indexUpdated() {
+    LOGGER.debug("The index at {} was updated, reopening it before the next lookup", indexLocation);
+    stale = true;
+  }
+
   @Override
   protected Directory openDirectory() throws IOException {
-    return FSDirectory.open(Paths.get(indexLocation));
+    return new MMapDirectory(Paths.get(indexLocation));
   }
 
   private Directory openDirectoryAndCheckForIndex() throws GeoEntryQueryException {
-    Directory directory;
+    Directory indexDirectory;
 
     try {
-      directory = openDirectory();
-      if (!indexExists(directory)) {
-        directory.close();
+      indexDirectory = openDirectory();
+      if (!indexExists(indexDirectory)) {
+        indexDirectory.close();
         LOGGER.debug(
             "There is no index at {}. Load a Geonames file into the offline gazetteer",
             indexLocation);
         return null;
       }
 
-      return directory;
+      return indexDirectory;
     } catch (IOException e) {
       throw new GeoEntryQueryException("Error opening the index directory at " + indexLocation, e);
     }
   }
 
   @Override
-  protected IndexReader createIndexReader(final Directory directory) throws IOException {
+  protected DirectoryReader createIndexReader(final Directory directory) throws IOException {
     return DirectoryReader.open(directory);
   }
 
@@ -91,12 +139,140 @@ protected IndexSearcher createIndexSearcher(final IndexReader indexReader) {
     return indexSearcher;
   }
 
+  /**
+   * @return the searcher manager of the current index, or null if there is no index yet
+   * @throws GeoEntryQueryException if the index can't be opened or reopened
+   */
+  private synchronized SearcherManager getSearcherManager() throws GeoEntryQueryException {
+    if (searcherManager == null) {
+      stale = false;
+
+      directory = openDirectoryAndCheckForIndex();
+      if (directory == null) {
+        return null;
+      }
+
+      try {
+        searcherManager =
+            new SearcherManager(
+                createIndexReader(directory),
+                new SearcherFactory() {
+                  @Override
+                  public IndexSearcher newSearcher(IndexReader reader, IndexReader previousReader) {
+                    return createIndexSearcher(reader);
+                  }
+                });
+      } catch (IOException e) {
+        closeDirectory();
+        throw new GeoEntryQueryException("Error reading the index", e);
+      }
+
+      cache.clear();
+    } else if (stale) {
+      stale = false;
+
+      try {
+        searcherManager.maybeRefreshBlocking();
+      } catch (IOException e) {
+        stale = true;
+        throw new GeoEntryQueryException("Error reopening the index", e);
+      }
+
+      cache.clear();
+      metrics.refreshed();
+    }
+
+    return searcherManager;
+  }
+
+  private synchronized void closeSearcherManager() {
+    if (searcherManager != null) {
+      try {
+        searcherManager.close();
+      } catch (IOException e) {
+        LOGGER.debug("Error closing the searcher for the index at {}", indexLocation, e);
+      }
+      searcherManager = null;
+    }
+    closeDirectory();
+    cache.clear();
+  }
+
+  private void closeDirectory() {
+    if (directory != null) {
+      try {
+        directory.close();
+      } catch (IOException e) {
+        LOGGER.debug("Error closing the index directory at {}", indexLocation, e);
+      }
+      directory = null;
+    }
+  }
+
+  /**
+   * Returns the cached result of a lookup, or performs the lookup with a searcher of the current
+   * index and caches its result.
+   */
+  @SuppressWarnings("unchecked")
+  private <T> T lookup(final String key, final Search<T> search)
+      throws GeoEntryQueryException, ParseException {
+    final SearcherManager manager = getSearcherManager();
+
+    final Object cached = cache.get(key);
+    if (cached != null) {
+      metrics.cacheHit();
+      return (T) cached;
+    }
+
+    final long generation = cache.getGeneration();
+    final long start = System.nanoTime();
+    final T result;
+
+    if (manager == null) {
+      result = search.apply(null);
+    } else {
+      final IndexSearcher indexSearcher = acquire(manager);
+      try {
+        result = search.apply(indexSearcher);
+      } finally {
+        release(manager, indexSearcher);
+      }
+    }
+
+    metrics.searched(System.nanoTime() - start);
+    cache.put(key, result, generation);
+    return result;
+  }
+
+  private IndexSearcher acquire(final SearcherManager manager) throws GeoEntryQueryException {
+    try {
+      return manager.acquire();
+    } catch (IOException e) {
+      throw new GeoEntryQueryException("Error reading the index", e);
+    }
+  }
+
+  private void release(final SearcherManager manager, final IndexSearcher indexSearcher) {
+    try {
+      manager.release(indexSearcher);
+    } catch (IOException e) {
+      LOGGER.debug("Error releasing the searcher for the index at {}", indexLocation, e);
+    }
+  }
+
   @Override
   public List<GeoEntry> query(final String queryString, final int maxResults)
       throws GeoEntryQueryException {
-    final Directory directory = openDirectoryAndCheckForIndex();
-
-    return doQuery(queryString, maxResults, directory);
+    try {
+      final List<GeoEntry> results =
+          lookup(
+              "query|" + maxResults + "|" + queryString,
+              indexSearcher -> doSearch(queryString, maxResults, indexSearcher));
+      return new ArrayList<>(results);
+    } catch (ParseException e) {
+      // place name queries don't parse WKT
+      throw new GeoEntryQueryException("Error parsing query", e);
+    }
   }
 
   @Override
@@ -109,10 +285,12 @@ public List<NearbyLocation> getNearestCities(
           "GeoNamesQueryLuceneDirectoryIndex.getNearestCities(): argument 'location' may not be null.");
     }
 
-    Shape shape = getShape(location);
-    final Directory directory = openDirectoryAndCheckForIndex();
-
-    return doGetNearestCities(shape, radiusInKm, maxResults, directory);
+    final List<NearbyLocation> results =
+        lookup(
+            "nearestCities|" + radiusInKm + "|" + maxResults + "|" + location,
+            indexSearcher ->
+                doSearchNearestCities(getShape(location), radiusInKm, maxResults, indexSearcher));
+    return new ArrayList<>(results);
   }
 
   static Shape getShape(String location) throws ParseException {
@@ -122,11 +300,14 @@ static Shape getShape(String location) throws ParseException {
   @Override
   public Optional<String> getCountryCode(String wktLocation, int radius)
       throws GeoEntryQueryException, ParseException {
-    final Directory directory = openDirectoryAndCheckForIndex();
-
-    Shape shape = getShape(wktLocation);
-    String countryCode = doGetCountryCode(shape, radius, directory);
+    return lookup(
+        "countryCode|" + radius + "|" + wktLocation,
+        indexSearcher ->
+            Optional.ofNullable(doSearchCountryCode(getShape(wktLocation), radius, indexSearcher)));
+  }
 
-    return Optional.ofNullable(countryCode);
+  @FunctionalInterface
+  private interface Search<T> {
+    T apply(IndexSearcher indexSearcher) throws GeoEntryQueryException, ParseException;
   }
 }
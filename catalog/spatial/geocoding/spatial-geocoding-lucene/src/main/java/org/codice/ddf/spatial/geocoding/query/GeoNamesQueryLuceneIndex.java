@@ -103,9 +103,25 @@ protected boolean indexExists(final Directory directory) throws IOException {
     return DirectoryReader.indexExists(directory);
   }
 
-  protected List<GeoEntry> doQuery(
-      final String queryString, final int maxResults, final Directory directory)
+  protected List<GeoEntry> doSearch(
+      final String queryString, final int maxResults, final IndexSearcher indexSearcher)
       throws GeoEntryQueryException {
+    validateQuery(queryString, maxResults);
+
+    if (indexSearcher == null) {
+      return Collections.emptyList();
+    }
+
+    try {
+      return searchQuery(queryString, maxResults, indexSearcher);
+    } catch (IOException e) {
+      throw new GeoEntryQueryException("Error reading the index", e);
+    } catch (ParseException e) {
+      throw new GeoEntryQueryException("Error parsing query", e);
+    }
+  }
+
+  private void validateQuery(final String queryString, final int maxResults) {
     if (StringUtils.isBlank(queryString)) {
       throw new IllegalArgumentException("The query string cannot be null or empty.");
     }
@@ -113,44 +129,34 @@ protected List<GeoEntry> doQuery(
     if (maxResults < 1) {
       throw new IllegalArgumentException("maxResults must be positive.");
     }
+  }
 
-    if (directory == null) {
-      return Collections.emptyList();
-    }
-
-    try (final IndexReader indexReader = createIndexReader(directory)) {
-      final IndexSearcher indexSearcher = createIndexSearcher(indexReader);
-
-      final Query query = createQuery(queryString);
-
-      final TopDocs topDocs = indexSearcher.search(query, maxResults);
-      if (topDocs.totalHits > 0) {
-        final List<GeoEntry> results = new ArrayList<>();
-        for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
-          final Document document = indexSearcher.doc(scoreDoc.doc);
-          // The alternate names aren't being stored (they are only used for queries),
-          // so we don't retrieve them here.
-          results.add(
-              new GeoEntry.Builder()
-                  .name(document.get(GeoNamesLuceneConstants.NAME_FIELD))
-                  .latitude(
-                      Double.parseDouble(document.get(GeoNamesLuceneConstants.LATITUDE_FIELD)))
-                  .longitude(
-                      Double.parseDouble(document.get(GeoNamesLuceneConstants.LONGITUDE_FIELD)))
-                  .featureCode(document.get(GeoNamesLuceneConstants.FEATURE_CODE_FIELD))
-                  .population(
-                      Long.parseLong(document.get(GeoNamesLuceneConstants.POPULATION_FIELD)))
-                  .countryCode(document.get(GeoNamesLuceneConstants.COUNTRY_CODE_FIELD))
-                  .build());
-        }
-        return results;
-      } else {
-        return Collections.emptyList();
+  private List<GeoEntry> searchQuery(
+      final String queryString, final int maxResults, final IndexSearcher indexSearcher)
+      throws IOException, ParseException {
+    final Query query = createQuery(queryString);
+
+    final TopDocs topDocs = indexSearcher.search(query, maxResults);
+    if (topDocs.totalHits > 0) {
+      final List<GeoEntry> results = new ArrayList<>();
+      for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+        final Document document = indexSearcher.doc(scoreDoc.doc);
+        // The alternate names aren't being stored (they are only used for queries),
+        // so we don't retrieve them here.
+        results.add(
+            new GeoEntry.Builder()
+                .name(document.get(GeoNamesLuceneConstants.NAME_FIELD))
+                .latitude(Double.parseDouble(document.get(GeoNamesLuceneConstants.LATITUDE_FIELD)))
+                .longitude(
+                    Double.parseDouble(document.get(GeoNamesLuceneConstants.LONGITUDE_FIELD)))
+                .featureCode(document.get(GeoNamesLuceneConstants.FEATURE_CODE_FIELD))
+                .population(Long.parseLong(document.get(GeoNamesLuceneConstants.POPULATION_FIELD)))
+                .countryCode(document.get(GeoNamesLuceneConstants.COUNTRY_CODE_FIELD))
+                .build());
       }
-    } catch (IOException e) {
-      throw new GeoEntryQueryException("Error reading the index", e);
-    } catch (ParseException e) {
-      throw new GeoEntryQueryException("Error parsing query", e);
+      return results;
+    } else {
+      return Collections.emptyList();
     }
   }
 
@@ -221,112 +227,130 @@ query searching for any of the terms in the query string (the OR query). We take
     return new CustomScoreQuery(disjunctionMaxQuery, boostQuery);
   }
 
-  protected List<NearbyLocation> doGetNearestCities(
-      final Shape shape, final int radiusInKm, final int maxResults, final Directory directory)
+  protected List<NearbyLocation> doSearchNearestCities(
+      final Shape shape,
+      final int radiusInKm,
+      final int maxResults,
+      final IndexSearcher indexSearcher)
       throws GeoEntryQueryException {
+    validateNearestCities(shape, radiusInKm, maxResults);
 
+    if (indexSearcher == null) {
+      return Collections.emptyList();
+    }
+
+    try {
+      return searchNearestCities(shape, radiusInKm, maxResults, indexSearcher);
+    } catch (IOException e) {
+      throw new GeoEntryQueryException("Error reading the index", e);
+    }
+  }
+
+  private void validateNearestCities(
+      final Shape shape, final int radiusInKm, final int maxResults) {
     notNull(
-        shape, "GeoNamesQueryLuceneIndex.doGetNearestCities(): argument 'shape' may not be null.");
+        shape,
+        "GeoNamesQueryLuceneIndex.doSearchNearestCities(): argument 'shape' may not be null.");
 
     if (radiusInKm <= 0) {
       throw new IllegalArgumentException(
-          "GeoNamesQueryLuceneIndex.doGetNearestCities(): radiusInKm must be positive.");
+          "GeoNamesQueryLuceneIndex.doSearchNearestCities(): radiusInKm must be positive.");
     }
 
     if (maxResults <= 0) {
       throw new IllegalArgumentException(
-          "GeoNamesQueryLuceneIndex.doGetNearestCities(): maxResults must be positive.");
-    }
-
-    if (directory == null) {
-      return Collections.emptyList();
+          "GeoNamesQueryLuceneIndex.doSearchNearestCities(): maxResults must be positive.");
     }
+  }
 
-    try (final IndexReader indexReader = createIndexReader(directory)) {
-      final IndexSearcher indexSearcher = createIndexSearcher(indexReader);
+  private List<NearbyLocation> searchNearestCities(
+      final Shape shape,
+      final int radiusInKm,
+      final int maxResults,
+      final IndexSearcher indexSearcher)
+      throws IOException {
+    final List<NearbyLocation> closestCities = new ArrayList<>();
 
-      final List<NearbyLocation> closestCities = new ArrayList<>();
+    final Point center = shape.getCenter();
 
-      final Point center = shape.getCenter();
+    final Query filter = createSpatialQuery(center, radiusInKm);
 
-      final Query filter = createSpatialQuery(center, radiusInKm);
+    // Query for all the documents in the index that are cities, then filter those
+    // results for the ones that are in the search area.
+    final BooleanQuery booleanQuery =
+        new BooleanQuery.Builder()
+            .add(PPL_QUERY, BooleanClause.Occur.MUST)
+            .add(filter, BooleanClause.Occur.FILTER)
+            .build();
 
-      // Query for all the documents in the index that are cities, then filter those
-      // results for the ones that are in the search area.
-      final BooleanQuery booleanQuery =
-          new BooleanQuery.Builder()
-              .add(PPL_QUERY, BooleanClause.Occur.MUST)
-              .add(filter, BooleanClause.Occur.FILTER)
-              .build();
+    final TopDocs topDocs = indexSearcher.search(booleanQuery, maxResults, SORT);
 
-      final TopDocs topDocs = indexSearcher.search(booleanQuery, maxResults, SORT);
+    if (topDocs.totalHits > 0) {
+      for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+        final Document document = indexSearcher.doc(scoreDoc.doc);
 
-      if (topDocs.totalHits > 0) {
-        for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
-          final double lat =
-              Double.parseDouble(
-                  indexSearcher.doc(scoreDoc.doc).get(GeoNamesLuceneConstants.LATITUDE_FIELD));
-          final double lon =
-              Double.parseDouble(
-                  indexSearcher.doc(scoreDoc.doc).get(GeoNamesLuceneConstants.LONGITUDE_FIELD));
+        final double lat = Double.parseDouble(document.get(GeoNamesLuceneConstants.LATITUDE_FIELD));
+        final double lon =
+            Double.parseDouble(document.get(GeoNamesLuceneConstants.LONGITUDE_FIELD));
 
-          final String name =
-              indexSearcher.doc(scoreDoc.doc).get(GeoNamesLuceneConstants.NAME_FIELD);
+        final String name = document.get(GeoNamesLuceneConstants.NAME_FIELD);
 
-          final NearbyLocation city =
-              new NearbyLocationImpl(center, new PointImpl(lon, lat, SPATIAL_CONTEXT), name);
+        final NearbyLocation city =
+            new NearbyLocationImpl(center, new PointImpl(lon, lat, SPATIAL_CONTEXT), name);
 
-          closestCities.add(city);
-        }
+        closestCities.add(city);
       }
+    }
+
+    return closestCities;
+  }
+
+  protected String doSearchCountryCode(Shape shape, int radiusInKm, IndexSearcher indexSearcher)
+      throws GeoEntryQueryException {
+    validateCountryCode(shape, radiusInKm);
+
+    if (indexSearcher == null) {
+      return null;
+    }
 
-      return closestCities;
+    try {
+      return searchCountryCode(shape, radiusInKm, indexSearcher);
     } catch (IOException e) {
       throw new GeoEntryQueryException("Error reading the index", e);
     }
   }
 
-  protected String doGetCountryCode(Shape shape, int radiusInKm, Directory directory)
-      throws GeoEntryQueryException {
-    notNull(
-        shape, "GeoNamesQueryLuceneIndex.doGetCountryCode(): argument 'shape' may not be null.");
-
+  private void validateCountryCode(Shape shape, int radiusInKm) {
     notNull(
-        directory,
-        "GeoNamesQueryLuceneIndex.doGetCountryCode(): argument 'directory' may not be null.");
+        shape, "GeoNamesQueryLuceneIndex.doSearchCountryCode(): argument 'shape' may not be null.");
 
     if (radiusInKm <= 0) {
       throw new IllegalArgumentException(
-          "GeoNamesQueryLuceneIndex.doGetCountryCode(): radiusInKm must be positive.");
+          "GeoNamesQueryLuceneIndex.doSearchCountryCode(): radiusInKm must be positive.");
     }
+  }
 
-    try (final IndexReader indexReader = createIndexReader(directory)) {
-
-      final IndexSearcher indexSearcher = createIndexSearcher(indexReader);
-
-      final Point center = shape.getCenter();
-
-      final Query filter = createSpatialQuery(center, radiusInKm);
-
-      final BooleanQuery booleanQuery =
-          new BooleanQuery.Builder().add(filter, BooleanClause.Occur.FILTER).build();
+  private String searchCountryCode(Shape shape, int radiusInKm, IndexSearcher indexSearcher)
+      throws IOException {
+    final Point center = shape.getCenter();
 
-      final TopDocs topDocs = indexSearcher.search(booleanQuery, 1, SORT);
+    final Query filter = createSpatialQuery(center, radiusInKm);
 
-      String countryCode = null;
+    final BooleanQuery booleanQuery =
+        new BooleanQuery.Builder().add(filter, BooleanClause.Occur.FILTER).build();
 
-      if (topDocs.totalHits > 0) {
-        countryCode =
-            indexSearcher
-                .doc(topDocs.scoreDocs[0].doc)
-                .get(GeoNamesLuceneConstants.COUNTRY_CODE_FIELD);
-      }
+    final TopDocs topDocs = indexSearcher.search(booleanQuery, 1, SORT);
 
-      return countryCode;
+    String countryCode = null;
 
-    } catch (IOException e) {
-      throw new GeoEntryQueryException("Error reading the index", e);
+    if (topDocs.totalHits > 0) {
+      countryCode =
+          indexSearcher
+              .doc(topDocs.scoreDocs[0].doc)
+              .get(GeoNamesLuceneConstants.COUNTRY_CODE_FIELD);
     }
+
+    return countryCode;
   }
 
   private Query createSpatialQuery(Point shapeCenter, int radiusInKm) {
@@ -0,0 +1,121 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.query;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+class GeoNamesQueryMetrics implements GeoNamesQueryMetricsMBean {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(GeoNamesQueryMetrics.class);
+
+  private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final LongAdder cacheHits = new LongAdder();
+
+  private final LongAdder cacheMisses = new LongAdder();
+
+  private final LongAdder searchNanos = new LongAdder();
+
+  private final LongAccumulator maxSearchNanos = new LongAccumulator(Math::max, 0);
+
+  private final LongAdder refreshCount = new LongAdder();
+
+  private ObjectName objectName;
+
+  void cacheHit() {
+    cacheHits.increment();
+  }
+
+  void searched(long nanos) {
+    cacheMisses.increment();
+    searchNanos.add(nanos);
+    maxSearchNanos.accumulate(nanos);
+  }
+
+  void refreshed() {
+    refreshCount.increment();
+  }
+
+  @Override
+  public long getCacheHits() {
+    return cacheHits.sum();
+  }
+
+  @Override
+  public long getCacheMisses() {
+    return cacheMisses.sum();
+  }
+
+  @Override
+  public double getCacheHitRate() {
+    long hits = cacheHits.sum();
+    long total = hits + cacheMisses.sum();
+    return total == 0 ? 0 : (double) hits / total;
+  }
+
+  @Override
+  public double getAverageSearchLatencyMillis() {
+    long misses = cacheMisses.sum();
+    return misses == 0 ? 0 : searchNanos.sum() / NANOS_PER_MILLI / misses;
+  }
+
+  @Override
+  public double getMaxSearchLatencyMillis() {
+    return maxSearchNanos.get() / NANOS_PER_MILLI;
+  }
+
+  @Override
+  public long getRefreshCount() {
+    return refreshCount.sum();
+  }
+
+  void registerMbean() {
+    MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    try {
+      objectName = new ObjectName(GeoNamesQueryMetrics.class.getName() + ":service=gazetteer");
+      try {
+        mBeanServer.registerMBean(this, objectName);
+      } catch (InstanceAlreadyExistsException e) {
+        mBeanServer.unregisterMBean(objectName);
+        mBeanServer.registerMBean(this, objectName);
+      }
+      LOGGER.debug("Registered gazetteer metrics MBean under object name: {}", objectName);
+    } catch (MalformedObjectNameException e) {
+      LOGGER.info("Unable to create the gazetteer metrics MBean.", e);
+    } catch (Exception e) {
+      LOGGER.info("Could not register the gazetteer metrics MBean [{}].", objectName, e);
+    }
+  }
+
+  void unregisterMbean() {
+    if (objectName == null) {
+      return;
+    }
+
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    } catch (Exception e) {
+      LOGGER.debug("Could not unregister the gazetteer metrics MBean [{}].", objectName, e);
+    }
+  }
+}
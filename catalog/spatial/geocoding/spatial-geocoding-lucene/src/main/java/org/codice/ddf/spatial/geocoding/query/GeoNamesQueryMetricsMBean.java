@@ -0,0 +1,36 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.query;
+
+/** Exposes the cache and latency statistics of the offline gazetteer through JMX. */
+public interface GeoNamesQueryMetricsMBean {
+
+  /** @return number of lookups answered from the result cache */
+  long getCacheHits();
+
+  /** @return number of lookups that had to search the index */
+  long getCacheMisses();
+
+  /** @return ratio of lookups answered from the result cache, between 0 and 1 */
+  double getCacheHitRate();
+
+  /** @return average time spent searching the index on a cache miss, in milliseconds */
+  double getAverageSearchLatencyMillis();
+
+  /** @return longest time spent searching the index on a cache miss, in milliseconds */
+  double getMaxSearchLatencyMillis();
+
+  /** @return number of times the index searcher has been reopened after an index update */
+  long getRefreshCount();
+}
@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.geocoding.query;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+public class GeoNamesQueryCacheTest {
+
+  @Test
+  public void testLeastRecentlyUsedEntryIsEvicted() {
+    final GeoNamesQueryCache cache = new GeoNamesQueryCache(2);
+    final long generation = cache.getGeneration();
+
+    cache.put("a", "A", generation);
+    cache.put("b", "B", generation);
+    cache.get("a");
+    cache.put("c", "C", generation);
+
+    assertThat(cache.size(), is(2));
+    assertThat(cache.get("a"), is("A"));
+    assertThat(cache.get("b"), nullValue());
+    assertThat(cache.get("c"), is("C"));
+  }
+
+  @Test
+  public void testLookupStartedBeforeClearIsNotCached() {
+    final GeoNamesQueryCache cache = new GeoNamesQueryCache(2);
+    final long generation = cache.getGeneration();
+
+    cache.clear();
+    cache.put("a", "A", generation);
+
+    assertThat(cache.get("a"), nullValue());
+  }
+
+  @Test
+  public void testZeroSizeCachesNothing() {
+    final GeoNamesQueryCache cache = new GeoNamesQueryCache(0);
+
+    cache.put("a", "A", cache.getGeneration());
+
+    assertThat(cache.size(), is(0));
+  }
+}
@@ -17,14 +17,19 @@
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.core.Is.is;
 import static org.hamcrest.core.IsInstanceOf.instanceOf;
+import static org.hamcrest.core.IsNull.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.text.NumberFormat;
@@ -44,6 +49,9 @@
 import org.apache.lucene.index.IndexWriterConfig;
 import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.queryparser.classic.ParseException;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
 import org.apache.lucene.spatial.SpatialStrategy;
 import org.apache.lucene.spatial.prefix.RecursivePrefixTreeStrategy;
 import org.apache.lucene.spatial.prefix.tree.GeohashPrefixTree;
@@ -449,36 +457,38 @@ public void testNearestCitiesWithBlankWKT()
   }
 
   @Test(expected = IllegalArgumentException.class)
-  public void testDoGetNearestCitiesNullShape() throws GeoEntryQueryException {
-    directoryIndex.doGetNearestCities(null, 10, 10, directory);
+  public void testDoSearchNearestCitiesNullShape() throws GeoEntryQueryException {
+    directoryIndex.doSearchNearestCities(null, 10, 10, mock(IndexSearcher.class));
   }
 
   @Test(expected = GeoEntryQueryException.class)
-  public void testDoGetNearestCitiesIOExceptionBranch() throws IOException, GeoEntryQueryException {
-    doThrow(IOException.class).when(directoryIndex).createIndexReader(directory);
-    Shape shape = mock(Shape.class);
-    directoryIndex.doGetNearestCities(shape, 10, 10, directory);
+  public void testDoSearchNearestCitiesIOExceptionBranch()
+      throws IOException, GeoEntryQueryException {
+    final IndexSearcher indexSearcher = mock(IndexSearcher.class);
+    when(indexSearcher.search(any(Query.class), anyInt(), any(Sort.class)))
+        .thenThrow(IOException.class);
+    Shape shape = SPATIAL_CONTEXT.getShapeFactory().pointXY(LON_1, LAT_1);
+    directoryIndex.doSearchNearestCities(shape, 10, 10, indexSearcher);
   }
 
   @Test
-  public void testDoGetNearestCitiesNullDirectory() throws IOException, GeoEntryQueryException {
+  public void testDoSearchNearestCitiesNullSearcher() throws GeoEntryQueryException {
     Shape shape = mock(Shape.class);
-    List<NearbyLocation> nearestCities = directoryIndex.doGetNearestCities(shape, 10, 10, null);
+    List<NearbyLocation> nearestCities = directoryIndex.doSearchNearestCities(shape, 10, 10, null);
 
     assertThat(nearestCities, is(Collections.emptyList()));
   }
 
   @Test(expected = IllegalArgumentException.class)
-  public void testDoGetCountryCodeNullShape() throws GeoEntryQueryException {
+  public void testDoSearchCountryCodeNullShape() throws GeoEntryQueryException {
     Shape shape = null;
-    directoryIndex.doGetCountryCode(shape, 10, null);
+    directoryIndex.doSearchCountryCode(shape, 10, null);
   }
 
-  @Test(expected = IllegalArgumentException.class)
-  public void testDoGetCountryCodeNullLuceneDirectory() throws GeoEntryQueryException {
+  @Test
+  public void testDoSearchCountryCodeNullSearcher() throws GeoEntryQueryException {
     Shape shape = mock(Shape.class);
-    Directory directory = null;
-    directoryIndex.doGetCountryCode(shape, 10, directory);
+    assertThat(directoryIndex.doSearchCountryCode(shape, 10, null), is(nullValue()));
   }
 
   @Test
@@ -520,8 +530,59 @@ public void testDoGetCountryCodeIOExceptionBranch()
   }
 
   @Test
-  public void testDoQueryNullDirectory() throws GeoEntryQueryException {
-    List<GeoEntry> result = directoryIndex.doQuery("test", 1, null);
+  public void testDoSearchNullSearcher() throws GeoEntryQueryException {
+    List<GeoEntry> result = directoryIndex.doSearch("test", 1, null);
     assertThat(result, empty());
   }
+
+  @Test
+  public void testRepeatedLookupsAreCached()
+      throws IOException, ParseException, GeoEntryQueryException, java.text.ParseException {
+    final List<GeoEntry> first = directoryIndex.query("phoenix", 2);
+    final List<GeoEntry> second = directoryIndex.query("phoenix", 2);
+    directoryIndex.getCountryCode(TEST_POINT, 50);
+    directoryIndex.getCountryCode(TEST_POINT, 50);
+
+    assertThat(second.size(), is(first.size()));
+    verify(directoryIndex, times(1)).openDirectory();
+    verify(directoryIndex, times(1)).createQuery("phoenix");
+  }
+
+  @Test
+  public void testIndexUpdatedReopensSearcher() throws IOException, GeoEntryQueryException {
+    assertThat(directoryIndex.query("glendale", 2).size(), is(1));
+
+    final IndexWriterConfig indexWriterConfig = new IndexWriterConfig(new StandardAnalyzer());
+    indexWriterConfig.setOpenMode(OpenMode.APPEND);
+    try (IndexWriter indexWriter = new IndexWriter(directory, indexWriterConfig)) {
+      indexWriter.addDocument(
+          createDocumentFromGeoEntry(
+              new GeoEntry.Builder()
+                  .name("Glendale Heights")
+                  .latitude(LAT_3)
+                  .longitude(LON_3)
+                  .featureCode(FEATURE_CODE_3)
+                  .population(POP_3)
+                  .alternateNames(ALT_NAMES_3)
+                  .countryCode(COUNTRY_CODE3)
+                  .build()));
+    }
+
+    assertThat(directoryIndex.query("glendale", 2).size(), is(1));
+
+    directoryIndex.indexUpdated();
+
+    assertThat(directoryIndex.query("glendale", 2).size(), is(2));
+    verify(directoryIndex, times(1)).openDirectory();
+  }
+
+  @Test
+  public void testCacheDisabled() throws ParseException, GeoEntryQueryException {
+    directoryIndex.setCacheSize(0);
+
+    directoryIndex.query("phoenix", 2);
+    directoryIndex.query("phoenix", 2);
+
+    verify(directoryIndex, times(2)).createQuery("phoenix");
+  }
 }
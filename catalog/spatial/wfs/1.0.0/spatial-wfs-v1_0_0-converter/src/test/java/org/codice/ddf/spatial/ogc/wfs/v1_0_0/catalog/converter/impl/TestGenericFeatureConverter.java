@@ -30,10 +30,12 @@
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.xml.bind.DatatypeConverter;
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamReader;
 import org.apache.ws.commons.schema.XmlSchema;
 import org.apache.ws.commons.schema.XmlSchemaComplexType;
 import org.apache.ws.commons.schema.XmlSchemaElement;
@@ -46,6 +48,7 @@
 import org.codice.ddf.spatial.ogc.wfs.catalog.converter.impl.EnhancedStaxDriver;
 import org.codice.ddf.spatial.ogc.wfs.catalog.converter.impl.GenericFeatureConverter;
 import org.codice.ddf.spatial.ogc.wfs.catalog.converter.impl.GmlGeometryConverter;
+import org.codice.ddf.spatial.ogc.wfs.catalog.converter.impl.StaxFeatureCollectionReader;
 import org.codice.ddf.spatial.ogc.wfs.v1_0_0.catalog.common.Wfs10Constants;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -222,6 +225,59 @@ public void testUnmarshalFeatureCollectionXmlToObject() {
     assertThat(mc.getId(), is("video_data_set.1"));
   }
 
+  @Test
+  public void testReadFeatureCollectionWithStax() throws Exception {
+    GenericFeatureConverter converter = new GenericFeatureConverter();
+    converter.setMetacardType(buildMetacardType());
+    converter.setSourceId(SOURCE_ID);
+
+    Map<String, FeatureConverter> fcMap = new HashMap<>();
+    fcMap.put(FEATURE_TYPE, converter);
+    StaxFeatureCollectionReader collectionReader =
+        new StaxFeatureCollectionReader("featureMember", fcMap);
+
+    List<Metacard> metacards = new ArrayList<>();
+    XMLStreamReader reader =
+        StaxFeatureCollectionReader.createReader(
+            TestGenericFeatureConverter.class.getResourceAsStream(
+                "/video_data_set_collection.xml"));
+    try {
+      collectionReader.readFeatures(reader, metacards::add);
+    } finally {
+      StaxFeatureCollectionReader.close(reader);
+    }
+
+    XStream xstream = new XStream(new WstxDriver());
+    FeatureCollectionConverterWfs10 fcConverter = new FeatureCollectionConverterWfs10();
+    fcConverter.setFeatureConverterMap(fcMap);
+    xstream.registerConverter(fcConverter);
+    xstream.registerConverter(converter);
+    xstream.registerConverter(new GmlGeometryConverter());
+    xstream.alias("FeatureCollection", WfsFeatureCollection.class);
+    WfsFeatureCollection wfc =
+        (WfsFeatureCollection)
+            xstream.fromXML(
+                TestGenericFeatureConverter.class.getResourceAsStream(
+                    "/video_data_set_collection.xml"));
+
+    assertThat(metacards, hasSize(4));
+    assertThat(metacards.get(0).getId(), is("video_data_set.1"));
+    for (int i = 0; i < metacards.size(); i++) {
+      Metacard expected = wfc.getFeatureMembers().get(i);
+      Metacard actual = metacards.get(i);
+      assertThat(actual.getId(), is(expected.getId()));
+      assertThat(actual.getSourceId(), is(SOURCE_ID));
+      assertThat(actual.getLocation(), is(expected.getLocation()));
+      for (AttributeDescriptor descriptor : buildMetacardType().getAttributeDescriptors()) {
+        if (descriptor.getName().startsWith(PROPERTY_PREFIX)) {
+          assertThat(
+              actual.getAttribute(descriptor.getName()),
+              is(expected.getAttribute(descriptor.getName())));
+        }
+      }
+    }
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testUnmarshalNoMetacardTypeRegisteredInConverter() throws Throwable {
     XStream xstream = new XStream(new WstxDriver());
@@ -59,7 +59,10 @@
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -153,6 +156,10 @@ public class WfsSource extends MaskableImpl
 
   private static final String POLL_INTERVAL_PROPERTY = "pollInterval";
 
+  private static final String PARALLEL_FEATURE_TYPE_QUERIES = "parallelFeatureTypeQueries";
+
+  private static final int FEATURE_TYPE_QUERY_THREADS = 8;
+
   public static final String DISABLE_CN_CHECK_PROPERTY = "disableCnCheck";
 
   private static Properties describableProperties = new Properties();
@@ -218,6 +225,10 @@ public class WfsSource extends MaskableImpl
 
   private FeatureCollectionMessageBodyReaderWfs10 featureCollectionReader;
 
+  private boolean parallelFeatureTypeQueries;
+
+  private ExecutorService featureTypeQueryExecutor = createFeatureTypeQueryExecutor();
+
   public WfsSource(
       FilterAdapter filterAdapter,
       BundleContext context,
@@ -261,6 +272,7 @@ public void destroy(int code) {
     unregisterAllMetacardTypes();
     availabilityPollFuture.cancel(true);
     scheduler.shutdownNow();
+    featureTypeQueryExecutor.shutdownNow();
   }
 
   /**
@@ -285,6 +297,8 @@ public void refresh(Map<String, Object> configuration) throws SecurityServiceExc
 
     setConnectionTimeout((Integer) configuration.get(CONNECTION_TIMEOUT_PROPERTY));
     setReceiveTimeout((Integer) configuration.get(RECEIVE_TIMEOUT_PROPERTY));
+    setParallelFeatureTypeQueries(
+        Boolean.TRUE.equals(configuration.get(PARALLEL_FEATURE_TYPE_QUERIES)));
 
     String[] nonQueryableProperties = (String[]) configuration.get(NON_QUERYABLE_PROPS_PROPERTY);
 
@@ -686,7 +700,7 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
 
     try {
       LOGGER.debug("WFS Source {}: Sending query ...", getId());
-      WfsFeatureCollection featureCollection = wfs.getFeature(getFeature);
+      WfsFeatureCollection featureCollection = getFeatures(wfs, getFeature);
 
       if (featureCollection == null) {
         throw new UnsupportedQueryException("Invalid results returned from server");
@@ -737,6 +751,75 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
     return simpleResponse;
   }
 
+  /**
+   * Sends the GetFeature request. If parallel feature type queries are enabled, each feature type
+   * query is sent in its own GetFeature request and the responses are merged in the order of the
+   * queries, the same way the server combines the queries of a single request.
+   */
+  private WfsFeatureCollection getFeatures(Wfs wfs, GetFeatureType getFeature) throws WfsException {
+    List<QueryType> queries = getFeature.getQuery();
+    if (!parallelFeatureTypeQueries || queries.size() < 2) {
+      return wfs.getFeature(getFeature);
+    }
+
+    LOGGER.debug("WFS Source {}: Sending {} feature type queries ...", getId(), queries.size());
+
+    List<Future<WfsFeatureCollection>> futures = new ArrayList<>(queries.size());
+    try {
+      for (QueryType query : queries) {
+        GetFeatureType featureTypeRequest = new GetFeatureType();
+        featureTypeRequest.setMaxFeatures(getFeature.getMaxFeatures());
+        featureTypeRequest.getQuery().add(query);
+        featureTypeRequest.setService(getFeature.getService());
+        featureTypeRequest.setVersion(getFeature.getVersion());
+
+        Wfs client = futures.isEmpty() ? wfs : factory.getClient();
+        futures.add(featureTypeQueryExecutor.submit(() -> client.getFeature(featureTypeRequest)));
+      }
+
+      List<Metacard> featureMembers = new ArrayList<>();
+      for (Future<WfsFeatureCollection> future : futures) {
+        WfsFeatureCollection featureTypeCollection = getFeatureCollection(future);
+        if (featureTypeCollection == null) {
+          return null;
+        }
+        featureMembers.addAll(featureTypeCollection.getFeatureMembers());
+      }
+
+      // The maximum number of features applies to the combined response
+      int maxFeatures = getFeature.getMaxFeatures().intValue();
+      WfsFeatureCollection featureCollection = new WfsFeatureCollection();
+      featureCollection.setFeatureMembers(
+          new ArrayList<>(featureMembers.subList(0, Math.min(maxFeatures, featureMembers.size()))));
+      return featureCollection;
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+  }
+
+  private WfsFeatureCollection getFeatureCollection(Future<WfsFeatureCollection> future)
+      throws WfsException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new WfsException("Interrupted while waiting for the GetFeature responses.", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof WfsException) {
+        throw (WfsException) e.getCause();
+      } else if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new WfsException(e.getCause());
+    }
+  }
+
+  private static ExecutorService createFeatureTypeQueryExecutor() {
+    return Executors.newFixedThreadPool(
+        FEATURE_TYPE_QUERY_THREADS,
+        StandardThreadFactoryBuilder.newThreadFactory("wfsFeatureTypeQueryThread"));
+  }
+
   private GetFeatureType buildGetFeatureRequest(Query query) throws UnsupportedQueryException {
     List<ContentType> contentTypes = getContentTypesFromQuery(query);
     List<QueryType> queries = new ArrayList<>();
@@ -971,6 +1054,10 @@ public void setReceiveTimeout(Integer timeout) {
     this.receiveTimeout = timeout;
   }
 
+  public void setParallelFeatureTypeQueries(boolean parallelFeatureTypeQueries) {
+    this.parallelFeatureTypeQueries = parallelFeatureTypeQueries;
+  }
+
   public Integer getReceiveTimeout() {
     return this.receiveTimeout;
   }
@@ -13,17 +13,11 @@
  */
 package org.codice.ddf.spatial.ogc.wfs.v1_0_0.catalog.source.reader;
 
-import com.thoughtworks.xstream.XStream;
-import com.thoughtworks.xstream.XStreamException;
-import com.thoughtworks.xstream.io.xml.WstxDriver;
-import com.thoughtworks.xstream.security.NoTypePermission;
-import ddf.catalog.data.Metacard;
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.PushbackInputStream;
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
-import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 import javax.ws.rs.Consumes;
@@ -34,15 +28,19 @@
 import javax.ws.rs.core.Response.ResponseBuilder;
 import javax.ws.rs.ext.MessageBodyReader;
 import javax.ws.rs.ext.Provider;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.apache.commons.io.IOUtils;
 import org.codice.ddf.spatial.ogc.wfs.catalog.common.WfsFeatureCollection;
 import org.codice.ddf.spatial.ogc.wfs.catalog.converter.FeatureConverter;
-import org.codice.ddf.spatial.ogc.wfs.catalog.converter.impl.GmlEnvelopeConverter;
-import org.codice.ddf.spatial.ogc.wfs.catalog.converter.impl.GmlGeometryConverter;
-import org.codice.ddf.spatial.ogc.wfs.v1_0_0.catalog.converter.impl.FeatureCollectionConverterWfs10;
+import org.codice.ddf.spatial.ogc.wfs.catalog.converter.impl.StaxFeatureCollectionReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Reads a WFS 1.0.0 GetFeature response. The metacards are created while the response is parsed, so
+ * the response is only read once and never buffered as a whole.
+ */
 @Consumes({MediaType.TEXT_XML, MediaType.APPLICATION_XML})
 @Provider
 public class FeatureCollectionMessageBodyReaderWfs10
@@ -51,25 +49,15 @@
   private static final Logger LOGGER =
       LoggerFactory.getLogger(FeatureCollectionMessageBodyReaderWfs10.class);
 
-  protected XStream xstream;
+  private static final String FEATURE_MEMBER = "featureMember";
 
-  protected FeatureCollectionConverterWfs10 featureCollectionConverter;
+  private static final String FEATURE_COLLECTION = "FeatureCollection";
 
   protected Map<String, FeatureConverter> featureConverterMap =
       new HashMap<String, FeatureConverter>();
 
-  public FeatureCollectionMessageBodyReaderWfs10() {
-    xstream = new XStream(new WstxDriver());
-    xstream.addPermission(NoTypePermission.NONE);
-    xstream.setClassLoader(this.getClass().getClassLoader());
-    xstream.registerConverter(new GmlGeometryConverter());
-    xstream.registerConverter(new GmlEnvelopeConverter());
-    xstream.alias("FeatureCollection", WfsFeatureCollection.class);
-
-    featureCollectionConverter = new FeatureCollectionConverterWfs10();
-    featureCollectionConverter.setFeatureConverterMap(featureConverterMap);
-    xstream.registerConverter(featureCollectionConverter);
-  }
+  protected StaxFeatureCollectionReader featureCollectionReader =
+      new StaxFeatureCollectionReader(FEATURE_MEMBER, featureConverterMap);
 
   @Override
   public boolean isReadable(
@@ -90,47 +78,42 @@ public WfsFeatureCollection readFrom(
       InputStream inStream)
       throws IOException, WebApplicationException {
 
-    // Save original input stream for any exception message that might need to be
-    // created
-    String originalInputStream = IOUtils.toString(inStream, StandardCharsets.UTF_8.name());
+    // Peek at the root element for any exception report that might need to be passed on
+    PushbackInputStream pushbackStream =
+        new PushbackInputStream(inStream, StaxFeatureCollectionReader.PEEK_SIZE);
+    String rootElement = StaxFeatureCollectionReader.peekRootElement(pushbackStream);
 
-    // Re-create the input stream (since it has already been read for potential
-    // exception message creation)
-    inStream =
-        new ByteArrayInputStream(originalInputStream.getBytes(StandardCharsets.UTF_8.name()));
-
-    WfsFeatureCollection featureCollection = null;
-
-    try {
-      xstream.allowTypeHierarchy(WfsFeatureCollection.class);
-      featureCollection = (WfsFeatureCollection) xstream.fromXML(inStream);
-    } catch (XStreamException e) {
+    if (rootElement != null && !FEATURE_COLLECTION.equals(rootElement)) {
       // If a ServiceExceptionReport is sent from the remote WFS site it will be sent with an
       // JAX-RS "OK" status, hence the ErrorResponse exception mapper will not fire.
       // Instead the ServiceExceptionReport will come here and be treated like a GetFeature
-      // response, resulting in an XStreamException since ExceptionReport cannot be
-      // unmarshalled. So this catch clause is responsible for catching that XStream
-      // exception and creating a JAX-RS response containing the original stream
-      // (with the ExceptionReport) and rethrowing it as a WebApplicationException,
-      // which CXF will wrap as a ClientException that the WfsSource catches, converts
-      // to a WfsException, and logs.
-      LOGGER.debug("Exception unmarshalling", e);
-      ByteArrayInputStream bis =
-          new ByteArrayInputStream(originalInputStream.getBytes(StandardCharsets.UTF_8));
-      ResponseBuilder responseBuilder = Response.ok(bis);
+      // response. So this clause is responsible for creating a JAX-RS response containing
+      // the original stream (with the ExceptionReport) and throwing it as a
+      // WebApplicationException, which CXF will wrap as a ClientException that the WfsSource
+      // catches, converts to a WfsException, and logs.
+      LOGGER.debug("Unexpected root element {} in feature collection.", rootElement);
+      ResponseBuilder responseBuilder = Response.ok(pushbackStream);
       responseBuilder.type("text/xml");
       Response response = responseBuilder.build();
-      throw new WebApplicationException(e, response);
-    } finally {
-      IOUtils.closeQuietly(inStream);
+      throw new WebApplicationException(response);
     }
 
-    return featureCollection;
+    XMLStreamReader reader = null;
+    try {
+      reader = StaxFeatureCollectionReader.createReader(pushbackStream);
+      WfsFeatureCollection featureCollection = new WfsFeatureCollection();
+      featureCollectionReader.readFeatures(reader, featureCollection.getFeatureMembers()::add);
+      return featureCollection;
+    } catch (XMLStreamException e) {
+      LOGGER.debug("Exception unmarshalling", e);
+      throw new WebApplicationException(e);
+    } finally {
+      StaxFeatureCollectionReader.close(reader);
+      IOUtils.closeQuietly(pushbackStream);
+    }
   }
 
   public void registerConverter(FeatureConverter converter) {
     featureConverterMap.put(converter.getMetacardType().getName(), converter);
-    xstream.registerConverter(converter);
-    xstream.alias(converter.getMetacardType().getName(), Metacard.class);
   }
 }
@@ -13,19 +13,15 @@
  */
 package org.codice.ddf.spatial.ogc.wfs.v2_0_0.catalog.converter.impl;
 
-import com.thoughtworks.xstream.io.HierarchicalStreamReader;
 import com.vividsolutions.jts.geom.Coordinate;
 import com.vividsolutions.jts.geom.CoordinateFilter;
 import com.vividsolutions.jts.geom.Geometry;
 import com.vividsolutions.jts.io.WKTWriter;
-import ddf.catalog.data.AttributeType.AttributeFormat;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.Serializable;
 import java.io.StringReader;
-import java.io.UnsupportedEncodingException;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.Result;
@@ -36,7 +32,6 @@
 import javax.xml.transform.stream.StreamResult;
 import org.codice.ddf.libs.geo.util.GeospatialUtil;
 import org.codice.ddf.platform.util.XMLUtils;
-import org.codice.ddf.spatial.ogc.catalog.common.converter.XmlNode;
 import org.codice.ddf.spatial.ogc.wfs.catalog.converter.FeatureConverter;
 import org.codice.ddf.spatial.ogc.wfs.catalog.converter.impl.AbstractFeatureConverter;
 import org.codice.ddf.spatial.ogc.wfs.catalog.mapper.MetacardMapper;
@@ -68,64 +63,22 @@ public AbstractFeatureConverterWfs20(MetacardMapper metacardMapper) {
     super(metacardMapper);
   }
 
-  protected Serializable getValueForMetacardAttribute(
-      AttributeFormat attributeFormat, HierarchicalStreamReader reader) {
-
-    Serializable ser = null;
-    switch (attributeFormat) {
-      case BOOLEAN:
-        ser = Boolean.valueOf(reader.getValue());
-        break;
-      case DOUBLE:
-        ser = Double.valueOf(reader.getValue());
-        break;
-      case FLOAT:
-        ser = Float.valueOf(reader.getValue());
-        break;
-      case INTEGER:
-        ser = Integer.valueOf(reader.getValue());
-        break;
-      case LONG:
-        ser = Long.valueOf(reader.getValue());
-        break;
-      case SHORT:
-        ser = Short.valueOf(reader.getValue());
-        break;
-      case XML:
-      case STRING:
-        ser = reader.getValue();
-        break;
-      case GEOMETRY:
-        XmlNode node = new XmlNode(reader);
-        String geometryXml = node.toString();
-        Geometry geo = null;
-        geo = (Geometry) readGml(geometryXml);
-
-        LOGGER.debug("coordinateOrder = {}", coordinateOrder);
-        if (GeospatialUtil.LAT_LON_ORDER.equals(coordinateOrder)) {
-          swapCoordinates(geo);
-        }
-
-        if (geo != null) {
-          WKTWriter wktWriter = new WKTWriter();
-          ser = wktWriter.write(geo);
-          LOGGER.debug("wkt = {}", ser);
-        }
-        break;
-      case BINARY:
-        try {
-          ser = reader.getValue().getBytes(UTF8_ENCODING);
-        } catch (UnsupportedEncodingException e) {
-          LOGGER.debug("Error encoding the binary value into the metacard.", e);
-        }
-        break;
-      case DATE:
-        ser = parseDateFromXml(reader);
-        break;
-      default:
-        break;
+  @Override
+  protected String readGeometry(String xml) {
+    Geometry geo = (Geometry) readGml(xml);
+    if (geo == null) {
+      return null;
     }
-    return ser;
+
+    LOGGER.debug("coordinateOrder = {}", coordinateOrder);
+    if (GeospatialUtil.LAT_LON_ORDER.equals(coordinateOrder)) {
+      swapCoordinates(geo);
+    }
+
+    WKTWriter wktWriter = new WKTWriter();
+    String wkt = wktWriter.write(geo);
+    LOGGER.debug("wkt = {}", wkt);
+    return wkt;
   }
 
   protected Object readGml(String xml) {
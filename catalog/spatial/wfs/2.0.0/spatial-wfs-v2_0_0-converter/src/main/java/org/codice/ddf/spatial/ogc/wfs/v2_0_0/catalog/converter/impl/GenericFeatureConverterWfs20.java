@@ -31,6 +31,7 @@
 import java.util.Set;
 import java.util.TreeSet;
 import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamReader;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.lang.time.DateFormatUtils;
 import org.codice.ddf.spatial.ogc.catalog.common.converter.XmlNode;
@@ -201,6 +202,22 @@ public Object unmarshal(HierarchicalStreamReader hreader, UnmarshallingContext c
       throw new IllegalArgumentException(
           "No MetacardType registered on the FeatureConverter.  Unable to to convert features to metacards.");
     }
+
+    return finishMetacard(mc, id);
+  }
+
+  @Override
+  protected String getFeatureId(XMLStreamReader reader) {
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      if (ID.equals(reader.getAttributeLocalName(i))) {
+        return reader.getAttributeValue(i);
+      }
+    }
+    return null;
+  }
+
+  @Override
+  protected Metacard finishMetacard(MetacardImpl mc, String id) {
     if (StringUtils.isNotBlank(id)) {
       mc.setId(id);
     } else {
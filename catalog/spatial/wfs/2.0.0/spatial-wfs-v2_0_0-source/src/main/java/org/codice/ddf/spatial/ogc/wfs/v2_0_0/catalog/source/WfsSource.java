@@ -59,7 +59,10 @@
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -155,6 +158,10 @@ public class WfsSource extends MaskableImpl
 
   private static final String DISABLE_SORTING = "disableSorting";
 
+  private static final String PARALLEL_FEATURE_TYPE_QUERIES = "parallelFeatureTypeQueries";
+
+  private static final int FEATURE_TYPE_QUERY_THREADS = 8;
+
   private static final String NO_FORCED_SPATIAL_FILTER = "NO_FILTER";
 
   private static final String CONNECTION_TIMEOUT_PROPERTY = "connectionTimeout";
@@ -232,6 +239,10 @@ public class WfsSource extends MaskableImpl
 
   private boolean disableSorting;
 
+  private boolean parallelFeatureTypeQueries;
+
+  private ExecutorService featureTypeQueryExecutor = createFeatureTypeQueryExecutor();
+
   private SecureCxfClientFactory<Wfs> factory;
 
   protected String configurationPid;
@@ -286,6 +297,7 @@ public void destroy(int code) {
     unregisterAllMetacardTypes();
     availabilityPollFuture.cancel(true);
     scheduler.shutdownNow();
+    featureTypeQueryExecutor.shutdownNow();
   }
 
   /**
@@ -305,6 +317,8 @@ public void refresh(Map<String, Object> configuration) throws SecurityServiceExc
     Boolean disableCnCheckProp = (Boolean) configuration.get(DISABLE_CN_CHECK_PROPERTY);
     String coordinateOrder = (String) configuration.get(COORDINATE_ORDER);
     boolean disableSorting = (Boolean) configuration.get(DISABLE_SORTING);
+    boolean parallelFeatureTypeQueries =
+        Boolean.TRUE.equals(configuration.get(PARALLEL_FEATURE_TYPE_QUERIES));
     String id = (String) configuration.get(ID_PROPERTY);
 
     setConnectionTimeout((Integer) configuration.get(CONNECTION_TIMEOUT_PROPERTY));
@@ -324,6 +338,7 @@ public void refresh(Map<String, Object> configuration) throws SecurityServiceExc
     this.disableCnCheck = disableCnCheckProp;
     this.coordinateOrder = coordinateOrder;
     this.disableSorting = disableSorting;
+    this.parallelFeatureTypeQueries = parallelFeatureTypeQueries;
     this.forceSpatialFilter = (String) configuration.get(SPATIAL_FILTER_PROPERTY);
     createClientFactory();
     configureWfsFeatures();
@@ -732,7 +747,7 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
 
     try {
       LOGGER.debug("WFS Source {}: Sending query ...", getId());
-      Wfs20FeatureCollection featureCollection = wfs.getFeature(getFeature);
+      Wfs20FeatureCollection featureCollection = getFeatures(wfs, getFeature);
       int numResults = -1;
 
       if (featureCollection == null) {
@@ -787,6 +802,89 @@ public SourceResponse query(QueryRequest request) throws UnsupportedQueryExcepti
     return simpleResponse;
   }
 
+  /**
+   * Sends the GetFeature request. If parallel feature type queries are enabled, each feature type
+   * query is sent in its own GetFeature request and the responses are merged in the order of the
+   * queries, the same way the server combines the queries of a single request.
+   */
+  private Wfs20FeatureCollection getFeatures(Wfs wfs, GetFeatureType getFeature)
+      throws WfsException {
+    List<JAXBElement<?>> queries = getFeature.getAbstractQueryExpression();
+    if (!parallelFeatureTypeQueries || queries.size() < 2) {
+      return wfs.getFeature(getFeature);
+    }
+
+    int startIndex = getFeature.getStartIndex().intValue();
+    int count = getFeature.getCount().intValue();
+    LOGGER.debug("WFS Source {}: Sending {} feature type queries ...", getId(), queries.size());
+
+    List<Future<Wfs20FeatureCollection>> futures = new ArrayList<>(queries.size());
+    try {
+      for (JAXBElement<?> query : queries) {
+        // Any feature type may contribute to the requested page, so every request has to
+        // return the features up to the end of the page
+        GetFeatureType featureTypeRequest = new GetFeatureType();
+        featureTypeRequest.setCount(BigInteger.valueOf((long) startIndex + count));
+        featureTypeRequest.setStartIndex(BigInteger.ZERO);
+        featureTypeRequest.getAbstractQueryExpression().add(query);
+
+        Wfs client = futures.isEmpty() ? wfs : factory.getClient();
+        futures.add(featureTypeQueryExecutor.submit(() -> client.getFeature(featureTypeRequest)));
+      }
+
+      Wfs20FeatureCollection featureCollection = new Wfs20FeatureCollection();
+      long numberMatched = 0;
+      boolean numberMatchedKnown = true;
+      for (Future<Wfs20FeatureCollection> future : futures) {
+        Wfs20FeatureCollection featureTypeCollection = getFeatureCollection(future);
+        if (featureTypeCollection == null) {
+          return null;
+        }
+
+        featureCollection.getMembers().addAll(featureTypeCollection.getMembers());
+        if (StringUtils.isNumeric(featureTypeCollection.getNumberMatched())) {
+          numberMatched += Long.parseLong(featureTypeCollection.getNumberMatched());
+        } else {
+          numberMatchedKnown = false;
+        }
+      }
+
+      List<Metacard> members = featureCollection.getMembers();
+      int fromIndex = Math.min(startIndex, members.size());
+      int toIndex = Math.min(startIndex + count, members.size());
+      featureCollection.setMembers(new ArrayList<>(members.subList(fromIndex, toIndex)));
+      featureCollection.setNumberReturned(BigInteger.valueOf(toIndex - fromIndex));
+      featureCollection.setNumberMatched(
+          numberMatchedKnown ? String.valueOf(numberMatched) : UNKNOWN);
+      return featureCollection;
+    } finally {
+      futures.forEach(future -> future.cancel(true));
+    }
+  }
+
+  private Wfs20FeatureCollection getFeatureCollection(Future<Wfs20FeatureCollection> future)
+      throws WfsException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new WfsException("Interrupted while waiting for the GetFeature responses.", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof WfsException) {
+        throw (WfsException) e.getCause();
+      } else if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new WfsException(e.getCause());
+    }
+  }
+
+  private static ExecutorService createFeatureTypeQueryExecutor() {
+    return Executors.newFixedThreadPool(
+        FEATURE_TYPE_QUERY_THREADS,
+        StandardThreadFactoryBuilder.newThreadFactory("wfsFeatureTypeQueryThread"));
+  }
+
   protected GetFeatureType buildGetFeatureRequest(Query query) throws UnsupportedQueryException {
     List<ContentType> contentTypes = getContentTypesFromQuery(query);
 
@@ -1242,6 +1340,10 @@ public void setDisableSorting(boolean disableSorting) {
     this.disableSorting = disableSorting;
   }
 
+  public void setParallelFeatureTypeQueries(boolean parallelFeatureTypeQueries) {
+    this.parallelFeatureTypeQueries = parallelFeatureTypeQueries;
+  }
+
   private String handleWebApplicationException(WebApplicationException wae) {
     Response response = wae.getResponse();
     WfsException wfsException = new WfsResponseExceptionMapper().fromResponse(response);
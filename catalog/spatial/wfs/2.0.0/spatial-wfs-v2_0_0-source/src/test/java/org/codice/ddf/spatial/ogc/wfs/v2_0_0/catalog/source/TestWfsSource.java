@@ -25,6 +25,7 @@
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -1059,6 +1060,38 @@ public void testSearchByMultipleTypes() throws Exception {
     assertEquals(2, numTypes);
   }
 
+  @Test
+  public void testParallelFeatureTypeQueries() throws Exception {
+    // Setup
+    final int pageSize = 5;
+    WfsSource source =
+        getWfsSource(
+            ONE_TEXT_PROPERTY_SCHEMA,
+            MockWfsServer.getFilterCapabilities(),
+            GeospatialUtil.EPSG_4326_URN,
+            3,
+            false,
+            true,
+            3);
+    source.setParallelFeatureTypeQueries(true);
+
+    QueryImpl query = new QueryImpl(builder.attribute(Metacard.ANY_TEXT).is().like().text("*"));
+    query.setPageSize(pageSize);
+    QueryRequestImpl queryReq = new QueryRequestImpl(query);
+
+    // Execute
+    SourceResponse resp = source.query(queryReq);
+
+    // Validate
+    ArgumentCaptor<GetFeatureType> captor = ArgumentCaptor.forClass(GetFeatureType.class);
+    verify(mockWfs, times(3)).getFeature(captor.capture());
+    for (GetFeatureType getFeature : captor.getAllValues()) {
+      assertThat(getFeature.getAbstractQueryExpression().size(), is(1));
+      assertThat(getFeature.getCount().intValue(), is(pageSize));
+    }
+    assertThat(resp.getResults().size(), is(pageSize));
+  }
+
   @Test
   public void testSrsNameProvided() throws Exception {
 
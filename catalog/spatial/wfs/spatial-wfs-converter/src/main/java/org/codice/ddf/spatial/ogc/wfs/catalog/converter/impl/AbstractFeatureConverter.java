@@ -53,8 +53,12 @@
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.function.Function;
 import javax.xml.bind.DatatypeConverter;
 import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.apache.commons.lang.StringUtils;
 import org.codice.ddf.libs.geo.GeoFormatException;
 import org.codice.ddf.libs.geo.util.GeospatialUtil;
@@ -148,93 +152,196 @@ protected Metacard createMetacardFromFeature(
 
     while (reader.hasMoreChildren()) {
       reader.moveDown();
+      setFeatureProperty(
+          mc,
+          reader.getNodeName(),
+          reader.getValue(),
+          format -> getValueForMetacardAttribute(format, reader));
+      reader.moveUp();
+    }
 
-      String featureProperty = prefix + reader.getNodeName();
-      AttributeDescriptor attributeDescriptor =
-          metacardType.getAttributeDescriptor(featureProperty);
+    mc.setMetadata(metadataWriter.toString());
+    setTargetNamespace(mc, metacardType);
 
-      // Check MetacardMapper for mappings of incoming values
-      String mappedMetacardAttribute = null;
-      if (metacardMapper != null) {
-        LOGGER.debug(
-            "Looking up metacard attribute for feature property {} using metacard mapper",
-            featureProperty);
-        mappedMetacardAttribute = metacardMapper.getMetacardAttribute(featureProperty);
-        LOGGER.debug(
-            "Found metacard attribute {} for feature property {}",
-            mappedMetacardAttribute,
-            featureProperty);
+    return mc;
+  }
+
+  /**
+   * Converts the feature the reader is positioned on into a {@link Metacard}. Unlike {@link
+   * #unmarshal}, the properties are read straight from the StAX events while the feature XML is
+   * copied for the metadata, so the feature isn't serialized and parsed a second time.
+   *
+   * @param reader the reader positioned on the start of the feature element, it is left on the end
+   *     of the feature element
+   * @return the metacard
+   * @throws XMLStreamException if the feature can't be read
+   */
+  public Metacard readFeature(XMLStreamReader reader) throws XMLStreamException {
+    if (metacardType == null) {
+      throw new IllegalArgumentException(
+          "No MetacardType registered on the FeatureConverter.  Unable to to convert features to metacards.");
+    }
+
+    String id = getFeatureId(reader);
+    MetacardImpl mc = new MetacardImpl(metacardType);
+    mc.setContentTypeName(metacardType.getName());
+
+    String featureName = reader.getLocalName();
+    StringBuilder metadata = new StringBuilder();
+    StaxXmlCopier.appendStartElement(reader, metadata);
+
+    while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+      if (StaxXmlCopier.isText(reader)) {
+        StaxXmlCopier.appendText(reader.getText(), metadata);
+      } else if (reader.isStartElement()) {
+        FeatureProperty property = readProperty(reader, metadata);
+        setFeatureProperty(
+            mc,
+            property.name,
+            property.value,
+            format -> getValueForMetacardAttribute(format, property));
+      }
+    }
+
+    StaxXmlCopier.appendEndElement(featureName, metadata);
+    mc.setMetadata(metadata.toString());
+    setTargetNamespace(mc, metacardType);
+
+    return finishMetacard(mc, id);
+  }
+
+  /**
+   * Returns the ID of the feature the reader is positioned on.
+   *
+   * @param reader the reader positioned on the start of the feature element
+   * @return the value of the {@code fid} attribute
+   */
+  protected String getFeatureId(XMLStreamReader reader) {
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      if (FID.equals(reader.getAttributeLocalName(i))) {
+        return reader.getAttributeValue(i);
       }
+    }
+    return null;
+  }
+
+  /**
+   * Completes a metacard created from a feature, such as setting the ID and any default values.
+   *
+   * @param mc the metacard created from the feature properties
+   * @param id the feature ID
+   * @return the completed metacard
+   */
+  protected Metacard finishMetacard(MetacardImpl mc, String id) {
+    mc.setId(id);
+    return mc;
+  }
 
-      Serializable value = null;
-      if (attributeDescriptor != null
-          && (StringUtils.isNotBlank(reader.getValue())
-              || BasicTypes.GEO_TYPE
-                  .getAttributeFormat()
-                  .equals(attributeDescriptor.getType().getAttributeFormat())
-              || BasicTypes.DATE_TYPE
-                  .getAttributeFormat()
-                  .equals(attributeDescriptor.getType().getAttributeFormat()))) {
-        if (StringUtils.isNotBlank(mappedMetacardAttribute)) {
-          if (StringUtils.equals(mappedMetacardAttribute, Core.RESOURCE_SIZE)) {
-            String sizeBeforeConversion = reader.getValue();
-            String bytes = convertToBytes(reader, metacardMapper.getDataUnit());
-            if (StringUtils.isNotBlank(bytes)) {
-              LOGGER.debug(
-                  "Setting mapped metacard attribute {} with value {}",
-                  mappedMetacardAttribute,
-                  bytes);
-              mc.setAttribute(mappedMetacardAttribute, bytes);
-            }
-            if (StringUtils.isNotBlank(sizeBeforeConversion)) {
-              LOGGER.debug(
-                  "Setting metacard attribute {} with value {}",
-                  featureProperty,
-                  sizeBeforeConversion);
-              mc.setAttribute(featureProperty, sizeBeforeConversion);
-            }
-          } else {
-            value =
-                getValueForMetacardAttribute(
-                    attributeDescriptor.getType().getAttributeFormat(), reader);
-            if (value != null) {
-              LOGGER.debug(
-                  "Setting mapped metacard attribute {} with value {}",
-                  mappedMetacardAttribute,
-                  value);
-              mc.setAttribute(mappedMetacardAttribute, value);
-              mc.setAttribute(featureProperty, value);
-            }
+  private FeatureProperty readProperty(XMLStreamReader reader, StringBuilder metadata)
+      throws XMLStreamException {
+    FeatureProperty property = new FeatureProperty(reader.getLocalName());
+    StaxXmlCopier.appendStartElement(reader, metadata);
+
+    StringBuilder value = new StringBuilder();
+    while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+      if (StaxXmlCopier.isText(reader)) {
+        value.append(reader.getText());
+        StaxXmlCopier.appendText(reader.getText(), metadata);
+      } else if (reader.isStartElement()) {
+        int start = metadata.length();
+        String childValue = StaxXmlCopier.copyElement(reader, metadata);
+        if (property.childXml == null) {
+          property.childXml = metadata.substring(start);
+          property.childValue = childValue;
+        }
+      }
+    }
+
+    StaxXmlCopier.appendEndElement(property.name, metadata);
+    property.value = value.toString();
+    return property;
+  }
+
+  private void setFeatureProperty(
+      MetacardImpl mc,
+      String name,
+      String propertyValue,
+      Function<AttributeFormat, Serializable> valueReader) {
+    String featureProperty = prefix + name;
+    AttributeDescriptor attributeDescriptor = metacardType.getAttributeDescriptor(featureProperty);
+
+    // Check MetacardMapper for mappings of incoming values
+    String mappedMetacardAttribute = null;
+    if (metacardMapper != null) {
+      LOGGER.debug(
+          "Looking up metacard attribute for feature property {} using metacard mapper",
+          featureProperty);
+      mappedMetacardAttribute = metacardMapper.getMetacardAttribute(featureProperty);
+      LOGGER.debug(
+          "Found metacard attribute {} for feature property {}",
+          mappedMetacardAttribute,
+          featureProperty);
+    }
+
+    Serializable value = null;
+    if (attributeDescriptor != null
+        && (StringUtils.isNotBlank(propertyValue)
+            || BasicTypes.GEO_TYPE
+                .getAttributeFormat()
+                .equals(attributeDescriptor.getType().getAttributeFormat())
+            || BasicTypes.DATE_TYPE
+                .getAttributeFormat()
+                .equals(attributeDescriptor.getType().getAttributeFormat()))) {
+      if (StringUtils.isNotBlank(mappedMetacardAttribute)) {
+        if (StringUtils.equals(mappedMetacardAttribute, Core.RESOURCE_SIZE)) {
+          String bytes = convertToBytes(propertyValue, metacardMapper.getDataUnit());
+          if (StringUtils.isNotBlank(bytes)) {
+            LOGGER.debug(
+                "Setting mapped metacard attribute {} with value {}",
+                mappedMetacardAttribute,
+                bytes);
+            mc.setAttribute(mappedMetacardAttribute, bytes);
+          }
+          if (StringUtils.isNotBlank(propertyValue)) {
+            LOGGER.debug(
+                "Setting metacard attribute {} with value {}", featureProperty, propertyValue);
+            mc.setAttribute(featureProperty, propertyValue);
           }
         } else {
-          value =
-              getValueForMetacardAttribute(
-                  attributeDescriptor.getType().getAttributeFormat(), reader);
-
+          value = valueReader.apply(attributeDescriptor.getType().getAttributeFormat());
           if (value != null) {
-            LOGGER.debug("Setting metacard attribute {} with value {}", featureProperty, value);
+            LOGGER.debug(
+                "Setting mapped metacard attribute {} with value {}",
+                mappedMetacardAttribute,
+                value);
+            mc.setAttribute(mappedMetacardAttribute, value);
             mc.setAttribute(featureProperty, value);
           }
         }
-        if (BasicTypes.GEO_TYPE
-            .getAttributeFormat()
-            .equals(attributeDescriptor.getType().getAttributeFormat())) {
-          mc.setLocation((String) value);
-        }
-        // if this node matches a basic metacard attribute name,
-        // populate that field as well
-        if (isBasicMetacardAttribute(reader.getNodeName())) {
-          LOGGER.debug("Setting metacard basic attribute: {} = {}", reader.getNodeName(), value);
+      } else {
+        value = valueReader.apply(attributeDescriptor.getType().getAttributeFormat());
 
-          mc.setAttribute(reader.getNodeName(), value);
+        if (value != null) {
+          LOGGER.debug("Setting metacard attribute {} with value {}", featureProperty, value);
+          mc.setAttribute(featureProperty, value);
         }
       }
+      if (BasicTypes.GEO_TYPE
+          .getAttributeFormat()
+          .equals(attributeDescriptor.getType().getAttributeFormat())) {
+        mc.setLocation((String) value);
+      }
+      // if this node matches a basic metacard attribute name,
+      // populate that field as well
+      if (isBasicMetacardAttribute(name)) {
+        LOGGER.debug("Setting metacard basic attribute: {} = {}", name, value);
 
-      reader.moveUp();
+        mc.setAttribute(name, value);
+      }
     }
+  }
 
-    mc.setMetadata(metadataWriter.toString());
-
+  private void setTargetNamespace(MetacardImpl mc, MetacardType metacardType) {
     try {
       if (metacardType instanceof FeatureMetacardType) {
         URI namespaceUri = new URI(((FeatureMetacardType) metacardType).getNamespaceURI());
@@ -243,75 +350,100 @@ protected Metacard createMetacardFromFeature(
     } catch (URISyntaxException e) {
       LOGGER.debug("Error setting target namespace uri on metacard.", e);
     }
-
-    return mc;
   }
 
   protected Serializable getValueForMetacardAttribute(
       AttributeFormat attributeFormat, HierarchicalStreamReader reader) {
+    switch (attributeFormat) {
+      case GEOMETRY:
+        return readGeometry(new XmlNode(reader).toString());
+      case DATE:
+        return parseDateFromXml(reader);
+      default:
+        return getValueForMetacardAttribute(attributeFormat, reader.getValue());
+    }
+  }
+
+  private Serializable getValueForMetacardAttribute(
+      AttributeFormat attributeFormat, FeatureProperty property) {
+    switch (attributeFormat) {
+      case GEOMETRY:
+        return property.childXml == null ? null : readGeometry(property.childXml);
+      case DATE:
+        // the date may be wrapped in a child element
+        return parseDate(
+            property.name, property.childXml == null ? property.value : property.childValue);
+      default:
+        return getValueForMetacardAttribute(attributeFormat, property.value);
+    }
+  }
 
+  private Serializable getValueForMetacardAttribute(AttributeFormat attributeFormat, String value) {
     Serializable ser = null;
     switch (attributeFormat) {
       case BOOLEAN:
-        ser = Boolean.valueOf(reader.getValue());
+        ser = Boolean.valueOf(value);
         break;
       case DOUBLE:
-        ser = Double.valueOf(reader.getValue());
+        ser = Double.valueOf(value);
         break;
       case FLOAT:
-        ser = Float.valueOf(reader.getValue());
+        ser = Float.valueOf(value);
         break;
       case INTEGER:
-        ser = Integer.valueOf(reader.getValue());
+        ser = Integer.valueOf(value);
         break;
       case LONG:
-        ser = Long.valueOf(reader.getValue());
+        ser = Long.valueOf(value);
         break;
       case SHORT:
-        ser = Short.valueOf(reader.getValue());
+        ser = Short.valueOf(value);
         break;
       case XML:
       case STRING:
-        ser = reader.getValue();
-        break;
-      case GEOMETRY:
-        XmlNode node = new XmlNode(reader);
-        String xml = node.toString();
-        GMLReader gmlReader = new GMLReader();
-        Geometry geo = null;
-        try {
-          geo = gmlReader.read(xml, null);
-          if (StringUtils.isNotBlank(srs) && !srs.equals(GeospatialUtil.EPSG_4326)) {
-            geo = GeospatialUtil.transformToEPSG4326LonLatFormat(geo, srs);
-          }
-        } catch (SAXException | IOException | ParserConfigurationException | GeoFormatException e) {
-          geo = null;
-          LOGGER.debug(ERROR_PARSING_MESSAGE, e);
-        }
-        if (geo != null) {
-          WKTWriter wktWriter = new WKTWriter();
-          ser = wktWriter.write(geo);
-        }
+        ser = value;
         break;
       case BINARY:
         try {
-          ser = reader.getValue().getBytes(UTF8_ENCODING);
+          ser = value.getBytes(UTF8_ENCODING);
         } catch (UnsupportedEncodingException e) {
           LOGGER.debug("Error encoding the binary value into the metacard.", e);
         }
         break;
-      case DATE:
-        ser = parseDateFromXml(reader);
-        break;
       default:
         break;
     }
     return ser;
   }
 
-  private String convertToBytes(HierarchicalStreamReader reader, String unit) {
+  /**
+   * Reads the GML geometry of a feature property.
+   *
+   * @param xml the GML geometry element
+   * @return the geometry as WKT, or {@code null} if the geometry can't be read
+   */
+  protected String readGeometry(String xml) {
+    GMLReader gmlReader = new GMLReader();
+    Geometry geo = null;
+    try {
+      geo = gmlReader.read(xml, null);
+      if (StringUtils.isNotBlank(srs) && !srs.equals(GeospatialUtil.EPSG_4326)) {
+        geo = GeospatialUtil.transformToEPSG4326LonLatFormat(geo, srs);
+      }
+    } catch (SAXException | IOException | ParserConfigurationException | GeoFormatException e) {
+      geo = null;
+      LOGGER.debug(ERROR_PARSING_MESSAGE, e);
+    }
+    if (geo != null) {
+      WKTWriter wktWriter = new WKTWriter();
+      return wktWriter.write(geo);
+    }
+    return null;
+  }
 
-    BigDecimal resourceSize = new BigDecimal(reader.getValue());
+  private String convertToBytes(String value, String unit) {
+
+    BigDecimal resourceSize = new BigDecimal(value);
     resourceSize = resourceSize.setScale(1, BigDecimal.ROUND_HALF_UP);
 
     switch (unit) {
@@ -342,7 +474,6 @@ private String convertToBytes(HierarchicalStreamReader reader, String unit) {
   }
 
   protected Date parseDateFromXml(HierarchicalStreamReader reader) {
-    Date date = null;
     boolean processingChildNode = false;
 
     if (reader.hasMoreChildren()) {
@@ -350,39 +481,40 @@ protected Date parseDateFromXml(HierarchicalStreamReader reader) {
       processingChildNode = true;
     }
 
+    Date date = parseDate(reader.getNodeName(), reader.getValue());
+
+    if (processingChildNode) {
+      reader.moveUp();
+    }
+    LOGGER.debug("node name: {}", reader.getNodeName());
+    return date;
+  }
+
+  private Date parseDate(String nodeName, String value) {
     if (LOGGER.isDebugEnabled()) {
-      LOGGER.debug("node name: {}", reader.getNodeName());
-      LOGGER.debug("value: {}", reader.getValue());
+      LOGGER.debug("node name: {}", nodeName);
+      LOGGER.debug("value: {}", value);
     }
-    if (StringUtils.isBlank(reader.getValue())) {
-      date = null;
-      if (processingChildNode) {
-        reader.moveUp();
-      }
-      return date;
+    if (StringUtils.isBlank(value)) {
+      return null;
     }
 
+    Date date;
     try { // trying to parse xsd:date
-      date = DatatypeConverter.parseDate(reader.getValue()).getTime();
+      date = DatatypeConverter.parseDate(value).getTime();
     } catch (IllegalArgumentException e) {
       LOGGER.debug(
           "Unable to parse date, attempting to parse as xsd:dateTime, Exception was {}", e);
       try { // try to parse it as a xsd:dateTime
-        date = DatatypeConverter.parseDateTime(reader.getValue()).getTime();
+        date = DatatypeConverter.parseDateTime(value).getTime();
       } catch (IllegalArgumentException ie) {
         LOGGER.debug(
             "Unable to parse date from XML; defaulting \"{}\" to current datetime.  Exception {}",
-            reader.getNodeName(),
+            nodeName,
             ie);
         date = new Date();
       }
     }
-
-    if (processingChildNode) {
-      reader.moveUp();
-      processingChildNode = false;
-    }
-    LOGGER.debug("node name: {}", reader.getNodeName());
     return date;
   }
 
@@ -407,4 +539,23 @@ private boolean isBasicMetacardAttribute(String attrName) {
   public void setSrs(String srs) {
     this.srs = srs;
   }
+
+  /** A feature property read from the StAX events. */
+  private static class FeatureProperty {
+
+    private final String name;
+
+    /** Text directly contained by the property element. */
+    private String value;
+
+    /** The first child element, such as a GML geometry. */
+    private String childXml;
+
+    /** Text directly contained by the first child element. */
+    private String childValue;
+
+    FeatureProperty(String name) {
+      this.name = name;
+    }
+  }
 }
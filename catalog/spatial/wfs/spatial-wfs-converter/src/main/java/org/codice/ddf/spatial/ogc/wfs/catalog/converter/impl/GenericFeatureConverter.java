@@ -198,6 +198,12 @@ public Object unmarshal(HierarchicalStreamReader hreader, UnmarshallingContext c
       throw new IllegalArgumentException(
           "No MetacardType registered on the FeatureConverter.  Unable to to convert features to metacards.");
     }
+
+    return finishMetacard(mc, fid);
+  }
+
+  @Override
+  protected Metacard finishMetacard(MetacardImpl mc, String fid) {
     mc.setId(fid);
     mc.setSourceId(sourceId);
 
@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.ogc.wfs.catalog.converter.impl;
+
+import com.thoughtworks.xstream.io.xml.WstxDriver;
+import ddf.catalog.data.Metacard;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.io.StringReader;
+import java.util.Map;
+import java.util.function.Consumer;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.codice.ddf.spatial.ogc.wfs.catalog.converter.FeatureConverter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the features of a WFS feature collection from a StAX event stream. Each feature is handed
+ * to the converter registered for its feature type as soon as it is reached, so the response
+ * doesn't need to be buffered and the features aren't parsed twice.
+ */
+public class StaxFeatureCollectionReader {
+
+  /** Number of bytes {@link #peekRootElement(PushbackInputStream)} looks at. */
+  public static final int PEEK_SIZE = 8192;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(StaxFeatureCollectionReader.class);
+
+  private static final String FEATURE_COLLECTION = "FeatureCollection";
+
+  private static final XMLInputFactory XML_INPUT_FACTORY = createXmlInputFactory();
+
+  private final String featureMember;
+
+  private final Map<String, FeatureConverter> featureConverterMap;
+
+  /**
+   * @param featureMember local name of the elements containing the features
+   * @param featureConverterMap converters by feature type name
+   */
+  public StaxFeatureCollectionReader(
+      String featureMember, Map<String, FeatureConverter> featureConverterMap) {
+    this.featureMember = featureMember;
+    this.featureConverterMap = featureConverterMap;
+  }
+
+  private static XMLInputFactory createXmlInputFactory() {
+    XMLInputFactory xmlInputFactory = XMLInputFactory.newFactory();
+    xmlInputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    xmlInputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    xmlInputFactory.setProperty(XMLInputFactory.IS_REPLACING_ENTITY_REFERENCES, false);
+    xmlInputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+    return xmlInputFactory;
+  }
+
+  /**
+   * Creates a reader positioned on the root element of the stream.
+   *
+   * @param inputStream the XML document
+   * @return the reader
+   * @throws XMLStreamException if the document has no root element
+   */
+  public static XMLStreamReader createReader(InputStream inputStream) throws XMLStreamException {
+    XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+    reader.nextTag();
+    return reader;
+  }
+
+  /**
+   * Returns the local name of the root element without consuming the stream, which allows a caller
+   * to hand over an error report before the response is parsed.
+   *
+   * @param inputStream stream with a pushback buffer of at least {@link #PEEK_SIZE} bytes
+   * @return the local name of the root element, or {@code null} if it isn't within the first {@link
+   *     #PEEK_SIZE} bytes
+   * @throws IOException if the stream can't be read
+   */
+  public static String peekRootElement(PushbackInputStream inputStream) throws IOException {
+    byte[] head = new byte[PEEK_SIZE];
+    int length = 0;
+    int read;
+    while (length < head.length
+        && (read = inputStream.read(head, length, head.length - length)) != -1) {
+      length += read;
+    }
+    inputStream.unread(head, 0, length);
+
+    XMLStreamReader reader = null;
+    try {
+      reader = createReader(new ByteArrayInputStream(head, 0, length));
+      return reader.getLocalName();
+    } catch (XMLStreamException e) {
+      LOGGER.debug("Unable to read the root element from the beginning of the response.", e);
+      return null;
+    } finally {
+      close(reader);
+    }
+  }
+
+  /**
+   * Reads the features of the feature collection the reader is positioned on. Features nested in
+   * feature collections of the members are read as well, features without a registered converter
+   * are skipped.
+   *
+   * @param reader reader positioned on the start of the feature collection
+   * @param consumer receives the metacards in document order
+   * @throws XMLStreamException if the collection can't be read
+   */
+  public void readFeatures(XMLStreamReader reader, Consumer<Metacard> consumer)
+      throws XMLStreamException {
+    while (reader.nextTag() != XMLStreamConstants.END_ELEMENT) {
+      String name = reader.getLocalName();
+
+      // Its important to note that the converters are registered without namespaces
+      if (featureMember.equals(name) || FEATURE_COLLECTION.equals(name)) {
+        readFeatures(reader, consumer);
+      } else if (featureConverterMap.containsKey(name)) {
+        consumer.accept(readFeature(reader, featureConverterMap.get(name)));
+      } else {
+        LOGGER.debug("Skipping element {} of the feature collection.", name);
+        StaxXmlCopier.skipElement(reader);
+      }
+    }
+  }
+
+  private Metacard readFeature(XMLStreamReader reader, FeatureConverter converter)
+      throws XMLStreamException {
+    if (converter instanceof AbstractFeatureConverter) {
+      return ((AbstractFeatureConverter) converter).readFeature(reader);
+    }
+
+    // other converters only know how to read the feature through XStream
+    StringBuilder xml = new StringBuilder();
+    StaxXmlCopier.copyElement(reader, xml);
+    return (Metacard)
+        converter.unmarshal(new WstxDriver().createReader(new StringReader(xml.toString())), null);
+  }
+
+  public static void close(XMLStreamReader reader) {
+    if (reader != null) {
+      try {
+        reader.close();
+      } catch (XMLStreamException e) {
+        LOGGER.debug("Unable to close the XML stream reader.", e);
+      }
+    }
+  }
+}
@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.spatial.ogc.wfs.catalog.converter.impl;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Serializes elements of a StAX event stream while they are being read. Like the XStream readers
+ * used by the converters, the copy drops the namespaces and only keeps the local names of the
+ * elements and attributes.
+ */
+final class StaxXmlCopier {
+
+  private StaxXmlCopier() {}
+
+  /**
+   * Copies the element the reader is positioned on, including its descendants. The reader is left
+   * on the end of the element.
+   *
+   * @param reader reader positioned on the start of an element
+   * @param xml buffer the element is appended to
+   * @return text directly contained by the element
+   */
+  static String copyElement(XMLStreamReader reader, StringBuilder xml) throws XMLStreamException {
+    String name = reader.getLocalName();
+    appendStartElement(reader, xml);
+
+    StringBuilder value = new StringBuilder();
+    while (reader.next() != XMLStreamConstants.END_ELEMENT) {
+      if (isText(reader)) {
+        value.append(reader.getText());
+        appendText(reader.getText(), xml);
+      } else if (reader.isStartElement()) {
+        copyElement(reader, xml);
+      }
+    }
+
+    appendEndElement(name, xml);
+    return value.toString();
+  }
+
+  static void appendStartElement(XMLStreamReader reader, StringBuilder xml) {
+    xml.append('<').append(reader.getLocalName());
+    for (int i = 0; i < reader.getAttributeCount(); i++) {
+      xml.append(' ').append(reader.getAttributeLocalName(i)).append("=\"");
+      appendText(reader.getAttributeValue(i), xml);
+      xml.append('"');
+    }
+    xml.append('>');
+  }
+
+  static void appendEndElement(String name, StringBuilder xml) {
+    xml.append("</").append(name).append('>');
+  }
+
+  static void appendText(String text, StringBuilder xml) {
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      switch (c) {
+        case '&':
+          xml.append("&amp;");
+          break;
+        case '<':
+          xml.append("&lt;");
+          break;
+        case '>':
+          xml.append("&gt;");
+          break;
+        case '"':
+          xml.append("&quot;");
+          break;
+        default:
+          xml.append(c);
+          break;
+      }
+    }
+  }
+
+  static boolean isText(XMLStreamReader reader) {
+    int event = reader.getEventType();
+    return event == XMLStreamConstants.CHARACTERS
+        || event == XMLStreamConstants.CDATA
+        || event == XMLStreamConstants.SPACE;
+  }
+
+  /**
+   * Skips the element the reader is positioned on. The reader is left on the end of the element.
+   */
+  static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+    int depth = 1;
+    while (depth > 0) {
+      int event = reader.next();
+      if (event == XMLStreamConstants.START_ELEMENT) {
+        depth++;
+      } else if (event == XMLStreamConstants.END_ELEMENT) {
+        depth--;
+      }
+    }
+  }
+}
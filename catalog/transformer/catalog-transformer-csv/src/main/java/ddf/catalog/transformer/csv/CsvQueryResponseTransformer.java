@@ -20,14 +20,16 @@
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.Result;
-import ddf.catalog.data.impl.BinaryContentImpl;
+import ddf.catalog.data.impl.StreamingBinaryContentImpl;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.QueryResponseTransformer;
-import java.io.ByteArrayInputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Serializable;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.Collections;
 import java.util.HashSet;
@@ -39,8 +41,6 @@
 import java.util.stream.Collectors;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
 /**
  * An implementation of QueryResponseTransformer that produces CSV output.
@@ -48,8 +48,6 @@
  * @see ddf.catalog.transform.QueryResponseTransformer
  */
 public class CsvQueryResponseTransformer implements QueryResponseTransformer {
-  private static final Logger LOGGER = LoggerFactory.getLogger(CsvQueryResponseTransformer.class);
-
   private static final String HIDDEN_FIELDS_KEY = "hiddenFields";
 
   private static final String COLUMN_ORDER_KEY = "columnOrder";
@@ -66,12 +64,10 @@ public class CsvQueryResponseTransformer implements QueryResponseTransformer {
    *     are the how that attribute column should be aliased in the output. For example, if the key
    *     is 'title' and the value is 'Product' then the resulting CSV will have a column name of
    *     'Product' instead of 'title'.
-   * @return a BinaryContent object that contains an InputStream with the CSV content.
-   * @throws CatalogTransformerException during processing, the CSV output is written to an
-   *     Appendable, whose 'append()' method signature declares that it throws IOException. When
-   *     that Appendable throws IOException, this class will theoretically convert that into a
-   *     CatalogTransformerException and raise that. Because this implementation uses a
-   *     StringBuilder which doesn't throw IOException, this will never occur.
+   * @return a BinaryContent object that writes the CSV content one metacard at a time when its
+   *     content is read.
+   * @throws CatalogTransformerException never, failures to write the CSV output are reported as
+   *     IOExceptions when the content is read.
    */
   @Override
   public BinaryContent transform(
@@ -96,46 +92,38 @@ public BinaryContent transform(
     List<AttributeDescriptor> sortedAttributeDescriptors =
         sortAttributes(allAttributeDescriptors, attributeOrder);
 
-    Appendable csv =
-        writeSearchResultsToCsv(upstreamResponse, columnAliasMap, sortedAttributeDescriptors);
-
-    return createResponse(csv);
-  }
+    List<Result> results = upstreamResponse.getResults();
 
-  private BinaryContent createResponse(final Appendable csv) {
-    InputStream inputStream =
-        new ByteArrayInputStream(csv.toString().getBytes(Charset.defaultCharset()));
-    BinaryContent binaryContent = new BinaryContentImpl(inputStream);
-    return binaryContent;
+    return new StreamingBinaryContentImpl(
+        outputStream ->
+            writeSearchResultsToCsv(
+                results, columnAliasMap, sortedAttributeDescriptors, outputStream),
+        null);
   }
 
-  private Appendable writeSearchResultsToCsv(
-      final SourceResponse upstreamResponse,
+  private void writeSearchResultsToCsv(
+      final List<Result> results,
       Map<String, String> columnAliasMap,
-      List<AttributeDescriptor> sortedAttributeDescriptors)
-      throws CatalogTransformerException {
-    StringBuilder stringBuilder = new StringBuilder();
-
-    try {
-      CSVPrinter csvPrinter = new CSVPrinter(stringBuilder, CSVFormat.RFC4180);
-      printColumnHeaders(csvPrinter, sortedAttributeDescriptors, columnAliasMap);
-
-      upstreamResponse
-          .getResults()
-          .stream()
-          .map(Result::getMetacard)
-          .forEach(mc -> printMetacard(csvPrinter, mc, sortedAttributeDescriptors));
-
-      return csvPrinter.getOut();
-    } catch (IOException ioe) {
-      throw new CatalogTransformerException(ioe.getMessage(), ioe);
+      List<AttributeDescriptor> sortedAttributeDescriptors,
+      OutputStream outputStream)
+      throws IOException {
+    Writer writer =
+        new BufferedWriter(new OutputStreamWriter(outputStream, Charset.defaultCharset()));
+    CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.RFC4180);
+    printColumnHeaders(csvPrinter, sortedAttributeDescriptors, columnAliasMap);
+
+    for (Result result : results) {
+      printMetacard(csvPrinter, result.getMetacard(), sortedAttributeDescriptors);
     }
+
+    csvPrinter.flush();
   }
 
   private void printMetacard(
       final CSVPrinter csvPrinter,
       final Metacard metacard,
-      final List<AttributeDescriptor> attributeDescriptors) {
+      final List<AttributeDescriptor> attributeDescriptors)
+      throws IOException {
 
     Iterator<Serializable> metacardIterator = new MetacardIterator(metacard, attributeDescriptors);
 
@@ -145,19 +133,16 @@ private void printMetacard(
   private void printColumnHeaders(
       final CSVPrinter csvPrinter,
       final List<AttributeDescriptor> attributeDescriptors,
-      Map<String, String> aliasMap) {
+      Map<String, String> aliasMap)
+      throws IOException {
     Iterator<String> columnHeaderIterator =
         new ColumnHeaderIterator(attributeDescriptors, aliasMap);
 
     printData(csvPrinter, columnHeaderIterator);
   }
 
-  private void printData(final CSVPrinter csvPrinter, final Iterator iterator) {
-    try {
-      csvPrinter.printRecord(() -> iterator);
-    } catch (IOException ioe) {
-      LOGGER.error(ioe.getMessage(), ioe);
-    }
+  private void printData(final CSVPrinter csvPrinter, final Iterator iterator) throws IOException {
+    csvPrinter.printRecord(() -> iterator);
   }
 
   private List<AttributeDescriptor> sortAttributes(
@@ -15,6 +15,7 @@
 package ddf.catalog.transformer.csv;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
@@ -30,6 +31,7 @@
 import ddf.catalog.data.impl.BasicTypes;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.transform.CatalogTransformerException;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -39,6 +41,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.stubbing.Answer;
@@ -63,6 +66,8 @@ public class CsvQueryResponseTransformerTest {
 
   public static final int METACARD_COUNT = 10;
 
+  private static final int LARGE_METACARD_COUNT = 2000;
+
   private SourceResponse sourceResponse;
 
   private CsvQueryResponseTransformer transformer;
@@ -116,6 +121,38 @@ public void testCsvQueryResponseTransformer() throws CatalogTransformerException
     assertThat(scanner.hasNext(), is(false));
   }
 
+  @Test
+  public void testCsvQueryResponseTransformerStreamsResults()
+      throws CatalogTransformerException, IOException {
+    for (int i = METACARD_COUNT; i < LARGE_METACARD_COUNT; i++) {
+      Result result = mock(Result.class);
+      Metacard metacard = buildMetacard();
+      when(result.getMetacard()).thenReturn(metacard);
+      RESULT_LIST.add(result);
+    }
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    AtomicInteger writtenBeforeLastMetacard = new AtomicInteger(-1);
+    Metacard lastMetacard = RESULT_LIST.get(RESULT_LIST.size() - 1).getMetacard();
+    when(lastMetacard.getAttribute(anyString()))
+        .thenAnswer(
+            invocation -> {
+              writtenBeforeLastMetacard.compareAndSet(-1, outputStream.size());
+              return METACARD_DATA_MAP.get(invocation.getArgumentAt(0, String.class));
+            });
+
+    BinaryContent bc = transformer.transform(sourceResponse, new HashMap<>());
+
+    // nothing is converted until the content is written
+    assertThat(writtenBeforeLastMetacard.get(), is(-1));
+
+    bc.writeTo(outputStream);
+
+    // the rows of the first metacards reached the client before the last metacard was read
+    assertThat(writtenBeforeLastMetacard.get(), greaterThan(0));
+    assertThat(outputStream.size(), greaterThan(writtenBeforeLastMetacard.get()));
+  }
+
   private void validate(Scanner scanner, String[] expectedValues) {
     for (int i = 0; i < expectedValues.length; i++) {
       assertThat(scanner.hasNext(), is(true));
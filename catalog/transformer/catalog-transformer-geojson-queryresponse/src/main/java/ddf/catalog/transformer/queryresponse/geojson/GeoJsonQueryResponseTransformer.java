@@ -15,19 +15,24 @@
 
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Result;
-import ddf.catalog.data.impl.BinaryContentImpl;
+import ddf.catalog.data.impl.StreamingBinaryContentImpl;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.MetacardTransformer;
 import ddf.catalog.transform.QueryResponseTransformer;
 import ddf.catalog.transformer.metacard.geojson.GeoJsonMetacardTransformer;
-import java.io.ByteArrayInputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Serializable;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import javax.activation.MimeType;
 import javax.activation.MimeTypeParseException;
-import net.minidev.json.JSONArray;
 import net.minidev.json.JSONObject;
 import net.minidev.json.JSONValue;
 import org.slf4j.Logger;
@@ -89,29 +94,60 @@ public BinaryContent transform(
           "Cannot transform null " + SourceResponse.class.getName());
     }
 
-    JSONObject rootObject = new JSONObject();
+    List<Result> results =
+        upstreamResponse.getResults() != null
+            ? upstreamResponse.getResults()
+            : Collections.emptyList();
 
-    addNonNullObject(rootObject, "hits", upstreamResponse.getHits());
+    // Invalid results are reported now rather than after part of the content has been written
+    for (Result result : results) {
+      if (result == null) {
+        throw new CatalogTransformerException("Cannot transform null " + Result.class.getName());
+      }
+      if (result.getMetacard() == null) {
+        throw new CatalogTransformerException("Cannot transform null metacard.");
+      }
+    }
 
-    JSONArray resultsList = new JSONArray();
+    long hits = upstreamResponse.getHits();
 
-    if (upstreamResponse.getResults() != null) {
-      for (Result result : upstreamResponse.getResults()) {
-        if (result == null) {
-          throw new CatalogTransformerException("Cannot transform null " + Result.class.getName());
-        }
-        JSONObject jsonObj = convertToJSON(result);
-        if (jsonObj != null) {
-          resultsList.add(jsonObj);
+    return new StreamingBinaryContentImpl(
+        outputStream -> writeResponse(hits, results, outputStream), DEFAULT_MIME_TYPE);
+  }
+
+  /**
+   * Writes the same JSON object as {@code {"hits": hits, "results": [...]}} built in memory, one
+   * result at a time.
+   */
+  private void writeResponse(long hits, List<Result> results, OutputStream outputStream)
+      throws IOException {
+    Writer writer =
+        new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+    writer.write("{\"hits\":");
+    writer.write(Long.toString(hits));
+    writer.write(",\"results\":[");
+
+    boolean first = true;
+    for (Result result : results) {
+      JSONObject jsonObj;
+      try {
+        jsonObj = convertToJSON(result);
+      } catch (CatalogTransformerException e) {
+        throw new IOException("Unable to transform result", e);
+      }
+
+      if (jsonObj != null) {
+        if (!first) {
+          writer.write(',');
         }
+        JSONValue.writeJSONString(jsonObj, writer);
+        first = false;
       }
     }
-    addNonNullObject(rootObject, "results", resultsList);
-
-    String jsonText = JSONValue.toJSONString(rootObject);
 
-    return new BinaryContentImpl(
-        new ByteArrayInputStream(jsonText.getBytes(StandardCharsets.UTF_8)), DEFAULT_MIME_TYPE);
+    writer.write("]}");
+    writer.flush();
   }
 
   @Override
@@ -16,11 +16,13 @@
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
@@ -28,15 +30,19 @@
 import ddf.catalog.operation.impl.SourceResponseImpl;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transformer.metacard.geojson.GeoJsonMetacardTransformer;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.atomic.AtomicInteger;
 import net.minidev.json.JSONObject;
 import net.minidev.json.parser.JSONParser;
 import net.minidev.json.parser.ParseException;
@@ -116,6 +122,45 @@ public void testGoodResponse() throws CatalogTransformerException, IOException,
     verifyResponse(obj, resultCount, hitCount);
   }
 
+  @Test
+  public void testResponseIsStreamed()
+      throws CatalogTransformerException, IOException, ParseException {
+    final int resultCount = 200;
+    List<Result> results = new ArrayList<>();
+    for (int i = 0; i < resultCount - 1; i++) {
+      results.add(setupResult());
+    }
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    AtomicInteger writtenBeforeLastResult = new AtomicInteger(-1);
+    MetacardImpl lastMetacard =
+        new MetacardImpl() {
+          @Override
+          public MetacardType getMetacardType() {
+            writtenBeforeLastResult.compareAndSet(-1, outputStream.size());
+            return super.getMetacardType();
+          }
+        };
+    lastMetacard.setTitle(DEFAULT_TITLE);
+    results.add(new ResultImpl(lastMetacard));
+
+    BinaryContent content =
+        new GeoJsonQueryResponseTransformer()
+            .transform(new SourceResponseImpl(null, results, (long) resultCount), null);
+
+    // nothing is converted until the content is written
+    assertThat(writtenBeforeLastResult.get(), is(-1));
+
+    content.writeTo(outputStream);
+
+    // the first results reached the client before the last result was converted
+    assertThat(writtenBeforeLastResult.get(), greaterThan(0));
+
+    JSONObject obj =
+        (JSONObject) PARSER.parse(new String(outputStream.toByteArray(), StandardCharsets.UTF_8));
+    assertThat(((List) obj.get("results")).size(), is(resultCount));
+  }
+
   private JSONObject transform(SourceResponse sourceResponse)
       throws CatalogTransformerException, IOException, ParseException {
 
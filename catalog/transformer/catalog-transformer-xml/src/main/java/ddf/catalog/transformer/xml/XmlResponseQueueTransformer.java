@@ -18,21 +18,25 @@
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
-import ddf.catalog.data.impl.BinaryContentImpl;
+import ddf.catalog.data.impl.StreamingBinaryContentImpl;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.QueryResponseTransformer;
 import ddf.catalog.transformer.api.MetacardMarshaller;
 import ddf.catalog.transformer.api.PrintWriter;
 import ddf.catalog.transformer.api.PrintWriterProvider;
-import java.io.ByteArrayInputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.io.OutputStreamWriter;
 import java.io.Serializable;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RecursiveTask;
@@ -53,6 +57,8 @@ public class XmlResponseQueueTransformer extends AbstractXmlTransformer
 
   public static final int BUFFER_SIZE = 1024;
 
+  private static final String METACARDS_PLACEHOLDER = "\u0000";
+
   private static class MetacardForkTask extends RecursiveTask<StringWriter> {
     private static final long serialVersionUID = 1L;
 
@@ -228,6 +234,11 @@ public void setThreshold(int threshold) {
   public BinaryContent transform(SourceResponse response, Map<String, Serializable> args)
       throws CatalogTransformerException {
     try {
+      List<Result> results =
+          response.getResults() != null
+              ? ImmutableList.copyOf(response.getResults())
+              : Collections.emptyList();
+
       PrintWriter writer = printWriterProvider.build(Metacard.class);
       writer.setRawValue("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n");
 
@@ -236,28 +247,69 @@ public BinaryContent transform(SourceResponse response, Map<String, Serializable
         writer.addAttribute(nsRow.getKey(), nsRow.getValue());
       }
 
-      if (response.getResults() != null && !response.getResults().isEmpty()) {
-        StringWriter metacardContent =
-            fjp.invoke(
-                new MetacardForkTask(
-                    ImmutableList.copyOf(response.getResults()),
-                    fjp,
-                    geometryTransformer,
-                    threshold,
-                    metacardMarshaller));
-
-        writer.setRawValue(metacardContent.getBuffer().toString());
+      if (!results.isEmpty()) {
+        writer.setRawValue(METACARDS_PLACEHOLDER);
       }
 
       writer.endNode(); // metacards
 
-      ByteArrayInputStream bais =
-          new ByteArrayInputStream(writer.makeString().getBytes(StandardCharsets.UTF_8));
+      String document = writer.makeString();
+      int placeholder = document.indexOf(METACARDS_PLACEHOLDER);
+      if (placeholder < 0) {
+        return new StreamingBinaryContentImpl(
+            outputStream -> outputStream.write(document.getBytes(StandardCharsets.UTF_8)),
+            mimeType);
+      }
 
-      return new BinaryContentImpl(bais, mimeType);
+      // The first window is marshalled right away so marshalling failures are still reported
+      // by transform; the remaining windows are marshalled as the content is written
+      int windowSize = getWindowSize();
+      String firstWindow = marshal(results.subList(0, Math.min(windowSize, results.size())));
+
+      String head = document.substring(0, placeholder);
+      String tail = document.substring(placeholder + METACARDS_PLACEHOLDER.length());
+
+      return new StreamingBinaryContentImpl(
+          outputStream -> {
+            Writer out =
+                new BufferedWriter(
+                    new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+            out.write(head);
+            out.write(firstWindow);
+            for (int start = windowSize; start < results.size(); start += windowSize) {
+              out.write(
+                  marshal(results.subList(start, Math.min(start + windowSize, results.size()))));
+            }
+            out.write(tail);
+            out.flush();
+          },
+          mimeType);
     } catch (Exception e) {
       LOGGER.info("Failed Query response transformation", e);
       throw new CatalogTransformerException("Failed Query response transformation");
     }
   }
+
+  /**
+   * Results are marshalled and written in windows of this many results, so only a window of
+   * marshalled results is held in memory while still letting the fork-join pool work on it.
+   */
+  private int getWindowSize() {
+    return Math.max(threshold, 2) * fjp.getParallelism();
+  }
+
+  private String marshal(List<Result> results) throws IOException {
+    try {
+      return fjp.invoke(
+              new MetacardForkTask(
+                  ImmutableList.copyOf(results),
+                  fjp,
+                  geometryTransformer,
+                  threshold,
+                  metacardMarshaller))
+          .toString();
+    } catch (RuntimeException e) {
+      throw new IOException("Failed to marshal metacards", e);
+    }
+  }
 }
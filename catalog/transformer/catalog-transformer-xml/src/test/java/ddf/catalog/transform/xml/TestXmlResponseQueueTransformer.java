@@ -16,6 +16,7 @@
 import static org.custommonkey.xmlunit.XMLAssert.assertXpathEvaluatesTo;
 import static org.custommonkey.xmlunit.XMLAssert.assertXpathExists;
 import static org.custommonkey.xmlunit.XMLAssert.assertXpathNotExists;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
@@ -26,6 +27,7 @@
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import com.google.common.base.Strings;
 import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.Metacard;
@@ -42,6 +44,7 @@
 import ddf.catalog.transformer.xml.MetacardMarshallerImpl;
 import ddf.catalog.transformer.xml.PrintWriterProviderImpl;
 import ddf.catalog.transformer.xml.XmlResponseQueueTransformer;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -58,6 +61,7 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.activation.MimeType;
 import javax.activation.MimeTypeParseException;
 import org.codice.ddf.parser.Parser;
@@ -507,6 +511,57 @@ public void testMetacardMarshallThrowsXmlPullParserException()
     // then exception
   }
 
+  @Test
+  public void testResultsAreMarshalledAsContentIsWritten() throws Exception {
+    final int resultCount = 100;
+    Metacard[] metacards = new Metacard[resultCount];
+    for (int i = 0; i < resultCount; i++) {
+      metacards[i] = new MetacardStub("source" + i, "id" + i);
+    }
+    SourceResponse response = givenSourceResponse(metacards);
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    AtomicInteger marshalled = new AtomicInteger();
+    AtomicInteger writtenBeforeLastMetacard = new AtomicInteger(-1);
+    String marshalledMetacard = "<metacard>" + Strings.repeat("x", 200) + "</metacard>";
+
+    MetacardMarshaller mockMetacardMarshaller = mock(MetacardMarshaller.class);
+    when(mockMetacardMarshaller.marshal(any(Metacard.class), any(Map.class)))
+        .thenAnswer(
+            invocation -> {
+              marshalled.incrementAndGet();
+              if (invocation.getArguments()[0] == metacards[resultCount - 1]) {
+                writtenBeforeLastMetacard.set(outputStream.size());
+              }
+              return marshalledMetacard;
+            });
+
+    ForkJoinPool fjp = new ForkJoinPool(2);
+    try {
+      XmlResponseQueueTransformer xrqt =
+          new XmlResponseQueueTransformer(
+              parser, fjp, new PrintWriterProviderImpl(), mockMetacardMarshaller, getMimeType());
+      xrqt.setThreshold(2);
+
+      BinaryContent content = xrqt.transform(response, null);
+
+      // only the first window of threshold * parallelism results is marshalled up front
+      assertThat(marshalled.get(), is(4));
+
+      content.writeTo(outputStream);
+
+      assertThat(marshalled.get(), is(resultCount));
+      // the first metacards reached the client before the last metacard was marshalled
+      assertThat(writtenBeforeLastMetacard.get(), greaterThan(0));
+      String output = outputStream.toString("UTF-8");
+      assertThat(
+          output.length() - output.replace(marshalledMetacard, "").length(),
+          is(resultCount * marshalledMetacard.length()));
+    } finally {
+      fjp.shutdown();
+    }
+  }
+
   /** @return */
   private MetacardType getMetacardTypeStub(String name, Set<AttributeDescriptor> descriptors) {
 
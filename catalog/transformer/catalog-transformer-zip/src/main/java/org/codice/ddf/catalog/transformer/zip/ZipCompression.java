@@ -21,6 +21,7 @@
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.BinaryContentImpl;
 import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.codec.MetacardCodec;
 import ddf.catalog.operation.ResourceRequest;
 import ddf.catalog.operation.ResourceResponse;
 import ddf.catalog.operation.SourceResponse;
@@ -63,6 +64,8 @@ public class ZipCompression implements QueryResponseTransformer {
 
   private JarSigner jarSigner;
 
+  private boolean metacardCodecEnabled;
+
   public ZipCompression(JarSigner jarSigner) {
     this.jarSigner = jarSigner;
   }
@@ -114,13 +117,8 @@ public BinaryContent transform(
               zipParameters.setSourceExternalStream(true);
               zipParameters.setFileNameInZip(METACARD_PATH + metacard.getId());
 
-              try (ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
-                  ObjectOutputStream objectOutputStream =
-                      new ObjectOutputStream(byteArrayOutputStream)) {
-
-                objectOutputStream.writeObject(new MetacardImpl(metacard));
-                InputStream inputStream =
-                    new ByteArrayInputStream(byteArrayOutputStream.toByteArray());
+              try {
+                InputStream inputStream = new ByteArrayInputStream(writeMetacard(metacard));
                 zipFile.addStream(inputStream, zipParameters);
 
                 if (hasLocalResources(metacard)) {
@@ -224,6 +222,27 @@ private Resource getResource(Metacard metacard) {
     return resource;
   }
 
+  private byte[] writeMetacard(Metacard metacard) throws IOException {
+    if (metacardCodecEnabled) {
+      return MetacardCodec.encode(metacard);
+    }
+
+    ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+    try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(byteArrayOutputStream)) {
+      objectOutputStream.writeObject(new MetacardImpl(metacard));
+    }
+    return byteArrayOutputStream.toByteArray();
+  }
+
+  /**
+   * @param metacardCodecEnabled {@code true} to write the metacards with the {@link MetacardCodec},
+   *     which only recent versions of {@link ZipDecompression} can read, instead of Java
+   *     serialization
+   */
+  public void setMetacardCodecEnabled(boolean metacardCodecEnabled) {
+    this.metacardCodecEnabled = metacardCodecEnabled;
+  }
+
   public void setCatalogFramework(CatalogFramework catalogFramework) {
     this.catalogFramework = catalogFramework;
   }
@@ -14,8 +14,11 @@
 package org.codice.ddf.catalog.transformer.zip;
 
 import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.codec.MetacardCodec;
+import ddf.catalog.data.impl.codec.MetacardDecoder;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.InputCollectionTransformer;
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -128,8 +131,12 @@ private Map<String, Metacard> decompressFile(InputStream inputStream, String zip
 
   private Metacard readMetacard(File file) {
     Metacard result = null;
-    try (ObjectInputStream objectInputStream = new ObjectInputStream(new FileInputStream(file))) {
-      result = (Metacard) objectInputStream.readObject();
+    try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+      if (MetacardCodec.isEncoded(inputStream)) {
+        result = new MetacardDecoder(inputStream).read();
+      } else {
+        result = (Metacard) new ObjectInputStream(inputStream).readObject();
+      }
     } catch (IOException | IllegalArgumentException | ClassNotFoundException e) {
       LOGGER.debug("Unable to create metacard from file {}", file.getName(), e);
     }
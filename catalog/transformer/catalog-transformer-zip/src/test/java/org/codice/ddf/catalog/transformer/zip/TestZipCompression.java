@@ -29,6 +29,7 @@
 import ddf.catalog.data.Result;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.ResultImpl;
+import ddf.catalog.data.impl.codec.MetacardCodec;
 import ddf.catalog.operation.ResourceResponse;
 import ddf.catalog.operation.SourceResponse;
 import ddf.catalog.operation.impl.ResourceRequestById;
@@ -37,10 +38,12 @@
 import ddf.catalog.resource.Resource;
 import ddf.catalog.resource.ResourceNotFoundException;
 import ddf.catalog.transform.CatalogTransformerException;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.net.URI;
 import java.util.ArrayList;
@@ -50,6 +53,7 @@
 import java.util.Map;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.junit.Before;
 import org.junit.Rule;
@@ -246,6 +250,37 @@ public void testCompressionWithRemoteDerivedContent() throws Exception {
     assertZipContents(binaryContent, METACARD_RESULT_LIST_WITH_CONTENT);
   }
 
+  @Test
+  public void testCompressionWritesJavaSerializedMetacards() throws Exception {
+    BinaryContent binaryContent = zipCompression.transform(sourceResponse, filePathArgument);
+
+    byte[] entry = readZipEntry(binaryContent, METACARD_1);
+    assertThat(MetacardCodec.isEncoded(entry), is(false));
+    try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(entry))) {
+      assertThat(((Metacard) input.readObject()).getId(), is(ID_1));
+    }
+  }
+
+  @Test
+  public void testCompressionWithMetacardCodec() throws Exception {
+    zipCompression.setMetacardCodecEnabled(true);
+    BinaryContent binaryContent = zipCompression.transform(sourceResponse, filePathArgument);
+
+    byte[] entry = readZipEntry(binaryContent, METACARD_1);
+    assertThat(MetacardCodec.isEncoded(entry), is(true));
+    assertThat(MetacardCodec.decode(entry).getId(), is(ID_1));
+  }
+
+  private byte[] readZipEntry(BinaryContent binaryContent, String name) throws IOException {
+    ZipInputStream zipInputStream = (ZipInputStream) binaryContent.getInputStream();
+    ZipEntry zipEntry = zipInputStream.getNextEntry();
+    while (zipEntry != null && !zipEntry.getName().equals(name)) {
+      zipEntry = zipInputStream.getNextEntry();
+    }
+    assertThat(zipEntry, notNullValue());
+    return IOUtils.toByteArray(zipInputStream);
+  }
+
   private void assertZipContents(BinaryContent binaryContent, List<String> ids) throws IOException {
     ZipInputStream zipInputStream = (ZipInputStream) binaryContent.getInputStream();
     List<String> entryNames = new ArrayList<>();
@@ -15,6 +15,8 @@
 
 import static ddf.catalog.util.impl.ResultIterable.resultIterable;
 import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static javax.ws.rs.core.HttpHeaders.ETAG;
+import static javax.ws.rs.core.HttpHeaders.IF_NONE_MATCH;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
 import static org.apache.commons.lang.StringUtils.isEmpty;
@@ -100,7 +102,6 @@
 import java.util.stream.Collectors;
 import java.util.zip.GZIPOutputStream;
 import javax.ws.rs.NotFoundException;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.shiro.SecurityUtils;
 import org.apache.shiro.subject.ExecutionException;
@@ -123,6 +124,7 @@
 import org.codice.ddf.catalog.ui.metacard.workspace.WorkspaceTransformer;
 import org.codice.ddf.catalog.ui.query.monitor.api.SubscriptionsPersistentStore;
 import org.codice.ddf.catalog.ui.util.EndpointUtil;
+import org.codice.ddf.catalog.ui.util.MetacardTypeSnapshot;
 import org.codice.ddf.security.common.Security;
 import org.opengis.filter.Filter;
 import org.opengis.filter.sort.SortBy;
@@ -213,7 +215,13 @@ public void init() {
     get(
         "/metacardtype",
         (req, res) -> {
-          return util.getJson(util.getMetacardTypeMap());
+          MetacardTypeSnapshot snapshot = util.getMetacardTypeSnapshot();
+          res.header(ETAG, snapshot.getEntityTag());
+          if (snapshot.matches(req.headers(IF_NONE_MATCH))) {
+            res.status(304);
+            return "";
+          }
+          return snapshot.getJson();
         });
 
     get(
@@ -576,16 +584,14 @@ public void init() {
             res.raw().addHeader("Content-Encoding", "gzip");
           }
 
-          try ( //
-          OutputStream servletOutputStream = res.raw().getOutputStream();
-              InputStream resultStream = content.getInputStream()) {
+          try (OutputStream servletOutputStream = res.raw().getOutputStream()) {
             if (shouldGzip) {
               try (OutputStream gzipServletOutputStream =
                   new GZIPOutputStream(servletOutputStream)) {
-                IOUtils.copy(resultStream, gzipServletOutputStream);
+                content.writeTo(gzipServletOutputStream);
               }
             } else {
-              IOUtils.copy(resultStream, servletOutputStream);
+              content.writeTo(servletOutputStream);
             }
           }
           return "";
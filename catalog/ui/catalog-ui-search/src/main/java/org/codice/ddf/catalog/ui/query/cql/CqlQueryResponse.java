@@ -31,6 +31,7 @@
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.codice.ddf.catalog.ui.query.delegate.SearchTerm;
 import org.codice.ddf.catalog.ui.query.delegate.SearchTermsDelegate;
 import org.slf4j.Logger;
@@ -42,6 +43,9 @@ public class CqlQueryResponse {
 
   private static final SearchTermsDelegate SEARCH_TERMS_DELEGATE = new SearchTermsDelegate();
 
+  /** Minimum number of results that are decorated in parallel. */
+  private static final int PARALLEL_DECORATION_THRESHOLD = 64;
+
   private final List<CqlResult> results;
 
   private final String id;
@@ -107,20 +111,20 @@ public CqlQueryResponse(
                     }));
 
     final Set<SearchTerm> searchTerms = extractSearchTerms(request.getQuery(), filterAdapter);
-    results =
-        queryResponse
-            .getResults()
-            .stream()
-            .map(
-                result ->
-                    new CqlResult(
-                        result,
-                        searchTerms,
-                        queryResponse.getRequest(),
-                        normalize,
-                        filterAdapter,
-                        actionRegistry))
-            .collect(Collectors.toList());
+    ResultDecorationPlan plan =
+        new ResultDecorationPlan(
+            searchTerms,
+            queryResponse.getRequest().getQuery(),
+            normalize,
+            filterAdapter,
+            actionRegistry);
+
+    List<Result> queryResults = queryResponse.getResults();
+    Stream<Result> resultStream =
+        queryResults.size() < PARALLEL_DECORATION_THRESHOLD
+            ? queryResults.stream()
+            : queryResults.parallelStream();
+    results = resultStream.map(result -> new CqlResult(result, plan)).collect(Collectors.toList());
   }
 
   private Set<SearchTerm> extractSearchTerms(Query query, FilterAdapter filterAdapter) {
@@ -0,0 +1,174 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.cql;
+
+import com.google.common.collect.ImmutableMap;
+import ddf.action.Action;
+import ddf.action.ActionRegistry;
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.Result;
+import ddf.catalog.filter.FilterAdapter;
+import ddf.catalog.operation.Query;
+import ddf.catalog.source.UnsupportedQueryException;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.apache.commons.lang3.StringUtils;
+import org.codice.ddf.catalog.ui.query.delegate.SearchTerm;
+import org.codice.ddf.catalog.ui.query.delegate.WktQueryDelegate;
+import org.locationtech.spatial4j.context.SpatialContext;
+import org.locationtech.spatial4j.context.SpatialContextFactory;
+import org.locationtech.spatial4j.context.jts.JtsSpatialContextFactory;
+import org.locationtech.spatial4j.context.jts.ValidationRule;
+import org.locationtech.spatial4j.distance.DistanceUtils;
+import org.locationtech.spatial4j.io.ShapeReader;
+import org.locationtech.spatial4j.shape.Point;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Everything a {@link CqlResult} needs from its query, computed once per query instead of once per
+ * result: the center of the query geometry and the search term matcher.
+ *
+ * <p>This class is thread-safe so results can be decorated in parallel.
+ */
+class ResultDecorationPlan {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ResultDecorationPlan.class);
+
+  // For queries we use repairConvexHull which my cause false positives to be returned but this
+  // is better than potentially missing some results due to false negatives.
+  private static final Map<String, String> SPATIAL_CONTEXT_ARGUMENTS =
+      ImmutableMap.of(
+          "spatialContextFactory",
+          JtsSpatialContextFactory.class.getName(),
+          "validationRule",
+          ValidationRule.repairConvexHull.name(),
+          "allowMultiOverlap",
+          "true");
+
+  private static final SpatialContext SPATIAL_CONTEXT =
+      SpatialContextFactory.makeSpatialContext(
+          SPATIAL_CONTEXT_ARGUMENTS, ResultDecorationPlan.class.getClassLoader());
+
+  private static final ShapeReader WKT_READER = SPATIAL_CONTEXT.getFormats().getWktReader();
+
+  private static final WktQueryDelegate WKT_QUERY_DELEGATE = new WktQueryDelegate();
+
+  private final Point queryCenter;
+
+  private final TermMatcher termMatcher;
+
+  private final ActionRegistry actionRegistry;
+
+  /**
+   * @param searchTerms search terms of the query, only used if {@code normalize} is {@code true}
+   * @param query the query of the results
+   * @param normalize whether the matches of the search terms are counted
+   */
+  ResultDecorationPlan(
+      Set<SearchTerm> searchTerms,
+      Query query,
+      boolean normalize,
+      FilterAdapter filterAdapter,
+      ActionRegistry actionRegistry) {
+    this.queryCenter = getQueryCenter(query, filterAdapter);
+    this.termMatcher = normalize ? new TermMatcher(searchTerms) : null;
+    this.actionRegistry = actionRegistry;
+  }
+
+  /**
+   * @return the distance between the result and the center of the query geometry if the query has
+   *     one, otherwise the distance of the result, or {@code null} if that distance is not valid
+   */
+  Double getDistance(Result result) {
+    Double resultDistance = result.getDistanceInMeters();
+
+    Metacard metacard = result.getMetacard();
+    if (queryCenter != null && metacard != null && StringUtils.isNotBlank(metacard.getLocation())) {
+      try {
+        resultDistance =
+            DistanceUtils.degrees2Dist(
+                    SPATIAL_CONTEXT.calcDistance(
+                        WKT_READER.read(metacard.getLocation()).getCenter(), queryCenter),
+                    DistanceUtils.EARTH_MEAN_RADIUS_KM)
+                * 1000;
+      } catch (IOException | ParseException e) {
+        LOGGER.debug("Unable to parse metacard wkt", e);
+      }
+    }
+
+    if (resultDistance != null && (resultDistance < 0 || resultDistance > Double.MAX_VALUE)) {
+      resultDistance = null;
+    }
+    return resultDistance;
+  }
+
+  /**
+   * @return the number of tokens of the text attributes matching each search term, and the total
+   *     number of tokens under "*", or an empty map if matches are not counted
+   */
+  Map<String, Integer> getMatches(Metacard metacard) {
+    Map<String, Integer> matches = new HashMap<>();
+    if (termMatcher == null) {
+      return matches;
+    }
+
+    int totalTokens = 0;
+    for (AttributeDescriptor descriptor : metacard.getMetacardType().getAttributeDescriptors()) {
+      if (descriptor == null || !isTextAttribute(descriptor)) {
+        continue;
+      }
+      Attribute attribute = metacard.getAttribute(descriptor.getName());
+      if (attribute != null && attribute.getValue() != null) {
+        totalTokens +=
+            termMatcher.countMatches(attribute.getValue().toString().toLowerCase(), matches);
+        matches.put("*", totalTokens);
+      }
+    }
+    return matches;
+  }
+
+  List<Action> getActions(Metacard metacard) {
+    return new ArrayList<>(actionRegistry.list(metacard));
+  }
+
+  private static Point getQueryCenter(Query query, FilterAdapter filterAdapter) {
+    try {
+      String queryWkt = filterAdapter.adapt(query, WKT_QUERY_DELEGATE);
+      if (StringUtils.isNotBlank(queryWkt)) {
+        return WKT_READER.read(queryWkt).getCenter();
+      }
+    } catch (IOException | ParseException | UnsupportedQueryException e) {
+      LOGGER.debug("Unable to parse query wkt", e);
+    }
+    return null;
+  }
+
+  private static boolean isTextAttribute(AttributeDescriptor descriptor) {
+    switch (descriptor.getType().getAttributeFormat()) {
+      case STRING:
+      case XML:
+        return true;
+      default:
+        return false;
+    }
+  }
+}
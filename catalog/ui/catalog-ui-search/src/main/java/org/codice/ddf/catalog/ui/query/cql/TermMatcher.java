@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.cql;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.codice.ddf.catalog.ui.query.delegate.SearchTerm;
+
+/**
+ * Counts the tokens of text attribute values and the tokens matching the search terms of a query.
+ * Values are split into lines and each line into tokens on runs of whitespace and punctuation, the
+ * same tokens as {@code line.split("[\\s\\p{Punct}]+")}, without regular expressions.
+ *
+ * <p>Terms without wildcards are looked up in a map with a single probe per token; only wildcard
+ * terms are matched one by one. This class is thread-safe.
+ */
+class TermMatcher {
+
+  /** Number of search terms by term, a term may come from more than one {@link SearchTerm}. */
+  private final Map<String, Integer> exactTerms = new HashMap<>();
+
+  private final List<SearchTerm> wildcardTerms = new ArrayList<>();
+
+  TermMatcher(Collection<SearchTerm> searchTerms) {
+    for (SearchTerm term : searchTerms) {
+      if ("*".equals(term.getTerm())) {
+        continue;
+      }
+      if (term.getTerm().contains("*")) {
+        wildcardTerms.add(term);
+      } else {
+        exactTerms.merge(term.getTerm(), 1, Integer::sum);
+      }
+    }
+  }
+
+  /**
+   * Adds the matches of the tokens of a value to {@code matches}.
+   *
+   * @param value lower case value
+   * @param matches number of matching tokens by search term
+   * @return the number of tokens of the value
+   */
+  int countMatches(String value, Map<String, Integer> matches) {
+    int tokens = 0;
+    int length = value.length();
+    int lineStart = 0;
+    while (lineStart < length) {
+      int lineEnd = lineStart;
+      while (lineEnd < length && !isLineTerminator(value.charAt(lineEnd))) {
+        lineEnd++;
+      }
+      tokens += countLineMatches(value, lineStart, lineEnd, matches);
+
+      lineStart = lineEnd + 1;
+      if (lineStart < length && value.charAt(lineEnd) == '\r' && value.charAt(lineStart) == '\n') {
+        lineStart++;
+      }
+    }
+    return tokens;
+  }
+
+  private int countLineMatches(String value, int start, int end, Map<String, Integer> matches) {
+    if (start == end) {
+      match("", matches);
+      return 1;
+    }
+
+    int tokens = 0;
+    int index = start;
+    if (isDelimiter(value.charAt(index))) {
+      while (index < end && isDelimiter(value.charAt(index))) {
+        index++;
+      }
+      if (index == end) {
+        return 0;
+      }
+      // like String.split, a leading delimiter yields an empty first token
+      match("", matches);
+      tokens++;
+    }
+
+    while (index < end) {
+      int tokenStart = index;
+      while (index < end && !isDelimiter(value.charAt(index))) {
+        index++;
+      }
+      if (!exactTerms.isEmpty() || !wildcardTerms.isEmpty()) {
+        match(value.substring(tokenStart, index), matches);
+      }
+      tokens++;
+
+      while (index < end && isDelimiter(value.charAt(index))) {
+        index++;
+      }
+    }
+    return tokens;
+  }
+
+  private void match(String token, Map<String, Integer> matches) {
+    Integer count = exactTerms.get(token);
+    if (count != null) {
+      matches.merge(token, count, Integer::sum);
+    }
+    for (SearchTerm term : wildcardTerms) {
+      if (term.match(token)) {
+        matches.merge(term.getTerm(), 1, Integer::sum);
+      }
+    }
+  }
+
+  private static boolean isLineTerminator(char c) {
+    return c == '\n' || c == '\r';
+  }
+
+  /** Same characters as {@code [\s\p{Punct}]}, which are all ASCII. */
+  private static boolean isDelimiter(char c) {
+    return c == ' '
+        || (c >= '\t' && c <= '\r')
+        || (c >= '!' && c <= '/')
+        || (c >= ':' && c <= '@')
+        || (c >= '[' && c <= '`')
+        || (c >= '{' && c <= '~');
+  }
+}
@@ -28,5 +28,13 @@ public interface FilterService {
    */
   Filter buildMetacardIdFilter(String id);
 
-  Filter getModifiedDateFilter(Date lastCheckDate);
+  /**
+   * Build a filter for matching the metacards modified at or after {@code start} and before {@code
+   * end}
+   *
+   * @param start inclusive start of the modified date range
+   * @param end exclusive end of the modified date range
+   * @return filter
+   */
+  Filter getModifiedDateFilter(Date start, Date end);
 }
@@ -43,8 +43,10 @@ public Filter buildMetacardIdFilter(String id) {
   }
 
   @Override
-  public Filter getModifiedDateFilter(Date lastCheckDate) {
-    return filterBuilder.attribute(Metacard.MODIFIED).after().date(lastCheckDate);
+  public Filter getModifiedDateFilter(Date start, Date end) {
+    return filterBuilder.allOf(
+        filterBuilder.not(filterBuilder.attribute(Metacard.MODIFIED).before().date(start)),
+        filterBuilder.attribute(Metacard.MODIFIED).before().date(end));
   }
 
   @Override
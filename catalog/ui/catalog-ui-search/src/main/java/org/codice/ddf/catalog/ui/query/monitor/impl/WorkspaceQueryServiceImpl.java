@@ -13,7 +13,6 @@
  */
 package org.codice.ddf.catalog.ui.query.monitor.impl;
 
-import static org.apache.commons.lang3.Validate.notEmpty;
 import static org.apache.commons.lang3.Validate.notNull;
 import static org.quartz.CronScheduleBuilder.cronSchedule;
 import static org.quartz.JobBuilder.newJob;
@@ -21,14 +20,10 @@
 
 import com.google.common.collect.Lists;
 import ddf.catalog.CatalogFramework;
-import ddf.catalog.federation.FederationException;
 import ddf.catalog.filter.FilterBuilder;
 import ddf.catalog.operation.QueryRequest;
-import ddf.catalog.operation.QueryResponse;
 import ddf.catalog.operation.impl.QueryImpl;
 import ddf.catalog.operation.impl.QueryRequestImpl;
-import ddf.catalog.source.SourceUnavailableException;
-import ddf.catalog.source.UnsupportedQueryException;
 import ddf.security.Subject;
 import java.io.Serializable;
 import java.time.Instant;
@@ -36,21 +31,23 @@
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.ForkJoinTask;
-import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.function.BiFunction;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.codice.ddf.catalog.ui.metacard.workspace.QueryMetacardImpl;
@@ -60,6 +57,7 @@
 import org.codice.ddf.catalog.ui.query.monitor.api.SecurityService;
 import org.codice.ddf.catalog.ui.query.monitor.api.WorkspaceQueryService;
 import org.codice.ddf.catalog.ui.query.monitor.api.WorkspaceService;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.ddf.security.common.Security;
 import org.geotools.filter.text.cql2.CQLException;
 import org.geotools.filter.text.ecql.ECQL;
@@ -84,6 +82,10 @@ public class WorkspaceQueryServiceImpl implements WorkspaceQueryService {
 
   private static final Security SECURITY = Security.getInstance();
 
+  private static final int QUERY_THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+  private static final int QUERY_QUEUE_SIZE = 1000;
+
   private final QueryUpdateSubscriber queryUpdateSubscriber;
 
   private final WorkspaceService workspaceService;
@@ -92,6 +94,23 @@ public class WorkspaceQueryServiceImpl implements WorkspaceQueryService {
 
   private final FilterBuilder filterBuilder;
 
+  /**
+   * Runs the distinct queries of a run, the thread of the run executes the queries itself when the
+   * queue is full.
+   */
+  private final ExecutorService queryExecutor =
+      new ThreadPoolExecutor(
+          QUERY_THREADS,
+          QUERY_THREADS,
+          0L,
+          TimeUnit.MILLISECONDS,
+          new LinkedBlockingQueue<>(QUERY_QUEUE_SIZE),
+          StandardThreadFactoryBuilder.newThreadFactory("workspaceQueryThread"),
+          new ThreadPoolExecutor.CallerRunsPolicy());
+
+  /** Start of the modified date range of the next run of each query, by query. */
+  private final Map<List<String>, Instant> watermarks = new ConcurrentHashMap<>();
+
   @SuppressWarnings("FieldCanBeLocal")
   private Scheduler scheduler;
 
@@ -103,6 +122,8 @@ public class WorkspaceQueryServiceImpl implements WorkspaceQueryService {
 
   private Integer queryTimeInterval;
 
+  private long queryLagSeconds = 60;
+
   private JobDetail jobDetail;
 
   private Subject subject;
@@ -198,12 +219,24 @@ public void setQueryTimeoutMinutes(Long queryTimeoutMinutes) {
     this.queryTimeoutMinutes = queryTimeoutMinutes;
   }
 
+  /**
+   * @param queryLagSeconds how long the metacards take to become searchable after they are
+   *     modified, in seconds (must be non-null)
+   */
+  @SuppressWarnings("unused")
+  public void setQueryLagSeconds(Long queryLagSeconds) {
+    notNull(queryLagSeconds, "queryLagSeconds must be non-null");
+    LOGGER.debug("Setting queryLagSeconds : {}", queryLagSeconds);
+    this.queryLagSeconds = queryLagSeconds;
+  }
+
   public void setSubject(Subject subject) {
     this.subject = subject;
   }
 
   public void destroy() {
     LOGGER.trace("Shutting down");
+    queryExecutor.shutdownNow();
     try {
       scheduler.shutdown();
     } catch (SchedulerException e) {
@@ -226,12 +259,24 @@ public void run() {
 
                 LOGGER.debug("queryMetacards: size={}", queryMetacards.size());
 
-                List<WorkspaceTask> workspaceTasks = createWorkspaceTasks(queryMetacards);
+                Instant now = Instant.now();
+                Map<String, Optional<Filter>> filters = new HashMap<>();
+                List<Pair<WorkspaceMetacardImpl, List<List<String>>>> workspaceQueries =
+                    getWorkspaceQueries(queryMetacards, filters);
 
-                LOGGER.debug("workspaceTasks: size={}", workspaceTasks.size());
+                Set<List<String>> queries = new LinkedHashSet<>();
+                workspaceQueries.forEach(pair -> queries.addAll(pair.getRight()));
+                watermarks.keySet().retainAll(queries);
+
+                LOGGER.debug(
+                    "workspaces: size={}, distinct queries: size={}",
+                    workspaceQueries.size(),
+                    queries.size());
+
+                Map<List<String>, Long> hits = executeQueries(queries, filters, now);
 
                 Map<String, Pair<WorkspaceMetacardImpl, Long>> results =
-                    executeWorkspaceTasks(workspaceTasks, queryTimeoutMinutes, TimeUnit.MINUTES);
+                    getWorkspaceResults(workspaceQueries, hits);
 
                 LOGGER.debug("results: {}", results);
 
@@ -242,53 +287,111 @@ public void run() {
         });
   }
 
-  private Map<String, Pair<WorkspaceMetacardImpl, Long>> executeWorkspaceTasks(
-      List<WorkspaceTask> workspaceTasks, long timeout, TimeUnit timeoutUnit) {
-    Map<String, Pair<WorkspaceMetacardImpl, Long>> results = new ConcurrentHashMap<>();
+  /**
+   * Returns the queries of each workspace with at least one query, one for each source of the
+   * workspace. A query is the sorted list of the distinct CQL of the query metacards of a source,
+   * so identical queries of different workspaces are run only once. Distinct queries are each run
+   * for their hit count rather than fetching the metacards of one combined query and matching them
+   * in memory.
+   */
+  private List<Pair<WorkspaceMetacardImpl, List<List<String>>>> getWorkspaceQueries(
+      Map<String, Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>>> queryMetacards,
+      Map<String, Optional<Filter>> filters) {
+    List<Pair<WorkspaceMetacardImpl, List<List<String>>>> workspaceQueries = new ArrayList<>();
 
-    workspaceTasks
-        .stream()
-        .map(ForkJoinPool.commonPool()::submit)
-        .map(task -> getTaskResult(task, timeout, timeoutUnit))
-        .filter(Objects::nonNull)
-        .forEach(
-            pair ->
-                results.put(
-                    pair.getLeft().getId(), new ImmutablePair<>(pair.getLeft(), pair.getRight())));
+    for (Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>> workspaceQueryPair :
+        queryMetacards.values()) {
+      List<List<String>> queries = new ArrayList<>();
+      for (List<QueryMetacardImpl> queriesForSource :
+          groupBySource(workspaceQueryPair.getRight()).values()) {
+        List<String> query =
+            queriesForSource
+                .stream()
+                .map(QueryMetacardImpl::getCql)
+                .filter(cql -> filters.computeIfAbsent(cql, this::cqlToFilter).isPresent())
+                .distinct()
+                .sorted()
+                .collect(Collectors.toList());
+        if (!query.isEmpty()) {
+          queries.add(query);
+        }
+      }
+      if (!queries.isEmpty()) {
+        workspaceQueries.add(Pair.of(workspaceQueryPair.getLeft(), queries));
+      }
+    }
 
-    return results;
+    return workspaceQueries;
   }
 
-  private Pair<WorkspaceMetacardImpl, Long> getTaskResult(
-      ForkJoinTask<Pair<WorkspaceMetacardImpl, Long>> workspaceTask,
-      long timeout,
-      TimeUnit timeoutUnit) {
-    try {
-      return workspaceTask.get(timeout, timeoutUnit);
-    } catch (TimeoutException e) {
-      LOGGER.warn("Timeout", e);
-    } catch (ExecutionException | InterruptedException e) {
-      LOGGER.warn("ForkJoinPool error", e);
+  /**
+   * Runs each query for the metacards modified since its watermark, or since the query time
+   * interval if that is more recent, and before {@code now} minus the query lag, so that the
+   * metacards that are not searchable yet are counted by a later run. Moves the watermark of the
+   * queries that succeeded to the end of the range they were run for, so that consecutive runs
+   * never count a metacard twice.
+   *
+   * @return the hit count of each query that completed in time, 0 for the queries that failed
+   */
+  private Map<List<String>, Long> executeQueries(
+      Set<List<String>> queries, Map<String, Optional<Filter>> filters, Instant now) {
+    Instant end = now.minusSeconds(queryLagSeconds);
+    Instant intervalStart = end.minus(queryTimeInterval, ChronoUnit.MINUTES);
+
+    Map<List<String>, Future<Long>> futures = new LinkedHashMap<>();
+    for (List<String> query : queries) {
+      Instant watermark = watermarks.get(query);
+      Instant start =
+          watermark != null && watermark.isAfter(intervalStart) ? watermark : intervalStart;
+      QueryRequest queryRequest = getQueryRequest(query, filters, Date.from(start), Date.from(end));
+      futures.put(
+          query, queryExecutor.submit(() -> catalogFramework.query(queryRequest).getHits()));
+    }
+
+    Map<List<String>, Long> hits = new HashMap<>();
+    long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(queryTimeoutMinutes);
+    for (Map.Entry<List<String>, Future<Long>> entry : futures.entrySet()) {
+      try {
+        hits.put(
+            entry.getKey(),
+            entry.getValue().get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+        watermarks.put(entry.getKey(), end);
+      } catch (TimeoutException e) {
+        LOGGER.warn("Timeout", e);
+        entry.getValue().cancel(true);
+      } catch (ExecutionException e) {
+        LOGGER.warn("Query error", e);
+        hits.put(entry.getKey(), 0L);
+      } catch (InterruptedException e) {
+        LOGGER.warn("Interrupted while waiting for workspace queries", e);
+        Thread.currentThread().interrupt();
+        futures.values().forEach(future -> future.cancel(true));
+        break;
+      }
     }
-    return null;
-  }
 
-  private List<WorkspaceTask> createWorkspaceTasks(
-      Map<String, Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>>> queryMetacards) {
-    List<WorkspaceTask> workspaceTasks = new ArrayList<>();
+    return hits;
+  }
 
-    for (Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>> workspaceQueryPair :
-        queryMetacards.values()) {
-      Map<String, List<QueryMetacardImpl>> queryMetacardsGroupedBySource =
-          groupBySource(workspaceQueryPair.getRight());
-      List<QueryRequest> queryRequests =
-          getQueryRequests(queryMetacardsGroupedBySource.values().stream());
-      if (!queryRequests.isEmpty()) {
-        workspaceTasks.add(new WorkspaceTask(workspaceQueryPair.getLeft(), queryRequests));
+  /**
+   * @return the sum of the hit counts of the queries of each workspace, without the workspaces with
+   *     a query that did not complete in time
+   */
+  private Map<String, Pair<WorkspaceMetacardImpl, Long>> getWorkspaceResults(
+      List<Pair<WorkspaceMetacardImpl, List<List<String>>>> workspaceQueries,
+      Map<List<String>, Long> hits) {
+    Map<String, Pair<WorkspaceMetacardImpl, Long>> results = new HashMap<>();
+
+    for (Pair<WorkspaceMetacardImpl, List<List<String>>> workspaceQueryPair : workspaceQueries) {
+      List<List<String>> queries = workspaceQueryPair.getRight();
+      if (hits.keySet().containsAll(queries)) {
+        long result = queries.stream().mapToLong(hits::get).sum();
+        WorkspaceMetacardImpl workspaceMetacard = workspaceQueryPair.getLeft();
+        results.put(workspaceMetacard.getId(), new ImmutablePair<>(workspaceMetacard, result));
       }
     }
 
-    return workspaceTasks;
+    return results;
   }
 
   private Map<String, List<QueryMetacardImpl>> groupBySource(
@@ -317,24 +420,13 @@ private BiFunction<String, List<QueryMetacardImpl>, List<QueryMetacardImpl>> add
     };
   }
 
-  private List<QueryRequest> getQueryRequests(
-      Stream<List<QueryMetacardImpl>> queriesGroupedBySource) {
-    final Filter modifiedFilter = filterService.getModifiedDateFilter(calculateQueryTimeInterval());
-    return queriesGroupedBySource
-        .map(this::queryMetacardsToFilters)
-        .map(filterBuilder::anyOf)
-        .map(filter -> filterBuilder.allOf(modifiedFilter, filter))
-        .map(this::filterToQuery)
-        .map(this::queryToQueryRequest)
-        .collect(Collectors.toList());
-  }
-
-  private List<Filter> queryMetacardsToFilters(List<QueryMetacardImpl> queriesForSource) {
-    return queriesForSource
-        .stream()
-        .map(this::metacardToFilter)
-        .filter(Objects::nonNull)
-        .collect(Collectors.toList());
+  private QueryRequest getQueryRequest(
+      List<String> query, Map<String, Optional<Filter>> filters, Date start, Date end) {
+    final Filter modifiedFilter = filterService.getModifiedDateFilter(start, end);
+    List<Filter> queryFilters =
+        query.stream().map(filters::get).map(Optional::get).collect(Collectors.toList());
+    return queryToQueryRequest(
+        filterToQuery(filterBuilder.allOf(modifiedFilter, filterBuilder.anyOf(queryFilters))));
   }
 
   private QueryRequestImpl queryToQueryRequest(QueryImpl query) {
@@ -348,63 +440,12 @@ private QueryImpl filterToQuery(And filter) {
     return query;
   }
 
-  private Filter metacardToFilter(QueryMetacardImpl queryMetacard) {
+  private Optional<Filter> cqlToFilter(String cql) {
     try {
-      return ECQL.toFilter(queryMetacard.getCql());
+      return Optional.of(ECQL.toFilter(cql));
     } catch (CQLException e) {
       LOGGER.warn("Error parsing CQL", e);
-      return null;
-    }
-  }
-
-  private Date calculateQueryTimeInterval() {
-    return Date.from(Instant.now().minus(queryTimeInterval, ChronoUnit.MINUTES));
-  }
-
-  private class QueryTask extends RecursiveTask<Long> {
-    private final QueryRequest queryRequest;
-
-    private QueryTask(QueryRequest queryRequest) {
-      this.queryRequest = queryRequest;
-    }
-
-    @Override
-    protected Long compute() {
-      try {
-        final QueryResponse response = catalogFramework.query(queryRequest);
-        return response.getHits();
-      } catch (UnsupportedQueryException | FederationException | SourceUnavailableException e) {
-        LOGGER.warn("Query error", e);
-        return 0L;
-      }
-    }
-  }
-
-  private class WorkspaceTask extends RecursiveTask<Pair<WorkspaceMetacardImpl, Long>> {
-    private final WorkspaceMetacardImpl workspaceMetacard;
-
-    private final List<QueryRequest> queryRequests;
-
-    private WorkspaceTask(
-        WorkspaceMetacardImpl workspaceMetacard, List<QueryRequest> queryRequests) {
-      notNull(workspaceMetacard, "WorkspaceMetacardImpl must be non-null");
-      notNull(queryRequests, "queryRequests must be non-null");
-      notEmpty(queryRequests, "queryRequests must be non-empty");
-      this.workspaceMetacard = workspaceMetacard;
-      this.queryRequests = queryRequests;
-    }
-
-    @Override
-    protected Pair<WorkspaceMetacardImpl, Long> compute() {
-      final long result =
-          queryRequests
-              .stream()
-              .map(QueryTask::new)
-              .map(QueryTask::fork)
-              .mapToLong(ForkJoinTask::join)
-              .sum();
-
-      return Pair.of(workspaceMetacard, result);
+      return Optional.empty();
     }
   }
 }
@@ -97,6 +97,10 @@ public class EndpointUtil {
 
   private final ConfigurationApplication config;
 
+  private final MetacardTypeChangeListener metacardTypeChangeListener;
+
+  private volatile MetacardTypeSnapshot metacardTypeSnapshot;
+
   private static final String ISO_8601_DATE_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSZ";
 
   public static final String APPLICATION_JSON = "application/json";
@@ -115,13 +119,15 @@ public EndpointUtil(
       FilterBuilder filterBuilder,
       List<InjectableAttribute> injectableAttributes,
       AttributeRegistry attributeRegistry,
-      ConfigurationApplication config) {
+      ConfigurationApplication config,
+      MetacardTypeChangeListener metacardTypeChangeListener) {
     this.metacardTypes = metacardTypes;
     this.catalogFramework = catalogFramework;
     this.filterBuilder = filterBuilder;
     this.injectableAttributes = injectableAttributes;
     this.attributeRegistry = attributeRegistry;
     this.config = config;
+    this.metacardTypeChangeListener = metacardTypeChangeListener;
     registerGeoToolsFunctionFactory();
   }
 
@@ -244,31 +250,45 @@ public Map<String, Result> getMetacards(
                 EndpointUtil::firstInWinsMerge));
   }
 
-  @SuppressWarnings("unchecked")
+  /** @return unmodifiable map of attribute properties by attribute name by metacard type name */
   public Map<String, Object> getMetacardTypeMap() {
+    return getMetacardTypeSnapshot().getTypeMap();
+  }
+
+  /**
+   * Returns the metacard type map and its JSON. They are rebuilt only after a metacard type or an
+   * injectable attribute service changed.
+   */
+  public MetacardTypeSnapshot getMetacardTypeSnapshot() {
+    MetacardTypeSnapshot snapshot = metacardTypeSnapshot;
+    long version = metacardTypeChangeListener.getVersion();
+    if (snapshot == null || snapshot.getVersion() != version || !snapshot.isComplete()) {
+      snapshot = createMetacardTypeSnapshot(version);
+      metacardTypeSnapshot = snapshot;
+    }
+    return snapshot;
+  }
+
+  @SuppressWarnings("unchecked")
+  private MetacardTypeSnapshot createMetacardTypeSnapshot(long version) {
     Map<String, Object> resultTypes = new HashMap<>();
     for (MetacardType metacardType : metacardTypes) {
       Map<String, Object> attributes = new HashMap<>();
       for (AttributeDescriptor descriptor : metacardType.getAttributeDescriptors()) {
-        Map<String, Object> attributeProperties = new HashMap<>();
-        attributeProperties.put("type", descriptor.getType().getAttributeFormat().name());
-        attributeProperties.put("multivalued", descriptor.isMultiValued());
-        attributeProperties.put("id", descriptor.getName());
-        attributes.put(descriptor.getName(), attributeProperties);
+        attributes.put(descriptor.getName(), getAttributeProperties(descriptor));
       }
       resultTypes.put(metacardType.getName(), attributes);
     }
+
+    boolean complete = true;
     for (InjectableAttribute attribute : injectableAttributes) {
       Optional<AttributeDescriptor> lookup = attributeRegistry.lookup(attribute.attribute());
       if (!lookup.isPresent()) {
+        complete = false;
         continue;
       }
 
-      AttributeDescriptor descriptor = lookup.get();
-      Map<String, Object> attributeProperties = new HashMap<>();
-      attributeProperties.put("type", descriptor.getType().getAttributeFormat().name());
-      attributeProperties.put("multivalued", descriptor.isMultiValued());
-      attributeProperties.put("id", descriptor.getName());
+      Map<String, Object> attributeProperties = getAttributeProperties(lookup.get());
       Set<String> types =
           attribute.metacardTypes().isEmpty() ? resultTypes.keySet() : attribute.metacardTypes();
       for (String type : types) {
@@ -279,7 +299,17 @@ public Map<String, Object> getMetacardTypeMap() {
       }
     }
 
-    return resultTypes;
+    resultTypes.replaceAll((type, attributes) -> Collections.unmodifiableMap((Map) attributes));
+    Map<String, Object> typeMap = Collections.unmodifiableMap(resultTypes);
+    return new MetacardTypeSnapshot(version, complete, typeMap, getJson(typeMap));
+  }
+
+  private static Map<String, Object> getAttributeProperties(AttributeDescriptor descriptor) {
+    Map<String, Object> attributeProperties = new HashMap<>();
+    attributeProperties.put("type", descriptor.getType().getAttributeFormat().name());
+    attributeProperties.put("multivalued", descriptor.isMultiValued());
+    attributeProperties.put("id", descriptor.getName());
+    return Collections.unmodifiableMap(attributeProperties);
   }
 
   public ArrayList<String> getStringList(List<Serializable> list) {
@@ -304,11 +334,12 @@ public Map<String, Object> transformToMap(List<Metacard> metacards) {
             .map(MetacardType::getName)
             .collect(Collectors.toSet());
 
+    Map<String, Object> metacardTypeMap = getMetacardTypeMap();
     List<Map<String, Object>> typesList = new ArrayList<>();
     for (String type : types) {
       Map<String, Object> typeMap = new HashMap<>();
       typeMap.put("type-name", type);
-      typeMap.put("type", getMetacardTypeMap().get(type));
+      typeMap.put("type", metacardTypeMap.get(type));
 
       typeMap.put(
           "ids",
@@ -0,0 +1,39 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reference listener of the {@link ddf.catalog.data.MetacardType} and {@link
+ * ddf.catalog.data.InjectableAttribute} services that versions their changes, so the metacard type
+ * map of {@link EndpointUtil} is only rebuilt when one of them is registered or unregistered.
+ */
+public class MetacardTypeChangeListener {
+
+  private final AtomicLong version = new AtomicLong();
+
+  public void bind(Object service) {
+    version.incrementAndGet();
+  }
+
+  public void unbind(Object service) {
+    version.incrementAndGet();
+  }
+
+  /** @return a number that changes whenever a service is bound or unbound */
+  public long getVersion() {
+    return version.get();
+  }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.util;
+
+import com.google.common.hash.Hashing;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Immutable metacard type map of {@link EndpointUtil#getMetacardTypeMap()}, with its JSON form and
+ * an entity tag of that JSON.
+ */
+public class MetacardTypeSnapshot {
+
+  private final long version;
+
+  private final boolean complete;
+
+  private final Map<String, Object> typeMap;
+
+  private final String json;
+
+  private final String entityTag;
+
+  MetacardTypeSnapshot(long version, boolean complete, Map<String, Object> typeMap, String json) {
+    this.version = version;
+    this.complete = complete;
+    this.typeMap = typeMap;
+    this.json = json;
+    this.entityTag =
+        '"' + Hashing.murmur3_128().hashString(json, StandardCharsets.UTF_8).toString() + '"';
+  }
+
+  /** @return the version of the metacard type services the snapshot was built from */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * @return {@code false} if an injectable attribute was missing from the attribute registry, in
+   *     which case the snapshot shouldn't be reused
+   */
+  boolean isComplete() {
+    return complete;
+  }
+
+  /** @return unmodifiable map of attribute properties by attribute name by metacard type name */
+  public Map<String, Object> getTypeMap() {
+    return typeMap;
+  }
+
+  public String getJson() {
+    return json;
+  }
+
+  /** @return the quoted entity tag of the JSON */
+  public String getEntityTag() {
+    return entityTag;
+  }
+
+  /**
+   * @param ifNoneMatch value of an {@code If-None-Match} request header, may be {@code null}
+   * @return {@code true} if the header lists the entity tag of this snapshot
+   */
+  public boolean matches(String ifNoneMatch) {
+    if (ifNoneMatch == null) {
+      return false;
+    }
+
+    for (String tag : ifNoneMatch.split(",")) {
+      String trimmed = tag.trim();
+      if (trimmed.startsWith("W/")) {
+        trimmed = trimmed.substring(2);
+      }
+      if ("*".equals(trimmed) || entityTag.equals(trimmed)) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
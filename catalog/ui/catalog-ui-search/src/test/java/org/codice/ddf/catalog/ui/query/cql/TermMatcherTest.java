@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.catalog.ui.query.cql;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.codice.ddf.catalog.ui.query.delegate.SearchTerm;
+import org.junit.Test;
+
+public class TermMatcherTest {
+
+  private static final String CHARACTERS = "ab \t.,-*\n\r";
+
+  @Test
+  public void testExactAndWildcardTerms() {
+    TermMatcher matcher = matcher("alpha", "be*", "*");
+    Map<String, Integer> matches = new HashMap<>();
+
+    int tokens = matcher.countMatches("alpha, beta and bet\nalphabet alpha.", matches);
+
+    assertThat(tokens, is(6));
+    assertThat(matches.get("alpha"), is(2));
+    assertThat(matches.get("be*"), is(2));
+    assertThat(matches.containsKey("*"), is(false));
+  }
+
+  @Test
+  public void testDuplicateTermsAreCountedForEachTerm() {
+    TermMatcher matcher = matcher("alpha", "ALPHA");
+    Map<String, Integer> matches = new HashMap<>();
+
+    matcher.countMatches("alpha", matches);
+
+    assertThat(matches.get("alpha"), is(2));
+  }
+
+  @Test
+  public void testNoTerms() {
+    Map<String, Integer> matches = new HashMap<>();
+
+    int tokens = new TermMatcher(Collections.emptySet()).countMatches(" a b, c ", matches);
+
+    assertThat(tokens, is(4));
+    assertThat(matches.isEmpty(), is(true));
+  }
+
+  /** Compares random values against splitting the lines of the values with a regex. */
+  @Test
+  public void testMatchesSplit() throws IOException {
+    Random random = new Random(11);
+    List<SearchTerm> terms =
+        Arrays.asList(
+            new SearchTerm("a"), new SearchTerm("ab"), new SearchTerm("a*b"), new SearchTerm(""));
+    TermMatcher matcher = new TermMatcher(terms);
+
+    for (int i = 0; i < 20000; i++) {
+      StringBuilder value = new StringBuilder();
+      for (int length = random.nextInt(12); length > 0; length--) {
+        value.append(CHARACTERS.charAt(random.nextInt(CHARACTERS.length())));
+      }
+
+      Map<String, Integer> expected = new HashMap<>();
+      int expectedTokens = split(value.toString(), terms, expected);
+      Map<String, Integer> actual = new HashMap<>();
+      int actualTokens = matcher.countMatches(value.toString(), actual);
+
+      assertThat(value.toString(), actualTokens, is(expectedTokens));
+      assertThat(value.toString(), actual, is(expected));
+    }
+  }
+
+  private static int split(String value, List<SearchTerm> terms, Map<String, Integer> matches)
+      throws IOException {
+    int tokens = 0;
+    BufferedReader reader = new BufferedReader(new StringReader(value));
+    String line;
+    while ((line = reader.readLine()) != null) {
+      for (String token : line.split("[\\s\\p{Punct}]+")) {
+        tokens++;
+        for (SearchTerm term : terms) {
+          if (term.match(token)) {
+            matches.put(term.getTerm(), matches.getOrDefault(term.getTerm(), 0) + 1);
+          }
+        }
+      }
+    }
+    return tokens;
+  }
+
+  private static TermMatcher matcher(String... terms) {
+    return new TermMatcher(Arrays.stream(terms).map(SearchTerm::new).collect(Collectors.toList()));
+  }
+}
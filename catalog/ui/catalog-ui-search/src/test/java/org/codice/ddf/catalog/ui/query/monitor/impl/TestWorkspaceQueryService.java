@@ -17,6 +17,7 @@
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -30,13 +31,17 @@
 import ddf.catalog.source.UnsupportedQueryException;
 import ddf.security.Subject;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
@@ -53,6 +58,7 @@
 import org.codice.ddf.catalog.ui.query.monitor.api.QueryUpdateSubscriber;
 import org.codice.ddf.catalog.ui.query.monitor.api.SecurityService;
 import org.codice.ddf.catalog.ui.query.monitor.api.WorkspaceService;
+import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
@@ -65,17 +71,27 @@
 
 public class TestWorkspaceQueryService {
 
-  @SuppressWarnings("unchecked")
-  @Test
-  public void testRun()
-      throws SchedulerException, UnsupportedQueryException, SourceUnavailableException,
-          FederationException {
+  private static final String ECQL =
+      "area( Polygon((10 10, 20 10, 20 20, 10 10)) ) BETWEEN 10000 AND 30000";
 
-    String workspaceId = "3";
+  private static final String OTHER_ECQL =
+      "area( Polygon((10 10, 20 10, 20 20, 10 10)) ) BETWEEN 20000 AND 40000";
+
+  private QueryUpdateSubscriber queryUpdateSubscriber;
+
+  private WorkspaceService workspaceService;
+
+  private CatalogFramework catalogFramework;
+
+  private FilterService filterService;
 
-    QueryUpdateSubscriber queryUpdateSubscriber = mock(QueryUpdateSubscriber.class);
-    WorkspaceService workspaceService = mock(WorkspaceService.class);
-    CatalogFramework catalogFramework = mock(CatalogFramework.class);
+  private WorkspaceQueryServiceImpl workspaceQueryServiceImpl;
+
+  @Before
+  public void setup() throws SchedulerException {
+    queryUpdateSubscriber = mock(QueryUpdateSubscriber.class);
+    workspaceService = mock(WorkspaceService.class);
+    catalogFramework = mock(CatalogFramework.class);
     FilterBuilder filterBuilder = mock(FilterBuilder.class);
     Scheduler scheduler = mock(Scheduler.class);
     when(scheduler.getContext()).thenReturn(mock(SchedulerContext.class));
@@ -92,13 +108,13 @@ public Map<String, Serializable> addSystemSubject(Map<String, Serializable> prop
             return properties;
           }
         };
-    FilterService filterService = mock(FilterService.class);
-    when(filterService.getModifiedDateFilter(any())).thenReturn(mock(Filter.class));
+    filterService = mock(FilterService.class);
+    when(filterService.getModifiedDateFilter(any(), any())).thenReturn(mock(Filter.class));
 
     when(filterBuilder.anyOf(Mockito.any(Filter.class))).thenReturn(mock(Or.class));
     when(filterBuilder.allOf(Mockito.<Filter>anyVararg())).thenReturn(mock(And.class));
 
-    WorkspaceQueryServiceImpl workspaceQueryServiceImpl =
+    workspaceQueryServiceImpl =
         new WorkspaceQueryServiceImpl(
             queryUpdateSubscriber,
             workspaceService,
@@ -109,30 +125,27 @@ public Map<String, Serializable> addSystemSubject(Map<String, Serializable> prop
             filterService);
 
     workspaceQueryServiceImpl.setQueryTimeInterval(60);
-    String ecql = "area( Polygon((10 10, 20 10, 20 20, 10 10)) ) BETWEEN 10000 AND 30000";
+    workspaceQueryServiceImpl.setSubject(executingSubject());
+    workspaceQueryServiceImpl.setCronString("0 0 0 * * ?");
+    workspaceQueryServiceImpl.setQueryTimeoutMinutes(5L);
+    workspaceQueryServiceImpl.setQueryLagSeconds(60L);
+  }
 
-    WorkspaceMetacardImpl workspaceMetacard = mock(WorkspaceMetacardImpl.class);
-    when(workspaceMetacard.getId()).thenReturn(workspaceId);
+  @Test
+  public void testRun()
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
 
-    QueryMetacardImpl queryMetacardWithSource = mock(QueryMetacardImpl.class);
-    when(queryMetacardWithSource.getSources()).thenReturn(Collections.singletonList("SomeSource"));
-    when(queryMetacardWithSource.getCql()).thenReturn(ecql);
+    String workspaceId = "3";
 
-    Attribute id1 = mock(Attribute.class);
-    when(id1.getValue()).thenReturn("1");
-    when(queryMetacardWithSource.getAttribute(Metacard.ID)).thenReturn(id1);
+    WorkspaceMetacardImpl workspaceMetacard = workspaceMetacard(workspaceId);
 
-    QueryMetacardImpl queryMetacardWithoutSource = mock(QueryMetacardImpl.class);
-    when(queryMetacardWithoutSource.getSources()).thenReturn(Collections.emptyList());
-    when(queryMetacardWithoutSource.getCql()).thenReturn(ecql);
+    QueryMetacardImpl queryMetacardWithSource = queryMetacard("1", "SomeSource", ECQL);
 
-    Attribute id2 = mock(Attribute.class);
-    when(id2.getValue()).thenReturn("2");
-    when(queryMetacardWithoutSource.getAttribute(Metacard.ID)).thenReturn(id2);
+    QueryMetacardImpl queryMetacardWithoutSource = queryMetacard("2", null, OTHER_ECQL);
 
     Map<String, Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>>> queryMetacards =
         Collections.singletonMap(
-            id2.getValue().toString(),
+            workspaceId,
             new ImmutablePair<>(
                 workspaceMetacard,
                 Arrays.asList(queryMetacardWithSource, queryMetacardWithoutSource)));
@@ -147,172 +160,306 @@ public Map<String, Serializable> addSystemSubject(Map<String, Serializable> prop
 
     when(catalogFramework.query(any())).thenReturn(queryResponse);
 
-    workspaceQueryServiceImpl.setSubject(
-        new Subject() {
-          @Override
-          public boolean isGuest() {
-            return false;
-          }
-
-          @Override
-          public Object getPrincipal() {
-            return null;
-          }
-
-          @Override
-          public PrincipalCollection getPrincipals() {
-            return null;
-          }
-
-          @Override
-          public boolean isPermitted(String s) {
-            return false;
-          }
-
-          @Override
-          public boolean isPermitted(Permission permission) {
-            return false;
-          }
-
-          @Override
-          public boolean[] isPermitted(String... strings) {
-            return new boolean[0];
-          }
-
-          @Override
-          public boolean[] isPermitted(List<Permission> list) {
-            return new boolean[0];
-          }
-
-          @Override
-          public boolean isPermittedAll(String... strings) {
-            return false;
-          }
-
-          @Override
-          public boolean isPermittedAll(Collection<Permission> collection) {
-            return false;
-          }
-
-          @Override
-          public void checkPermission(String s) throws AuthorizationException {}
-
-          @Override
-          public void checkPermission(Permission permission) throws AuthorizationException {}
-
-          @Override
-          public void checkPermissions(String... strings) throws AuthorizationException {}
-
-          @Override
-          public void checkPermissions(Collection<Permission> collection)
-              throws AuthorizationException {}
+    workspaceQueryServiceImpl.run();
 
-          @Override
-          public boolean hasRole(String s) {
-            return false;
-          }
+    Map<String, Pair<WorkspaceMetacardImpl, Long>> queryUpdateSubscriberArgument = getResults(1);
 
-          @Override
-          public boolean[] hasRoles(List<String> list) {
-            return new boolean[0];
-          }
-
-          @Override
-          public boolean hasAllRoles(Collection<String> collection) {
-            return false;
-          }
+    assertThat(
+        queryUpdateSubscriberArgument.get(workspaceId).getRight(), is(hitCount1 + hitCount2));
+  }
 
-          @Override
-          public void checkRole(String s) throws AuthorizationException {}
+  @Test
+  public void testIdenticalQueriesAreRunOnce()
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+    Map<String, Pair<WorkspaceMetacardImpl, List<QueryMetacardImpl>>> queryMetacards =
+        new HashMap<>();
+    queryMetacards.put(
+        "1",
+        new ImmutablePair<>(
+            workspaceMetacard("1"),
+            Arrays.asList(queryMetacard("1", null, ECQL), queryMetacard("2", null, OTHER_ECQL))));
+    queryMetacards.put(
+        "2",
+        new ImmutablePair<>(
+            workspaceMetacard("2"),
+            Arrays.asList(queryMetacard("3", null, OTHER_ECQL), queryMetacard("4", null, ECQL))));
 
-          @Override
-          public void checkRoles(Collection<String> collection) throws AuthorizationException {}
+    when(workspaceService.getQueryMetacards()).thenReturn(queryMetacards);
 
-          @Override
-          public void checkRoles(String... strings) throws AuthorizationException {}
+    QueryResponse queryResponse = mock(QueryResponse.class);
+    when(queryResponse.getHits()).thenReturn(10L);
+    when(catalogFramework.query(any())).thenReturn(queryResponse);
 
-          @Override
-          public void login(AuthenticationToken authenticationToken)
-              throws AuthenticationException {}
+    workspaceQueryServiceImpl.run();
 
-          @Override
-          public boolean isAuthenticated() {
-            return false;
-          }
+    verify(catalogFramework, times(1)).query(any());
+    Map<String, Pair<WorkspaceMetacardImpl, Long>> results = getResults(1);
+    assertThat(results.get("1").getRight(), is(10L));
+    assertThat(results.get("2").getRight(), is(10L));
+  }
 
-          @Override
-          public boolean isRemembered() {
-            return false;
-          }
+  @Test
+  public void testQueriesAreRunForModificationsSinceLastRun()
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+    when(workspaceService.getQueryMetacards())
+        .thenReturn(
+            Collections.singletonMap(
+                "1",
+                new ImmutablePair<>(
+                    workspaceMetacard("1"),
+                    Collections.singletonList(queryMetacard("1", null, ECQL)))));
 
-          @Override
-          public Session getSession() {
-            return null;
-          }
+    QueryResponse queryResponse = mock(QueryResponse.class);
+    when(queryResponse.getHits()).thenReturn(10L);
+    when(catalogFramework.query(any())).thenReturn(queryResponse);
 
-          @Override
-          public Session getSession(boolean b) {
-            return null;
-          }
+    long before = System.currentTimeMillis();
+    workspaceQueryServiceImpl.run();
+    long after = System.currentTimeMillis();
+    workspaceQueryServiceImpl.run();
 
-          @Override
-          public void logout() {}
+    List<Pair<Date, Date>> modifiedRanges = getModifiedRanges(2);
+    Date firstStart = modifiedRanges.get(0).getLeft();
+    Date firstEnd = modifiedRanges.get(0).getRight();
+    assertThat(
+        firstEnd.getTime() >= before - TimeUnit.SECONDS.toMillis(60)
+            && firstEnd.getTime() <= after - TimeUnit.SECONDS.toMillis(60),
+        is(true));
+    assertThat(firstEnd.getTime() - firstStart.getTime(), is(TimeUnit.MINUTES.toMillis(60)));
+    assertThat(modifiedRanges.get(1).getLeft(), is(firstEnd));
+  }
 
-          @Override
-          public <V> V execute(Callable<V> callable) throws ExecutionException {
-            try {
-              return callable.call();
-            } catch (Exception e) {
-              throw new ExecutionException(e);
-            }
-          }
+  @Test
+  public void testFailedQueriesAreRunForTheWholeIntervalAgain()
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+    when(workspaceService.getQueryMetacards())
+        .thenReturn(
+            Collections.singletonMap(
+                "1",
+                new ImmutablePair<>(
+                    workspaceMetacard("1"),
+                    Collections.singletonList(queryMetacard("1", null, ECQL)))));
 
-          @Override
-          public void execute(Runnable runnable) {}
+    QueryResponse queryResponse = mock(QueryResponse.class);
+    when(queryResponse.getHits()).thenReturn(10L);
+    when(catalogFramework.query(any()))
+        .thenThrow(new SourceUnavailableException())
+        .thenReturn(queryResponse);
 
-          @Override
-          public <V> Callable<V> associateWith(Callable<V> callable) {
-            return null;
-          }
+    workspaceQueryServiceImpl.run();
+    workspaceQueryServiceImpl.run();
 
-          @Override
-          public Runnable associateWith(Runnable runnable) {
-            return null;
-          }
+    List<Pair<Date, Date>> modifiedRanges = getModifiedRanges(2);
+    assertThat(
+        modifiedRanges.get(1).getLeft().getTime() - modifiedRanges.get(0).getLeft().getTime()
+            < TimeUnit.MINUTES.toMillis(1),
+        is(true));
 
-          @Override
-          public void runAs(PrincipalCollection principalCollection)
-              throws NullPointerException, IllegalStateException {}
+    List<Map<String, Pair<WorkspaceMetacardImpl, Long>>> results = getAllResults(2);
+    assertThat(results.get(0).get("1").getRight(), is(0L));
+    assertThat(results.get(1).get("1").getRight(), is(10L));
+  }
 
-          @Override
-          public boolean isRunAs() {
-            return false;
-          }
+  private static WorkspaceMetacardImpl workspaceMetacard(String id) {
+    WorkspaceMetacardImpl workspaceMetacard = mock(WorkspaceMetacardImpl.class);
+    when(workspaceMetacard.getId()).thenReturn(id);
+    return workspaceMetacard;
+  }
 
-          @Override
-          public PrincipalCollection getPreviousPrincipals() {
-            return null;
-          }
+  private static QueryMetacardImpl queryMetacard(String id, String source, String cql) {
+    QueryMetacardImpl queryMetacard = mock(QueryMetacardImpl.class);
+    when(queryMetacard.getSources())
+        .thenReturn(source != null ? Collections.singletonList(source) : Collections.emptyList());
+    when(queryMetacard.getCql()).thenReturn(cql);
 
-          @Override
-          public PrincipalCollection releaseRunAs() {
-            return null;
-          }
-        });
+    Attribute idAttribute = mock(Attribute.class);
+    when(idAttribute.getValue()).thenReturn(id);
+    when(queryMetacard.getAttribute(Metacard.ID)).thenReturn(idAttribute);
+    return queryMetacard;
+  }
 
-    workspaceQueryServiceImpl.setCronString("0 0 0 * * ?");
-    workspaceQueryServiceImpl.setQueryTimeoutMinutes(5L);
-    workspaceQueryServiceImpl.run();
+  private Map<String, Pair<WorkspaceMetacardImpl, Long>> getResults(int runs) {
+    List<Map<String, Pair<WorkspaceMetacardImpl, Long>>> results = getAllResults(runs);
+    return results.get(results.size() - 1);
+  }
 
+  @SuppressWarnings("unchecked")
+  private List<Map<String, Pair<WorkspaceMetacardImpl, Long>>> getAllResults(int runs) {
     ArgumentCaptor<Map> argumentCaptor = ArgumentCaptor.forClass(Map.class);
-    verify(queryUpdateSubscriber).notify(argumentCaptor.capture());
-
-    Map queryUpdateSubscriberArgumentRaw = argumentCaptor.getValue();
+    verify(queryUpdateSubscriber, times(runs)).notify(argumentCaptor.capture());
+
+    List<Map<String, Pair<WorkspaceMetacardImpl, Long>>> results = new ArrayList<>();
+    for (Map queryUpdateSubscriberArgumentRaw : argumentCaptor.getAllValues()) {
+      results.add(
+          (Map<String, Pair<WorkspaceMetacardImpl, Long>>) queryUpdateSubscriberArgumentRaw);
+    }
+    return results;
+  }
 
-    Map<String, Pair<WorkspaceMetacardImpl, Long>> queryUpdateSubscriberArgument =
-        (Map<String, Pair<WorkspaceMetacardImpl, Long>>) queryUpdateSubscriberArgumentRaw;
+  private List<Pair<Date, Date>> getModifiedRanges(int runs) {
+    ArgumentCaptor<Date> startCaptor = ArgumentCaptor.forClass(Date.class);
+    ArgumentCaptor<Date> endCaptor = ArgumentCaptor.forClass(Date.class);
+    verify(filterService, times(runs))
+        .getModifiedDateFilter(startCaptor.capture(), endCaptor.capture());
+
+    List<Pair<Date, Date>> ranges = new ArrayList<>();
+    for (int i = 0; i < runs; i++) {
+      ranges.add(
+          ImmutablePair.of(startCaptor.getAllValues().get(i), endCaptor.getAllValues().get(i)));
+    }
+    return ranges;
+  }
 
-    assertThat(
-        queryUpdateSubscriberArgument.get(workspaceId).getRight(), is(hitCount1 + hitCount2));
+  private static Subject executingSubject() {
+    return new Subject() {
+      @Override
+      public boolean isGuest() {
+        return false;
+      }
+
+      @Override
+      public Object getPrincipal() {
+        return null;
+      }
+
+      @Override
+      public PrincipalCollection getPrincipals() {
+        return null;
+      }
+
+      @Override
+      public boolean isPermitted(String s) {
+        return false;
+      }
+
+      @Override
+      public boolean isPermitted(Permission permission) {
+        return false;
+      }
+
+      @Override
+      public boolean[] isPermitted(String... strings) {
+        return new boolean[0];
+      }
+
+      @Override
+      public boolean[] isPermitted(List<Permission> list) {
+        return new boolean[0];
+      }
+
+      @Override
+      public boolean isPermittedAll(String... strings) {
+        return false;
+      }
+
+      @Override
+      public boolean isPermittedAll(Collection<Permission> collection) {
+        return false;
+      }
+
+      @Override
+      public void checkPermission(String s) throws AuthorizationException {}
+
+      @Override
+      public void checkPermission(Permission permission) throws AuthorizationException {}
+
+      @Override
+      public void checkPermissions(String... strings) throws AuthorizationException {}
+
+      @Override
+      public void checkPermissions(Collection<Permission> collection)
+          throws AuthorizationException {}
+
+      @Override
+      public boolean hasRole(String s) {
+        return false;
+      }
+
+      @Override
+      public boolean[] hasRoles(List<String> list) {
+        return new boolean[0];
+      }
+
+      @Override
+      public boolean hasAllRoles(Collection<String> collection) {
+        return false;
+      }
+
+      @Override
+      public void checkRole(String s) throws AuthorizationException {}
+
+      @Override
+      public void checkRoles(Collection<String> collection) throws AuthorizationException {}
+
+      @Override
+      public void checkRoles(String... strings) throws AuthorizationException {}
+
+      @Override
+      public void login(AuthenticationToken authenticationToken) throws AuthenticationException {}
+
+      @Override
+      public boolean isAuthenticated() {
+        return false;
+      }
+
+      @Override
+      public boolean isRemembered() {
+        return false;
+      }
+
+      @Override
+      public Session getSession() {
+        return null;
+      }
+
+      @Override
+      public Session getSession(boolean b) {
+        return null;
+      }
+
+      @Override
+      public void logout() {}
+
+      @Override
+      public <V> V execute(Callable<V> callable) throws ExecutionException {
+        try {
+          return callable.call();
+        } catch (Exception e) {
+          throw new ExecutionException(e);
+        }
+      }
+
+      @Override
+      public void execute(Runnable runnable) {}
+
+      @Override
+      public <V> Callable<V> associateWith(Callable<V> callable) {
+        return null;
+      }
+
+      @Override
+      public Runnable associateWith(Runnable runnable) {
+        return null;
+      }
+
+      @Override
+      public void runAs(PrincipalCollection principalCollection)
+          throws NullPointerException, IllegalStateException {}
+
+      @Override
+      public boolean isRunAs() {
+        return false;
+      }
+
+      @Override
+      public PrincipalCollection getPreviousPrincipals() {
+        return null;
+      }
+
+      @Override
+      public PrincipalCollection releaseRunAs() {
+        return null;
+      }
+    };
   }
 }
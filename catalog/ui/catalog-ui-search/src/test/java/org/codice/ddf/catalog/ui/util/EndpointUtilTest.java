@@ -14,14 +14,19 @@
 package org.codice.ddf.catalog.ui.util;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.hasKey;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyList;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import com.google.common.collect.ImmutableMap;
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.AttributeRegistry;
@@ -29,8 +34,11 @@
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardType;
 import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.AttributeDescriptorImpl;
 import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.BasicTypes;
 import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.impl.MetacardTypeImpl;
 import ddf.catalog.filter.AttributeBuilder;
 import ddf.catalog.filter.ContextualExpressionBuilder;
 import ddf.catalog.filter.EqualityExpressionBuilder;
@@ -44,6 +52,7 @@
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import org.codice.ddf.catalog.ui.config.ConfigurationApplication;
 import org.junit.Before;
@@ -115,7 +124,8 @@ public void setUp() throws Exception {
             filterBuilderMock,
             injectableAttributeList,
             attributeRegistryMock,
-            configurationApplicationMock);
+            configurationApplicationMock,
+            new MetacardTypeChangeListener());
   }
 
   @Test
@@ -219,4 +229,111 @@ public void testCopyAttributes() {
         Collections.singletonList(secondValue),
         is(destinationMetacard.getAttribute(secondAttributeDescriptor.getName()).getValues()));
   }
+
+  @Test
+  public void testMetacardTypeSnapshotIsReused() {
+    MetacardTypeChangeListener listener = new MetacardTypeChangeListener();
+    List<MetacardType> metacardTypes = new ArrayList<>();
+    metacardTypes.add(createMetacardType("type1", "title"));
+    EndpointUtil util = createEndpointUtil(metacardTypes, Collections.emptyList(), listener);
+
+    MetacardTypeSnapshot snapshot = util.getMetacardTypeSnapshot();
+
+    Map<String, Object> title =
+        ImmutableMap.of("type", "STRING", "multivalued", false, "id", "title");
+    Map<String, Object> expected = ImmutableMap.of("type1", ImmutableMap.of("title", title));
+    assertThat(util.getMetacardTypeSnapshot(), sameInstance(snapshot));
+    assertThat(snapshot.getTypeMap(), is(expected));
+    assertThat(snapshot.getJson(), is(util.getJson(snapshot.getTypeMap())));
+  }
+
+  @Test
+  public void testMetacardTypeSnapshotIsRebuiltWhenTypesChange() {
+    MetacardTypeChangeListener listener = new MetacardTypeChangeListener();
+    List<MetacardType> metacardTypes = new ArrayList<>();
+    metacardTypes.add(createMetacardType("type1", "title"));
+    EndpointUtil util = createEndpointUtil(metacardTypes, Collections.emptyList(), listener);
+    MetacardTypeSnapshot snapshot = util.getMetacardTypeSnapshot();
+
+    MetacardType metacardType = createMetacardType("type2", "description");
+    metacardTypes.add(metacardType);
+    listener.bind(metacardType);
+    MetacardTypeSnapshot rebuilt = util.getMetacardTypeSnapshot();
+
+    assertThat(rebuilt.getVersion(), is(not(snapshot.getVersion())));
+    assertThat(rebuilt.getTypeMap().keySet(), containsInAnyOrder("type1", "type2"));
+    assertThat(rebuilt.matches(snapshot.getEntityTag()), is(false));
+  }
+
+  @Test
+  public void testMetacardTypeSnapshotWithMissingInjectableAttributeIsRebuilt() {
+    InjectableAttribute injectableAttribute = mock(InjectableAttribute.class);
+    when(injectableAttribute.attribute()).thenReturn("injected");
+    when(injectableAttribute.metacardTypes()).thenReturn(Collections.emptySet());
+    AttributeRegistry attributeRegistry = mock(AttributeRegistry.class);
+    when(attributeRegistry.lookup("injected"))
+        .thenReturn(Optional.empty())
+        .thenReturn(
+            Optional.of(
+                new AttributeDescriptorImpl(
+                    "injected", true, true, false, true, BasicTypes.STRING_TYPE)));
+    EndpointUtil util =
+        new EndpointUtil(
+            Collections.singletonList(createMetacardType("type1", "title")),
+            mock(CatalogFramework.class),
+            filterBuilderMock,
+            Collections.singletonList(injectableAttribute),
+            attributeRegistry,
+            mock(ConfigurationApplication.class),
+            new MetacardTypeChangeListener());
+
+    assertThat(getType(util, "type1"), is(not(hasKey("injected"))));
+    assertThat(getType(util, "type1"), is(hasKey("injected")));
+    assertThat(util.getMetacardTypeSnapshot(), sameInstance(util.getMetacardTypeSnapshot()));
+  }
+
+  @Test
+  public void testMetacardTypeSnapshotMatchesEntityTag() {
+    EndpointUtil util =
+        createEndpointUtil(
+            Collections.singletonList(createMetacardType("type1", "title")),
+            Collections.emptyList(),
+            new MetacardTypeChangeListener());
+    MetacardTypeSnapshot snapshot = util.getMetacardTypeSnapshot();
+    String entityTag = snapshot.getEntityTag();
+
+    assertThat(snapshot.matches(entityTag), is(true));
+    assertThat(snapshot.matches("W/" + entityTag), is(true));
+    assertThat(snapshot.matches("\"other\", " + entityTag), is(true));
+    assertThat(snapshot.matches("*"), is(true));
+    assertThat(snapshot.matches("\"other\""), is(false));
+    assertThat(snapshot.matches(null), is(false));
+  }
+
+  private EndpointUtil createEndpointUtil(
+      List<MetacardType> metacardTypes,
+      List<InjectableAttribute> injectableAttributes,
+      MetacardTypeChangeListener listener) {
+    return new EndpointUtil(
+        metacardTypes,
+        mock(CatalogFramework.class),
+        filterBuilderMock,
+        injectableAttributes,
+        mock(AttributeRegistry.class),
+        mock(ConfigurationApplication.class),
+        listener);
+  }
+
+  private static MetacardType createMetacardType(String name, String attribute) {
+    return new MetacardTypeImpl(
+        name,
+        Collections.singleton(
+            new AttributeDescriptorImpl(
+                attribute, true, true, false, false, BasicTypes.STRING_TYPE)));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> getType(EndpointUtil util, String name) {
+    return (Map<String, Object>) util.getMetacardTypeMap().get(name);
+  }
 }
@@ -16,6 +16,7 @@
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -65,7 +66,9 @@ public String toString() {
   public void add(String type, Map<String, Object> properties) throws PersistenceException;
 
   /**
-   * Adds a collection of items of specified type.
+   * Adds a collection of items of specified type. Items replace any existing item with the same ID,
+   * and are sent to the store in a single request, so this should be preferred over adding items
+   * one at a time.
    *
    * @param type A non-empty string identifying the type of items being added.
    * @param items A list of map properties making up the items. Property keys must have a suffix
@@ -94,6 +97,43 @@ public String toString() {
    */
   public List<Map<String, Object>> get(String type, String ecql) throws PersistenceException;
 
+  /**
+   * Get a page of the items matching the ECQL query criteria.
+   *
+   * @param type A non-empty string identifying the type of items to retrieve.
+   * @param ecql The query criteria, all items are matched if blank.
+   * @param startIndex Zero-based index of the first item to return.
+   * @param pageSize Maximum number of items to return.
+   * @return The items of the page
+   * @throws PersistenceException
+   */
+  default List<Map<String, Object>> get(String type, String ecql, int startIndex, int pageSize)
+      throws PersistenceException {
+    List<Map<String, Object>> items = get(type, ecql);
+    int fromIndex = Math.min(Math.max(startIndex, 0), items.size());
+    int toIndex = Math.min(fromIndex + Math.max(pageSize, 0), items.size());
+    return items.subList(fromIndex, toIndex);
+  }
+
+  /**
+   * Passes every item matching the ECQL query criteria to the consumer. Unlike {@link #get(String,
+   * String)}, the number of items isn't limited, and only one page of items is held in memory at a
+   * time.
+   *
+   * @param type A non-empty string identifying the type of items to retrieve.
+   * @param ecql The query criteria, all items are matched if blank.
+   * @param pageSize Number of items to retrieve from the store at a time.
+   * @param consumer Called with each item, in the order the items are retrieved.
+   * @return Count of the items passed to the consumer
+   * @throws PersistenceException
+   */
+  default int get(String type, String ecql, int pageSize, Consumer<Map<String, Object>> consumer)
+      throws PersistenceException {
+    List<Map<String, Object>> items = get(type, ecql);
+    items.forEach(consumer);
+    return items.size();
+  }
+
   /**
    * Delete items matching the ECQL query criteria.
    *
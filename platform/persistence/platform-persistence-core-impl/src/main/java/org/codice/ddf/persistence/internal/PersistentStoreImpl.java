@@ -18,13 +18,20 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.collections.MapUtils;
@@ -38,9 +45,11 @@
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.codice.ddf.persistence.PersistenceException;
 import org.codice.ddf.persistence.PersistentItem;
 import org.codice.ddf.persistence.PersistentStore;
+import org.codice.ddf.platform.util.StandardThreadFactoryBuilder;
 import org.codice.solr.factory.SolrClientFactory;
 import org.codice.solr.factory.impl.SolrClientFactoryImpl;
 import org.codice.solr.query.SolrQueryFilterVisitor;
@@ -50,18 +59,123 @@
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * {@link PersistentStore} backed by a Solr core per type of item.
+ *
+ * <p>Items of the types listed in {@link #setWriteBehindTypes(List)} are buffered when added and
+ * written in the background, at most {@link #setWriteBehindFlushInterval(long)} milliseconds later.
+ * This saves a Solr request per item for types that are written often, such as activities and
+ * notifications. The buffer of a type is written before the items of that type are retrieved or
+ * deleted, but errors writing it in the background are only logged.
+ */
 public class PersistentStoreImpl implements PersistentStore {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(PersistentStoreImpl.class);
 
+  private static final String INITIAL_CURSOR_MARK = "*";
+
+  private static final long DEFAULT_WRITE_BEHIND_FLUSH_INTERVAL = 1000;
+
+  private static final int DEFAULT_WRITE_BEHIND_MAX_ITEMS = 1000;
+
+  private static final int DELETE_PAGE_SIZE = 1000;
+
   private SolrClientFactory clientFactory;
 
   private ConcurrentHashMap<String, Future<SolrClient>> solrFutures = new ConcurrentHashMap<>();
 
+  private volatile Set<String> writeBehindTypes = Collections.emptySet();
+
+  private long writeBehindFlushInterval = DEFAULT_WRITE_BEHIND_FLUSH_INTERVAL;
+
+  private volatile int writeBehindMaxItems = DEFAULT_WRITE_BEHIND_MAX_ITEMS;
+
+  /** Documents waiting to be written, by type. Guarded by itself. */
+  private final Map<String, List<SolrInputDocument>> writeBehindBuffers = new HashMap<>();
+
+  /** Serializes writes of buffered documents so they reach Solr in the order they were added. */
+  private final Object flushLock = new Object();
+
+  private volatile ScheduledExecutorService flushExecutor;
+
+  private ScheduledFuture<?> flushTask;
+
   public PersistentStoreImpl(SolrClientFactoryImpl clientFactory) {
     this.clientFactory = clientFactory;
   }
 
+  public synchronized void init() {
+    flushExecutor =
+        Executors.newSingleThreadScheduledExecutor(
+            StandardThreadFactoryBuilder.newThreadFactory("persistentStoreWriteBehindThread"));
+    scheduleFlush();
+  }
+
+  public synchronized void destroy() {
+    if (flushExecutor != null) {
+      flushExecutor.shutdownNow();
+      flushExecutor = null;
+      flushTask = null;
+    }
+    flushAll();
+  }
+
+  /**
+   * Sets the types of items that are buffered and written in the background.
+   *
+   * @param writeBehindTypes types such as {@code activity} or {@code notification}
+   */
+  public void setWriteBehindTypes(List<String> writeBehindTypes) {
+    Set<String> types = new HashSet<>();
+    if (writeBehindTypes != null) {
+      writeBehindTypes
+          .stream()
+          .filter(StringUtils::isNotBlank)
+          .map(String::trim)
+          .forEach(types::add);
+    }
+    LOGGER.debug("Write behind types: {}", types);
+    this.writeBehindTypes = Collections.unmodifiableSet(types);
+  }
+
+  /**
+   * Sets the longest time buffered items wait before being written.
+   *
+   * @param writeBehindFlushInterval interval in milliseconds
+   */
+  public synchronized void setWriteBehindFlushInterval(long writeBehindFlushInterval) {
+    this.writeBehindFlushInterval =
+        writeBehindFlushInterval > 0
+            ? writeBehindFlushInterval
+            : DEFAULT_WRITE_BEHIND_FLUSH_INTERVAL;
+    scheduleFlush();
+  }
+
+  /**
+   * Sets the number of buffered items of a type that causes them to be written right away.
+   *
+   * @param writeBehindMaxItems maximum number of buffered items per type
+   */
+  public void setWriteBehindMaxItems(int writeBehindMaxItems) {
+    this.writeBehindMaxItems =
+        writeBehindMaxItems > 0 ? writeBehindMaxItems : DEFAULT_WRITE_BEHIND_MAX_ITEMS;
+  }
+
+  private void scheduleFlush() {
+    if (flushExecutor == null) {
+      return;
+    }
+    if (flushTask != null) {
+      flushTask.cancel(false);
+    }
+    flushTask =
+        flushExecutor.scheduleWithFixedDelay(
+            this::flushAll,
+            writeBehindFlushInterval,
+            writeBehindFlushInterval,
+            TimeUnit.MILLISECONDS);
+  }
+
   @Override
   public void add(String type, Collection<Map<String, Object>> items) throws PersistenceException {
     LOGGER.debug("type = {}", type);
@@ -73,11 +187,31 @@ public void add(String type, Collection<Map<String, Object>> items) throws Persi
       return;
     }
 
-    // Set Solr Core name to type and create solr client
-    SolrClient solrClient = getSolrClient(type);
-    if (solrClient == null) {
-      throw new PersistenceException("Unable to create Solr client.");
+    List<SolrInputDocument> inputDocuments = toInputDocuments(type, items);
+    if (inputDocuments.isEmpty()) {
+      return;
     }
+
+    // items are only buffered while there's a thread to write them
+    if (flushExecutor != null && writeBehindTypes.contains(type)) {
+      boolean full;
+      synchronized (writeBehindBuffers) {
+        List<SolrInputDocument> buffer =
+            writeBehindBuffers.computeIfAbsent(type, key -> new ArrayList<>());
+        buffer.addAll(inputDocuments);
+        full = buffer.size() >= writeBehindMaxItems;
+      }
+      if (full) {
+        flush(type);
+      }
+      return;
+    }
+
+    write(type, inputDocuments);
+  }
+
+  private List<SolrInputDocument> toInputDocuments(
+      String type, Collection<Map<String, Object>> items) {
     List<SolrInputDocument> inputDocuments = new ArrayList<>();
     for (Map<String, Object> properties : items) {
 
@@ -95,9 +229,43 @@ public void add(String type, Collection<Map<String, Object>> items) throws Persi
       }
       inputDocuments.add(solrInputDocument);
     }
+    return inputDocuments;
+  }
 
-    if (inputDocuments.isEmpty()) {
-      return;
+  /** Writes the buffered documents of a type. */
+  private void flush(String type) throws PersistenceException {
+    synchronized (flushLock) {
+      List<SolrInputDocument> inputDocuments;
+      synchronized (writeBehindBuffers) {
+        inputDocuments = writeBehindBuffers.remove(type);
+      }
+      if (inputDocuments != null) {
+        LOGGER.debug("Writing {} buffered items of type {}", inputDocuments.size(), type);
+        write(type, inputDocuments);
+      }
+    }
+  }
+
+  private void flushAll() {
+    Set<String> types;
+    synchronized (writeBehindBuffers) {
+      types = new HashSet<>(writeBehindBuffers.keySet());
+    }
+    for (String type : types) {
+      try {
+        flush(type);
+      } catch (PersistenceException | RuntimeException e) {
+        LOGGER.warn("Unable to write buffered items of type {}", type, e);
+      }
+    }
+  }
+
+  private void write(String type, List<SolrInputDocument> inputDocuments)
+      throws PersistenceException {
+    // Set Solr Core name to type and create solr client
+    SolrClient solrClient = getSolrClient(type);
+    if (solrClient == null) {
+      throw new PersistenceException("Unable to create Solr client.");
     }
 
     try {
@@ -146,23 +314,100 @@ public List<Map<String, Object>> get(String type) throws PersistenceException {
   @Override
   // Returned Map will have suffixes in the key names - client is responsible for handling them
   public List<Map<String, Object>> get(String type, String cql) throws PersistenceException {
+    SolrClient solrClient = getReadClient(type);
+    SolrQuery solrQuery = createQuery(solrClient, type, cql);
+    return query(solrClient, solrQuery, cql);
+  }
+
+  @Override
+  public List<Map<String, Object>> get(String type, String cql, int startIndex, int pageSize)
+      throws PersistenceException {
+    SolrClient solrClient = getReadClient(type);
+    SolrQuery solrQuery = createQuery(solrClient, type, cql);
+    solrQuery.setStart(Math.max(startIndex, 0));
+    solrQuery.setRows(Math.max(pageSize, 0));
+    return query(solrClient, solrQuery, cql);
+  }
+
+  @Override
+  public int get(String type, String cql, int pageSize, Consumer<Map<String, Object>> consumer)
+      throws PersistenceException {
+    SolrClient solrClient = getReadClient(type);
+    SolrQuery solrQuery = createQuery(solrClient, type, cql);
+    return forEach(solrClient, solrQuery, cql, pageSize, consumer);
+  }
+
+  /**
+   * Pages through the results of a query with a Solr cursor, which unlike start and rows doesn't
+   * get slower for the later pages.
+   */
+  private int forEach(
+      SolrClient solrClient,
+      SolrQuery solrQuery,
+      String cql,
+      int pageSize,
+      Consumer<Map<String, Object>> consumer)
+      throws PersistenceException {
+    if (pageSize <= 0) {
+      throw new PersistenceException("The page size must be positive.");
+    }
+
+    // cursors require a sort on the unique key
+    solrQuery.addSort(PersistentItem.ID, SolrQuery.ORDER.asc);
+    solrQuery.setRows(pageSize);
+    String cursorMark = INITIAL_CURSOR_MARK;
+    int count = 0;
+
+    try {
+      while (true) {
+        solrQuery.set(CursorMarkParams.CURSOR_MARK_PARAM, cursorMark);
+        QueryResponse solrResponse = solrClient.query(solrQuery, METHOD.POST);
+
+        for (SolrDocument doc : solrResponse.getResults()) {
+          consumer.accept(toPersistentItem(doc));
+          count++;
+        }
+
+        String nextCursorMark = solrResponse.getNextCursorMark();
+        if (nextCursorMark == null || nextCursorMark.equals(cursorMark)) {
+          break;
+        }
+        cursorMark = nextCursorMark;
+      }
+    } catch (SolrServerException | IOException e) {
+      throw new PersistenceException(
+          "SolrServerException while getting Solr data with cql statement " + cql, e);
+    }
+
+    LOGGER.debug("Retrieved {} items in pages of {}", count, pageSize);
+    return count;
+  }
+
+  private SolrClient getReadClient(String type) throws PersistenceException {
     if (StringUtils.isBlank(type)) {
       throw new PersistenceException(
           "The type of object(s) to retrieve must be non-null and not blank, e.g., notification, metacard, etc.");
     }
 
-    List<Map<String, Object>> results = new ArrayList<>();
+    // buffered items must be visible to the query
+    if (writeBehindTypes.contains(type)) {
+      flush(type);
+    }
 
     // Set Solr Core name to type and create/connect to Solr Core
     SolrClient solrClient = getSolrClient(type);
     if (solrClient == null) {
       throw new PersistenceException("Unable to create Solr client.");
     }
+    return solrClient;
+  }
 
+  private SolrQuery createQuery(SolrClient solrClient, String type, String cql)
+      throws PersistenceException {
     SolrQueryFilterVisitor visitor = new SolrQueryFilterVisitor(solrClient, type);
 
+    SolrQuery solrQuery;
     try {
-      SolrQuery solrQuery;
       // If not cql specified, then return all items
       if (StringUtils.isBlank(cql)) {
         solrQuery = new SolrQuery("*:*");
@@ -170,48 +415,29 @@ public List<Map<String, Object>> get(String type, String cql) throws Persistence
         Filter filter = ECQL.toFilter(cql);
         solrQuery = (SolrQuery) filter.accept(visitor, null);
       }
-      if (solrQuery == null) {
-        throw new PersistenceException("Unsupported query " + cql);
-      }
+    } catch (CQLException e) {
+      throw new PersistenceException(
+          "CQLException while getting Solr data with cql statement " + cql, e);
+    }
+    if (solrQuery == null) {
+      throw new PersistenceException("Unsupported query " + cql);
+    }
+    return solrQuery;
+  }
+
+  private List<Map<String, Object>> query(SolrClient solrClient, SolrQuery solrQuery, String cql)
+      throws PersistenceException {
+    List<Map<String, Object>> results = new ArrayList<>();
+
+    try {
       QueryResponse solrResponse = solrClient.query(solrQuery, METHOD.POST);
       long numResults = solrResponse.getResults().getNumFound();
       LOGGER.debug("numResults = {}", numResults);
 
       SolrDocumentList docs = solrResponse.getResults();
       for (SolrDocument doc : docs) {
-        PersistentItem result = new PersistentItem();
-        Collection<String> fieldNames = doc.getFieldNames();
-        for (String name : fieldNames) {
-          LOGGER.debug("field name = {} has value = {}", name, doc.getFieldValue(name));
-          if (name.endsWith(PersistentItem.TEXT_SUFFIX) && doc.getFieldValues(name).size() > 1) {
-            result.addProperty(
-                name,
-                doc.getFieldValues(name)
-                    .stream()
-                    .filter(s -> s instanceof String)
-                    .map(s -> (String) s)
-                    .collect(Collectors.toSet()));
-          } else if (name.endsWith(PersistentItem.XML_SUFFIX)) {
-            result.addXmlProperty(name, (String) doc.getFirstValue(name));
-          } else if (name.endsWith(PersistentItem.TEXT_SUFFIX)) {
-            result.addProperty(name, (String) doc.getFirstValue(name));
-          } else if (name.endsWith(PersistentItem.LONG_SUFFIX)) {
-            result.addProperty(name, (Long) doc.getFirstValue(name));
-          } else if (name.endsWith(PersistentItem.INT_SUFFIX)) {
-            result.addProperty(name, (Integer) doc.getFirstValue(name));
-          } else if (name.endsWith(PersistentItem.DATE_SUFFIX)) {
-            result.addProperty(name, (Date) doc.getFirstValue(name));
-          } else if (name.endsWith(PersistentItem.BINARY_SUFFIX)) {
-            result.addProperty(name, (byte[]) doc.getFirstValue(name));
-          } else {
-            LOGGER.debug("Not adding field {} because it has invalid suffix", name);
-          }
-        }
-        results.add(result);
+        results.add(toPersistentItem(doc));
       }
-    } catch (CQLException e) {
-      throw new PersistenceException(
-          "CQLException while getting Solr data with cql statement " + cql, e);
     } catch (SolrServerException | IOException e) {
       throw new PersistenceException(
           "SolrServerException while getting Solr data with cql statement " + cql, e);
@@ -220,20 +446,57 @@ public List<Map<String, Object>> get(String type, String cql) throws Persistence
     return results;
   }
 
+  private PersistentItem toPersistentItem(SolrDocument doc) {
+    PersistentItem result = new PersistentItem();
+    Collection<String> fieldNames = doc.getFieldNames();
+    for (String name : fieldNames) {
+      LOGGER.debug("field name = {} has value = {}", name, doc.getFieldValue(name));
+      if (name.endsWith(PersistentItem.TEXT_SUFFIX) && doc.getFieldValues(name).size() > 1) {
+        result.addProperty(
+            name,
+            doc.getFieldValues(name)
+                .stream()
+                .filter(s -> s instanceof String)
+                .map(s -> (String) s)
+                .collect(Collectors.toSet()));
+      } else if (name.endsWith(PersistentItem.XML_SUFFIX)) {
+        result.addXmlProperty(name, (String) doc.getFirstValue(name));
+      } else if (name.endsWith(PersistentItem.TEXT_SUFFIX)) {
+        result.addProperty(name, (String) doc.getFirstValue(name));
+      } else if (name.endsWith(PersistentItem.LONG_SUFFIX)) {
+        result.addProperty(name, (Long) doc.getFirstValue(name));
+      } else if (name.endsWith(PersistentItem.INT_SUFFIX)) {
+        result.addProperty(name, (Integer) doc.getFirstValue(name));
+      } else if (name.endsWith(PersistentItem.DATE_SUFFIX)) {
+        result.addProperty(name, (Date) doc.getFirstValue(name));
+      } else if (name.endsWith(PersistentItem.BINARY_SUFFIX)) {
+        result.addProperty(name, (byte[]) doc.getFirstValue(name));
+      } else {
+        LOGGER.debug("Not adding field {} because it has invalid suffix", name);
+      }
+    }
+    return result;
+  }
+
   @Override
   public int delete(String type, String cql) throws PersistenceException {
-    List<Map<String, Object>> itemsToDelete = this.get(type, cql);
-    SolrClient solrClient = getSolrClient(type);
-    if (solrClient == null) {
-      throw new PersistenceException("Unable to create Solr client.");
-    }
+    SolrClient solrClient = getReadClient(type);
+
+    // only the IDs are needed, and every matching item is deleted rather than the first page
+    SolrQuery solrQuery = createQuery(solrClient, type, cql);
+    solrQuery.setFields(PersistentItem.ID);
     List<String> idsToDelete = new ArrayList<>();
-    for (Map<String, Object> item : itemsToDelete) {
-      String uuid = (String) item.get(PersistentItem.ID);
-      if (StringUtils.isNotBlank(uuid)) {
-        idsToDelete.add(uuid);
-      }
-    }
+    forEach(
+        solrClient,
+        solrQuery,
+        cql,
+        DELETE_PAGE_SIZE,
+        item -> {
+          String uuid = (String) item.get(PersistentItem.ID);
+          if (StringUtils.isNotBlank(uuid)) {
+            idsToDelete.add(uuid);
+          }
+        });
 
     if (!idsToDelete.isEmpty()) {
       try {
@@ -20,19 +20,25 @@
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Future;
 import org.apache.solr.client.solrj.SolrClient;
+import org.apache.solr.client.solrj.SolrQuery;
 import org.apache.solr.client.solrj.SolrRequest;
 import org.apache.solr.client.solrj.response.QueryResponse;
 import org.apache.solr.common.SolrDocument;
 import org.apache.solr.common.SolrDocumentList;
 import org.apache.solr.common.SolrInputDocument;
+import org.apache.solr.common.params.CursorMarkParams;
 import org.codice.ddf.persistence.PersistenceException;
 import org.codice.ddf.persistence.PersistentItem;
 import org.codice.solr.factory.impl.SolrClientFactoryImpl;
@@ -113,4 +119,122 @@ public void testGetInvalidQuery() throws Exception {
     assertThat(items.size(), equalTo(1));
     verify(solrClient, never()).query(any(), eq(SolrRequest.METHOD.POST));
   }
+
+  @Test
+  public void testGetPage() throws Exception {
+    QueryResponse response = mock(QueryResponse.class);
+    when(response.getResults()).thenReturn(createDocuments("idvalue"));
+    ArgumentCaptor<SolrQuery> captor = ArgumentCaptor.forClass(SolrQuery.class);
+    when(solrClient.query(captor.capture(), eq(SolrRequest.METHOD.POST))).thenReturn(response);
+
+    List<Map<String, Object>> items = persistentStore.get("testcore", "", 20, 10);
+
+    assertThat(items.size(), equalTo(1));
+    assertThat(captor.getValue().getStart(), equalTo(20));
+    assertThat(captor.getValue().getRows(), equalTo(10));
+  }
+
+  @Test
+  public void testGetWithConsumer() throws Exception {
+    QueryResponse firstPage = mock(QueryResponse.class);
+    when(firstPage.getResults()).thenReturn(createDocuments("id1", "id2"));
+    when(firstPage.getNextCursorMark()).thenReturn("cursor1");
+    QueryResponse lastPage = mock(QueryResponse.class);
+    when(lastPage.getResults()).thenReturn(new SolrDocumentList());
+    when(lastPage.getNextCursorMark()).thenReturn("cursor1");
+    ArgumentCaptor<SolrQuery> captor = ArgumentCaptor.forClass(SolrQuery.class);
+    when(solrClient.query(captor.capture(), eq(SolrRequest.METHOD.POST)))
+        .thenReturn(firstPage, lastPage);
+
+    List<Map<String, Object>> items = new ArrayList<>();
+    int count = persistentStore.get("testcore", "", 2, items::add);
+
+    assertThat(count, equalTo(2));
+    assertThat(items.size(), equalTo(2));
+    assertThat(items.get(1).get("id_txt"), equalTo("id2"));
+    assertThat(captor.getValue().getRows(), equalTo(2));
+    assertThat(captor.getValue().get(CursorMarkParams.CURSOR_MARK_PARAM), equalTo("cursor1"));
+    verify(solrClient, times(2)).query(any(), eq(SolrRequest.METHOD.POST));
+  }
+
+  @Test
+  public void testDeleteAllMatches() throws Exception {
+    QueryResponse response = mock(QueryResponse.class);
+    when(response.getResults()).thenReturn(createDocuments("id1", "id2"));
+    when(solrClient.query(any(), eq(SolrRequest.METHOD.POST))).thenReturn(response);
+
+    int count = persistentStore.delete("testcore", "");
+
+    assertThat(count, equalTo(2));
+    verify(solrClient).deleteById(Arrays.asList("id1", "id2"));
+  }
+
+  @Test
+  public void testWriteBehind() throws Exception {
+    persistentStore.setWriteBehindTypes(Collections.singletonList("testcore"));
+    persistentStore.setWriteBehindFlushInterval(60000);
+    persistentStore.init();
+    try {
+      persistentStore.add("testcore", createItem("id1"));
+      persistentStore.add("testcore", createItem("id2"));
+      verify(solrClient, never()).add(any(Collection.class));
+
+      QueryResponse response = mock(QueryResponse.class);
+      when(response.getResults()).thenReturn(new SolrDocumentList());
+      when(solrClient.query(any(), eq(SolrRequest.METHOD.POST))).thenReturn(response);
+      persistentStore.get("testcore");
+
+      ArgumentCaptor<List> captor = ArgumentCaptor.forClass(List.class);
+      verify(solrClient).add(captor.capture());
+      assertThat(captor.getValue().size(), equalTo(2));
+    } finally {
+      persistentStore.destroy();
+    }
+  }
+
+  @Test
+  public void testWriteBehindMaxItems() throws Exception {
+    persistentStore.setWriteBehindTypes(Collections.singletonList("testcore"));
+    persistentStore.setWriteBehindFlushInterval(60000);
+    persistentStore.setWriteBehindMaxItems(2);
+    persistentStore.init();
+    try {
+      persistentStore.add("testcore", createItem("id1"));
+      verify(solrClient, never()).add(any(Collection.class));
+      persistentStore.add("testcore", createItem("id2"));
+      verify(solrClient).add(any(Collection.class));
+    } finally {
+      persistentStore.destroy();
+    }
+  }
+
+  @Test
+  public void testWriteBehindFlushedOnDestroy() throws Exception {
+    persistentStore.setWriteBehindTypes(Collections.singletonList("testcore"));
+    persistentStore.setWriteBehindFlushInterval(60000);
+    persistentStore.init();
+    persistentStore.add("testcore", createItem("id1"));
+    persistentStore.add("othercore", createItem("id2"));
+    verify(solrClient).add(any(Collection.class));
+
+    persistentStore.destroy();
+
+    verify(solrClient, times(2)).add(any(Collection.class));
+  }
+
+  private PersistentItem createItem(String id) {
+    PersistentItem item = new PersistentItem();
+    item.addIdProperty(id);
+    return item;
+  }
+
+  private SolrDocumentList createDocuments(String... ids) {
+    SolrDocumentList docList = new SolrDocumentList();
+    for (String id : ids) {
+      SolrDocument doc = new SolrDocument();
+      doc.addField("id_txt", id);
+      docList.add(doc);
+    }
+    return docList;
+  }
 }
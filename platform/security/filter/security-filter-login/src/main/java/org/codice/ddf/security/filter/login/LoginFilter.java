@@ -13,6 +13,8 @@
  */
 package org.codice.ddf.security.filter.login;
 
+import com.codahale.metrics.JmxReporter;
+import com.codahale.metrics.MetricRegistry;
 import com.google.common.hash.Hashing;
 import ddf.security.PropertiesLoader;
 import ddf.security.SecurityConstants;
@@ -99,6 +101,10 @@ public class LoginFilter implements SecurityFilter {
 
   private static final String DDF_AUTHENTICATION_TOKEN = "ddf.security.token";
 
+  private static final long DEFAULT_VERIFIED_ASSERTION_CACHE_SIZE = 10000;
+
+  private static final String METRICS_DOMAIN = "ddf.metrics.security";
+
   private static final ThreadLocal<DocumentBuilder> BUILDER =
       new ThreadLocal<DocumentBuilder>() {
         @Override
@@ -140,6 +146,14 @@ protected DocumentBuilder initialValue() {
   /** Default expiration value is 31 minutes */
   private int expirationTime = 31;
 
+  private final MetricRegistry metrics = new MetricRegistry();
+
+  private final JmxReporter reporter =
+      JmxReporter.forRegistry(metrics).inDomain(METRICS_DOMAIN).build();
+
+  private volatile VerifiedAssertionCache verifiedAssertionCache =
+      new VerifiedAssertionCache(DEFAULT_VERIFIED_ASSERTION_CACHE_SIZE, metrics);
+
   public LoginFilter() {
     super();
   }
@@ -231,6 +245,7 @@ public void setSessionFactory(SessionFactory sessionFactory) {
   @Override
   public void init(FilterConfig filterConfig) throws ServletException {
     LOGGER.debug("Starting LoginFilter.");
+    reporter.start();
   }
 
   /**
@@ -367,52 +382,7 @@ private Subject handleAuthenticationToken(
         securityToken = (SecurityToken) token.getCredentials();
       }
       if (!wasReference) {
-        // wrap the token
-        SamlAssertionWrapper assertion = new SamlAssertionWrapper(securityToken.getToken());
-
-        // get the crypto junk
-        Crypto crypto = getSignatureCrypto();
-        Response samlResponse =
-            createSamlResponse(
-                httpRequest.getRequestURI(),
-                assertion.getIssuerString(),
-                createStatus(SAMLProtocolResponseValidator.SAML2_STATUSCODE_SUCCESS, null));
-
-        BUILDER.get().reset();
-        Document doc = BUILDER.get().newDocument();
-        Element policyElement = OpenSAMLUtil.toDom(samlResponse, doc);
-        doc.appendChild(policyElement);
-
-        Credential credential = new Credential();
-        credential.setSamlAssertion(assertion);
-
-        RequestData requestData = new RequestData();
-        requestData.setSigVerCrypto(crypto);
-        WSSConfig wssConfig = WSSConfig.getNewInstance();
-        requestData.setWssConfig(wssConfig);
-
-        X509Certificate[] x509Certs =
-            (X509Certificate[]) httpRequest.getAttribute("javax.servlet.request.X509Certificate");
-        requestData.setTlsCerts(x509Certs);
-
-        validateHolderOfKeyConfirmation(assertion, x509Certs);
-
-        if (assertion.isSigned()) {
-          // Verify the signature
-          WSSSAMLKeyInfoProcessor wsssamlKeyInfoProcessor =
-              new WSSSAMLKeyInfoProcessor(
-                  requestData, new WSDocInfo(samlResponse.getDOM().getOwnerDocument()));
-          assertion.verifySignature(wsssamlKeyInfoProcessor, crypto);
-
-          assertion.parseSubject(
-              new WSSSAMLKeyInfoProcessor(
-                  requestData, new WSDocInfo(samlResponse.getDOM().getOwnerDocument())),
-              requestData.getSigVerCrypto(),
-              requestData.getCallbackHandler());
-        }
-
-        // Validate the Assertion & verify trust in the signature
-        assertionValidator.validate(credential, requestData);
+        validateAssertion(httpRequest, securityToken.getToken());
       }
 
       // if it is all good, then we'll create our subject
@@ -441,17 +411,92 @@ requestData, new WSDocInfo(samlResponse.getDOM().getOwnerDocument())),
     return subject;
   }
 
-  private void validateHolderOfKeyConfirmation(
-      SamlAssertionWrapper assertion, X509Certificate[] x509Certs) throws SecurityServiceException {
-    List<String> confirmationMethods = assertion.getConfirmationMethods();
-    boolean hasHokMethod = false;
-    for (String method : confirmationMethods) {
-      if (OpenSAMLUtil.isMethodHolderOfKey(method)) {
-        hasHokMethod = true;
+  /**
+   * Verifies the signature and conditions of a SAML assertion. Signed SAML 2.0 assertions that pass
+   * are cached until they expire, so that repeated uses of the same assertion only have to be
+   * confirmed against the client certificate of the request.
+   */
+  void validateAssertion(HttpServletRequest httpRequest, Element token)
+      throws SecurityServiceException, WSSecurityException {
+    X509Certificate[] x509Certs =
+        (X509Certificate[]) httpRequest.getAttribute("javax.servlet.request.X509Certificate");
+
+    VerifiedAssertionCache cache = verifiedAssertionCache;
+    String cacheKey = cache != null ? cache.getKey(token) : null;
+    if (cacheKey != null) {
+      VerifiedAssertionCache.VerifiedAssertion verifiedAssertion = cache.get(cacheKey);
+      if (verifiedAssertion != null) {
+        LOGGER.trace("SAML assertion has already been verified.");
+        if (verifiedAssertion.isHolderOfKey()) {
+          validateHolderOfKeyConfirmation(new SamlAssertionWrapper(token), x509Certs);
+        }
+        return;
       }
     }
 
-    if (hasHokMethod) {
+    // wrap the token
+    SamlAssertionWrapper assertion = new SamlAssertionWrapper(token);
+
+    // get the crypto junk
+    Crypto crypto = getSignatureCrypto();
+    Response samlResponse =
+        createSamlResponse(
+            httpRequest.getRequestURI(),
+            assertion.getIssuerString(),
+            createStatus(SAMLProtocolResponseValidator.SAML2_STATUSCODE_SUCCESS, null));
+
+    BUILDER.get().reset();
+    Document doc = BUILDER.get().newDocument();
+    Element policyElement = OpenSAMLUtil.toDom(samlResponse, doc);
+    doc.appendChild(policyElement);
+
+    Credential credential = new Credential();
+    credential.setSamlAssertion(assertion);
+
+    RequestData requestData = new RequestData();
+    requestData.setSigVerCrypto(crypto);
+    WSSConfig wssConfig = WSSConfig.getNewInstance();
+    requestData.setWssConfig(wssConfig);
+    requestData.setTlsCerts(x509Certs);
+
+    validateHolderOfKeyConfirmation(assertion, x509Certs);
+
+    if (assertion.isSigned()) {
+      // Verify the signature
+      WSSSAMLKeyInfoProcessor wsssamlKeyInfoProcessor =
+          new WSSSAMLKeyInfoProcessor(
+              requestData, new WSDocInfo(samlResponse.getDOM().getOwnerDocument()));
+      assertion.verifySignature(wsssamlKeyInfoProcessor, crypto);
+
+      assertion.parseSubject(
+          new WSSSAMLKeyInfoProcessor(
+              requestData, new WSDocInfo(samlResponse.getDOM().getOwnerDocument())),
+          requestData.getSigVerCrypto(),
+          requestData.getCallbackHandler());
+    }
+
+    // Validate the Assertion & verify trust in the signature
+    assertionValidator.validate(credential, requestData);
+
+    if (cacheKey != null
+        && assertion.isSigned()
+        && assertion.getSaml2() != null
+        && assertion.getSaml2().getConditions() != null
+        && assertion.getSaml2().getConditions().getNotOnOrAfter() != null) {
+      cache.put(
+          cacheKey,
+          assertion.getSaml2().getConditions().getNotOnOrAfter().toDate(),
+          isHolderOfKey(assertion));
+    }
+  }
+
+  private boolean isHolderOfKey(SamlAssertionWrapper assertion) {
+    return assertion.getConfirmationMethods().stream().anyMatch(OpenSAMLUtil::isMethodHolderOfKey);
+  }
+
+  private void validateHolderOfKeyConfirmation(
+      SamlAssertionWrapper assertion, X509Certificate[] x509Certs) throws SecurityServiceException {
+    if (isHolderOfKey(assertion)) {
       if (x509Certs != null && x509Certs.length > 0) {
         List<SubjectConfirmation> subjectConfirmations =
             assertion.getSaml2().getSubject().getSubjectConfirmations();
@@ -746,6 +791,7 @@ private Crypto getSignatureCrypto() {
   public void destroy() {
     LOGGER.debug("Destroying log in filter");
     BUILDER.remove();
+    reporter.stop();
   }
 
   public SecurityManager getSecurityManager() {
@@ -758,6 +804,28 @@ public void setSecurityManager(SecurityManager securityManager) {
 
   public void setSignaturePropertiesFile(String signaturePropertiesFile) {
     this.signaturePropertiesFile = signaturePropertiesFile;
+    // assertions have to be verified again against the new trust store
+    VerifiedAssertionCache cache = verifiedAssertionCache;
+    if (cache != null) {
+      cache.clear();
+    }
+  }
+
+  /**
+   * Sets the maximum number of verified SAML assertions that are cached.
+   *
+   * @param verifiedAssertionCacheSize maximum number of assertions, 0 disables the cache
+   */
+  public void setVerifiedAssertionCacheSize(long verifiedAssertionCacheSize) {
+    if (verifiedAssertionCacheSize > 0) {
+      verifiedAssertionCache = new VerifiedAssertionCache(verifiedAssertionCacheSize, metrics);
+    } else {
+      verifiedAssertionCache = null;
+    }
+  }
+
+  VerifiedAssertionCache getVerifiedAssertionCache() {
+    return verifiedAssertionCache;
   }
 
   /**
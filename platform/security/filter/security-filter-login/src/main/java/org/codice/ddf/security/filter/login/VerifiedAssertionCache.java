@@ -0,0 +1,172 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.security.filter.login;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang.StringUtils;
+import org.apache.xml.security.Init;
+import org.apache.xml.security.c14n.CanonicalizationException;
+import org.apache.xml.security.c14n.Canonicalizer;
+import org.apache.xml.security.c14n.InvalidCanonicalizerException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Element;
+
+/**
+ * Bounded cache of SAML assertions that passed signature and conditions validation. Entries are
+ * keyed by the assertion ID and a SHA-256 digest of the exclusive canonical form of the assertion,
+ * so any change to a cached assertion is a miss, and expire at the assertion's {@code
+ * NotOnOrAfter}.
+ *
+ * <p>This class is thread-safe.
+ */
+class VerifiedAssertionCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(VerifiedAssertionCache.class);
+
+  /** Upper bound on how long an entry is kept, whatever the assertion's expiration. */
+  private static final long MAXIMUM_LIFETIME_MINUTES = 60;
+
+  private final Cache<String, VerifiedAssertion> cache;
+
+  private final Clock clock;
+
+  private final Meter hits;
+
+  private final Meter misses;
+
+  /**
+   * @param maximumSize maximum number of cached assertions
+   * @param metrics registry of the hit and miss meters, shared by the caches of a filter
+   */
+  VerifiedAssertionCache(long maximumSize, MetricRegistry metrics) {
+    this(maximumSize, metrics, Clock.systemUTC());
+  }
+
+  VerifiedAssertionCache(long maximumSize, MetricRegistry metrics, Clock clock) {
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(MAXIMUM_LIFETIME_MINUTES, TimeUnit.MINUTES)
+            .build();
+    this.clock = clock;
+    this.hits = metrics.meter("SamlAssertionCache.Hits");
+    this.misses = metrics.meter("SamlAssertionCache.Misses");
+  }
+
+  /**
+   * Returns the cache key of a SAML assertion.
+   *
+   * @param assertion the SAML 2.0 assertion element
+   * @return the cache key, or {@code null} if the assertion can't be cached
+   */
+  String getKey(Element assertion) {
+    String id = assertion.getAttributeNS(null, "ID");
+    if (StringUtils.isEmpty(id)) {
+      return null;
+    }
+
+    try {
+      if (!Init.isInitialized()) {
+        Init.init();
+      }
+      byte[] canonical =
+          Canonicalizer.getInstance(Canonicalizer.ALGO_ID_C14N_EXCL_OMIT_COMMENTS)
+              .canonicalizeSubtree(assertion);
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(canonical);
+      return id + ':' + Base64.getEncoder().encodeToString(digest);
+    } catch (InvalidCanonicalizerException
+        | CanonicalizationException
+        | NoSuchAlgorithmException e) {
+      LOGGER.debug("Unable to compute the digest of SAML assertion {}.", id, e);
+      return null;
+    }
+  }
+
+  /**
+   * @param key the cache key of the assertion
+   * @return the verified assertion, or {@code null} if the assertion has not been verified or has
+   *     expired
+   */
+  VerifiedAssertion get(String key) {
+    VerifiedAssertion verifiedAssertion = cache.getIfPresent(key);
+    if (verifiedAssertion != null && verifiedAssertion.notOnOrAfter <= clock.millis()) {
+      cache.invalidate(key);
+      verifiedAssertion = null;
+    }
+
+    if (verifiedAssertion == null) {
+      misses.mark();
+    } else {
+      hits.mark();
+    }
+    return verifiedAssertion;
+  }
+
+  /**
+   * Records an assertion that passed validation.
+   *
+   * @param key the cache key of the assertion
+   * @param notOnOrAfter the expiration of the assertion
+   * @param holderOfKey whether the assertion has to be confirmed against the client certificate of
+   *     each request
+   */
+  void put(String key, Date notOnOrAfter, boolean holderOfKey) {
+    if (notOnOrAfter.getTime() > clock.millis()) {
+      cache.put(key, new VerifiedAssertion(notOnOrAfter.getTime(), holderOfKey));
+    }
+  }
+
+  long size() {
+    cache.cleanUp();
+    return cache.size();
+  }
+
+  void clear() {
+    cache.invalidateAll();
+  }
+
+  long getHitCount() {
+    return hits.getCount();
+  }
+
+  long getMissCount() {
+    return misses.getCount();
+  }
+
+  static class VerifiedAssertion {
+
+    private final long notOnOrAfter;
+
+    private final boolean holderOfKey;
+
+    private VerifiedAssertion(long notOnOrAfter, boolean holderOfKey) {
+      this.notOnOrAfter = notOnOrAfter;
+      this.holderOfKey = holderOfKey;
+    }
+
+    boolean isHolderOfKey() {
+      return holderOfKey;
+    }
+  }
+}
@@ -13,6 +13,8 @@
  */
 package org.codice.ddf.security.filter.login;
 
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
 import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
 import static org.mockito.Mockito.mock;
@@ -281,6 +283,33 @@ public void testBadSigSamlCookie()
     loginFilter.doFilter(servletRequest, servletResponse, filterChain);
   }
 
+  @Test
+  public void testBadSigSamlCookieIsNotCached()
+      throws IOException, ServletException, ParserConfigurationException, SAXException {
+    LoginFilter loginFilter = new LoginFilter();
+    loginFilter.setSessionFactory(sessionFactory);
+    loginFilter.setSecurityManager(mock(SecurityManager.class));
+    loginFilter.setSignaturePropertiesFile("signature.properties");
+    loginFilter.init(mock(FilterConfig.class));
+
+    SecurityToken securityToken = new SecurityToken();
+    securityToken.setToken(readDocument("/bad_saml.xml").getDocumentElement());
+    SAMLAuthenticationToken samlToken = new SAMLAuthenticationToken(null, securityToken, "karaf");
+    HttpServletRequest servletRequest = new TestHttpServletRequest();
+    servletRequest.setAttribute(
+        "ddf.security.token", new HandlerResult(HandlerResult.Status.COMPLETED, samlToken));
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        loginFilter.doFilter(
+            servletRequest, mock(HttpServletResponse.class), mock(FilterChain.class));
+        fail("Should not have accepted an assertion with a bad signature");
+      } catch (ServletException e) {
+        assertThat(loginFilter.getVerifiedAssertionCache().size(), is(0L));
+      }
+    }
+  }
+
   private Document readDocument(String name)
       throws SAXException, IOException, ParserConfigurationException {
     InputStream inStream = getClass().getResourceAsStream(name);
@@ -0,0 +1,203 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.security.filter.login;
+
+import static org.mockito.Mockito.mock;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.KeyStore;
+import java.security.cert.Certificate;
+import java.security.cert.X509Certificate;
+import java.util.Date;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterConfig;
+import javax.servlet.http.HttpServletRequest;
+import org.apache.cxf.helpers.DOMUtils;
+import org.apache.wss4j.common.saml.OpenSAMLUtil;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.cert.jcajce.JcaX509CertificateConverter;
+import org.bouncycastle.cert.jcajce.JcaX509v3CertificateBuilder;
+import org.bouncycastle.operator.jcajce.JcaContentSignerBuilder;
+import org.opensaml.saml.saml2.core.Assertion;
+import org.opensaml.security.x509.BasicX509Credential;
+import org.opensaml.xmlsec.keyinfo.impl.X509KeyInfoGeneratorFactory;
+import org.opensaml.xmlsec.signature.Signature;
+import org.opensaml.xmlsec.signature.support.SignatureConstants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Element;
+
+/**
+ * Compares how many times per second {@link LoginFilter#validateAssertion(HttpServletRequest,
+ * Element)} validates the same signed assertion with and without the {@link
+ * VerifiedAssertionCache}. The demo certificate that signed good_saml.xml has expired, so the
+ * assertion is signed again with a certificate generated for the run, which the signature
+ * properties of the filter trust. Not run as part of the build.
+ *
+ * <p>Usage: {@code VerifiedAssertionCacheBenchmark [validations]}
+ */
+public class VerifiedAssertionCacheBenchmark {
+
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(VerifiedAssertionCacheBenchmark.class);
+
+  private static final String ALIAS = "benchmark";
+
+  private static final String PASSWORD = "changeit";
+
+  public static void main(String[] args) throws Exception {
+    int validations = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+
+    OpenSAMLUtil.initSamlEngine();
+
+    KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+    keyPairGenerator.initialize(2048);
+    KeyPair keyPair = keyPairGenerator.generateKeyPair();
+    X509Certificate certificate = createCertificate(keyPair);
+
+    Path keystoreFile = Files.createTempFile("benchmarkKeystore", ".jks");
+    Path signatureProperties = Files.createTempFile("benchmarkSignature", ".properties");
+    LoginFilter loginFilter = new LoginFilter();
+    try {
+      writeKeystore(keystoreFile, keyPair, certificate);
+      writeSignatureProperties(signatureProperties, keystoreFile);
+
+      loginFilter.setSignaturePropertiesFile(signatureProperties.toString());
+      loginFilter.init(mock(FilterConfig.class));
+      HttpServletRequest servletRequest = mock(HttpServletRequest.class);
+      Element token = signAssertion(keyPair, certificate);
+
+      // fails the run if the signed assertion doesn't pass the full validation
+      loginFilter.setVerifiedAssertionCacheSize(0);
+      loginFilter.validateAssertion(servletRequest, token);
+
+      for (int round = 0; round < 2; round++) {
+        // the first round warms up the JIT
+        loginFilter.setVerifiedAssertionCacheSize(0);
+        report("Uncached", validations, validate(loginFilter, servletRequest, token, validations));
+
+        loginFilter.setVerifiedAssertionCacheSize(1);
+        report("Cached", validations, validate(loginFilter, servletRequest, token, validations));
+        LOGGER.info("{} cache hits", loginFilter.getVerifiedAssertionCache().getHitCount());
+      }
+    } finally {
+      loginFilter.destroy();
+      Files.deleteIfExists(keystoreFile);
+      Files.deleteIfExists(signatureProperties);
+    }
+  }
+
+  private static long validate(
+      LoginFilter loginFilter, HttpServletRequest servletRequest, Element token, int validations)
+      throws Exception {
+    long start = System.nanoTime();
+    for (int i = 0; i < validations; i++) {
+      loginFilter.validateAssertion(servletRequest, token);
+    }
+    return System.nanoTime() - start;
+  }
+
+  private static X509Certificate createCertificate(KeyPair keyPair) throws Exception {
+    X500Name name = new X500Name("CN=localhost, OU=Dev, O=DDF");
+    long now = System.currentTimeMillis();
+
+    return new JcaX509CertificateConverter()
+        .getCertificate(
+            new JcaX509v3CertificateBuilder(
+                    name,
+                    BigInteger.valueOf(now),
+                    new Date(now - TimeUnit.DAYS.toMillis(1)),
+                    new Date(now + TimeUnit.DAYS.toMillis(1)),
+                    name,
+                    keyPair.getPublic())
+                .build(new JcaContentSignerBuilder("SHA256withRSA").build(keyPair.getPrivate())));
+  }
+
+  private static void writeKeystore(Path keystoreFile, KeyPair keyPair, X509Certificate certificate)
+      throws Exception {
+    KeyStore keyStore = KeyStore.getInstance("jks");
+    keyStore.load(null, null);
+    keyStore.setKeyEntry(
+        ALIAS, keyPair.getPrivate(), PASSWORD.toCharArray(), new Certificate[] {certificate});
+
+    try (OutputStream output = Files.newOutputStream(keystoreFile)) {
+      keyStore.store(output, PASSWORD.toCharArray());
+    }
+  }
+
+  /** Writes the properties of signature.properties, with the generated keystore. */
+  private static void writeSignatureProperties(Path signatureProperties, Path keystoreFile)
+      throws Exception {
+    Properties properties = new Properties();
+    properties.setProperty(
+        "org.apache.ws.security.crypto.provider", "org.apache.wss4j.common.crypto.Merlin");
+    properties.setProperty("org.apache.ws.security.crypto.merlin.keystore.type", "jks");
+    properties.setProperty("org.apache.ws.security.crypto.merlin.keystore.password", PASSWORD);
+    properties.setProperty(
+        "org.apache.ws.security.crypto.merlin.keystore.private.password", PASSWORD);
+    properties.setProperty("org.apache.ws.security.crypto.merlin.keystore.alias", ALIAS);
+    properties.setProperty(
+        "org.apache.ws.security.crypto.merlin.keystore.file", keystoreFile.toString());
+
+    try (Writer writer = Files.newBufferedWriter(signatureProperties, StandardCharsets.UTF_8)) {
+      properties.store(writer, null);
+    }
+  }
+
+  /** @return the assertion of good_saml.xml, signed with the generated certificate */
+  private static Element signAssertion(KeyPair keyPair, X509Certificate certificate)
+      throws Exception {
+    Element token;
+    try (InputStream input =
+        VerifiedAssertionCacheBenchmark.class.getResourceAsStream("/good_saml.xml")) {
+      token = LoginFilterTest.readXml(input).getDocumentElement();
+    }
+    Assertion assertion = (Assertion) OpenSAMLUtil.fromDom(token);
+
+    BasicX509Credential signingCredential = new BasicX509Credential(certificate);
+    signingCredential.setPrivateKey(keyPair.getPrivate());
+
+    X509KeyInfoGeneratorFactory keyInfoGeneratorFactory = new X509KeyInfoGeneratorFactory();
+    keyInfoGeneratorFactory.setEmitEntityCertificate(true);
+
+    Signature signature = OpenSAMLUtil.buildSignature();
+    signature.setCanonicalizationAlgorithm(SignatureConstants.ALGO_ID_C14N_EXCL_OMIT_COMMENTS);
+    signature.setSignatureAlgorithm(SignatureConstants.ALGO_ID_SIGNATURE_RSA_SHA256);
+    signature.setSigningCredential(signingCredential);
+    signature.setKeyInfo(keyInfoGeneratorFactory.newInstance().generate(signingCredential));
+
+    assertion.setSignature(signature);
+    assertion.releaseDOM();
+    assertion.releaseChildrenDOM(true);
+
+    // marshalling signs the assertion
+    return OpenSAMLUtil.toDom(assertion, DOMUtils.createDocument());
+  }
+
+  private static void report(String name, int validations, long nanos) {
+    LOGGER.info(
+        "{}: {} validations/s",
+        name,
+        validations * TimeUnit.SECONDS.toNanos(1) / Math.max(nanos, 1));
+  }
+}
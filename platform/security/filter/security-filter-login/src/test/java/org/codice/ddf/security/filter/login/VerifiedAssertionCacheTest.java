@@ -0,0 +1,128 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.security.filter.login;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.codahale.metrics.MetricRegistry;
+import java.time.Clock;
+import java.util.Date;
+import org.junit.Before;
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+public class VerifiedAssertionCacheTest {
+
+  private static final long NOW = 1500000000000L;
+
+  private static final Date NOT_ON_OR_AFTER = new Date(NOW + 60000);
+
+  private Clock clock;
+
+  private VerifiedAssertionCache cache;
+
+  private Element assertion;
+
+  @Before
+  public void setup() throws Exception {
+    clock = mock(Clock.class);
+    when(clock.millis()).thenReturn(NOW);
+    cache = new VerifiedAssertionCache(10, new MetricRegistry(), clock);
+    assertion =
+        LoginFilterTest.readXml(getClass().getResourceAsStream("/good_saml.xml"))
+            .getDocumentElement();
+  }
+
+  @Test
+  public void testKeyIsStable() throws Exception {
+    Element copy =
+        LoginFilterTest.readXml(getClass().getResourceAsStream("/good_saml.xml"))
+            .getDocumentElement();
+
+    assertThat(cache.getKey(assertion), notNullValue());
+    assertThat(cache.getKey(copy), is(cache.getKey(assertion)));
+  }
+
+  @Test
+  public void testKeyChangesWithContent() {
+    String key = cache.getKey(assertion);
+
+    assertion.setAttributeNS(null, "IssueInstant", "2015-03-02T20:00:33.626Z");
+
+    assertThat(cache.getKey(assertion), not(key));
+  }
+
+  @Test
+  public void testNoKeyWithoutId() {
+    assertion.removeAttributeNS(null, "ID");
+
+    assertThat(cache.getKey(assertion), nullValue());
+  }
+
+  @Test
+  public void testHitAndMiss() {
+    String key = cache.getKey(assertion);
+
+    assertThat(cache.get(key), nullValue());
+    cache.put(key, NOT_ON_OR_AFTER, true);
+    VerifiedAssertionCache.VerifiedAssertion verifiedAssertion = cache.get(key);
+
+    assertThat(verifiedAssertion.isHolderOfKey(), is(true));
+    assertThat(cache.getHitCount(), is(1L));
+    assertThat(cache.getMissCount(), is(1L));
+  }
+
+  @Test
+  public void testExpiresAtNotOnOrAfter() {
+    cache.put("key", NOT_ON_OR_AFTER, false);
+    when(clock.millis()).thenReturn(NOT_ON_OR_AFTER.getTime() - 1);
+    assertThat(cache.get("key"), notNullValue());
+
+    when(clock.millis()).thenReturn(NOT_ON_OR_AFTER.getTime());
+
+    assertThat(cache.get("key"), nullValue());
+    assertThat(cache.size(), is(0L));
+  }
+
+  @Test
+  public void testExpiredAssertionIsNotCached() {
+    cache.put("key", new Date(NOW), false);
+
+    assertThat(cache.size(), is(0L));
+  }
+
+  @Test
+  public void testSizeIsBounded() {
+    for (int i = 0; i < 20; i++) {
+      cache.put("key" + i, NOT_ON_OR_AFTER, false);
+    }
+
+    assertThat(cache.size(), is(10L));
+  }
+
+  @Test
+  public void testClear() {
+    cache.put("key", NOT_ON_OR_AFTER, false);
+
+    cache.clear();
+
+    assertThat(cache.get("key"), nullValue());
+  }
+}
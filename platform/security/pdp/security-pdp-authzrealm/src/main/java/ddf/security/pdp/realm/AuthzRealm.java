@@ -23,11 +23,13 @@
 import ddf.security.policy.extension.PolicyExtension;
 import ddf.security.service.impl.AbstractAuthorizingRealm;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import org.apache.shiro.authc.AuthenticationException;
 import org.apache.shiro.authc.AuthenticationInfo;
@@ -181,32 +183,91 @@ public boolean isPermitted(PrincipalCollection subjectPrincipal, Permission perm
   public boolean[] isPermitted(PrincipalCollection subjectPrincipal, List<Permission> permissions) {
     boolean[] results = new boolean[permissions.size()];
     AuthorizationInfo authorizationInfo = getAuthorizationInfo(subjectPrincipal);
+    Collection<Permission> perms = getPermissions(authorizationInfo);
     List<Permission> expandedPermissions = expandPermissions(permissions);
+
+    // the results of a query tend to share a handful of security markings, so each distinct
+    // marking is only checked once per batch
+    Map<List<Object>, Boolean> decisions = new HashMap<>();
     int i = 0;
     for (Permission permission : expandedPermissions) {
-      results[i++] = isPermitted(subjectPrincipal, permission, authorizationInfo);
+      List<Object> markingKey = getMarkingKey(permission);
+      Boolean decision = markingKey == null ? null : decisions.get(markingKey);
+
+      if (decision == null) {
+        decision = isPermitted(subjectPrincipal, permission, authorizationInfo, perms);
+        if (markingKey != null) {
+          decisions.put(markingKey, decision);
+        }
+      } else if (!decision) {
+        SecurityLogger.audit(
+            PERMISSION_FINISH_1_MSG
+                + getUserName(subjectPrincipal)
+                + PERMISSION_FINISH_2_MSG
+                + permission
+                + "] is not implied.");
+      }
+
+      results[i++] = decision;
     }
 
+    LOGGER.debug(
+        "Checked {} permissions with {} distinct markings.",
+        expandedPermissions.size(),
+        decisions.size());
+
     return results;
   }
 
+  /**
+   * Returns a key that is equal for key value permissions that carry the same action and security
+   * markings, or {@code null} for other permissions.
+   */
+  private List<Object> getMarkingKey(Permission permission) {
+    String action;
+    List<KeyValuePermission> keyValuePermissions;
+
+    if (permission instanceof KeyValueCollectionPermission) {
+      action = ((KeyValueCollectionPermission) permission).getAction();
+      keyValuePermissions = ((KeyValueCollectionPermission) permission).getKeyValuePermissionList();
+    } else if (permission instanceof KeyValuePermission) {
+      action = CollectionPermission.UNKNOWN_ACTION;
+      keyValuePermissions = Collections.singletonList((KeyValuePermission) permission);
+    } else {
+      return null;
+    }
+
+    Set<List<Object>> markings = new HashSet<>();
+    for (KeyValuePermission keyValuePermission : keyValuePermissions) {
+      markings.add(
+          Arrays.asList(
+              keyValuePermission.getKey(), new HashSet<>(keyValuePermission.getValues())));
+    }
+    return Arrays.asList(permission.getClass(), action, markings);
+  }
+
+  private String getUserName(PrincipalCollection subjectPrincipal) {
+    if (subjectPrincipal != null && subjectPrincipal.getPrimaryPrincipal() != null) {
+      return subjectPrincipal.getPrimaryPrincipal().toString();
+    }
+    return "<user>";
+  }
+
   /**
    * Checks if the corresponding Subject/user contained within the AuthorizationInfo object implies
    * the given Permission.
    *
    * @param permission the permission being checked.
    * @param authorizationInfo the application-specific subject/user identifier.
+   * @param perms the permissions of the subject/user.
    * @return true if the user is permitted
    */
   private boolean isPermitted(
       PrincipalCollection subjectPrincipal,
       Permission permission,
-      AuthorizationInfo authorizationInfo) {
-    Collection<Permission> perms = getPermissions(authorizationInfo);
-    String curUser = "<user>";
-    if (subjectPrincipal != null && subjectPrincipal.getPrimaryPrincipal() != null) {
-      curUser = subjectPrincipal.getPrimaryPrincipal().toString();
-    }
+      AuthorizationInfo authorizationInfo,
+      Collection<Permission> perms) {
+    String curUser = getUserName(subjectPrincipal);
     if (!CollectionUtils.isEmpty(perms)) {
       if (permission instanceof KeyValuePermission) {
         permission =
@@ -517,5 +578,6 @@ public void setMatchOneMappings(List<String> list) {
   public void setEnvironmentAttributes(List<String> environmentAttributes) {
     this.environmentAttributes.clear();
     this.environmentAttributes.addAll(environmentAttributes);
+    xacmlPdp.clearDecisionCache();
   }
 }
@@ -13,6 +13,11 @@
  */
 package ddf.security.pdp.realm.xacml;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.google.common.net.InetAddresses;
 import ddf.security.common.audit.SecurityLogger;
 import ddf.security.pdp.realm.xacml.processor.PdpException;
@@ -20,14 +25,17 @@
 import ddf.security.permission.CollectionPermission;
 import ddf.security.permission.KeyValueCollectionPermission;
 import ddf.security.permission.KeyValuePermission;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Objects;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.AttributeType;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.AttributeValueType;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.AttributesType;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.DecisionType;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.RequestType;
-import oasis.names.tc.xacml._3_0.core.schema.wd_17.ResponseType;
 import org.apache.commons.validator.routines.CalendarValidator;
 import org.apache.commons.validator.routines.DateValidator;
 import org.apache.commons.validator.routines.DoubleValidator;
@@ -94,19 +102,38 @@ public class XacmlPdp {
 
   private static final String FILTER_ACTION = "filter";
 
+  private static final long DECISION_CACHE_SIZE = 10000;
+
   private XacmlClient pdp;
 
   private List<String> environmentAttributes;
 
+  /**
+   * Decisions of the PDP keyed by the subject attributes, resource attributes and action of the
+   * request. The cache is replaced rather than cleared when the policies change, so a decision made
+   * with the previous policies can only end up in a cache that is no longer used.
+   */
+  private volatile Cache<DecisionKey, Boolean> decisionCache = createDecisionCache();
+
   /** Creates a general */
   public XacmlPdp(String dirPath, Parser parser, List<String> environmentAttributes)
       throws PdpException {
     super();
     pdp = new XacmlClient(dirPath, parser);
+    pdp.addPolicyReloadListener(this::clearDecisionCache);
     this.environmentAttributes = environmentAttributes;
     LOGGER.debug("Creating new PDP-backed Authorizing Realm");
   }
 
+  /**
+   * Discards the cached decisions. Must be called whenever something other than the subject,
+   * resource and action of a request changes its decision, such as the environment attributes.
+   */
+  public void clearDecisionCache() {
+    LOGGER.debug("Clearing XACML decision cache.");
+    decisionCache = createDecisionCache();
+  }
+
   public boolean isPermitted(
       String primaryPrincipal, AuthorizationInfo info, KeyValueCollectionPermission curPermission) {
     boolean curResponse;
@@ -133,11 +160,32 @@ public boolean isPermitted(
       return true;
     }
 
+    Cache<DecisionKey, Boolean> cache = decisionCache;
+    DecisionKey decisionKey =
+        new DecisionKey(
+            getSubjectFingerprint(primaryPrincipal, info),
+            getResourceFingerprint(curPermission),
+            curPermission.getAction());
+
+    Boolean cachedResponse = cache.getIfPresent(decisionKey);
+    if (cachedResponse != null) {
+      LOGGER.debug("Found cached XACML decision, permitted: {}", cachedResponse);
+      return cachedResponse;
+    }
+
     LOGGER.debug("Received authZ info, creating XACML request.");
     RequestType curRequest = createXACMLRequest(primaryPrincipal, info, curPermission);
     LOGGER.debug("Created XACML request, calling PDP.");
 
-    curResponse = isPermitted(curRequest);
+    try {
+      curResponse = evaluate(curRequest);
+    } catch (PdpException e) {
+      // errors aren't cached so the request is evaluated again next time
+      LOGGER.debug(e.getMessage(), e);
+      return false;
+    }
+
+    cache.put(decisionKey, curResponse);
     return curResponse;
   }
 
@@ -227,25 +275,83 @@ protected RequestType createXACMLRequest(
   }
 
   protected boolean isPermitted(RequestType xacmlRequest) {
-    boolean permitted;
-    ResponseType xacmlResponse;
-
     try {
-      LOGGER.debug("Calling PDP to evaluate XACML request.");
-      xacmlResponse = pdp.evaluate(xacmlRequest);
-      LOGGER.debug("Received response from PDP.");
-      permitted =
-          xacmlResponse != null
-              && xacmlResponse.getResult().get(0).getDecision() == DecisionType.PERMIT;
-      LOGGER.debug("Permitted: {}", permitted);
+      return evaluate(xacmlRequest);
     } catch (PdpException e) {
       LOGGER.debug(e.getMessage(), e);
-      permitted = false;
+      return false;
     }
+  }
 
+  protected boolean evaluate(RequestType xacmlRequest) throws PdpException {
+    LOGGER.debug("Calling PDP to evaluate XACML request.");
+    DecisionType decision = pdp.evaluateDecision(xacmlRequest);
+    LOGGER.debug("Received response from PDP.");
+    boolean permitted = decision == DecisionType.PERMIT;
+    LOGGER.debug("Permitted: {}", permitted);
     return permitted;
   }
 
+  private static Cache<DecisionKey, Boolean> createDecisionCache() {
+    return CacheBuilder.newBuilder().maximumSize(DECISION_CACHE_SIZE).build();
+  }
+
+  /**
+   * Fingerprints everything {@link #createSubjectAttributes(String, AuthorizationInfo)} puts in the
+   * request. Attribute values are bags in XACML, so their order is not part of the fingerprint.
+   */
+  private HashCode getSubjectFingerprint(String subject, AuthorizationInfo info) {
+    List<String> entries = new ArrayList<>();
+    if (info.getRoles() != null) {
+      entries.add(encode(ROLE_CLAIM, info.getRoles()));
+    }
+    if (info.getObjectPermissions() != null) {
+      for (Permission permission : info.getObjectPermissions()) {
+        if (permission instanceof KeyValuePermission) {
+          KeyValuePermission keyValuePermission = (KeyValuePermission) permission;
+          entries.add(encode(keyValuePermission.getKey(), keyValuePermission.getValues()));
+        }
+      }
+    }
+    return fingerprint(String.valueOf(subject), entries);
+  }
+
+  /**
+   * Fingerprints the resource attributes {@link #createXACMLRequest(String, AuthorizationInfo,
+   * CollectionPermission)} puts in the request.
+   */
+  private HashCode getResourceFingerprint(KeyValueCollectionPermission permission) {
+    List<String> entries = new ArrayList<>();
+    for (KeyValuePermission keyValuePermission : permission.getKeyValuePermissionList()) {
+      entries.add(encode(keyValuePermission.getKey(), keyValuePermission.getValues()));
+    }
+    return fingerprint("", entries);
+  }
+
+  private HashCode fingerprint(String prefix, List<String> entries) {
+    Collections.sort(entries);
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(prefix, StandardCharsets.UTF_8).putInt(entries.size());
+    for (String entry : entries) {
+      hasher.putInt(entry.length()).putString(entry, StandardCharsets.UTF_8);
+    }
+    return hasher.hash();
+  }
+
+  /** Length prefixes keep the encoding unambiguous whatever characters the values contain. */
+  private String encode(String key, Iterable<String> values) {
+    List<String> sortedValues = new ArrayList<>();
+    values.forEach(sortedValues::add);
+    Collections.sort(sortedValues);
+
+    StringBuilder entry = new StringBuilder();
+    entry.append(key.length()).append(':').append(key);
+    for (String value : sortedValues) {
+      entry.append(value.length()).append(':').append(value);
+    }
+    return entry.toString();
+  }
+
   private AttributesType createSubjectAttributes(String subject, AuthorizationInfo info) {
     AttributesType subjectAttributes = new AttributesType();
     subjectAttributes.setCategory(ACCESS_SUBJECT_CATEGORY);
@@ -342,4 +448,38 @@ protected String getXacmlDataType(String curPermValue) {
     }
     return STRING_DATA_TYPE;
   }
+
+  private static final class DecisionKey {
+
+    private final HashCode subject;
+
+    private final HashCode resource;
+
+    private final String action;
+
+    private DecisionKey(HashCode subject, HashCode resource, String action) {
+      this.subject = subject;
+      this.resource = resource;
+      this.action = action;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      DecisionKey that = (DecisionKey) o;
+      return subject.equals(that.subject)
+          && resource.equals(that.resource)
+          && Objects.equals(action, that.action);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(subject, resource, action);
+    }
+  }
 }
@@ -23,7 +23,9 @@
 import java.nio.file.Paths;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.apache.commons.io.monitor.FileAlterationListener;
 import org.apache.commons.io.monitor.FileAlterationMonitor;
 import org.apache.commons.io.monitor.FileAlterationObserver;
@@ -47,6 +49,8 @@ public class PollingPolicyFinderModule extends FileBasedPolicyFinderModule
 
   private Set<String> xacmlPolicyDirectories;
 
+  private final List<Runnable> reloadListeners = new CopyOnWriteArrayList<>();
+
   /**
    * @param xacmlPolicyDirectories - to search for policies
    * @param pollingInterval - in seconds
@@ -200,8 +204,26 @@ private FileFilter getXmlFileFilter() {
     return pathName -> pathName.getName().toLowerCase().endsWith(".xml");
   }
 
+  /**
+   * Registers a listener that is run after the policies have been reloaded, such as a cache of
+   * decisions made with the previous policies.
+   *
+   * @param listener - to run after each reload
+   */
+  public void addReloadListener(Runnable listener) {
+    reloadListeners.add(listener);
+  }
+
   public void reloadPolicies() {
     LOGGER.debug("Reloading XACML policies");
     this.loadPolicies();
+
+    for (Runnable listener : reloadListeners) {
+      try {
+        listener.run();
+      } catch (RuntimeException e) {
+        LOGGER.info("Unable to notify listener of XACML policy reload.", e);
+      }
+    }
   }
 }
@@ -15,6 +15,11 @@
 
 import com.connexta.arbitro.PDP;
 import com.connexta.arbitro.PDPConfig;
+import com.connexta.arbitro.ParsingException;
+import com.connexta.arbitro.ctx.AbstractRequestCtx;
+import com.connexta.arbitro.ctx.AbstractResult;
+import com.connexta.arbitro.ctx.RequestCtxFactory;
+import com.connexta.arbitro.ctx.ResponseCtx;
 import com.connexta.arbitro.finder.AttributeFinder;
 import com.connexta.arbitro.finder.AttributeFinderModule;
 import com.connexta.arbitro.finder.PolicyFinder;
@@ -29,16 +34,19 @@
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.Marshaller;
+import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMResult;
 import javax.xml.transform.sax.SAXSource;
+import oasis.names.tc.xacml._3_0.core.schema.wd_17.DecisionType;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.ObjectFactory;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.RequestType;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.ResponseType;
@@ -50,6 +58,7 @@
 import org.codice.ddf.platform.util.XMLUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
 import org.xml.sax.Attributes;
 import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
@@ -80,6 +89,8 @@ public class XacmlClient {
 
   private PDP pdp;
 
+  private PollingPolicyFinderModule policyFinderModule;
+
   private Set<String> xacmlPolicyDirectories;
 
   private final Parser parser;
@@ -148,6 +159,61 @@ public ResponseType evaluate(RequestType xacmlRequestType) throws PdpException {
     return unmarshal(domResult);
   }
 
+  /**
+   * Evaluates the XACML request and returns the decision of its first result. Unlike {@link
+   * #evaluate(RequestType)}, the request is marshalled straight to a DOM that the PDP reads, and
+   * the decision is read from the PDP response without serializing and re-parsing it.
+   *
+   * @param xacmlRequestType XACML request
+   * @return XACML decision
+   * @throws PdpException
+   */
+  public DecisionType evaluateDecision(RequestType xacmlRequestType) throws PdpException {
+    Document xacmlRequest = marshalToDocument(xacmlRequestType);
+
+    AbstractRequestCtx requestCtx;
+    try {
+      requestCtx = RequestCtxFactory.getFactory().getRequestCtx(xacmlRequest.getDocumentElement());
+    } catch (ParsingException e) {
+      String message = "Unable to read XACML request.";
+      LOGGER.info(message, e);
+      throw new PdpException(message, e);
+    }
+
+    ResponseCtx responseCtx = pdp.evaluate(requestCtx);
+
+    Iterator<AbstractResult> results = responseCtx.getResults().iterator();
+    if (!results.hasNext()) {
+      throw new PdpException("XACML response did not contain a result.");
+    }
+
+    DecisionType decision = toDecisionType(results.next().getDecision());
+    LOGGER.debug("XACML 3.0 decision from XACML PDP: {}", decision);
+    return decision;
+  }
+
+  /**
+   * Registers a listener that is run every time the XACML policies are reloaded.
+   *
+   * @param listener to run after each reload
+   */
+  public void addPolicyReloadListener(Runnable listener) {
+    policyFinderModule.addReloadListener(listener);
+  }
+
+  private DecisionType toDecisionType(int decision) {
+    switch (decision) {
+      case AbstractResult.DECISION_PERMIT:
+        return DecisionType.PERMIT;
+      case AbstractResult.DECISION_DENY:
+        return DecisionType.DENY;
+      case AbstractResult.DECISION_NOT_APPLICABLE:
+        return DecisionType.NOT_APPLICABLE;
+      default:
+        return DecisionType.INDETERMINATE;
+    }
+  }
+
   /** Creates the XACML PDP. */
   private void createPdp(PDPConfig pdpConfig) {
     LOGGER.debug("Creating PDP of type: {}", PDP.class.getName());
@@ -182,7 +248,7 @@ private PolicyFinder createPolicyFinder() {
         "XACML policies will be looked for in the following location(s): {}",
         xacmlPolicyDirectories);
     PolicyFinder policyFinder = new PolicyFinder();
-    PollingPolicyFinderModule policyFinderModule =
+    policyFinderModule =
         new PollingPolicyFinderModule(xacmlPolicyDirectories, defaultPollingIntervalInSeconds);
     policyFinderModule.start();
     Set<PolicyFinderModule> policyFinderModules = new HashSet<>(1);
@@ -323,6 +389,32 @@ private String marshal(RequestType xacmlRequestType) throws PdpException {
     return xacmlRequest;
   }
 
+  /**
+   * Marshalls the XACML request to a DOM document.
+   *
+   * @param xacmlRequestType The XACML request to marshal.
+   * @return A namespace aware DOM representation of the XACML request.
+   */
+  private Document marshalToDocument(RequestType xacmlRequestType) throws PdpException {
+    if (null == parser) {
+      throw new IllegalStateException("XMLParser must be configured.");
+    }
+
+    try {
+      List<String> ctxPath = ImmutableList.of(ResponseType.class.getPackage().getName());
+      ParserConfigurator configurator =
+          parser.configureParser(ctxPath, XacmlClient.class.getClassLoader());
+      Document document = XML_UTILS.getSecureDocumentBuilder(true).newDocument();
+      ObjectFactory objectFactory = new ObjectFactory();
+      parser.marshal(configurator, objectFactory.createRequest(xacmlRequestType), document);
+      return document;
+    } catch (ParserException | ParserConfigurationException e) {
+      String message = "Unable to marshal XACML request.";
+      LOGGER.info(message, e);
+      throw new PdpException(message, e);
+    }
+  }
+
   /**
    * Unmarshalls the XACML response.
    *
@@ -231,6 +231,33 @@ public void testIsNotPermitted() {
     }
   }
 
+  @Test
+  public void testIsPermittedDuplicateMarkings() {
+    HashMap<String, List<String>> deniedSecurity = new HashMap<>();
+    deniedSecurity.put("country", Arrays.asList("AUS", "CAN", "GBR"));
+    deniedSecurity.put("rule2", Arrays.asList("A", "B", "C"));
+
+    HashMap<String, List<String>> reorderedSecurity = new HashMap<>();
+    reorderedSecurity.put("rule", Arrays.asList("B", "A"));
+    reorderedSecurity.put("country", Arrays.asList("GBR", "CAN", "AUS"));
+
+    permissionList.clear();
+    permissionList.add(new KeyValueCollectionPermission("action", security));
+    permissionList.add(new KeyValueCollectionPermission("action", deniedSecurity));
+    permissionList.add(new KeyValueCollectionPermission("action", reorderedSecurity));
+    permissionList.add(new KeyValueCollectionPermission("action", deniedSecurity));
+    permissionList.add(new KeyValueCollectionPermission("action", security));
+
+    boolean[] permittedArray = testRealm.isPermitted(mockSubjectPrincipal, permissionList);
+
+    Assert.assertEquals(5, permittedArray.length);
+    Assert.assertEquals(true, permittedArray[0]);
+    Assert.assertEquals(false, permittedArray[1]);
+    Assert.assertEquals(true, permittedArray[2]);
+    Assert.assertEquals(false, permittedArray[3]);
+    Assert.assertEquals(true, permittedArray[4]);
+  }
+
   @Test
   public void testBadPolicyExtension() {
     permissionList.clear();
@@ -35,6 +35,7 @@
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.AttributesType;
 import oasis.names.tc.xacml._3_0.core.schema.wd_17.RequestType;
 import org.apache.commons.io.IOUtils;
@@ -228,6 +229,72 @@ public void testResourceIsNotPermitted() {
     assertThat(testRealm.isPermitted(request), equalTo(false));
   }
 
+  @Test
+  public void testDecisionIsCached() throws PdpException {
+    AtomicInteger evaluations = new AtomicInteger();
+    XacmlPdp xacmlPdp = createCountingPdp(evaluations);
+
+    HashMap<String, List<String>> security = new HashMap<>();
+    security.put(RESOURCE_ACCESS, Arrays.asList(ACCESS_TYPE_A));
+
+    for (int i = 0; i < 3; i++) {
+      KeyValueCollectionPermission resourcePermissions =
+          new KeyValueCollectionPermission(CollectionPermission.READ_ACTION, security);
+      assertThat(
+          xacmlPdp.isPermitted(USER_NAME, generateSubjectInfo(TEST_COUNTRY), resourcePermissions),
+          equalTo(true));
+    }
+
+    assertThat(evaluations.get(), is(1));
+  }
+
+  @Test
+  public void testDecisionCacheKeyedByMarkingsAndSubject() throws PdpException {
+    AtomicInteger evaluations = new AtomicInteger();
+    XacmlPdp xacmlPdp = createCountingPdp(evaluations);
+
+    HashMap<String, List<String>> permitted = new HashMap<>();
+    permitted.put(RESOURCE_ACCESS, Arrays.asList(ACCESS_TYPE_A));
+    HashMap<String, List<String>> denied = new HashMap<>();
+    denied.put(RESOURCE_ACCESS, Arrays.asList(ACCESS_TYPE_A, ACCESS_TYPE_B, ACCESS_TYPE_C));
+
+    assertThat(
+        xacmlPdp.isPermitted(
+            USER_NAME,
+            generateSubjectInfo(TEST_COUNTRY),
+            new KeyValueCollectionPermission(CollectionPermission.READ_ACTION, permitted)),
+        equalTo(true));
+    assertThat(
+        xacmlPdp.isPermitted(
+            USER_NAME,
+            generateSubjectInfo(TEST_COUNTRY),
+            new KeyValueCollectionPermission(CollectionPermission.READ_ACTION, denied)),
+        equalTo(false));
+    xacmlPdp.isPermitted(
+        USER_NAME,
+        generateSubjectInfo("CAN"),
+        new KeyValueCollectionPermission(CollectionPermission.READ_ACTION, permitted));
+
+    assertThat(evaluations.get(), is(3));
+  }
+
+  @Test
+  public void testClearDecisionCache() throws PdpException {
+    AtomicInteger evaluations = new AtomicInteger();
+    XacmlPdp xacmlPdp = createCountingPdp(evaluations);
+
+    HashMap<String, List<String>> security = new HashMap<>();
+    security.put(RESOURCE_ACCESS, Arrays.asList(ACCESS_TYPE_A));
+    KeyValueCollectionPermission permission =
+        new KeyValueCollectionPermission(CollectionPermission.READ_ACTION, security);
+
+    xacmlPdp.isPermitted(USER_NAME, generateSubjectInfo(TEST_COUNTRY), permission);
+    xacmlPdp.clearDecisionCache();
+    xacmlPdp.isPermitted(USER_NAME, generateSubjectInfo(TEST_COUNTRY), permission);
+
+    assertThat(evaluations.get(), is(2));
+  }
+
   @Test
   public void testParseAttributeTypeBoolean() {
     assertThat(testRealm.getXacmlDataType("true"), is(BOOLEAN_DATA_TYPE));
@@ -321,6 +388,17 @@ public void testEnvironmentVariables() {
     assertThat(environmentAttributes.getAttribute().get(2).getAttributeValue().size(), is(3));
   }
 
+  private XacmlPdp createCountingPdp(AtomicInteger evaluations) throws PdpException {
+    return new XacmlPdp(
+        temporaryFolder.getRoot().getAbsolutePath(), new XmlParser(), new ArrayList<>()) {
+      @Override
+      protected boolean evaluate(RequestType xacmlRequest) throws PdpException {
+        evaluations.incrementAndGet();
+        return super.evaluate(xacmlRequest);
+      }
+    };
+  }
+
   private AuthorizationInfo generateSubjectInfo(String country) {
     SimpleAuthorizationInfo info = new SimpleAuthorizationInfo();
     Set<Permission> permissions = new HashSet<Permission>();
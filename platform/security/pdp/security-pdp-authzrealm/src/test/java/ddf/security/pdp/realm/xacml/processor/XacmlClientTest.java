@@ -173,6 +173,7 @@ public void testEvaluateroleuseractionquerycitizenshipUS() throws Exception {
       marshaller.marshal(objectFactory.createResponse(xacmlResponse), writer);
       LOGGER.debug("\nXACML 3.0 Response:\n{}", writer.toString());
       assertEquals(xacmlResponse.getResult().get(0).getDecision(), DecisionType.PERMIT);
+      assertEquals(DecisionType.PERMIT, pdp.evaluateDecision(xacmlRequestType));
 
       // Cleanup
       LOGGER.debug("Deleting directory: {}", destDir);
@@ -253,6 +254,7 @@ public void testEvaluateroleuseractionquerycitizenshipCA() throws Exception {
     marshaller.marshal(objectFactory.createResponse(xacmlResponse), writer);
     LOGGER.debug("\nXACML 3.0 Response:\n{}", writer.toString());
     assertEquals(xacmlResponse.getResult().get(0).getDecision(), DecisionType.DENY);
+    assertEquals(DecisionType.DENY, pdp.evaluateDecision(xacmlRequestType));
   }
 
   @Test
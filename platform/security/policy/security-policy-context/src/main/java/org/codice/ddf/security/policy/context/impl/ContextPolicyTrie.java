@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.security.policy.context.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import org.codice.ddf.security.policy.context.ContextPolicy;
+
+/**
+ * Immutable trie of context paths, used to find the policy of a request path without copying the
+ * policy store or creating substrings.
+ *
+ * <p>The trie is keyed by the segments between the prefixes that {@link
+ * PolicyManager#rollbackPath(String)} visits when rolling a path back to the root, so a lookup
+ * walks the request path once from the start and remembers the deepest configured prefix. A
+ * configured path is a policy context or a white listed context; a policy takes precedence when a
+ * path is both.
+ */
+final class ContextPolicyTrie {
+
+  private final Node root;
+
+  private final ContextPolicy rootPolicy;
+
+  private ContextPolicyTrie(Node root, ContextPolicy rootPolicy) {
+    this.root = root;
+    this.rootPolicy = rootPolicy;
+  }
+
+  /**
+   * @param policies policies by context path, has to contain the "/" context
+   * @param whiteListContexts context paths that don't have a policy
+   */
+  static ContextPolicyTrie build(
+      Map<String, ContextPolicy> policies, Collection<String> whiteListContexts) {
+    NodeBuilder root = new NodeBuilder();
+    for (String path : whiteListContexts) {
+      root.add(path).whiteListed = true;
+    }
+    for (Map.Entry<String, ContextPolicy> entry : policies.entrySet()) {
+      root.add(entry.getKey()).policy = immutableCopy(entry.getValue());
+    }
+
+    ContextPolicy rootPolicy = immutableCopy(policies.get("/"));
+    return new ContextPolicyTrie(root.build(), rootPolicy);
+  }
+
+  /**
+   * Returns the policy of the deepest context that contains the path, or the policy of the "/"
+   * context if no context within {@code traversalDepth} rollbacks of the path matches.
+   *
+   * @param path request path
+   * @param traversalDepth maximum number of times the path is rolled back, after the first
+   * @return the context policy, or {@code null} if the path is white listed
+   */
+  ContextPolicy getContextPolicy(String path, int traversalDepth) {
+    int length = path.length();
+    if (length == 0) {
+      return root.isConfigured() ? root.policy : rootPolicy;
+    }
+
+    Node node = root;
+    Node match = null;
+    int matchCount = 0;
+    int count = 0;
+    int start = 0;
+    for (int end = nextEnd(path, 0); end > 0; end = nextEnd(path, end)) {
+      count++;
+      if (node != null) {
+        node = node.getChild(path, start, end);
+        if (node != null && node.isConfigured()) {
+          match = node;
+          matchCount = count;
+        }
+      }
+      start = end;
+    }
+
+    if (match == null || count - matchCount > traversalDepth + 1) {
+      return rootPolicy;
+    }
+    return match.policy;
+  }
+
+  /**
+   * Returns the end of the next prefix of the path that is visited by {@link
+   * PolicyManager#rollbackPath(String)}, going forward. Those are the whole path, the prefix before
+   * the last slash of a run of slashes followed by a segment, and the prefix before the first slash
+   * of each run of slashes, keeping at least the leading slash.
+   *
+   * @return the end of the next prefix, or -1 if {@code from} is the end of the path
+   */
+  static int nextEnd(String path, int from) {
+    int length = path.length();
+    if (from >= length) {
+      return -1;
+    }
+
+    for (int end = from + 1; end < length; end++) {
+      if (path.charAt(end) == '/') {
+        if (path.charAt(end - 1) != '/'
+            || (end + 1 < length && path.charAt(end + 1) != '/')
+            || end == 1) {
+          return end;
+        }
+      } else if (end == 1 && path.charAt(0) == '/') {
+        return end;
+      }
+    }
+    return length;
+  }
+
+  private static ContextPolicy immutableCopy(ContextPolicy contextPolicy) {
+    return new Policy(
+        contextPolicy.getContextPath(),
+        contextPolicy.getRealm(),
+        Collections.unmodifiableList(new ArrayList<>(contextPolicy.getAuthenticationMethods())),
+        Collections.unmodifiableList(new ArrayList<>(contextPolicy.getAllowedAttributes())));
+  }
+
+  private static class Node {
+
+    private final String[] segments;
+
+    private final Node[] children;
+
+    private final ContextPolicy policy;
+
+    private final boolean whiteListed;
+
+    private Node(String[] segments, Node[] children, ContextPolicy policy, boolean whiteListed) {
+      this.segments = segments;
+      this.children = children;
+      this.policy = policy;
+      this.whiteListed = whiteListed;
+    }
+
+    private boolean isConfigured() {
+      return policy != null || whiteListed;
+    }
+
+    /** Binary search of the segments, which are sorted by {@link String#compareTo(String)}. */
+    private Node getChild(String path, int start, int end) {
+      int low = 0;
+      int high = segments.length - 1;
+      while (low <= high) {
+        int middle = (low + high) >>> 1;
+        int comparison = compare(segments[middle], path, start, end);
+        if (comparison < 0) {
+          low = middle + 1;
+        } else if (comparison > 0) {
+          high = middle - 1;
+        } else {
+          return children[middle];
+        }
+      }
+      return null;
+    }
+
+    private static int compare(String segment, String path, int start, int end) {
+      int length = Math.min(segment.length(), end - start);
+      for (int i = 0; i < length; i++) {
+        int difference = segment.charAt(i) - path.charAt(start + i);
+        if (difference != 0) {
+          return difference;
+        }
+      }
+      return segment.length() - (end - start);
+    }
+  }
+
+  private static class NodeBuilder {
+
+    private final Map<String, NodeBuilder> children = new TreeMap<>();
+
+    private ContextPolicy policy;
+
+    private boolean whiteListed;
+
+    private NodeBuilder add(String path) {
+      NodeBuilder node = this;
+      int start = 0;
+      for (int end = nextEnd(path, 0); end > 0; end = nextEnd(path, end)) {
+        node = node.children.computeIfAbsent(path.substring(start, end), key -> new NodeBuilder());
+        start = end;
+      }
+      return node;
+    }
+
+    private Node build() {
+      String[] segments = children.keySet().toArray(new String[children.size()]);
+      Node[] nodes = new Node[segments.length];
+      for (int i = 0; i < segments.length; i++) {
+        nodes[i] = children.get(segments[i]).build();
+      }
+      return new Node(segments, nodes, policy, whiteListed);
+    }
+  }
+}
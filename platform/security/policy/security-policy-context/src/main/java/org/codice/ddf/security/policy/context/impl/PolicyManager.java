@@ -68,39 +68,22 @@ public class PolicyManager implements ContextPolicyManager {
 
   private Map<String, Object> policyProperties = new HashMap<>();
 
-  private int traversalDepth;
+  /**
+   * Lookup structure of {@link #getContextPolicy(String)}, rebuilt whenever the policies or the
+   * white list contexts change.
+   */
+  private volatile ContextPolicyTrie contextPolicyTrie;
+
+  private volatile int traversalDepth;
 
   public PolicyManager() {
     policyStore.put("/", defaultPolicy);
+    contextPolicyTrie = ContextPolicyTrie.build(policyStore, whiteListContexts);
   }
 
   @Override
   public ContextPolicy getContextPolicy(String path) {
-    return getContextPolicy(path, getPolicyStore(), getWhiteListContexts(), 0);
-  }
-
-  private ContextPolicy getContextPolicy(
-      String path,
-      Map<String, ContextPolicy> policyStore,
-      List<String> whiteListContexts,
-      int depth) {
-    ContextPolicy entry;
-    entry = policyStore.get(path);
-
-    if (entry != null) {
-      return entry;
-    } else if (whiteListContexts.contains(path)) {
-      return null;
-    } else {
-      String pathFragment = rollbackPath(path);
-      if (StringUtils.isNotEmpty(pathFragment) && depth <= traversalDepth) {
-        return getContextPolicy(pathFragment, policyStore, whiteListContexts, ++depth);
-      } else {
-        // this is just here for safety
-        // if we get down to the point where we can never get an entry, return the default
-        return policyStore.get("/");
-      }
-    }
+    return contextPolicyTrie.getContextPolicy(path, traversalDepth);
   }
 
   @Override
@@ -302,6 +285,7 @@ private void setPolicyStore(
     }
 
     policyStore = newPolicyStore;
+    contextPolicyTrie = ContextPolicyTrie.build(newPolicyStore, whiteListContexts);
   }
 
   /**
@@ -334,6 +318,7 @@ public void setWhiteListContexts(List<String> contexts) {
     LOGGER.debug("setWhiteListContexts(List<String>) called with {}", contexts);
     if (contexts != null && !contexts.isEmpty()) {
       this.whiteListContexts = PropertyResolver.resolveProperties(contexts);
+      contextPolicyTrie = ContextPolicyTrie.build(policyStore, whiteListContexts);
     }
   }
 
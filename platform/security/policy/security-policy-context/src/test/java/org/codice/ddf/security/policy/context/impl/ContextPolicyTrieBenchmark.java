@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.security.policy.context.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.codice.ddf.security.policy.context.ContextPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares how many lookups per second the {@link ContextPolicyTrie} answers against the lookup it
+ * replaced, which copied the policy store and white list of the {@link PolicyManager} and then
+ * rolled the path back one segment at a time. The rollback is also timed without the copies. Not
+ * run as part of the build.
+ *
+ * <p>Usage: {@code ContextPolicyTrieBenchmark [paths] [iterations]}
+ */
+public class ContextPolicyTrieBenchmark {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ContextPolicyTrieBenchmark.class);
+
+  private static final int TRAVERSAL_DEPTH = 20;
+
+  private static final PolicyManager MANAGER = new PolicyManager();
+
+  public static void main(String[] args) {
+    int pathCount = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+    int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+
+    Map<String, ContextPolicy> policies = ContextPolicyTrieTest.manyContexts();
+    List<String> whiteList = ContextPolicyTrieTest.manyContextsWhiteList();
+    ContextPolicyTrie trie = ContextPolicyTrie.build(policies, whiteList);
+
+    Random random = new Random(7);
+    List<String> paths = new ArrayList<>(pathCount);
+    for (int i = 0; i < pathCount; i++) {
+      paths.add(ContextPolicyTrieTest.deepPath(random));
+    }
+
+    for (String path : paths) {
+      if (!Objects.equals(
+          contextPath(copyAndRollback(path, policies, whiteList)),
+          contextPath(trie.getContextPolicy(path, TRAVERSAL_DEPTH)))) {
+        throw new IllegalStateException("The trie and the rollback disagree on " + path);
+      }
+    }
+
+    for (int round = 0; round < 2; round++) {
+      // the first round warms up the JIT
+      long found = 0;
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        for (String path : paths) {
+          found += copyAndRollback(path, policies, whiteList) != null ? 1 : 0;
+        }
+      }
+      report("Copy and rollback", pathCount * iterations, start, found);
+
+      found = 0;
+      start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        for (String path : paths) {
+          ContextPolicy policy =
+              ContextPolicyTrieTest.rollback(path, policies, whiteList, TRAVERSAL_DEPTH, 0);
+          found += policy != null ? 1 : 0;
+        }
+      }
+      report("Rollback", pathCount * iterations, start, found);
+
+      found = 0;
+      start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        for (String path : paths) {
+          found += trie.getContextPolicy(path, TRAVERSAL_DEPTH) != null ? 1 : 0;
+        }
+      }
+      report("Trie", pathCount * iterations, start, found);
+    }
+  }
+
+  /**
+   * Lookup of {@link PolicyManager#getContextPolicy(String)} before the trie, which rolled back
+   * through copies of {@link PolicyManager#getPolicyStore()} and {@link
+   * PolicyManager#getWhiteListContexts()}.
+   */
+  private static ContextPolicy copyAndRollback(
+      String path, Map<String, ContextPolicy> policies, List<String> whiteList) {
+    Map<String, ContextPolicy> copiedPolicies = new HashMap<>();
+    for (ContextPolicy policy : policies.values()) {
+      copiedPolicies.put(policy.getContextPath(), MANAGER.copyContextPolicy(policy));
+    }
+    return ContextPolicyTrieTest.rollback(
+        path, copiedPolicies, new ArrayList<>(whiteList), TRAVERSAL_DEPTH, 0);
+  }
+
+  private static String contextPath(ContextPolicy policy) {
+    return policy != null ? policy.getContextPath() : null;
+  }
+
+  /** @param checksum result of the timed work, logged so it can't be optimized away */
+  private static void report(String name, long lookups, long start, long checksum) {
+    long nanos = Math.max(System.nanoTime() - start, 1);
+    LOGGER.info(
+        "{}: {} lookups/s (checksum {})",
+        name,
+        lookups * TimeUnit.SECONDS.toNanos(1) / nanos,
+        checksum);
+  }
+}
@@ -0,0 +1,210 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.ddf.security.policy.context.impl;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.codice.ddf.security.policy.context.ContextPolicy;
+import org.junit.Test;
+
+public class ContextPolicyTrieTest {
+
+  private static final PolicyManager MANAGER = new PolicyManager();
+
+  @Test
+  public void testDeepestContextWins() {
+    ContextPolicyTrie trie =
+        ContextPolicyTrie.build(policies("/", "/search", "/search/standard"), whiteList("/x"));
+
+    assertThat(
+        trie.getContextPolicy("/search/standard/user", 20).getContextPath(),
+        is("/search/standard"));
+    assertThat(trie.getContextPolicy("/search/other", 20).getContextPath(), is("/search"));
+    assertThat(trie.getContextPolicy("/searching", 20).getContextPath(), is("/"));
+    assertThat(trie.getContextPolicy("/x/y", 20), nullValue());
+    assertThat(trie.getContextPolicy("blah", 20).getContextPath(), is("/"));
+    assertThat(trie.getContextPolicy("", 20).getContextPath(), is("/"));
+  }
+
+  @Test
+  public void testPolicyTakesPrecedenceOverWhiteList() {
+    ContextPolicyTrie trie =
+        ContextPolicyTrie.build(policies("/", "/services/a"), whiteList("/services"));
+
+    assertThat(trie.getContextPolicy("/services/a/b", 20).getContextPath(), is("/services/a"));
+    assertThat(trie.getContextPolicy("/services/b", 20), nullValue());
+  }
+
+  @Test
+  public void testTraversalDepth() {
+    ContextPolicyTrie trie = ContextPolicyTrie.build(policies("/", "/a"), whiteList());
+
+    assertThat(trie.getContextPolicy("/a/1/2/3", 2).getContextPath(), is("/a"));
+    assertThat(trie.getContextPolicy("/a/1/2/3/4", 2).getContextPath(), is("/"));
+  }
+
+  @Test
+  public void testPoliciesAreSharedAndUnmodifiable() {
+    ContextPolicyTrie trie = ContextPolicyTrie.build(policies("/", "/a"), whiteList());
+
+    ContextPolicy policy = trie.getContextPolicy("/a/b", 20);
+
+    assertThat(trie.getContextPolicy("/a/c", 20), sameInstance(policy));
+    try {
+      policy.getAuthenticationMethods().add("PKI");
+      throw new AssertionError("Authentication methods should be unmodifiable");
+    } catch (UnsupportedOperationException e) {
+      assertThat(policy.getAuthenticationMethods().size(), is(1));
+    }
+  }
+
+  /** Compares random lookups of random configurations against the rollback based algorithm. */
+  @Test
+  public void testMatchesRollback() {
+    Random random = new Random(42);
+    for (int run = 0; run < 500; run++) {
+      List<String> paths = new ArrayList<>();
+      for (int i = random.nextInt(8); i > 0; i--) {
+        paths.add(randomPath(random, 6));
+      }
+      paths.add("/");
+      Map<String, ContextPolicy> policies = policies(paths.toArray(new String[paths.size()]));
+      List<String> whiteList = new ArrayList<>();
+      for (int i = random.nextInt(4); i > 0; i--) {
+        whiteList.add(randomPath(random, 6));
+      }
+      int traversalDepth = random.nextInt(6);
+      ContextPolicyTrie trie = ContextPolicyTrie.build(policies, whiteList);
+
+      for (int i = 0; i < 200; i++) {
+        String path = randomPath(random, 12);
+        assertContextPolicy(trie, policies, whiteList, path, traversalDepth);
+      }
+    }
+  }
+
+  /**
+   * Checks deep request paths against a few hundred configured contexts, the workload of a
+   * deployment with many endpoints. {@link ContextPolicyTrieBenchmark} times the same workload.
+   */
+  @Test
+  public void testManyContextsAndDeepPaths() {
+    Map<String, ContextPolicy> policies = manyContexts();
+    List<String> whiteList = manyContextsWhiteList();
+    ContextPolicyTrie trie = ContextPolicyTrie.build(policies, whiteList);
+
+    Random random = new Random(7);
+    for (int i = 0; i < 10000; i++) {
+      String path = deepPath(random);
+      assertContextPolicy(trie, policies, whiteList, path, 20);
+      assertContextPolicy(trie, policies, whiteList, path, 500);
+    }
+  }
+
+  /** @return the policies of 50 endpoints, each with 5 versioned resource contexts */
+  static Map<String, ContextPolicy> manyContexts() {
+    List<String> paths = new ArrayList<>();
+    paths.add("/");
+    for (int service = 0; service < 50; service++) {
+      String path = "/services/endpoint" + service;
+      paths.add(path);
+      for (int version = 0; version < 5; version++) {
+        paths.add(path + "/v" + version + "/resources");
+      }
+    }
+    return policies(paths.toArray(new String[paths.size()]));
+  }
+
+  static List<String> manyContextsWhiteList() {
+    return whiteList("/services/endpoint7/public", "/services/endpoint9");
+  }
+
+  /** @return a request path up to 30 segments below one of the {@link #manyContexts()} */
+  static String deepPath(Random random) {
+    StringBuilder path = new StringBuilder("/services/endpoint").append(random.nextInt(60));
+    path.append(random.nextBoolean() ? "/v" + random.nextInt(6) + "/resources" : "/public");
+    for (int depth = random.nextInt(30); depth > 0; depth--) {
+      path.append('/').append(random.nextInt(1000));
+    }
+    return path.toString();
+  }
+
+  private static void assertContextPolicy(
+      ContextPolicyTrie trie,
+      Map<String, ContextPolicy> policies,
+      List<String> whiteList,
+      String path,
+      int traversalDepth) {
+    ContextPolicy expected = rollback(path, policies, whiteList, traversalDepth, 0);
+    ContextPolicy actual = trie.getContextPolicy(path, traversalDepth);
+    String reason = path + " with traversal depth " + traversalDepth;
+    if (expected == null) {
+      assertThat(reason, actual, nullValue());
+    } else {
+      assertThat(reason, actual.getContextPath(), is(expected.getContextPath()));
+    }
+  }
+
+  /** Lookup of the policy store and white list before they were compiled into a trie. */
+  static ContextPolicy rollback(
+      String path,
+      Map<String, ContextPolicy> policies,
+      List<String> whiteList,
+      int traversalDepth,
+      int depth) {
+    if (policies.containsKey(path)) {
+      return policies.get(path);
+    } else if (whiteList.contains(path)) {
+      return null;
+    }
+
+    String pathFragment = MANAGER.rollbackPath(path);
+    if (!pathFragment.isEmpty() && depth <= traversalDepth) {
+      return rollback(pathFragment, policies, whiteList, traversalDepth, depth + 1);
+    }
+    return policies.get("/");
+  }
+
+  private static String randomPath(Random random, int maxLength) {
+    StringBuilder path = new StringBuilder();
+    for (int i = random.nextInt(maxLength + 1); i > 0; i--) {
+      path.append("/ab".charAt(random.nextInt(3)));
+    }
+    return path.toString();
+  }
+
+  static Map<String, ContextPolicy> policies(String... paths) {
+    Map<String, ContextPolicy> policies = new HashMap<>();
+    for (String path : paths) {
+      List<String> authenticationMethods = new ArrayList<>(Collections.singletonList("SAML"));
+      policies.put(path, new Policy(path, "karaf", authenticationMethods, new ArrayList<>()));
+    }
+    return policies;
+  }
+
+  static List<String> whiteList(String... paths) {
+    List<String> whiteList = new ArrayList<>();
+    Collections.addAll(whiteList, paths);
+    return whiteList;
+  }
+}
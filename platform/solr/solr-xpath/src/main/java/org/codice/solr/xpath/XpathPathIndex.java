@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.solr.xpath;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import net.sf.saxon.s9api.Axis;
+import net.sf.saxon.s9api.XdmNode;
+import net.sf.saxon.s9api.XdmNodeKind;
+import net.sf.saxon.s9api.XdmSequenceIterator;
+
+/**
+ * Path tokens used to pre-filter XPath queries before evaluating them with Saxon.
+ *
+ * <p>At index time every document gets a token for the absolute path of each of its elements and
+ * attributes ({@code /a/b}, {@code /a/b/@c}) and for each element and attribute name ({@code //b},
+ * {@code //@c}). At query time the steps of an XPath are turned into the tokens every matching
+ * document must have. Names are compared without their namespace prefix since the indexed XML has
+ * its namespaces stripped.
+ *
+ * <p>Documents indexed before the tokens existed don't have the {@link #INDEXED_MARKER} token and
+ * have to remain candidates for every XPath.
+ */
+public final class XpathPathIndex {
+
+  /** Name of the multi-valued string field holding the path tokens. */
+  public static final String PATHS_FIELD_NAME = "xpath_paths";
+
+  /** Token added to every document whose paths are completely indexed. */
+  public static final String INDEXED_MARKER = "/";
+
+  /**
+   * Longest path that is indexed. Documents with longer paths don't get the {@link #INDEXED_MARKER}
+   * so they stay candidates for every XPath.
+   */
+  static final int MAX_PATH_LENGTH = 8192;
+
+  private static final String DESCENDANT = "//";
+
+  private static final String ATTRIBUTE = "@";
+
+  private static final String WILDCARD = "*";
+
+  private XpathPathIndex() {}
+
+  /**
+   * Gets the path tokens of a document.
+   *
+   * @param document parsed XML document
+   * @return path tokens to index
+   */
+  public static Set<String> getPaths(XdmNode document) {
+    Set<String> paths = new HashSet<>();
+    boolean complete = true;
+
+    Deque<PathNode> nodes = new ArrayDeque<>();
+    nodes.push(new PathNode(document, ""));
+
+    while (!nodes.isEmpty()) {
+      PathNode parent = nodes.pop();
+      XdmSequenceIterator children = parent.node.axisIterator(Axis.CHILD);
+
+      while (children.hasNext()) {
+        XdmNode child = (XdmNode) children.next();
+        if (child.getNodeKind() != XdmNodeKind.ELEMENT) {
+          continue;
+        }
+
+        String name = child.getNodeName().getLocalName();
+        String path = parent.path + "/" + name;
+        if (path.length() > MAX_PATH_LENGTH) {
+          complete = false;
+          continue;
+        }
+
+        paths.add(path);
+        paths.add(DESCENDANT + name);
+
+        XdmSequenceIterator attributes = child.axisIterator(Axis.ATTRIBUTE);
+        while (attributes.hasNext()) {
+          String attribute = ((XdmNode) attributes.next()).getNodeName().getLocalName();
+          String attributePath = path + "/" + ATTRIBUTE + attribute;
+          if (attributePath.length() > MAX_PATH_LENGTH) {
+            complete = false;
+            continue;
+          }
+
+          paths.add(attributePath);
+          paths.add(DESCENDANT + ATTRIBUTE + attribute);
+        }
+
+        nodes.push(new PathNode(child, path));
+      }
+    }
+
+    if (complete) {
+      paths.add(INDEXED_MARKER);
+    }
+
+    return paths;
+  }
+
+  /**
+   * Gets the path tokens a document must have to match an XPath. Only location paths made of child
+   * and descendant steps, optionally followed by predicates, are analyzed. Predicates only narrow
+   * the result and are skipped.
+   *
+   * @param xpath XPath starting with {@code /}
+   * @return the required path tokens, or an empty list if the XPath can't be pre-filtered
+   */
+  public static List<String> getRequiredPaths(String xpath) {
+    Set<String> paths = new LinkedHashSet<>();
+    StringBuilder absolutePath = new StringBuilder();
+    boolean absolute = true;
+    boolean terminal = false;
+    int length = xpath.length();
+    int i = 0;
+
+    while (i < length && xpath.charAt(i) == '/') {
+      if (terminal) {
+        // attributes and kind tests have no children
+        return Collections.emptyList();
+      }
+
+      if (xpath.startsWith(DESCENDANT, i)) {
+        absolute = false;
+        i += DESCENDANT.length();
+      } else {
+        i++;
+      }
+
+      int start = i;
+      while (i < length && isNameChar(xpath.charAt(i))) {
+        i++;
+      }
+      String step = xpath.substring(start, i);
+
+      if (i < length && xpath.charAt(i) == '(') {
+        // only kind tests such as text() or node() are supported
+        if (!xpath.startsWith("()", i) || step.isEmpty()) {
+          return Collections.emptyList();
+        }
+        i += 2;
+        absolute = false;
+        terminal = true;
+      } else if (step.isEmpty() || step.contains("::") || "..".equals(step)) {
+        return Collections.emptyList();
+      } else if (!".".equals(step)) {
+        boolean attribute = step.startsWith(ATTRIBUTE);
+        String name = attribute ? step.substring(ATTRIBUTE.length()) : step;
+        name = name.substring(name.lastIndexOf(':') + 1);
+
+        if (name.contains(WILDCARD)) {
+          absolute = false;
+        } else if (attribute) {
+          paths.add(
+              absolute ? absolutePath + "/" + ATTRIBUTE + name : DESCENDANT + ATTRIBUTE + name);
+        } else if (absolute) {
+          absolutePath.append('/').append(name);
+        } else {
+          paths.add(DESCENDANT + name);
+        }
+        terminal = attribute;
+      }
+
+      i = skipPredicates(xpath, i);
+      if (i < 0) {
+        return Collections.emptyList();
+      }
+    }
+
+    if (!xpath.substring(i).trim().isEmpty()) {
+      // operators, unions and function calls can match documents without these paths
+      return Collections.emptyList();
+    }
+
+    List<String> required = new ArrayList<>(paths.size() + 1);
+    if (absolutePath.length() > 0) {
+      required.add(absolutePath.toString());
+    }
+    required.addAll(paths);
+    return required;
+  }
+
+  private static boolean isNameChar(char c) {
+    return Character.isLetterOrDigit(c) || "-_.:*@".indexOf(c) >= 0;
+  }
+
+  /** @return the index after the predicates starting at {@code index}, or -1 if unterminated */
+  private static int skipPredicates(String xpath, int index) {
+    int depth = 0;
+    char quote = 0;
+
+    for (int i = index; i < xpath.length(); i++) {
+      char c = xpath.charAt(i);
+
+      if (quote != 0) {
+        if (c == quote) {
+          quote = 0;
+        }
+      } else if (c == '\'' || c == '"') {
+        quote = c;
+      } else if (c == '[') {
+        depth++;
+      } else if (c == ']') {
+        depth--;
+      } else if (depth == 0) {
+        return i;
+      }
+    }
+
+    return depth == 0 && quote == 0 ? xpath.length() : -1;
+  }
+
+  private static class PathNode {
+
+    private final XdmNode node;
+
+    private final String path;
+
+    private PathNode(XdmNode node, String path) {
+      this.node = node;
+      this.path = path;
+    }
+  }
+}
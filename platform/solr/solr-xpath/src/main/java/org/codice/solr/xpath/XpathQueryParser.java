@@ -13,8 +13,14 @@
  */
 package org.codice.solr.xpath;
 
+import java.util.List;
 import org.apache.commons.lang.StringUtils;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
 import org.apache.solr.search.SolrQueryParser;
 import org.apache.solr.search.SyntaxError;
 
@@ -48,6 +54,9 @@ protected Query getFieldQuery(String field, String queryText, int slop) throws S
    * fields. Further post filtering is needed for XPath functionality that cannot evaluated against
    * xpath index.
    *
+   * <p>Documents indexed without path tokens are always matched, as is every document when the
+   * XPath can't be reduced to required paths.
+   *
    * @param queryText XPath expression to convert into lucene path and attribute index query
    * @return Lucene query to pre-filter using xpath index
    */
@@ -61,6 +70,27 @@ private Query getLuceneQuery(final String queryText) {
       xpath = "/" + xpath;
     }
 
-    return null; // TODO DDF-1882 add lucene xpath pre-filtering
+    List<String> paths = XpathPathIndex.getRequiredPaths(xpath);
+    if (paths.isEmpty()) {
+      return new MatchAllDocsQuery();
+    }
+
+    BooleanQuery.Builder indexed = new BooleanQuery.Builder();
+    for (String path : paths) {
+      indexed.add(getPathQuery(path), Occur.FILTER);
+    }
+
+    BooleanQuery.Builder notIndexed = new BooleanQuery.Builder();
+    notIndexed.add(new MatchAllDocsQuery(), Occur.FILTER);
+    notIndexed.add(getPathQuery(XpathPathIndex.INDEXED_MARKER), Occur.MUST_NOT);
+
+    return new BooleanQuery.Builder()
+        .add(indexed.build(), Occur.SHOULD)
+        .add(notIndexed.build(), Occur.SHOULD)
+        .build();
+  }
+
+  private Query getPathQuery(String path) {
+    return new TermQuery(new Term(XpathPathIndex.PATHS_FIELD_NAME, path));
   }
 }